@@ -355,6 +355,7 @@ public class AutocodeConcurrentApp {
 				"main/ejml-ddense/src/org/ejml/dense/block/decomposition/chol",
 				"main/ejml-ddense/src/org/ejml/dense/block/decomposition/qr",
 				"main/ejml-ddense/src/org/ejml/dense/block/decomposition/hessenberg",
+				"main/ejml-ddense/src/org/ejml/dense/block/decomposition/lu",
 				"main/ejml-ddense/src/org/ejml/dense/block/linsol/chol",
 				"main/ejml-ddense/src/org/ejml/dense/block/linsol/qr",
 		};
@@ -31,7 +31,7 @@ public class GenerateJavaCode32 extends GenerateCode32 {
     public GenerateJavaCode32() {
         super("java",new ConvertFile32From64(false));
 
-        String[] sufficeRoot = new String[]{"DRM","DMA","DRB","SCC","STL","DF2","DF3","DF4","DF5","DF6","TRIPLET"};
+        String[] sufficeRoot = new String[]{"DRM","DMA","DRB","SCC","SCR","STL","DF2","DF3","DF4","DF5","DF6","TRIPLET"};
 
         suffices64.add("_DDRB_to_DDRM");
         suffices64.add("_F64");
@@ -66,6 +66,8 @@ public class GenerateJavaCode32 extends GenerateCode32 {
         prefix32.add("FScalar");
         prefix64.add("DMatrix");
         prefix32.add("FMatrix");
+        prefix64.add("DVector");
+        prefix32.add("FVector");
         prefix64.add("ZMatrix");
         prefix32.add("CMatrix");
         prefix64.add("DEigen");
@@ -106,6 +108,7 @@ public class GenerateJavaCode32 extends GenerateCode32 {
         converter.replacePattern("ConvertD", "ConvertF");
         converter.replacePattern("DGrowArray", "FGrowArray");
         converter.replacePattern("DMatrix", "FMatrix");
+        converter.replacePattern("DVector", "FVector");
         converter.replacePattern("DSubmatrix", "FSubmatrix");
         converter.replacePattern("DEigen", "FEigen");
         converter.replacePattern("ZComplex", "CComplex");
@@ -143,7 +146,9 @@ public class GenerateJavaCode32 extends GenerateCode32 {
                 "main/ejml-core/test/org/ejml/data",
                 "main/ejml-core/src/org/ejml/ops",
                 "main/ejml-core/test/org/ejml/ops",
-                "main/ejml-experimental/src/org/ejml/dense/row/decomposition/bidiagonal/"
+                "main/ejml-experimental/src/org/ejml/dense/row/decomposition/bidiagonal/",
+                "main/ejml-simd/src/org/ejml/simd",
+                "main/ejml-simd/test/org/ejml/simd"
         };
 
         GenerateJavaCode32 app = new GenerateJavaCode32();
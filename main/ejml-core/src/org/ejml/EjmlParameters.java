@@ -59,6 +59,12 @@ public class EjmlParameters {
     public static int MULT_TRANAB_COLUMN_SWITCH = 40;
     public static int MULT_INNER_SWITCH = 100;
 
+    /**
+     * Dense matrix multiplication switches to the cache blocked and packed algorithm when every dimension
+     * in the product is at least this large.
+     */
+    public static int MULT_PACKED_SWITCH = 64;
+
     public static int CMULT_COLUMN_SWITCH = 7;
     public static int CMULT_TRANAB_COLUMN_SWITCH = 20;
     
@@ -76,6 +82,36 @@ public class EjmlParameters {
 
     public static int SWITCH_BLOCK64_QR = 1500;
 
+    /**
+     * At which point should it switch to the block LU algorithm. The block algorithm was found to be faster
+     * once the matrix no longer fits inside the CPU cache.
+     */
+    public static int SWITCH_BLOCK64_LU = 400;
+
+    /**
+     * At which point should symmetric eigenvectors be computed using divide and conquer instead of
+     * the QR algorithm.
+     */
+    public static int SWITCH_EIG_DIVIDE_CONQUER = 400;
+
+    /**
+     * At which point should the SVD be computed using divide and conquer instead of the QR algorithm. Only used
+     * when both U and V are requested.
+     */
+    public static int SWITCH_SVD_DIVIDE_CONQUER = 250;
+
+    /**
+     * When multiplying a sparse matrix by a sparse vector the output is pulled from the matrix, instead of
+     * pushed from the vector, when pushing would touch more than this fraction of the matrix's non-zero elements.
+     */
+    public static double SPARSE_VECTOR_PULL_FRACTION = 0.1;
+
+    /**
+     * Minimum number of matrices each thread will process in a concurrent batch operation. Operations on
+     * small fixed sized matrices are very cheap, so a block needs to be large to hide the threading overhead.
+     */
+    public static int BATCH_MT_MIN_BLOCK = 1024;
+
     public enum MemoryUsage
     {
         /**
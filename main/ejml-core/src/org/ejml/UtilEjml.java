@@ -205,6 +205,22 @@ public class UtilEjml {
         return target;
     }
 
+    public static DMatrixSparseCSR reshapeOrDeclare( @Nullable DMatrixSparseCSR target, int rows, int cols, int nz_length ) {
+        if (target == null)
+            return new DMatrixSparseCSR(rows, cols, nz_length);
+        else
+            target.reshape(rows, cols, nz_length);
+        return target;
+    }
+
+    public static FMatrixSparseCSR reshapeOrDeclare( @Nullable FMatrixSparseCSR target, int rows, int cols, int nz_length ) {
+        if (target == null)
+            return new FMatrixSparseCSR(rows, cols, nz_length);
+        else
+            target.reshape(rows, cols, nz_length);
+        return target;
+    }
+
     public static void checkSameShape( Matrix a, Matrix b, boolean allowedSameInstance ) {
         if (a.getNumRows() != b.getNumRows() || a.getNumCols() != b.getNumCols()) {
             throw new MatrixDimensionException("Must be same shape. " + a.getNumRows() + "x" + a.getNumCols() + " vs " + b.getNumRows() + "x" + b.getNumCols());
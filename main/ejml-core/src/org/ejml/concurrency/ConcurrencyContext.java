@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.concurrency;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * <p>
+ * Specifies how concurrent algorithms are run: the thread pool, the maximum number of threads a single
+ * loop can use and the minimum number of iterations a loop needs before it's split between threads. Loops with
+ * fewer iterations are run in the calling thread.
+ * </p>
+ *
+ * <p>
+ * A context is activated for the calling thread with {@link EjmlConcurrency#runWith}. While it's active every
+ * loop in EjmlConcurrency, and therefore every concurrent algorithm, uses it instead of the global settings. This
+ * allows different callers to use different thread pools at the same time. The context is automatically
+ * used by worker threads which are processing a loop started inside of it.
+ * </p>
+ *
+ * <p>
+ * Operations which know how much work they need to do use the context's {@link ConcurrencyCostModel} to decide
+ * if they should be run concurrently and how large each block should be.
+ * </p>
+ *
+ * <pre>
+ * ConcurrencyContext context = new ConcurrencyContext(pool, 4, 64);
+ * EjmlConcurrency.runWith(context, () -&gt; CommonOps_MT_DDRM.mult(a, b, c));
+ * </pre>
+ *
+ * @author Peter Abeles
+ */
+public class ConcurrencyContext {
+	// thread pool which tasks are submitted to
+	final ForkJoinPool pool;
+	// maximum number of threads a single loop is split between
+	final int maxThreads;
+	// loops with fewer iterations than this are run in the calling thread
+	final int minimumWork;
+	// decides if an operation with a known cost should be run concurrently
+	ConcurrencyCostModel costModel = new ConcurrencyCostModel();
+
+	/**
+	 * @param pool The thread pool tasks are submitted to
+	 * @param maxThreads Maximum number of threads a single loop is split between. Can't be more than the pool's
+	 * parallelism. &le; 1 means everything is run in the calling thread.
+	 * @param minimumWork Loops with fewer iterations than this are run in the calling thread.
+	 */
+	public ConcurrencyContext( ForkJoinPool pool, int maxThreads, int minimumWork ) {
+		if (minimumWork < 0)
+			throw new IllegalArgumentException("minimumWork can't be negative");
+		this.pool = pool;
+		this.maxThreads = Math.max(1, Math.min(maxThreads, pool.getParallelism()));
+		this.minimumWork = minimumWork;
+	}
+
+	/**
+	 * Uses all the threads in the pool and always splits loops
+	 */
+	public ConcurrencyContext( ForkJoinPool pool ) {
+		this(pool, pool.getParallelism(), 0);
+	}
+
+	/**
+	 * Creates a new thread pool with the specified number of threads
+	 */
+	public ConcurrencyContext( int maxThreads ) {
+		this(new ForkJoinPool(Math.max(1, maxThreads)), maxThreads, 0);
+	}
+
+	/**
+	 * Returns true if the loop should be split between threads
+	 *
+	 * @param iterations Number of iterations in the loop
+	 */
+	public boolean isConcurrentLoop( int iterations ) {
+		return maxThreads > 1 && iterations >= minimumWork;
+	}
+
+	/**
+	 * Returns true if a loop is allowed to use fewer threads than the pool has
+	 */
+	boolean isCapped() {
+		return maxThreads < pool.getParallelism();
+	}
+
+	/**
+	 * Returns true if an operation with the specified number of floating point operations should be
+	 * split between threads.
+	 */
+	public boolean isConcurrent( double flops ) {
+		return costModel.isConcurrent(flops, maxThreads);
+	}
+
+	/**
+	 * Calibrates the cost model for this context's pool. See {@link ConcurrencyCostModel#calibrate}.
+	 */
+	public void calibrate() {
+		costModel.calibrate(pool);
+	}
+
+	public ForkJoinPool getPool() {
+		return pool;
+	}
+
+	public int getMaxThreads() {
+		return maxThreads;
+	}
+
+	public int getMinimumWork() {
+		return minimumWork;
+	}
+
+	public ConcurrencyCostModel getCostModel() {
+		return costModel;
+	}
+
+	public void setCostModel( ConcurrencyCostModel costModel ) {
+		this.costModel = costModel;
+	}
+}
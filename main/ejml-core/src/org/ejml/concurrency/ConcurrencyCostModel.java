@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.concurrency;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * <p>
+ * Predicts if splitting an operation between threads will make it faster. The serial time is the number of
+ * floating point operations multiplied by the time per operation. The concurrent time is the serial time divided
+ * by the number of threads, plus the fixed cost of submitting work to the pool and waiting for it, plus a cost
+ * for each task which is forked:
+ * </p>
+ *
+ * <pre>
+ * serial     = flops*nanoPerFlop
+ * concurrent = serial/threads + forkOverhead + threads*taskOverhead
+ * </pre>
+ *
+ * <p>
+ * Work is only split if the concurrent time is smaller by at least a factor of {@link #getMinimumSpeedup()}. The
+ * same model selects block sizes, where every block must do enough work to hide the cost of its task.
+ * The default values are conservative estimates for a desktop computer. {@link #calibrate} measures them
+ * with a short micro benchmark and should be called once at startup if accurate thresholds are needed.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class ConcurrencyCostModel {
+	// nano seconds to perform one floating point operation in a single thread
+	double nanoPerFlop = 0.5;
+	// nano seconds to submit work to a pool and wait for it to finish
+	double forkOverhead = 20_000;
+	// nano seconds for each additional task which is forked
+	double taskOverhead = 2_000;
+	// concurrent execution needs to be at least this much faster
+	double minimumSpeedup = 1.2;
+	// each block should do this many times more work than it costs to fork its task
+	double blockWorkRatio = 10.0;
+
+	// used to prevent the micro benchmark from being optimized away
+	static volatile double sink;
+
+	/**
+	 * Creates a model where there's no overhead, so all work is split between threads in blocks which are as
+	 * small as possible. Useful for testing.
+	 */
+	public static ConcurrencyCostModel alwaysConcurrent() {
+		var model = new ConcurrencyCostModel();
+		model.forkOverhead = 0;
+		model.taskOverhead = 0;
+		model.minimumSpeedup = 1.0;
+		return model;
+	}
+
+	/**
+	 * Returns true if splitting the work between threads is predicted to be faster
+	 *
+	 * @param flops Number of floating point operations
+	 * @param threads Number of threads the work would be split between
+	 */
+	public boolean isConcurrent( double flops, int threads ) {
+		if (threads <= 1)
+			return false;
+		double serial = flops*nanoPerFlop;
+		double concurrent = serial/threads + forkOverhead + threads*taskOverhead;
+		return concurrent*minimumSpeedup < serial;
+	}
+
+	/**
+	 * Returns the minimum number of indexes in a block so that the work done by a block is much larger than
+	 * the cost of creating its task
+	 *
+	 * @param flopsPerIndex Number of floating point operations needed to process a single index
+	 */
+	public int minimumBlockSize( double flopsPerIndex ) {
+		double work = Math.max(1e-12, flopsPerIndex*nanoPerFlop);
+		return (int)Math.max(1, Math.min(Integer.MAX_VALUE, Math.ceil(blockWorkRatio*taskOverhead/work)));
+	}
+
+	/**
+	 * Returns the minimum number of floating point operations a block should have so that the work it does is
+	 * much larger than the cost of creating its task
+	 */
+	public double minimumBlockFlops() {
+		return blockWorkRatio*taskOverhead/nanoPerFlop;
+	}
+
+	/**
+	 * Measures the cost of floating point operations and how long it takes to use the pool. Takes a fraction
+	 * of a second.
+	 *
+	 * @param pool The pool that work will be submitted to
+	 */
+	public void calibrate( ForkJoinPool pool ) {
+		// Floating point throughput on a vector which fits inside the cache. The fastest trial is used
+		// since it's the least affected by other processes
+		final int N = 2048;
+		final int repeats = 64;
+		double[] a = new double[N];
+		double[] b = new double[N];
+		for (int i = 0; i < N; i++) {
+			a[i] = 1.0 + i*1e-6;
+			b[i] = 1.0 - i*1e-6;
+		}
+		long best = Long.MAX_VALUE;
+		for (int trial = 0; trial < 40; trial++) {
+			long before = System.nanoTime();
+			double sum = 0;
+			for (int r = 0; r < repeats; r++) {
+				for (int i = 0; i < N; i++) {
+					sum += a[i]*b[i];
+				}
+			}
+			best = Math.min(best, System.nanoTime() - before);
+			sink = sum;
+		}
+		nanoPerFlop = Math.max(1e-3, best/(2.0*N*repeats));
+
+		// The median is used for overheads since the fastest trial is unrealistically optimistic
+		int threads = Math.max(2, pool.getParallelism());
+		double[] single = new double[60];
+		double[] multiple = new double[60];
+		try {
+			for (int trial = 0; trial < single.length; trial++) {
+				long before = System.nanoTime();
+				pool.submit(new IntRangeTask(0, 1, 1, ( i0, i1 ) -> sink = i0)).get();
+				long middle = System.nanoTime();
+				pool.submit(new IntRangeTask(0, threads, 1, ( i0, i1 ) -> sink = i0)).get();
+				long after = System.nanoTime();
+				single[trial] = middle - before;
+				multiple[trial] = after - middle;
+			}
+		} catch (InterruptedException | ExecutionException e) {
+			throw new RuntimeException(e);
+		}
+		// skip the first trials while the JVM warms up
+		double fork = median(single, 10);
+		forkOverhead = Math.max(1.0, fork);
+		taskOverhead = Math.max(1.0, (median(multiple, 10) - fork)/(threads - 1));
+	}
+
+	static double median( double[] values, int skip ) {
+		double[] sorted = Arrays.copyOfRange(values, skip, values.length);
+		Arrays.sort(sorted);
+		return sorted[sorted.length/2];
+	}
+
+	public double getNanoPerFlop() {
+		return nanoPerFlop;
+	}
+
+	public void setNanoPerFlop( double nanoPerFlop ) {
+		this.nanoPerFlop = nanoPerFlop;
+	}
+
+	public double getForkOverhead() {
+		return forkOverhead;
+	}
+
+	public void setForkOverhead( double forkOverhead ) {
+		this.forkOverhead = forkOverhead;
+	}
+
+	public double getTaskOverhead() {
+		return taskOverhead;
+	}
+
+	public void setTaskOverhead( double taskOverhead ) {
+		this.taskOverhead = taskOverhead;
+	}
+
+	public double getMinimumSpeedup() {
+		return minimumSpeedup;
+	}
+
+	public void setMinimumSpeedup( double minimumSpeedup ) {
+		this.minimumSpeedup = minimumSpeedup;
+	}
+
+	public double getBlockWorkRatio() {
+		return blockWorkRatio;
+	}
+
+	public void setBlockWorkRatio( double blockWorkRatio ) {
+		this.blockWorkRatio = blockWorkRatio;
+	}
+}
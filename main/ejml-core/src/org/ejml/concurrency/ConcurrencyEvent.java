@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.concurrency;
+
+/**
+ * Measurements of work which an operation submitted to the thread pool. See {@link ConcurrencyListener}.
+ *
+ * @author Peter Abeles
+ */
+public class ConcurrencyEvent {
+	/** Name of the operation which submitted the work */
+	public final String operation;
+	/** Maximum number of threads the work could be split between */
+	public final int maxThreads;
+	/** Number of tasks. For loops which don't split the work into blocks this is the number of iterations */
+	public final int tasks;
+	/** Time from when the work was submitted until every task had finished */
+	public final long wallNanos;
+	/** Sum of the time spent running each task */
+	public final long busyNanos;
+	/** Number of floating point operations or NaN if it's not known */
+	public final double flops;
+
+	public ConcurrencyEvent( String operation, int maxThreads, int tasks,
+							 long wallNanos, long busyNanos, double flops ) {
+		this.operation = operation;
+		this.maxThreads = maxThreads;
+		this.tasks = tasks;
+		this.wallNanos = wallNanos;
+		this.busyNanos = busyNanos;
+		this.flops = flops;
+	}
+
+	/**
+	 * Fraction of the available thread time which was spent running tasks. A low value means the time was lost
+	 * to the overhead of submitting tasks or threads waiting on an unbalanced workload.
+	 */
+	public double getUtilization() {
+		if (wallNanos <= 0)
+			return 0;
+		return busyNanos/((double)wallNanos*maxThreads);
+	}
+
+	@Override
+	public String toString() {
+		return "ConcurrencyEvent{" + operation + " tasks=" + tasks + " wall=" + wallNanos + "ns busy=" + busyNanos +
+				"ns flops=" + flops + "}";
+	}
+}
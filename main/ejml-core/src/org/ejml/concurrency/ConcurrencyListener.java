@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.concurrency;
+
+/**
+ * <p>
+ * Receives measurements of concurrent operations. Install with {@link EjmlConcurrency#setListener}. When no
+ * listener is installed nothing is measured and the only cost is checking if a static field is null.
+ * </p>
+ *
+ * <p>
+ * Operations are identified by the name they pass to {@link EjmlConcurrency#operation(String, double)}, e.g.
+ * "CommonOps_MT_DDRM.mult". Work submitted to the thread pool while an operation is open in the submitting thread
+ * is reported under its name, even when it's submitted by a function it called, such as
+ * "MatrixMatrixMult_MT_DDRM.mult_reorder". Other work is named after the method which submitted it. Methods can be
+ * called by several threads at the same time. They are called while the operation is running, so they should be
+ * thread safe and fast.
+ * </p>
+ *
+ * @author Peter Abeles
+ * @see ConcurrencyMetrics
+ */
+public interface ConcurrencyListener {
+	/**
+	 * An operation used the cost model to decide if it should be run concurrently. See
+	 * {@link EjmlConcurrency#isConcurrent(String, double)}.
+	 *
+	 * @param operation Name of the operation which made the decision
+	 * @param flops Number of floating point operations it estimated
+	 * @param concurrent true if it will be run concurrently or false if it will be run in the calling thread
+	 */
+	void costDecision( String operation, double flops, boolean concurrent );
+
+	/**
+	 * A task has finished. Called by the thread which ran the task.
+	 *
+	 * @param operation Name of the operation which submitted the task
+	 * @param nanos How long the thread was busy running the task
+	 */
+	void taskFinished( String operation, long nanos );
+
+	/**
+	 * Work which was submitted to the thread pool has finished. Called by the thread which submitted it.
+	 */
+	void dispatchFinished( ConcurrencyEvent event );
+
+	/**
+	 * An operation started with {@link EjmlConcurrency#operation(String, double)} has finished. Called by the
+	 * thread which started it.
+	 *
+	 * @param operation Name of the operation
+	 * @param concurrent true if it was run concurrently or false if it was run in the calling thread
+	 * @param nanos How long the operation took
+	 */
+	default void operationFinished( String operation, boolean concurrent, long nanos ) {}
+}
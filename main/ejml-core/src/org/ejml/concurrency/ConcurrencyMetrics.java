@@ -0,0 +1,237 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.concurrency;
+
+import org.jetbrains.annotations.Nullable;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>
+ * {@link ConcurrencyListener} which accumulates the metrics of every operation and the time each thread spent
+ * running tasks. The metrics can be read directly or through JMX after calling {@link #register()}.
+ * </p>
+ *
+ * <pre>
+ * ConcurrencyMetrics metrics = new ConcurrencyMetrics();
+ * metrics.register();
+ * EjmlConcurrency.setListener(metrics);
+ * </pre>
+ *
+ * <p>
+ * A low {@link OperationMetrics#getUtilization() utilization} means the threads were waiting, either because
+ * the work was too small to be worth splitting or it was split unevenly. The achieved FLOPS can be compared
+ * against the computer's peak to see if an operation is limited by memory bandwidth.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class ConcurrencyMetrics implements ConcurrencyListener, ConcurrencyMetricsMXBean {
+	/**
+	 * Name it's registered with in JMX
+	 */
+	public static final String OBJECT_NAME = "org.ejml:type=ConcurrencyMetrics";
+
+	private final Map<String, OperationMetrics> operations = new ConcurrentHashMap<>();
+	private final Map<String, LongAdder> threadBusy = new ConcurrentHashMap<>();
+
+	@Override
+	public void costDecision( String operation, double flops, boolean concurrent ) {
+		OperationMetrics metrics = lookup(operation);
+		if (concurrent)
+			metrics.concurrentCalls.increment();
+		else
+			metrics.serialCalls.increment();
+		metrics.estimatedFlops.add(flops);
+	}
+
+	@Override
+	public void operationFinished( String operation, boolean concurrent, long nanos ) {
+		OperationMetrics metrics = lookup(operation);
+		if (concurrent)
+			metrics.concurrentNanos.add(nanos);
+		else
+			metrics.serialNanos.add(nanos);
+	}
+
+	@Override
+	public void taskFinished( String operation, long nanos ) {
+		threadBusy.computeIfAbsent(Thread.currentThread().getName(), k -> new LongAdder()).add(nanos);
+	}
+
+	@Override
+	public void dispatchFinished( ConcurrencyEvent event ) {
+		OperationMetrics metrics = lookup(event.operation);
+		metrics.dispatches.increment();
+		metrics.tasks.add(event.tasks);
+		metrics.wallNanos.add(event.wallNanos);
+		metrics.busyNanos.add(event.busyNanos);
+		metrics.availableNanos.add(event.wallNanos*event.maxThreads);
+		if (!Double.isNaN(event.flops))
+			metrics.dispatchedFlops.add(event.flops);
+	}
+
+	private OperationMetrics lookup( String operation ) {
+		return operations.computeIfAbsent(operation, k -> new OperationMetrics());
+	}
+
+	/**
+	 * Returns the metrics for an operation or null if it hasn't been seen
+	 */
+	public @Nullable OperationMetrics getOperation( String operation ) {
+		return operations.get(operation);
+	}
+
+	@Override
+	public Map<String, OperationMetrics> getOperations() {
+		return new TreeMap<>(operations);
+	}
+
+	@Override
+	public Map<String, Long> getThreadBusyNanos() {
+		Map<String, Long> found = new TreeMap<>();
+		threadBusy.forEach(( name, nanos ) -> found.put(name, nanos.sum()));
+		return found;
+	}
+
+	@Override
+	public int getPoolParallelism() {
+		return EjmlConcurrency.getGlobalContext().getPool().getParallelism();
+	}
+
+	@Override
+	public int getPoolActiveThreadCount() {
+		return EjmlConcurrency.getGlobalContext().getPool().getActiveThreadCount();
+	}
+
+	@Override
+	public long getPoolStealCount() {
+		ForkJoinPool pool = EjmlConcurrency.getGlobalContext().getPool();
+		return pool.getStealCount();
+	}
+
+	@Override
+	public void reset() {
+		operations.clear();
+		threadBusy.clear();
+	}
+
+	/**
+	 * Registers with the platform MBean server using {@link #OBJECT_NAME}
+	 */
+	public void register() {
+		try {
+			ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(OBJECT_NAME));
+		} catch (JMException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Removes it from the platform MBean server
+	 */
+	public void unregister() {
+		try {
+			ManagementFactory.getPlatformMBeanServer().unregisterMBean(new ObjectName(OBJECT_NAME));
+		} catch (JMException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Metrics accumulated for a single operation. All times are in nanoseconds.
+	 */
+	public static class OperationMetrics {
+		final LongAdder concurrentCalls = new LongAdder();
+		final LongAdder serialCalls = new LongAdder();
+		final LongAdder concurrentNanos = new LongAdder();
+		final LongAdder serialNanos = new LongAdder();
+		final DoubleAdder estimatedFlops = new DoubleAdder();
+		final LongAdder dispatches = new LongAdder();
+		final LongAdder tasks = new LongAdder();
+		final LongAdder wallNanos = new LongAdder();
+		final LongAdder busyNanos = new LongAdder();
+		final LongAdder availableNanos = new LongAdder();
+		final DoubleAdder dispatchedFlops = new DoubleAdder();
+
+		/** Number of times the cost model decided to run it concurrently */
+		public long getConcurrentCalls() {
+			return concurrentCalls.sum();
+		}
+
+		/** Number of times the cost model decided to run it in the calling thread */
+		public long getSerialCalls() {
+			return serialCalls.sum();
+		}
+
+		/** Time spent in calls which were run concurrently */
+		public long getConcurrentNanos() {
+			return concurrentNanos.sum();
+		}
+
+		/** Time spent in calls which were run in the calling thread */
+		public long getSerialNanos() {
+			return serialNanos.sum();
+		}
+
+		/** Sum of the floating point operations the cost model was given */
+		public double getEstimatedFlops() {
+			return estimatedFlops.sum();
+		}
+
+		/** Number of times work was submitted to the thread pool */
+		public long getDispatches() {
+			return dispatches.sum();
+		}
+
+		/** Number of tasks the submitted work was split into */
+		public long getTasks() {
+			return tasks.sum();
+		}
+
+		/** Time from submitting work until all of its tasks had finished */
+		public long getWallNanos() {
+			return wallNanos.sum();
+		}
+
+		/** Time threads spent running tasks */
+		public long getBusyNanos() {
+			return busyNanos.sum();
+		}
+
+		/** Floating point operations in submitted work, when it was known */
+		public double getDispatchedFlops() {
+			return dispatchedFlops.sum();
+		}
+
+		/** Fraction of the available thread time which was spent running tasks */
+		public double getUtilization() {
+			long available = availableNanos.sum();
+			return available == 0 ? 0 : getBusyNanos()/(double)available;
+		}
+	}
+}
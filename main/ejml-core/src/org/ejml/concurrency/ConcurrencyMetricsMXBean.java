@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.concurrency;
+
+import java.util.Map;
+
+/**
+ * JMX interface for {@link ConcurrencyMetrics}. All times are in nanoseconds. The pool attributes describe the
+ * pool of the global context, see {@link EjmlConcurrency#getGlobalContext()}. Pools in contexts which were
+ * activated for a thread aren't included.
+ *
+ * @author Peter Abeles
+ */
+public interface ConcurrencyMetricsMXBean {
+	/**
+	 * Metrics for each operation. The key is the name of the operation.
+	 */
+	Map<String, ConcurrencyMetrics.OperationMetrics> getOperations();
+
+	/**
+	 * Total time each thread spent running tasks. The key is the name of the thread.
+	 */
+	Map<String, Long> getThreadBusyNanos();
+
+	/** Number of threads in the global thread pool */
+	int getPoolParallelism();
+
+	/** Estimated number of threads in the global thread pool which are running tasks */
+	int getPoolActiveThreadCount();
+
+	/** Number of tasks in the global thread pool which were stolen from another thread's queue */
+	long getPoolStealCount();
+
+	/** Discards all the metrics which have been collected */
+	void reset();
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.concurrency;
+
+/**
+ * <p>
+ * An operation which has asked the cost model if it should run concurrently. Returned by
+ * {@link EjmlConcurrency#operation(String, double)}. Closing it tells the {@link ConcurrencyListener} how long the
+ * operation took and ends its name scope, so it should be used in a try-with-resources block.
+ * </p>
+ *
+ * <pre>
+ * try (ConcurrencyOperation op = EjmlConcurrency.operation("CommonOps_MT_DDRM.mult", flops)) {
+ *     if (!op.isConcurrent())
+ *         return CommonOps_DDRM.mult(a, b, c);
+ *     ...
+ * }
+ * </pre>
+ *
+ * @author Peter Abeles
+ */
+public class ConcurrencyOperation implements AutoCloseable {
+	// Returned when there is no listener so that nothing is allocated
+	static final ConcurrencyOperation SERIAL = new ConcurrencyOperation(false);
+	static final ConcurrencyOperation CONCURRENT = new ConcurrencyOperation(true);
+
+	final boolean concurrent;
+
+	ConcurrencyOperation( boolean concurrent ) {
+		this.concurrent = concurrent;
+	}
+
+	/**
+	 * If true the operation should be run concurrently, otherwise it should be run in the calling thread
+	 */
+	public boolean isConcurrent() {
+		return concurrent;
+	}
+
+	/**
+	 * Marks the end of the operation
+	 */
+	@Override
+	public void close() {}
+}
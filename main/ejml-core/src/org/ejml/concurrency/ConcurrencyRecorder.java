@@ -0,0 +1,253 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.concurrency;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntConsumer;
+
+/**
+ * <p>
+ * Measures work submitted to the thread pool and reports it to the {@link ConcurrencyListener}. Only created
+ * when a listener is installed. The wrap functions return the input unmodified if there is no recorder.
+ * </p>
+ *
+ * <p>
+ * Work submitted while an {@link ConcurrencyOperation operation} is open in the calling thread is reported under
+ * the operation's name. Otherwise it's named after the method which submitted it. That name is found with a stack
+ * trace the first time a task of each class is submitted and is then cached, so the stack is only examined once
+ * for each lambda in the code.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+final class ConcurrencyRecorder {
+	/** Name of decisions made without specifying the operation */
+	static final String UNNAMED = "unnamed";
+
+	// Classes which dispatch work and are skipped when looking for the name of the method which submitted it
+	private static final Set<String> internal = new HashSet<>(Arrays.asList(
+			EjmlConcurrency.class.getName(), TaskGraph.class.getName(), ConcurrencyRecorder.class.getName(),
+			ClassValue.class.getName()));
+
+	// Name of the method which submits tasks of each class
+	private static final ClassValue<String> callSites = new ClassValue<String>() {
+		@Override protected String computeValue( Class<?> type ) {
+			return callerName();
+		}
+	};
+
+	// Operations in this thread which are open. Innermost last.
+	private static final ThreadLocal<List<Operation>> operations = ThreadLocal.withInitial(ArrayList::new);
+
+	final ConcurrencyListener listener;
+	final String operation;
+	final int maxThreads;
+	final double flops;
+	final long startNanos = System.nanoTime();
+
+	final AtomicInteger tasks = new AtomicInteger();
+	final AtomicLong busyNanos = new AtomicLong();
+
+	ConcurrencyRecorder( ConcurrencyListener listener, String operation, int maxThreads, double flops ) {
+		this.listener = listener;
+		this.operation = operation;
+		this.maxThreads = maxThreads;
+		this.flops = flops;
+	}
+
+	/**
+	 * Creates a recorder for work which is about to be submitted, or returns null if there is no listener.
+	 *
+	 * @param task The task which was passed in. Used to name the work if no operation is open.
+	 * @param flops Number of floating point operations or NaN if not known
+	 */
+	static @Nullable ConcurrencyRecorder create( ConcurrencyContext context, Object task, double flops ) {
+		ConcurrencyListener listener = EjmlConcurrency.listener;
+		if (listener == null)
+			return null;
+		List<Operation> open = operations.get();
+		String name = open.isEmpty() ? callSites.get(task.getClass()) : open.get(open.size() - 1).name;
+		return new ConcurrencyRecorder(listener, name, context.maxThreads, flops);
+	}
+
+	/**
+	 * Opens an operation which reports how long it took when it's closed
+	 */
+	static ConcurrencyOperation open( ConcurrencyListener listener, String name, boolean concurrent ) {
+		Operation op = new Operation(listener, name, concurrent);
+		operations.get().add(op);
+		return op;
+	}
+
+	void taskFinished( long taskStart ) {
+		long nanos = System.nanoTime() - taskStart;
+		tasks.incrementAndGet();
+		busyNanos.addAndGet(nanos);
+		listener.taskFinished(operation, nanos);
+	}
+
+	/**
+	 * Called after every task has finished
+	 */
+	void finished() {
+		long wall = System.nanoTime() - startNanos;
+		listener.dispatchFinished(new ConcurrencyEvent(operation, maxThreads, tasks.get(), wall, busyNanos.get(), flops));
+	}
+
+	static IntConsumer wrap( @Nullable ConcurrencyRecorder recorder, IntConsumer consumer ) {
+		if (recorder == null)
+			return consumer;
+		return i -> {
+			long start = System.nanoTime();
+			try {
+				consumer.accept(i);
+			} finally {
+				recorder.taskFinished(start);
+			}
+		};
+	}
+
+	static Runnable wrap( @Nullable ConcurrencyRecorder recorder, Runnable task ) {
+		if (recorder == null)
+			return task;
+		return () -> {
+			long start = System.nanoTime();
+			try {
+				task.run();
+			} finally {
+				recorder.taskFinished(start);
+			}
+		};
+	}
+
+	static IntRangeConsumer wrapRange( @Nullable ConcurrencyRecorder recorder, IntRangeConsumer consumer ) {
+		if (recorder == null)
+			return consumer;
+		return ( i0, i1 ) -> {
+			long start = System.nanoTime();
+			try {
+				consumer.accept(i0, i1);
+			} finally {
+				recorder.taskFinished(start);
+			}
+		};
+	}
+
+	static <T> IntObjectConsumer<T> wrap( @Nullable ConcurrencyRecorder recorder, IntObjectConsumer<T> consumer ) {
+		if (recorder == null)
+			return consumer;
+		return ( work, i ) -> {
+			long start = System.nanoTime();
+			try {
+				consumer.accept(work, i);
+			} finally {
+				recorder.taskFinished(start);
+			}
+		};
+	}
+
+	static <T> IntRangeObjectConsumer<T> wrap( @Nullable ConcurrencyRecorder recorder, IntRangeObjectConsumer<T> consumer ) {
+		if (recorder == null)
+			return consumer;
+		return ( work, i0, i1 ) -> {
+			long start = System.nanoTime();
+			try {
+				consumer.accept(work, i0, i1);
+			} finally {
+				recorder.taskFinished(start);
+			}
+		};
+	}
+
+	static IntProducerNumber wrapProducer( @Nullable ConcurrencyRecorder recorder, IntProducerNumber producer ) {
+		if (recorder == null)
+			return producer;
+		return i -> {
+			long start = System.nanoTime();
+			try {
+				return producer.accept(i);
+			} finally {
+				recorder.taskFinished(start);
+			}
+		};
+	}
+
+	/**
+	 * Name of the first method in the stack which isn't part of the dispatch code, e.g. "CommonOps_MT_DDRM.mult".
+	 * Lambdas are named after the method they are declared inside of.
+	 */
+	private static String callerName() {
+		for (StackTraceElement frame : new Throwable().getStackTrace()) {
+			if (!internal.contains(outerClass(frame.getClassName())))
+				return simpleName(frame.getClassName()) + "." + methodName(frame.getMethodName());
+		}
+		return UNNAMED;
+	}
+
+	private static String outerClass( String name ) {
+		int index = name.indexOf('$');
+		return index < 0 ? name : name.substring(0, index);
+	}
+
+	private static String simpleName( String name ) {
+		return outerClass(name.substring(name.lastIndexOf('.') + 1));
+	}
+
+	private static String methodName( String name ) {
+		// lambdas are called lambda$method$N
+		if (!name.startsWith("lambda$"))
+			return name;
+		int end = name.indexOf('$', 7);
+		return end < 0 ? name : name.substring(7, end);
+	}
+
+	/**
+	 * An operation which is open in the calling thread
+	 */
+	private static class Operation extends ConcurrencyOperation {
+		final ConcurrencyListener listener;
+		final String name;
+		final long startNanos = System.nanoTime();
+
+		Operation( ConcurrencyListener listener, String name, boolean concurrent ) {
+			super(concurrent);
+			this.listener = listener;
+			this.name = name;
+		}
+
+		@Override
+		public void close() {
+			long nanos = System.nanoTime() - startNanos;
+			// operations close in the reverse order they were opened unless one wasn't closed
+			List<Operation> open = operations.get();
+			int index = open.lastIndexOf(this);
+			if (index >= 0)
+				open.subList(index, open.size()).clear();
+			listener.operationFinished(name, concurrent, nanos);
+		}
+	}
+}
@@ -18,9 +18,14 @@
 
 package org.ejml.concurrency;
 
+import org.jetbrains.annotations.Nullable;
+
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.function.IntConsumer;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.Supplier;
 import java.util.stream.IntStream;
 
 /**
@@ -28,6 +33,16 @@ import java.util.stream.IntStream;
  *
  * -Djava.util.concurrent.ForkJoinPool.common.parallelism=16
  *
+ * <p>
+ * By default all concurrent algorithms share a global thread pool. A {@link ConcurrencyContext} can be activated
+ * for a block of code with {@link #runWith} to use a different pool, fewer threads or to run small loops in the
+ * calling thread. Different threads can have different contexts active at the same time.
+ * </p>
+ *
+ * <p>
+ * Concurrent operations can be measured by installing a {@link ConcurrencyListener} with {@link #setListener}.
+ * </p>
+ *
  * @author Peter Abeles
  */
 public class EjmlConcurrency {
@@ -36,35 +51,306 @@ public class EjmlConcurrency {
 	 */
 	public static boolean USE_CONCURRENT = true;
 
-	// Custom thread pool for streams so that the number of threads can be controlled
-	private static ForkJoinPool pool = new ForkJoinPool();
+	// Custom thread pool for streams so that the number of threads can be controlled. Used unless a context
+	// has been activated for a thread
+	private static ConcurrencyContext global = new ConcurrencyContext(new ForkJoinPool());
+
+	// Context which has been activated for a thread. null if the global context is used
+	private static final ThreadLocal<ConcurrencyContext> local = new ThreadLocal<>();
+
+	/**
+	 * Weighted loops are split into up to this many blocks per thread so that idle threads have work to steal
+	 */
+	public static int WEIGHTED_BLOCKS_PER_THREAD = 4;
+
+	// Receives measurements of concurrent operations. null if nothing is measured
+	static volatile @Nullable ConcurrencyListener listener;
 
 	/**
 	 * Sets the maximum number of threads available in the thread pool and adjusts USE_CONCURRENT. If
 	 * the number of threads is less than 2 then USE_CONCURRENT will be set to false and the single thread
 	 * version of code will be called. Otherwise USE_CONCURRENT will be true and the max threads in the pool
-	 * set to the specified number.
+	 * set to the specified number. This only changes the global context.
 	 *
 	 * @param maxThreads Maximum number of threads. &le 1 means it will not be threaded.
 	 */
 	public static void setMaxThreads( int maxThreads ) {
+		ConcurrencyCostModel costModel = global.costModel;
 		if( maxThreads <= 1 ) {
 			USE_CONCURRENT = false;
+			global = new ConcurrencyContext(global.pool, 1, 0);
 		} else {
 			USE_CONCURRENT = true;
-			pool = new ForkJoinPool(maxThreads);
+			global = new ConcurrencyContext(new ForkJoinPool(maxThreads));
 		}
+		global.costModel = costModel;
+	}
+
+	/**
+	 * Runs a short micro benchmark which calibrates the cost model of the current context. Call once at
+	 * startup so that the decision between serial and concurrent execution is accurate for this computer.
+	 *
+	 * @see ConcurrencyCostModel#calibrate
+	 */
+	public static void calibrate() {
+		getContext().calibrate();
+	}
+
+	/**
+	 * Returns true if an operation with the specified number of floating point operations should be
+	 * run concurrently, according to the current context and its cost model. The decision is reported to the
+	 * listener as "unnamed".
+	 *
+	 * @param flops Number of floating point operations in the operation
+	 * @see #isConcurrent(String, double)
+	 */
+	public static boolean isConcurrent( double flops ) {
+		return isConcurrent(ConcurrencyRecorder.UNNAMED, flops);
+	}
+
+	/**
+	 * Returns true if an operation with the specified number of floating point operations should be
+	 * run concurrently, according to the current context and its cost model.
+	 *
+	 * @param operation Name the decision is reported to the listener with, e.g. "DecompositionFactory_MT_DDRM.qr"
+	 * @param flops Number of floating point operations in the operation
+	 */
+	public static boolean isConcurrent( String operation, double flops ) {
+		boolean concurrent = getContext().isConcurrent(flops);
+		ConcurrencyListener listener = EjmlConcurrency.listener;
+		if (listener != null)
+			listener.costDecision(operation, flops, concurrent);
+		return concurrent;
 	}
 
 	/**
-	 * Returns the maximum number of threads which can be run at once in this pool
+	 * Decides if an operation should run concurrently, the same as {@link #isConcurrent(String, double)}, and
+	 * starts measuring it. Work it submits to the thread pool before it's closed is reported under its name.
+	 * If there is no listener nothing is measured and nothing is allocated.
+	 *
+	 * @param operation Name of the operation, e.g. "CommonOps_MT_DDRM.mult"
+	 * @param flops Number of floating point operations in the operation
+	 * @return The operation. Must be closed when it's finished.
+	 */
+	public static ConcurrencyOperation operation( String operation, double flops ) {
+		boolean concurrent = getContext().isConcurrent(flops);
+		ConcurrencyListener listener = EjmlConcurrency.listener;
+		if (listener == null)
+			return concurrent ? ConcurrencyOperation.CONCURRENT : ConcurrencyOperation.SERIAL;
+		listener.costDecision(operation, flops, concurrent);
+		return ConcurrencyRecorder.open(listener, operation, concurrent);
+	}
+
+	/**
+	 * Specifies a listener which is notified of every decision made by the cost model and every time work is
+	 * submitted to a thread pool. This is intended for finding where time is being spent and sizing thread pools.
+	 * Measurements are only made while a listener is installed.
+	 *
+	 * @param listener The listener or null to stop measuring
+	 * @see ConcurrencyMetrics
+	 */
+	public static void setListener( @Nullable ConcurrencyListener listener ) {
+		EjmlConcurrency.listener = listener;
+	}
+
+	public static @Nullable ConcurrencyListener getListener() {
+		return listener;
+	}
+
+	/**
+	 * Returns the maximum number of threads which can be run at once in the current context
 	 */
 	public static int getMaxThreads() {
-		return pool.getParallelism();
+		return getContext().getMaxThreads();
 	}
 
 	public static boolean isUseConcurrent() {
-		return USE_CONCURRENT;
+		ConcurrencyContext context = local.get();
+		return context == null ? USE_CONCURRENT : context.getMaxThreads() > 1;
+	}
+
+	/**
+	 * Returns the context used by the calling thread. If none has been activated then the global context
+	 * is returned.
+	 */
+	public static ConcurrencyContext getContext() {
+		ConcurrencyContext context = local.get();
+		return context == null ? global : context;
+	}
+
+	/**
+	 * Returns the global context, which is used by threads that haven't activated a context
+	 */
+	public static ConcurrencyContext getGlobalContext() {
+		return global;
+	}
+
+	/**
+	 * Runs the operation with the specified context active in the calling thread. Once finished the
+	 * previous context is restored.
+	 *
+	 * @param context Context used by all concurrent algorithms invoked by the operation
+	 * @param operation The operation
+	 */
+	public static void runWith( ConcurrencyContext context, Runnable operation ) {
+		ConcurrencyContext previous = local.get();
+		local.set(context);
+		try {
+			operation.run();
+		} finally {
+			restore(previous);
+		}
+	}
+
+	/**
+	 * Same as {@link #runWith} but for an operation which returns a result
+	 */
+	public static <T> T callWith( ConcurrencyContext context, Supplier<T> operation ) {
+		ConcurrencyContext previous = local.get();
+		local.set(context);
+		try {
+			return operation.get();
+		} finally {
+			restore(previous);
+		}
+	}
+
+	private static void restore( @Nullable ConcurrencyContext previous ) {
+		if (previous == null)
+			local.remove();
+		else
+			local.set(previous);
+	}
+
+	/**
+	 * Runs a task in the context's pool and waits for it to finish
+	 *
+	 * @param recorder Measures the task. Can be null.
+	 */
+	private static <T> T submit( ConcurrencyContext context, @Nullable ConcurrencyRecorder recorder,
+								 ForkJoinTask<T> task ) throws InterruptedException, ExecutionException {
+		try {
+			return context.pool.submit(task).get();
+		} finally {
+			if (recorder != null)
+				recorder.finished();
+		}
+	}
+
+	/**
+	 * If a context has been activated in the calling thread then it's also activated while the consumer is
+	 * being run, which might be in a worker thread.
+	 */
+	static IntConsumer propagate( IntConsumer consumer ) {
+		final ConcurrencyContext context = local.get();
+		if (context == null)
+			return consumer;
+		return i -> {
+			ConcurrencyContext previous = local.get();
+			if (previous == context) {
+				consumer.accept(i);
+				return;
+			}
+			local.set(context);
+			try {
+				consumer.accept(i);
+			} finally {
+				restore(previous);
+			}
+		};
+	}
+
+	static Runnable propagate( Runnable task ) {
+		final ConcurrencyContext context = local.get();
+		if (context == null)
+			return task;
+		return () -> {
+			ConcurrencyContext previous = local.get();
+			if (previous == context) {
+				task.run();
+				return;
+			}
+			local.set(context);
+			try {
+				task.run();
+			} finally {
+				restore(previous);
+			}
+		};
+	}
+
+	static IntRangeConsumer propagateRange( IntRangeConsumer consumer ) {
+		final ConcurrencyContext context = local.get();
+		if (context == null)
+			return consumer;
+		return ( i0, i1 ) -> {
+			ConcurrencyContext previous = local.get();
+			if (previous == context) {
+				consumer.accept(i0, i1);
+				return;
+			}
+			local.set(context);
+			try {
+				consumer.accept(i0, i1);
+			} finally {
+				restore(previous);
+			}
+		};
+	}
+
+	static <T> IntObjectConsumer<T> propagate( IntObjectConsumer<T> consumer ) {
+		final ConcurrencyContext context = local.get();
+		if (context == null)
+			return consumer;
+		return ( work, i ) -> {
+			ConcurrencyContext previous = local.get();
+			if (previous == context) {
+				consumer.accept(work, i);
+				return;
+			}
+			local.set(context);
+			try {
+				consumer.accept(work, i);
+			} finally {
+				restore(previous);
+			}
+		};
+	}
+
+	static <T> IntRangeObjectConsumer<T> propagate( IntRangeObjectConsumer<T> consumer ) {
+		final ConcurrencyContext context = local.get();
+		if (context == null)
+			return consumer;
+		return ( work, i0, i1 ) -> {
+			ConcurrencyContext previous = local.get();
+			if (previous == context) {
+				consumer.accept(work, i0, i1);
+				return;
+			}
+			local.set(context);
+			try {
+				consumer.accept(work, i0, i1);
+			} finally {
+				restore(previous);
+			}
+		};
+	}
+
+	static IntProducerNumber propagateProducer( IntProducerNumber producer ) {
+		final ConcurrencyContext context = local.get();
+		if (context == null)
+			return producer;
+		return i -> {
+			ConcurrencyContext previous = local.get();
+			if (previous == context)
+				return producer.accept(i);
+			local.set(context);
+			try {
+				return producer.accept(i);
+			} finally {
+				restore(previous);
+			}
+		};
 	}
 
 	/**
@@ -75,11 +361,7 @@ public class EjmlConcurrency {
 	 * @param consumer The consumer
 	 */
 	public static void loopFor(int start , int endExclusive , IntConsumer consumer ) {
-		try {
-			pool.submit(() ->IntStream.range(start, endExclusive).parallel().forEach(consumer)).get();
-		} catch (InterruptedException | ExecutionException e) {
-			e.printStackTrace();
-		}
+		loopFor(start, endExclusive, 1, consumer);
 	}
 
 	/**
@@ -95,12 +377,35 @@ public class EjmlConcurrency {
 			throw new IllegalArgumentException("Step must be a positive number.");
 		if( start >= endExclusive)
 			return;
+		final ConcurrencyContext context = getContext();
+		int range = endExclusive-start;
+		int iterations = range/step + ((range%step==0) ? 0 : 1);
+
+		if( !context.isConcurrentLoop(iterations) ) {
+			for (int i = start; i < endExclusive; i += step) {
+				consumer.accept(i);
+			}
+			return;
+		}
+
+		final ConcurrencyRecorder recorder = ConcurrencyRecorder.create(context, consumer, Double.NaN);
 		try {
-			int range = endExclusive-start;
-			int iterations = range/step + ((range%step==0) ? 0 : 1);
-			pool.submit(() ->IntStream.range(0, iterations).parallel().forEach(i-> consumer.accept(start+i*step))).get();
+			if( context.isCapped() ) {
+				// one block for each thread so that no more than the maximum number of threads are used
+				final IntConsumer task = propagate(consumer);
+				IntRangeConsumer block = ( i0, i1 ) -> {
+					for (int i = i0; i < i1; i++) {
+						task.accept(start + i*step);
+					}
+				};
+				int blockSize = (iterations + context.maxThreads - 1)/context.maxThreads;
+				submit(context, recorder, new IntRangeTask(0, iterations, blockSize, ConcurrencyRecorder.wrapRange(recorder, block)));
+			} else {
+				final IntConsumer task = propagate(ConcurrencyRecorder.wrap(recorder, consumer));
+				submit(context, recorder, ForkJoinTask.adapt(() -> IntStream.range(0, iterations).parallel().forEach(i -> task.accept(start + i*step))));
+			}
 		} catch (InterruptedException | ExecutionException e) {
-			e.printStackTrace();
+			throw new RuntimeException(e);
 		}
 	}
 
@@ -118,10 +423,25 @@ public class EjmlConcurrency {
 			throw new IllegalArgumentException("Step must be a positive number.");
 		if( start >= endExclusive)
 			return;
+		final ConcurrencyContext context = getContext();
+		int range = endExclusive-start;
+		int iterations = range/step + ((range%step==0) ? 0 : 1);
+
+		if( !context.isConcurrentLoop(iterations) ) {
+			workspace.resize(1);
+			T work = workspace.get(0);
+			for (int i = start; i < endExclusive; i += step) {
+				consumer.accept(work, i);
+			}
+			return;
+		}
+
+		final ConcurrencyRecorder recorder = ConcurrencyRecorder.create(context, consumer, Double.NaN);
 		try {
-			pool.submit(new IntObjectTask<>(start,endExclusive,step,pool.getParallelism(),-1,workspace,consumer)).get();
+			submit(context, recorder, new IntObjectTask<>(start,endExclusive,step,context.maxThreads,-1,workspace,
+					propagate(ConcurrencyRecorder.wrap(recorder, consumer))));
 		} catch (InterruptedException | ExecutionException e) {
-			e.printStackTrace();
+			throw new RuntimeException(e);
 		}
 	}
 
@@ -144,8 +464,7 @@ public class EjmlConcurrency {
 	 */
 	public static void loopBlocks(int start , int endExclusive , int minBlock,
 								  IntRangeConsumer consumer ) {
-		final ForkJoinPool pool = EjmlConcurrency.pool;
-		int numThreads = pool.getParallelism();
+		final ConcurrencyContext context = getContext();
 
 		int range = endExclusive-start;
 		if( range == 0 ) // nothing to do here!
@@ -153,12 +472,18 @@ public class EjmlConcurrency {
 		if( range < 0 )
 			throw new IllegalArgumentException("end must be more than start. "+start+" -> "+endExclusive);
 
-		int block = selectBlockSize(range,minBlock,numThreads);
+		if( !context.isConcurrentLoop(range) ) {
+			consumer.accept(start, endExclusive);
+			return;
+		}
+
+		int block = capBlockSize(context, range, selectBlockSize(range,minBlock,context.maxThreads));
 
+		final ConcurrencyRecorder recorder = ConcurrencyRecorder.create(context, consumer, Double.NaN);
 		try {
-			pool.submit(new IntRangeTask(start,endExclusive,block,consumer)).get();
+			submit(context, recorder, new IntRangeTask(start,endExclusive,block,propagateRange(ConcurrencyRecorder.wrapRange(recorder, consumer))));
 		} catch (InterruptedException | ExecutionException e) {
-			e.printStackTrace();
+			throw new RuntimeException(e);
 		}
 	}
 
@@ -170,6 +495,16 @@ public class EjmlConcurrency {
 		return range/N;
 	}
 
+	/**
+	 * If the number of threads has been capped then the block size is increased until there are no more blocks
+	 * than threads.
+	 */
+	static int capBlockSize( ConcurrencyContext context, int range, int blockSize ) {
+		if( !context.isCapped() )
+			return blockSize;
+		return Math.max(blockSize, (range + context.maxThreads - 1)/context.maxThreads);
+	}
+
 	/**
 	 * Splits the range of values up into blocks. It's assumed the cost to process a block is small so
 	 * more can be created.
@@ -178,8 +513,8 @@ public class EjmlConcurrency {
 	 * @param consumer The consumer
 	 */
 	public static void loopBlocks(int start , int endExclusive , IntRangeConsumer consumer ) {
-		final ForkJoinPool pool = EjmlConcurrency.pool;
-		int numThreads = pool.getParallelism();
+		final ConcurrencyContext context = getContext();
+		int numThreads = context.maxThreads;
 
 		int range = endExclusive-start;
 		if( range == 0 ) // nothing to do here!
@@ -187,12 +522,18 @@ public class EjmlConcurrency {
 		if( range < 0 )
 			throw new IllegalArgumentException("end must be more than start. "+start+" -> "+endExclusive);
 
+		if( !context.isConcurrentLoop(range) ) {
+			consumer.accept(start, endExclusive);
+			return;
+		}
+
 		// Did some experimentation here. Gave it more threads than were needed or exactly what was needed
 		// exactly seemed to do better in the test cases
-		int blockSize = Math.max(1,range/numThreads);
+		int blockSize = capBlockSize(context, range, Math.max(1,range/numThreads));
 
+		final ConcurrencyRecorder recorder = ConcurrencyRecorder.create(context, consumer, Double.NaN);
 		try {
-			pool.submit(new IntRangeTask(start,endExclusive,blockSize,consumer)).get();
+			submit(context, recorder, new IntRangeTask(start,endExclusive,blockSize,propagateRange(ConcurrencyRecorder.wrapRange(recorder, consumer))));
 		} catch (InterruptedException | ExecutionException e) {
 			throw new RuntimeException(e);
 		}
@@ -207,8 +548,8 @@ public class EjmlConcurrency {
 	 * @param consumer The consumer
 	 */
 	public static <T>void loopBlocks(int start , int endExclusive , GrowArray<T> workspace, IntRangeObjectConsumer<T> consumer ) {
-		final ForkJoinPool pool = EjmlConcurrency.pool;
-		int numThreads = pool.getParallelism();
+		final ConcurrencyContext context = getContext();
+		int numThreads = context.maxThreads;
 
 		int range = endExclusive-start;
 		if( range == 0 ) // nothing to do here!
@@ -216,12 +557,20 @@ public class EjmlConcurrency {
 		if( range < 0 )
 			throw new IllegalArgumentException("end must be more than start. "+start+" -> "+endExclusive);
 
+		if( !context.isConcurrentLoop(range) ) {
+			workspace.resize(1);
+			consumer.accept(workspace.get(0), start, endExclusive);
+			return;
+		}
+
 		// Did some experimentation here. Gave it more threads than were needed or exactly what was needed
 		// exactly seemed to do better in the test cases
-		int blockSize = Math.max(1,range/numThreads);
+		int blockSize = capBlockSize(context, range, Math.max(1,range/numThreads));
 
+		final ConcurrencyRecorder recorder = ConcurrencyRecorder.create(context, consumer, Double.NaN);
 		try {
-			pool.submit(new IntRangeObjectTask<>(start,endExclusive,blockSize,workspace,consumer)).get();
+			submit(context, recorder, new IntRangeObjectTask<>(start,endExclusive,blockSize,workspace,
+					propagate(ConcurrencyRecorder.wrap(recorder, consumer))));
 		} catch (InterruptedException | ExecutionException e) {
 			throw new RuntimeException(e);
 		}
@@ -238,8 +587,8 @@ public class EjmlConcurrency {
 	 */
 	public static <T>void loopBlocks(int start , int endExclusive , int minBlock ,
 									 GrowArray<T> workspace, IntRangeObjectConsumer<T> consumer ) {
-		final ForkJoinPool pool = EjmlConcurrency.pool;
-		int numThreads = pool.getParallelism();
+		final ConcurrencyContext context = getContext();
+		int numThreads = context.maxThreads;
 
 		int range = endExclusive-start;
 		if( range == 0 ) // nothing to do here!
@@ -247,17 +596,170 @@ public class EjmlConcurrency {
 		if( range < 0 )
 			throw new IllegalArgumentException("end must be more than start. "+start+" -> "+endExclusive);
 
-		int blockSize = selectBlockSize(range,minBlock,numThreads);
+		if( !context.isConcurrentLoop(range) ) {
+			workspace.resize(1);
+			consumer.accept(workspace.get(0), start, endExclusive);
+			return;
+		}
+
+		int blockSize = capBlockSize(context, range, selectBlockSize(range,minBlock,numThreads));
+
+		final ConcurrencyRecorder recorder = ConcurrencyRecorder.create(context, consumer, Double.NaN);
+		try {
+			submit(context, recorder, new IntRangeObjectTask<>(start,endExclusive,blockSize,workspace,
+					propagate(ConcurrencyRecorder.wrap(recorder, consumer))));
+		} catch (InterruptedException | ExecutionException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Splits the range of values up into blocks using the cost model. If the total work is too small to benefit
+	 * from concurrency then the consumer is called once in the calling thread. Otherwise, each block is large
+	 * enough that the cost of its task is small compared to the work it does.
+	 *
+	 * @param start First index, inclusive
+	 * @param endExclusive Last index, exclusive
+	 * @param flopsPerIndex Approximate number of floating point operations needed to process a single index
+	 * @param consumer The consumer
+	 */
+	public static void loopBlocksCost( int start , int endExclusive , double flopsPerIndex ,
+									   IntRangeConsumer consumer ) {
+		final ConcurrencyContext context = getContext();
+		int range = endExclusive-start;
+		if( range <= 0 || !context.isConcurrent(range*flopsPerIndex) ) {
+			if( range > 0 )
+				consumer.accept(start, endExclusive);
+			return;
+		}
+		loopBlocks(start, endExclusive, context.costModel.minimumBlockSize(flopsPerIndex), consumer);
+	}
+
+	/**
+	 * Same as {@link #loopBlocksCost(int, int, double, IntRangeConsumer)} but with a workspace for each block
+	 */
+	public static <T>void loopBlocksCost( int start , int endExclusive , double flopsPerIndex ,
+										  GrowArray<T> workspace, IntRangeObjectConsumer<T> consumer ) {
+		final ConcurrencyContext context = getContext();
+		int range = endExclusive-start;
+		if( range <= 0 || !context.isConcurrent(range*flopsPerIndex) ) {
+			if( range > 0 ) {
+				workspace.resize(1);
+				consumer.accept(workspace.get(0), start, endExclusive);
+			}
+			return;
+		}
+		loopBlocks(start, endExclusive, context.costModel.minimumBlockSize(flopsPerIndex), workspace, consumer);
+	}
+
+	/**
+	 * Concurrent for loop where the cost of each iteration can be very different, e.g. the columns in a
+	 * triangular matrix. The range is recursively split in two so that each half has the same cost, until
+	 * there are several blocks for each thread or a block is too small to be worth splitting. Idle threads
+	 * steal blocks which have not been started yet. If the total work is too small to benefit from concurrency
+	 * then the loop is run in the calling thread.
+	 *
+	 * @param start starting value, inclusive
+	 * @param endExclusive ending value, exclusive
+	 * @param step fixed sized step for each iteration
+	 * @param cost Approximate number of floating point operations for the iteration at the specified value
+	 * @param consumer The consumer
+	 */
+	public static void loopForWeighted( int start , int endExclusive , int step , IntToDoubleFunction cost ,
+										IntConsumer consumer ) {
+		final IntConsumer task = propagate(consumer);
+		boolean concurrent = submitWeighted(start, endExclusive, step, cost, consumer, ( i0, i1 ) -> {
+			for (int i = i0; i < i1; i += step) {
+				task.accept(i);
+			}
+		});
+		if( concurrent )
+			return;
+		for (int i = start; i < endExclusive; i += step) {
+			consumer.accept(i);
+		}
+	}
+
+	/**
+	 * Same as {@link #loopForWeighted(int, int, int, IntToDoubleFunction, IntConsumer)} but with a workspace.
+	 * Each block has its own workspace.
+	 */
+	public static <T>void loopForWeighted( int start , int endExclusive , int step , IntToDoubleFunction cost ,
+										   GrowArray<T> workspace, IntObjectConsumer<T> consumer ) {
+		final IntObjectConsumer<T> task = propagate(consumer);
+		workspace.reset();
+		boolean concurrent = submitWeighted(start, endExclusive, step, cost, consumer, ( i0, i1 ) -> {
+			T work;
+			synchronized (workspace) {
+				work = workspace.grow();
+			}
+			for (int i = i0; i < i1; i += step) {
+				task.accept(work, i);
+			}
+		});
+		if( concurrent || start >= endExclusive )
+			return;
+		workspace.resize(1);
+		T work = workspace.get(0);
+		for (int i = start; i < endExclusive; i += step) {
+			consumer.accept(work, i);
+		}
+	}
+
+	/**
+	 * Same as {@link #loopForWeighted(int, int, int, IntToDoubleFunction, IntConsumer)} but the consumer
+	 * processes a block of indexes at once.
+	 */
+	public static void loopBlocksWeighted( int start , int endExclusive , IntToDoubleFunction cost ,
+										   IntRangeConsumer consumer ) {
+		boolean concurrent = submitWeighted(start, endExclusive, 1, cost, consumer, propagateRange(consumer));
+		if( !concurrent && start < endExclusive )
+			consumer.accept(start, endExclusive);
+	}
+
+	/**
+	 * Splits the loop into blocks using the cost of each iteration and processes them in the context's pool.
+	 *
+	 * @param source The consumer which was passed in. Used to name the work.
+	 * @param consumer Given the first value and last value, exclusive, in a block
+	 * @return false if the work is too small to be split and must be done in the calling thread
+	 */
+	private static boolean submitWeighted( int start , int endExclusive , int step , IntToDoubleFunction cost ,
+										   Object source, IntRangeConsumer consumer ) {
+		if( step <= 0 )
+			throw new IllegalArgumentException("Step must be a positive number.");
+		if( start >= endExclusive )
+			return false;
+		final ConcurrencyContext context = getContext();
+		int range = endExclusive-start;
+		int iterations = range/step + ((range%step==0) ? 0 : 1);
+		if( iterations < 2 || !context.isConcurrentLoop(iterations) )
+			return false;
+
+		double[] cumulative = new double[iterations+1];
+		for (int k = 0; k < iterations; k++) {
+			cumulative[k+1] = cumulative[k] + Math.max(0.0, cost.applyAsDouble(start + k*step));
+		}
+		if( !context.isConcurrent(cumulative[iterations]) )
+			return false;
+
+		// A capped context can't have more blocks than threads, otherwise the extra threads would be used
+		int leaves = context.isCapped() ? context.maxThreads : context.maxThreads*WEIGHTED_BLOCKS_PER_THREAD;
+		double grain = context.costModel.minimumBlockFlops();
 
+		final ConcurrencyRecorder recorder = ConcurrencyRecorder.create(context, source, cumulative[iterations]);
+		final IntRangeConsumer task = ConcurrencyRecorder.wrapRange(recorder, consumer);
 		try {
-			pool.submit(new IntRangeObjectTask<>(start,endExclusive,blockSize,workspace,consumer)).get();
+			submit(context, recorder, new IntRangeWeightedTask(cumulative, 0, iterations, leaves, grain,
+					( k0, k1 ) -> task.accept(start + k0*step, Math.min(endExclusive, start + k1*step))));
 		} catch (InterruptedException | ExecutionException e) {
 			throw new RuntimeException(e);
 		}
+		return true;
 	}
 
 	/**
-	 * Computes sums up the results using the specified primitive type
+	 * Computes sums up the results using the specified primitive type. Uses the current context's pool.
 	 *
 	 * @param start First index, inclusive
 	 * @param endExclusive Last index, exclusive
@@ -266,15 +768,18 @@ public class EjmlConcurrency {
 	 * @return The sum
 	 */
 	public static Number sum(int start , int endExclusive , Class type, IntProducerNumber producer ) {
+		final ConcurrencyContext context = getContext();
+		final ConcurrencyRecorder recorder = ConcurrencyRecorder.create(context, producer, Double.NaN);
 		try {
-			return pool.submit(new IntOperatorTask.Sum(start,endExclusive,type,producer)).get();
+			return submit(context, recorder, new IntOperatorTask.Sum(start,endExclusive,type,
+					propagateProducer(ConcurrencyRecorder.wrapProducer(recorder, producer))));
 		} catch (InterruptedException | ExecutionException e) {
 			throw new RuntimeException(e);
 		}
 	}
 
 	/**
-	 * Computes the maximum value
+	 * Computes the maximum value. Uses the current context's pool.
 	 *
 	 * @param start First index, inclusive
 	 * @param endExclusive Last index, exclusive
@@ -283,15 +788,18 @@ public class EjmlConcurrency {
 	 * @return The sum
 	 */
 	public static Number max(int start , int endExclusive , Class type, IntProducerNumber producer ) {
+		final ConcurrencyContext context = getContext();
+		final ConcurrencyRecorder recorder = ConcurrencyRecorder.create(context, producer, Double.NaN);
 		try {
-			return pool.submit(new IntOperatorTask.Max(start,endExclusive,type,producer)).get();
+			return submit(context, recorder, new IntOperatorTask.Max(start,endExclusive,type,
+					propagateProducer(ConcurrencyRecorder.wrapProducer(recorder, producer))));
 		} catch (InterruptedException | ExecutionException e) {
 			throw new RuntimeException(e);
 		}
 	}
 
 	/**
-	 * Computes the maximum value
+	 * Computes the maximum value. Uses the current context's pool.
 	 *
 	 * @param start First index, inclusive
 	 * @param endExclusive Last index, exclusive
@@ -300,8 +808,11 @@ public class EjmlConcurrency {
 	 * @return The sum
 	 */
 	public static Number min(int start , int endExclusive , Class type, IntProducerNumber producer ) {
+		final ConcurrencyContext context = getContext();
+		final ConcurrencyRecorder recorder = ConcurrencyRecorder.create(context, producer, Double.NaN);
 		try {
-			return pool.submit(new IntOperatorTask.Min(start,endExclusive,type,producer)).get();
+			return submit(context, recorder, new IntOperatorTask.Min(start,endExclusive,type,
+					propagateProducer(ConcurrencyRecorder.wrapProducer(recorder, producer))));
 		} catch (InterruptedException | ExecutionException e) {
 			throw new RuntimeException(e);
 		}
@@ -84,7 +84,7 @@ public class IntObjectTask<T> extends ForkJoinTask<Void> {
             IntObjectTask<T> previous = null;
 
             for (int threadId = 0; threadId < numThreads-1; threadId++) {
-                int segment0 = idx0 + computeIndex(threadId,numThreads,numIterations);
+                int segment0 = computeIndex(threadId,numThreads,numIterations);
                 int segment1 = computeIndex(threadId+1,numThreads,numIterations);
                 var task = new IntObjectTask<>(segment0, segment1, step, -1, threadId, workspace, consumer);
                 if (root == null) {
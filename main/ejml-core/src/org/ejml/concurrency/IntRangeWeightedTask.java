@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.concurrency;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Recursively splits a range of iterations in two until the cost of a range is less than the grain size or
+ * the maximum number of leaves has been reached. The split point divides the cost, not the number of
+ * iterations, between the two halves, so iterations which are much more expensive than others don't end up
+ * in the same block. Every half is a separate task and idle threads will steal the halves which have not
+ * been started yet.
+ *
+ * @author Peter Abeles
+ */
+public class IntRangeWeightedTask extends RecursiveAction {
+
+	// cumulative[i] is the total cost of all iterations before i
+	final double[] cumulative;
+	final int min;
+	final int max;
+	// maximum number of blocks this range can be split into
+	final int leaves;
+	// ranges with a cost less than or equal to this are not split
+	final double grain;
+	final IntRangeConsumer consumer;
+
+	/**
+	 * @param cumulative Cumulative cost of the iterations. Length must be at least max+1.
+	 * @param min First iteration, inclusive
+	 * @param max Last iteration, exclusive
+	 * @param leaves Maximum number of blocks the range is split into
+	 * @param grain Ranges with a cost no more than this are not split
+	 * @param consumer Processes a block of iterations
+	 */
+	public IntRangeWeightedTask( double[] cumulative, int min, int max, int leaves, double grain,
+								 IntRangeConsumer consumer ) {
+		this.cumulative = cumulative;
+		this.min = min;
+		this.max = max;
+		this.leaves = leaves;
+		this.grain = grain;
+		this.consumer = consumer;
+	}
+
+	@Override
+	protected void compute() {
+		double cost = cumulative[max] - cumulative[min];
+		if (leaves <= 1 || max - min <= 1 || cost <= grain) {
+			consumer.accept(min, max);
+			return;
+		}
+
+		// split the cost in proportion to the number of leaves each half gets
+		int leavesLower = leaves/2;
+		int split = findSplit(cumulative[min] + cost*leavesLower/leaves);
+
+		invokeAll(new IntRangeWeightedTask(cumulative, min, split, leavesLower, grain, consumer),
+				new IntRangeWeightedTask(cumulative, split, max, leaves - leavesLower, grain, consumer));
+	}
+
+	/**
+	 * Finds the iteration, min &lt; split &lt; max, where the cumulative cost is closest to the target
+	 */
+	int findSplit( double target ) {
+		int lower = min + 1;
+		int upper = max - 1;
+		while (lower < upper) {
+			int middle = (lower + upper) >>> 1;
+			if (cumulative[middle] < target)
+				lower = middle + 1;
+			else
+				upper = middle;
+		}
+		if (lower > min + 1 && target - cumulative[lower - 1] < cumulative[lower] - target)
+			lower--;
+		return lower;
+	}
+}
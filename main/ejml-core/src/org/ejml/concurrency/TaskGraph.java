@@ -0,0 +1,243 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.concurrency;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountedCompleter;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * <p>
+ * Directed acyclic graph of tasks. A task is started as soon as every task it depends on has finished, instead
+ * of waiting at a barrier for all the tasks in a step to finish. Tasks can only depend on tasks which were
+ * added before them, so the graph can't have a cycle and the order the tasks were added in is always a valid
+ * order to run them in.
+ * </p>
+ *
+ * <p>
+ * Tasks which are ready are started in order of their priority, lowest value first, and ties are broken by the
+ * order they were added in. No more than the context's maximum number of threads run at once. In a matrix
+ * factorization giving tasks on the critical path a lower value, e.g. the next panel, allows the next step to
+ * start while the trailing update from the previous step is still running. If the context only allows a single
+ * thread then all the tasks are run in the calling thread in the order they were added.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class TaskGraph {
+	// what each task does
+	final List<Runnable> tasks = new ArrayList<>();
+	// priority of each task. Lower values are run first
+	int[] priorities = new int[10];
+	// the tasks each task depends on
+	final List<int[]> dependencies = new ArrayList<>();
+
+	/**
+	 * Adds a task with a priority of zero.
+	 *
+	 * @see #add(int, Runnable, int...)
+	 */
+	public int add( Runnable task, int... dependencies ) {
+		return add(0, task, dependencies);
+	}
+
+	/**
+	 * Adds a task to the graph
+	 *
+	 * @param priority Ready tasks with a lower value are started first
+	 * @param task The task
+	 * @param dependencies Tasks which must finish before this task can start. Negative values are ignored.
+	 * @return ID of the task, which is the number of tasks added before it
+	 */
+	public int add( int priority, Runnable task, int... dependencies ) {
+		int id = tasks.size();
+		int count = 0;
+		for (int d : dependencies) {
+			if (d >= id)
+				throw new IllegalArgumentException("Can only depend on tasks which have already been added. " + d);
+			if (d >= 0)
+				count++;
+		}
+		int[] found = new int[count];
+		count = 0;
+		for (int d : dependencies) {
+			if (d >= 0)
+				found[count++] = d;
+		}
+
+		if (id == priorities.length)
+			priorities = Arrays.copyOf(priorities, id*2);
+		priorities[id] = priority;
+		tasks.add(task);
+		this.dependencies.add(found);
+		return id;
+	}
+
+	/**
+	 * Runs every task in the graph using the current context and returns once they have all finished. If a task
+	 * throws an exception then tasks which have not been started are skipped and the exception is thrown.
+	 */
+	public void execute() {
+		final ConcurrencyContext context = EjmlConcurrency.getContext();
+		final int N = tasks.size();
+		if (N == 0)
+			return;
+
+		if (N == 1 || context.maxThreads <= 1) {
+			for (int i = 0; i < N; i++) {
+				tasks.get(i).run();
+			}
+			return;
+		}
+
+		ConcurrencyRecorder recorder = ConcurrencyRecorder.create(context, tasks.get(0), Double.NaN);
+		try {
+			context.pool.invoke(new Execution(context.maxThreads, recorder));
+		} finally {
+			if (recorder != null)
+				recorder.finished();
+		}
+	}
+
+	/**
+	 * Removes all the tasks
+	 */
+	public void reset() {
+		tasks.clear();
+		dependencies.clear();
+	}
+
+	/**
+	 * Number of tasks in the graph
+	 */
+	public int size() {
+		return tasks.size();
+	}
+
+	/**
+	 * Keeps track of which tasks are ready and completes once all the tasks have finished
+	 */
+	private class Execution extends CountedCompleter<Void> {
+		final int N = tasks.size();
+		final int maxRunning;
+		final Runnable[] work = new Runnable[N];
+		// number of dependencies for each task which have not finished yet
+		final AtomicIntegerArray remaining = new AtomicIntegerArray(N);
+		// Tasks which depend on each task are stored from successorIdx[i] to successorIdx[i+1]
+		final int[] successorIdx = new int[N + 1];
+		final int[] successors;
+
+		final PriorityBlockingQueue<Integer> ready = new PriorityBlockingQueue<>(16, ( a, b ) ->
+				priorities[a] != priorities[b] ? Integer.compare(priorities[a], priorities[b]) : Integer.compare(a, b));
+		final AtomicInteger running = new AtomicInteger();
+
+		Execution( int maxRunning, @Nullable ConcurrencyRecorder recorder ) {
+			this.maxRunning = maxRunning;
+			setPendingCount(N);
+
+			for (int i = 0; i < N; i++) {
+				work[i] = EjmlConcurrency.propagate(ConcurrencyRecorder.wrap(recorder, tasks.get(i)));
+				int[] deps = dependencies.get(i);
+				remaining.set(i, deps.length);
+				for (int d : deps) {
+					successorIdx[d + 1]++;
+				}
+			}
+			for (int i = 0; i < N; i++) {
+				successorIdx[i + 1] += successorIdx[i];
+			}
+			successors = new int[successorIdx[N]];
+			int[] location = Arrays.copyOf(successorIdx, N);
+			for (int i = 0; i < N; i++) {
+				for (int d : dependencies.get(i)) {
+					successors[location[d]++] = i;
+				}
+			}
+		}
+
+		@Override
+		public void compute() {
+			for (int i = 0; i < N; i++) {
+				if (remaining.get(i) == 0)
+					ready.add(i);
+			}
+			launch();
+			tryComplete();
+		}
+
+		/**
+		 * Starts ready tasks until the maximum number are running or there are no more ready tasks
+		 */
+		void launch() {
+			while (true) {
+				int active = running.get();
+				if (active >= maxRunning)
+					return;
+				if (!running.compareAndSet(active, active + 1))
+					continue;
+				Integer id = ready.poll();
+				if (id == null) {
+					running.decrementAndGet();
+					// another thread could have added a task after the poll and seen too many running
+					if (ready.isEmpty())
+						return;
+					continue;
+				}
+				new Node(this, id).fork();
+			}
+		}
+
+		void finished( int id ) {
+			for (int i = successorIdx[id]; i < successorIdx[id + 1]; i++) {
+				int s = successors[i];
+				if (remaining.decrementAndGet(s) == 0)
+					ready.add(s);
+			}
+			running.decrementAndGet();
+			launch();
+		}
+	}
+
+	/**
+	 * Runs a single task
+	 */
+	private static class Node extends CountedCompleter<Void> {
+		final Execution execution;
+		final int id;
+
+		Node( Execution execution, int id ) {
+			super(execution);
+			this.execution = execution;
+			this.id = id;
+		}
+
+		@Override
+		public void compute() {
+			execution.work[id].run();
+			execution.finished(id);
+			tryComplete();
+		}
+	}
+}
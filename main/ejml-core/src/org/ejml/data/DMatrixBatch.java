@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.data;
+
+import org.ejml.MatrixDimensionException;
+import org.ejml.UtilEjml;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * <p>
+ * A batch of matrices which all have the same shape. Matrices are stored in a single array using a
+ * structure of arrays layout, i.e. the same element from every matrix is stored next to each other:
+ * </p>
+ *
+ * <pre>data[ (row*numCols + col)*count + index ]</pre>
+ *
+ * <p>
+ * This avoids one object per matrix and lets an operation process the whole batch by streaming through
+ * memory, which is much faster than working with a large number of {@link DMatrixFixed} when the matrices
+ * are small. See BatchOps_DDF2 to BatchOps_DDF6.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class DMatrixBatch implements Serializable {
+    /**
+     * Storage for all the matrices. Only valid up to numRows*numCols*count-1.
+     */
+    public double[] data = UtilEjml.ZERO_LENGTH_F64;
+    /**
+     * Number of rows in each matrix
+     */
+    public int numRows;
+    /**
+     * Number of columns in each matrix
+     */
+    public int numCols;
+    /**
+     * Number of matrices in the batch
+     */
+    public int count;
+
+    /**
+     * Creates a batch where every element in every matrix is zero
+     *
+     * @param numRows Number of rows in each matrix
+     * @param numCols Number of columns in each matrix
+     * @param count Number of matrices in the batch
+     */
+    public DMatrixBatch( int numRows, int numCols, int count ) {
+        if (numRows < 0 || numCols < 0 || count < 0)
+            throw new IllegalArgumentException("Shape and count must not be negative");
+        reshape(numRows, numCols, count);
+    }
+
+    public DMatrixBatch( DMatrixBatch original ) {
+        this(original.numRows, original.numCols, original.count);
+        setTo(original);
+    }
+
+    public DMatrixBatch copy() {
+        return new DMatrixBatch(this);
+    }
+
+    /**
+     * Turns this batch into a copy of the provided batch
+     */
+    public void setTo( DMatrixBatch original ) {
+        reshape(original.numRows, original.numCols, original.count);
+        System.arraycopy(original.data, 0, data, 0, getDataLength());
+    }
+
+    /**
+     * Changes the shape and number of matrices. The array is only grown if it's too small. If the shape changes
+     * the values are not preserved.
+     */
+    public void reshape( int numRows, int numCols, int count ) {
+        this.numRows = numRows;
+        this.numCols = numCols;
+        this.count = count;
+        int length = numRows*numCols*count;
+        if (data.length < length)
+            data = new double[length];
+    }
+
+    /**
+     * Changes the number of matrices while keeping the same shape.
+     */
+    public void reshape( int count ) {
+        reshape(numRows, numCols, count);
+    }
+
+    /**
+     * Returns true if every matrix in the batch has the specified shape
+     */
+    public boolean isShape( int numRows, int numCols ) {
+        return this.numRows == numRows && this.numCols == numCols;
+    }
+
+    public double get( int index, int row, int col ) {
+        if (index < 0 || index >= count || row < 0 || row >= numRows || col < 0 || col >= numCols)
+            throw new IllegalArgumentException("Outside of batch bounds");
+        return data[(row*numCols + col)*count + index];
+    }
+
+    public void set( int index, int row, int col, double value ) {
+        if (index < 0 || index >= count || row < 0 || row >= numRows || col < 0 || col >= numCols)
+            throw new IllegalArgumentException("Outside of batch bounds");
+        data[(row*numCols + col)*count + index] = value;
+    }
+
+    /**
+     * Copies a matrix into the batch
+     *
+     * @param index Which matrix in the batch is modified
+     * @param src Matrix that's copied. Must have the same shape. Not modified.
+     */
+    public void setTo( int index, DMatrix src ) {
+        if (src.getNumRows() != numRows || src.getNumCols() != numCols)
+            throw new MatrixDimensionException("Shape of the matrix doesn't match the batch");
+        if (index < 0 || index >= count)
+            throw new IllegalArgumentException("Outside of batch bounds");
+        for (int row = 0, i = index; row < numRows; row++) {
+            for (int col = 0; col < numCols; col++, i += count) {
+                data[i] = src.unsafe_get(row, col);
+            }
+        }
+    }
+
+    /**
+     * Copies a matrix out of the batch
+     *
+     * @param index Which matrix in the batch is copied
+     * @param dst Storage for the matrix. Must have the same shape. Modified.
+     */
+    public void copyTo( int index, DMatrix dst ) {
+        if (dst.getNumRows() != numRows || dst.getNumCols() != numCols)
+            throw new MatrixDimensionException("Shape of the matrix doesn't match the batch");
+        if (index < 0 || index >= count)
+            throw new IllegalArgumentException("Outside of batch bounds");
+        for (int row = 0, i = index; row < numRows; row++) {
+            for (int col = 0; col < numCols; col++, i += count) {
+                dst.unsafe_set(row, col, data[i]);
+            }
+        }
+    }
+
+    /**
+     * Sets every element in every matrix to zero
+     */
+    public void zero() {
+        Arrays.fill(data, 0, getDataLength(), 0.0);
+    }
+
+    /**
+     * Number of elements in the data array which are used
+     */
+    public int getDataLength() {
+        return numRows*numCols*count;
+    }
+
+    public int getNumRows() {
+        return numRows;
+    }
+
+    public int getNumCols() {
+        return numCols;
+    }
+
+    public int getCount() {
+        return count;
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.data;
+
+import org.ejml.UtilEjml;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * <p>Sparse vector. Only non-zero elements are stored.</p>
+ *
+ * <p>
+ * The index of each non-zero element is stored in nz_indices and its value in nz_values. Indices are always
+ * stored in ascending order, which allows elements to be found using a binary search and lets two vectors be
+ * merged in linear time.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class DVectorSparse implements Serializable {
+    /**
+     * Storage for non-zero values.  Only valid up to nz_length-1.
+     */
+    public double[] nz_values = UtilEjml.ZERO_LENGTH_F64;
+    /**
+     * Index of each non-zero value. Sorted in ascending order.
+     */
+    public int[] nz_indices = UtilEjml.ZERO_LENGTH_I32;
+    /**
+     * Number of non-zero values in the vector
+     */
+    public int nz_length;
+    /**
+     * Number of elements in the vector, including zeros
+     */
+    public int size;
+
+    /**
+     * Specifies the vector's size and number of non-zero elements that can be stored.
+     *
+     * @param size Number of elements in the vector
+     * @param arrayLength Initial maximum number of non-zero elements that can be in the vector
+     */
+    public DVectorSparse( int size, int arrayLength ) {
+        if (size < 0 || arrayLength < 0)
+            throw new IllegalArgumentException("Size and arrayLength must be not be negative");
+        this.size = size;
+        growMaxLength(arrayLength, false);
+    }
+
+    public DVectorSparse( int size ) {
+        this(size, 0);
+    }
+
+    public DVectorSparse( DVectorSparse original ) {
+        this(original.size, original.nz_length);
+        setTo(original);
+    }
+
+    public DVectorSparse copy() {
+        return new DVectorSparse(this);
+    }
+
+    /**
+     * Turns this vector into a copy of the provided vector
+     */
+    public void setTo( DVectorSparse original ) {
+        this.size = original.size;
+        this.nz_length = original.nz_length;
+        growMaxLength(nz_length, false);
+        System.arraycopy(original.nz_values, 0, nz_values, 0, nz_length);
+        System.arraycopy(original.nz_indices, 0, nz_indices, 0, nz_length);
+    }
+
+    /**
+     * Returns the location of the element in the non-zero arrays or -1 if it isn't assigned
+     */
+    public int nz_index( int index ) {
+        int location = Arrays.binarySearch(nz_indices, 0, nz_length, index);
+        return location >= 0 ? location : -1;
+    }
+
+    /**
+     * Returns true if the element has been assigned a value
+     */
+    public boolean isAssigned( int index ) {
+        return nz_index(index) >= 0;
+    }
+
+    public double get( int index ) {
+        if (index < 0 || index >= size)
+            throw new IllegalArgumentException("Outside of vector bounds");
+        return unsafe_get(index);
+    }
+
+    public double unsafe_get( int index ) {
+        int location = nz_index(index);
+        return location >= 0 ? nz_values[location] : 0;
+    }
+
+    /**
+     * Assigns a value to an element. If the element isn't already assigned it's inserted while
+     * keeping the indices sorted.
+     */
+    public void set( int index, double value ) {
+        if (index < 0 || index >= size)
+            throw new IllegalArgumentException("Outside of vector bounds");
+
+        int location = Arrays.binarySearch(nz_indices, 0, nz_length, index);
+        if (location >= 0) {
+            nz_values[location] = value;
+            return;
+        }
+        location = -location - 1;
+
+        if (nz_length >= nz_values.length)
+            growMaxLength(nz_length*2 + 1, true);
+
+        System.arraycopy(nz_indices, location, nz_indices, location + 1, nz_length - location);
+        System.arraycopy(nz_values, location, nz_values, location + 1, nz_length - location);
+        nz_indices[location] = index;
+        nz_values[location] = value;
+        nz_length++;
+    }
+
+    /**
+     * Adds an element to the end of the vector. The index must be larger than every index already in the
+     * vector. No bounds checks are performed.
+     */
+    public void append( int index, double value ) {
+        if (nz_length >= nz_values.length)
+            growMaxLength(nz_length*2 + 1, true);
+        nz_indices[nz_length] = index;
+        nz_values[nz_length] = value;
+        nz_length++;
+    }
+
+    /**
+     * Removes the element from the vector, if it has been assigned
+     */
+    public void remove( int index ) {
+        int location = nz_index(index);
+        if (location < 0)
+            return;
+        nz_length--;
+        System.arraycopy(nz_indices, location + 1, nz_indices, location, nz_length - location);
+        System.arraycopy(nz_values, location + 1, nz_values, location, nz_length - location);
+    }
+
+    /**
+     * Removes all the non-zero elements
+     */
+    public void zero() {
+        nz_length = 0;
+    }
+
+    /**
+     * Changes the size of the vector and removes all of its elements
+     */
+    public void reshape( int size ) {
+        if (size < 0)
+            throw new IllegalArgumentException("Size must be not be negative");
+        this.size = size;
+        this.nz_length = 0;
+    }
+
+    /**
+     * Increases the maximum number of non-zero elements that can be stored
+     *
+     * @param arrayLength Desired maximum length
+     * @param preserveValue If true the existing elements are copied into the new arrays
+     */
+    public void growMaxLength( int arrayLength, boolean preserveValue ) {
+        if (arrayLength < 0)
+            throw new IllegalArgumentException("Negative array length. Overflow?");
+        if (arrayLength <= nz_values.length)
+            return;
+
+        double[] values = new double[arrayLength];
+        int[] indices = new int[arrayLength];
+        if (preserveValue) {
+            System.arraycopy(nz_values, 0, values, 0, nz_length);
+            System.arraycopy(nz_indices, 0, indices, 0, nz_length);
+        }
+        nz_values = values;
+        nz_indices = indices;
+    }
+
+    /**
+     * Returns true if the indices are in bounds and strictly increasing
+     */
+    public boolean checkStructure() {
+        if (nz_length > nz_indices.length)
+            return false;
+        for (int i = 0; i < nz_length; i++) {
+            if (nz_indices[i] < 0 || nz_indices[i] >= size)
+                return false;
+            if (i > 0 && nz_indices[i - 1] >= nz_indices[i])
+                return false;
+        }
+        return true;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getNonZeroLength() {
+        return nz_length;
+    }
+
+    public void print() {
+        System.out.println("Sparse vector: size = " + size + " nz_length = " + nz_length);
+        for (int i = 0; i < nz_length; i++) {
+            System.out.printf("  %d : %11.4E\n", nz_indices[i], nz_values[i]);
+        }
+    }
+}
@@ -31,6 +31,8 @@ public enum MatrixType {
     CDRM(false,true,32,CMatrixRMaj.class),
     DSCC(true,false,64,DMatrixSparseCSC.class),
     FSCC(true,false,32,FMatrixSparseCSC.class),
+    DSCR(true,false,64,DMatrixSparseCSR.class),
+    FSCR(true,false,32,FMatrixSparseCSR.class),
     ZSCC(false,false,64,Object.class),
     CSCC(false,false,32,Object.class),
     DTRIPLET(false,false,64,DMatrixSparseTriplet.class),
@@ -68,6 +70,10 @@ public enum MatrixType {
             return MatrixType.DSCC;
         else if( type == FMatrixSparseCSC.class )
             return MatrixType.FSCC;
+        else if( type == DMatrixSparseCSR.class )
+            return MatrixType.DSCR;
+        else if( type == FMatrixSparseCSR.class )
+            return MatrixType.FSCR;
         else
             throw new IllegalArgumentException("Unknown class");
     }
@@ -131,6 +137,8 @@ public enum MatrixType {
             case CDRM: return new CMatrixRMaj(rows,cols);
             case DSCC: return new DMatrixSparseCSC(rows,cols);
             case FSCC: return new FMatrixSparseCSC(rows,cols);
+            case DSCR: return new DMatrixSparseCSR(rows,cols);
+            case FSCR: return new FMatrixSparseCSR(rows,cols);
 //            case ZSCC: return new ZMatrixSparseCSC(rows,cols);
 //            case CSCC: return new CMatrixSparseCSC(rows,cols);
             default:
@@ -907,4 +907,207 @@ public class ConvertDMatrixStruct {
 
         return dst;
     }
+
+    /**
+     * Converts DMatrixSparseCSC into a DMatrixSparseCSR. The column indices in each row of the output will be sorted.
+     *
+     * @param src Original matrix which is to be copied.  Not modified.
+     * @param dst Destination. Will be a copy.  Modified.
+     * @param histStorage Workspace. Can be null.
+     */
+    public static DMatrixSparseCSR convert(DMatrixSparseCSC src , @Nullable DMatrixSparseCSR dst ,
+                                           @Nullable IGrowArray histStorage ) {
+        dst = UtilEjml.reshapeOrDeclare(dst,src.numRows,src.numCols,src.nz_length);
+
+        int[] hist = UtilEjml.adjustClear(histStorage,src.numRows);
+
+        // compute the number of elements in each row
+        for (int i = 0; i < src.nz_length; i++) {
+            hist[src.nz_rows[i]]++;
+        }
+
+        // define row_idx
+        dst.histogramToStructure(hist);
+        System.arraycopy(dst.row_idx,0,hist,0,dst.numRows);
+
+        // columns are traversed in order so the column indices will be sorted
+        for (int col = 0; col < src.numCols; col++) {
+            int idx0 = src.col_idx[col];
+            int idx1 = src.col_idx[col+1];
+
+            for (int i = idx0; i < idx1; i++) {
+                int index = hist[src.nz_rows[i]]++;
+                dst.nz_cols[index] = col;
+                dst.nz_values[index] = src.nz_values[i];
+            }
+        }
+        dst.indicesSorted = true;
+
+        return dst;
+    }
+
+    public static DMatrixSparseCSR convert(DMatrixSparseCSC src , @Nullable DMatrixSparseCSR dst ) {
+        return convert(src,dst,null);
+    }
+
+    /**
+     * Converts DMatrixSparseCSR into a DMatrixSparseCSC. The row indices in each column of the output will be sorted.
+     *
+     * @param src Original matrix which is to be copied.  Not modified.
+     * @param dst Destination. Will be a copy.  Modified.
+     * @param histStorage Workspace. Can be null.
+     */
+    public static DMatrixSparseCSC convert(DMatrixSparseCSR src , @Nullable DMatrixSparseCSC dst ,
+                                           @Nullable IGrowArray histStorage ) {
+        dst = UtilEjml.reshapeOrDeclare(dst,src.numRows,src.numCols,src.nz_length);
+
+        int[] hist = UtilEjml.adjustClear(histStorage,src.numCols);
+
+        // compute the number of elements in each column
+        for (int i = 0; i < src.nz_length; i++) {
+            hist[src.nz_cols[i]]++;
+        }
+
+        // define col_idx
+        dst.histogramToStructure(hist);
+        System.arraycopy(dst.col_idx,0,hist,0,dst.numCols);
+
+        // rows are traversed in order so the row indices will be sorted
+        for (int row = 0; row < src.numRows; row++) {
+            int idx0 = src.row_idx[row];
+            int idx1 = src.row_idx[row+1];
+
+            for (int i = idx0; i < idx1; i++) {
+                int index = hist[src.nz_cols[i]]++;
+                dst.nz_rows[index] = row;
+                dst.nz_values[index] = src.nz_values[i];
+            }
+        }
+        dst.indicesSorted = true;
+
+        return dst;
+    }
+
+    public static DMatrixSparseCSC convert(DMatrixSparseCSR src , @Nullable DMatrixSparseCSC dst ) {
+        return convert(src,dst,null);
+    }
+
+    public static DMatrixRMaj convert(DMatrixSparseCSR src , @Nullable DMatrixRMaj dst ) {
+        if( dst == null )
+            dst = new DMatrixRMaj(src.numRows, src.numCols);
+        else {
+            dst.reshape(src.numRows, src.numCols);
+            dst.zero();
+        }
+
+        for (int row = 0; row < src.numRows; row++) {
+            int idx0 = src.row_idx[row];
+            int idx1 = src.row_idx[row+1];
+            int indexDst = row*src.numCols;
+
+            for (int i = idx0; i < idx1; i++) {
+                dst.data[indexDst + src.nz_cols[i]] = src.nz_values[i];
+            }
+        }
+
+        return dst;
+    }
+
+    /**
+     * Converts DMatrixRMaj into a DMatrixSparseCSR
+     *
+     * @param src Original matrix that is to be converted.
+     * @param dst Storage for the converted matrix.  If null a new instance will be returned.
+     * @param tol Elements with a magnitude less than or equal to this are not copied.
+     * @return The converted matrix
+     */
+    public static DMatrixSparseCSR convert(DMatrixRMaj src , @Nullable DMatrixSparseCSR dst , double tol ) {
+        int nonzero = 0;
+        int N = src.numRows*src.numCols;
+        for (int i = 0; i < N; i++) {
+            if( Math.abs(src.data[i]) > tol )
+                nonzero++;
+        }
+
+        dst = UtilEjml.reshapeOrDeclare(dst,src.numRows, src.numCols, nonzero);
+        dst.nz_length = 0;
+
+        dst.row_idx[0] = 0;
+        int index = 0;
+        for (int row = 0; row < src.numRows; row++) {
+            for (int col = 0; col < src.numCols; col++, index++) {
+                double value = src.data[index];
+                if( Math.abs(value) <= tol )
+                    continue;
+
+                dst.nz_cols[dst.nz_length] = col;
+                dst.nz_values[dst.nz_length] = value;
+                dst.nz_length += 1;
+            }
+            dst.row_idx[row+1] = dst.nz_length;
+        }
+        dst.indicesSorted = true;
+
+        return dst;
+    }
+
+    /**
+     * Converts DMatrixSparseTriplet into a DMatrixSparseCSR. Duplicate elements in triplet will result in an
+     * illegal matrix in output having duplicate elements.
+     *
+     * @param src Original matrix which is to be copied.  Not modified.
+     * @param dst Destination. Will be a copy.  Modified.
+     * @param histStorage Workspace. Can be null.
+     */
+    public static DMatrixSparseCSR convert(DMatrixSparseTriplet src , @Nullable DMatrixSparseCSR dst ,
+                                           @Nullable IGrowArray histStorage) {
+        dst = UtilEjml.reshapeOrDeclare(dst,src.numRows,src.numCols,src.nz_length);
+
+        int[] hist = UtilEjml.adjustClear(histStorage,src.numRows);
+
+        // compute the number of elements in each row
+        for (int i = 0; i < src.nz_length; i++) {
+            hist[src.nz_rowcol.data[i*2]]++;
+        }
+
+        // define row_idx
+        dst.histogramToStructure(hist);
+        System.arraycopy(dst.row_idx,0,hist,0,dst.numRows);
+
+        // now write the column indexes and the values
+        for (int i = 0; i < src.nz_length; i++) {
+            int row = src.nz_rowcol.data[i*2];
+            int col = src.nz_rowcol.data[i*2+1];
+            double value = src.nz_value.data[i];
+
+            int index = hist[row]++;
+            dst.nz_cols[index] = col;
+            dst.nz_values[index] = value;
+        }
+        dst.indicesSorted = false;
+
+        return dst;
+    }
+
+    public static DMatrixSparseCSR convert(DMatrixSparseTriplet src , @Nullable DMatrixSparseCSR dst ) {
+        return convert(src,dst,null);
+    }
+
+    public static DMatrixSparseTriplet convert(DMatrixSparseCSR src , @Nullable DMatrixSparseTriplet dst ) {
+        if( dst == null )
+            dst = new DMatrixSparseTriplet(src.numRows, src.numCols, src.nz_length);
+        else
+            dst.reshape( src.numRows , src.numCols );
+
+        for (int row = 0; row < src.numRows; row++) {
+            int i0 = src.row_idx[row];
+            int i1 = src.row_idx[row+1];
+
+            for (int i = i0; i < i1; i++) {
+                dst.addItem(row, src.nz_cols[i], src.nz_values[i]);
+            }
+        }
+
+        return dst;
+    }
 }
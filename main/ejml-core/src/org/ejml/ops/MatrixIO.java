@@ -586,6 +586,14 @@ public class MatrixIO {
                 print(out,(FMatrixSparseTriplet)mat,format);
                 break;
 
+            case DSCR:
+                print(out,(DMatrix)mat,format);
+                break;
+
+            case FSCR:
+                print(out,(FMatrix)mat,format);
+                break;
+
             default:
                 throw new RuntimeException("Unknown type "+mat.getType());
         }
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009-2019, Peter Abeles. All Rights Reserved.
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
  *
  * This file is part of Efficient Java Matrix Library (EJML).
  *
@@ -28,6 +28,15 @@ public enum FillReducing {
      * No fill reduction permutation will be applied
      */
     NONE,
+    /**
+     * Approximate Minimum Degree ordering of A+A<sup>T</sup>. Best suited for symmetric matrices, e.g. Cholesky.
+     */
+    AMD,
+    /**
+     * Column Approximate Minimum Degree ordering of A<sup>T</sup>A with dense rows ignored. Only the columns are
+     * permuted. Best suited for LU and QR.
+     */
+    COLAMD,
     /**
      * TESTING ONLY. Completely random permutation
      */
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.concurrency;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestConcurrencyCostModel {
+	@Test
+	void isConcurrent() {
+		var alg = new ConcurrencyCostModel();
+
+		// never concurrent with one thread
+		assertFalse(alg.isConcurrent(1e12, 1));
+		// too little work to hide the overhead
+		assertFalse(alg.isConcurrent(1_000, 4));
+		assertTrue(alg.isConcurrent(1e9, 4));
+
+		// the threshold goes up as the overhead increases
+		alg.setForkOverhead(1e9);
+		assertFalse(alg.isConcurrent(1e9, 4));
+
+		assertTrue(ConcurrencyCostModel.alwaysConcurrent().isConcurrent(1, 2));
+	}
+
+	@Test
+	void minimumBlockSize() {
+		var alg = new ConcurrencyCostModel();
+
+		int previous = Integer.MAX_VALUE;
+		for (double flops : new double[]{1e-20, 1, 10, 1000, 1e12}) {
+			int found = alg.minimumBlockSize(flops);
+			assertTrue(found >= 1);
+			assertTrue(found <= previous);
+			previous = found;
+		}
+		assertEquals(1, alg.minimumBlockSize(1e12));
+		assertEquals(1, ConcurrencyCostModel.alwaysConcurrent().minimumBlockSize(1));
+	}
+
+	@Test
+	void calibrate() {
+		var alg = new ConcurrencyCostModel();
+		alg.calibrate(new ForkJoinPool(2));
+
+		for (double value : new double[]{alg.getNanoPerFlop(), alg.getForkOverhead(), alg.getTaskOverhead()}) {
+			assertTrue(value > 0);
+			assertTrue(Double.isFinite(value));
+		}
+		// forking a task can't be cheaper than a single floating point operation
+		assertTrue(alg.getForkOverhead() > alg.getNanoPerFlop());
+	}
+}
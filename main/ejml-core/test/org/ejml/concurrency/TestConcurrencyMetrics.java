@@ -0,0 +1,254 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.concurrency;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.TabularData;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestConcurrencyMetrics {
+	@AfterEach
+	void removeListener() {
+		EjmlConcurrency.setListener(null);
+	}
+
+	/**
+	 * Loops should be attributed to the method which called them and record every task
+	 */
+	@Test
+	void loops() {
+		var metrics = new ConcurrencyMetrics();
+		EjmlConcurrency.setListener(metrics);
+
+		var context = new ConcurrencyContext(new ForkJoinPool(3), 3, 0);
+		context.setCostModel(ConcurrencyCostModel.alwaysConcurrent());
+		EjmlConcurrency.runWith(context, () -> {
+			EjmlConcurrency.loopFor(0, 30, i -> {});
+			EjmlConcurrency.loopBlocks(0, 30, ( i0, i1 ) -> {});
+			EjmlConcurrency.loopForWeighted(0, 30, 1, i -> 10.0, i -> {});
+		});
+
+		ConcurrencyMetrics.OperationMetrics found = metrics.getOperation("TestConcurrencyMetrics.loops");
+		assertNotNull(found);
+		assertEquals(3, found.getDispatches());
+		assertTrue(found.getTasks() >= 3);
+		assertTrue(found.getWallNanos() > 0);
+		assertTrue(found.getUtilization() >= 0 && found.getUtilization() <= 1.0);
+		// only the weighted loop knows how much work it did
+		assertEquals(300.0, found.getDispatchedFlops());
+		assertEquals(1, metrics.getOperations().size());
+
+		// every thread which ran a task should be in the pool
+		assertFalse(metrics.getThreadBusyNanos().isEmpty());
+
+		metrics.reset();
+		assertTrue(metrics.getOperations().isEmpty());
+		assertTrue(metrics.getThreadBusyNanos().isEmpty());
+	}
+
+	/**
+	 * Decisions made by the cost model should be counted under the name they were given
+	 */
+	@Test
+	void costDecision() {
+		var metrics = new ConcurrencyMetrics();
+		EjmlConcurrency.setListener(metrics);
+
+		var context = new ConcurrencyContext(new ForkJoinPool(2), 2, 0);
+		EjmlConcurrency.runWith(context, () -> {
+			assertFalse(EjmlConcurrency.isConcurrent("decide", 10));
+			assertTrue(EjmlConcurrency.isConcurrent("decide", 1e12));
+			assertTrue(EjmlConcurrency.isConcurrent("decide", 1e12));
+			assertTrue(EjmlConcurrency.isConcurrent(1e12));
+		});
+
+		ConcurrencyMetrics.OperationMetrics found = metrics.getOperation("decide");
+		assertNotNull(found);
+		assertEquals(1, found.getSerialCalls());
+		assertEquals(2, found.getConcurrentCalls());
+		assertEquals(2e12 + 10, found.getEstimatedFlops());
+		assertEquals(0, found.getDispatches());
+
+		found = metrics.getOperation("unnamed");
+		assertNotNull(found);
+		assertEquals(1, found.getConcurrentCalls());
+		assertEquals(2, metrics.getOperations().size());
+	}
+
+	/**
+	 * Work submitted by a function called by an open operation should be attributed to the operation. Once the
+	 * operation has been closed, work is named after the method which submitted it.
+	 */
+	@Test
+	void dispatchNamedAfterOperation() {
+		var metrics = new ConcurrencyMetrics();
+		EjmlConcurrency.setListener(metrics);
+
+		var context = new ConcurrencyContext(new ForkJoinPool(3), 3, 0);
+		context.setCostModel(ConcurrencyCostModel.alwaysConcurrent());
+		EjmlConcurrency.runWith(context, () -> {
+			operation();
+			operation();
+			kernel();
+		});
+
+		ConcurrencyMetrics.OperationMetrics found = metrics.getOperation("operation");
+		assertNotNull(found);
+		assertEquals(2, found.getConcurrentCalls());
+		assertEquals(2, found.getDispatches());
+		assertTrue(found.getConcurrentNanos() >= found.getWallNanos());
+		assertEquals(0, found.getSerialNanos());
+
+		// only the call which wasn't inside of the operation
+		found = metrics.getOperation("TestConcurrencyMetrics.kernel");
+		assertNotNull(found);
+		assertEquals(0, found.getConcurrentCalls());
+		assertEquals(1, found.getDispatches());
+		assertEquals(2, metrics.getOperations().size());
+	}
+
+	private static void operation() {
+		try (ConcurrencyOperation op = EjmlConcurrency.operation("operation", 1e9)) {
+			assertTrue(op.isConcurrent());
+			kernel();
+		}
+	}
+
+	private static void kernel() {
+		EjmlConcurrency.loopFor(0, 30, i -> {});
+	}
+
+	/**
+	 * Operations which run in the calling thread should have their time recorded too
+	 */
+	@Test
+	void serialOperation() {
+		var metrics = new ConcurrencyMetrics();
+		EjmlConcurrency.setListener(metrics);
+
+		EjmlConcurrency.runWith(new ConcurrencyContext(new ForkJoinPool(2), 2, 0), () -> {
+			try (ConcurrencyOperation op = EjmlConcurrency.operation("serial", 10)) {
+				assertFalse(op.isConcurrent());
+				long start = System.nanoTime();
+				while (System.nanoTime() == start) {}
+			}
+		});
+
+		ConcurrencyMetrics.OperationMetrics found = metrics.getOperation("serial");
+		assertNotNull(found);
+		assertEquals(1, found.getSerialCalls());
+		assertTrue(found.getSerialNanos() > 0);
+		assertEquals(0, found.getConcurrentNanos());
+		assertEquals(0, found.getDispatches());
+
+		// nothing is allocated or measured without a listener
+		EjmlConcurrency.setListener(null);
+		assertSame(EjmlConcurrency.operation("serial", 10), EjmlConcurrency.operation("other", 10));
+	}
+
+	/**
+	 * Task graphs should report one dispatch with a task for each node
+	 */
+	@Test
+	void taskGraph() {
+		List<ConcurrencyEvent> events = Collections.synchronizedList(new ArrayList<>());
+		EjmlConcurrency.setListener(new ConcurrencyListener() {
+			@Override public void costDecision( String operation, double flops, boolean concurrent ) {}
+
+			@Override public void taskFinished( String operation, long nanos ) {}
+
+			@Override public void dispatchFinished( ConcurrencyEvent event ) {events.add(event);}
+		});
+
+		var context = new ConcurrencyContext(new ForkJoinPool(3), 3, 0);
+		EjmlConcurrency.runWith(context, () -> {
+			var graph = new TaskGraph();
+			int a = graph.add(() -> {});
+			graph.add(() -> {}, a);
+			graph.add(() -> {}, a);
+			graph.execute();
+		});
+
+		assertEquals(1, events.size());
+		assertEquals("TestConcurrencyMetrics.taskGraph", events.get(0).operation);
+		assertEquals(3, events.get(0).tasks);
+		assertEquals(3, events.get(0).maxThreads);
+	}
+
+	/**
+	 * Nothing is recorded once the listener has been removed
+	 */
+	@Test
+	void noListener() {
+		var metrics = new ConcurrencyMetrics();
+		EjmlConcurrency.setListener(metrics);
+		EjmlConcurrency.setListener(null);
+		assertNull(EjmlConcurrency.getListener());
+
+		EjmlConcurrency.runWith(new ConcurrencyContext(new ForkJoinPool(2), 2, 0), () -> {
+			EjmlConcurrency.isConcurrent("decide", 1e12);
+			EjmlConcurrency.operation("operation", 1e12).close();
+			EjmlConcurrency.loopFor(0, 10, i -> {});
+		});
+		assertTrue(metrics.getOperations().isEmpty());
+	}
+
+	/**
+	 * Metrics can be read through JMX
+	 */
+	@Test
+	void jmx() throws Exception {
+		var metrics = new ConcurrencyMetrics();
+		EjmlConcurrency.setListener(metrics);
+		metrics.register();
+		try {
+			EjmlConcurrency.runWith(new ConcurrencyContext(new ForkJoinPool(2), 2, 0), () ->
+					EjmlConcurrency.loopFor(0, 10, i -> {}));
+
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(ConcurrencyMetrics.OBJECT_NAME);
+			var operations = (TabularData)server.getAttribute(name, "Operations");
+			assertEquals(1, operations.size());
+			var threads = (TabularData)server.getAttribute(name, "ThreadBusyNanos");
+			assertFalse(threads.isEmpty());
+			assertTrue((Integer)server.getAttribute(name, "PoolParallelism") > 0);
+			// the global pool is reported even when read by a thread with its own context
+			EjmlConcurrency.runWith(new ConcurrencyContext(new ForkJoinPool(2), 2, 0), () ->
+					assertEquals(EjmlConcurrency.getGlobalContext().getPool().getParallelism(),
+							metrics.getPoolParallelism()));
+
+			server.invoke(name, "reset", null, null);
+			assertEquals(Map.of(), metrics.getOperations());
+		} finally {
+			metrics.unregister();
+		}
+		assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(new ObjectName(ConcurrencyMetrics.OBJECT_NAME)));
+	}
+}
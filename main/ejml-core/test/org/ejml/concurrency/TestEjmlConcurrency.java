@@ -0,0 +1,299 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.concurrency;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestEjmlConcurrency {
+	/**
+	 * Every index should be visited exactly once, including when the range doesn't start at zero
+	 */
+	@Test
+	void loopFor_workspace() {
+		var workspace = new GrowArray<>(Object::new);
+		int originalThreads = EjmlConcurrency.getMaxThreads();
+		try {
+			EjmlConcurrency.setMaxThreads(4);
+			for (int start : new int[]{0, 3, 17}) {
+				for (int step : new int[]{1, 2, 5}) {
+					var counts = new AtomicIntegerArray(100);
+					EjmlConcurrency.loopFor(start, 90, step, workspace, ( work, i ) -> counts.incrementAndGet(i));
+					for (int i = 0; i < counts.length(); i++) {
+						boolean expected = i >= start && i < 90 && (i - start)%step == 0;
+						assertEquals(expected ? 1 : 0, counts.get(i), "start=" + start + " step=" + step + " i=" + i);
+					}
+				}
+			}
+		} finally {
+			EjmlConcurrency.setMaxThreads(originalThreads);
+		}
+	}
+
+	/**
+	 * Loops inside of runWith() should use the context's pool and the previous context is restored after
+	 */
+	@Test
+	void runWith_pool() {
+		ConcurrencyContext global = EjmlConcurrency.getContext();
+		var context = new ConcurrencyContext(3);
+
+		Set<ForkJoinPool> pools = Collections.newSetFromMap(new ConcurrentHashMap<>());
+		EjmlConcurrency.runWith(context, () -> {
+			assertSame(context, EjmlConcurrency.getContext());
+			assertEquals(3, EjmlConcurrency.getMaxThreads());
+			EjmlConcurrency.loopFor(0, 100, i -> pools.add(ForkJoinTask.getPool()));
+			EjmlConcurrency.loopBlocks(0, 100, ( i0, i1 ) -> pools.add(ForkJoinTask.getPool()));
+		});
+		assertEquals(1, pools.size());
+		assertTrue(pools.contains(context.getPool()));
+		assertSame(global, EjmlConcurrency.getContext());
+
+		// nested contexts
+		var inner = new ConcurrencyContext(2);
+		int found = EjmlConcurrency.callWith(context, () -> {
+			EjmlConcurrency.runWith(inner, () -> assertSame(inner, EjmlConcurrency.getContext()));
+			assertSame(context, EjmlConcurrency.getContext());
+			return EjmlConcurrency.sum(0, 10, int.class, i -> i).intValue();
+		});
+		assertEquals(45, found);
+	}
+
+	/**
+	 * Loops started by a worker thread should use the same context as the loop which contains them
+	 */
+	@Test
+	void runWith_nested() {
+		var context = new ConcurrencyContext(new ForkJoinPool(3), 3, 0);
+		Set<ConcurrencyContext> found = Collections.newSetFromMap(new ConcurrentHashMap<>());
+		var counts = new AtomicIntegerArray(20*20);
+		EjmlConcurrency.runWith(context, () -> EjmlConcurrency.loopFor(0, 20, i -> {
+			found.add(EjmlConcurrency.getContext());
+			EjmlConcurrency.loopFor(0, 20, j -> {
+				found.add(EjmlConcurrency.getContext());
+				counts.incrementAndGet(i*20 + j);
+			});
+		}));
+		assertEquals(1, found.size());
+		assertTrue(found.contains(context));
+		for (int i = 0; i < counts.length(); i++) {
+			assertEquals(1, counts.get(i));
+		}
+	}
+
+	/**
+	 * A loop should never be split between more threads than the cap
+	 */
+	@Test
+	void maxThreads() {
+		var context = new ConcurrencyContext(new ForkJoinPool(6), 2, 0);
+		assertEquals(2, context.getMaxThreads());
+
+		var workspace = new GrowArray<>(Object::new);
+		EjmlConcurrency.runWith(context, () -> {
+			for (int range : new int[]{5, 17, 100}) {
+				// each loop can use different threads in the pool, but no more than two of them
+				Set<Thread> threadsFor = Collections.newSetFromMap(new ConcurrentHashMap<>());
+				Set<Thread> threadsBlocks = Collections.newSetFromMap(new ConcurrentHashMap<>());
+				var counts = new AtomicIntegerArray(range);
+				EjmlConcurrency.loopFor(0, range, i -> {
+					threadsFor.add(Thread.currentThread());
+					counts.incrementAndGet(i);
+				});
+				EjmlConcurrency.loopBlocks(0, range, ( i0, i1 ) -> {
+					threadsBlocks.add(Thread.currentThread());
+					for (int i = i0; i < i1; i++) counts.incrementAndGet(i);
+				});
+				EjmlConcurrency.loopBlocks(0, range, 1, workspace, ( work, i0, i1 ) -> {
+					for (int i = i0; i < i1; i++) counts.incrementAndGet(i);
+				});
+				assertTrue(workspace.size() <= 2);
+				assertTrue(threadsFor.size() <= 2);
+				assertTrue(threadsBlocks.size() <= 2);
+				for (int i = 0; i < range; i++) {
+					assertEquals(3, counts.get(i));
+				}
+			}
+		});
+	}
+
+	/**
+	 * Loops with fewer iterations than the minimum are run in the calling thread
+	 */
+	@Test
+	void minimumWork() {
+		var context = new ConcurrencyContext(new ForkJoinPool(4), 4, 50);
+		var workspace = new GrowArray<>(Object::new);
+		Thread caller = Thread.currentThread();
+
+		EjmlConcurrency.runWith(context, () -> {
+			var counts = new AtomicIntegerArray(49);
+			EjmlConcurrency.loopFor(0, 49, i -> {
+				assertSame(caller, Thread.currentThread());
+				counts.incrementAndGet(i);
+			});
+			EjmlConcurrency.loopFor(0, 49, 1, workspace, ( work, i ) -> {
+				assertSame(caller, Thread.currentThread());
+				counts.incrementAndGet(i);
+			});
+			EjmlConcurrency.loopBlocks(0, 49, ( i0, i1 ) -> {
+				assertSame(caller, Thread.currentThread());
+				for (int i = i0; i < i1; i++) counts.incrementAndGet(i);
+			});
+			for (int i = 0; i < 49; i++) {
+				assertEquals(3, counts.get(i));
+			}
+
+			// large enough to be run in the pool
+			Set<ForkJoinPool> pools = Collections.newSetFromMap(new ConcurrentHashMap<>());
+			EjmlConcurrency.loopFor(0, 50, i -> pools.add(ForkJoinTask.getPool()));
+			assertTrue(pools.contains(context.getPool()));
+		});
+	}
+
+	/**
+	 * Different threads can use different contexts at the same time
+	 */
+	@Test
+	void differentThreadsDifferentContexts() throws InterruptedException {
+		var contextA = new ConcurrencyContext(2);
+		var contextB = new ConcurrencyContext(3);
+		Set<ForkJoinPool> poolsA = Collections.newSetFromMap(new ConcurrentHashMap<>());
+		Set<ForkJoinPool> poolsB = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+		Thread threadA = new Thread(() -> EjmlConcurrency.runWith(contextA, () -> {
+			for (int trial = 0; trial < 20; trial++)
+				EjmlConcurrency.loopFor(0, 100, i -> poolsA.add(ForkJoinTask.getPool()));
+		}));
+		Thread threadB = new Thread(() -> EjmlConcurrency.runWith(contextB, () -> {
+			for (int trial = 0; trial < 20; trial++)
+				EjmlConcurrency.loopBlocks(0, 100, ( i0, i1 ) -> poolsB.add(ForkJoinTask.getPool()));
+		}));
+		threadA.start();
+		threadB.start();
+		threadA.join();
+		threadB.join();
+
+		assertEquals(Set.of(contextA.getPool()), poolsA);
+		assertEquals(Set.of(contextB.getPool()), poolsB);
+	}
+
+	/**
+	 * Cheap work is done in the calling thread with a single block while expensive work is split between threads
+	 */
+	@Test
+	void loopBlocksCost() {
+		var context = new ConcurrencyContext(new ForkJoinPool(3));
+		Thread caller = Thread.currentThread();
+
+		EjmlConcurrency.runWith(context, () -> {
+			var counts = new AtomicIntegerArray(200);
+			var blocks = new AtomicIntegerArray(1);
+			EjmlConcurrency.loopBlocksCost(0, 200, 1.0, ( i0, i1 ) -> {
+				assertSame(caller, Thread.currentThread());
+				blocks.incrementAndGet(0);
+				for (int i = i0; i < i1; i++) counts.incrementAndGet(i);
+			});
+			assertEquals(1, blocks.get(0));
+
+			context.setCostModel(ConcurrencyCostModel.alwaysConcurrent());
+			Set<ForkJoinPool> pools = Collections.newSetFromMap(new ConcurrentHashMap<>());
+			EjmlConcurrency.loopBlocksCost(0, 200, 1.0, new GrowArray<>(Object::new), ( work, i0, i1 ) -> {
+				pools.add(ForkJoinTask.getPool());
+				blocks.incrementAndGet(0);
+				for (int i = i0; i < i1; i++) counts.incrementAndGet(i);
+			});
+			assertTrue(blocks.get(0) > 2);
+			assertEquals(Set.of(context.getPool()), pools);
+			for (int i = 0; i < 200; i++) {
+				assertEquals(2, counts.get(i));
+			}
+		});
+	}
+
+	/**
+	 * Every index is processed once, each block has its own workspace and small loops are run in the caller
+	 */
+	@Test
+	void loopForWeighted() {
+		var context = new ConcurrencyContext(new ForkJoinPool(3));
+		Thread caller = Thread.currentThread();
+
+		EjmlConcurrency.runWith(context, () -> {
+			var counts = new AtomicIntegerArray(300);
+			EjmlConcurrency.loopForWeighted(2, 300, 3, i -> 1.0, i -> {
+				assertSame(caller, Thread.currentThread());
+				counts.incrementAndGet(i);
+			});
+
+			context.setCostModel(ConcurrencyCostModel.alwaysConcurrent());
+			Set<ForkJoinPool> pools = Collections.newSetFromMap(new ConcurrentHashMap<>());
+			EjmlConcurrency.loopForWeighted(2, 300, 3, i -> 300 - i, i -> {
+				pools.add(ForkJoinTask.getPool());
+				counts.incrementAndGet(i);
+			});
+			assertEquals(Set.of(context.getPool()), pools);
+
+			var workspace = new GrowArray<>(() -> new AtomicIntegerArray(1), w -> w.set(0, 0));
+			EjmlConcurrency.loopForWeighted(2, 300, 3, i -> 300 - i, workspace, ( work, i ) -> {
+				counts.incrementAndGet(i);
+				work.incrementAndGet(0);
+			});
+			assertTrue(workspace.size() > 1);
+			int total = 0;
+			for (int i = 0; i < workspace.size(); i++) {
+				total += workspace.get(i).get(0);
+			}
+			assertEquals(100, total);
+
+			EjmlConcurrency.loopBlocksWeighted(2, 300, i -> 1.0, ( i0, i1 ) -> {
+				for (int i = i0; i < i1; i++) counts.incrementAndGet(i);
+			});
+
+			for (int i = 0; i < 300; i++) {
+				assertEquals((i - 2)%3 == 0 && i >= 2 ? 4 : (i >= 2 ? 1 : 0), counts.get(i));
+			}
+		});
+	}
+
+	/**
+	 * Exceptions thrown inside of a loop should be passed on to the caller
+	 */
+	@Test
+	void exceptionPropagated() {
+		var context = new ConcurrencyContext(new ForkJoinPool(3), 3, 0);
+		EjmlConcurrency.runWith(context, () -> {
+			assertThrows(RuntimeException.class, () -> EjmlConcurrency.loopFor(0, 10, i -> {
+				if (i == 5) throw new IllegalStateException("failed");
+			}));
+			assertThrows(RuntimeException.class, () -> EjmlConcurrency.loopBlocks(0, 10, 2, ( i0, i1 ) -> {
+				throw new IllegalStateException("failed");
+			}));
+		});
+	}
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.concurrency;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestIntObjectTask {
+	/**
+	 * Every index should be visited exactly once and each segment has its own workspace. The worker tasks used
+	 * to add the start of the range twice, which skipped indexes and went past the end when it wasn't zero.
+	 */
+	@Test
+	void nonZeroStart() {
+		var pool = new ForkJoinPool(3);
+		for (int start : new int[]{0, 1, 7, 40}) {
+			for (int step : new int[]{1, 3}) {
+				for (int threads : new int[]{1, 2, 5}) {
+					var counts = new AtomicIntegerArray(100);
+					var workspace = new GrowArray<>(() -> new int[2], w -> {w[0] = Integer.MAX_VALUE; w[1] = -1;});
+					pool.invoke(new IntObjectTask<>(start, 90, step, threads, -1, workspace, ( work, i ) -> {
+						counts.incrementAndGet(i);
+						work[0] = Math.min(work[0], i);
+						work[1] = Math.max(work[1], i);
+					}));
+
+					String message = "start=" + start + " step=" + step + " threads=" + threads;
+					for (int i = 0; i < counts.length(); i++) {
+						boolean expected = i >= start && i < 90 && (i - start)%step == 0;
+						assertEquals(expected ? 1 : 0, counts.get(i), message + " i=" + i);
+					}
+
+					// The workspaces are for contiguous segments which don't overlap
+					assertEquals(Math.min(threads, (90 - start + step - 1)/step), workspace.size(), message);
+					assertEquals(start, workspace.get(0)[0], message);
+					for (int i = 1; i < workspace.size(); i++) {
+						assertTrue(workspace.get(i - 1)[1] < workspace.get(i)[0], message);
+					}
+				}
+			}
+		}
+		pool.shutdown();
+	}
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.concurrency;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestIntRangeWeightedTask {
+	/**
+	 * The cost of each iteration goes down linearly, like the columns in a triangular matrix. Every block should
+	 * have about the same cost even though they have a different number of iterations.
+	 */
+	@Test
+	void triangular() {
+		int N = 1000;
+		double[] cumulative = new double[N + 1];
+		for (int i = 0; i < N; i++) {
+			cumulative[i + 1] = cumulative[i] + (N - i);
+		}
+		double total = cumulative[N];
+
+		for (int leaves : new int[]{1, 2, 3, 8, 16}) {
+			List<int[]> blocks = Collections.synchronizedList(new ArrayList<>());
+			new ForkJoinPool(3).invoke(new IntRangeWeightedTask(cumulative, 0, N, leaves, 0,
+					( i0, i1 ) -> blocks.add(new int[]{i0, i1})));
+
+			assertEquals(leaves, blocks.size());
+			blocks.sort(( a, b ) -> Integer.compare(a[0], b[0]));
+			int expected = 0;
+			for (int[] b : blocks) {
+				assertEquals(expected, b[0]);
+				expected = b[1];
+				// no block should be much more expensive than its share
+				double cost = cumulative[b[1]] - cumulative[b[0]];
+				assertEquals(total/leaves, cost, total/leaves*0.05);
+			}
+			assertEquals(N, expected);
+		}
+	}
+
+	/**
+	 * Ranges which are cheaper than the grain are not split
+	 */
+	@Test
+	void grain() {
+		int N = 100;
+		double[] cumulative = new double[N + 1];
+		for (int i = 0; i < N; i++) {
+			cumulative[i + 1] = cumulative[i] + 1;
+		}
+
+		List<int[]> blocks = Collections.synchronizedList(new ArrayList<>());
+		new ForkJoinPool(3).invoke(new IntRangeWeightedTask(cumulative, 0, N, 64, 30,
+				( i0, i1 ) -> blocks.add(new int[]{i0, i1})));
+
+		assertTrue(blocks.size() > 1);
+		assertTrue(blocks.size() <= 8);
+		for (int[] b : blocks) {
+			assertTrue(b[1] - b[0] <= 30);
+		}
+	}
+
+	@Test
+	void findSplit() {
+		double[] cumulative = new double[]{0, 1, 2, 10, 11, 12};
+		var alg = new IntRangeWeightedTask(cumulative, 0, 5, 2, 0, ( i0, i1 ) -> {});
+		assertEquals(2, alg.findSplit(5.0));
+		assertEquals(3, alg.findSplit(7.0));
+		// the split can't create an empty range
+		assertEquals(1, alg.findSplit(-1.0));
+		assertEquals(4, alg.findSplit(100.0));
+	}
+}
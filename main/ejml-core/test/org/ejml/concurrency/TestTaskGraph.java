@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.concurrency;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestTaskGraph {
+	Random rand = new Random(234);
+
+	/**
+	 * Every task must run exactly once and after all of its dependencies
+	 */
+	@Test
+	void dependencies() {
+		var context = new ConcurrencyContext(new ForkJoinPool(4), 4, 0);
+		EjmlConcurrency.runWith(context, () -> {
+			for (int trial = 0; trial < 20; trial++) {
+				var graph = new TaskGraph();
+				final int N = 60;
+				var order = new AtomicInteger();
+				var finished = new AtomicIntegerArray(N);
+				var violations = new AtomicInteger();
+
+				for (int i = 0; i < N; i++) {
+					final int id = i;
+					// depend on a few random earlier tasks
+					int[] deps = new int[rand.nextInt(4)];
+					for (int j = 0; j < deps.length; j++) {
+						deps[j] = i == 0 ? -1 : rand.nextInt(i);
+					}
+					graph.add(i%5, () -> {
+						for (int d : deps) {
+							if (d >= 0 && finished.get(d) == 0)
+								violations.incrementAndGet();
+						}
+						finished.set(id, order.incrementAndGet());
+					}, deps);
+				}
+				graph.execute();
+
+				assertEquals(0, violations.get());
+				assertEquals(N, order.get());
+				for (int i = 0; i < N; i++) {
+					assertTrue(finished.get(i) > 0);
+				}
+			}
+		});
+	}
+
+	/**
+	 * With a single thread tasks are run in the order they were added
+	 */
+	@Test
+	void singleThread() {
+		List<Integer> order = new ArrayList<>();
+		EjmlConcurrency.runWith(new ConcurrencyContext(1), () -> {
+			var graph = new TaskGraph();
+			for (int i = 0; i < 10; i++) {
+				final int id = i;
+				graph.add(10 - i, () -> order.add(id), i - 1);
+			}
+			graph.execute();
+		});
+		assertEquals(10, order.size());
+		for (int i = 0; i < 10; i++) {
+			assertEquals(i, (int)order.get(i));
+		}
+	}
+
+	/**
+	 * Ready tasks with the lowest priority value are started first
+	 */
+	@Test
+	void priority() {
+		var context = new ConcurrencyContext(new ForkJoinPool(2), 2, 0);
+		List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+		EjmlConcurrency.runWith(context, () -> {
+			var graph = new TaskGraph();
+			int root = graph.add(() -> order.add(-1));
+			graph.add(100, () -> order.add(100), root);
+			for (int i = 0; i < 5; i++) {
+				final int id = i;
+				graph.add(5 - i, () -> order.add(id), root);
+			}
+			graph.execute();
+		});
+		assertEquals(7, order.size());
+		assertEquals(-1, (int)order.get(0));
+		// two tasks can run at once so the two lowest values are started first
+		assertTrue(order.get(1) == 4 || order.get(1) == 3);
+		// the highest value is only started once all the others have been started. The last one to be started
+		// might not have reached its first line yet
+		assertTrue(order.indexOf(100) >= 5);
+	}
+
+	@Test
+	void invalidDependency() {
+		var graph = new TaskGraph();
+		int a = graph.add(() -> {});
+		assertThrows(IllegalArgumentException.class, () -> graph.add(() -> {}, a + 1));
+		assertThrows(IllegalArgumentException.class, () -> graph.add(() -> {}, a, 5));
+		// negative values are ignored
+		assertEquals(1, graph.add(() -> {}, -1, a));
+		assertEquals(2, graph.size());
+		graph.reset();
+		assertEquals(0, graph.size());
+	}
+
+	/**
+	 * An exception thrown by a task should be thrown by execute()
+	 */
+	@Test
+	void exception() {
+		var context = new ConcurrencyContext(new ForkJoinPool(3), 3, 0);
+		EjmlConcurrency.runWith(context, () -> {
+			var graph = new TaskGraph();
+			int a = graph.add(() -> {});
+			int b = graph.add(() -> {throw new IllegalStateException("failed");}, a);
+			graph.add(() -> {}, b);
+			assertThrows(IllegalStateException.class, graph::execute);
+		});
+	}
+
+	/**
+	 * Tasks should see the context of the thread which called execute()
+	 */
+	@Test
+	void context() {
+		var context = new ConcurrencyContext(new ForkJoinPool(3), 3, 0);
+		List<ConcurrencyContext> found = Collections.synchronizedList(new ArrayList<>());
+		EjmlConcurrency.runWith(context, () -> {
+			var graph = new TaskGraph();
+			for (int i = 0; i < 6; i++) {
+				graph.add(() -> found.add(EjmlConcurrency.getContext()));
+			}
+			graph.execute();
+		});
+		assertEquals(6, found.size());
+		for (ConcurrencyContext c : found) {
+			assertSame(context, c);
+		}
+	}
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.data;
+
+import org.ejml.MatrixDimensionException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestDMatrixBatch {
+    @Test
+    public void set_get() {
+        DMatrixBatch batch = new DMatrixBatch(2, 3, 4);
+        assertEquals(24, batch.getDataLength());
+
+        batch.set(1, 1, 2, 5.0);
+        batch.set(3, 0, 1, 6.0);
+        assertEquals(5.0, batch.get(1, 1, 2));
+        assertEquals(6.0, batch.get(3, 0, 1));
+        assertEquals(0.0, batch.get(0, 1, 2));
+
+        // structure of arrays layout
+        assertEquals(5.0, batch.data[(3 + 2)*4 + 1]);
+        assertEquals(6.0, batch.data[4 + 3]);
+
+        assertThrows(IllegalArgumentException.class, () -> batch.get(4, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> batch.set(0, 2, 0, 1));
+    }
+
+    @Test
+    public void setTo_copyTo() {
+        DMatrixBatch batch = new DMatrixBatch(3, 3, 5);
+        DMatrix3x3 m = new DMatrix3x3(1, 2, 3, 4, 5, 6, 7, 8, 9);
+        batch.setTo(2, m);
+
+        DMatrix3x3 found = new DMatrix3x3();
+        batch.copyTo(2, found);
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 3; j++) {
+                assertEquals(m.get(i, j), found.get(i, j));
+                assertEquals(m.get(i, j), batch.get(2, i, j));
+            }
+        }
+
+        batch.copyTo(1, found);
+        assertEquals(0.0, found.a23);
+
+        assertThrows(MatrixDimensionException.class, () -> batch.setTo(0, new DMatrix2x2()));
+        assertThrows(MatrixDimensionException.class, () -> batch.copyTo(0, new DMatrix3()));
+    }
+
+    @Test
+    public void reshape() {
+        DMatrixBatch batch = new DMatrixBatch(2, 2, 10);
+        double[] data = batch.data;
+
+        // shrinking shouldn't declare a new array
+        batch.reshape(3);
+        assertSame(data, batch.data);
+        assertEquals(3, batch.count);
+        assertTrue(batch.isShape(2, 2));
+
+        batch.reshape(3, 1, 20);
+        assertEquals(60, batch.data.length);
+        assertTrue(batch.isShape(3, 1));
+        assertFalse(batch.isShape(2, 2));
+    }
+
+    @Test
+    public void copy() {
+        DMatrixBatch batch = new DMatrixBatch(2, 2, 3);
+        batch.set(2, 1, 1, 3.0);
+        batch.zero();
+        batch.set(1, 0, 1, 2.0);
+
+        DMatrixBatch found = batch.copy();
+        assertNotSame(batch.data, found.data);
+        assertTrue(found.isShape(2, 2));
+        assertEquals(3, found.count);
+        assertEquals(2.0, found.get(1, 0, 1));
+        assertEquals(0.0, found.get(2, 1, 1));
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.data;
+
+import org.ejml.ops.ConvertDMatrixStruct;
+import org.ejml.sparse.csc.RandomMatrices_DSCC;
+import org.ejml.sparse.csr.CommonOps_DSCR;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestDMatrixSparseCSR extends GenericTestsDMatrixSparse {
+
+    @Override
+    public DMatrixSparse createSparse( int numRows, int numCols ) {
+        return new DMatrixSparseCSR(numRows, numCols, 10);
+    }
+
+    @Override
+    public DMatrixSparse createSparse( DMatrixSparseTriplet orig ) {
+        return ConvertDMatrixStruct.convert(orig, (DMatrixSparseCSR)null);
+    }
+
+    @Override
+    public boolean isStructureValid( DMatrixSparse m ) {
+        return CommonOps_DSCR.checkStructure((DMatrixSparseCSR)m);
+    }
+
+    @Test
+    void reshape_row_col_length() {
+        DMatrixSparseCSR a = new DMatrixSparseCSR(2, 3, 4);
+
+        a.reshape(1, 2, 3);
+        assertTrue(CommonOps_DSCR.checkStructure(a));
+        assertEquals(1, a.numRows);
+        assertEquals(2, a.numCols);
+        assertEquals(4, a.nz_values.length);
+        assertEquals(0, a.nz_length);
+
+        a.reshape(4, 1, 10);
+        assertTrue(CommonOps_DSCR.checkStructure(a));
+        assertEquals(4, a.numRows);
+        assertEquals(1, a.numCols);
+        assertEquals(10, a.nz_values.length);
+        assertEquals(0, a.nz_length);
+    }
+
+    @Test
+    void sortIndices() {
+        DMatrixSparseCSC csc = RandomMatrices_DSCC.rectangle(5, 4, 20, -1, 1, rand);
+        DMatrixSparseCSR a = ConvertDMatrixStruct.convert(csc, (DMatrixSparseCSR)null);
+
+        // make sure it's not sorted correctly
+        a.nz_cols[0] = 2;
+        a.nz_cols[2] = 0;
+        assertFalse(CommonOps_DSCR.checkIndicesSorted(a));
+        a.indicesSorted = false;
+
+        // now sort it and see if its fixed
+        a.sortIndices(null);
+
+        assertTrue(CommonOps_DSCR.checkIndicesSorted(a));
+        assertTrue(a.indicesSorted);
+    }
+
+    /**
+     * The matrix is already sorted.  See if it is still sorted after set has been called.
+     */
+    @Test
+    void set_sorted() {
+        DMatrixSparseCSR a = new DMatrixSparseCSR(5, 4, 0);
+        a.indicesSorted = true;
+
+        a.set(2, 1, 1);
+        a.set(2, 0, 1);
+        a.set(2, 3, 1);
+        a.set(2, 2, 1);
+        assertTrue(a.indicesSorted);
+        assertTrue(CommonOps_DSCR.checkStructure(a));
+        assertEquals(4, a.nz_length);
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.data;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestDVectorSparse {
+    @Test
+    public void set_get() {
+        DVectorSparse v = new DVectorSparse(10, 0);
+        v.set(5, 1.5);
+        v.set(1, 2.0);
+        v.set(8, 3.0);
+        v.set(5, 4.0);
+
+        assertEquals(3, v.getNonZeroLength());
+        assertTrue(v.checkStructure());
+        assertEquals(2.0, v.get(1));
+        assertEquals(4.0, v.get(5));
+        assertEquals(3.0, v.get(8));
+        assertEquals(0.0, v.get(0));
+        assertTrue(v.isAssigned(8));
+        assertFalse(v.isAssigned(9));
+
+        assertThrows(IllegalArgumentException.class, () -> v.set(10, 1));
+        assertThrows(IllegalArgumentException.class, () -> v.get(-1));
+    }
+
+    @Test
+    public void append() {
+        DVectorSparse v = new DVectorSparse(10);
+        for (int i = 0; i < 10; i += 2) {
+            v.append(i, i + 0.5);
+        }
+        assertEquals(5, v.nz_length);
+        assertTrue(v.checkStructure());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i%2 == 0 ? i + 0.5 : 0.0, v.get(i));
+        }
+    }
+
+    @Test
+    public void remove() {
+        DVectorSparse v = new DVectorSparse(6, 2);
+        v.set(1, 1);
+        v.set(3, 3);
+        v.set(5, 5);
+        v.remove(3);
+        v.remove(2);
+
+        assertEquals(2, v.nz_length);
+        assertTrue(v.checkStructure());
+        assertEquals(1.0, v.get(1));
+        assertEquals(5.0, v.get(5));
+        assertFalse(v.isAssigned(3));
+    }
+
+    @Test
+    public void copy_setTo() {
+        DVectorSparse v = new DVectorSparse(7, 0);
+        v.set(2, 1);
+        v.set(6, 2);
+
+        DVectorSparse c = v.copy();
+        assertEquals(7, c.size);
+        assertEquals(2, c.nz_length);
+        assertEquals(2.0, c.get(6));
+
+        // modifying the copy shouldn't change the original
+        c.set(0, 5);
+        assertFalse(v.isAssigned(0));
+
+        DVectorSparse d = new DVectorSparse(2, 0);
+        d.setTo(c);
+        assertEquals(7, d.size);
+        assertEquals(3, d.nz_length);
+        assertEquals(5.0, d.get(0));
+    }
+
+    @Test
+    public void reshape_zero() {
+        DVectorSparse v = new DVectorSparse(4, 0);
+        v.set(2, 1);
+        v.zero();
+        assertEquals(0, v.nz_length);
+        assertEquals(4, v.size);
+
+        v.set(3, 1);
+        v.reshape(20);
+        assertEquals(0, v.nz_length);
+        assertEquals(20, v.size);
+    }
+
+    @Test
+    public void growMaxLength() {
+        DVectorSparse v = new DVectorSparse(10, 2);
+        v.set(3, 2);
+        v.growMaxLength(8, true);
+        assertEquals(8, v.nz_values.length);
+        assertEquals(8, v.nz_indices.length);
+        assertEquals(2.0, v.get(3));
+
+        v.growMaxLength(20, false);
+        assertEquals(20, v.nz_values.length);
+
+        assertThrows(IllegalArgumentException.class, () -> v.growMaxLength(-1, false));
+    }
+}
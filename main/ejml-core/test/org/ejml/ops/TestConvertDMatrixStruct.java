@@ -27,6 +27,7 @@ import org.ejml.dense.row.RandomMatrices_DDRM;
 import org.ejml.sparse.csc.CommonOps_DSCC;
 import org.ejml.sparse.csc.MatrixFeatures_DSCC;
 import org.ejml.sparse.csc.RandomMatrices_DSCC;
+import org.ejml.sparse.csr.CommonOps_DSCR;
 import org.ejml.sparse.triplet.MatrixFeatures_DSTL;
 import org.ejml.sparse.triplet.RandomMatrices_DSTL;
 import org.jetbrains.annotations.Nullable;
@@ -346,4 +347,102 @@ public class TestConvertDMatrixStruct {
         assertTrue(MatrixFeatures_DSTL.isEquals(a,c, UtilEjml.TEST_F64));
     }
 
+    @Test
+    public void SparseCSC_SparseCSR() {
+        DMatrixSparseCSC a = RandomMatrices_DSCC.rectangle(5,6,12,-1,1,rand);
+
+        SparseCSC_SparseCSR(a,null);
+        SparseCSC_SparseCSR(a,new DMatrixSparseCSR(1,1,2));
+    }
+
+    public void SparseCSC_SparseCSR(DMatrixSparseCSC a , @Nullable DMatrixSparseCSR b ) {
+        b = ConvertDMatrixStruct.convert(a,b);
+
+        assertEquals(a.numRows, b.numRows);
+        assertEquals(a.numCols, b.numCols);
+        assertEquals(a.nz_length, b.nz_length);
+        assertTrue(CommonOps_DSCR.checkStructure(b));
+        assertTrue(b.indicesSorted);
+        EjmlUnitTests.assertEquals(a, b);
+
+        // now try it the other direction
+        DMatrixSparseCSC c = ConvertDMatrixStruct.convert(b,(DMatrixSparseCSC)null);
+        assertTrue(CommonOps_DSCC.checkStructure(c));
+        assertTrue(c.indicesSorted);
+        assertTrue(MatrixFeatures_DSCC.isEqualsSort(a,c, UtilEjml.TEST_F64));
+
+        c = ConvertDMatrixStruct.convert(b,new DMatrixSparseCSC(1,1,1));
+        assertTrue(MatrixFeatures_DSCC.isEqualsSort(a,c, UtilEjml.TEST_F64));
+    }
+
+    @Test
+    public void DMatrixRow_SparseCSR() {
+        DMatrixRMaj a = RandomMatrices_DDRM.rectangle(5,6,-1,1,rand);
+
+        a.set(4,3, 0);
+        a.set(1,3, 0);
+        a.set(2,3, 0);
+        a.set(2,0, 0);
+
+        DMatrixRow_SparseCSR(a,null);
+        DMatrixRow_SparseCSR(a, new DMatrixSparseCSR(1,1,2));
+    }
+
+    public void DMatrixRow_SparseCSR(DMatrixRMaj a , @Nullable DMatrixSparseCSR b ) {
+        b = ConvertDMatrixStruct.convert(a,b, UtilEjml.EPS);
+
+        assertEquals(a.numRows, b.numRows);
+        assertEquals(a.numCols, b.numCols);
+        assertEquals(5*6-4, b.nz_length);
+        assertTrue(CommonOps_DSCR.checkStructure(b));
+        for (int row = 0; row < a.numRows; row++) {
+            for (int col = 0; col < a.numCols; col++) {
+                int index = b.nz_index(row,col);
+
+                if( a.get(row,col) == 0.0 ) {
+                    assertTrue(index < 0);
+                } else {
+                    assertEquals( a.get(row,col), b.nz_values[index], UtilEjml.TEST_F64);
+                }
+            }
+        }
+
+        // now try it the other direction
+        DMatrixRMaj c = ConvertDMatrixStruct.convert(b,(DMatrixRMaj)null);
+        assertTrue(MatrixFeatures_DDRM.isEquals(a,c, UtilEjml.TEST_F64));
+
+        c = ConvertDMatrixStruct.convert(b,new DMatrixRMaj(1,1));
+        assertTrue(MatrixFeatures_DDRM.isEquals(a,c, UtilEjml.TEST_F64));
+    }
+
+    @Test
+    public void SMatrixTriplet_SparseCSR() {
+        DMatrixSparseTriplet a = RandomMatrices_DSTL.uniform(5,6,10,-1,1,rand);
+
+        SMatrixTriplet_SparseCSR(a,(DMatrixSparseCSR)null);
+        SMatrixTriplet_SparseCSR(a,new DMatrixSparseCSR(1,1,2));
+    }
+
+    public void SMatrixTriplet_SparseCSR(DMatrixSparseTriplet a , @Nullable DMatrixSparseCSR b ) {
+        b = ConvertDMatrixStruct.convert(a,b);
+
+        assertEquals(a.numRows, b.numRows);
+        assertEquals(a.numCols, b.numCols);
+        assertEquals(a.nz_length, b.nz_length);
+        for (int i = 0; i < a.nz_length; i++) {
+            int row = a.nz_rowcol.data[i*2];
+            int col = a.nz_rowcol.data[i*2+1];
+            double value = a.nz_value.data[i];
+
+            assertEquals(value, b.get(row, col), UtilEjml.TEST_F64);
+        }
+        assertTrue(CommonOps_DSCR.checkStructure(b));
+
+        // now try it the other direction
+        DMatrixSparseTriplet c = ConvertDMatrixStruct.convert(b,(DMatrixSparseTriplet)null);
+        assertTrue(MatrixFeatures_DSTL.isEquals(a,c, UtilEjml.TEST_F64));
+
+        c = ConvertDMatrixStruct.convert(b,new DMatrixSparseTriplet(1,1,1));
+        assertTrue(MatrixFeatures_DSTL.isEquals(a,c, UtilEjml.TEST_F64));
+    }
 }
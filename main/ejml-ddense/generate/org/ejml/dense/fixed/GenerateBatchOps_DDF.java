@@ -0,0 +1,534 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.dense.fixed;
+
+import org.ejml.UtilEjml;
+import org.ejml.dense.row.misc.GenerateDeterminantFromMinor;
+import org.ejml.dense.row.misc.GenerateUnrolledInverseFromMinor_DDRM;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+
+/**
+ * Automatic code generator for BatchOps_DDF and BatchOps_MT_DDF. The matrix in each batch is stored using
+ * a structure of arrays layout. See DMatrixBatch.
+ *
+ * @author Peter Abeles
+ */
+public class GenerateBatchOps_DDF extends GenerateFixed {
+
+    public GenerateBatchOps_DDF() {
+        super("BatchOps_DDF");
+    }
+
+    @Override
+    public void generate() throws FileNotFoundException {
+        for (int dimension = 2; dimension <= 6; dimension++) {
+            printPreable(dimension);
+
+            mult(dimension);
+            mult_range(dimension);
+            if (dimension <= UtilEjml.maxInverseSize) {
+                invert(dimension);
+                invert_range(dimension);
+                det(dimension);
+                det_range(dimension);
+                solve(dimension);
+                solve_range(dimension);
+            }
+            cholL(dimension);
+            cholL_range(dimension);
+
+            out.println("}\n");
+
+            printPreableConcurrent(dimension);
+            mult_concurrent(dimension);
+            if (dimension <= UtilEjml.maxInverseSize) {
+                invert_concurrent(dimension);
+                det_concurrent(dimension);
+                solve_concurrent(dimension);
+            }
+            cholL_concurrent(dimension);
+
+            out.println("}\n");
+        }
+    }
+
+    public void printPreable( int dimen ) throws FileNotFoundException {
+        setOutputFile(classPreamble + dimen);
+
+        out.print(
+                "import org.ejml.UtilEjml;\n" +
+                        "import org.ejml.data.DMatrixBatch;\n" +
+                        "import org.jetbrains.annotations.Nullable;\n" +
+                        "\n" +
+                        "/**\n" +
+                        " * <p>Operations on a batch of " + dimen + " x " + dimen + " matrices or " + dimen + " element vectors. Every matrix\n" +
+                        " * in the batch is processed with the same unrolled code as " + "CommonOps_DDF" + dimen + ".</p>\n" +
+                        " *\n" +
+                        " * <p>Each operation has a variant which only processes the matrices from idx0 to idx1-1. These variants\n" +
+                        " * don't check their inputs and are intended for splitting a batch up between threads.</p>\n" +
+                        standardClassDocClosing("Peter Abeles") +
+                        "public class " + className + " {\n");
+    }
+
+    public void printPreableConcurrent( int dimen ) throws FileNotFoundException {
+        setOutputFile("BatchOps_MT_DDF" + dimen);
+
+        out.print(
+                "import org.ejml.EjmlParameters;\n" +
+                        "import org.ejml.UtilEjml;\n" +
+                        "import org.ejml.concurrency.EjmlConcurrency;\n" +
+                        "import org.ejml.data.DMatrixBatch;\n" +
+                        "import org.jetbrains.annotations.Nullable;\n" +
+                        "\n" +
+                        "import java.util.concurrent.atomic.AtomicBoolean;\n" +
+                        "\n" +
+                        "/**\n" +
+                        " * <p>Concurrent implementation of {@link " + classPreamble + dimen + "}. The batch is split into blocks of\n" +
+                        " * at least {@link EjmlParameters#BATCH_MT_MIN_BLOCK} matrices which are processed by different threads.</p>\n" +
+                        standardClassDocClosing("Peter Abeles") +
+                        "public class " + className + " {\n");
+    }
+
+    private void mult( int dimen ) {
+        out.print("    /**\n" +
+                "     * <p>Performs the following operation on every matrix in the batch:<br>\n" +
+                "     * <br>\n" +
+                "     * c = a * b <br>\n" +
+                "     * </p>\n" +
+                "     *\n" +
+                "     * <p>\n" +
+                "     * C can be the same instance as A and/or B.\n" +
+                "     * </p>\n" +
+                "     *\n" +
+                "     * @param a The left matrices in the multiplication operation. Not modified.\n" +
+                "     * @param b The right matrices in the multiplication operation. Not modified.\n" +
+                "     * @param c (Output) Where the results of the operation are stored. Modified.\n" +
+                "     */\n" +
+                "    public static void mult( DMatrixBatch a , DMatrixBatch b , DMatrixBatch c ) {\n");
+        printCheckMatrix("a", dimen);
+        printCheckMatrix("b", dimen);
+        printCheckCount("a", "b");
+        out.print("        c.reshape(" + dimen + ", " + dimen + ", a.count);\n" +
+                "        mult(a, b, c, 0, a.count);\n" +
+                "    }\n\n");
+    }
+
+    private void mult_range( int dimen ) {
+        out.print("    /**\n" +
+                "     * Same as {@link #mult(DMatrixBatch, DMatrixBatch, DMatrixBatch)} but only for matrices idx0 to idx1-1.\n" +
+                "     */\n" +
+                "    public static void mult( DMatrixBatch a , DMatrixBatch b , DMatrixBatch c , int idx0 , int idx1 ) {\n" +
+                "        final int n = a.count;\n" +
+                "        final double[] A = a.data, B = b.data, C = c.data;\n" +
+                "        for (int k = idx0; k < idx1; k++) {\n");
+        printLoadMatrix("a", "A", dimen);
+        printLoadMatrix("b", "B", dimen);
+        for (int y = 1; y <= dimen; y++) {
+            for (int x = 1; x <= dimen; x++) {
+                out.print("            C[" + idx(y, x, dimen) + "] = ");
+                for (int k = 1; k <= dimen; k++) {
+                    out.print("a" + y + "" + k + "*b" + k + "" + x);
+                    if (k < dimen)
+                        out.print(" + ");
+                    else
+                        out.print(";\n");
+                }
+            }
+        }
+        out.print("        }\n" +
+                "    }\n\n");
+    }
+
+    private void invert( int dimen ) {
+        out.print("    /**\n" +
+                "     * Inverts every matrix in 'a' using minor matrices and stores the results in 'inv'. Scaling is applied to\n" +
+                "     * improve stability against overflow and underflow.\n" +
+                "     *\n" +
+                "     * WARNING: Potentially less stable than using LU decomposition.\n" +
+                "     *\n" +
+                "     * @param a Input matrices. Not modified.\n" +
+                "     * @param inv (Output) Inverted matrices. Can be the same instance as 'a'. Modified.\n" +
+                "     * @return true if every matrix was inverted or false if at least one failed. Not always reliable.\n" +
+                "     */\n" +
+                "    public static boolean invert( DMatrixBatch a , DMatrixBatch inv ) {\n");
+        printCheckMatrix("a", dimen);
+        out.print("        inv.reshape(" + dimen + ", " + dimen + ", a.count);\n" +
+                "        return invert(a, inv, 0, a.count);\n" +
+                "    }\n\n");
+    }
+
+    private void invert_range( int dimen ) {
+        out.print("    /**\n" +
+                "     * Same as {@link #invert(DMatrixBatch, DMatrixBatch)} but only for matrices idx0 to idx1-1.\n" +
+                "     */\n" +
+                "    public static boolean invert( DMatrixBatch a , DMatrixBatch inv , int idx0 , int idx1 ) {\n" +
+                "        final int n = a.count;\n" +
+                "        final double[] A = a.data, INV = inv.data;\n" +
+                "        boolean success = true;\n" +
+                "        for (int k = idx0; k < idx1; k++) {\n");
+        printLoadMatrix("a", "A", dimen);
+        printScale(dimen);
+        printMinors(dimen);
+        out.print("            double invDet = 1.0/det;\n");
+        for (int y = 1; y <= dimen; y++) {
+            for (int x = 1; x <= dimen; x++) {
+                out.print("            INV[" + idx(y, x, dimen) + "] = m" + x + "" + y + "*invDet;\n");
+            }
+        }
+        out.print("\n" +
+                "            if (Double.isNaN(det) || Double.isInfinite(det))\n" +
+                "                success = false;\n" +
+                "        }\n" +
+                "        return success;\n" +
+                "    }\n\n");
+    }
+
+    private void det( int dimen ) {
+        out.print("    /**\n" +
+                "     * Computes the determinant of every matrix using minor matrices.<br>\n" +
+                "     * WARNING: Potentially less stable than using LU decomposition.\n" +
+                "     *\n" +
+                "     * @param a Input matrices. Not modified.\n" +
+                "     * @param output (Optional) Storage for the determinants. If null or too small a new array is declared.\n" +
+                "     * @return The determinant of each matrix.\n" +
+                "     */\n" +
+                "    public static double[] det( DMatrixBatch a , @Nullable double[] output ) {\n");
+        printCheckMatrix("a", dimen);
+        out.print("        if (output == null || output.length < a.count)\n" +
+                "            output = new double[a.count];\n" +
+                "        det(a, output, 0, a.count);\n" +
+                "        return output;\n" +
+                "    }\n\n");
+    }
+
+    private void det_range( int dimen ) {
+        out.print("    /**\n" +
+                "     * Same as {@link #det(DMatrixBatch, double[])} but only for matrices idx0 to idx1-1.\n" +
+                "     */\n" +
+                "    public static void det( DMatrixBatch a , double[] output , int idx0 , int idx1 ) {\n" +
+                "        final int n = a.count;\n" +
+                "        final double[] A = a.data;\n" +
+                "        for (int k = idx0; k < idx1; k++) {\n");
+        if (dimen == 2) {
+            out.print("            output[k] = A[k]*A[k + 3*n] - A[k + n]*A[k + 2*n];\n");
+        } else if (dimen == 3) {
+            printLoadMatrix("a", "A", dimen);
+            out.print("            output[k] = a11*(a22*a33 - a23*a32) - a12*(a21*a33 - a23*a31) + a13*(a21*a32 - a31*a22);\n");
+        } else {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            GenerateDeterminantFromMinor helper = new GenerateDeterminantFromMinor(new PrintStream(bytes)) {
+                @Override
+                protected String getInputValue( int element ) {
+                    int row = element/(N + 1) + 1;
+                    int col = element%(N + 1) + 1;
+                    return "A[" + idx(row, col, N + 1) + "]";
+                }
+            };
+            helper.printFunctionInner(dimen);
+            printIndented(bytes);
+            out.print("\n            output[k] = ret;\n");
+        }
+        out.print("        }\n" +
+                "    }\n\n");
+    }
+
+    private void solve( int dimen ) {
+        out.print("    /**\n" +
+                "     * Solves the linear system a*x = b for every matrix in the batch using minor matrices. Scaling is applied\n" +
+                "     * to improve stability against overflow and underflow.\n" +
+                "     *\n" +
+                "     * WARNING: Potentially less stable than using LU decomposition.\n" +
+                "     *\n" +
+                "     * @param a Square matrices. Not modified.\n" +
+                "     * @param b Batch of " + dimen + " element column vectors. Not modified.\n" +
+                "     * @param x (Output) Solution. Can be the same instance as 'b'. Modified.\n" +
+                "     * @return true if every system was solved or false if at least one failed. Not always reliable.\n" +
+                "     */\n" +
+                "    public static boolean solve( DMatrixBatch a , DMatrixBatch b , DMatrixBatch x ) {\n");
+        printCheckMatrix("a", dimen);
+        printCheckVector("b", dimen);
+        printCheckCount("a", "b");
+        out.print("        x.reshape(" + dimen + ", 1, a.count);\n" +
+                "        return solve(a, b, x, 0, a.count);\n" +
+                "    }\n\n");
+    }
+
+    private void solve_range( int dimen ) {
+        out.print("    /**\n" +
+                "     * Same as {@link #solve(DMatrixBatch, DMatrixBatch, DMatrixBatch)} but only for matrices idx0 to idx1-1.\n" +
+                "     */\n" +
+                "    public static boolean solve( DMatrixBatch a , DMatrixBatch b , DMatrixBatch x , int idx0 , int idx1 ) {\n" +
+                "        final int n = a.count;\n" +
+                "        final double[] A = a.data, B = b.data, X = x.data;\n" +
+                "        boolean success = true;\n" +
+                "        for (int k = idx0; k < idx1; k++) {\n");
+        printLoadMatrix("a", "A", dimen);
+        printScale(dimen);
+        printMinors(dimen);
+        out.print("            double invDet = 1.0/det;\n");
+        out.print("            double ");
+        for (int i = 1; i <= dimen; i++) {
+            out.print("b" + i + " = B[" + idx(i, 1, 1) + "]");
+            out.print(i < dimen ? ", " : ";\n");
+        }
+        for (int y = 1; y <= dimen; y++) {
+            out.print("            X[" + idx(y, 1, 1) + "] = (");
+            for (int x = 1; x <= dimen; x++) {
+                out.print("m" + x + "" + y + "*b" + x);
+                if (x < dimen)
+                    out.print(" + ");
+            }
+            out.print(")*invDet;\n");
+        }
+        out.print("\n" +
+                "            if (Double.isNaN(det) || Double.isInfinite(det))\n" +
+                "                success = false;\n" +
+                "        }\n" +
+                "        return success;\n" +
+                "    }\n\n");
+    }
+
+    private void cholL( int dimen ) {
+        out.print("    /**\n" +
+                "     * Performs a lower Cholesky decomposition of every matrix in 'A' and stores the results in A.\n" +
+                "     *\n" +
+                "     * @param A (Input) SPD matrices. (Output) lower cholesky.\n" +
+                "     * @return true if every decomposition was successful or false if at least one failed. Not always reliable.\n" +
+                "     */\n" +
+                "    public static boolean cholL( DMatrixBatch A ) {\n");
+        printCheckMatrix("A", dimen);
+        out.print("        return cholL(A, 0, A.count);\n" +
+                "    }\n\n");
+    }
+
+    private void cholL_range( int N ) {
+        out.print("    /**\n" +
+                "     * Same as {@link #cholL(DMatrixBatch)} but only for matrices idx0 to idx1-1.\n" +
+                "     */\n" +
+                "    public static boolean cholL( DMatrixBatch A , int idx0 , int idx1 ) {\n" +
+                "        final int n = A.count;\n" +
+                "        final double[] D = A.data;\n" +
+                "        boolean success = true;\n" +
+                "        for (int k = idx0; k < idx1; k++) {\n");
+        printLoadMatrix("a", "D", N);
+        for (int i = 1; i <= N; i++) {
+            for (int j = 1; j <= i; j++) {
+                if (i == j) {
+                    out.print("            a" + i + i + " = Math.sqrt(a" + i + i);
+                    for (int k = 1; k < j; k++) {
+                        out.print(" - a" + i + k + "*a" + i + k);
+                    }
+                    out.println(");");
+                } else {
+                    out.print("            a" + i + j + " = (a" + i + j);
+                    for (int k = 1; k < j; k++) {
+                        out.print(" - a" + i + k + "*a" + j + k);
+                    }
+                    out.println(")/a" + j + j + ";");
+                }
+            }
+        }
+        for (int i = 1; i <= N; i++) {
+            out.print("            ");
+            for (int j = 1; j <= N; j++) {
+                out.print("D[" + idx(i, j, N) + "] = " + (j > i ? "0" : "a" + i + j) + ";");
+                out.print(j < N ? " " : "\n");
+            }
+        }
+        out.print("\n" +
+                "            if (UtilEjml.isUncountable(a" + N + N + "))\n" +
+                "                success = false;\n" +
+                "        }\n" +
+                "        return success;\n" +
+                "    }\n\n");
+    }
+
+    private void mult_concurrent( int dimen ) {
+        out.print("    /**\n" +
+                "     * @see " + classPreamble + dimen + "#mult(DMatrixBatch, DMatrixBatch, DMatrixBatch)\n" +
+                "     */\n" +
+                "    public static void mult( DMatrixBatch a , DMatrixBatch b , DMatrixBatch c ) {\n");
+        printCheckMatrix("a", dimen);
+        printCheckMatrix("b", dimen);
+        printCheckCount("a", "b");
+        out.print("        c.reshape(" + dimen + ", " + dimen + ", a.count);\n" +
+                "        EjmlConcurrency.loopBlocks(0, a.count, EjmlParameters.BATCH_MT_MIN_BLOCK, ( idx0, idx1 ) ->\n" +
+                "                " + classPreamble + dimen + ".mult(a, b, c, idx0, idx1));\n" +
+                "    }\n\n");
+    }
+
+    private void invert_concurrent( int dimen ) {
+        out.print("    /**\n" +
+                "     * @see " + classPreamble + dimen + "#invert(DMatrixBatch, DMatrixBatch)\n" +
+                "     */\n" +
+                "    public static boolean invert( DMatrixBatch a , DMatrixBatch inv ) {\n");
+        printCheckMatrix("a", dimen);
+        out.print("        inv.reshape(" + dimen + ", " + dimen + ", a.count);\n" +
+                "        final AtomicBoolean success = new AtomicBoolean(true);\n" +
+                "        EjmlConcurrency.loopBlocks(0, a.count, EjmlParameters.BATCH_MT_MIN_BLOCK, ( idx0, idx1 ) -> {\n" +
+                "            if (!" + classPreamble + dimen + ".invert(a, inv, idx0, idx1))\n" +
+                "                success.set(false);\n" +
+                "        });\n" +
+                "        return success.get();\n" +
+                "    }\n\n");
+    }
+
+    private void det_concurrent( int dimen ) {
+        out.print("    /**\n" +
+                "     * @see " + classPreamble + dimen + "#det(DMatrixBatch, double[])\n" +
+                "     */\n" +
+                "    public static double[] det( DMatrixBatch a , @Nullable double[] output ) {\n");
+        printCheckMatrix("a", dimen);
+        out.print("        final double[] results = output == null || output.length < a.count ? new double[a.count] : output;\n" +
+                "        EjmlConcurrency.loopBlocks(0, a.count, EjmlParameters.BATCH_MT_MIN_BLOCK, ( idx0, idx1 ) ->\n" +
+                "                " + classPreamble + dimen + ".det(a, results, idx0, idx1));\n" +
+                "        return results;\n" +
+                "    }\n\n");
+    }
+
+    private void solve_concurrent( int dimen ) {
+        out.print("    /**\n" +
+                "     * @see " + classPreamble + dimen + "#solve(DMatrixBatch, DMatrixBatch, DMatrixBatch)\n" +
+                "     */\n" +
+                "    public static boolean solve( DMatrixBatch a , DMatrixBatch b , DMatrixBatch x ) {\n");
+        printCheckMatrix("a", dimen);
+        printCheckVector("b", dimen);
+        printCheckCount("a", "b");
+        out.print("        x.reshape(" + dimen + ", 1, a.count);\n" +
+                "        final AtomicBoolean success = new AtomicBoolean(true);\n" +
+                "        EjmlConcurrency.loopBlocks(0, a.count, EjmlParameters.BATCH_MT_MIN_BLOCK, ( idx0, idx1 ) -> {\n" +
+                "            if (!" + classPreamble + dimen + ".solve(a, b, x, idx0, idx1))\n" +
+                "                success.set(false);\n" +
+                "        });\n" +
+                "        return success.get();\n" +
+                "    }\n\n");
+    }
+
+    private void cholL_concurrent( int dimen ) {
+        out.print("    /**\n" +
+                "     * @see " + classPreamble + dimen + "#cholL(DMatrixBatch)\n" +
+                "     */\n" +
+                "    public static boolean cholL( DMatrixBatch A ) {\n");
+        printCheckMatrix("A", dimen);
+        out.print("        final AtomicBoolean success = new AtomicBoolean(true);\n" +
+                "        EjmlConcurrency.loopBlocks(0, A.count, EjmlParameters.BATCH_MT_MIN_BLOCK, ( idx0, idx1 ) -> {\n" +
+                "            if (!" + classPreamble + dimen + ".cholL(A, idx0, idx1))\n" +
+                "                success.set(false);\n" +
+                "        });\n" +
+                "        return success.get();\n" +
+                "    }\n\n");
+    }
+
+    private void printCheckMatrix( String name, int dimen ) {
+        out.print("        UtilEjml.assertShape(" + name + ".isShape(" + dimen + ", " + dimen + "), " +
+                "\"Expected " + dimen + "x" + dimen + " matrices in '" + name + "'\");\n");
+    }
+
+    private void printCheckVector( String name, int dimen ) {
+        out.print("        UtilEjml.assertShape(" + name + ".isShape(" + dimen + ", 1), " +
+                "\"Expected " + dimen + " element column vectors in '" + name + "'\");\n");
+    }
+
+    private void printCheckCount( String nameA, String nameB ) {
+        out.print("        UtilEjml.assertShape(" + nameA + ".count, " + nameB + ".count, " +
+                "\"'" + nameA + "' and '" + nameB + "' must have the same number of matrices\");\n");
+    }
+
+    /**
+     * Copies every element in matrix k into local variables, one row per line
+     */
+    private void printLoadMatrix( String prefix, String array, int dimen ) {
+        for (int y = 1; y <= dimen; y++) {
+            out.print("            double ");
+            for (int x = 1; x <= dimen; x++) {
+                out.print(prefix + y + "" + x + " = " + array + "[" + idx(y, x, dimen) + "]");
+                out.print(x < dimen ? ", " : ";\n");
+            }
+        }
+        out.println();
+    }
+
+    /**
+     * Scales the local variables by the inverse of the largest absolute value
+     */
+    private void printScale( int dimen ) {
+        out.print("            double scale = Math.abs(a11);\n");
+        for (int y = 1; y <= dimen; y++) {
+            for (int x = 1; x <= dimen; x++) {
+                if (y == 1 && x == 1)
+                    continue;
+                out.print("            scale = Math.max(scale, Math.abs(a" + y + "" + x + "));\n");
+            }
+        }
+        out.print("            scale = 1.0/scale;\n");
+        for (int y = 1; y <= dimen; y++) {
+            out.print("            ");
+            for (int x = 1; x <= dimen; x++) {
+                out.print("a" + y + "" + x + " *= scale;");
+                out.print(x < dimen ? " " : "\n");
+            }
+        }
+        out.println();
+    }
+
+    private void printMinors( int dimen ) {
+        int[] matrix = new int[dimen*dimen];
+        for (int i = 0; i < matrix.length; i++) {
+            matrix[i] = i;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        GenerateUnrolledInverseFromMinor_DDRM.printMinors(matrix, dimen, new PrintStream(bytes));
+        printIndented(bytes);
+        out.println();
+    }
+
+    /**
+     * Prints code which was written for a method body so that it's inside of the loop
+     */
+    private void printIndented( ByteArrayOutputStream bytes ) {
+        for (String line : bytes.toString().split("\n")) {
+            if (line.trim().isEmpty())
+                out.println();
+            else
+                out.println("    " + line);
+        }
+    }
+
+    /**
+     * Location of element (row,col) in matrix k of the batch
+     */
+    private static String idx( int row, int col, int numCols ) {
+        int element = (row - 1)*numCols + col - 1;
+        if (element == 0)
+            return "k";
+        if (element == 1)
+            return "k + n";
+        return "k + " + element + "*n";
+    }
+
+    public static void main( String[] args ) throws FileNotFoundException {
+        GenerateBatchOps_DDF app = new GenerateBatchOps_DDF();
+
+        app.generate();
+    }
+}
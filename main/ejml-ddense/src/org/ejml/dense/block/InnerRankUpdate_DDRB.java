@@ -58,7 +58,7 @@ public class InnerRankUpdate_DDRB {
         if (A.row1 - A.row0 != N)
             throw new IllegalArgumentException("A does not have the expected number of rows based on B's width");
 
-        //CONCURRENT_BELOW EjmlConcurrency.loopFor(B.col0,B.col1,blockLength,i->{
+        //CONCURRENT_BELOW EjmlConcurrency.loopForWeighted(B.col0,B.col1,blockLength,i->2.0*heightB*Math.min(blockLength,B.col1-i)*N,i->{
         for (int i = B.col0; i < B.col1; i += blockLength) {
 
             int indexB_i = B.row0*B.original.numCols + i*heightB;
@@ -105,7 +105,8 @@ public class InnerRankUpdate_DDRB {
             throw new IllegalArgumentException("A does not have the expected number of rows based on B's width");
 
 
-        //CONCURRENT_BELOW EjmlConcurrency.loopFor(B.col0,B.col1,blockLength,i->{
+        // the number of blocks in a column shrinks with each column, so the work is split by cost
+        //CONCURRENT_BELOW EjmlConcurrency.loopForWeighted(B.col0,B.col1,blockLength,i->2.0*heightB*Math.min(blockLength,B.col1-i)*(B.col1-i),i->{
         for (int i = B.col0; i < B.col1; i += blockLength) {
 
             int indexB_i = B.row0*B.original.numCols + i*heightB;
@@ -155,7 +156,8 @@ public class InnerRankUpdate_DDRB {
         if (A.row1 - A.row0 != N)
             throw new IllegalArgumentException("A does not have the expected number of rows based on B's height");
 
-        //CONCURRENT_BELOW EjmlConcurrency.loopFor(B.row0,B.row1,blockLength,i->{
+        // the number of blocks in a row grows with each row, so the work is split by cost
+        //CONCURRENT_BELOW EjmlConcurrency.loopForWeighted(B.row0,B.row1,blockLength,i->2.0*widthB*Math.min(blockLength,B.row1-i)*(Math.min(i+blockLength,B.row1)-B.row0),i->{
         for (int i = B.row0; i < B.row1; i += blockLength) {
             int heightB_i = Math.min(blockLength, B.row1 - i);
             int indexB_i = i*B.original.numCols + heightB_i*B.col0;
@@ -190,9 +192,9 @@ public class InnerRankUpdate_DDRB {
      * c = c - a<sup>T</sup>a<br>
      * </p>
      */
-    protected static void multTransABlockMinus( double[] dataA, double[] dataC,
-                                                int indexA, int indexB, int indexC,
-                                                final int heightA, final int widthA, final int widthC ) {
+    public static void multTransABlockMinus( double[] dataA, double[] dataC,
+                                             int indexA, int indexB, int indexC,
+                                             final int heightA, final int widthA, final int widthC ) {
 //        for (int i = 0; i < widthA; i++) {
 //            for (int k = 0; k < heightA; k++) {
 //
@@ -233,9 +235,9 @@ public class InnerRankUpdate_DDRB {
      * c = c - a<sup>T</sup>a<br>
      * </p>
      */
-    protected static void multTransABlockMinus_U( double[] dataA, double[] dataC,
-                                                  int indexA, int indexB, int indexC,
-                                                  final int heightA, final int widthA, final int widthC ) {
+    public static void multTransABlockMinus_U( double[] dataA, double[] dataC,
+                                               int indexA, int indexB, int indexC,
+                                               final int heightA, final int widthA, final int widthC ) {
 //        for (int i = 0; i < widthA; i++) {
 //            for (int k = 0; k < heightA; k++) {
 //
@@ -270,9 +272,9 @@ public class InnerRankUpdate_DDRB {
      * c = c - a*a<sup>T</sup><br>
      * </p>
      */
-    protected static void multTransBBlockMinus( final double[] dataA, final double[] dataC,
-                                                final int indexA, final int indexB, final int indexC,
-                                                final int widthA, final int heightA, final int widthC ) {
+    public static void multTransBBlockMinus( final double[] dataA, final double[] dataC,
+                                             final int indexA, final int indexB, final int indexC,
+                                             final int widthA, final int heightA, final int widthC ) {
 //        for (int i = 0; i < heightA; i++) {
 //            for (int j = 0; j < widthC; j++) {
 //                double sum = 0;
@@ -312,9 +314,9 @@ public class InnerRankUpdate_DDRB {
      * c = c - a*a<sup>T</sup><br>
      * </p>
      */
-    protected static void multTransBBlockMinus_L( double[] dataA, double[] dataC,
-                                                  int indexA, int indexB, int indexC,
-                                                  final int widthA, final int heightA, final int widthC ) {
+    public static void multTransBBlockMinus_L( double[] dataA, double[] dataC,
+                                               int indexA, int indexB, int indexC,
+                                               final int widthA, final int heightA, final int widthC ) {
 //        for (int i = 0; i < heightA; i++) {
 //            for (int j = 0; j <= i; j++) {
 //                double sum = 0;
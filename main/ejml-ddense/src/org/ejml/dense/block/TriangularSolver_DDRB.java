@@ -89,7 +89,8 @@ public class TriangularSolver_DDRB {
 
             final int indexII = offsetT + T.original.numCols*(rowT + T.row0) + heightT*(rowT + T.col0);
 
-            //CONCURRENT_BELOW EjmlConcurrency.loopFor(0, rowT, blockLength, workspace, ( work, colT ) -> {
+            // blocks further from the diagonal are more expensive, so the work is split by cost
+            //CONCURRENT_BELOW EjmlConcurrency.loopForWeighted(0, rowT, blockLength, colT -> 2.0*heightT*blockLength*(_rowT - colT) + (double)heightT*heightT*blockLength, workspace, ( work, colT ) -> {
             for (int colT = 0; colT < rowT; colT += blockLength) {
                 //CONCURRENT_INLINE double[] temp = work.reshape(blockSize).data;
                 int widthX = Math.min(T.col1 - (colT + T.col0), blockLength);
@@ -245,7 +246,7 @@ public class TriangularSolver_DDRB {
                 if (transT) {
                     throw new IllegalArgumentException("Operation not yet supported");
                 } else {
-                    //CONCURRENT_BELOW EjmlConcurrency.loopFor(B.row0, B.row1, blockLength, i -> {
+                    //CONCURRENT_BELOW EjmlConcurrency.loopForWeighted(B.row0, B.row1, blockLength, i -> (double)blockT_rows*blockT_rows*Math.min(blockLength, B.row1 - i), i -> {
                     for (int i = B.row0; i < B.row1; i += blockLength) {
                         int N = Math.min(B.row1, i + blockLength) - i;
 
@@ -262,7 +263,7 @@ public class TriangularSolver_DDRB {
 
             if (upper) {
                 if (transT) {
-                    //CONCURRENT_BELOW EjmlConcurrency.loopFor(B.col0, B.col1, blockLength, i -> {
+                    //CONCURRENT_BELOW EjmlConcurrency.loopForWeighted(B.col0, B.col1, blockLength, i -> (double)Trows*Trows*Math.min(blockLength, B.col1 - i), i -> {
                     for (int i = B.col0; i < B.col1; i += blockLength) {
                         int offsetB = B.row0*B.original.numCols + Trows*i;
 
@@ -271,7 +272,7 @@ public class TriangularSolver_DDRB {
                     }
                     //CONCURRENT_ABOVE });
                 } else {
-                    //CONCURRENT_BELOW EjmlConcurrency.loopFor(B.col0, B.col1, blockLength, i -> {
+                    //CONCURRENT_BELOW EjmlConcurrency.loopForWeighted(B.col0, B.col1, blockLength, i -> (double)Trows*Trows*Math.min(blockLength, B.col1 - i), i -> {
                     for (int i = B.col0; i < B.col1; i += blockLength) {
                         int offsetB = B.row0*B.original.numCols + Trows*i;
 
@@ -282,7 +283,7 @@ public class TriangularSolver_DDRB {
                 }
             } else {
                 if (transT) {
-                    //CONCURRENT_BELOW EjmlConcurrency.loopFor(B.col0, B.col1, blockLength, i -> {
+                    //CONCURRENT_BELOW EjmlConcurrency.loopForWeighted(B.col0, B.col1, blockLength, i -> (double)Trows*Trows*Math.min(blockLength, B.col1 - i), i -> {
                     for (int i = B.col0; i < B.col1; i += blockLength) {
                         int offsetB = B.row0*B.original.numCols + Trows*i;
 
@@ -291,7 +292,7 @@ public class TriangularSolver_DDRB {
                     }
                     //CONCURRENT_ABOVE });
                 } else {
-                    //CONCURRENT_BELOW EjmlConcurrency.loopFor(B.col0, B.col1, blockLength, i -> {
+                    //CONCURRENT_BELOW EjmlConcurrency.loopForWeighted(B.col0, B.col1, blockLength, i -> (double)Trows*Trows*Math.min(blockLength, B.col1 - i), i -> {
                     for (int i = B.col0; i < B.col1; i += blockLength) {
                         int offsetB = B.row0*B.original.numCols + Trows*i;
 
@@ -0,0 +1,237 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.block.decomposition.chol;
+
+import org.ejml.concurrency.ConcurrencyOperation;
+import org.ejml.concurrency.EjmlConcurrency;
+import org.ejml.concurrency.TaskGraph;
+import org.ejml.data.DMatrixRBlock;
+import org.ejml.dense.block.InnerRankUpdate_DDRB;
+import org.ejml.dense.block.InnerTriangularSolver_DDRB;
+import org.ejml.dense.block.MatrixOps_DDRB;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Concurrent block Cholesky decomposition where the work is expressed as a {@link TaskGraph} of operations on
+ * individual blocks. For the lower triangular decomposition there are four types of tasks:
+ * </p>
+ *
+ * <pre>
+ * POTRF(k)     L(k,k) = chol(A(k,k))
+ * TRSM(i,k)    L(i,k) = A(i,k)*L(k,k)<sup>-T</sup>
+ * SYRK(i,k)    A(i,i) = A(i,i) - L(i,k)*L(i,k)<sup>T</sup>
+ * GEMM(i,j,k)  A(i,j) = A(i,j) - L(i,k)*L(j,k)<sup>T</sup>
+ * </pre>
+ *
+ * <p>
+ * A task starts as soon as the blocks it reads are final and every earlier update to the block it writes has
+ * finished. There's no barrier between block columns like in {@link CholeskyOuterForm_DDRB}'s concurrent variant,
+ * so the next diagonal block can be factored while the rest of the trailing matrix is still being updated.
+ * Tasks which write to blocks further to the left have a higher priority since they are on the critical path.
+ * The upper triangular decomposition is the transpose of the lower. Every block is updated in the same order as
+ * in {@link CholeskyOuterForm_DDRB}, so the results are identical.
+ * </p>
+ *
+ * <p>
+ * If the cost model predicts that the matrix is too small to benefit from concurrency then it's decomposed in
+ * the calling thread.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class CholeskyTaskGraph_MT_DDRB extends CholeskyOuterForm_DDRB {
+    private final TaskGraph graph = new TaskGraph();
+
+    // ID of the last task which modifies each block. -1 if there is none
+    private int[] last = new int[0];
+
+    // set to true if a diagonal block is not positive definite
+    private volatile boolean failed;
+
+    /**
+     * @param lower Should it decompose it into a lower triangular matrix or not.
+     */
+    public CholeskyTaskGraph_MT_DDRB( boolean lower ) {
+        super(lower);
+    }
+
+    @Override
+    public boolean decompose( DMatrixRBlock A ) {
+        if (A.numCols != A.numRows)
+            throw new IllegalArgumentException("A must be square");
+
+        double N = A.numCols;
+        try (ConcurrencyOperation op = EjmlConcurrency.operation("CholeskyTaskGraph_MT_DDRB.decompose", N*N*N/3.0)) {
+            if (!op.isConcurrent())
+                return super.decompose(A);
+
+            this.T = A;
+            this.failed = false;
+
+            int blocks = (A.numCols + A.blockLength - 1)/A.blockLength;
+            if (last.length < blocks*blocks)
+                last = new int[blocks*blocks];
+            Arrays.fill(last, 0, blocks*blocks, -1);
+
+            graph.reset();
+            if (lower)
+                createGraphLower(blocks);
+            else
+                createGraphUpper(blocks);
+            graph.execute();
+            graph.reset();
+
+            if (failed)
+                return false;
+
+            MatrixOps_DDRB.zeroTriangle(lower, T);
+            return true;
+        }
+    }
+
+    /**
+     * Creates the tasks for the lower triangular decomposition. The block in row i and column j is last[i*K+j].
+     */
+    private void createGraphLower( final int K ) {
+        for (int k = 0; k < K; k++) {
+            final int _k = k;
+            int potrf = graph.add(k, () -> factorDiagonal(_k), last[k*K + k]);
+            last[k*K + k] = potrf;
+
+            for (int i = k + 1; i < K; i++) {
+                final int _i = i;
+                last[i*K + k] = graph.add(k, () -> solveLower(_i, _k), potrf, last[i*K + k]);
+            }
+
+            for (int i = k + 1; i < K; i++) {
+                for (int j = k + 1; j <= i; j++) {
+                    final int _i = i, _j = j;
+                    last[i*K + j] = graph.add(j, () -> updateLower(_i, _j, _k),
+                            last[i*K + k], last[j*K + k], last[i*K + j]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates the tasks for the upper triangular decomposition. The block in row i and column j is last[i*K+j].
+     */
+    private void createGraphUpper( final int K ) {
+        for (int k = 0; k < K; k++) {
+            final int _k = k;
+            int potrf = graph.add(k, () -> factorDiagonal(_k), last[k*K + k]);
+            last[k*K + k] = potrf;
+
+            for (int j = k + 1; j < K; j++) {
+                final int _j = j;
+                last[k*K + j] = graph.add(k, () -> solveUpper(_k, _j), potrf, last[k*K + j]);
+            }
+
+            for (int i = k + 1; i < K; i++) {
+                for (int j = i; j < K; j++) {
+                    final int _i = i, _j = j;
+                    last[i*K + j] = graph.add(i, () -> updateUpper(_i, _j, _k),
+                            last[k*K + i], last[k*K + j], last[i*K + j]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Cholesky decomposition of diagonal block k
+     */
+    private void factorDiagonal( int k ) {
+        if (failed)
+            return;
+        boolean success = lower ?
+                InnerCholesky_DDRB.lower(T.data, index(k, k), size(k)) :
+                InnerCholesky_DDRB.upper(T.data, index(k, k), size(k));
+        if (!success)
+            failed = true;
+    }
+
+    /**
+     * L(i,k) = A(i,k)*L(k,k)<sup>-T</sup>
+     */
+    private void solveLower( int i, int k ) {
+        if (failed)
+            return;
+        int bl = T.blockLength;
+        InnerTriangularSolver_DDRB.solveLTransB(T.data, T.data, bl, size(i), bl, index(k, k), index(i, k));
+    }
+
+    /**
+     * U(k,j) = U(k,k)<sup>-T</sup>*A(k,j)
+     */
+    private void solveUpper( int k, int j ) {
+        if (failed)
+            return;
+        int bl = T.blockLength;
+        InnerTriangularSolver_DDRB.solveTransU(T.data, T.data, bl, size(j), bl, index(k, k), index(k, j));
+    }
+
+    /**
+     * A(i,j) = A(i,j) - L(i,k)*L(j,k)<sup>T</sup>
+     */
+    private void updateLower( int i, int j, int k ) {
+        if (failed)
+            return;
+        int bl = T.blockLength;
+        if (i == j) {
+            InnerRankUpdate_DDRB.multTransBBlockMinus_L(T.data, T.data,
+                    index(i, k), index(j, k), index(i, j), bl, size(i), size(j));
+        } else {
+            InnerRankUpdate_DDRB.multTransBBlockMinus(T.data, T.data,
+                    index(i, k), index(j, k), index(i, j), bl, size(i), size(j));
+        }
+    }
+
+    /**
+     * A(i,j) = A(i,j) - U(k,i)<sup>T</sup>*U(k,j)
+     */
+    private void updateUpper( int i, int j, int k ) {
+        if (failed)
+            return;
+        int bl = T.blockLength;
+        if (i == j) {
+            InnerRankUpdate_DDRB.multTransABlockMinus_U(T.data, T.data,
+                    index(k, i), index(k, j), index(i, j), bl, size(i), size(j));
+        } else {
+            InnerRankUpdate_DDRB.multTransABlockMinus(T.data, T.data,
+                    index(k, i), index(k, j), index(i, j), bl, size(i), size(j));
+        }
+    }
+
+    /**
+     * Index of the first element in the block at row i and column j
+     */
+    private int index( int i, int j ) {
+        int bl = T.blockLength;
+        return i*bl*T.numCols + j*bl*size(i);
+    }
+
+    /**
+     * Number of rows or columns in the i-th block row or column
+     */
+    private int size( int i ) {
+        return Math.min(T.blockLength, T.numCols - i*T.blockLength);
+    }
+}
@@ -263,7 +263,8 @@ public class TridiagonalDecompositionHouseholder_DDRB
                                        DSubmatrixD1 C ) {
         int heightA = Math.min(blockLength, A.row1 - A.row0);
 
-        //CONCURRENT_BELOW EjmlConcurrency.loopFor(C.row0 + blockLength, C.row1, blockLength, i -> {
+        // only the upper triangle is updated, so the work is split by cost
+        //CONCURRENT_BELOW EjmlConcurrency.loopForWeighted(C.row0 + blockLength, C.row1, blockLength, i -> 2.0*heightA*Math.min(blockLength, C.row1 - i)*(C.col1 - i), i -> {
         for (int i = C.row0 + blockLength; i < C.row1; i += blockLength) {
             int heightC = Math.min(blockLength, C.row1 - i);
 
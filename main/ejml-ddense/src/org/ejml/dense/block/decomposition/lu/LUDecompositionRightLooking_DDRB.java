@@ -0,0 +1,411 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.dense.block.decomposition.lu;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.Complex_F64;
+import org.ejml.data.DMatrixRBlock;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DSubmatrixD1;
+import org.ejml.data.IGrowArray;
+import org.ejml.dense.block.InnerTriangularSolver_DDRB;
+import org.ejml.dense.block.MatrixMult_DDRB;
+import org.ejml.dense.block.MatrixOps_DDRB;
+import org.ejml.dense.row.SpecializedOps_DDRM;
+import org.ejml.interfaces.decomposition.LUDecomposition_F64;
+import org.jetbrains.annotations.Nullable;
+
+//CONCURRENT_INLINE import org.ejml.dense.block.*;
+//CONCURRENT_INLINE import org.ejml.concurrency.EjmlConcurrency;
+
+//CONCURRENT_MACRO MatrixMult_DDRB MatrixMult_MT_DDRB
+
+/**
+ * <p>
+ * Right looking block LU decomposition with partial pivoting for {@link DMatrixRBlock}. The input matrix is
+ * modified and used to store the decomposition. L is stored below the diagonal with an implicit diagonal of
+ * ones and U is stored on and above the diagonal.
+ * </p>
+ *
+ * Each iteration processes one block column and can be sketched as follows:
+ * <pre>
+ * [L11;L21]*U11 = P*A(i:m,i:i+r)     Unblocked LU of the block column with partial pivoting
+ * A(i:m,:) = P*A(i:m,:)              Apply the row swaps to the rest of the matrix
+ * U12 = L11<sup>-1</sup>*A12                Triangular solve for the block row to the right
+ * A22 = A22 - L21*U12                Rank r update of the trailing submatrix
+ * </pre>
+ * Where r is the block size and i is the first column in the block column. Almost all the work is
+ * done in the matrix multiplication, which operates on cache sized blocks.
+ *
+ * <p>
+ * The row swaps are the same as the ones in {@link org.ejml.dense.row.decomposition.lu.LUDecompositionAlt_DDRM}
+ * and are applied to the entire row, which is the same as LAPACK's getrf.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+@SuppressWarnings("NullAway.Init")
+public class LUDecompositionRightLooking_DDRB implements LUDecomposition_F64<DMatrixRBlock> {
+    // The decomposed matrix
+    protected DMatrixRBlock LU;
+    // the shape of the matrix
+    protected int m, n;
+
+    // Row swap performed at each step. Row i was swapped with indx[i]
+    protected int[] indx = new int[0];
+    // Which row in the original matrix each row in LU came from
+    protected int[] pivot = new int[0];
+    // used by determinant
+    protected double pivsign;
+
+    // storage for the block column which is being factored and a copy of one of its columns
+    protected double[] panel = new double[0];
+    protected double[] vv = new double[0];
+
+    // predeclare local work space
+    protected final DSubmatrixD1 subA = new DSubmatrixD1();
+    protected final DSubmatrixD1 subB = new DSubmatrixD1();
+    protected final DSubmatrixD1 subC = new DSubmatrixD1();
+
+    // storage for the determinant
+    protected final Complex_F64 det = new Complex_F64();
+
+    /**
+     * Decomposes the provided matrix and stores the result in the same matrix.
+     *
+     * @param A Matrix that is to be decomposed. Modified.
+     * @return true. The decomposition always succeeds, even if the matrix is singular.
+     */
+    @Override
+    public boolean decompose( DMatrixRBlock A ) {
+        initialize(A);
+        final int blockLength = A.blockLength;
+
+        final int minLength = Math.min(m, n);
+        for (int i = 0; i < minLength; i += blockLength) {
+            int widthBlock = Math.min(blockLength, n - i);
+
+            factorPanel(i, widthBlock);
+            swapRowsOutsidePanel(i, widthBlock);
+
+            // nothing to the right of the last block column
+            if (i + widthBlock >= n)
+                continue;
+
+            solveBlockRow(i);
+
+            if (i + blockLength < m) {
+                //@formatter:off
+                subA.original = A; subA.row0 = i + blockLength; subA.row1 = m;
+                                   subA.col0 = i;               subA.col1 = i + blockLength;
+                subB.original = A; subB.row0 = i;               subB.row1 = i + blockLength;
+                                   subB.col0 = i + blockLength; subB.col1 = n;
+                subC.original = A; subC.row0 = i + blockLength; subC.row1 = m;
+                                   subC.col0 = i + blockLength; subC.col1 = n;
+                //@formatter:on
+
+                // A22 = A22 - L21*U12
+                MatrixMult_DDRB.multMinus(blockLength, subA, subB, subC);
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Declares work space and resets the pivots for the matrix which is about to be decomposed
+     */
+    protected void initialize( DMatrixRBlock A ) {
+        this.LU = A;
+        this.m = A.numRows;
+        this.n = A.numCols;
+        final int blockLength = A.blockLength;
+
+        if (pivot.length < m) {
+            pivot = new int[m];
+            indx = new int[m];
+            vv = new double[m];
+        }
+        if (panel.length < m*blockLength)
+            panel = new double[m*blockLength];
+
+        for (int i = 0; i < m; i++) {
+            pivot[i] = i;
+        }
+        pivsign = 1;
+    }
+
+    /**
+     * Computes the LU decomposition of the block column which starts at the diagonal element (col0,col0) using
+     * the same algorithm as LUDecompositionAlt_DDRM. The block column is copied into a row major array first
+     * since rows in it are spread across multiple blocks.
+     *
+     * @param col0 First column in the block column
+     * @param width Number of columns in the block column
+     */
+    protected void factorPanel( int col0, int width ) {
+        final int blockLength = LU.blockLength;
+        final double[] data = LU.data;
+        final int rows = m - col0;
+
+        // copy the block column into the panel
+        for (int row0 = col0; row0 < m; row0 += blockLength) {
+            int height = Math.min(blockLength, m - row0);
+            System.arraycopy(data, row0*n + col0*height, panel, (row0 - col0)*width, height*width);
+        }
+
+        final double[] colj = vv;
+        for (int j = 0; j < width; j++) {
+            for (int i = 0; i < rows; i++) {
+                colj[i] = panel[i*width + j];
+            }
+
+            // Apply previous transformations inside the panel
+            for (int i = 0; i < rows; i++) {
+                int rowIndex = i*width;
+                int kmax = Math.min(i, j);
+                double s = 0.0;
+                for (int k = 0; k < kmax; k++) {
+                    s += panel[rowIndex + k]*colj[k];
+                }
+                panel[rowIndex + j] = colj[i] -= s;
+            }
+
+            // the last rows can only be used as pivots when the matrix is wide
+            if (j >= rows)
+                continue;
+
+            // Find pivot and exchange if necessary.
+            int p = j;
+            double max = Math.abs(colj[p]);
+            for (int i = j + 1; i < rows; i++) {
+                double v = Math.abs(colj[i]);
+                if (v > max) {
+                    p = i;
+                    max = v;
+                }
+            }
+
+            if (p != j) {
+                int rowP = p*width;
+                int rowJ = j*width;
+                int endP = rowP + width;
+                for (; rowP < endP; rowP++, rowJ++) {
+                    double t = panel[rowP];
+                    panel[rowP] = panel[rowJ];
+                    panel[rowJ] = t;
+                }
+                int k = pivot[col0 + p];
+                pivot[col0 + p] = pivot[col0 + j];
+                pivot[col0 + j] = k;
+                pivsign = -pivsign;
+            }
+            indx[col0 + j] = col0 + p;
+
+            // Compute multipliers.
+            double lujj = panel[j*width + j];
+            if (lujj != 0) {
+                for (int i = j + 1; i < rows; i++) {
+                    panel[i*width + j] /= lujj;
+                }
+            }
+        }
+
+        // copy the results back into the matrix
+        for (int row0 = col0; row0 < m; row0 += blockLength) {
+            int height = Math.min(blockLength, m - row0);
+            System.arraycopy(panel, (row0 - col0)*width, data, row0*n + col0*height, height*width);
+        }
+    }
+
+    /**
+     * Applies the row swaps found while factoring the block column to every other block column
+     */
+    protected void swapRowsOutsidePanel( int col0, int width ) {
+        final int blockLength = LU.blockLength;
+        final int numSwaps = Math.min(width, m - col0);
+
+        //CONCURRENT_BELOW EjmlConcurrency.loopForWeighted(0, n, blockLength, col -> 2.0*numSwaps*Math.min(blockLength, n - col), col -> {
+        for (int col = 0; col < n; col += blockLength) {
+            // the rows inside the panel have already been swapped
+            if (col != col0) {
+                for (int i = col0; i < col0 + numSwaps; i++) {
+                    if (indx[i] != i)
+                        swapRows(col, i, indx[i]);
+                }
+            }
+        }
+        //CONCURRENT_ABOVE });
+    }
+
+    /**
+     * Swaps two rows inside of the block column which starts at col0
+     */
+    protected void swapRows( int col0, int rowA, int rowB ) {
+        final int blockLength = LU.blockLength;
+        final double[] data = LU.data;
+        final int width = Math.min(blockLength, n - col0);
+
+        int indexA = rowIndex(rowA, col0, width);
+        int indexB = rowIndex(rowB, col0, width);
+        int end = indexA + width;
+        for (; indexA < end; indexA++, indexB++) {
+            double t = data[indexA];
+            data[indexA] = data[indexB];
+            data[indexB] = t;
+        }
+    }
+
+    /**
+     * Index of the first element in a row inside of the block column which starts at col0
+     */
+    private int rowIndex( int row, int col0, int width ) {
+        int blockLength = LU.blockLength;
+        int row0 = row - row%blockLength;
+        int height = Math.min(blockLength, m - row0);
+        return row0*n + col0*height + (row - row0)*width;
+    }
+
+    /**
+     * Solves for U12 = L11<sup>-1</sup>*A12 where L11 is the unit lower triangular portion of the diagonal block
+     * which starts at (row0,row0) and A12 is everything to the right of it.
+     */
+    protected void solveBlockRow( int row0 ) {
+        final int blockLength = LU.blockLength;
+        final double[] data = LU.data;
+        final int height = Math.min(blockLength, m - row0);
+        final int offsetL = row0*n + row0*height;
+
+        //CONCURRENT_BELOW EjmlConcurrency.loopForWeighted(row0 + blockLength, n, blockLength, col -> (double)height*height*Math.min(blockLength, n - col), col -> {
+        for (int col = row0 + blockLength; col < n; col += blockLength) {
+            int width = Math.min(blockLength, n - col);
+            InnerTriangularSolver_DDRB.solveUnitL(data, data, height, width, blockLength, offsetL, row0*n + col*height);
+        }
+        //CONCURRENT_ABOVE });
+    }
+
+    @Override
+    public DMatrixRBlock getLower( @Nullable DMatrixRBlock lower ) {
+        int numCols = Math.min(m, n);
+        if (lower == null) {
+            lower = new DMatrixRBlock(m, numCols, LU.blockLength);
+        } else {
+            lower.reshape(m, numCols, LU.blockLength, false);
+            MatrixOps_DDRB.set(lower, 0);
+        }
+
+        for (int i = 0; i < m; i++) {
+            int end = Math.min(i, numCols);
+            for (int j = 0; j < end; j++) {
+                lower.unsafe_set(i, j, LU.unsafe_get(i, j));
+            }
+            if (i < numCols)
+                lower.unsafe_set(i, i, 1.0);
+        }
+        return lower;
+    }
+
+    @Override
+    public DMatrixRBlock getUpper( @Nullable DMatrixRBlock upper ) {
+        int numRows = Math.min(m, n);
+        if (upper == null) {
+            upper = new DMatrixRBlock(numRows, n, LU.blockLength);
+        } else {
+            upper.reshape(numRows, n, LU.blockLength, false);
+            MatrixOps_DDRB.set(upper, 0);
+        }
+
+        for (int i = 0; i < numRows; i++) {
+            for (int j = i; j < n; j++) {
+                upper.unsafe_set(i, j, LU.unsafe_get(i, j));
+            }
+        }
+        return upper;
+    }
+
+    @Override
+    public DMatrixRBlock getRowPivot( @Nullable DMatrixRBlock pivot ) {
+        DMatrixRMaj P = SpecializedOps_DDRM.pivotMatrix(null, this.pivot, m, false);
+        if (pivot == null) {
+            pivot = new DMatrixRBlock(m, m, LU.blockLength);
+        } else {
+            pivot.reshape(m, m, LU.blockLength, false);
+        }
+        MatrixOps_DDRB.convert(P, pivot);
+        return pivot;
+    }
+
+    @Override
+    public int[] getRowPivotV( @Nullable IGrowArray pivot ) {
+        return UtilEjml.pivotVector(this.pivot, m, pivot);
+    }
+
+    /**
+     * Returns the row swap performed at each step. Row i was swapped with row indx[i].
+     */
+    public int[] getIndx() {
+        return indx;
+    }
+
+    /**
+     * Returns which row in the original matrix each row in the decomposition came from.
+     */
+    public int[] getPivot() {
+        return pivot;
+    }
+
+    /**
+     * Returns -1 if an odd number of row swaps were performed and 1 if an even number were.
+     */
+    public double getPivotSign() {
+        return pivsign;
+    }
+
+    @Override
+    public boolean isSingular() {
+        int N = Math.min(m, n);
+        for (int i = 0; i < N; i++) {
+            if (Math.abs(LU.unsafe_get(i, i)) < UtilEjml.EPS)
+                return true;
+        }
+        return false;
+    }
+
+    @Override
+    public Complex_F64 computeDeterminant() {
+        if (m != n)
+            throw new IllegalArgumentException("Must be a square matrix.");
+
+        double ret = pivsign;
+        for (int i = 0; i < n; i++) {
+            ret *= LU.unsafe_get(i, i);
+        }
+
+        det.real = ret;
+        det.imaginary = 0;
+
+        return det;
+    }
+
+    @Override
+    public boolean inputModified() {
+        return true;
+    }
+}
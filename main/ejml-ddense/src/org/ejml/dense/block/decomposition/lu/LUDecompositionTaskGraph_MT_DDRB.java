@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.block.decomposition.lu;
+
+import org.ejml.concurrency.ConcurrencyOperation;
+import org.ejml.concurrency.EjmlConcurrency;
+import org.ejml.concurrency.TaskGraph;
+import org.ejml.data.DMatrixRBlock;
+import org.ejml.dense.block.InnerMultiplication_DDRB;
+import org.ejml.dense.block.InnerTriangularSolver_DDRB;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Concurrent version of {@link LUDecompositionRightLooking_DDRB} where the work is expressed as a
+ * {@link TaskGraph}. For the block column k there are three types of tasks:
+ * </p>
+ *
+ * <pre>
+ * GETRF(k)      LU of the block column with partial pivoting
+ * TRSM(k,j)     Apply the row swaps to block column j then U(k,j) = L(k,k)<sup>-1</sup>*A(k,j)
+ * GEMM(k,i,j)   A(i,j) = A(i,j) - L(i,k)*U(k,j)
+ * </pre>
+ *
+ * <p>
+ * A task starts as soon as the blocks it reads are final and every earlier update to the blocks it writes has
+ * finished. The next block column can be factored as soon as it has been updated, while the rest of the trailing
+ * matrix is still being updated. Tasks which write to block columns further to the left have a higher priority.
+ * Row swaps in the block columns to the left of a panel only modify L, which isn't read again, so they are all
+ * applied after the graph has finished. The results are identical to the single threaded version.
+ * </p>
+ *
+ * <p>
+ * If the cost model predicts that the matrix is too small to benefit from concurrency then it's decomposed in
+ * the calling thread.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class LUDecompositionTaskGraph_MT_DDRB extends LUDecompositionRightLooking_DDRB {
+    private final TaskGraph graph = new TaskGraph();
+
+    // ID of the last task which modifies each block. -1 if there is none
+    private int[] last = new int[0];
+    // storage for a task's dependencies
+    private int[] dependencies = new int[0];
+
+    @Override
+    public boolean decompose( DMatrixRBlock A ) {
+        double flops = 2.0*A.numRows*A.numCols*Math.min(A.numRows, A.numCols)/3.0;
+        try (ConcurrencyOperation op = EjmlConcurrency.operation("LUDecompositionTaskGraph_MT_DDRB.decompose", flops)) {
+            if (!op.isConcurrent())
+                return super.decompose(A);
+
+            initialize(A);
+
+            graph.reset();
+            createGraph();
+            graph.execute();
+            graph.reset();
+
+            swapRowsLeftOfPanels();
+
+            return true;
+        }
+    }
+
+    /**
+     * Creates the tasks. The block in row i and column j is last[i*numBlockCols+j].
+     */
+    private void createGraph() {
+        final int blockLength = LU.blockLength;
+        final int numBlockRows = (m + blockLength - 1)/blockLength;
+        final int numBlockCols = (n + blockLength - 1)/blockLength;
+        final int numPanels = (Math.min(m, n) + blockLength - 1)/blockLength;
+
+        if (last.length < numBlockRows*numBlockCols)
+            last = new int[numBlockRows*numBlockCols];
+        if (dependencies.length < numBlockRows + 1)
+            dependencies = new int[numBlockRows + 1];
+        Arrays.fill(last, 0, numBlockRows*numBlockCols, -1);
+
+        for (int k = 0; k < numPanels; k++) {
+            final int col0 = k*blockLength;
+            final int width = Math.min(blockLength, n - col0);
+
+            // the panel depends on every block in the block column below the diagonal
+            int count = 0;
+            for (int i = k; i < numBlockRows; i++) {
+                dependencies[count++] = last[i*numBlockCols + k];
+            }
+            int getrf = graph.add(k, () -> factorPanel(col0, width), Arrays.copyOf(dependencies, count));
+            for (int i = k; i < numBlockRows; i++) {
+                last[i*numBlockCols + k] = getrf;
+            }
+
+            for (int j = k + 1; j < numBlockCols; j++) {
+                final int colJ = j*blockLength;
+
+                // row swaps can modify any block below the diagonal
+                count = 0;
+                dependencies[count++] = getrf;
+                for (int i = k; i < numBlockRows; i++) {
+                    dependencies[count++] = last[i*numBlockCols + j];
+                }
+                int trsm = graph.add(j, () -> swapAndSolve(col0, width, colJ), Arrays.copyOf(dependencies, count));
+                last[k*numBlockCols + j] = trsm;
+
+                for (int i = k + 1; i < numBlockRows; i++) {
+                    final int row0 = i*blockLength;
+                    last[i*numBlockCols + j] = graph.add(j, () -> multMinus(row0, col0, colJ), trsm);
+                }
+            }
+        }
+    }
+
+    /**
+     * Applies the row swaps from the panel starting at col0 to the block column starting at colJ then solves
+     * for U(k,j)
+     */
+    private void swapAndSolve( int col0, int width, int colJ ) {
+        final int blockLength = LU.blockLength;
+        final int numSwaps = Math.min(width, m - col0);
+        for (int i = col0; i < col0 + numSwaps; i++) {
+            if (indx[i] != i)
+                swapRows(colJ, i, indx[i]);
+        }
+
+        final int height = Math.min(blockLength, m - col0);
+        final int widthJ = Math.min(blockLength, n - colJ);
+        InnerTriangularSolver_DDRB.solveUnitL(LU.data, LU.data, height, widthJ, blockLength,
+                col0*n + col0*height, col0*n + colJ*height);
+    }
+
+    /**
+     * A(i,j) = A(i,j) - L(i,k)*U(k,j) for the block which starts at (row0, colJ)
+     */
+    private void multMinus( int row0, int col0, int colJ ) {
+        final int blockLength = LU.blockLength;
+        final int heightA = Math.min(blockLength, m - row0);
+        final int widthB = Math.min(blockLength, n - colJ);
+
+        InnerMultiplication_DDRB.blockMultMinus(LU.data, LU.data, LU.data,
+                row0*n + col0*heightA, col0*n + colJ*blockLength, row0*n + colJ*heightA,
+                heightA, blockLength, widthB);
+    }
+
+    /**
+     * Applies the row swaps from every panel to the block columns to the left of the panel
+     */
+    private void swapRowsLeftOfPanels() {
+        final int blockLength = LU.blockLength;
+        final int minLength = Math.min(m, n);
+
+        EjmlConcurrency.loopFor(0, minLength - blockLength, blockLength, col -> {
+            for (int col0 = col + blockLength; col0 < minLength; col0 += blockLength) {
+                int numSwaps = Math.min(Math.min(blockLength, n - col0), m - col0);
+                for (int i = col0; i < col0 + numSwaps; i++) {
+                    if (indx[i] != i)
+                        swapRows(col, i, indx[i]);
+                }
+            }
+        });
+    }
+}
@@ -162,7 +162,7 @@ public class BlockHouseHolder_DDRB {
 
         final double[] dataA = A.original.data;
 
-        //CONCURRENT_BELOW EjmlConcurrency.loopFor(col + 1, width, j -> {
+        //CONCURRENT_BELOW EjmlConcurrency.loopForWeighted(col + 1, width, 1, j -> 4.0*(A.row1 - A.row0), j -> {
         for (int j = col + 1; j < width; j++) {
 
             // total = U^T * A(:,j)
@@ -473,7 +473,7 @@ public class BlockHouseHolder_DDRB {
 
         final double[] dataY = Y.original.data;
 
-        //CONCURRENT_BELOW EjmlConcurrency.loopFor(Y.row0, Y.row1, blockLength, i -> {
+        //CONCURRENT_BELOW EjmlConcurrency.loopForWeighted(Y.row0, Y.row1, blockLength, i -> Math.min(blockLength, Y.row1 - i), i -> {
         for (int i = Y.row0; i < Y.row1; i += blockLength) {
             int height = Math.min(blockLength, Y.row1 - i);
 
@@ -797,7 +797,7 @@ public class BlockHouseHolder_DDRB {
         final double[] dataW = W.original.data;
         final double[] dataY = Y.original.data;
 
-        //CONCURRENT_BELOW EjmlConcurrency.loopFor(W.row0, W.row1, blockLength, i -> {
+        //CONCURRENT_BELOW EjmlConcurrency.loopForWeighted(W.row0, W.row1, blockLength, i -> Math.min(blockLength, W.row1 - i), i -> {
         for (int i = W.row0; i < W.row1; i += blockLength) {
             final int heightW = Math.min(blockLength, W.row1 - i);
 
@@ -841,7 +841,7 @@ public class BlockHouseHolder_DDRB {
 
         final double beta_neg = -beta;
 
-        //CONCURRENT_BELOW EjmlConcurrency.loopFor(Y.row0, Y.row1, blockLength, i -> {
+        //CONCURRENT_BELOW EjmlConcurrency.loopForWeighted(Y.row0, Y.row1, blockLength, i -> 2.0*Math.min(blockLength, Y.row1 - i)*(col + 1), i -> {
         for (int i = Y.row0; i < Y.row1; i += blockLength) {
             final int heightW = Math.min(blockLength, Y.row1 - i);
 
@@ -903,7 +903,7 @@ public class BlockHouseHolder_DDRB {
                                      final int col, final double[] temp ) {
         final int widthB = Y.col1 - Y.col0;
 
-        //CONCURRENT_BELOW EjmlConcurrency.loopFor(0, col, j -> {
+        //CONCURRENT_BELOW EjmlConcurrency.loopForWeighted(0, col, 1, j -> 2.0*(Y.row1 - Y.row0), j -> {
         for (int j = 0; j < col; j++) {
             temp[j] = innerProdCol(blockLength, Y, col, widthB, j, widthB);
         }
@@ -919,7 +919,7 @@ public class BlockHouseHolder_DDRB {
                                       final DSubmatrixD1 C ) {
         final int widthY = Y.col1 - Y.col0;
 
-        //CONCURRENT_BELOW EjmlConcurrency.loopFor(Y.row0, Y.row1, blockLength, i -> {
+        //CONCURRENT_BELOW EjmlConcurrency.loopForWeighted(Y.row0, Y.row1, blockLength, i -> 2.0*Math.min(blockLength, Y.row1 - i)*widthY*(B.col1 - B.col0), i -> {
         for (int i = Y.row0; i < Y.row1; i += blockLength) {
             final int heightY = Math.min(blockLength, Y.row1 - i);
 
@@ -993,7 +993,7 @@ public class BlockHouseHolder_DDRB {
         if (widthA > blockLength)
             throw new IllegalArgumentException("A is expected to be at most one block wide.");
 
-        //CONCURRENT_BELOW EjmlConcurrency.loopFor(B.col0, B.col1, blockLength, j -> {
+        //CONCURRENT_BELOW EjmlConcurrency.loopForWeighted(B.col0, B.col1, blockLength, j -> 2.0*(A.row1 - A.row0)*widthA*Math.min(blockLength, B.col1 - j), j -> {
         for (int j = B.col0; j < B.col1; j += blockLength) {
             int widthB = Math.min(blockLength, B.col1 - j);
 
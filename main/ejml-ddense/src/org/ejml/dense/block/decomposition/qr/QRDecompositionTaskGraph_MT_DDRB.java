@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.block.decomposition.qr;
+
+import org.ejml.concurrency.ConcurrencyOperation;
+import org.ejml.concurrency.EjmlConcurrency;
+import org.ejml.concurrency.GrowArray;
+import org.ejml.concurrency.TaskGraph;
+import org.ejml.data.DGrowArray;
+import org.ejml.data.DMatrixRBlock;
+import org.ejml.data.DSubmatrixD1;
+import org.ejml.dense.block.MatrixMult_DDRB;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Concurrent version of {@link QRDecompositionHouseholder_DDRB} where the work is expressed as a
+ * {@link TaskGraph}. For the block column k there are two types of tasks:
+ * </p>
+ *
+ * <pre>
+ * GEQRF(k)      QR of block column k and its W matrix
+ * UPDATE(k,j)   A(:,j) = A(:,j) + Y*(W<sup>T</sup>*A(:,j)) for block column j &gt; k
+ * </pre>
+ *
+ * <p>
+ * Block column k+1 is factored as soon as it has been updated by block column k, while the remaining updates
+ * from block column k are still running. Tasks which write to block columns further to the left have a higher
+ * priority. The reflectors of a block column span every row below the diagonal, so tasks operate on whole block
+ * columns instead of individual blocks. This keeps the same storage format and results as the single
+ * threaded version.
+ * </p>
+ *
+ * <p>
+ * The W matrix for every block column must be kept until all of its updates have finished, so W is always
+ * saved. See {@link #setSaveW(boolean)}. If the cost model predicts that the matrix is too small to benefit
+ * from concurrency then it's decomposed in the calling thread.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class QRDecompositionTaskGraph_MT_DDRB extends QRDecompositionHouseholder_DDRB {
+    private final TaskGraph graph = new TaskGraph();
+
+    // Storage for W<sup>T</sup>*A inside of each block column
+    private final GrowArray<DMatrixRBlock> columnWTA = new GrowArray<>(() -> new DMatrixRBlock(1, 1));
+    private final GrowArray<DGrowArray> panelWorkspace = new GrowArray<>(DGrowArray::new);
+
+    // ID of the last task which modifies each block column. -1 if there is none
+    private int[] last = new int[0];
+
+    // set to true if a block column can't be decomposed
+    private volatile boolean failed;
+
+    public QRDecompositionTaskGraph_MT_DDRB() {
+        saveW = true;
+    }
+
+    @Override
+    public boolean decompose( DMatrixRBlock orig ) {
+        final int m = orig.numRows;
+        final int n = orig.numCols;
+        try (ConcurrencyOperation op = EjmlConcurrency.operation(
+                "QRDecompositionTaskGraph_MT_DDRB.decompose", 2.0*n*n*(m - n/3.0))) {
+            if (!op.isConcurrent())
+                return super.decompose(orig);
+
+            setup(orig);
+            // every panel's W is needed while the updates are running
+            dataW.reshape(m, n, false);
+
+            final int numBlockCols = (n + blockLength - 1)/blockLength;
+            final int numPanels = (Math.min(m, n) + blockLength - 1)/blockLength;
+            columnWTA.resize(numBlockCols);
+            if (last.length < numBlockCols)
+                last = new int[numBlockCols];
+            Arrays.fill(last, 0, numBlockCols, -1);
+            failed = false;
+
+            graph.reset();
+            for (int k = 0; k < numPanels; k++) {
+                final int col0 = k*blockLength;
+                int geqrf = graph.add(k, () -> factorPanel(col0), last[k]);
+                last[k] = geqrf;
+
+                for (int j = k + 1; j < numBlockCols; j++) {
+                    final int colJ = j*blockLength;
+                    final DMatrixRBlock WTA = columnWTA.get(j);
+                    last[j] = graph.add(j, () -> updateColumn(col0, colJ, WTA), geqrf, last[j]);
+                }
+            }
+            graph.execute();
+            graph.reset();
+
+            return !failed;
+        }
+    }
+
+    /**
+     * Computes the QR decomposition of the block column which starts at col0 and its W matrix
+     */
+    private void factorPanel( int col0 ) {
+        if (failed)
+            return;
+
+        DSubmatrixD1 Y = createY(col0);
+        if (!BlockHouseHolder_DDRB.decomposeQR_block_col(blockLength, Y, gammas)) {
+            failed = true;
+            return;
+        }
+
+        panelWorkspace.reset();
+        BlockHouseHolder_DDRB.computeW_Column(blockLength, Y, createW(Y), panelWorkspace, gammas, Y.col0);
+    }
+
+    /**
+     * Applies the reflectors from the block column which starts at col0 to the block column which starts at colJ
+     *
+     * @param WTA Storage for W<sup>T</sup>*A. Only used by tasks which modify the same block column.
+     */
+    private void updateColumn( int col0, int colJ, DMatrixRBlock WTA ) {
+        if (failed)
+            return;
+
+        DSubmatrixD1 Y = createY(col0);
+        DSubmatrixD1 W = createW(Y);
+        DSubmatrixD1 A = new DSubmatrixD1(dataA, Y.row0, Y.row1, colJ, Math.min(dataA.numCols, colJ + blockLength));
+
+        WTA.reshape(Y.col1 - Y.col0, A.col1 - A.col0, blockLength, false);
+        DSubmatrixD1 subWTA = new DSubmatrixD1(WTA);
+
+        MatrixMult_DDRB.multTransA(blockLength, W, A, subWTA);
+        BlockHouseHolder_DDRB.multAdd_zeros(blockLength, Y, subWTA, A);
+    }
+
+    private DSubmatrixD1 createY( int col0 ) {
+        return new DSubmatrixD1(dataA, col0, dataA.numRows, col0, Math.min(dataA.numCols, col0 + blockLength));
+    }
+
+    private DSubmatrixD1 createW( DSubmatrixD1 Y ) {
+        return new DSubmatrixD1(dataW, Y.row0, Y.row1, Y.col0, Y.col1);
+    }
+}
@@ -0,0 +1,253 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.fixed;
+
+import javax.annotation.Generated;
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixBatch;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * <p>Operations on a batch of 2 x 2 matrices or 2 element vectors. Every matrix
+ * in the batch is processed with the same unrolled code as CommonOps_DDF2.</p>
+ *
+ * <p>Each operation has a variant which only processes the matrices from idx0 to idx1-1. These variants
+ * don't check their inputs and are intended for splitting a batch up between threads.</p>
+ *
+ * <p>DO NOT MODIFY. Automatically generated code created by GenerateBatchOps_DDF</p>
+ *
+ * @author Peter Abeles
+ */
+@Generated("org.ejml.dense.fixed.GenerateBatchOps_DDF")
+public class BatchOps_DDF2 {
+    /**
+     * <p>Performs the following operation on every matrix in the batch:<br>
+     * <br>
+     * c = a * b <br>
+     * </p>
+     *
+     * <p>
+     * C can be the same instance as A and/or B.
+     * </p>
+     *
+     * @param a The left matrices in the multiplication operation. Not modified.
+     * @param b The right matrices in the multiplication operation. Not modified.
+     * @param c (Output) Where the results of the operation are stored. Modified.
+     */
+    public static void mult( DMatrixBatch a , DMatrixBatch b , DMatrixBatch c ) {
+        UtilEjml.assertShape(a.isShape(2, 2), "Expected 2x2 matrices in 'a'");
+        UtilEjml.assertShape(b.isShape(2, 2), "Expected 2x2 matrices in 'b'");
+        UtilEjml.assertShape(a.count, b.count, "'a' and 'b' must have the same number of matrices");
+        c.reshape(2, 2, a.count);
+        mult(a, b, c, 0, a.count);
+    }
+
+    /**
+     * Same as {@link #mult(DMatrixBatch, DMatrixBatch, DMatrixBatch)} but only for matrices idx0 to idx1-1.
+     */
+    public static void mult( DMatrixBatch a , DMatrixBatch b , DMatrixBatch c , int idx0 , int idx1 ) {
+        final int n = a.count;
+        final double[] A = a.data, B = b.data, C = c.data;
+        for (int k = idx0; k < idx1; k++) {
+            double a11 = A[k], a12 = A[k + n];
+            double a21 = A[k + 2*n], a22 = A[k + 3*n];
+
+            double b11 = B[k], b12 = B[k + n];
+            double b21 = B[k + 2*n], b22 = B[k + 3*n];
+
+            C[k] = a11*b11 + a12*b21;
+            C[k + n] = a11*b12 + a12*b22;
+            C[k + 2*n] = a21*b11 + a22*b21;
+            C[k + 3*n] = a21*b12 + a22*b22;
+        }
+    }
+
+    /**
+     * Inverts every matrix in 'a' using minor matrices and stores the results in 'inv'. Scaling is applied to
+     * improve stability against overflow and underflow.
+     *
+     * WARNING: Potentially less stable than using LU decomposition.
+     *
+     * @param a Input matrices. Not modified.
+     * @param inv (Output) Inverted matrices. Can be the same instance as 'a'. Modified.
+     * @return true if every matrix was inverted or false if at least one failed. Not always reliable.
+     */
+    public static boolean invert( DMatrixBatch a , DMatrixBatch inv ) {
+        UtilEjml.assertShape(a.isShape(2, 2), "Expected 2x2 matrices in 'a'");
+        inv.reshape(2, 2, a.count);
+        return invert(a, inv, 0, a.count);
+    }
+
+    /**
+     * Same as {@link #invert(DMatrixBatch, DMatrixBatch)} but only for matrices idx0 to idx1-1.
+     */
+    public static boolean invert( DMatrixBatch a , DMatrixBatch inv , int idx0 , int idx1 ) {
+        final int n = a.count;
+        final double[] A = a.data, INV = inv.data;
+        boolean success = true;
+        for (int k = idx0; k < idx1; k++) {
+            double a11 = A[k], a12 = A[k + n];
+            double a21 = A[k + 2*n], a22 = A[k + 3*n];
+
+            double scale = Math.abs(a11);
+            scale = Math.max(scale, Math.abs(a12));
+            scale = Math.max(scale, Math.abs(a21));
+            scale = Math.max(scale, Math.abs(a22));
+            scale = 1.0/scale;
+            a11 *= scale; a12 *= scale;
+            a21 *= scale; a22 *= scale;
+
+            double m11 = a22;
+            double m12 = -( a21);
+            double m21 = -( a12);
+            double m22 = a11;
+
+            double det = (a11*m11 + a12*m12)/scale;
+
+            double invDet = 1.0/det;
+            INV[k] = m11*invDet;
+            INV[k + n] = m21*invDet;
+            INV[k + 2*n] = m12*invDet;
+            INV[k + 3*n] = m22*invDet;
+
+            if (Double.isNaN(det) || Double.isInfinite(det))
+                success = false;
+        }
+        return success;
+    }
+
+    /**
+     * Computes the determinant of every matrix using minor matrices.<br>
+     * WARNING: Potentially less stable than using LU decomposition.
+     *
+     * @param a Input matrices. Not modified.
+     * @param output (Optional) Storage for the determinants. If null or too small a new array is declared.
+     * @return The determinant of each matrix.
+     */
+    public static double[] det( DMatrixBatch a , @Nullable double[] output ) {
+        UtilEjml.assertShape(a.isShape(2, 2), "Expected 2x2 matrices in 'a'");
+        if (output == null || output.length < a.count)
+            output = new double[a.count];
+        det(a, output, 0, a.count);
+        return output;
+    }
+
+    /**
+     * Same as {@link #det(DMatrixBatch, double[])} but only for matrices idx0 to idx1-1.
+     */
+    public static void det( DMatrixBatch a , double[] output , int idx0 , int idx1 ) {
+        final int n = a.count;
+        final double[] A = a.data;
+        for (int k = idx0; k < idx1; k++) {
+            output[k] = A[k]*A[k + 3*n] - A[k + n]*A[k + 2*n];
+        }
+    }
+
+    /**
+     * Solves the linear system a*x = b for every matrix in the batch using minor matrices. Scaling is applied
+     * to improve stability against overflow and underflow.
+     *
+     * WARNING: Potentially less stable than using LU decomposition.
+     *
+     * @param a Square matrices. Not modified.
+     * @param b Batch of 2 element column vectors. Not modified.
+     * @param x (Output) Solution. Can be the same instance as 'b'. Modified.
+     * @return true if every system was solved or false if at least one failed. Not always reliable.
+     */
+    public static boolean solve( DMatrixBatch a , DMatrixBatch b , DMatrixBatch x ) {
+        UtilEjml.assertShape(a.isShape(2, 2), "Expected 2x2 matrices in 'a'");
+        UtilEjml.assertShape(b.isShape(2, 1), "Expected 2 element column vectors in 'b'");
+        UtilEjml.assertShape(a.count, b.count, "'a' and 'b' must have the same number of matrices");
+        x.reshape(2, 1, a.count);
+        return solve(a, b, x, 0, a.count);
+    }
+
+    /**
+     * Same as {@link #solve(DMatrixBatch, DMatrixBatch, DMatrixBatch)} but only for matrices idx0 to idx1-1.
+     */
+    public static boolean solve( DMatrixBatch a , DMatrixBatch b , DMatrixBatch x , int idx0 , int idx1 ) {
+        final int n = a.count;
+        final double[] A = a.data, B = b.data, X = x.data;
+        boolean success = true;
+        for (int k = idx0; k < idx1; k++) {
+            double a11 = A[k], a12 = A[k + n];
+            double a21 = A[k + 2*n], a22 = A[k + 3*n];
+
+            double scale = Math.abs(a11);
+            scale = Math.max(scale, Math.abs(a12));
+            scale = Math.max(scale, Math.abs(a21));
+            scale = Math.max(scale, Math.abs(a22));
+            scale = 1.0/scale;
+            a11 *= scale; a12 *= scale;
+            a21 *= scale; a22 *= scale;
+
+            double m11 = a22;
+            double m12 = -( a21);
+            double m21 = -( a12);
+            double m22 = a11;
+
+            double det = (a11*m11 + a12*m12)/scale;
+
+            double invDet = 1.0/det;
+            double b1 = B[k], b2 = B[k + n];
+            X[k] = (m11*b1 + m21*b2)*invDet;
+            X[k + n] = (m12*b1 + m22*b2)*invDet;
+
+            if (Double.isNaN(det) || Double.isInfinite(det))
+                success = false;
+        }
+        return success;
+    }
+
+    /**
+     * Performs a lower Cholesky decomposition of every matrix in 'A' and stores the results in A.
+     *
+     * @param A (Input) SPD matrices. (Output) lower cholesky.
+     * @return true if every decomposition was successful or false if at least one failed. Not always reliable.
+     */
+    public static boolean cholL( DMatrixBatch A ) {
+        UtilEjml.assertShape(A.isShape(2, 2), "Expected 2x2 matrices in 'A'");
+        return cholL(A, 0, A.count);
+    }
+
+    /**
+     * Same as {@link #cholL(DMatrixBatch)} but only for matrices idx0 to idx1-1.
+     */
+    public static boolean cholL( DMatrixBatch A , int idx0 , int idx1 ) {
+        final int n = A.count;
+        final double[] D = A.data;
+        boolean success = true;
+        for (int k = idx0; k < idx1; k++) {
+            double a11 = D[k], a12 = D[k + n];
+            double a21 = D[k + 2*n], a22 = D[k + 3*n];
+
+            a11 = Math.sqrt(a11);
+            a21 = (a21)/a11;
+            a22 = Math.sqrt(a22 - a21*a21);
+            D[k] = a11; D[k + n] = 0;
+            D[k + 2*n] = a21; D[k + 3*n] = a22;
+
+            if (UtilEjml.isUncountable(a22))
+                success = false;
+        }
+        return success;
+    }
+
+}
+
@@ -0,0 +1,299 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.fixed;
+
+import javax.annotation.Generated;
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixBatch;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * <p>Operations on a batch of 3 x 3 matrices or 3 element vectors. Every matrix
+ * in the batch is processed with the same unrolled code as CommonOps_DDF3.</p>
+ *
+ * <p>Each operation has a variant which only processes the matrices from idx0 to idx1-1. These variants
+ * don't check their inputs and are intended for splitting a batch up between threads.</p>
+ *
+ * <p>DO NOT MODIFY. Automatically generated code created by GenerateBatchOps_DDF</p>
+ *
+ * @author Peter Abeles
+ */
+@Generated("org.ejml.dense.fixed.GenerateBatchOps_DDF")
+public class BatchOps_DDF3 {
+    /**
+     * <p>Performs the following operation on every matrix in the batch:<br>
+     * <br>
+     * c = a * b <br>
+     * </p>
+     *
+     * <p>
+     * C can be the same instance as A and/or B.
+     * </p>
+     *
+     * @param a The left matrices in the multiplication operation. Not modified.
+     * @param b The right matrices in the multiplication operation. Not modified.
+     * @param c (Output) Where the results of the operation are stored. Modified.
+     */
+    public static void mult( DMatrixBatch a , DMatrixBatch b , DMatrixBatch c ) {
+        UtilEjml.assertShape(a.isShape(3, 3), "Expected 3x3 matrices in 'a'");
+        UtilEjml.assertShape(b.isShape(3, 3), "Expected 3x3 matrices in 'b'");
+        UtilEjml.assertShape(a.count, b.count, "'a' and 'b' must have the same number of matrices");
+        c.reshape(3, 3, a.count);
+        mult(a, b, c, 0, a.count);
+    }
+
+    /**
+     * Same as {@link #mult(DMatrixBatch, DMatrixBatch, DMatrixBatch)} but only for matrices idx0 to idx1-1.
+     */
+    public static void mult( DMatrixBatch a , DMatrixBatch b , DMatrixBatch c , int idx0 , int idx1 ) {
+        final int n = a.count;
+        final double[] A = a.data, B = b.data, C = c.data;
+        for (int k = idx0; k < idx1; k++) {
+            double a11 = A[k], a12 = A[k + n], a13 = A[k + 2*n];
+            double a21 = A[k + 3*n], a22 = A[k + 4*n], a23 = A[k + 5*n];
+            double a31 = A[k + 6*n], a32 = A[k + 7*n], a33 = A[k + 8*n];
+
+            double b11 = B[k], b12 = B[k + n], b13 = B[k + 2*n];
+            double b21 = B[k + 3*n], b22 = B[k + 4*n], b23 = B[k + 5*n];
+            double b31 = B[k + 6*n], b32 = B[k + 7*n], b33 = B[k + 8*n];
+
+            C[k] = a11*b11 + a12*b21 + a13*b31;
+            C[k + n] = a11*b12 + a12*b22 + a13*b32;
+            C[k + 2*n] = a11*b13 + a12*b23 + a13*b33;
+            C[k + 3*n] = a21*b11 + a22*b21 + a23*b31;
+            C[k + 4*n] = a21*b12 + a22*b22 + a23*b32;
+            C[k + 5*n] = a21*b13 + a22*b23 + a23*b33;
+            C[k + 6*n] = a31*b11 + a32*b21 + a33*b31;
+            C[k + 7*n] = a31*b12 + a32*b22 + a33*b32;
+            C[k + 8*n] = a31*b13 + a32*b23 + a33*b33;
+        }
+    }
+
+    /**
+     * Inverts every matrix in 'a' using minor matrices and stores the results in 'inv'. Scaling is applied to
+     * improve stability against overflow and underflow.
+     *
+     * WARNING: Potentially less stable than using LU decomposition.
+     *
+     * @param a Input matrices. Not modified.
+     * @param inv (Output) Inverted matrices. Can be the same instance as 'a'. Modified.
+     * @return true if every matrix was inverted or false if at least one failed. Not always reliable.
+     */
+    public static boolean invert( DMatrixBatch a , DMatrixBatch inv ) {
+        UtilEjml.assertShape(a.isShape(3, 3), "Expected 3x3 matrices in 'a'");
+        inv.reshape(3, 3, a.count);
+        return invert(a, inv, 0, a.count);
+    }
+
+    /**
+     * Same as {@link #invert(DMatrixBatch, DMatrixBatch)} but only for matrices idx0 to idx1-1.
+     */
+    public static boolean invert( DMatrixBatch a , DMatrixBatch inv , int idx0 , int idx1 ) {
+        final int n = a.count;
+        final double[] A = a.data, INV = inv.data;
+        boolean success = true;
+        for (int k = idx0; k < idx1; k++) {
+            double a11 = A[k], a12 = A[k + n], a13 = A[k + 2*n];
+            double a21 = A[k + 3*n], a22 = A[k + 4*n], a23 = A[k + 5*n];
+            double a31 = A[k + 6*n], a32 = A[k + 7*n], a33 = A[k + 8*n];
+
+            double scale = Math.abs(a11);
+            scale = Math.max(scale, Math.abs(a12));
+            scale = Math.max(scale, Math.abs(a13));
+            scale = Math.max(scale, Math.abs(a21));
+            scale = Math.max(scale, Math.abs(a22));
+            scale = Math.max(scale, Math.abs(a23));
+            scale = Math.max(scale, Math.abs(a31));
+            scale = Math.max(scale, Math.abs(a32));
+            scale = Math.max(scale, Math.abs(a33));
+            scale = 1.0/scale;
+            a11 *= scale; a12 *= scale; a13 *= scale;
+            a21 *= scale; a22 *= scale; a23 *= scale;
+            a31 *= scale; a32 *= scale; a33 *= scale;
+
+            double m11 = a22*a33 - a23*a32;
+            double m12 = -( a21*a33 - a23*a31);
+            double m13 = a21*a32 - a22*a31;
+            double m21 = -( a12*a33 - a13*a32);
+            double m22 = a11*a33 - a13*a31;
+            double m23 = -( a11*a32 - a12*a31);
+            double m31 = a12*a23 - a13*a22;
+            double m32 = -( a11*a23 - a13*a21);
+            double m33 = a11*a22 - a12*a21;
+
+            double det = (a11*m11 + a12*m12 + a13*m13)/scale;
+
+            double invDet = 1.0/det;
+            INV[k] = m11*invDet;
+            INV[k + n] = m21*invDet;
+            INV[k + 2*n] = m31*invDet;
+            INV[k + 3*n] = m12*invDet;
+            INV[k + 4*n] = m22*invDet;
+            INV[k + 5*n] = m32*invDet;
+            INV[k + 6*n] = m13*invDet;
+            INV[k + 7*n] = m23*invDet;
+            INV[k + 8*n] = m33*invDet;
+
+            if (Double.isNaN(det) || Double.isInfinite(det))
+                success = false;
+        }
+        return success;
+    }
+
+    /**
+     * Computes the determinant of every matrix using minor matrices.<br>
+     * WARNING: Potentially less stable than using LU decomposition.
+     *
+     * @param a Input matrices. Not modified.
+     * @param output (Optional) Storage for the determinants. If null or too small a new array is declared.
+     * @return The determinant of each matrix.
+     */
+    public static double[] det( DMatrixBatch a , @Nullable double[] output ) {
+        UtilEjml.assertShape(a.isShape(3, 3), "Expected 3x3 matrices in 'a'");
+        if (output == null || output.length < a.count)
+            output = new double[a.count];
+        det(a, output, 0, a.count);
+        return output;
+    }
+
+    /**
+     * Same as {@link #det(DMatrixBatch, double[])} but only for matrices idx0 to idx1-1.
+     */
+    public static void det( DMatrixBatch a , double[] output , int idx0 , int idx1 ) {
+        final int n = a.count;
+        final double[] A = a.data;
+        for (int k = idx0; k < idx1; k++) {
+            double a11 = A[k], a12 = A[k + n], a13 = A[k + 2*n];
+            double a21 = A[k + 3*n], a22 = A[k + 4*n], a23 = A[k + 5*n];
+            double a31 = A[k + 6*n], a32 = A[k + 7*n], a33 = A[k + 8*n];
+
+            output[k] = a11*(a22*a33 - a23*a32) - a12*(a21*a33 - a23*a31) + a13*(a21*a32 - a31*a22);
+        }
+    }
+
+    /**
+     * Solves the linear system a*x = b for every matrix in the batch using minor matrices. Scaling is applied
+     * to improve stability against overflow and underflow.
+     *
+     * WARNING: Potentially less stable than using LU decomposition.
+     *
+     * @param a Square matrices. Not modified.
+     * @param b Batch of 3 element column vectors. Not modified.
+     * @param x (Output) Solution. Can be the same instance as 'b'. Modified.
+     * @return true if every system was solved or false if at least one failed. Not always reliable.
+     */
+    public static boolean solve( DMatrixBatch a , DMatrixBatch b , DMatrixBatch x ) {
+        UtilEjml.assertShape(a.isShape(3, 3), "Expected 3x3 matrices in 'a'");
+        UtilEjml.assertShape(b.isShape(3, 1), "Expected 3 element column vectors in 'b'");
+        UtilEjml.assertShape(a.count, b.count, "'a' and 'b' must have the same number of matrices");
+        x.reshape(3, 1, a.count);
+        return solve(a, b, x, 0, a.count);
+    }
+
+    /**
+     * Same as {@link #solve(DMatrixBatch, DMatrixBatch, DMatrixBatch)} but only for matrices idx0 to idx1-1.
+     */
+    public static boolean solve( DMatrixBatch a , DMatrixBatch b , DMatrixBatch x , int idx0 , int idx1 ) {
+        final int n = a.count;
+        final double[] A = a.data, B = b.data, X = x.data;
+        boolean success = true;
+        for (int k = idx0; k < idx1; k++) {
+            double a11 = A[k], a12 = A[k + n], a13 = A[k + 2*n];
+            double a21 = A[k + 3*n], a22 = A[k + 4*n], a23 = A[k + 5*n];
+            double a31 = A[k + 6*n], a32 = A[k + 7*n], a33 = A[k + 8*n];
+
+            double scale = Math.abs(a11);
+            scale = Math.max(scale, Math.abs(a12));
+            scale = Math.max(scale, Math.abs(a13));
+            scale = Math.max(scale, Math.abs(a21));
+            scale = Math.max(scale, Math.abs(a22));
+            scale = Math.max(scale, Math.abs(a23));
+            scale = Math.max(scale, Math.abs(a31));
+            scale = Math.max(scale, Math.abs(a32));
+            scale = Math.max(scale, Math.abs(a33));
+            scale = 1.0/scale;
+            a11 *= scale; a12 *= scale; a13 *= scale;
+            a21 *= scale; a22 *= scale; a23 *= scale;
+            a31 *= scale; a32 *= scale; a33 *= scale;
+
+            double m11 = a22*a33 - a23*a32;
+            double m12 = -( a21*a33 - a23*a31);
+            double m13 = a21*a32 - a22*a31;
+            double m21 = -( a12*a33 - a13*a32);
+            double m22 = a11*a33 - a13*a31;
+            double m23 = -( a11*a32 - a12*a31);
+            double m31 = a12*a23 - a13*a22;
+            double m32 = -( a11*a23 - a13*a21);
+            double m33 = a11*a22 - a12*a21;
+
+            double det = (a11*m11 + a12*m12 + a13*m13)/scale;
+
+            double invDet = 1.0/det;
+            double b1 = B[k], b2 = B[k + n], b3 = B[k + 2*n];
+            X[k] = (m11*b1 + m21*b2 + m31*b3)*invDet;
+            X[k + n] = (m12*b1 + m22*b2 + m32*b3)*invDet;
+            X[k + 2*n] = (m13*b1 + m23*b2 + m33*b3)*invDet;
+
+            if (Double.isNaN(det) || Double.isInfinite(det))
+                success = false;
+        }
+        return success;
+    }
+
+    /**
+     * Performs a lower Cholesky decomposition of every matrix in 'A' and stores the results in A.
+     *
+     * @param A (Input) SPD matrices. (Output) lower cholesky.
+     * @return true if every decomposition was successful or false if at least one failed. Not always reliable.
+     */
+    public static boolean cholL( DMatrixBatch A ) {
+        UtilEjml.assertShape(A.isShape(3, 3), "Expected 3x3 matrices in 'A'");
+        return cholL(A, 0, A.count);
+    }
+
+    /**
+     * Same as {@link #cholL(DMatrixBatch)} but only for matrices idx0 to idx1-1.
+     */
+    public static boolean cholL( DMatrixBatch A , int idx0 , int idx1 ) {
+        final int n = A.count;
+        final double[] D = A.data;
+        boolean success = true;
+        for (int k = idx0; k < idx1; k++) {
+            double a11 = D[k], a12 = D[k + n], a13 = D[k + 2*n];
+            double a21 = D[k + 3*n], a22 = D[k + 4*n], a23 = D[k + 5*n];
+            double a31 = D[k + 6*n], a32 = D[k + 7*n], a33 = D[k + 8*n];
+
+            a11 = Math.sqrt(a11);
+            a21 = (a21)/a11;
+            a22 = Math.sqrt(a22 - a21*a21);
+            a31 = (a31)/a11;
+            a32 = (a32 - a31*a21)/a22;
+            a33 = Math.sqrt(a33 - a31*a31 - a32*a32);
+            D[k] = a11; D[k + n] = 0; D[k + 2*n] = 0;
+            D[k + 3*n] = a21; D[k + 4*n] = a22; D[k + 5*n] = 0;
+            D[k + 6*n] = a31; D[k + 7*n] = a32; D[k + 8*n] = a33;
+
+            if (UtilEjml.isUncountable(a33))
+                success = false;
+        }
+        return success;
+    }
+
+}
+
@@ -0,0 +1,458 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.fixed;
+
+import javax.annotation.Generated;
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixBatch;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * <p>Operations on a batch of 5 x 5 matrices or 5 element vectors. Every matrix
+ * in the batch is processed with the same unrolled code as CommonOps_DDF5.</p>
+ *
+ * <p>Each operation has a variant which only processes the matrices from idx0 to idx1-1. These variants
+ * don't check their inputs and are intended for splitting a batch up between threads.</p>
+ *
+ * <p>DO NOT MODIFY. Automatically generated code created by GenerateBatchOps_DDF</p>
+ *
+ * @author Peter Abeles
+ */
+@Generated("org.ejml.dense.fixed.GenerateBatchOps_DDF")
+public class BatchOps_DDF5 {
+    /**
+     * <p>Performs the following operation on every matrix in the batch:<br>
+     * <br>
+     * c = a * b <br>
+     * </p>
+     *
+     * <p>
+     * C can be the same instance as A and/or B.
+     * </p>
+     *
+     * @param a The left matrices in the multiplication operation. Not modified.
+     * @param b The right matrices in the multiplication operation. Not modified.
+     * @param c (Output) Where the results of the operation are stored. Modified.
+     */
+    public static void mult( DMatrixBatch a , DMatrixBatch b , DMatrixBatch c ) {
+        UtilEjml.assertShape(a.isShape(5, 5), "Expected 5x5 matrices in 'a'");
+        UtilEjml.assertShape(b.isShape(5, 5), "Expected 5x5 matrices in 'b'");
+        UtilEjml.assertShape(a.count, b.count, "'a' and 'b' must have the same number of matrices");
+        c.reshape(5, 5, a.count);
+        mult(a, b, c, 0, a.count);
+    }
+
+    /**
+     * Same as {@link #mult(DMatrixBatch, DMatrixBatch, DMatrixBatch)} but only for matrices idx0 to idx1-1.
+     */
+    public static void mult( DMatrixBatch a , DMatrixBatch b , DMatrixBatch c , int idx0 , int idx1 ) {
+        final int n = a.count;
+        final double[] A = a.data, B = b.data, C = c.data;
+        for (int k = idx0; k < idx1; k++) {
+            double a11 = A[k], a12 = A[k + n], a13 = A[k + 2*n], a14 = A[k + 3*n], a15 = A[k + 4*n];
+            double a21 = A[k + 5*n], a22 = A[k + 6*n], a23 = A[k + 7*n], a24 = A[k + 8*n], a25 = A[k + 9*n];
+            double a31 = A[k + 10*n], a32 = A[k + 11*n], a33 = A[k + 12*n], a34 = A[k + 13*n], a35 = A[k + 14*n];
+            double a41 = A[k + 15*n], a42 = A[k + 16*n], a43 = A[k + 17*n], a44 = A[k + 18*n], a45 = A[k + 19*n];
+            double a51 = A[k + 20*n], a52 = A[k + 21*n], a53 = A[k + 22*n], a54 = A[k + 23*n], a55 = A[k + 24*n];
+
+            double b11 = B[k], b12 = B[k + n], b13 = B[k + 2*n], b14 = B[k + 3*n], b15 = B[k + 4*n];
+            double b21 = B[k + 5*n], b22 = B[k + 6*n], b23 = B[k + 7*n], b24 = B[k + 8*n], b25 = B[k + 9*n];
+            double b31 = B[k + 10*n], b32 = B[k + 11*n], b33 = B[k + 12*n], b34 = B[k + 13*n], b35 = B[k + 14*n];
+            double b41 = B[k + 15*n], b42 = B[k + 16*n], b43 = B[k + 17*n], b44 = B[k + 18*n], b45 = B[k + 19*n];
+            double b51 = B[k + 20*n], b52 = B[k + 21*n], b53 = B[k + 22*n], b54 = B[k + 23*n], b55 = B[k + 24*n];
+
+            C[k] = a11*b11 + a12*b21 + a13*b31 + a14*b41 + a15*b51;
+            C[k + n] = a11*b12 + a12*b22 + a13*b32 + a14*b42 + a15*b52;
+            C[k + 2*n] = a11*b13 + a12*b23 + a13*b33 + a14*b43 + a15*b53;
+            C[k + 3*n] = a11*b14 + a12*b24 + a13*b34 + a14*b44 + a15*b54;
+            C[k + 4*n] = a11*b15 + a12*b25 + a13*b35 + a14*b45 + a15*b55;
+            C[k + 5*n] = a21*b11 + a22*b21 + a23*b31 + a24*b41 + a25*b51;
+            C[k + 6*n] = a21*b12 + a22*b22 + a23*b32 + a24*b42 + a25*b52;
+            C[k + 7*n] = a21*b13 + a22*b23 + a23*b33 + a24*b43 + a25*b53;
+            C[k + 8*n] = a21*b14 + a22*b24 + a23*b34 + a24*b44 + a25*b54;
+            C[k + 9*n] = a21*b15 + a22*b25 + a23*b35 + a24*b45 + a25*b55;
+            C[k + 10*n] = a31*b11 + a32*b21 + a33*b31 + a34*b41 + a35*b51;
+            C[k + 11*n] = a31*b12 + a32*b22 + a33*b32 + a34*b42 + a35*b52;
+            C[k + 12*n] = a31*b13 + a32*b23 + a33*b33 + a34*b43 + a35*b53;
+            C[k + 13*n] = a31*b14 + a32*b24 + a33*b34 + a34*b44 + a35*b54;
+            C[k + 14*n] = a31*b15 + a32*b25 + a33*b35 + a34*b45 + a35*b55;
+            C[k + 15*n] = a41*b11 + a42*b21 + a43*b31 + a44*b41 + a45*b51;
+            C[k + 16*n] = a41*b12 + a42*b22 + a43*b32 + a44*b42 + a45*b52;
+            C[k + 17*n] = a41*b13 + a42*b23 + a43*b33 + a44*b43 + a45*b53;
+            C[k + 18*n] = a41*b14 + a42*b24 + a43*b34 + a44*b44 + a45*b54;
+            C[k + 19*n] = a41*b15 + a42*b25 + a43*b35 + a44*b45 + a45*b55;
+            C[k + 20*n] = a51*b11 + a52*b21 + a53*b31 + a54*b41 + a55*b51;
+            C[k + 21*n] = a51*b12 + a52*b22 + a53*b32 + a54*b42 + a55*b52;
+            C[k + 22*n] = a51*b13 + a52*b23 + a53*b33 + a54*b43 + a55*b53;
+            C[k + 23*n] = a51*b14 + a52*b24 + a53*b34 + a54*b44 + a55*b54;
+            C[k + 24*n] = a51*b15 + a52*b25 + a53*b35 + a54*b45 + a55*b55;
+        }
+    }
+
+    /**
+     * Inverts every matrix in 'a' using minor matrices and stores the results in 'inv'. Scaling is applied to
+     * improve stability against overflow and underflow.
+     *
+     * WARNING: Potentially less stable than using LU decomposition.
+     *
+     * @param a Input matrices. Not modified.
+     * @param inv (Output) Inverted matrices. Can be the same instance as 'a'. Modified.
+     * @return true if every matrix was inverted or false if at least one failed. Not always reliable.
+     */
+    public static boolean invert( DMatrixBatch a , DMatrixBatch inv ) {
+        UtilEjml.assertShape(a.isShape(5, 5), "Expected 5x5 matrices in 'a'");
+        inv.reshape(5, 5, a.count);
+        return invert(a, inv, 0, a.count);
+    }
+
+    /**
+     * Same as {@link #invert(DMatrixBatch, DMatrixBatch)} but only for matrices idx0 to idx1-1.
+     */
+    public static boolean invert( DMatrixBatch a , DMatrixBatch inv , int idx0 , int idx1 ) {
+        final int n = a.count;
+        final double[] A = a.data, INV = inv.data;
+        boolean success = true;
+        for (int k = idx0; k < idx1; k++) {
+            double a11 = A[k], a12 = A[k + n], a13 = A[k + 2*n], a14 = A[k + 3*n], a15 = A[k + 4*n];
+            double a21 = A[k + 5*n], a22 = A[k + 6*n], a23 = A[k + 7*n], a24 = A[k + 8*n], a25 = A[k + 9*n];
+            double a31 = A[k + 10*n], a32 = A[k + 11*n], a33 = A[k + 12*n], a34 = A[k + 13*n], a35 = A[k + 14*n];
+            double a41 = A[k + 15*n], a42 = A[k + 16*n], a43 = A[k + 17*n], a44 = A[k + 18*n], a45 = A[k + 19*n];
+            double a51 = A[k + 20*n], a52 = A[k + 21*n], a53 = A[k + 22*n], a54 = A[k + 23*n], a55 = A[k + 24*n];
+
+            double scale = Math.abs(a11);
+            scale = Math.max(scale, Math.abs(a12));
+            scale = Math.max(scale, Math.abs(a13));
+            scale = Math.max(scale, Math.abs(a14));
+            scale = Math.max(scale, Math.abs(a15));
+            scale = Math.max(scale, Math.abs(a21));
+            scale = Math.max(scale, Math.abs(a22));
+            scale = Math.max(scale, Math.abs(a23));
+            scale = Math.max(scale, Math.abs(a24));
+            scale = Math.max(scale, Math.abs(a25));
+            scale = Math.max(scale, Math.abs(a31));
+            scale = Math.max(scale, Math.abs(a32));
+            scale = Math.max(scale, Math.abs(a33));
+            scale = Math.max(scale, Math.abs(a34));
+            scale = Math.max(scale, Math.abs(a35));
+            scale = Math.max(scale, Math.abs(a41));
+            scale = Math.max(scale, Math.abs(a42));
+            scale = Math.max(scale, Math.abs(a43));
+            scale = Math.max(scale, Math.abs(a44));
+            scale = Math.max(scale, Math.abs(a45));
+            scale = Math.max(scale, Math.abs(a51));
+            scale = Math.max(scale, Math.abs(a52));
+            scale = Math.max(scale, Math.abs(a53));
+            scale = Math.max(scale, Math.abs(a54));
+            scale = Math.max(scale, Math.abs(a55));
+            scale = 1.0/scale;
+            a11 *= scale; a12 *= scale; a13 *= scale; a14 *= scale; a15 *= scale;
+            a21 *= scale; a22 *= scale; a23 *= scale; a24 *= scale; a25 *= scale;
+            a31 *= scale; a32 *= scale; a33 *= scale; a34 *= scale; a35 *= scale;
+            a41 *= scale; a42 *= scale; a43 *= scale; a44 *= scale; a45 *= scale;
+            a51 *= scale; a52 *= scale; a53 *= scale; a54 *= scale; a55 *= scale;
+
+            double m11 =  + a22*( + a33*(a44*a55 - a45*a54) - a34*(a43*a55 - a45*a53) + a35*(a43*a54 - a44*a53)) - a23*( + a32*(a44*a55 - a45*a54) - a34*(a42*a55 - a45*a52) + a35*(a42*a54 - a44*a52)) + a24*( + a32*(a43*a55 - a45*a53) - a33*(a42*a55 - a45*a52) + a35*(a42*a53 - a43*a52)) - a25*( + a32*(a43*a54 - a44*a53) - a33*(a42*a54 - a44*a52) + a34*(a42*a53 - a43*a52));
+            double m12 = -(  + a21*( + a33*(a44*a55 - a45*a54) - a34*(a43*a55 - a45*a53) + a35*(a43*a54 - a44*a53)) - a23*( + a31*(a44*a55 - a45*a54) - a34*(a41*a55 - a45*a51) + a35*(a41*a54 - a44*a51)) + a24*( + a31*(a43*a55 - a45*a53) - a33*(a41*a55 - a45*a51) + a35*(a41*a53 - a43*a51)) - a25*( + a31*(a43*a54 - a44*a53) - a33*(a41*a54 - a44*a51) + a34*(a41*a53 - a43*a51)));
+            double m13 =  + a21*( + a32*(a44*a55 - a45*a54) - a34*(a42*a55 - a45*a52) + a35*(a42*a54 - a44*a52)) - a22*( + a31*(a44*a55 - a45*a54) - a34*(a41*a55 - a45*a51) + a35*(a41*a54 - a44*a51)) + a24*( + a31*(a42*a55 - a45*a52) - a32*(a41*a55 - a45*a51) + a35*(a41*a52 - a42*a51)) - a25*( + a31*(a42*a54 - a44*a52) - a32*(a41*a54 - a44*a51) + a34*(a41*a52 - a42*a51));
+            double m14 = -(  + a21*( + a32*(a43*a55 - a45*a53) - a33*(a42*a55 - a45*a52) + a35*(a42*a53 - a43*a52)) - a22*( + a31*(a43*a55 - a45*a53) - a33*(a41*a55 - a45*a51) + a35*(a41*a53 - a43*a51)) + a23*( + a31*(a42*a55 - a45*a52) - a32*(a41*a55 - a45*a51) + a35*(a41*a52 - a42*a51)) - a25*( + a31*(a42*a53 - a43*a52) - a32*(a41*a53 - a43*a51) + a33*(a41*a52 - a42*a51)));
+            double m15 =  + a21*( + a32*(a43*a54 - a44*a53) - a33*(a42*a54 - a44*a52) + a34*(a42*a53 - a43*a52)) - a22*( + a31*(a43*a54 - a44*a53) - a33*(a41*a54 - a44*a51) + a34*(a41*a53 - a43*a51)) + a23*( + a31*(a42*a54 - a44*a52) - a32*(a41*a54 - a44*a51) + a34*(a41*a52 - a42*a51)) - a24*( + a31*(a42*a53 - a43*a52) - a32*(a41*a53 - a43*a51) + a33*(a41*a52 - a42*a51));
+            double m21 = -(  + a12*( + a33*(a44*a55 - a45*a54) - a34*(a43*a55 - a45*a53) + a35*(a43*a54 - a44*a53)) - a13*( + a32*(a44*a55 - a45*a54) - a34*(a42*a55 - a45*a52) + a35*(a42*a54 - a44*a52)) + a14*( + a32*(a43*a55 - a45*a53) - a33*(a42*a55 - a45*a52) + a35*(a42*a53 - a43*a52)) - a15*( + a32*(a43*a54 - a44*a53) - a33*(a42*a54 - a44*a52) + a34*(a42*a53 - a43*a52)));
+            double m22 =  + a11*( + a33*(a44*a55 - a45*a54) - a34*(a43*a55 - a45*a53) + a35*(a43*a54 - a44*a53)) - a13*( + a31*(a44*a55 - a45*a54) - a34*(a41*a55 - a45*a51) + a35*(a41*a54 - a44*a51)) + a14*( + a31*(a43*a55 - a45*a53) - a33*(a41*a55 - a45*a51) + a35*(a41*a53 - a43*a51)) - a15*( + a31*(a43*a54 - a44*a53) - a33*(a41*a54 - a44*a51) + a34*(a41*a53 - a43*a51));
+            double m23 = -(  + a11*( + a32*(a44*a55 - a45*a54) - a34*(a42*a55 - a45*a52) + a35*(a42*a54 - a44*a52)) - a12*( + a31*(a44*a55 - a45*a54) - a34*(a41*a55 - a45*a51) + a35*(a41*a54 - a44*a51)) + a14*( + a31*(a42*a55 - a45*a52) - a32*(a41*a55 - a45*a51) + a35*(a41*a52 - a42*a51)) - a15*( + a31*(a42*a54 - a44*a52) - a32*(a41*a54 - a44*a51) + a34*(a41*a52 - a42*a51)));
+            double m24 =  + a11*( + a32*(a43*a55 - a45*a53) - a33*(a42*a55 - a45*a52) + a35*(a42*a53 - a43*a52)) - a12*( + a31*(a43*a55 - a45*a53) - a33*(a41*a55 - a45*a51) + a35*(a41*a53 - a43*a51)) + a13*( + a31*(a42*a55 - a45*a52) - a32*(a41*a55 - a45*a51) + a35*(a41*a52 - a42*a51)) - a15*( + a31*(a42*a53 - a43*a52) - a32*(a41*a53 - a43*a51) + a33*(a41*a52 - a42*a51));
+            double m25 = -(  + a11*( + a32*(a43*a54 - a44*a53) - a33*(a42*a54 - a44*a52) + a34*(a42*a53 - a43*a52)) - a12*( + a31*(a43*a54 - a44*a53) - a33*(a41*a54 - a44*a51) + a34*(a41*a53 - a43*a51)) + a13*( + a31*(a42*a54 - a44*a52) - a32*(a41*a54 - a44*a51) + a34*(a41*a52 - a42*a51)) - a14*( + a31*(a42*a53 - a43*a52) - a32*(a41*a53 - a43*a51) + a33*(a41*a52 - a42*a51)));
+            double m31 =  + a12*( + a23*(a44*a55 - a45*a54) - a24*(a43*a55 - a45*a53) + a25*(a43*a54 - a44*a53)) - a13*( + a22*(a44*a55 - a45*a54) - a24*(a42*a55 - a45*a52) + a25*(a42*a54 - a44*a52)) + a14*( + a22*(a43*a55 - a45*a53) - a23*(a42*a55 - a45*a52) + a25*(a42*a53 - a43*a52)) - a15*( + a22*(a43*a54 - a44*a53) - a23*(a42*a54 - a44*a52) + a24*(a42*a53 - a43*a52));
+            double m32 = -(  + a11*( + a23*(a44*a55 - a45*a54) - a24*(a43*a55 - a45*a53) + a25*(a43*a54 - a44*a53)) - a13*( + a21*(a44*a55 - a45*a54) - a24*(a41*a55 - a45*a51) + a25*(a41*a54 - a44*a51)) + a14*( + a21*(a43*a55 - a45*a53) - a23*(a41*a55 - a45*a51) + a25*(a41*a53 - a43*a51)) - a15*( + a21*(a43*a54 - a44*a53) - a23*(a41*a54 - a44*a51) + a24*(a41*a53 - a43*a51)));
+            double m33 =  + a11*( + a22*(a44*a55 - a45*a54) - a24*(a42*a55 - a45*a52) + a25*(a42*a54 - a44*a52)) - a12*( + a21*(a44*a55 - a45*a54) - a24*(a41*a55 - a45*a51) + a25*(a41*a54 - a44*a51)) + a14*( + a21*(a42*a55 - a45*a52) - a22*(a41*a55 - a45*a51) + a25*(a41*a52 - a42*a51)) - a15*( + a21*(a42*a54 - a44*a52) - a22*(a41*a54 - a44*a51) + a24*(a41*a52 - a42*a51));
+            double m34 = -(  + a11*( + a22*(a43*a55 - a45*a53) - a23*(a42*a55 - a45*a52) + a25*(a42*a53 - a43*a52)) - a12*( + a21*(a43*a55 - a45*a53) - a23*(a41*a55 - a45*a51) + a25*(a41*a53 - a43*a51)) + a13*( + a21*(a42*a55 - a45*a52) - a22*(a41*a55 - a45*a51) + a25*(a41*a52 - a42*a51)) - a15*( + a21*(a42*a53 - a43*a52) - a22*(a41*a53 - a43*a51) + a23*(a41*a52 - a42*a51)));
+            double m35 =  + a11*( + a22*(a43*a54 - a44*a53) - a23*(a42*a54 - a44*a52) + a24*(a42*a53 - a43*a52)) - a12*( + a21*(a43*a54 - a44*a53) - a23*(a41*a54 - a44*a51) + a24*(a41*a53 - a43*a51)) + a13*( + a21*(a42*a54 - a44*a52) - a22*(a41*a54 - a44*a51) + a24*(a41*a52 - a42*a51)) - a14*( + a21*(a42*a53 - a43*a52) - a22*(a41*a53 - a43*a51) + a23*(a41*a52 - a42*a51));
+            double m41 = -(  + a12*( + a23*(a34*a55 - a35*a54) - a24*(a33*a55 - a35*a53) + a25*(a33*a54 - a34*a53)) - a13*( + a22*(a34*a55 - a35*a54) - a24*(a32*a55 - a35*a52) + a25*(a32*a54 - a34*a52)) + a14*( + a22*(a33*a55 - a35*a53) - a23*(a32*a55 - a35*a52) + a25*(a32*a53 - a33*a52)) - a15*( + a22*(a33*a54 - a34*a53) - a23*(a32*a54 - a34*a52) + a24*(a32*a53 - a33*a52)));
+            double m42 =  + a11*( + a23*(a34*a55 - a35*a54) - a24*(a33*a55 - a35*a53) + a25*(a33*a54 - a34*a53)) - a13*( + a21*(a34*a55 - a35*a54) - a24*(a31*a55 - a35*a51) + a25*(a31*a54 - a34*a51)) + a14*( + a21*(a33*a55 - a35*a53) - a23*(a31*a55 - a35*a51) + a25*(a31*a53 - a33*a51)) - a15*( + a21*(a33*a54 - a34*a53) - a23*(a31*a54 - a34*a51) + a24*(a31*a53 - a33*a51));
+            double m43 = -(  + a11*( + a22*(a34*a55 - a35*a54) - a24*(a32*a55 - a35*a52) + a25*(a32*a54 - a34*a52)) - a12*( + a21*(a34*a55 - a35*a54) - a24*(a31*a55 - a35*a51) + a25*(a31*a54 - a34*a51)) + a14*( + a21*(a32*a55 - a35*a52) - a22*(a31*a55 - a35*a51) + a25*(a31*a52 - a32*a51)) - a15*( + a21*(a32*a54 - a34*a52) - a22*(a31*a54 - a34*a51) + a24*(a31*a52 - a32*a51)));
+            double m44 =  + a11*( + a22*(a33*a55 - a35*a53) - a23*(a32*a55 - a35*a52) + a25*(a32*a53 - a33*a52)) - a12*( + a21*(a33*a55 - a35*a53) - a23*(a31*a55 - a35*a51) + a25*(a31*a53 - a33*a51)) + a13*( + a21*(a32*a55 - a35*a52) - a22*(a31*a55 - a35*a51) + a25*(a31*a52 - a32*a51)) - a15*( + a21*(a32*a53 - a33*a52) - a22*(a31*a53 - a33*a51) + a23*(a31*a52 - a32*a51));
+            double m45 = -(  + a11*( + a22*(a33*a54 - a34*a53) - a23*(a32*a54 - a34*a52) + a24*(a32*a53 - a33*a52)) - a12*( + a21*(a33*a54 - a34*a53) - a23*(a31*a54 - a34*a51) + a24*(a31*a53 - a33*a51)) + a13*( + a21*(a32*a54 - a34*a52) - a22*(a31*a54 - a34*a51) + a24*(a31*a52 - a32*a51)) - a14*( + a21*(a32*a53 - a33*a52) - a22*(a31*a53 - a33*a51) + a23*(a31*a52 - a32*a51)));
+            double m51 =  + a12*( + a23*(a34*a45 - a35*a44) - a24*(a33*a45 - a35*a43) + a25*(a33*a44 - a34*a43)) - a13*( + a22*(a34*a45 - a35*a44) - a24*(a32*a45 - a35*a42) + a25*(a32*a44 - a34*a42)) + a14*( + a22*(a33*a45 - a35*a43) - a23*(a32*a45 - a35*a42) + a25*(a32*a43 - a33*a42)) - a15*( + a22*(a33*a44 - a34*a43) - a23*(a32*a44 - a34*a42) + a24*(a32*a43 - a33*a42));
+            double m52 = -(  + a11*( + a23*(a34*a45 - a35*a44) - a24*(a33*a45 - a35*a43) + a25*(a33*a44 - a34*a43)) - a13*( + a21*(a34*a45 - a35*a44) - a24*(a31*a45 - a35*a41) + a25*(a31*a44 - a34*a41)) + a14*( + a21*(a33*a45 - a35*a43) - a23*(a31*a45 - a35*a41) + a25*(a31*a43 - a33*a41)) - a15*( + a21*(a33*a44 - a34*a43) - a23*(a31*a44 - a34*a41) + a24*(a31*a43 - a33*a41)));
+            double m53 =  + a11*( + a22*(a34*a45 - a35*a44) - a24*(a32*a45 - a35*a42) + a25*(a32*a44 - a34*a42)) - a12*( + a21*(a34*a45 - a35*a44) - a24*(a31*a45 - a35*a41) + a25*(a31*a44 - a34*a41)) + a14*( + a21*(a32*a45 - a35*a42) - a22*(a31*a45 - a35*a41) + a25*(a31*a42 - a32*a41)) - a15*( + a21*(a32*a44 - a34*a42) - a22*(a31*a44 - a34*a41) + a24*(a31*a42 - a32*a41));
+            double m54 = -(  + a11*( + a22*(a33*a45 - a35*a43) - a23*(a32*a45 - a35*a42) + a25*(a32*a43 - a33*a42)) - a12*( + a21*(a33*a45 - a35*a43) - a23*(a31*a45 - a35*a41) + a25*(a31*a43 - a33*a41)) + a13*( + a21*(a32*a45 - a35*a42) - a22*(a31*a45 - a35*a41) + a25*(a31*a42 - a32*a41)) - a15*( + a21*(a32*a43 - a33*a42) - a22*(a31*a43 - a33*a41) + a23*(a31*a42 - a32*a41)));
+            double m55 =  + a11*( + a22*(a33*a44 - a34*a43) - a23*(a32*a44 - a34*a42) + a24*(a32*a43 - a33*a42)) - a12*( + a21*(a33*a44 - a34*a43) - a23*(a31*a44 - a34*a41) + a24*(a31*a43 - a33*a41)) + a13*( + a21*(a32*a44 - a34*a42) - a22*(a31*a44 - a34*a41) + a24*(a31*a42 - a32*a41)) - a14*( + a21*(a32*a43 - a33*a42) - a22*(a31*a43 - a33*a41) + a23*(a31*a42 - a32*a41));
+
+            double det = (a11*m11 + a12*m12 + a13*m13 + a14*m14 + a15*m15)/scale;
+
+            double invDet = 1.0/det;
+            INV[k] = m11*invDet;
+            INV[k + n] = m21*invDet;
+            INV[k + 2*n] = m31*invDet;
+            INV[k + 3*n] = m41*invDet;
+            INV[k + 4*n] = m51*invDet;
+            INV[k + 5*n] = m12*invDet;
+            INV[k + 6*n] = m22*invDet;
+            INV[k + 7*n] = m32*invDet;
+            INV[k + 8*n] = m42*invDet;
+            INV[k + 9*n] = m52*invDet;
+            INV[k + 10*n] = m13*invDet;
+            INV[k + 11*n] = m23*invDet;
+            INV[k + 12*n] = m33*invDet;
+            INV[k + 13*n] = m43*invDet;
+            INV[k + 14*n] = m53*invDet;
+            INV[k + 15*n] = m14*invDet;
+            INV[k + 16*n] = m24*invDet;
+            INV[k + 17*n] = m34*invDet;
+            INV[k + 18*n] = m44*invDet;
+            INV[k + 19*n] = m54*invDet;
+            INV[k + 20*n] = m15*invDet;
+            INV[k + 21*n] = m25*invDet;
+            INV[k + 22*n] = m35*invDet;
+            INV[k + 23*n] = m45*invDet;
+            INV[k + 24*n] = m55*invDet;
+
+            if (Double.isNaN(det) || Double.isInfinite(det))
+                success = false;
+        }
+        return success;
+    }
+
+    /**
+     * Computes the determinant of every matrix using minor matrices.<br>
+     * WARNING: Potentially less stable than using LU decomposition.
+     *
+     * @param a Input matrices. Not modified.
+     * @param output (Optional) Storage for the determinants. If null or too small a new array is declared.
+     * @return The determinant of each matrix.
+     */
+    public static double[] det( DMatrixBatch a , @Nullable double[] output ) {
+        UtilEjml.assertShape(a.isShape(5, 5), "Expected 5x5 matrices in 'a'");
+        if (output == null || output.length < a.count)
+            output = new double[a.count];
+        det(a, output, 0, a.count);
+        return output;
+    }
+
+    /**
+     * Same as {@link #det(DMatrixBatch, double[])} but only for matrices idx0 to idx1-1.
+     */
+    public static void det( DMatrixBatch a , double[] output , int idx0 , int idx1 ) {
+        final int n = a.count;
+        final double[] A = a.data;
+        for (int k = idx0; k < idx1; k++) {
+            double  a11 = A[k + 6*n];
+            double  a12 = A[k + 7*n];
+            double  a13 = A[k + 8*n];
+            double  a14 = A[k + 9*n];
+            double  a21 = A[k + 11*n];
+            double  a22 = A[k + 12*n];
+            double  a23 = A[k + 13*n];
+            double  a24 = A[k + 14*n];
+            double  a31 = A[k + 16*n];
+            double  a32 = A[k + 17*n];
+            double  a33 = A[k + 18*n];
+            double  a34 = A[k + 19*n];
+            double  a41 = A[k + 21*n];
+            double  a42 = A[k + 22*n];
+            double  a43 = A[k + 23*n];
+            double  a44 = A[k + 24*n];
+
+            double ret = 0;
+            ret += A[k] * ( + a11*( + a22*(a33*a44 - a34*a43) - a23*(a32*a44 - a34*a42) + a24*(a32*a43 - a33*a42)) - a12*( + a21*(a33*a44 - a34*a43) - a23*(a31*a44 - a34*a41) + a24*(a31*a43 - a33*a41)) + a13*( + a21*(a32*a44 - a34*a42) - a22*(a31*a44 - a34*a41) + a24*(a31*a42 - a32*a41)) - a14*( + a21*(a32*a43 - a33*a42) - a22*(a31*a43 - a33*a41) + a23*(a31*a42 - a32*a41)));
+            a11 = A[k + 5*n];
+            a21 = A[k + 10*n];
+            a31 = A[k + 15*n];
+            a41 = A[k + 20*n];
+            ret -= A[k + n] * ( + a11*( + a22*(a33*a44 - a34*a43) - a23*(a32*a44 - a34*a42) + a24*(a32*a43 - a33*a42)) - a12*( + a21*(a33*a44 - a34*a43) - a23*(a31*a44 - a34*a41) + a24*(a31*a43 - a33*a41)) + a13*( + a21*(a32*a44 - a34*a42) - a22*(a31*a44 - a34*a41) + a24*(a31*a42 - a32*a41)) - a14*( + a21*(a32*a43 - a33*a42) - a22*(a31*a43 - a33*a41) + a23*(a31*a42 - a32*a41)));
+            a12 = A[k + 6*n];
+            a22 = A[k + 11*n];
+            a32 = A[k + 16*n];
+            a42 = A[k + 21*n];
+            ret += A[k + 2*n] * ( + a11*( + a22*(a33*a44 - a34*a43) - a23*(a32*a44 - a34*a42) + a24*(a32*a43 - a33*a42)) - a12*( + a21*(a33*a44 - a34*a43) - a23*(a31*a44 - a34*a41) + a24*(a31*a43 - a33*a41)) + a13*( + a21*(a32*a44 - a34*a42) - a22*(a31*a44 - a34*a41) + a24*(a31*a42 - a32*a41)) - a14*( + a21*(a32*a43 - a33*a42) - a22*(a31*a43 - a33*a41) + a23*(a31*a42 - a32*a41)));
+            a13 = A[k + 7*n];
+            a23 = A[k + 12*n];
+            a33 = A[k + 17*n];
+            a43 = A[k + 22*n];
+            ret -= A[k + 3*n] * ( + a11*( + a22*(a33*a44 - a34*a43) - a23*(a32*a44 - a34*a42) + a24*(a32*a43 - a33*a42)) - a12*( + a21*(a33*a44 - a34*a43) - a23*(a31*a44 - a34*a41) + a24*(a31*a43 - a33*a41)) + a13*( + a21*(a32*a44 - a34*a42) - a22*(a31*a44 - a34*a41) + a24*(a31*a42 - a32*a41)) - a14*( + a21*(a32*a43 - a33*a42) - a22*(a31*a43 - a33*a41) + a23*(a31*a42 - a32*a41)));
+            a14 = A[k + 8*n];
+            a24 = A[k + 13*n];
+            a34 = A[k + 18*n];
+            a44 = A[k + 23*n];
+            ret += A[k + 4*n] * ( + a11*( + a22*(a33*a44 - a34*a43) - a23*(a32*a44 - a34*a42) + a24*(a32*a43 - a33*a42)) - a12*( + a21*(a33*a44 - a34*a43) - a23*(a31*a44 - a34*a41) + a24*(a31*a43 - a33*a41)) + a13*( + a21*(a32*a44 - a34*a42) - a22*(a31*a44 - a34*a41) + a24*(a31*a42 - a32*a41)) - a14*( + a21*(a32*a43 - a33*a42) - a22*(a31*a43 - a33*a41) + a23*(a31*a42 - a32*a41)));
+
+            output[k] = ret;
+        }
+    }
+
+    /**
+     * Solves the linear system a*x = b for every matrix in the batch using minor matrices. Scaling is applied
+     * to improve stability against overflow and underflow.
+     *
+     * WARNING: Potentially less stable than using LU decomposition.
+     *
+     * @param a Square matrices. Not modified.
+     * @param b Batch of 5 element column vectors. Not modified.
+     * @param x (Output) Solution. Can be the same instance as 'b'. Modified.
+     * @return true if every system was solved or false if at least one failed. Not always reliable.
+     */
+    public static boolean solve( DMatrixBatch a , DMatrixBatch b , DMatrixBatch x ) {
+        UtilEjml.assertShape(a.isShape(5, 5), "Expected 5x5 matrices in 'a'");
+        UtilEjml.assertShape(b.isShape(5, 1), "Expected 5 element column vectors in 'b'");
+        UtilEjml.assertShape(a.count, b.count, "'a' and 'b' must have the same number of matrices");
+        x.reshape(5, 1, a.count);
+        return solve(a, b, x, 0, a.count);
+    }
+
+    /**
+     * Same as {@link #solve(DMatrixBatch, DMatrixBatch, DMatrixBatch)} but only for matrices idx0 to idx1-1.
+     */
+    public static boolean solve( DMatrixBatch a , DMatrixBatch b , DMatrixBatch x , int idx0 , int idx1 ) {
+        final int n = a.count;
+        final double[] A = a.data, B = b.data, X = x.data;
+        boolean success = true;
+        for (int k = idx0; k < idx1; k++) {
+            double a11 = A[k], a12 = A[k + n], a13 = A[k + 2*n], a14 = A[k + 3*n], a15 = A[k + 4*n];
+            double a21 = A[k + 5*n], a22 = A[k + 6*n], a23 = A[k + 7*n], a24 = A[k + 8*n], a25 = A[k + 9*n];
+            double a31 = A[k + 10*n], a32 = A[k + 11*n], a33 = A[k + 12*n], a34 = A[k + 13*n], a35 = A[k + 14*n];
+            double a41 = A[k + 15*n], a42 = A[k + 16*n], a43 = A[k + 17*n], a44 = A[k + 18*n], a45 = A[k + 19*n];
+            double a51 = A[k + 20*n], a52 = A[k + 21*n], a53 = A[k + 22*n], a54 = A[k + 23*n], a55 = A[k + 24*n];
+
+            double scale = Math.abs(a11);
+            scale = Math.max(scale, Math.abs(a12));
+            scale = Math.max(scale, Math.abs(a13));
+            scale = Math.max(scale, Math.abs(a14));
+            scale = Math.max(scale, Math.abs(a15));
+            scale = Math.max(scale, Math.abs(a21));
+            scale = Math.max(scale, Math.abs(a22));
+            scale = Math.max(scale, Math.abs(a23));
+            scale = Math.max(scale, Math.abs(a24));
+            scale = Math.max(scale, Math.abs(a25));
+            scale = Math.max(scale, Math.abs(a31));
+            scale = Math.max(scale, Math.abs(a32));
+            scale = Math.max(scale, Math.abs(a33));
+            scale = Math.max(scale, Math.abs(a34));
+            scale = Math.max(scale, Math.abs(a35));
+            scale = Math.max(scale, Math.abs(a41));
+            scale = Math.max(scale, Math.abs(a42));
+            scale = Math.max(scale, Math.abs(a43));
+            scale = Math.max(scale, Math.abs(a44));
+            scale = Math.max(scale, Math.abs(a45));
+            scale = Math.max(scale, Math.abs(a51));
+            scale = Math.max(scale, Math.abs(a52));
+            scale = Math.max(scale, Math.abs(a53));
+            scale = Math.max(scale, Math.abs(a54));
+            scale = Math.max(scale, Math.abs(a55));
+            scale = 1.0/scale;
+            a11 *= scale; a12 *= scale; a13 *= scale; a14 *= scale; a15 *= scale;
+            a21 *= scale; a22 *= scale; a23 *= scale; a24 *= scale; a25 *= scale;
+            a31 *= scale; a32 *= scale; a33 *= scale; a34 *= scale; a35 *= scale;
+            a41 *= scale; a42 *= scale; a43 *= scale; a44 *= scale; a45 *= scale;
+            a51 *= scale; a52 *= scale; a53 *= scale; a54 *= scale; a55 *= scale;
+
+            double m11 =  + a22*( + a33*(a44*a55 - a45*a54) - a34*(a43*a55 - a45*a53) + a35*(a43*a54 - a44*a53)) - a23*( + a32*(a44*a55 - a45*a54) - a34*(a42*a55 - a45*a52) + a35*(a42*a54 - a44*a52)) + a24*( + a32*(a43*a55 - a45*a53) - a33*(a42*a55 - a45*a52) + a35*(a42*a53 - a43*a52)) - a25*( + a32*(a43*a54 - a44*a53) - a33*(a42*a54 - a44*a52) + a34*(a42*a53 - a43*a52));
+            double m12 = -(  + a21*( + a33*(a44*a55 - a45*a54) - a34*(a43*a55 - a45*a53) + a35*(a43*a54 - a44*a53)) - a23*( + a31*(a44*a55 - a45*a54) - a34*(a41*a55 - a45*a51) + a35*(a41*a54 - a44*a51)) + a24*( + a31*(a43*a55 - a45*a53) - a33*(a41*a55 - a45*a51) + a35*(a41*a53 - a43*a51)) - a25*( + a31*(a43*a54 - a44*a53) - a33*(a41*a54 - a44*a51) + a34*(a41*a53 - a43*a51)));
+            double m13 =  + a21*( + a32*(a44*a55 - a45*a54) - a34*(a42*a55 - a45*a52) + a35*(a42*a54 - a44*a52)) - a22*( + a31*(a44*a55 - a45*a54) - a34*(a41*a55 - a45*a51) + a35*(a41*a54 - a44*a51)) + a24*( + a31*(a42*a55 - a45*a52) - a32*(a41*a55 - a45*a51) + a35*(a41*a52 - a42*a51)) - a25*( + a31*(a42*a54 - a44*a52) - a32*(a41*a54 - a44*a51) + a34*(a41*a52 - a42*a51));
+            double m14 = -(  + a21*( + a32*(a43*a55 - a45*a53) - a33*(a42*a55 - a45*a52) + a35*(a42*a53 - a43*a52)) - a22*( + a31*(a43*a55 - a45*a53) - a33*(a41*a55 - a45*a51) + a35*(a41*a53 - a43*a51)) + a23*( + a31*(a42*a55 - a45*a52) - a32*(a41*a55 - a45*a51) + a35*(a41*a52 - a42*a51)) - a25*( + a31*(a42*a53 - a43*a52) - a32*(a41*a53 - a43*a51) + a33*(a41*a52 - a42*a51)));
+            double m15 =  + a21*( + a32*(a43*a54 - a44*a53) - a33*(a42*a54 - a44*a52) + a34*(a42*a53 - a43*a52)) - a22*( + a31*(a43*a54 - a44*a53) - a33*(a41*a54 - a44*a51) + a34*(a41*a53 - a43*a51)) + a23*( + a31*(a42*a54 - a44*a52) - a32*(a41*a54 - a44*a51) + a34*(a41*a52 - a42*a51)) - a24*( + a31*(a42*a53 - a43*a52) - a32*(a41*a53 - a43*a51) + a33*(a41*a52 - a42*a51));
+            double m21 = -(  + a12*( + a33*(a44*a55 - a45*a54) - a34*(a43*a55 - a45*a53) + a35*(a43*a54 - a44*a53)) - a13*( + a32*(a44*a55 - a45*a54) - a34*(a42*a55 - a45*a52) + a35*(a42*a54 - a44*a52)) + a14*( + a32*(a43*a55 - a45*a53) - a33*(a42*a55 - a45*a52) + a35*(a42*a53 - a43*a52)) - a15*( + a32*(a43*a54 - a44*a53) - a33*(a42*a54 - a44*a52) + a34*(a42*a53 - a43*a52)));
+            double m22 =  + a11*( + a33*(a44*a55 - a45*a54) - a34*(a43*a55 - a45*a53) + a35*(a43*a54 - a44*a53)) - a13*( + a31*(a44*a55 - a45*a54) - a34*(a41*a55 - a45*a51) + a35*(a41*a54 - a44*a51)) + a14*( + a31*(a43*a55 - a45*a53) - a33*(a41*a55 - a45*a51) + a35*(a41*a53 - a43*a51)) - a15*( + a31*(a43*a54 - a44*a53) - a33*(a41*a54 - a44*a51) + a34*(a41*a53 - a43*a51));
+            double m23 = -(  + a11*( + a32*(a44*a55 - a45*a54) - a34*(a42*a55 - a45*a52) + a35*(a42*a54 - a44*a52)) - a12*( + a31*(a44*a55 - a45*a54) - a34*(a41*a55 - a45*a51) + a35*(a41*a54 - a44*a51)) + a14*( + a31*(a42*a55 - a45*a52) - a32*(a41*a55 - a45*a51) + a35*(a41*a52 - a42*a51)) - a15*( + a31*(a42*a54 - a44*a52) - a32*(a41*a54 - a44*a51) + a34*(a41*a52 - a42*a51)));
+            double m24 =  + a11*( + a32*(a43*a55 - a45*a53) - a33*(a42*a55 - a45*a52) + a35*(a42*a53 - a43*a52)) - a12*( + a31*(a43*a55 - a45*a53) - a33*(a41*a55 - a45*a51) + a35*(a41*a53 - a43*a51)) + a13*( + a31*(a42*a55 - a45*a52) - a32*(a41*a55 - a45*a51) + a35*(a41*a52 - a42*a51)) - a15*( + a31*(a42*a53 - a43*a52) - a32*(a41*a53 - a43*a51) + a33*(a41*a52 - a42*a51));
+            double m25 = -(  + a11*( + a32*(a43*a54 - a44*a53) - a33*(a42*a54 - a44*a52) + a34*(a42*a53 - a43*a52)) - a12*( + a31*(a43*a54 - a44*a53) - a33*(a41*a54 - a44*a51) + a34*(a41*a53 - a43*a51)) + a13*( + a31*(a42*a54 - a44*a52) - a32*(a41*a54 - a44*a51) + a34*(a41*a52 - a42*a51)) - a14*( + a31*(a42*a53 - a43*a52) - a32*(a41*a53 - a43*a51) + a33*(a41*a52 - a42*a51)));
+            double m31 =  + a12*( + a23*(a44*a55 - a45*a54) - a24*(a43*a55 - a45*a53) + a25*(a43*a54 - a44*a53)) - a13*( + a22*(a44*a55 - a45*a54) - a24*(a42*a55 - a45*a52) + a25*(a42*a54 - a44*a52)) + a14*( + a22*(a43*a55 - a45*a53) - a23*(a42*a55 - a45*a52) + a25*(a42*a53 - a43*a52)) - a15*( + a22*(a43*a54 - a44*a53) - a23*(a42*a54 - a44*a52) + a24*(a42*a53 - a43*a52));
+            double m32 = -(  + a11*( + a23*(a44*a55 - a45*a54) - a24*(a43*a55 - a45*a53) + a25*(a43*a54 - a44*a53)) - a13*( + a21*(a44*a55 - a45*a54) - a24*(a41*a55 - a45*a51) + a25*(a41*a54 - a44*a51)) + a14*( + a21*(a43*a55 - a45*a53) - a23*(a41*a55 - a45*a51) + a25*(a41*a53 - a43*a51)) - a15*( + a21*(a43*a54 - a44*a53) - a23*(a41*a54 - a44*a51) + a24*(a41*a53 - a43*a51)));
+            double m33 =  + a11*( + a22*(a44*a55 - a45*a54) - a24*(a42*a55 - a45*a52) + a25*(a42*a54 - a44*a52)) - a12*( + a21*(a44*a55 - a45*a54) - a24*(a41*a55 - a45*a51) + a25*(a41*a54 - a44*a51)) + a14*( + a21*(a42*a55 - a45*a52) - a22*(a41*a55 - a45*a51) + a25*(a41*a52 - a42*a51)) - a15*( + a21*(a42*a54 - a44*a52) - a22*(a41*a54 - a44*a51) + a24*(a41*a52 - a42*a51));
+            double m34 = -(  + a11*( + a22*(a43*a55 - a45*a53) - a23*(a42*a55 - a45*a52) + a25*(a42*a53 - a43*a52)) - a12*( + a21*(a43*a55 - a45*a53) - a23*(a41*a55 - a45*a51) + a25*(a41*a53 - a43*a51)) + a13*( + a21*(a42*a55 - a45*a52) - a22*(a41*a55 - a45*a51) + a25*(a41*a52 - a42*a51)) - a15*( + a21*(a42*a53 - a43*a52) - a22*(a41*a53 - a43*a51) + a23*(a41*a52 - a42*a51)));
+            double m35 =  + a11*( + a22*(a43*a54 - a44*a53) - a23*(a42*a54 - a44*a52) + a24*(a42*a53 - a43*a52)) - a12*( + a21*(a43*a54 - a44*a53) - a23*(a41*a54 - a44*a51) + a24*(a41*a53 - a43*a51)) + a13*( + a21*(a42*a54 - a44*a52) - a22*(a41*a54 - a44*a51) + a24*(a41*a52 - a42*a51)) - a14*( + a21*(a42*a53 - a43*a52) - a22*(a41*a53 - a43*a51) + a23*(a41*a52 - a42*a51));
+            double m41 = -(  + a12*( + a23*(a34*a55 - a35*a54) - a24*(a33*a55 - a35*a53) + a25*(a33*a54 - a34*a53)) - a13*( + a22*(a34*a55 - a35*a54) - a24*(a32*a55 - a35*a52) + a25*(a32*a54 - a34*a52)) + a14*( + a22*(a33*a55 - a35*a53) - a23*(a32*a55 - a35*a52) + a25*(a32*a53 - a33*a52)) - a15*( + a22*(a33*a54 - a34*a53) - a23*(a32*a54 - a34*a52) + a24*(a32*a53 - a33*a52)));
+            double m42 =  + a11*( + a23*(a34*a55 - a35*a54) - a24*(a33*a55 - a35*a53) + a25*(a33*a54 - a34*a53)) - a13*( + a21*(a34*a55 - a35*a54) - a24*(a31*a55 - a35*a51) + a25*(a31*a54 - a34*a51)) + a14*( + a21*(a33*a55 - a35*a53) - a23*(a31*a55 - a35*a51) + a25*(a31*a53 - a33*a51)) - a15*( + a21*(a33*a54 - a34*a53) - a23*(a31*a54 - a34*a51) + a24*(a31*a53 - a33*a51));
+            double m43 = -(  + a11*( + a22*(a34*a55 - a35*a54) - a24*(a32*a55 - a35*a52) + a25*(a32*a54 - a34*a52)) - a12*( + a21*(a34*a55 - a35*a54) - a24*(a31*a55 - a35*a51) + a25*(a31*a54 - a34*a51)) + a14*( + a21*(a32*a55 - a35*a52) - a22*(a31*a55 - a35*a51) + a25*(a31*a52 - a32*a51)) - a15*( + a21*(a32*a54 - a34*a52) - a22*(a31*a54 - a34*a51) + a24*(a31*a52 - a32*a51)));
+            double m44 =  + a11*( + a22*(a33*a55 - a35*a53) - a23*(a32*a55 - a35*a52) + a25*(a32*a53 - a33*a52)) - a12*( + a21*(a33*a55 - a35*a53) - a23*(a31*a55 - a35*a51) + a25*(a31*a53 - a33*a51)) + a13*( + a21*(a32*a55 - a35*a52) - a22*(a31*a55 - a35*a51) + a25*(a31*a52 - a32*a51)) - a15*( + a21*(a32*a53 - a33*a52) - a22*(a31*a53 - a33*a51) + a23*(a31*a52 - a32*a51));
+            double m45 = -(  + a11*( + a22*(a33*a54 - a34*a53) - a23*(a32*a54 - a34*a52) + a24*(a32*a53 - a33*a52)) - a12*( + a21*(a33*a54 - a34*a53) - a23*(a31*a54 - a34*a51) + a24*(a31*a53 - a33*a51)) + a13*( + a21*(a32*a54 - a34*a52) - a22*(a31*a54 - a34*a51) + a24*(a31*a52 - a32*a51)) - a14*( + a21*(a32*a53 - a33*a52) - a22*(a31*a53 - a33*a51) + a23*(a31*a52 - a32*a51)));
+            double m51 =  + a12*( + a23*(a34*a45 - a35*a44) - a24*(a33*a45 - a35*a43) + a25*(a33*a44 - a34*a43)) - a13*( + a22*(a34*a45 - a35*a44) - a24*(a32*a45 - a35*a42) + a25*(a32*a44 - a34*a42)) + a14*( + a22*(a33*a45 - a35*a43) - a23*(a32*a45 - a35*a42) + a25*(a32*a43 - a33*a42)) - a15*( + a22*(a33*a44 - a34*a43) - a23*(a32*a44 - a34*a42) + a24*(a32*a43 - a33*a42));
+            double m52 = -(  + a11*( + a23*(a34*a45 - a35*a44) - a24*(a33*a45 - a35*a43) + a25*(a33*a44 - a34*a43)) - a13*( + a21*(a34*a45 - a35*a44) - a24*(a31*a45 - a35*a41) + a25*(a31*a44 - a34*a41)) + a14*( + a21*(a33*a45 - a35*a43) - a23*(a31*a45 - a35*a41) + a25*(a31*a43 - a33*a41)) - a15*( + a21*(a33*a44 - a34*a43) - a23*(a31*a44 - a34*a41) + a24*(a31*a43 - a33*a41)));
+            double m53 =  + a11*( + a22*(a34*a45 - a35*a44) - a24*(a32*a45 - a35*a42) + a25*(a32*a44 - a34*a42)) - a12*( + a21*(a34*a45 - a35*a44) - a24*(a31*a45 - a35*a41) + a25*(a31*a44 - a34*a41)) + a14*( + a21*(a32*a45 - a35*a42) - a22*(a31*a45 - a35*a41) + a25*(a31*a42 - a32*a41)) - a15*( + a21*(a32*a44 - a34*a42) - a22*(a31*a44 - a34*a41) + a24*(a31*a42 - a32*a41));
+            double m54 = -(  + a11*( + a22*(a33*a45 - a35*a43) - a23*(a32*a45 - a35*a42) + a25*(a32*a43 - a33*a42)) - a12*( + a21*(a33*a45 - a35*a43) - a23*(a31*a45 - a35*a41) + a25*(a31*a43 - a33*a41)) + a13*( + a21*(a32*a45 - a35*a42) - a22*(a31*a45 - a35*a41) + a25*(a31*a42 - a32*a41)) - a15*( + a21*(a32*a43 - a33*a42) - a22*(a31*a43 - a33*a41) + a23*(a31*a42 - a32*a41)));
+            double m55 =  + a11*( + a22*(a33*a44 - a34*a43) - a23*(a32*a44 - a34*a42) + a24*(a32*a43 - a33*a42)) - a12*( + a21*(a33*a44 - a34*a43) - a23*(a31*a44 - a34*a41) + a24*(a31*a43 - a33*a41)) + a13*( + a21*(a32*a44 - a34*a42) - a22*(a31*a44 - a34*a41) + a24*(a31*a42 - a32*a41)) - a14*( + a21*(a32*a43 - a33*a42) - a22*(a31*a43 - a33*a41) + a23*(a31*a42 - a32*a41));
+
+            double det = (a11*m11 + a12*m12 + a13*m13 + a14*m14 + a15*m15)/scale;
+
+            double invDet = 1.0/det;
+            double b1 = B[k], b2 = B[k + n], b3 = B[k + 2*n], b4 = B[k + 3*n], b5 = B[k + 4*n];
+            X[k] = (m11*b1 + m21*b2 + m31*b3 + m41*b4 + m51*b5)*invDet;
+            X[k + n] = (m12*b1 + m22*b2 + m32*b3 + m42*b4 + m52*b5)*invDet;
+            X[k + 2*n] = (m13*b1 + m23*b2 + m33*b3 + m43*b4 + m53*b5)*invDet;
+            X[k + 3*n] = (m14*b1 + m24*b2 + m34*b3 + m44*b4 + m54*b5)*invDet;
+            X[k + 4*n] = (m15*b1 + m25*b2 + m35*b3 + m45*b4 + m55*b5)*invDet;
+
+            if (Double.isNaN(det) || Double.isInfinite(det))
+                success = false;
+        }
+        return success;
+    }
+
+    /**
+     * Performs a lower Cholesky decomposition of every matrix in 'A' and stores the results in A.
+     *
+     * @param A (Input) SPD matrices. (Output) lower cholesky.
+     * @return true if every decomposition was successful or false if at least one failed. Not always reliable.
+     */
+    public static boolean cholL( DMatrixBatch A ) {
+        UtilEjml.assertShape(A.isShape(5, 5), "Expected 5x5 matrices in 'A'");
+        return cholL(A, 0, A.count);
+    }
+
+    /**
+     * Same as {@link #cholL(DMatrixBatch)} but only for matrices idx0 to idx1-1.
+     */
+    public static boolean cholL( DMatrixBatch A , int idx0 , int idx1 ) {
+        final int n = A.count;
+        final double[] D = A.data;
+        boolean success = true;
+        for (int k = idx0; k < idx1; k++) {
+            double a11 = D[k], a12 = D[k + n], a13 = D[k + 2*n], a14 = D[k + 3*n], a15 = D[k + 4*n];
+            double a21 = D[k + 5*n], a22 = D[k + 6*n], a23 = D[k + 7*n], a24 = D[k + 8*n], a25 = D[k + 9*n];
+            double a31 = D[k + 10*n], a32 = D[k + 11*n], a33 = D[k + 12*n], a34 = D[k + 13*n], a35 = D[k + 14*n];
+            double a41 = D[k + 15*n], a42 = D[k + 16*n], a43 = D[k + 17*n], a44 = D[k + 18*n], a45 = D[k + 19*n];
+            double a51 = D[k + 20*n], a52 = D[k + 21*n], a53 = D[k + 22*n], a54 = D[k + 23*n], a55 = D[k + 24*n];
+
+            a11 = Math.sqrt(a11);
+            a21 = (a21)/a11;
+            a22 = Math.sqrt(a22 - a21*a21);
+            a31 = (a31)/a11;
+            a32 = (a32 - a31*a21)/a22;
+            a33 = Math.sqrt(a33 - a31*a31 - a32*a32);
+            a41 = (a41)/a11;
+            a42 = (a42 - a41*a21)/a22;
+            a43 = (a43 - a41*a31 - a42*a32)/a33;
+            a44 = Math.sqrt(a44 - a41*a41 - a42*a42 - a43*a43);
+            a51 = (a51)/a11;
+            a52 = (a52 - a51*a21)/a22;
+            a53 = (a53 - a51*a31 - a52*a32)/a33;
+            a54 = (a54 - a51*a41 - a52*a42 - a53*a43)/a44;
+            a55 = Math.sqrt(a55 - a51*a51 - a52*a52 - a53*a53 - a54*a54);
+            D[k] = a11; D[k + n] = 0; D[k + 2*n] = 0; D[k + 3*n] = 0; D[k + 4*n] = 0;
+            D[k + 5*n] = a21; D[k + 6*n] = a22; D[k + 7*n] = 0; D[k + 8*n] = 0; D[k + 9*n] = 0;
+            D[k + 10*n] = a31; D[k + 11*n] = a32; D[k + 12*n] = a33; D[k + 13*n] = 0; D[k + 14*n] = 0;
+            D[k + 15*n] = a41; D[k + 16*n] = a42; D[k + 17*n] = a43; D[k + 18*n] = a44; D[k + 19*n] = 0;
+            D[k + 20*n] = a51; D[k + 21*n] = a52; D[k + 22*n] = a53; D[k + 23*n] = a54; D[k + 24*n] = a55;
+
+            if (UtilEjml.isUncountable(a55))
+                success = false;
+        }
+        return success;
+    }
+
+}
+
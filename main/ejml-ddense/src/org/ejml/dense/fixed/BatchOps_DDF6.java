@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.fixed;
+
+import javax.annotation.Generated;
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixBatch;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * <p>Operations on a batch of 6 x 6 matrices or 6 element vectors. Every matrix
+ * in the batch is processed with the same unrolled code as CommonOps_DDF6.</p>
+ *
+ * <p>Each operation has a variant which only processes the matrices from idx0 to idx1-1. These variants
+ * don't check their inputs and are intended for splitting a batch up between threads.</p>
+ *
+ * <p>DO NOT MODIFY. Automatically generated code created by GenerateBatchOps_DDF</p>
+ *
+ * @author Peter Abeles
+ */
+@Generated("org.ejml.dense.fixed.GenerateBatchOps_DDF")
+public class BatchOps_DDF6 {
+    /**
+     * <p>Performs the following operation on every matrix in the batch:<br>
+     * <br>
+     * c = a * b <br>
+     * </p>
+     *
+     * <p>
+     * C can be the same instance as A and/or B.
+     * </p>
+     *
+     * @param a The left matrices in the multiplication operation. Not modified.
+     * @param b The right matrices in the multiplication operation. Not modified.
+     * @param c (Output) Where the results of the operation are stored. Modified.
+     */
+    public static void mult( DMatrixBatch a , DMatrixBatch b , DMatrixBatch c ) {
+        UtilEjml.assertShape(a.isShape(6, 6), "Expected 6x6 matrices in 'a'");
+        UtilEjml.assertShape(b.isShape(6, 6), "Expected 6x6 matrices in 'b'");
+        UtilEjml.assertShape(a.count, b.count, "'a' and 'b' must have the same number of matrices");
+        c.reshape(6, 6, a.count);
+        mult(a, b, c, 0, a.count);
+    }
+
+    /**
+     * Same as {@link #mult(DMatrixBatch, DMatrixBatch, DMatrixBatch)} but only for matrices idx0 to idx1-1.
+     */
+    public static void mult( DMatrixBatch a , DMatrixBatch b , DMatrixBatch c , int idx0 , int idx1 ) {
+        final int n = a.count;
+        final double[] A = a.data, B = b.data, C = c.data;
+        for (int k = idx0; k < idx1; k++) {
+            double a11 = A[k], a12 = A[k + n], a13 = A[k + 2*n], a14 = A[k + 3*n], a15 = A[k + 4*n], a16 = A[k + 5*n];
+            double a21 = A[k + 6*n], a22 = A[k + 7*n], a23 = A[k + 8*n], a24 = A[k + 9*n], a25 = A[k + 10*n], a26 = A[k + 11*n];
+            double a31 = A[k + 12*n], a32 = A[k + 13*n], a33 = A[k + 14*n], a34 = A[k + 15*n], a35 = A[k + 16*n], a36 = A[k + 17*n];
+            double a41 = A[k + 18*n], a42 = A[k + 19*n], a43 = A[k + 20*n], a44 = A[k + 21*n], a45 = A[k + 22*n], a46 = A[k + 23*n];
+            double a51 = A[k + 24*n], a52 = A[k + 25*n], a53 = A[k + 26*n], a54 = A[k + 27*n], a55 = A[k + 28*n], a56 = A[k + 29*n];
+            double a61 = A[k + 30*n], a62 = A[k + 31*n], a63 = A[k + 32*n], a64 = A[k + 33*n], a65 = A[k + 34*n], a66 = A[k + 35*n];
+
+            double b11 = B[k], b12 = B[k + n], b13 = B[k + 2*n], b14 = B[k + 3*n], b15 = B[k + 4*n], b16 = B[k + 5*n];
+            double b21 = B[k + 6*n], b22 = B[k + 7*n], b23 = B[k + 8*n], b24 = B[k + 9*n], b25 = B[k + 10*n], b26 = B[k + 11*n];
+            double b31 = B[k + 12*n], b32 = B[k + 13*n], b33 = B[k + 14*n], b34 = B[k + 15*n], b35 = B[k + 16*n], b36 = B[k + 17*n];
+            double b41 = B[k + 18*n], b42 = B[k + 19*n], b43 = B[k + 20*n], b44 = B[k + 21*n], b45 = B[k + 22*n], b46 = B[k + 23*n];
+            double b51 = B[k + 24*n], b52 = B[k + 25*n], b53 = B[k + 26*n], b54 = B[k + 27*n], b55 = B[k + 28*n], b56 = B[k + 29*n];
+            double b61 = B[k + 30*n], b62 = B[k + 31*n], b63 = B[k + 32*n], b64 = B[k + 33*n], b65 = B[k + 34*n], b66 = B[k + 35*n];
+
+            C[k] = a11*b11 + a12*b21 + a13*b31 + a14*b41 + a15*b51 + a16*b61;
+            C[k + n] = a11*b12 + a12*b22 + a13*b32 + a14*b42 + a15*b52 + a16*b62;
+            C[k + 2*n] = a11*b13 + a12*b23 + a13*b33 + a14*b43 + a15*b53 + a16*b63;
+            C[k + 3*n] = a11*b14 + a12*b24 + a13*b34 + a14*b44 + a15*b54 + a16*b64;
+            C[k + 4*n] = a11*b15 + a12*b25 + a13*b35 + a14*b45 + a15*b55 + a16*b65;
+            C[k + 5*n] = a11*b16 + a12*b26 + a13*b36 + a14*b46 + a15*b56 + a16*b66;
+            C[k + 6*n] = a21*b11 + a22*b21 + a23*b31 + a24*b41 + a25*b51 + a26*b61;
+            C[k + 7*n] = a21*b12 + a22*b22 + a23*b32 + a24*b42 + a25*b52 + a26*b62;
+            C[k + 8*n] = a21*b13 + a22*b23 + a23*b33 + a24*b43 + a25*b53 + a26*b63;
+            C[k + 9*n] = a21*b14 + a22*b24 + a23*b34 + a24*b44 + a25*b54 + a26*b64;
+            C[k + 10*n] = a21*b15 + a22*b25 + a23*b35 + a24*b45 + a25*b55 + a26*b65;
+            C[k + 11*n] = a21*b16 + a22*b26 + a23*b36 + a24*b46 + a25*b56 + a26*b66;
+            C[k + 12*n] = a31*b11 + a32*b21 + a33*b31 + a34*b41 + a35*b51 + a36*b61;
+            C[k + 13*n] = a31*b12 + a32*b22 + a33*b32 + a34*b42 + a35*b52 + a36*b62;
+            C[k + 14*n] = a31*b13 + a32*b23 + a33*b33 + a34*b43 + a35*b53 + a36*b63;
+            C[k + 15*n] = a31*b14 + a32*b24 + a33*b34 + a34*b44 + a35*b54 + a36*b64;
+            C[k + 16*n] = a31*b15 + a32*b25 + a33*b35 + a34*b45 + a35*b55 + a36*b65;
+            C[k + 17*n] = a31*b16 + a32*b26 + a33*b36 + a34*b46 + a35*b56 + a36*b66;
+            C[k + 18*n] = a41*b11 + a42*b21 + a43*b31 + a44*b41 + a45*b51 + a46*b61;
+            C[k + 19*n] = a41*b12 + a42*b22 + a43*b32 + a44*b42 + a45*b52 + a46*b62;
+            C[k + 20*n] = a41*b13 + a42*b23 + a43*b33 + a44*b43 + a45*b53 + a46*b63;
+            C[k + 21*n] = a41*b14 + a42*b24 + a43*b34 + a44*b44 + a45*b54 + a46*b64;
+            C[k + 22*n] = a41*b15 + a42*b25 + a43*b35 + a44*b45 + a45*b55 + a46*b65;
+            C[k + 23*n] = a41*b16 + a42*b26 + a43*b36 + a44*b46 + a45*b56 + a46*b66;
+            C[k + 24*n] = a51*b11 + a52*b21 + a53*b31 + a54*b41 + a55*b51 + a56*b61;
+            C[k + 25*n] = a51*b12 + a52*b22 + a53*b32 + a54*b42 + a55*b52 + a56*b62;
+            C[k + 26*n] = a51*b13 + a52*b23 + a53*b33 + a54*b43 + a55*b53 + a56*b63;
+            C[k + 27*n] = a51*b14 + a52*b24 + a53*b34 + a54*b44 + a55*b54 + a56*b64;
+            C[k + 28*n] = a51*b15 + a52*b25 + a53*b35 + a54*b45 + a55*b55 + a56*b65;
+            C[k + 29*n] = a51*b16 + a52*b26 + a53*b36 + a54*b46 + a55*b56 + a56*b66;
+            C[k + 30*n] = a61*b11 + a62*b21 + a63*b31 + a64*b41 + a65*b51 + a66*b61;
+            C[k + 31*n] = a61*b12 + a62*b22 + a63*b32 + a64*b42 + a65*b52 + a66*b62;
+            C[k + 32*n] = a61*b13 + a62*b23 + a63*b33 + a64*b43 + a65*b53 + a66*b63;
+            C[k + 33*n] = a61*b14 + a62*b24 + a63*b34 + a64*b44 + a65*b54 + a66*b64;
+            C[k + 34*n] = a61*b15 + a62*b25 + a63*b35 + a64*b45 + a65*b55 + a66*b65;
+            C[k + 35*n] = a61*b16 + a62*b26 + a63*b36 + a64*b46 + a65*b56 + a66*b66;
+        }
+    }
+
+    /**
+     * Performs a lower Cholesky decomposition of every matrix in 'A' and stores the results in A.
+     *
+     * @param A (Input) SPD matrices. (Output) lower cholesky.
+     * @return true if every decomposition was successful or false if at least one failed. Not always reliable.
+     */
+    public static boolean cholL( DMatrixBatch A ) {
+        UtilEjml.assertShape(A.isShape(6, 6), "Expected 6x6 matrices in 'A'");
+        return cholL(A, 0, A.count);
+    }
+
+    /**
+     * Same as {@link #cholL(DMatrixBatch)} but only for matrices idx0 to idx1-1.
+     */
+    public static boolean cholL( DMatrixBatch A , int idx0 , int idx1 ) {
+        final int n = A.count;
+        final double[] D = A.data;
+        boolean success = true;
+        for (int k = idx0; k < idx1; k++) {
+            double a11 = D[k], a12 = D[k + n], a13 = D[k + 2*n], a14 = D[k + 3*n], a15 = D[k + 4*n], a16 = D[k + 5*n];
+            double a21 = D[k + 6*n], a22 = D[k + 7*n], a23 = D[k + 8*n], a24 = D[k + 9*n], a25 = D[k + 10*n], a26 = D[k + 11*n];
+            double a31 = D[k + 12*n], a32 = D[k + 13*n], a33 = D[k + 14*n], a34 = D[k + 15*n], a35 = D[k + 16*n], a36 = D[k + 17*n];
+            double a41 = D[k + 18*n], a42 = D[k + 19*n], a43 = D[k + 20*n], a44 = D[k + 21*n], a45 = D[k + 22*n], a46 = D[k + 23*n];
+            double a51 = D[k + 24*n], a52 = D[k + 25*n], a53 = D[k + 26*n], a54 = D[k + 27*n], a55 = D[k + 28*n], a56 = D[k + 29*n];
+            double a61 = D[k + 30*n], a62 = D[k + 31*n], a63 = D[k + 32*n], a64 = D[k + 33*n], a65 = D[k + 34*n], a66 = D[k + 35*n];
+
+            a11 = Math.sqrt(a11);
+            a21 = (a21)/a11;
+            a22 = Math.sqrt(a22 - a21*a21);
+            a31 = (a31)/a11;
+            a32 = (a32 - a31*a21)/a22;
+            a33 = Math.sqrt(a33 - a31*a31 - a32*a32);
+            a41 = (a41)/a11;
+            a42 = (a42 - a41*a21)/a22;
+            a43 = (a43 - a41*a31 - a42*a32)/a33;
+            a44 = Math.sqrt(a44 - a41*a41 - a42*a42 - a43*a43);
+            a51 = (a51)/a11;
+            a52 = (a52 - a51*a21)/a22;
+            a53 = (a53 - a51*a31 - a52*a32)/a33;
+            a54 = (a54 - a51*a41 - a52*a42 - a53*a43)/a44;
+            a55 = Math.sqrt(a55 - a51*a51 - a52*a52 - a53*a53 - a54*a54);
+            a61 = (a61)/a11;
+            a62 = (a62 - a61*a21)/a22;
+            a63 = (a63 - a61*a31 - a62*a32)/a33;
+            a64 = (a64 - a61*a41 - a62*a42 - a63*a43)/a44;
+            a65 = (a65 - a61*a51 - a62*a52 - a63*a53 - a64*a54)/a55;
+            a66 = Math.sqrt(a66 - a61*a61 - a62*a62 - a63*a63 - a64*a64 - a65*a65);
+            D[k] = a11; D[k + n] = 0; D[k + 2*n] = 0; D[k + 3*n] = 0; D[k + 4*n] = 0; D[k + 5*n] = 0;
+            D[k + 6*n] = a21; D[k + 7*n] = a22; D[k + 8*n] = 0; D[k + 9*n] = 0; D[k + 10*n] = 0; D[k + 11*n] = 0;
+            D[k + 12*n] = a31; D[k + 13*n] = a32; D[k + 14*n] = a33; D[k + 15*n] = 0; D[k + 16*n] = 0; D[k + 17*n] = 0;
+            D[k + 18*n] = a41; D[k + 19*n] = a42; D[k + 20*n] = a43; D[k + 21*n] = a44; D[k + 22*n] = 0; D[k + 23*n] = 0;
+            D[k + 24*n] = a51; D[k + 25*n] = a52; D[k + 26*n] = a53; D[k + 27*n] = a54; D[k + 28*n] = a55; D[k + 29*n] = 0;
+            D[k + 30*n] = a61; D[k + 31*n] = a62; D[k + 32*n] = a63; D[k + 33*n] = a64; D[k + 34*n] = a65; D[k + 35*n] = a66;
+
+            if (UtilEjml.isUncountable(a66))
+                success = false;
+        }
+        return success;
+    }
+
+}
+
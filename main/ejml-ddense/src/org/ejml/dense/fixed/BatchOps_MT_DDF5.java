@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.fixed;
+
+import javax.annotation.Generated;
+import org.ejml.EjmlParameters;
+import org.ejml.UtilEjml;
+import org.ejml.concurrency.EjmlConcurrency;
+import org.ejml.data.DMatrixBatch;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * <p>Concurrent implementation of {@link BatchOps_DDF5}. The batch is split into blocks of
+ * at least {@link EjmlParameters#BATCH_MT_MIN_BLOCK} matrices which are processed by different threads.</p>
+ *
+ * <p>DO NOT MODIFY. Automatically generated code created by GenerateBatchOps_DDF</p>
+ *
+ * @author Peter Abeles
+ */
+@Generated("org.ejml.dense.fixed.GenerateBatchOps_DDF")
+public class BatchOps_MT_DDF5 {
+    /**
+     * @see BatchOps_DDF5#mult(DMatrixBatch, DMatrixBatch, DMatrixBatch)
+     */
+    public static void mult( DMatrixBatch a , DMatrixBatch b , DMatrixBatch c ) {
+        UtilEjml.assertShape(a.isShape(5, 5), "Expected 5x5 matrices in 'a'");
+        UtilEjml.assertShape(b.isShape(5, 5), "Expected 5x5 matrices in 'b'");
+        UtilEjml.assertShape(a.count, b.count, "'a' and 'b' must have the same number of matrices");
+        c.reshape(5, 5, a.count);
+        EjmlConcurrency.loopBlocks(0, a.count, EjmlParameters.BATCH_MT_MIN_BLOCK, ( idx0, idx1 ) ->
+                BatchOps_DDF5.mult(a, b, c, idx0, idx1));
+    }
+
+    /**
+     * @see BatchOps_DDF5#invert(DMatrixBatch, DMatrixBatch)
+     */
+    public static boolean invert( DMatrixBatch a , DMatrixBatch inv ) {
+        UtilEjml.assertShape(a.isShape(5, 5), "Expected 5x5 matrices in 'a'");
+        inv.reshape(5, 5, a.count);
+        final AtomicBoolean success = new AtomicBoolean(true);
+        EjmlConcurrency.loopBlocks(0, a.count, EjmlParameters.BATCH_MT_MIN_BLOCK, ( idx0, idx1 ) -> {
+            if (!BatchOps_DDF5.invert(a, inv, idx0, idx1))
+                success.set(false);
+        });
+        return success.get();
+    }
+
+    /**
+     * @see BatchOps_DDF5#det(DMatrixBatch, double[])
+     */
+    public static double[] det( DMatrixBatch a , @Nullable double[] output ) {
+        UtilEjml.assertShape(a.isShape(5, 5), "Expected 5x5 matrices in 'a'");
+        final double[] results = output == null || output.length < a.count ? new double[a.count] : output;
+        EjmlConcurrency.loopBlocks(0, a.count, EjmlParameters.BATCH_MT_MIN_BLOCK, ( idx0, idx1 ) ->
+                BatchOps_DDF5.det(a, results, idx0, idx1));
+        return results;
+    }
+
+    /**
+     * @see BatchOps_DDF5#solve(DMatrixBatch, DMatrixBatch, DMatrixBatch)
+     */
+    public static boolean solve( DMatrixBatch a , DMatrixBatch b , DMatrixBatch x ) {
+        UtilEjml.assertShape(a.isShape(5, 5), "Expected 5x5 matrices in 'a'");
+        UtilEjml.assertShape(b.isShape(5, 1), "Expected 5 element column vectors in 'b'");
+        UtilEjml.assertShape(a.count, b.count, "'a' and 'b' must have the same number of matrices");
+        x.reshape(5, 1, a.count);
+        final AtomicBoolean success = new AtomicBoolean(true);
+        EjmlConcurrency.loopBlocks(0, a.count, EjmlParameters.BATCH_MT_MIN_BLOCK, ( idx0, idx1 ) -> {
+            if (!BatchOps_DDF5.solve(a, b, x, idx0, idx1))
+                success.set(false);
+        });
+        return success.get();
+    }
+
+    /**
+     * @see BatchOps_DDF5#cholL(DMatrixBatch)
+     */
+    public static boolean cholL( DMatrixBatch A ) {
+        UtilEjml.assertShape(A.isShape(5, 5), "Expected 5x5 matrices in 'A'");
+        final AtomicBoolean success = new AtomicBoolean(true);
+        EjmlConcurrency.loopBlocks(0, A.count, EjmlParameters.BATCH_MT_MIN_BLOCK, ( idx0, idx1 ) -> {
+            if (!BatchOps_DDF5.cholL(A, idx0, idx1))
+                success.set(false);
+        });
+        return success.get();
+    }
+
+}
+
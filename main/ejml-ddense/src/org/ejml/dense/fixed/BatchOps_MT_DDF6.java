@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.fixed;
+
+import javax.annotation.Generated;
+import org.ejml.EjmlParameters;
+import org.ejml.UtilEjml;
+import org.ejml.concurrency.EjmlConcurrency;
+import org.ejml.data.DMatrixBatch;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * <p>Concurrent implementation of {@link BatchOps_DDF6}. The batch is split into blocks of
+ * at least {@link EjmlParameters#BATCH_MT_MIN_BLOCK} matrices which are processed by different threads.</p>
+ *
+ * <p>DO NOT MODIFY. Automatically generated code created by GenerateBatchOps_DDF</p>
+ *
+ * @author Peter Abeles
+ */
+@Generated("org.ejml.dense.fixed.GenerateBatchOps_DDF")
+public class BatchOps_MT_DDF6 {
+    /**
+     * @see BatchOps_DDF6#mult(DMatrixBatch, DMatrixBatch, DMatrixBatch)
+     */
+    public static void mult( DMatrixBatch a , DMatrixBatch b , DMatrixBatch c ) {
+        UtilEjml.assertShape(a.isShape(6, 6), "Expected 6x6 matrices in 'a'");
+        UtilEjml.assertShape(b.isShape(6, 6), "Expected 6x6 matrices in 'b'");
+        UtilEjml.assertShape(a.count, b.count, "'a' and 'b' must have the same number of matrices");
+        c.reshape(6, 6, a.count);
+        EjmlConcurrency.loopBlocks(0, a.count, EjmlParameters.BATCH_MT_MIN_BLOCK, ( idx0, idx1 ) ->
+                BatchOps_DDF6.mult(a, b, c, idx0, idx1));
+    }
+
+    /**
+     * @see BatchOps_DDF6#cholL(DMatrixBatch)
+     */
+    public static boolean cholL( DMatrixBatch A ) {
+        UtilEjml.assertShape(A.isShape(6, 6), "Expected 6x6 matrices in 'A'");
+        final AtomicBoolean success = new AtomicBoolean(true);
+        EjmlConcurrency.loopBlocks(0, A.count, EjmlParameters.BATCH_MT_MIN_BLOCK, ( idx0, idx1 ) -> {
+            if (!BatchOps_DDF6.cholL(A, idx0, idx1))
+                success.set(false);
+        });
+        return success.get();
+    }
+
+}
+
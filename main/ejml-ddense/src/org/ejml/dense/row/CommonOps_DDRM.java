@@ -30,6 +30,9 @@ import org.ejml.dense.row.linsol.chol.LinearSolverChol_DDRM;
 import org.ejml.dense.row.linsol.lu.LinearSolverLu_DDRM;
 import org.ejml.dense.row.linsol.svd.SolvePseudoInverseSvd_DDRM;
 import org.ejml.dense.row.misc.*;
+import org.ejml.dense.row.mult.MatrixMatrixMultPacked_DDRM;
+import org.ejml.dense.row.mult.SimdKernels_DDRM;
+import org.ejml.dense.row.mult.SimdOps_DDRM;
 import org.ejml.dense.row.mult.MatrixMatrixMult_DDRM;
 import org.ejml.dense.row.mult.MatrixMultProduct_DDRM;
 import org.ejml.dense.row.mult.MatrixVectorMult_DDRM;
@@ -81,6 +84,8 @@ public class CommonOps_DDRM {
 
         if (b.numCols == 1) {
             MatrixVectorMult_DDRM.mult(a, b, output);
+        } else if (usePacked(a.numRows, b.numCols, a.numCols)) {
+            MatrixMatrixMultPacked_DDRM.mult(a, b, output);
         } else if (b.numCols >= EjmlParameters.MULT_COLUMN_SWITCH) {
             MatrixMatrixMult_DDRM.mult_reorder(a, b, output);
         } else {
@@ -109,7 +114,9 @@ public class CommonOps_DDRM {
         UtilEjml.checkSameInstance(b, output);
 
         // TODO add a matrix vectory multiply here
-        if (b.numCols >= EjmlParameters.MULT_COLUMN_SWITCH) {
+        if (usePacked(a.numRows, b.numCols, a.numCols)) {
+            MatrixMatrixMultPacked_DDRM.mult(alpha, a, b, output);
+        } else if (b.numCols >= EjmlParameters.MULT_COLUMN_SWITCH) {
             MatrixMatrixMult_DDRM.mult_reorder(alpha, a, b, output);
         } else {
             MatrixMatrixMult_DDRM.mult_small(alpha, a, b, output);
@@ -143,6 +150,8 @@ public class CommonOps_DDRM {
             } else {
                 MatrixVectorMult_DDRM.multTransA_small(a, b, output);
             }
+        } else if (usePacked(a.numCols, b.numCols, a.numRows)) {
+            MatrixMatrixMultPacked_DDRM.multTransA(a, b, output);
         } else if (a.numCols >= EjmlParameters.MULT_COLUMN_SWITCH ||
                 b.numCols >= EjmlParameters.MULT_COLUMN_SWITCH) {
             MatrixMatrixMult_DDRM.multTransA_reorder(a, b, output);
@@ -172,7 +181,9 @@ public class CommonOps_DDRM {
         UtilEjml.checkSameInstance(b, output);
 
         // TODO add a matrix vectory multiply here
-        if (a.numCols >= EjmlParameters.MULT_COLUMN_SWITCH ||
+        if (usePacked(a.numCols, b.numCols, a.numRows)) {
+            MatrixMatrixMultPacked_DDRM.multTransA(alpha, a, b, output);
+        } else if (a.numCols >= EjmlParameters.MULT_COLUMN_SWITCH ||
                 b.numCols >= EjmlParameters.MULT_COLUMN_SWITCH) {
             MatrixMatrixMult_DDRM.multTransA_reorder(alpha, a, b, output);
         } else {
@@ -201,6 +212,8 @@ public class CommonOps_DDRM {
 
         if (b.numRows == 1) {
             MatrixVectorMult_DDRM.mult(a, b, output);
+        } else if (usePacked(a.numRows, b.numRows, a.numCols)) {
+            MatrixMatrixMultPacked_DDRM.multTransB(a, b, output);
         } else {
             MatrixMatrixMult_DDRM.multTransB(a, b, output);
         }
@@ -227,7 +240,11 @@ public class CommonOps_DDRM {
         UtilEjml.checkSameInstance(b, output);
 
         // TODO add a matrix vectory multiply here
-        MatrixMatrixMult_DDRM.multTransB(alpha, a, b, output);
+        if (usePacked(a.numRows, b.numRows, a.numCols)) {
+            MatrixMatrixMultPacked_DDRM.multTransB(alpha, a, b, output);
+        } else {
+            MatrixMatrixMult_DDRM.multTransB(alpha, a, b, output);
+        }
 
         return output;
     }
@@ -256,6 +273,8 @@ public class CommonOps_DDRM {
             } else {
                 MatrixVectorMult_DDRM.multTransA_small(a, b, output);
             }
+        } else if (usePacked(a.numCols, b.numRows, a.numRows)) {
+            MatrixMatrixMultPacked_DDRM.multTransAB(a, b, output);
         } else if (a.numCols >= EjmlParameters.MULT_TRANAB_COLUMN_SWITCH) {
             MatrixMatrixMult_DDRM.multTransAB_aux(a, b, output, null);
         } else {
@@ -284,7 +303,9 @@ public class CommonOps_DDRM {
         UtilEjml.checkSameInstance(b, output);
 
         // TODO add a matrix vectory multiply here
-        if (a.numCols >= EjmlParameters.MULT_TRANAB_COLUMN_SWITCH) {
+        if (usePacked(a.numCols, b.numRows, a.numRows)) {
+            MatrixMatrixMultPacked_DDRM.multTransAB(alpha, a, b, output);
+        } else if (a.numCols >= EjmlParameters.MULT_TRANAB_COLUMN_SWITCH) {
             MatrixMatrixMult_DDRM.multTransAB_aux(alpha, a, b, output, null);
         } else {
             MatrixMatrixMult_DDRM.multTransAB(alpha, a, b, output);
@@ -375,6 +396,8 @@ public class CommonOps_DDRM {
     public static void multAdd( DMatrix1Row a, DMatrix1Row b, DMatrix1Row c ) {
         if (b.numCols == 1) {
             MatrixVectorMult_DDRM.multAdd(a, b, c);
+        } else if (usePacked(a.numRows, b.numCols, a.numCols)) {
+            MatrixMatrixMultPacked_DDRM.multAdd(a, b, c);
         } else {
             if (b.numCols >= EjmlParameters.MULT_COLUMN_SWITCH) {
                 MatrixMatrixMult_DDRM.multAdd_reorder(a, b, c);
@@ -399,7 +422,9 @@ public class CommonOps_DDRM {
      */
     public static void multAdd( double alpha, DMatrix1Row a, DMatrix1Row b, DMatrix1Row c ) {
         // TODO add a matrix vectory multiply here
-        if (b.numCols >= EjmlParameters.MULT_COLUMN_SWITCH) {
+        if (usePacked(a.numRows, b.numCols, a.numCols)) {
+            MatrixMatrixMultPacked_DDRM.multAdd(alpha, a, b, c);
+        } else if (b.numCols >= EjmlParameters.MULT_COLUMN_SWITCH) {
             MatrixMatrixMult_DDRM.multAdd_reorder(alpha, a, b, c);
         } else {
             MatrixMatrixMult_DDRM.multAdd_small(alpha, a, b, c);
@@ -425,6 +450,8 @@ public class CommonOps_DDRM {
             } else {
                 MatrixVectorMult_DDRM.multAddTransA_small(a, b, c);
             }
+        } else if (usePacked(a.numCols, b.numCols, a.numRows)) {
+            MatrixMatrixMultPacked_DDRM.multAddTransA(a, b, c);
         } else {
             if (a.numCols >= EjmlParameters.MULT_COLUMN_SWITCH ||
                     b.numCols >= EjmlParameters.MULT_COLUMN_SWITCH) {
@@ -450,7 +477,9 @@ public class CommonOps_DDRM {
      */
     public static void multAddTransA( double alpha, DMatrix1Row a, DMatrix1Row b, DMatrix1Row c ) {
         // TODO add a matrix vectory multiply here
-        if (a.numCols >= EjmlParameters.MULT_COLUMN_SWITCH ||
+        if (usePacked(a.numCols, b.numCols, a.numRows)) {
+            MatrixMatrixMultPacked_DDRM.multAddTransA(alpha, a, b, c);
+        } else if (a.numCols >= EjmlParameters.MULT_COLUMN_SWITCH ||
                 b.numCols >= EjmlParameters.MULT_COLUMN_SWITCH) {
             MatrixMatrixMult_DDRM.multAddTransA_reorder(alpha, a, b, c);
         } else {
@@ -471,7 +500,11 @@ public class CommonOps_DDRM {
      * @param c Where the results of the operation are stored. Modified.
      */
     public static void multAddTransB( DMatrix1Row a, DMatrix1Row b, DMatrix1Row c ) {
-        MatrixMatrixMult_DDRM.multAddTransB(a, b, c);
+        if (usePacked(a.numRows, b.numRows, a.numCols)) {
+            MatrixMatrixMultPacked_DDRM.multAddTransB(a, b, c);
+        } else {
+            MatrixMatrixMult_DDRM.multAddTransB(a, b, c);
+        }
     }
 
     /**
@@ -489,7 +522,11 @@ public class CommonOps_DDRM {
      */
     public static void multAddTransB( double alpha, DMatrix1Row a, DMatrix1Row b, DMatrix1Row c ) {
         // TODO add a matrix vectory multiply here
-        MatrixMatrixMult_DDRM.multAddTransB(alpha, a, b, c);
+        if (usePacked(a.numRows, b.numRows, a.numCols)) {
+            MatrixMatrixMultPacked_DDRM.multAddTransB(alpha, a, b, c);
+        } else {
+            MatrixMatrixMult_DDRM.multAddTransB(alpha, a, b, c);
+        }
     }
 
     /**
@@ -505,7 +542,9 @@ public class CommonOps_DDRM {
      * @param c Where the results of the operation are stored. Modified.
      */
     public static void multAddTransAB( DMatrix1Row a, DMatrix1Row b, DMatrix1Row c ) {
-        if (a.numCols >= EjmlParameters.MULT_TRANAB_COLUMN_SWITCH) {
+        if (usePacked(a.numCols, b.numRows, a.numRows)) {
+            MatrixMatrixMultPacked_DDRM.multAddTransAB(a, b, c);
+        } else if (a.numCols >= EjmlParameters.MULT_TRANAB_COLUMN_SWITCH) {
             MatrixMatrixMult_DDRM.multAddTransAB_aux(a, b, c, null);
         } else {
             MatrixMatrixMult_DDRM.multAddTransAB(a, b, c);
@@ -527,13 +566,24 @@ public class CommonOps_DDRM {
      */
     public static void multAddTransAB( double alpha, DMatrix1Row a, DMatrix1Row b, DMatrix1Row c ) {
         // TODO add a matrix vectory multiply here
-        if (a.numCols >= EjmlParameters.MULT_TRANAB_COLUMN_SWITCH) {
+        if (usePacked(a.numCols, b.numRows, a.numRows)) {
+            MatrixMatrixMultPacked_DDRM.multAddTransAB(alpha, a, b, c);
+        } else if (a.numCols >= EjmlParameters.MULT_TRANAB_COLUMN_SWITCH) {
             MatrixMatrixMult_DDRM.multAddTransAB_aux(alpha, a, b, c, null);
         } else {
             MatrixMatrixMult_DDRM.multAddTransAB(alpha, a, b, c);
         }
     }
 
+    /**
+     * Returns true if a product with the specified shape is large enough for the packed multiplication
+     * to be faster. C is rows x cols and the inner dimension is 'inner'.
+     */
+    private static boolean usePacked( int rows, int cols, int inner ) {
+        int s = EjmlParameters.MULT_PACKED_SWITCH;
+        return rows >= s && cols >= s && inner >= s;
+    }
+
     /**
      * <p>
      * Solves for x in the following equation:<br>
@@ -1931,6 +1981,12 @@ public class CommonOps_DDRM {
 
         final int length = a.getNumElements();
 
+        SimdKernels_DDRM simd = SimdOps_DDRM.get(length);
+        if (simd != null) {
+            simd.axpy(beta, b.data, 0, a.data, 0, length);
+            return;
+        }
+
         for (int i = 0; i < length; i++) {
             a.plus(i, beta*b.get(i));
         }
@@ -1958,6 +2014,12 @@ public class CommonOps_DDRM {
 
         final int length = a.getNumElements();
 
+        SimdKernels_DDRM simd = SimdOps_DDRM.get(length);
+        if (simd != null) {
+            simd.add(1.0, a.data, 1.0, b.data, output.data, length);
+            return output;
+        }
+
         for (int i = 0; i < length; i++) {
             output.set(i, a.get(i) + b.get(i));
         }
@@ -1988,6 +2050,12 @@ public class CommonOps_DDRM {
 
         final int length = a.getNumElements();
 
+        SimdKernels_DDRM simd = SimdOps_DDRM.get(length);
+        if (simd != null) {
+            simd.add(1.0, a.data, beta, b.data, output.data, length);
+            return output;
+        }
+
         for (int i = 0; i < length; i++) {
             output.set(i, a.get(i) + beta*b.get(i));
         }
@@ -2019,6 +2087,12 @@ public class CommonOps_DDRM {
 
         final int length = a.getNumElements();
 
+        SimdKernels_DDRM simd = SimdOps_DDRM.get(length);
+        if (simd != null) {
+            simd.add(alpha, a.data, beta, b.data, output.data, length);
+            return output;
+        }
+
         for (int i = 0; i < length; i++) {
             output.set(i, alpha*a.get(i) + beta*b.get(i));
         }
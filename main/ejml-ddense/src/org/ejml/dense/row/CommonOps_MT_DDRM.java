@@ -20,16 +20,27 @@ package org.ejml.dense.row;
 
 import org.ejml.EjmlParameters;
 import org.ejml.UtilEjml;
+import org.ejml.concurrency.ConcurrencyOperation;
+import org.ejml.concurrency.EjmlConcurrency;
 import org.ejml.data.DMatrix1Row;
 import org.ejml.data.DMatrixRMaj;
 import org.ejml.dense.row.misc.TransposeAlgs_MT_DDRM;
+import org.ejml.dense.row.mult.MatrixMatrixMultPacked_MT_DDRM;
 import org.ejml.dense.row.mult.MatrixMatrixMult_MT_DDRM;
 import org.jetbrains.annotations.Nullable;
 
 import static org.ejml.UtilEjml.reshapeOrDeclare;
 
 /**
+ * <p>
  * Functions from {@link CommonOps_DDRM} with concurrent implementations.
+ * </p>
+ *
+ * <p>
+ * The number of floating point operations in each function is passed to the cost model in
+ * {@link EjmlConcurrency#operation(String, double)}. When the work is too small to benefit from threads, the single
+ * threaded function in {@link CommonOps_DDRM} is called instead. These functions can be used at every size.
+ * </p>
  *
  * @author Peter Abeles
  */
@@ -47,13 +58,21 @@ public class CommonOps_MT_DDRM {
      * @param output Where the results of the operation are stored. Modified.
      */
     public static <T extends DMatrix1Row> T mult( T a, T b, @Nullable T output ) {
-        output = reshapeOrDeclare(output, a, a.numRows, b.numCols);
-        UtilEjml.checkSameInstance(a, output);
-        UtilEjml.checkSameInstance(b, output);
+        try (ConcurrencyOperation op = EjmlConcurrency.operation("CommonOps_MT_DDRM.mult", multCost(a, b.numCols))) {
+            if (!op.isConcurrent())
+                return CommonOps_DDRM.mult(a, b, output);
+
+            output = reshapeOrDeclare(output, a, a.numRows, b.numCols);
+            UtilEjml.checkSameInstance(a, output);
+            UtilEjml.checkSameInstance(b, output);
 
-        MatrixMatrixMult_MT_DDRM.mult_reorder(a, b, output);
+            if (usePacked(a.numRows, b.numCols, a.numCols))
+                MatrixMatrixMultPacked_MT_DDRM.mult(a, b, output);
+            else
+                MatrixMatrixMult_MT_DDRM.mult_reorder(a, b, output);
 
-        return output;
+            return output;
+        }
     }
 
     /**
@@ -70,13 +89,21 @@ public class CommonOps_MT_DDRM {
      * @param output Where the results of the operation are stored. Modified.
      */
     public static <T extends DMatrix1Row> T mult( double alpha, T a, T b, @Nullable T output ) {
-        output = reshapeOrDeclare(output, a, a.numRows, b.numCols);
-        UtilEjml.checkSameInstance(a, output);
-        UtilEjml.checkSameInstance(b, output);
+        try (ConcurrencyOperation op = EjmlConcurrency.operation("CommonOps_MT_DDRM.mult", multCost(a, b.numCols))) {
+            if (!op.isConcurrent())
+                return CommonOps_DDRM.mult(alpha, a, b, output);
 
-        MatrixMatrixMult_MT_DDRM.mult_reorder(alpha, a, b, output);
+            output = reshapeOrDeclare(output, a, a.numRows, b.numCols);
+            UtilEjml.checkSameInstance(a, output);
+            UtilEjml.checkSameInstance(b, output);
 
-        return output;
+            if (usePacked(a.numRows, b.numCols, a.numCols))
+                MatrixMatrixMultPacked_MT_DDRM.mult(alpha, a, b, output);
+            else
+                MatrixMatrixMult_MT_DDRM.mult_reorder(alpha, a, b, output);
+
+            return output;
+        }
     }
 
     /**
@@ -92,13 +119,22 @@ public class CommonOps_MT_DDRM {
      * @param output Where the results of the operation are stored. Modified.
      */
     public static <T extends DMatrix1Row> T multTransA( T a, T b, @Nullable T output ) {
-        output = reshapeOrDeclare(output, a, a.numCols, b.numCols);
-        UtilEjml.checkSameInstance(a, output);
-        UtilEjml.checkSameInstance(b, output);
+        try (ConcurrencyOperation op = EjmlConcurrency.operation(
+                "CommonOps_MT_DDRM.multTransA", multCost(a, b.numCols))) {
+            if (!op.isConcurrent())
+                return CommonOps_DDRM.multTransA(a, b, output);
 
-        MatrixMatrixMult_MT_DDRM.multTransA_reorder(a, b, output);
+            output = reshapeOrDeclare(output, a, a.numCols, b.numCols);
+            UtilEjml.checkSameInstance(a, output);
+            UtilEjml.checkSameInstance(b, output);
 
-        return output;
+            if (usePacked(a.numCols, b.numCols, a.numRows))
+                MatrixMatrixMultPacked_MT_DDRM.multTransA(a, b, output);
+            else
+                MatrixMatrixMult_MT_DDRM.multTransA_reorder(a, b, output);
+
+            return output;
+        }
     }
 
     /**
@@ -115,13 +151,22 @@ public class CommonOps_MT_DDRM {
      * @param output Where the results of the operation are stored. Modified.
      */
     public static <T extends DMatrix1Row> T multTransA( double alpha, T a, T b, @Nullable T output ) {
-        output = reshapeOrDeclare(output, a, a.numCols, b.numCols);
-        UtilEjml.checkSameInstance(a, output);
-        UtilEjml.checkSameInstance(b, output);
+        try (ConcurrencyOperation op = EjmlConcurrency.operation(
+                "CommonOps_MT_DDRM.multTransA", multCost(a, b.numCols))) {
+            if (!op.isConcurrent())
+                return CommonOps_DDRM.multTransA(alpha, a, b, output);
 
-        MatrixMatrixMult_MT_DDRM.multTransA_reorder(alpha, a, b, output);
+            output = reshapeOrDeclare(output, a, a.numCols, b.numCols);
+            UtilEjml.checkSameInstance(a, output);
+            UtilEjml.checkSameInstance(b, output);
 
-        return output;
+            if (usePacked(a.numCols, b.numCols, a.numRows))
+                MatrixMatrixMultPacked_MT_DDRM.multTransA(alpha, a, b, output);
+            else
+                MatrixMatrixMult_MT_DDRM.multTransA_reorder(alpha, a, b, output);
+
+            return output;
+        }
     }
 
     /**
@@ -137,13 +182,22 @@ public class CommonOps_MT_DDRM {
      * @param output Where the results of the operation are stored. Modified.
      */
     public static <T extends DMatrix1Row> T multTransB( T a, T b, @Nullable T output ) {
-        output = reshapeOrDeclare(output, a, a.numRows, b.numRows);
-        UtilEjml.checkSameInstance(a, output);
-        UtilEjml.checkSameInstance(b, output);
+        try (ConcurrencyOperation op = EjmlConcurrency.operation(
+                "CommonOps_MT_DDRM.multTransB", multCost(a, b.numRows))) {
+            if (!op.isConcurrent())
+                return CommonOps_DDRM.multTransB(a, b, output);
 
-        MatrixMatrixMult_MT_DDRM.multTransB(a, b, output);
+            output = reshapeOrDeclare(output, a, a.numRows, b.numRows);
+            UtilEjml.checkSameInstance(a, output);
+            UtilEjml.checkSameInstance(b, output);
 
-        return output;
+            if (usePacked(a.numRows, b.numRows, a.numCols))
+                MatrixMatrixMultPacked_MT_DDRM.multTransB(a, b, output);
+            else
+                MatrixMatrixMult_MT_DDRM.multTransB(a, b, output);
+
+            return output;
+        }
     }
 
     /**
@@ -160,13 +214,22 @@ public class CommonOps_MT_DDRM {
      * @param output Where the results of the operation are stored. Modified.
      */
     public static <T extends DMatrix1Row> T multTransB( double alpha, T a, T b, @Nullable T output ) {
-        output = reshapeOrDeclare(output, a, a.numRows, b.numRows);
-        UtilEjml.checkSameInstance(a, output);
-        UtilEjml.checkSameInstance(b, output);
+        try (ConcurrencyOperation op = EjmlConcurrency.operation(
+                "CommonOps_MT_DDRM.multTransB", multCost(a, b.numRows))) {
+            if (!op.isConcurrent())
+                return CommonOps_DDRM.multTransB(alpha, a, b, output);
+
+            output = reshapeOrDeclare(output, a, a.numRows, b.numRows);
+            UtilEjml.checkSameInstance(a, output);
+            UtilEjml.checkSameInstance(b, output);
 
-        MatrixMatrixMult_MT_DDRM.multTransB(alpha, a, b, output);
+            if (usePacked(a.numRows, b.numRows, a.numCols))
+                MatrixMatrixMultPacked_MT_DDRM.multTransB(alpha, a, b, output);
+            else
+                MatrixMatrixMult_MT_DDRM.multTransB(alpha, a, b, output);
 
-        return output;
+            return output;
+        }
     }
 
     /**
@@ -182,13 +245,22 @@ public class CommonOps_MT_DDRM {
      * @param output Where the results of the operation are stored. Modified.
      */
     public static <T extends DMatrix1Row> T multTransAB( T a, T b, @Nullable T output ) {
-        output = reshapeOrDeclare(output, a, a.numCols, b.numRows);
-        UtilEjml.checkSameInstance(a, output);
-        UtilEjml.checkSameInstance(b, output);
+        try (ConcurrencyOperation op = EjmlConcurrency.operation(
+                "CommonOps_MT_DDRM.multTransAB", multCost(a, b.numRows))) {
+            if (!op.isConcurrent())
+                return CommonOps_DDRM.multTransAB(a, b, output);
+
+            output = reshapeOrDeclare(output, a, a.numCols, b.numRows);
+            UtilEjml.checkSameInstance(a, output);
+            UtilEjml.checkSameInstance(b, output);
 
-        MatrixMatrixMult_MT_DDRM.multTransAB(a, b, output);
+            if (usePacked(a.numCols, b.numRows, a.numRows))
+                MatrixMatrixMultPacked_MT_DDRM.multTransAB(a, b, output);
+            else
+                MatrixMatrixMult_MT_DDRM.multTransAB(a, b, output);
 
-        return output;
+            return output;
+        }
     }
 
     /**
@@ -205,13 +277,22 @@ public class CommonOps_MT_DDRM {
      * @param output Where the results of the operation are stored. Modified.
      */
     public static <T extends DMatrix1Row> T multTransAB( double alpha, T a, T b, @Nullable T output ) {
-        output = reshapeOrDeclare(output, a, a.numCols, b.numRows);
-        UtilEjml.checkSameInstance(a, output);
-        UtilEjml.checkSameInstance(b, output);
+        try (ConcurrencyOperation op = EjmlConcurrency.operation(
+                "CommonOps_MT_DDRM.multTransAB", multCost(a, b.numRows))) {
+            if (!op.isConcurrent())
+                return CommonOps_DDRM.multTransAB(alpha, a, b, output);
+
+            output = reshapeOrDeclare(output, a, a.numCols, b.numRows);
+            UtilEjml.checkSameInstance(a, output);
+            UtilEjml.checkSameInstance(b, output);
 
-        MatrixMatrixMult_MT_DDRM.multTransAB(alpha, a, b, output);
+            if (usePacked(a.numCols, b.numRows, a.numRows))
+                MatrixMatrixMultPacked_MT_DDRM.multTransAB(alpha, a, b, output);
+            else
+                MatrixMatrixMult_MT_DDRM.multTransAB(alpha, a, b, output);
 
-        return output;
+            return output;
+        }
     }
 
     /**
@@ -227,7 +308,17 @@ public class CommonOps_MT_DDRM {
      * @param c Where the results of the operation are stored. Modified.
      */
     public static void multAdd( DMatrix1Row a, DMatrix1Row b, DMatrix1Row c ) {
-        MatrixMatrixMult_MT_DDRM.multAdd_reorder(a, b, c);
+        try (ConcurrencyOperation op = EjmlConcurrency.operation("CommonOps_MT_DDRM.multAdd", multCost(a, b.numCols))) {
+            if (!op.isConcurrent()) {
+                CommonOps_DDRM.multAdd(a, b, c);
+                return;
+            }
+
+            if (usePacked(a.numRows, b.numCols, a.numCols))
+                MatrixMatrixMultPacked_MT_DDRM.multAdd(a, b, c);
+            else
+                MatrixMatrixMult_MT_DDRM.multAdd_reorder(a, b, c);
+        }
     }
 
     /**
@@ -244,7 +335,17 @@ public class CommonOps_MT_DDRM {
      * @param c Where the results of the operation are stored. Modified.
      */
     public static void multAdd( double alpha, DMatrix1Row a, DMatrix1Row b, DMatrix1Row c ) {
-        MatrixMatrixMult_MT_DDRM.multAdd_reorder(alpha, a, b, c);
+        try (ConcurrencyOperation op = EjmlConcurrency.operation("CommonOps_MT_DDRM.multAdd", multCost(a, b.numCols))) {
+            if (!op.isConcurrent()) {
+                CommonOps_DDRM.multAdd(alpha, a, b, c);
+                return;
+            }
+
+            if (usePacked(a.numRows, b.numCols, a.numCols))
+                MatrixMatrixMultPacked_MT_DDRM.multAdd(alpha, a, b, c);
+            else
+                MatrixMatrixMult_MT_DDRM.multAdd_reorder(alpha, a, b, c);
+        }
     }
 
     /**
@@ -260,7 +361,18 @@ public class CommonOps_MT_DDRM {
      * @param c Where the results of the operation are stored. Modified.
      */
     public static void multAddTransA( DMatrix1Row a, DMatrix1Row b, DMatrix1Row c ) {
-        MatrixMatrixMult_MT_DDRM.multAddTransA_reorder(a, b, c);
+        try (ConcurrencyOperation op = EjmlConcurrency.operation(
+                "CommonOps_MT_DDRM.multAddTransA", multCost(a, b.numCols))) {
+            if (!op.isConcurrent()) {
+                CommonOps_DDRM.multAddTransA(a, b, c);
+                return;
+            }
+
+            if (usePacked(a.numCols, b.numCols, a.numRows))
+                MatrixMatrixMultPacked_MT_DDRM.multAddTransA(a, b, c);
+            else
+                MatrixMatrixMult_MT_DDRM.multAddTransA_reorder(a, b, c);
+        }
     }
 
     /**
@@ -277,7 +389,18 @@ public class CommonOps_MT_DDRM {
      * @param c Where the results of the operation are stored. Modified.
      */
     public static void multAddTransA( double alpha, DMatrix1Row a, DMatrix1Row b, DMatrix1Row c ) {
-        MatrixMatrixMult_MT_DDRM.multAddTransA_reorder(alpha, a, b, c);
+        try (ConcurrencyOperation op = EjmlConcurrency.operation(
+                "CommonOps_MT_DDRM.multAddTransA", multCost(a, b.numCols))) {
+            if (!op.isConcurrent()) {
+                CommonOps_DDRM.multAddTransA(alpha, a, b, c);
+                return;
+            }
+
+            if (usePacked(a.numCols, b.numCols, a.numRows))
+                MatrixMatrixMultPacked_MT_DDRM.multAddTransA(alpha, a, b, c);
+            else
+                MatrixMatrixMult_MT_DDRM.multAddTransA_reorder(alpha, a, b, c);
+        }
     }
 
     /**
@@ -293,7 +416,18 @@ public class CommonOps_MT_DDRM {
      * @param c Where the results of the operation are stored. Modified.
      */
     public static void multAddTransB( DMatrix1Row a, DMatrix1Row b, DMatrix1Row c ) {
-        MatrixMatrixMult_MT_DDRM.multAddTransB(a, b, c);
+        try (ConcurrencyOperation op = EjmlConcurrency.operation(
+                "CommonOps_MT_DDRM.multAddTransB", multCost(a, b.numRows))) {
+            if (!op.isConcurrent()) {
+                CommonOps_DDRM.multAddTransB(a, b, c);
+                return;
+            }
+
+            if (usePacked(a.numRows, b.numRows, a.numCols))
+                MatrixMatrixMultPacked_MT_DDRM.multAddTransB(a, b, c);
+            else
+                MatrixMatrixMult_MT_DDRM.multAddTransB(a, b, c);
+        }
     }
 
     /**
@@ -310,7 +444,18 @@ public class CommonOps_MT_DDRM {
      * @param c Where the results of the operation are stored. Modified.
      */
     public static void multAddTransB( double alpha, DMatrix1Row a, DMatrix1Row b, DMatrix1Row c ) {
-        MatrixMatrixMult_MT_DDRM.multAddTransB(alpha, a, b, c);
+        try (ConcurrencyOperation op = EjmlConcurrency.operation(
+                "CommonOps_MT_DDRM.multAddTransB", multCost(a, b.numRows))) {
+            if (!op.isConcurrent()) {
+                CommonOps_DDRM.multAddTransB(alpha, a, b, c);
+                return;
+            }
+
+            if (usePacked(a.numRows, b.numRows, a.numCols))
+                MatrixMatrixMultPacked_MT_DDRM.multAddTransB(alpha, a, b, c);
+            else
+                MatrixMatrixMult_MT_DDRM.multAddTransB(alpha, a, b, c);
+        }
     }
 
     /**
@@ -326,7 +471,18 @@ public class CommonOps_MT_DDRM {
      * @param c Where the results of the operation are stored. Modified.
      */
     public static void multAddTransAB( DMatrix1Row a, DMatrix1Row b, DMatrix1Row c ) {
-        MatrixMatrixMult_MT_DDRM.multAddTransAB(a, b, c);
+        try (ConcurrencyOperation op = EjmlConcurrency.operation(
+                "CommonOps_MT_DDRM.multAddTransAB", multCost(a, b.numRows))) {
+            if (!op.isConcurrent()) {
+                CommonOps_DDRM.multAddTransAB(a, b, c);
+                return;
+            }
+
+            if (usePacked(a.numCols, b.numRows, a.numRows))
+                MatrixMatrixMultPacked_MT_DDRM.multAddTransAB(a, b, c);
+            else
+                MatrixMatrixMult_MT_DDRM.multAddTransAB(a, b, c);
+        }
     }
 
     /**
@@ -343,7 +499,18 @@ public class CommonOps_MT_DDRM {
      * @param c Where the results of the operation are stored. Modified.
      */
     public static void multAddTransAB( double alpha, DMatrix1Row a, DMatrix1Row b, DMatrix1Row c ) {
-        MatrixMatrixMult_MT_DDRM.multAddTransAB(alpha, a, b, c);
+        try (ConcurrencyOperation op = EjmlConcurrency.operation(
+                "CommonOps_MT_DDRM.multAddTransAB", multCost(a, b.numRows))) {
+            if (!op.isConcurrent()) {
+                CommonOps_DDRM.multAddTransAB(alpha, a, b, c);
+                return;
+            }
+
+            if (usePacked(a.numCols, b.numRows, a.numRows))
+                MatrixMatrixMultPacked_MT_DDRM.multAddTransAB(alpha, a, b, c);
+            else
+                MatrixMatrixMult_MT_DDRM.multAddTransAB(alpha, a, b, c);
+        }
     }
 
     /**
@@ -358,12 +525,20 @@ public class CommonOps_MT_DDRM {
      * @param mat The matrix that is to be transposed. Modified.
      */
     public static void transpose( DMatrixRMaj mat ) {
-        if (mat.numCols == mat.numRows) {
-            TransposeAlgs_MT_DDRM.square(mat);
-        } else {
-            DMatrixRMaj b = new DMatrixRMaj(mat.numCols, mat.numRows);
-            transpose(mat, b);
-            mat.set(b);
+        try (ConcurrencyOperation op = EjmlConcurrency.operation(
+                "CommonOps_MT_DDRM.transpose", (double)mat.numRows*mat.numCols)) {
+            if (!op.isConcurrent()) {
+                CommonOps_DDRM.transpose(mat);
+                return;
+            }
+
+            if (mat.numCols == mat.numRows) {
+                TransposeAlgs_MT_DDRM.square(mat);
+            } else {
+                DMatrixRMaj b = new DMatrixRMaj(mat.numCols, mat.numRows);
+                transpose(mat, b);
+                mat.set(b);
+            }
         }
     }
 
@@ -380,14 +555,37 @@ public class CommonOps_MT_DDRM {
      * @return The transposed matrix.
      */
     public static DMatrixRMaj transpose( DMatrixRMaj A, @Nullable DMatrixRMaj A_tran ) {
-        A_tran = reshapeOrDeclare(A_tran, A.numCols, A.numRows);
+        try (ConcurrencyOperation op = EjmlConcurrency.operation(
+                "CommonOps_MT_DDRM.transpose", (double)A.numRows*A.numCols)) {
+            if (!op.isConcurrent())
+                return CommonOps_DDRM.transpose(A, A_tran);
 
-        if (A.numRows > EjmlParameters.TRANSPOSE_SWITCH &&
-                A.numCols > EjmlParameters.TRANSPOSE_SWITCH)
-            TransposeAlgs_MT_DDRM.block(A, A_tran, EjmlParameters.BLOCK_WIDTH);
-        else
-            TransposeAlgs_MT_DDRM.standard(A, A_tran);
+            A_tran = reshapeOrDeclare(A_tran, A.numCols, A.numRows);
 
-        return A_tran;
+            if (A.numRows > EjmlParameters.TRANSPOSE_SWITCH &&
+                    A.numCols > EjmlParameters.TRANSPOSE_SWITCH)
+                TransposeAlgs_MT_DDRM.block(A, A_tran, EjmlParameters.BLOCK_WIDTH);
+            else
+                TransposeAlgs_MT_DDRM.standard(A, A_tran);
+
+            return A_tran;
+        }
+    }
+
+    /**
+     * Number of floating point operations in a matrix multiplication where 'a' is one of the inputs and
+     * 'n' is the dimension of 'b' which isn't shared with 'a'
+     */
+    private static double multCost( DMatrix1Row a, int n ) {
+        return 2.0*a.numRows*a.numCols*n;
+    }
+
+    /**
+     * Returns true if a product with the specified shape is large enough for the packed multiplication
+     * to be faster. C is rows x cols and the inner dimension is 'inner'. Same rule as {@link CommonOps_DDRM}.
+     */
+    private static boolean usePacked( int rows, int cols, int inner ) {
+        int s = EjmlParameters.MULT_PACKED_SWITCH;
+        return rows >= s && cols >= s && inner >= s;
     }
 }
@@ -21,6 +21,7 @@ package org.ejml.dense.row;
 import org.ejml.UtilEjml;
 import org.ejml.data.DGrowArray;
 import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.decomposition.svd.SvdRandomized_DDRM;
 import org.ejml.dense.row.factory.DecompositionFactory_DDRM;
 import org.ejml.dense.row.linsol.qr.SolveNullSpaceQRP_DDRM;
 import org.ejml.dense.row.linsol.qr.SolveNullSpaceQR_DDRM;
@@ -191,6 +192,21 @@ public class SingularOps_DDRM {
         return true;
     }
 
+    /**
+     * Computes the k largest singular values and their vectors using {@link SvdRandomized_DDRM}. Much faster than
+     * a full SVD when k is much less than the smallest side of A. Singular values are in descending order.
+     *
+     * @param A (Input) Matrix being decomposed. Not modified.
+     * @param k Number of singular values
+     * @return The truncated SVD
+     */
+    public static SvdRandomized_DDRM truncatedSvd( DMatrixRMaj A, int k ) {
+        SvdRandomized_DDRM svd = new SvdRandomized_DDRM(k);
+        if (!svd.decompose(A))
+            throw new RuntimeException("SVD Failed!");
+        return svd;
+    }
+
     /**
      * <p>
      * Adjusts the matrices so that the singular values are in descending order.
@@ -56,6 +56,9 @@ public abstract class CholeskyDecompositionCommon_DDRM
     // storage for computed determinant
     protected Complex_F64 det = new Complex_F64();
 
+    // used to modify the decomposition after a low rank change
+    protected @Nullable CholeskyUpdate_DDRM updater;
+
     /**
      * Specifies if a lower or upper variant should be constructed.
      *
@@ -171,6 +174,35 @@ public abstract class CholeskyDecompositionCommon_DDRM
         return T;
     }
 
+    /**
+     * Modifies the decomposition so that it's the decomposition of A + X*X<sup>T</sup>, where A is the
+     * previously decomposed matrix. See {@link CholeskyUpdate_DDRM}.
+     *
+     * @param X An n by k matrix. Not modified.
+     * @return true if successful
+     */
+    public boolean update( DMatrixRMaj X ) {
+        return getUpdater().update(T, lower, X);
+    }
+
+    /**
+     * Modifies the decomposition so that it's the decomposition of A - X*X<sup>T</sup>, where A is the
+     * previously decomposed matrix. See {@link CholeskyUpdate_DDRM}.
+     *
+     * @param X An n by k matrix. Not modified.
+     * @return true if successful or false if the modified matrix is not positive definite. The decomposition
+     * is not modified if false is returned.
+     */
+    public boolean downdate( DMatrixRMaj X ) {
+        return getUpdater().downdate(T, lower, X);
+    }
+
+    private CholeskyUpdate_DDRM getUpdater() {
+        if (updater == null)
+            updater = new CholeskyUpdate_DDRM();
+        return updater;
+    }
+
     public double[] _getVV() {
         return vv;
     }
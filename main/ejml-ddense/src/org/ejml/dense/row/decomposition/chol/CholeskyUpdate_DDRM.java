@@ -0,0 +1,276 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.dense.row.decomposition.chol;
+
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.decomposition.TriangularSolver_DDRM;
+
+/**
+ * <p>
+ * Updates an existing Cholesky decomposition after a low rank change to the decomposed matrix. Given
+ * A = L*L<sup>T</sup>, the decomposition of A + X*X<sup>T</sup> (update) or A - X*X<sup>T</sup> (downdate)
+ * is computed directly from L, where X is an n by k matrix. This requires about 2kn<sup>2</sup> flops,
+ * instead of the n<sup>3</sup>/3 flops needed to decompose the modified matrix from scratch. This is useful
+ * for sliding window least-squares problems, where measurements are added and removed at each step.
+ * </p>
+ *
+ * <p>
+ * Each column in X is applied as a rank-1 modification using a sequence of rotations, one for each column in L.
+ * A downdate uses hyperbolic rotations and can fail if the modified matrix is not positive definite. This is
+ * checked before the decomposition is modified. Lower and upper triangular decompositions are both supported
+ * and the rotations are applied in an order which traverses the row-major matrix one row at a time.
+ * </p>
+ *
+ * <p>
+ * See "Matrix Computations" 4th Ed. by Golub and Van Loan, Section 6.5.4
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class CholeskyUpdate_DDRM {
+    // copy of X which is modified by the rotations
+    DMatrixRMaj W = new DMatrixRMaj(1, 1);
+    // Rotation applied at each diagonal element for each vector. c = cosine, s = sine
+    double[] c = new double[0];
+    double[] s = new double[0];
+    // reciprocal of c
+    double[] ci = new double[0];
+
+    // Used to check if a downdate is possible
+    DMatrixRMaj P = new DMatrixRMaj(1, 1);
+    DMatrixRMaj S = new DMatrixRMaj(1, 1);
+    CholeskyDecompositionInner_DDRM chol = new CholeskyDecompositionInner_DDRM(true);
+
+    /**
+     * Changes the decomposition into the decomposition of A + X*X<sup>T</sup>
+     *
+     * @param T Lower or upper triangular matrix from the decomposition of A. Only the triangular portion is
+     * read. Modified.
+     * @param lower true if T is lower triangular or false if upper triangular
+     * @param X An n by k matrix. Not modified.
+     * @return true if successful
+     */
+    public boolean update( DMatrixRMaj T, boolean lower, DMatrixRMaj X ) {
+        checkInput(T, X);
+        return modify(T, lower, X, 1.0);
+    }
+
+    /**
+     * Changes the decomposition into the decomposition of A - X*X<sup>T</sup>. If the modified matrix is not
+     * positive definite then false is returned and T is not modified.
+     *
+     * @param T Lower or upper triangular matrix from the decomposition of A. Only the triangular portion is
+     * read. Modified.
+     * @param lower true if T is lower triangular or false if upper triangular
+     * @param X An n by k matrix. Not modified.
+     * @return true if successful or false if A - X*X<sup>T</sup> is not positive definite
+     */
+    public boolean downdate( DMatrixRMaj T, boolean lower, DMatrixRMaj X ) {
+        checkInput(T, X);
+        if (!isDowndatePositiveDefinite(T, lower, X))
+            return false;
+        return modify(T, lower, X, -1.0);
+    }
+
+    private static void checkInput( DMatrixRMaj T, DMatrixRMaj X ) {
+        if (T.numRows != T.numCols)
+            throw new IllegalArgumentException("T must be square");
+        if (X.numRows != T.numRows)
+            throw new IllegalArgumentException("X must have the same number of rows as T");
+    }
+
+    /**
+     * A - X*X<sup>T</sup> = L*(I - P*P<sup>T</sup>)*L<sup>T</sup> where P = L<sup>-1</sup>X, so
+     * the downdated matrix is positive definite if I - P<sup>T</sup>P is positive definite.
+     */
+    boolean isDowndatePositiveDefinite( DMatrixRMaj T, boolean lower, DMatrixRMaj X ) {
+        final int n = T.numRows;
+        final int k = X.numCols;
+        final double[] t = T.data;
+
+        P.set(X);
+        final double[] p = P.data;
+        if (lower) {
+            TriangularSolver_DDRM.solveL(t, p, n, k);
+        } else {
+            // Solve R'*P = X, where R' is lower triangular. Traverses R one row at a time
+            for (int row = 0; row < n; row++) {
+                int indexR = row*n;
+                double diag = t[indexR + row];
+                for (int j = 0; j < k; j++) {
+                    p[row*k + j] /= diag;
+                }
+                for (int i = row + 1; i < n; i++) {
+                    double r = t[indexR + i];
+                    if (r == 0.0)
+                        continue;
+                    for (int j = 0; j < k; j++) {
+                        p[i*k + j] -= r*p[row*k + j];
+                    }
+                }
+            }
+        }
+
+        S.reshape(k, k);
+        CommonOps_DDRM.multTransA(P, P, S);
+        for (int i = 0; i < S.data.length; i++) {
+            S.data[i] = -S.data[i];
+        }
+        for (int i = 0; i < k; i++) {
+            S.data[i*k + i] += 1.0;
+        }
+        return chol.decompose(S);
+    }
+
+    /**
+     * Applies the rotations from columns col0 to row-1 to a row in a lower triangular matrix, then computes
+     * the rotations for its diagonal element.
+     */
+    private boolean modifyLowerRow( double[] t, double[] w, int n, int k, int row, int col0, double sign ) {
+        final int indexT = row*n;
+        final int indexW = row*k;
+
+        for (int col = col0; col < row; col++) {
+            double l = t[indexT + col];
+            int indexR = col*k;
+            for (int j = 0; j < k; j++) {
+                double cc = c[indexR + j];
+                double ss = s[indexR + j];
+                double wj = w[indexW + j];
+                l = (l + sign*ss*wj)*ci[indexR + j];
+                w[indexW + j] = cc*wj - ss*l;
+            }
+            t[indexT + col] = l;
+        }
+
+        double d = t[indexT + row];
+        int indexR = row*k;
+        for (int j = 0; j < k; j++) {
+            double x = w[indexW + j];
+            double r2 = d*d + sign*x*x;
+            if (r2 <= 0.0)
+                return false;
+            double r = Math.sqrt(r2);
+            c[indexR + j] = r/d;
+            ci[indexR + j] = d/r;
+            s[indexR + j] = x/d;
+            d = r;
+        }
+        t[indexT + row] = d;
+        return true;
+    }
+
+    /**
+     * Applies the rank-k modification using one rotation for each vector and diagonal element.
+     *
+     * @param sign +1 for an update and -1 for a downdate
+     */
+    private boolean modify( DMatrixRMaj T, boolean lower, DMatrixRMaj X, double sign ) {
+        final int n = T.numRows;
+        final int k = X.numCols;
+        final double[] t = T.data;
+
+        if (c.length < n*k) {
+            c = new double[n*k];
+            ci = new double[n*k];
+            s = new double[n*k];
+        }
+
+        if (lower) {
+            // W is stored as an n by k matrix so that row i of L and row i of W are processed together
+            W.set(X);
+            final double[] w = W.data;
+
+            // Each element in W is modified by a long chain of rotations. Four rows are processed at the same
+            // time so that there are independent chains which can be computed in parallel by the CPU
+            int i = 0;
+            for (; i + 4 <= n; i += 4) {
+                int index0 = i*n, index1 = index0 + n, index2 = index1 + n, index3 = index2 + n;
+                for (int col = 0; col < i; col++) {
+                    double l0 = t[index0 + col], l1 = t[index1 + col], l2 = t[index2 + col], l3 = t[index3 + col];
+                    int indexR = col*k;
+                    for (int j = 0; j < k; j++) {
+                        double cc = c[indexR + j];
+                        double ss = s[indexR + j];
+                        double sc = sign*ss;
+                        double inv = ci[indexR + j];
+                        int indexW = i*k + j;
+
+                        double w0 = w[indexW];
+                        l0 = (l0 + sc*w0)*inv;
+                        w[indexW] = cc*w0 - ss*l0;
+                        double w1 = w[indexW + k];
+                        l1 = (l1 + sc*w1)*inv;
+                        w[indexW + k] = cc*w1 - ss*l1;
+                        double w2 = w[indexW + 2*k];
+                        l2 = (l2 + sc*w2)*inv;
+                        w[indexW + 2*k] = cc*w2 - ss*l2;
+                        double w3 = w[indexW + 3*k];
+                        l3 = (l3 + sc*w3)*inv;
+                        w[indexW + 3*k] = cc*w3 - ss*l3;
+                    }
+                    t[index0 + col] = l0;
+                    t[index1 + col] = l1;
+                    t[index2 + col] = l2;
+                    t[index3 + col] = l3;
+                }
+                // finish the rows inside the block one at a time
+                for (int row = i; row < i + 4; row++) {
+                    if (!modifyLowerRow(t, w, n, k, row, i, sign))
+                        return false;
+                }
+            }
+            for (; i < n; i++) {
+                if (!modifyLowerRow(t, w, n, k, i, 0, sign))
+                    return false;
+            }
+        } else {
+            // W is stored as a k by n matrix so that each vector is contiguous
+            W.reshape(k, n);
+            CommonOps_DDRM.transpose(X, W);
+            final double[] w = W.data;
+
+            // row i in R is column i in L
+            for (int i = 0; i < n; i++) {
+                int indexT = i*n;
+                for (int j = 0; j < k; j++) {
+                    int indexW = j*n;
+                    double d = t[indexT + i];
+                    double x = w[indexW + i];
+                    double r2 = d*d + sign*x*x;
+                    if (r2 <= 0.0)
+                        return false;
+                    double r = Math.sqrt(r2);
+                    double cc = r/d;
+                    double ss = x/d;
+                    t[indexT + i] = r;
+
+                    for (int col = i + 1; col < n; col++) {
+                        double l = (t[indexT + col] + sign*ss*w[indexW + col])/cc;
+                        t[indexT + col] = l;
+                        w[indexW + col] = cc*w[indexW + col] - ss*l;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+}
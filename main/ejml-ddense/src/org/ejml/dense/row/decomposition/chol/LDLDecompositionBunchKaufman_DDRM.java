@@ -0,0 +1,471 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.dense.row.decomposition.chol;
+
+import org.ejml.EjmlParameters;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.interfaces.decomposition.DecompositionInterface;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * <p>
+ * Blocked LDL<sup>T</sup> decomposition of a symmetric indefinite matrix using Bunch-Kaufman pivoting:<br>
+ * <br>
+ * P*A*P<sup>T</sup> = L*D*L<sup>T</sup><br>
+ * <br>
+ * where P is a permutation matrix, L is unit lower triangular and D is block diagonal with 1x1 and 2x2 blocks.
+ * Unlike Cholesky, A does not need to be positive definite. Only the lower triangle of A is read.
+ * </p>
+ *
+ * <p>
+ * Columns are factored a panel at a time. Inside a panel only the columns needed to select a pivot are updated
+ * and the product L*D for the panel is saved in W. Once the panel is done the trailing matrix is updated all at
+ * once with A<sub>22</sub> = A<sub>22</sub> - L<sub>21</sub>*W<sub>21</sub><sup>T</sup>, which is where almost
+ * all the work is done. W is stored transposed so that both the panel and the trailing update traverse memory
+ * in row-major order. The pivot selection is the same as in LAPACK's DSYTRF, with
+ * &alpha; = (1+&radic;17)/8.
+ * </p>
+ *
+ * <p>
+ * The factored matrix is stored in the lower triangle. For a 2x2 block starting at column k, the off diagonal
+ * element of D is stored at (k+1,k) and L(k+1,k) is zero.
+ * </p>
+ *
+ * <p>See "Accuracy and Stability of Numerical Algorithms" by Nicholas Higham, Chapter 11</p>
+ *
+ * @author Peter Abeles
+ */
+public class LDLDecompositionBunchKaufman_DDRM implements DecompositionInterface<DMatrixRMaj> {
+    // threshold used to decide between 1x1 and 2x2 pivots
+    public static final double ALPHA = (1.0 + Math.sqrt(17.0))/8.0;
+    // number of columns in the trailing matrix which are updated at once
+    protected static final int TILE_WIDTH = 128;
+
+    // number of columns in a panel
+    protected int blockWidth;
+    // width and height of the matrix
+    protected int n;
+
+    // factored matrix. L below the diagonal and D on the diagonal. Only the lower triangle is used.
+    protected DMatrixRMaj LD = new DMatrixRMaj(1, 1);
+    // W transposed. Row p contains column p in the panel
+    protected DMatrixRMaj Wt = new DMatrixRMaj(1, 1);
+
+    // row i in the factored matrix is row perm[i] in the input matrix
+    protected int[] perm = new int[0];
+    // size of the block in D which starts at each column. 0 for the second column in a 2x2 block
+    protected int[] pivotSize = new int[0];
+
+    // workspace for a row in W
+    protected double[] coef = new double[0];
+
+    // true if an exactly singular pivot was encountered
+    protected boolean singular;
+
+    /**
+     * @param blockWidth Number of columns in each panel
+     */
+    public LDLDecompositionBunchKaufman_DDRM( int blockWidth ) {
+        if (blockWidth < 2)
+            throw new IllegalArgumentException("Block width must be at least 2");
+        this.blockWidth = blockWidth;
+    }
+
+    public LDLDecompositionBunchKaufman_DDRM() {
+        this(EjmlParameters.BLOCK_WIDTH);
+    }
+
+    /**
+     * Decomposes the matrix. Only the lower triangle is read.
+     *
+     * @param A A symmetric n by n matrix. Not modified.
+     * @return true if it succeeded or false if the matrix is singular
+     */
+    @Override
+    public boolean decompose( DMatrixRMaj A ) {
+        if (A.numRows != A.numCols)
+            throw new IllegalArgumentException("Can only decompose square matrices");
+
+        n = A.numRows;
+        LD.set(A);
+        if (perm.length < n) {
+            perm = new int[n];
+            pivotSize = new int[n];
+        }
+        for (int i = 0; i < n; i++) {
+            perm[i] = i;
+        }
+        singular = false;
+
+        int k0 = 0;
+        while (k0 < n) {
+            int kb = factorPanel(k0);
+            if (k0 + kb < n)
+                updateTrailing(k0, kb);
+            k0 += kb;
+        }
+
+        return !singular;
+    }
+
+    /**
+     * Factors the columns in the panel which starts at column k0. The trailing matrix is not modified
+     * except for the rows and columns which are swapped.
+     *
+     * @return Number of columns factored. Can be one less than the block width if the last pivot is 2x2.
+     */
+    protected int factorPanel( int k0 ) {
+        // when the whole remainder fits there's no need to leave room for a 2x2 pivot at the end
+        int nb = n - k0 <= blockWidth ? n - k0 + 1 : blockWidth;
+        Wt.reshape(nb, n);
+        if (coef.length < nb)
+            coef = new double[nb];
+
+        final double[] a = LD.data;
+        final double[] w = Wt.data;
+
+        int k = k0;
+        while (k < n && k - k0 < nb - 1) {
+            int c = k - k0;
+
+            // updated column k goes into column c of W
+            updatePanelColumn(k, k, c, k0);
+
+            int kstep = 1;
+            double absakk = Math.abs(w[c*n + k]);
+            int imax = k;
+            double colmax = 0;
+            for (int i = k + 1; i < n; i++) {
+                double v = Math.abs(w[c*n + i]);
+                if (v > colmax) {
+                    colmax = v;
+                    imax = i;
+                }
+            }
+
+            int kp;
+            if (Math.max(absakk, colmax) == 0.0) {
+                // column is zero and there's nothing to pivot
+                singular = true;
+                kp = k;
+            } else if (absakk >= ALPHA*colmax) {
+                kp = k;
+            } else {
+                // updated column imax goes into column c+1 of W
+                updatePanelColumn(imax, k, c + 1, k0);
+                double rowmax = 0;
+                for (int i = k; i < n; i++) {
+                    if (i != imax)
+                        rowmax = Math.max(rowmax, Math.abs(w[(c + 1)*n + i]));
+                }
+
+                if (absakk >= ALPHA*colmax*(colmax/rowmax)) {
+                    kp = k;
+                } else if (Math.abs(w[(c + 1)*n + imax]) >= ALPHA*rowmax) {
+                    kp = imax;
+                    System.arraycopy(w, (c + 1)*n + k, w, c*n + k, n - k);
+                } else {
+                    kp = imax;
+                    kstep = 2;
+                }
+            }
+
+            int kk = k + kstep - 1;
+            if (kp != kk) {
+                swap(kk, kp, k0);
+            }
+
+            if (kstep == 1) {
+                double d = w[c*n + k];
+                a[k*n + k] = d;
+                if (d == 0.0) {
+                    singular = true;
+                    for (int i = k + 1; i < n; i++) {
+                        a[i*n + k] = w[c*n + i];
+                    }
+                } else {
+                    double r = 1.0/d;
+                    for (int i = k + 1; i < n; i++) {
+                        a[i*n + k] = w[c*n + i]*r;
+                    }
+                }
+                pivotSize[k] = 1;
+            } else {
+                // the 2x2 block is [d11 d21;d21 d22]. Solve for L using its inverse
+                double d21 = w[c*n + k + 1];
+                double d11 = w[(c + 1)*n + k + 1]/d21;
+                double d22 = w[c*n + k]/d21;
+                double t = 1.0/(d11*d22 - 1.0);
+                d21 = t/d21;
+                for (int j = k + 2; j < n; j++) {
+                    double wk = w[c*n + j];
+                    double wk1 = w[(c + 1)*n + j];
+                    a[j*n + k] = d21*(d11*wk - wk1);
+                    a[j*n + k + 1] = d21*(d22*wk1 - wk);
+                }
+                a[k*n + k] = w[c*n + k];
+                a[(k + 1)*n + k] = w[c*n + k + 1];
+                a[(k + 1)*n + k + 1] = w[(c + 1)*n + k + 1];
+                pivotSize[k] = 2;
+                pivotSize[k + 1] = 0;
+            }
+
+            k += kstep;
+        }
+
+        return k - k0;
+    }
+
+    /**
+     * Computes rows k to n-1 of column 'src' after it has been updated by the columns already factored in
+     * this panel and writes the results into row 'c' of Wt.
+     *
+     * @param src Column in A which is updated
+     * @param k The next column to be factored
+     * @param c Which column in W the results are written to
+     * @param k0 First column in the panel
+     */
+    protected void updatePanelColumn( int src, int k, int c, int k0 ) {
+        final double[] a = LD.data;
+        final double[] w = Wt.data;
+        final int numDone = k - k0;
+        final int indexW = c*n;
+
+        // only the lower triangle is valid. elements in row 'src' are used above the diagonal
+        for (int i = k; i < src; i++) {
+            w[indexW + i] = a[src*n + i];
+        }
+        for (int i = src; i < n; i++) {
+            w[indexW + i] = a[i*n + src];
+        }
+
+        if (numDone == 0)
+            return;
+
+        // elements in row 'src' of the panel's W
+        for (int p = 0; p < numDone; p++) {
+            coef[p] = w[p*n + src];
+        }
+        updatePanelRows(k0, numDone, indexW, k, n);
+    }
+
+    /**
+     * Subtracts the contribution of the factored columns in the panel from rows row0 to row1-1 of the column
+     * being computed in W. The coefficients from W are in 'coef'.
+     */
+    protected void updatePanelRows( int k0, int numDone, int indexW, int row0, int row1 ) {
+        final double[] a = LD.data;
+        final double[] w = Wt.data;
+        final double[] coef = this.coef;
+
+        for (int i = row0; i < row1; i++) {
+            int indexA = i*n + k0;
+            double sum = 0;
+            for (int p = 0; p < numDone; p++) {
+                sum += a[indexA + p]*coef[p];
+            }
+            w[indexW + i] -= sum;
+        }
+    }
+
+    /**
+     * Symmetrically swaps rows and columns kk and kp, where kk &lt; kp. The trailing matrix hasn't been
+     * updated so the original values are swapped. The factored columns and W are swapped along the rows.
+     */
+    private void swap( int kk, int kp, int k0 ) {
+        final double[] a = LD.data;
+        final double[] w = Wt.data;
+
+        // only the lower triangle of the trailing matrix needs to be valid
+        a[kp*n + kp] = a[kk*n + kk];
+        for (int j = kk + 1; j < kp; j++) {
+            a[kp*n + j] = a[j*n + kk];
+        }
+        for (int i = kp + 1; i < n; i++) {
+            a[i*n + kp] = a[i*n + kk];
+        }
+
+        // already factored columns
+        for (int j = 0; j < kk; j++) {
+            double tmp = a[kk*n + j];
+            a[kk*n + j] = a[kp*n + j];
+            a[kp*n + j] = tmp;
+        }
+        for (int p = 0; p <= kk - k0; p++) {
+            double tmp = w[p*n + kk];
+            w[p*n + kk] = w[p*n + kp];
+            w[p*n + kp] = tmp;
+        }
+
+        int tmp = perm[kk];
+        perm[kk] = perm[kp];
+        perm[kp] = tmp;
+    }
+
+    /**
+     * Updates the lower triangle of the trailing matrix using the panel which starts at k0:<br>
+     * A<sub>22</sub> = A<sub>22</sub> - L<sub>21</sub>*W<sub>21</sub><sup>T</sup>
+     *
+     * @param k0 First column in the panel
+     * @param kb Number of columns in the panel
+     */
+    protected void updateTrailing( int k0, int kb ) {
+        final int start = k0 + kb;
+        for (int col0 = start; col0 < n; col0 += TILE_WIDTH) {
+            updateTrailingTile(k0, kb, col0, Math.min(n, col0 + TILE_WIDTH));
+        }
+    }
+
+    /**
+     * Updates columns col0 to col1-1 in the lower triangle of the trailing matrix. By working on a few columns
+     * at a time the part of W which is read stays in the cache.
+     */
+    protected void updateTrailingTile( int k0, int kb, int col0, int col1 ) {
+        final double[] a = LD.data;
+        final double[] w = Wt.data;
+
+        for (int i = col0; i < n; i++) {
+            int end = Math.min(i + 1, col1);
+            int rowA = i*n;
+            for (int p = 0; p < kb; p++) {
+                double l = a[rowA + k0 + p];
+                if (l == 0.0)
+                    continue;
+                int indexW = p*n;
+                for (int j = col0; j < end; j++) {
+                    a[rowA + j] -= l*w[indexW + j];
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes the determinant from the decomposition
+     */
+    public double computeDeterminant() {
+        final double[] a = LD.data;
+        double det = 1.0;
+        for (int k = 0; k < n; k += pivotSize[k]) {
+            if (pivotSize[k] == 1) {
+                det *= a[k*n + k];
+            } else {
+                double d21 = a[(k + 1)*n + k];
+                det *= a[k*n + k]*a[(k + 1)*n + k + 1] - d21*d21;
+            }
+        }
+        return det;
+    }
+
+    /**
+     * Returns the unit lower triangular matrix L
+     *
+     * @param L (Optional) Storage for L. Reshaped if needed.
+     */
+    public DMatrixRMaj getL( @Nullable DMatrixRMaj L ) {
+        if (L == null)
+            L = new DMatrixRMaj(n, n);
+        else
+            L.reshape(n, n);
+
+        L.zero();
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(LD.data, i*n, L.data, i*n, i);
+            L.data[i*n + i] = 1;
+        }
+        // the element below the diagonal in a 2x2 block belongs to D
+        for (int k = 0; k < n; k++) {
+            if (pivotSize[k] == 2)
+                L.data[(k + 1)*n + k] = 0;
+        }
+        return L;
+    }
+
+    /**
+     * Returns the block diagonal matrix D
+     *
+     * @param D (Optional) Storage for D. Reshaped if needed.
+     */
+    public DMatrixRMaj getD( @Nullable DMatrixRMaj D ) {
+        if (D == null)
+            D = new DMatrixRMaj(n, n);
+        else
+            D.reshape(n, n);
+
+        D.zero();
+        for (int k = 0; k < n; k++) {
+            D.data[k*n + k] = LD.data[k*n + k];
+            if (pivotSize[k] == 2) {
+                double d21 = LD.data[(k + 1)*n + k];
+                D.data[(k + 1)*n + k] = d21;
+                D.data[k*n + k + 1] = d21;
+            }
+        }
+        return D;
+    }
+
+    /**
+     * Returns the permutation matrix P, where P*A*P<sup>T</sup> = L*D*L<sup>T</sup>
+     *
+     * @param P (Optional) Storage for P. Reshaped if needed.
+     */
+    public DMatrixRMaj getP( @Nullable DMatrixRMaj P ) {
+        if (P == null)
+            P = new DMatrixRMaj(n, n);
+        else
+            P.reshape(n, n);
+
+        P.zero();
+        for (int i = 0; i < n; i++) {
+            P.data[i*n + perm[i]] = 1;
+        }
+        return P;
+    }
+
+    /**
+     * Row i in the decomposition is row getPermutation()[i] in the original matrix.
+     */
+    public int[] getPermutation() {
+        return perm;
+    }
+
+    /**
+     * Size of the block in D which starts at each column. 1 or 2 at the start of a block and 0 for the
+     * second column in a 2x2 block.
+     */
+    public int[] getPivotSize() {
+        return pivotSize;
+    }
+
+    /**
+     * Internal storage for L and D. See class description.
+     */
+    public DMatrixRMaj _getLD() {
+        return LD;
+    }
+
+    public int getBlockWidth() {
+        return blockWidth;
+    }
+
+    @Override
+    public boolean inputModified() {
+        return false;
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.dense.row.decomposition.chol;
+
+import org.ejml.concurrency.EjmlConcurrency;
+
+/**
+ * <p>
+ * Concurrent implementation of {@link LDLDecompositionBunchKaufman_DDRM}. Pivot selection inside a panel is
+ * inherently sequential, but the trailing matrix update is split into tiles of columns which are updated at the
+ * same time. When the panel is tall enough, the rows of each updated panel column are also split between threads.
+ * The results are identical to the single threaded version.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class LDLDecompositionBunchKaufman_MT_DDRM extends LDLDecompositionBunchKaufman_DDRM {
+    // number of rows processed by each thread when updating a column in the panel
+    static final int PANEL_ROWS = 512;
+    // the panel is only updated concurrently when there's at least this many multiplications
+    static final int PANEL_MIN_WORK = 100_000;
+
+    public LDLDecompositionBunchKaufman_MT_DDRM( int blockWidth ) {
+        super(blockWidth);
+    }
+
+    public LDLDecompositionBunchKaufman_MT_DDRM() {}
+
+    @Override
+    protected void updatePanelRows( int k0, int numDone, int indexW, int row0, int row1 ) {
+        if ((row1 - row0)*numDone < PANEL_MIN_WORK) {
+            super.updatePanelRows(k0, numDone, indexW, row0, row1);
+            return;
+        }
+
+        EjmlConcurrency.loopFor(row0, row1, PANEL_ROWS, i0 ->
+                super.updatePanelRows(k0, numDone, indexW, i0, Math.min(row1, i0 + PANEL_ROWS)));
+    }
+
+    @Override
+    protected void updateTrailing( int k0, int kb ) {
+        final int start = k0 + kb;
+        EjmlConcurrency.loopFor(start, n, TILE_WIDTH, col0 ->
+                updateTrailingTile(k0, kb, col0, Math.min(n, col0 + TILE_WIDTH)));
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.dense.row.decomposition.eig;
+
+import org.ejml.data.Complex_F64;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.decomposition.eig.symm.SymmetricDivideConquer_DDRM;
+import org.ejml.dense.row.decomposition.eig.symm.SymmetricQREigenHelper_DDRM;
+import org.ejml.dense.row.decomposition.eig.symm.SymmetricQrAlgorithm_DDRM;
+import org.ejml.dense.row.factory.DecompositionFactory_DDRM;
+import org.ejml.interfaces.decomposition.EigenDecomposition_F64;
+import org.ejml.interfaces.decomposition.TridiagonalSimilarDecomposition_F64;
+
+/**
+ * <p>
+ * Computes the eigenvalues and eigenvectors of a real symmetric matrix using the divide and conquer algorithm.
+ * The matrix is first reduced to a similar tridiagonal matrix whose eigenvalues and eigenvectors are then found
+ * using {@link SymmetricDivideConquer_DDRM}. The eigenvalues are returned in ascending order.
+ * </p>
+ *
+ * <p>
+ * The divide and conquer algorithm is only faster than the QR algorithm when eigenvectors are computed. If only
+ * eigenvalues are requested then the QR algorithm is used on the tridiagonal matrix instead.
+ * </p>
+ *
+ * @author Peter Abeles
+ * @see SymmetricQRAlgorithmDecomposition_DDRM
+ */
+@SuppressWarnings("NullAway.Init")
+public class SymmetricDivideConquerDecomposition_DDRM
+        implements EigenDecomposition_F64<DMatrixRMaj> {
+
+    // computes a tridiagonal matrix whose eigenvalues are the same as the original
+    // matrix and can be easily computed.
+    private final TridiagonalSimilarDecomposition_F64<DMatrixRMaj> decomp;
+    // computes the eigenvalues and eigenvectors of the tridiagonal matrix
+    private final SymmetricDivideConquer_DDRM alg;
+
+    // used when only eigenvalues are computed
+    private final SymmetricQREigenHelper_DDRM helper = new SymmetricQREigenHelper_DDRM();
+    private final SymmetricQrAlgorithm_DDRM qr = new SymmetricQrAlgorithm_DDRM(helper);
+
+    // number of eigenvalues
+    private int N;
+
+    // where the found eigenvalues are stored
+    private double[] values = new double[0];
+
+    // where the tridiagonal matrix is stored
+    private double[] diag = new double[0];
+    private double[] off = new double[0];
+
+    // orthogonal matrix from the tridiagonal decomposition
+    private DMatrixRMaj Q;
+    // the extracted eigenvectors
+    private DMatrixRMaj[] eigenvectors;
+
+    // should it compute eigenvectors or just eigenvalues
+    boolean computeVectors;
+
+    public SymmetricDivideConquerDecomposition_DDRM( TridiagonalSimilarDecomposition_F64<DMatrixRMaj> decomp,
+                                                     SymmetricDivideConquer_DDRM alg,
+                                                     boolean computeVectors ) {
+        this.decomp = decomp;
+        this.alg = alg;
+        this.computeVectors = computeVectors;
+    }
+
+    public SymmetricDivideConquerDecomposition_DDRM( boolean computeVectors ) {
+        this(DecompositionFactory_DDRM.tridiagonal(0), new SymmetricDivideConquer_DDRM(), computeVectors);
+    }
+
+    @Override
+    public int getNumberOfEigenvalues() {
+        return N;
+    }
+
+    @Override
+    public Complex_F64 getEigenvalue( int index ) {
+        return new Complex_F64(values[index], 0);
+    }
+
+    @Override
+    public DMatrixRMaj getEigenVector( int index ) {
+        return eigenvectors[index];
+    }
+
+    /**
+     * Decomposes the matrix.
+     *
+     * @param orig The matrix which is being decomposed. Not modified.
+     * @return true if it decomposed the matrix or false if an error was detected. This will not catch all errors.
+     */
+    @Override
+    public boolean decompose( DMatrixRMaj orig ) {
+        if (orig.numCols != orig.numRows)
+            throw new IllegalArgumentException("Matrix must be square.");
+        if (orig.numCols <= 0)
+            return false;
+
+        N = orig.numRows;
+
+        // compute a similar tridiagonal matrix
+        if (!decomp.decompose(orig))
+            return false;
+
+        if (diag.length < N) {
+            diag = new double[N];
+            off = new double[N];
+            values = new double[N];
+        }
+        decomp.getDiagonal(diag, off);
+
+        if (computeVectors) {
+            Q = decomp.getQ(Q, false);
+            if (!alg.process(N, diag, off, Q))
+                return false;
+            System.arraycopy(alg.getEigenvalues(), 0, values, 0, N);
+            eigenvectors = CommonOps_DDRM.columnsToVector(alg.getEigenvectors(), eigenvectors);
+        } else {
+            helper.init(diag, off, N);
+            qr.setQ(null);
+            qr.setFastEigenvalues(true);
+            if (!qr.process(-1, null, null))
+                return false;
+            values = helper.copyEigenvalues(values);
+        }
+
+        return true;
+    }
+
+    @Override
+    public boolean inputModified() {
+        return decomp.inputModified();
+    }
+
+    /**
+     * Returns the algorithm used to compute the eigenvalues and eigenvectors of the tridiagonal matrix
+     */
+    public SymmetricDivideConquer_DDRM getDivideConquer() {
+        return alg;
+    }
+}
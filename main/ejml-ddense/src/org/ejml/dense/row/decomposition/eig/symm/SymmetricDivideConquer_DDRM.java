@@ -0,0 +1,854 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.dense.row.decomposition.eig.symm;
+
+import org.ejml.UtilEjml;
+import org.ejml.concurrency.GrowArray;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * <p>
+ * Computes the eigenvalues and eigenvectors of a symmetric tridiagonal matrix using Cuppen's divide and conquer
+ * algorithm. The matrix is recursively torn in half by a rank one modification until the pieces are small enough
+ * to be solved with the {@link SymmetricQrAlgorithm_DDRM implicit QR algorithm}. Two solved halves are merged by
+ * finding the eigenvalues of a diagonal matrix plus a rank one update, which are the roots of the secular
+ * equation, and then multiplying the eigenvectors of the two halves by the eigenvectors of the update. Almost
+ * all the work is done inside that matrix multiplication, which is why it's much faster than the QR algorithm
+ * when eigenvectors are needed.
+ * </p>
+ *
+ * <pre>
+ * T = [T1 0; 0 T2] + &rho;*u*u<sup>T</sup>
+ * [T1 0; 0 T2] = Q*D*Q<sup>T</sup>
+ * T = Q*(D + &rho;*z*z<sup>T</sup>)*Q<sup>T</sup>   where z = Q<sup>T</sup>*u
+ * </pre>
+ *
+ * <p>
+ * Eigenvalues which can be found without solving the secular equation are deflated using the same tests as
+ * LAPACK's DLAED2. The eigenvectors of the rank one update are computed using the approach of Gu and Eisenstat,
+ * which ensures that they are orthogonal even when eigenvalues are close together.
+ * </p>
+ *
+ * <p>
+ * Merges which have the same height in the tree don't depend on each other. This is taken advantage of by
+ * the concurrent implementation.
+ * </p>
+ *
+ * <p>
+ * [1] J.J.M. Cuppen, "A divide and conquer method for the symmetric tridiagonal eigenproblem" Numerische
+ * Mathematik, 1981<br>
+ * [2] M. Gu and S. C. Eisenstat, "A Divide-and-Conquer Algorithm for the Symmetric Tridiagonal Eigenproblem"
+ * SIAM J. Matrix Anal. Appl., 1995
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class SymmetricDivideConquer_DDRM {
+    // Types of columns in a merge. Used to avoid multiplying blocks which are known to be zero
+    static final int UPPER = 0;
+    static final int LOWER = 1;
+    static final int DENSE = 2;
+
+    // Segments this size or smaller are solved using the QR algorithm
+    protected int minimumSize = 25;
+
+    // Maximum number of iterations used to find a root of the secular equation
+    protected int maxIterations = 100;
+
+    // size of the matrix
+    protected int N;
+
+    // Initially the diagonal elements with the tears applied. After a segment has been solved it contains
+    // the eigenvalues of the segment in ascending order.
+    protected double[] values = new double[0];
+    // off diagonal elements
+    protected double[] off = new double[0];
+    // tridiagonal matrix is divided by this value to avoid overflow and underflow
+    protected double scale;
+
+    // Eigenvectors of the tridiagonal matrix, stored in the columns. Each segment is stored in the block along
+    // the diagonal which it covers.
+    protected DMatrixRMaj Z = new DMatrixRMaj(1, 1);
+    // Eigenvectors of the tridiagonal matrix multiplied by a user provided matrix
+    protected DMatrixRMaj V = new DMatrixRMaj(1, 1);
+    protected DMatrixRMaj eigenvectors = Z;
+
+    // Segments which are solved directly. Leaf i covers leafIdx[i] to leafIdx[i+1]
+    protected int numLeaves;
+    protected int[] leafIdx = new int[0];
+
+    // Merge i combines [mergeLo[i], mergeMid[i]) and [mergeMid[i], mergeHi[i]). Merges are sorted by their height
+    // in the tree and merges at height h are from heightIdx[h-1] to heightIdx[h].
+    protected int numMerges;
+    protected int[] mergeLo = new int[0];
+    protected int[] mergeMid = new int[0];
+    protected int[] mergeHi = new int[0];
+    protected int numHeights;
+    protected int[] heightIdx = new int[0];
+
+    // storage for the merges before they are sorted by height
+    private int[] unsortedLo = new int[0];
+    private int[] unsortedMid = new int[0];
+    private int[] unsortedHi = new int[0];
+    private int[] unsortedHeight = new int[0];
+
+    protected GrowArray<Workspace> workspace = new GrowArray<>(Workspace::new);
+
+    /**
+     * Computes the eigenvalues and eigenvectors of a symmetric tridiagonal matrix.
+     *
+     * @param N Number of rows and columns in the matrix.
+     * @param diag Diagonal elements. Not modified.
+     * @param off Off diagonal elements. Not modified.
+     * @param Q (Optional) The found eigenvectors are multiplied by this matrix, e.g. the orthogonal matrix from
+     * a tridiagonal decomposition. Not modified.
+     * @return true if successful or false if the QR algorithm failed to converge
+     */
+    public boolean process( int N, double[] diag, double[] off, @Nullable DMatrixRMaj Q ) {
+        this.N = N;
+        if (values.length < N) {
+            values = new double[N];
+            this.off = new double[N];
+            leafIdx = new int[N + 1];
+            mergeLo = new int[N];
+            mergeMid = new int[N];
+            mergeHi = new int[N];
+            heightIdx = new int[N + 1];
+            unsortedLo = new int[N];
+            unsortedMid = new int[N];
+            unsortedHi = new int[N];
+            unsortedHeight = new int[N];
+        }
+        System.arraycopy(diag, 0, values, 0, N);
+        if (N > 1)
+            System.arraycopy(off, 0, this.off, 0, N - 1);
+        Z.reshape(N, N);
+        Z.zero();
+
+        // scale the matrix to avoid overflow and underflow
+        scale = 0;
+        for (int i = 0; i < N; i++) {
+            scale = Math.max(scale, Math.abs(values[i]));
+        }
+        for (int i = 0; i < N - 1; i++) {
+            scale = Math.max(scale, Math.abs(this.off[i]));
+        }
+
+        if (scale == 0) {
+            // all zeros matrix. Any orthogonal matrix will do
+            CommonOps_DDRM.setIdentity(Z);
+        } else {
+            for (int i = 0; i < N; i++) {
+                values[i] /= scale;
+            }
+            for (int i = 0; i < N - 1; i++) {
+                this.off[i] /= scale;
+            }
+
+            createTree();
+
+            if (!solveLeaves())
+                return false;
+
+            for (int height = 1; height <= numHeights; height++) {
+                mergeLevel(heightIdx[height - 1], heightIdx[height]);
+            }
+
+            for (int i = 0; i < N; i++) {
+                values[i] *= scale;
+            }
+        }
+
+        if (Q == null) {
+            eigenvectors = Z;
+        } else {
+            V.reshape(Q.numRows, N);
+            multiplyEigenvectors(Q, Z, V);
+            eigenvectors = V;
+        }
+
+        return true;
+    }
+
+    /**
+     * Recursively splits the matrix in half until the segments are small enough to be solved directly. The
+     * tears are applied to the diagonal and the merges are sorted by their height in the tree.
+     */
+    protected void createTree() {
+        numLeaves = 0;
+        numMerges = 0;
+        numHeights = divide(0, N);
+        leafIdx[numLeaves] = N;
+
+        // sort the merges by height
+        heightIdx[0] = 0;
+        for (int height = 1; height <= numHeights; height++) {
+            heightIdx[height] = heightIdx[height - 1];
+            for (int i = 0; i < numMerges; i++) {
+                if (unsortedHeight[i] != height)
+                    continue;
+                int index = heightIdx[height]++;
+                mergeLo[index] = unsortedLo[i];
+                mergeMid[index] = unsortedMid[i];
+                mergeHi[index] = unsortedHi[i];
+            }
+        }
+    }
+
+    /**
+     * Divides the segment from lo to hi and returns its height in the tree
+     */
+    private int divide( int lo, int hi ) {
+        int length = hi - lo;
+        if (length <= minimumSize) {
+            leafIdx[numLeaves++] = lo;
+            return 0;
+        }
+        int mid = lo + length/2;
+
+        // T = [T1 0; 0 T2] + |b|*u*u' where u = [e_last ; sign(b)*e_first]
+        double b = Math.abs(off[mid - 1]);
+        values[mid - 1] -= b;
+        values[mid] -= b;
+
+        int height = 1 + Math.max(divide(lo, mid), divide(mid, hi));
+        unsortedLo[numMerges] = lo;
+        unsortedMid[numMerges] = mid;
+        unsortedHi[numMerges] = hi;
+        unsortedHeight[numMerges] = height;
+        numMerges++;
+        return height;
+    }
+
+    /**
+     * Computes the eigenvalues and eigenvectors of all the leaves
+     */
+    protected boolean solveLeaves() {
+        workspace.resize(1);
+        Workspace work = workspace.get(0);
+        for (int i = 0; i < numLeaves; i++) {
+            if (!solveLeaf(i, work))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Solves for the eigenvalues and eigenvectors of a leaf using the QR algorithm. The eigenvalues are sorted
+     * in ascending order.
+     */
+    protected boolean solveLeaf( int which, Workspace work ) {
+        int lo = leafIdx[which];
+        int length = leafIdx[which + 1] - lo;
+
+        if (length == 1) {
+            Z.unsafe_set(lo, lo, 1.0);
+            return true;
+        }
+
+        work.resize(length);
+        double[] d = work.d;
+        double[] e = work.z;
+        System.arraycopy(values, lo, d, 0, length);
+        System.arraycopy(off, lo, e, 0, length - 1);
+
+        work.U.reshape(length, length);
+        CommonOps_DDRM.setIdentity(work.U);
+        work.helper.init(d, e, length);
+        work.helper.setQ(work.U);
+        work.qr.setFastEigenvalues(false);
+        if (!work.qr.process(-1, null, null))
+            return false;
+
+        // Sort the eigenvalues and save the eigenvectors, which are the rows of U, into the columns of Z
+        int[] order = work.order;
+        for (int i = 0; i < length; i++) {
+            order[i] = i;
+        }
+        insertionSort(d, order, length);
+        for (int k = 0; k < length; k++) {
+            int src = order[k];
+            values[lo + k] = d[src];
+            for (int row = 0; row < length; row++) {
+                Z.data[(lo + row)*N + lo + k] = work.U.data[src*length + row];
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Merges all the segments from idx0 to idx1, which are at the same height in the tree
+     */
+    protected void mergeLevel( int idx0, int idx1 ) {
+        workspace.resize(1);
+        Workspace work = workspace.get(0);
+        for (int i = idx0; i < idx1; i++) {
+            merge(i, work);
+        }
+    }
+
+    /**
+     * Merges two adjacent segments which have already been solved
+     */
+    protected void merge( int which, Workspace work ) {
+        final int lo = mergeLo[which];
+        final int mid = mergeMid[which];
+        final int length = mergeHi[which] - lo;
+        final int length1 = mid - lo;
+        final double beta = off[mid - 1];
+
+        work.resize(length);
+        final double[] d = work.d;
+        final double[] z = work.z;
+
+        // z = [last row of Z1, sign(beta)*first row of Z2]/sqrt(2). Each part has a norm of one
+        final double invSqrt2 = 1.0/Math.sqrt(2.0);
+        final double sign = beta < 0 ? -invSqrt2 : invSqrt2;
+        for (int i = 0; i < length1; i++) {
+            z[i] = Z.data[(mid - 1)*N + lo + i]*invSqrt2;
+        }
+        for (int i = length1; i < length; i++) {
+            z[i] = Z.data[mid*N + lo + i]*sign;
+        }
+        System.arraycopy(values, lo, d, 0, length);
+        work.rho = 2.0*Math.abs(beta);
+
+        deflate(lo, length, length1, work);
+
+        if (work.K > 0) {
+            int K = work.K;
+            for (int i = 0; i < K; i++) {
+                work.dk[i] = d[work.nondeflated[i]];
+                work.zk[i] = z[work.nondeflated[i]];
+            }
+            work.U.reshape(K, K);
+            solveSecular(work);
+            computeVectors(work);
+
+            multiplyMerge(lo, mid, mergeHi[which], work);
+        }
+
+        assemble(lo, length, work);
+    }
+
+    /**
+     * Sorts the eigenvalues and finds which ones can be deflated. When two eigenvalues are close together
+     * a Givens rotation is applied to zero one of the elements in z.
+     */
+    protected void deflate( int lo, int length, int length1, Workspace work ) {
+        final double[] d = work.d;
+        final double[] z = work.z;
+        final int[] perm = work.order;
+        final int[] type = work.type;
+
+        // merge the two sorted lists of eigenvalues
+        for (int a = 0, b = length1, k = 0; k < length; k++) {
+            if (b >= length || (a < length1 && d[a] <= d[b]))
+                perm[k] = a++;
+            else
+                perm[k] = b++;
+        }
+        for (int i = 0; i < length; i++) {
+            type[i] = i < length1 ? UPPER : LOWER;
+        }
+
+        double maxD = 0, maxZ = 0;
+        for (int i = 0; i < length; i++) {
+            maxD = Math.max(maxD, Math.abs(d[i]));
+            maxZ = Math.max(maxZ, Math.abs(z[i]));
+        }
+        final double tol = 8.0*UtilEjml.EPS*Math.max(maxD, maxZ);
+        final double rho = work.rho;
+
+        work.K = 0;
+        work.numDeflated = 0;
+
+        if (rho*maxZ <= tol) {
+            // the update is so small that all the eigenvalues are deflated
+            for (int k = 0; k < length; k++) {
+                work.deflated[work.numDeflated++] = perm[k];
+            }
+            return;
+        }
+
+        int prev = -1;
+        for (int k = 0; k < length; k++) {
+            int j = perm[k];
+            if (rho*Math.abs(z[j]) <= tol) {
+                work.deflated[work.numDeflated++] = j;
+                continue;
+            }
+            if (prev == -1) {
+                prev = j;
+                continue;
+            }
+
+            // see if the two eigenvalues are close enough that one can be deflated after a rotation
+            double s = z[prev];
+            double c = z[j];
+            double tau = Math.sqrt(c*c + s*s);
+            double t = d[j] - d[prev];
+            c /= tau;
+            s = -s/tau;
+            if (Math.abs(t*c*s) <= tol) {
+                z[j] = tau;
+                z[prev] = 0;
+                rotateColumns(lo + prev, lo + j, lo, lo + length, c, s);
+                if (type[prev] != type[j])
+                    type[j] = DENSE;
+                double dprev = d[prev]*c*c + d[j]*s*s;
+                d[j] = d[prev]*s*s + d[j]*c*c;
+                d[prev] = dprev;
+                work.deflated[work.numDeflated++] = prev;
+            } else {
+                work.nondeflated[work.K++] = prev;
+            }
+            prev = j;
+        }
+        if (prev != -1)
+            work.nondeflated[work.K++] = prev;
+    }
+
+    /**
+     * Applies a Givens rotation to two columns in Z
+     */
+    private void rotateColumns( int colA, int colB, int row0, int row1, double c, double s ) {
+        for (int row = row0; row < row1; row++) {
+            int index = row*N;
+            double a = Z.data[index + colA];
+            double b = Z.data[index + colB];
+            Z.data[index + colA] = c*a + s*b;
+            Z.data[index + colB] = c*b - s*a;
+        }
+    }
+
+    /**
+     * Finds all the roots of the secular equation
+     */
+    protected void solveSecular( Workspace work ) {
+        for (int j = 0; j < work.K; j++) {
+            solveRoot(j, work);
+        }
+    }
+
+    /**
+     * <p>
+     * Finds root j of the secular equation, which is the j-th eigenvalue of D + &rho;*z*z<sup>T</sup>:
+     * </p>
+     * f(&lambda;) = 1/&rho; + &sum;<sub>i</sub> z<sub>i</sub><sup>2</sup>/(d<sub>i</sub> - &lambda;) = 0
+     *
+     * <p>
+     * The root is in the interval (d<sub>j</sub>, d<sub>j+1</sub>) and is found relative to whichever end is
+     * closer, so that the distance to each pole can be computed accurately. Each step approximates the
+     * function using the two nearest poles and the root is kept inside of a bracket.
+     * The distance from each pole to the root, d<sub>i</sub> - &lambda;<sub>j</sub>, is saved in column j of U.
+     * </p>
+     */
+    protected void solveRoot( int j, Workspace work ) {
+        final int K = work.K;
+        final double[] dk = work.dk;
+        final double[] zk = work.zk;
+        final double rho = work.rho;
+        final double invRho = 1.0/rho;
+        final boolean last = j == K - 1;
+
+        // bracket the root relative to the origin
+        int origin;
+        double lower, upper;
+        if (!last) {
+            double gap = dk[j + 1] - dk[j];
+            double f = invRho;
+            for (int i = 0; i < K; i++) {
+                f += zk[i]*zk[i]/((dk[i] - dk[j]) - gap/2.0);
+            }
+            if (f >= 0) {
+                origin = j;
+                lower = 0;
+                upper = gap/2.0;
+            } else {
+                origin = j + 1;
+                lower = -gap/2.0;
+                upper = 0;
+            }
+        } else {
+            double sumZ = 0;
+            for (int i = 0; i < K; i++) {
+                sumZ += zk[i]*zk[i];
+            }
+            origin = j;
+            lower = 0;
+            upper = rho*sumZ;
+        }
+        final double org = dk[origin];
+
+        double tau = (lower + upper)/2.0;
+        for (int iteration = 0; iteration < maxIterations; iteration++) {
+            double psi = 0, dpsi = 0;
+            for (int i = 0; i <= j; i++) {
+                double t = zk[i]/((dk[i] - org) - tau);
+                psi += zk[i]*t;
+                dpsi += t*t;
+            }
+            double phi = 0, dphi = 0;
+            for (int i = j + 1; i < K; i++) {
+                double t = zk[i]/((dk[i] - org) - tau);
+                phi += zk[i]*t;
+                dphi += t*t;
+            }
+            double f = invRho + psi + phi;
+
+            // see if it has converged to within the accuracy that f can be computed
+            double error = 8.0*(phi - psi) + 2.0*invRho + 3.0*Math.abs(tau)*(dpsi + dphi);
+            if (Math.abs(f) <= UtilEjml.EPS*error)
+                break;
+
+            if (f < 0)
+                lower = tau;
+            else
+                upper = tau;
+
+            // approximate the function using the two nearest poles and find its root
+            double delta1 = (dk[j] - org) - tau;
+            double step;
+            if (last) {
+                double c = f - dpsi*delta1;
+                step = c > 0 ? delta1 + dpsi*delta1*delta1/c : Double.NaN;
+            } else {
+                double delta2 = (dk[j + 1] - org) - tau;
+                step = rationalStep(f - dpsi*delta1 - dphi*delta2, dpsi*delta1*delta1, dphi*delta2*delta2,
+                        delta1, delta2);
+            }
+
+            double next = tau + step;
+            // fall back to bisection if it leaves the bracket
+            if (!(next > lower && next < upper))
+                next = (lower + upper)/2.0;
+            if (next == tau)
+                break;
+            tau = next;
+        }
+
+        work.lambda[j] = org + tau;
+        double[] U = work.U.data;
+        for (int i = 0; i < K; i++) {
+            U[i*K + j] = (dk[i] - org) - tau;
+        }
+    }
+
+    /**
+     * Finds the root of c + q/(delta1-x) + s/(delta2-x) which is between delta1 and delta2
+     *
+     * @return the root or NaN if it can't be computed
+     */
+    static double rationalStep( double c, double q, double s, double delta1, double delta2 ) {
+        double a = c;
+        double b = -(c*(delta1 + delta2) + q + s);
+        double e = c*delta1*delta2 + q*delta2 + s*delta1;
+
+        if (a == 0)
+            return b == 0 ? Double.NaN : -e/b;
+
+        double disc = b*b - 4.0*a*e;
+        if (disc < 0)
+            return Double.NaN;
+        double r = -0.5*(b + Math.copySign(Math.sqrt(disc), b));
+        if (r == 0)
+            return Double.NaN;
+        double x1 = r/a;
+        double x2 = e/r;
+        if (x1 > delta1 && x1 < delta2)
+            return x1;
+        if (x2 > delta1 && x2 < delta2)
+            return x2;
+        return Double.NaN;
+    }
+
+    /**
+     * Computes the eigenvectors of the rank one update and stores them in the columns of U. The vector z is
+     * recomputed from the found eigenvalues using the Löwner formula so that the vectors are orthogonal.
+     */
+    protected void computeVectors( Workspace work ) {
+        for (int i = 0; i < work.K; i++) {
+            computeZ(i, work);
+        }
+        for (int j = 0; j < work.K; j++) {
+            computeVector(j, work);
+        }
+    }
+
+    protected void computeZ( int i, Workspace work ) {
+        final int K = work.K;
+        final double[] dk = work.dk;
+        final double[] U = work.U.data;
+
+        double w = U[i*K + i];
+        for (int j = 0; j < K; j++) {
+            if (j != i)
+                w *= U[i*K + j]/(dk[i] - dk[j]);
+        }
+        work.zhat[i] = Math.copySign(Math.sqrt(Math.max(0, -w)), work.zk[i]);
+    }
+
+    protected void computeVector( int j, Workspace work ) {
+        final int K = work.K;
+        final double[] U = work.U.data;
+        final double[] zhat = work.zhat;
+
+        double norm = 0;
+        for (int i = 0; i < K; i++) {
+            double v = zhat[i]/U[i*K + j];
+            U[i*K + j] = v;
+            norm += v*v;
+        }
+        norm = Math.sqrt(norm);
+        for (int i = 0; i < K; i++) {
+            U[i*K + j] /= norm;
+        }
+    }
+
+    /**
+     * Multiplies the eigenvectors of the two segments by the eigenvectors of the rank one update. Before they are
+     * merged the upper segment's columns are only non-zero in its rows and the lower segment's columns in its
+     * rows, i.e. Z is [Z1 0; 0 Z2]. Columns that were rotated together during deflation can be non-zero in both.
+     * Only the blocks which can be non-zero are multiplied.
+     */
+    protected void multiplyMerge( int lo, int mid, int hi, Workspace work ) {
+        work.R.reshape(hi - lo, work.K);
+        multiplyBlock(lo, mid, UPPER, lo, work);
+        multiplyBlock(mid, hi, LOWER, lo, work);
+    }
+
+    /**
+     * Computes rows [row0,row1) of the non-deflated columns in Z multiplied by U and writes them into R. Only
+     * columns which have the specified type, or are dense, are used.
+     */
+    private void multiplyBlock( int row0, int row1, int type, int lo, Workspace work ) {
+        final int K = work.K;
+        final int rows = row1 - row0;
+        final int rowR = row0 - lo;
+
+        // find the columns which can be non-zero
+        int[] selected = work.selected;
+        int count = 0;
+        for (int i = 0; i < K; i++) {
+            int local = work.nondeflated[i];
+            if (work.type[local] == type || work.type[local] == DENSE)
+                selected[count++] = i;
+        }
+
+        if (count == 0) {
+            for (int i = rowR*K; i < (rowR + rows)*K; i++) {
+                work.R.data[i] = 0;
+            }
+            return;
+        }
+
+        work.Wa.reshape(rows, count);
+        work.Ba.reshape(count, K);
+        for (int row = 0; row < rows; row++) {
+            int indexZ = (row0 + row)*N + lo;
+            int indexW = row*count;
+            for (int i = 0; i < count; i++) {
+                work.Wa.data[indexW + i] = Z.data[indexZ + work.nondeflated[selected[i]]];
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            System.arraycopy(work.U.data, selected[i]*K, work.Ba.data, i*K, K);
+        }
+        work.Pa.reshape(rows, K);
+        multiply(work.Wa, work.Ba, work.Pa);
+        System.arraycopy(work.Pa.data, 0, work.R.data, rowR*K, rows*K);
+    }
+
+    /**
+     * C = A*B
+     */
+    protected void multiply( DMatrixRMaj A, DMatrixRMaj B, DMatrixRMaj C ) {
+        CommonOps_DDRM.mult(A, B, C);
+    }
+
+    /**
+     * V = Q*Z
+     */
+    protected void multiplyEigenvectors( DMatrixRMaj Q, DMatrixRMaj Z, DMatrixRMaj V ) {
+        CommonOps_DDRM.mult(Q, Z, V);
+    }
+
+    /**
+     * Combines the deflated and found eigenvalues into a single sorted list and writes the results into the
+     * segment's block in Z
+     */
+    private void assemble( int lo, int length, Workspace work ) {
+        final int K = work.K;
+        final int numDeflated = work.numDeflated;
+        final double[] d = work.d;
+        final int[] deflated = work.deflated;
+
+        // rotations can change the order of the deflated eigenvalues, but it will be almost sorted
+        for (int i = 1; i < numDeflated; i++) {
+            int key = deflated[i];
+            int k = i - 1;
+            while (k >= 0 && d[deflated[k]] > d[key]) {
+                deflated[k + 1] = deflated[k];
+                k--;
+            }
+            deflated[k + 1] = key;
+        }
+
+        DMatrixRMaj out = work.out;
+        out.reshape(length, length);
+        for (int a = 0, b = 0, k = 0; k < length; k++) {
+            if (b >= numDeflated || (a < K && work.lambda[a] <= d[deflated[b]])) {
+                for (int row = 0; row < length; row++) {
+                    out.data[row*length + k] = work.R.data[row*K + a];
+                }
+                work.values[k] = work.lambda[a++];
+            } else {
+                int col = lo + deflated[b];
+                for (int row = 0; row < length; row++) {
+                    out.data[row*length + k] = Z.data[(lo + row)*N + col];
+                }
+                work.values[k] = d[deflated[b++]];
+            }
+        }
+
+        System.arraycopy(work.values, 0, values, lo, length);
+        for (int row = 0; row < length; row++) {
+            System.arraycopy(out.data, row*length, Z.data, (lo + row)*N + lo, length);
+        }
+    }
+
+    /**
+     * Sorts the indexes by their value
+     */
+    private static void insertionSort( double[] values, int[] order, int length ) {
+        for (int i = 1; i < length; i++) {
+            int key = order[i];
+            int k = i - 1;
+            while (k >= 0 && values[order[k]] > values[key]) {
+                order[k + 1] = order[k];
+                k--;
+            }
+            order[k + 1] = key;
+        }
+    }
+
+    /**
+     * Returns the eigenvalues in ascending order
+     */
+    public double[] getEigenvalues() {
+        return values;
+    }
+
+    /**
+     * Returns the eigenvectors. Each column is an eigenvector and they are in the same order as the eigenvalues.
+     * If a matrix was passed to {@link #process} then they have been multiplied by it.
+     */
+    public DMatrixRMaj getEigenvectors() {
+        return eigenvectors;
+    }
+
+    public int getMinimumSize() {
+        return minimumSize;
+    }
+
+    /**
+     * Specifies the size at which a segment is solved directly using the QR algorithm instead of being divided.
+     */
+    public void setMinimumSize( int minimumSize ) {
+        if (minimumSize < 1)
+            throw new IllegalArgumentException("Minimum size must be at least one");
+        this.minimumSize = minimumSize;
+    }
+
+    public int getMaxIterations() {
+        return maxIterations;
+    }
+
+    /**
+     * Maximum number of iterations used to find each root of the secular equation
+     */
+    public void setMaxIterations( int maxIterations ) {
+        this.maxIterations = maxIterations;
+    }
+
+    /**
+     * Storage used to solve a leaf or merge two segments
+     */
+    protected static class Workspace {
+        // QR algorithm which is used to solve the leaves
+        final SymmetricQREigenHelper_DDRM helper = new SymmetricQREigenHelper_DDRM();
+        final SymmetricQrAlgorithm_DDRM qr = new SymmetricQrAlgorithm_DDRM(helper);
+
+        // eigenvalues of the two segments and the rank one update, z
+        double[] d = new double[0];
+        double[] z = new double[0];
+        double rho;
+
+        // number of eigenvalues which are not deflated
+        int K;
+        int numDeflated;
+        int[] nondeflated = new int[0];
+        int[] deflated = new int[0];
+        int[] order = new int[0];
+        int[] selected = new int[0];
+        // which blocks each column can be non-zero in
+        int[] type = new int[0];
+
+        // the non-deflated eigenvalues and elements in z
+        double[] dk = new double[0];
+        double[] zk = new double[0];
+        // the roots of the secular equation
+        double[] lambda = new double[0];
+        // z computed from the roots
+        double[] zhat = new double[0];
+        // the merged eigenvalues
+        double[] values = new double[0];
+
+        // Distance from each pole to each root and then the eigenvectors of the rank one update
+        final DMatrixRMaj U = new DMatrixRMaj(1, 1);
+        // storage for multiplying blocks
+        final DMatrixRMaj Wa = new DMatrixRMaj(1, 1);
+        final DMatrixRMaj Ba = new DMatrixRMaj(1, 1);
+        final DMatrixRMaj Pa = new DMatrixRMaj(1, 1);
+        // eigenvectors of the two segments multiplied by U
+        final DMatrixRMaj R = new DMatrixRMaj(1, 1);
+        final DMatrixRMaj out = new DMatrixRMaj(1, 1);
+
+        void resize( int length ) {
+            if (d.length >= length)
+                return;
+            d = new double[length];
+            z = new double[length];
+            nondeflated = new int[length];
+            deflated = new int[length];
+            order = new int[length];
+            selected = new int[length];
+            type = new int[length];
+            dk = new double[length];
+            zk = new double[length];
+            lambda = new double[length];
+            zhat = new double[length];
+            values = new double[length];
+        }
+    }
+}
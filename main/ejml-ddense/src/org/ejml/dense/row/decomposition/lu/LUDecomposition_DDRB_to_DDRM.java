@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.dense.row.decomposition.lu;
+
+import org.ejml.EjmlParameters;
+import org.ejml.UtilEjml;
+import org.ejml.data.DGrowArray;
+import org.ejml.data.DMatrixRBlock;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.IGrowArray;
+import org.ejml.dense.block.MatrixOps_DDRB;
+import org.ejml.dense.block.decomposition.lu.LUDecompositionRightLooking_DDRB;
+import org.ejml.interfaces.decomposition.LUDecomposition_F64;
+
+/**
+ * Wrapper around a {@link DMatrixRBlock} LU decomposition, e.g. {@link LUDecompositionRightLooking_DDRB}, that
+ * allows it to process {@link DMatrixRMaj}. The decomposition is converted back into the same format as
+ * {@link LUDecompositionAlt_DDRM} so that it can be used by the same linear solvers.
+ *
+ * @author Peter Abeles
+ */
+public class LUDecomposition_DDRB_to_DDRM extends LUDecompositionBase_DDRM {
+
+    protected LUDecomposition_F64<DMatrixRBlock> alg;
+    protected int blockLength;
+
+    protected DGrowArray workspace = new DGrowArray();
+    protected DMatrixRBlock Ablock = new DMatrixRBlock();
+
+    // storage for the pivots found by the block algorithm and for converting them into swaps
+    protected IGrowArray gpivot = new IGrowArray();
+    protected IGrowArray gwhere = new IGrowArray();
+
+    public LUDecomposition_DDRB_to_DDRM() {
+        this(new LUDecompositionRightLooking_DDRB(), EjmlParameters.BLOCK_WIDTH);
+    }
+
+    public LUDecomposition_DDRB_to_DDRM( LUDecomposition_F64<DMatrixRBlock> alg, int blockLength ) {
+        this.alg = alg;
+        this.blockLength = blockLength;
+    }
+
+    @Override
+    public boolean decompose( DMatrixRMaj a ) {
+        decomposeCommonInit(a);
+
+        Ablock.numRows = m;
+        Ablock.numCols = n;
+        Ablock.blockLength = blockLength;
+        Ablock.data = LU.data;
+
+        // LU is an internal copy so the conversion can be done in-place
+        MatrixOps_DDRB.convertRowToBlock(m, n, blockLength, LU.data, workspace);
+        boolean ret = alg.decompose(Ablock);
+        MatrixOps_DDRB.convertBlockToRow(m, n, blockLength, LU.data, workspace);
+
+        convertPivots(alg.getRowPivotV(gpivot));
+
+        return ret;
+    }
+
+    /**
+     * Converts the row permutation into the sequence of row swaps in indx, which is what the solvers use,
+     * and computes the sign of the permutation
+     */
+    protected void convertPivots( int[] found ) {
+        // current[i] is the row in the original matrix at row i and where[] is its inverse
+        int[] current = pivot;
+        int[] where = UtilEjml.adjust(gwhere, m);
+        for (int i = 0; i < m; i++) {
+            current[i] = i;
+            where[i] = i;
+        }
+
+        pivsign = 1;
+        for (int i = 0; i < m; i++) {
+            int j = where[found[i]];
+            indx[i] = j;
+            if (j != i) {
+                int tmp = current[i];
+                current[i] = current[j];
+                current[j] = tmp;
+                where[current[i]] = i;
+                where[current[j]] = j;
+                pivsign = -pivsign;
+            }
+        }
+    }
+
+    public LUDecomposition_F64<DMatrixRBlock> getBlockAlgorithm() {
+        return alg;
+    }
+}
@@ -0,0 +1,323 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.dense.row.decomposition.svd;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.decomposition.bidiagonal.BidiagonalDecompositionRow_DDRM;
+import org.ejml.dense.row.decomposition.bidiagonal.BidiagonalDecompositionTall_DDRM;
+import org.ejml.dense.row.decomposition.svd.divideconquer.SvdDivideConquerAlgorithm_DDRM;
+import org.ejml.interfaces.decomposition.BidiagonalDecomposition_F64;
+import org.ejml.interfaces.decomposition.SingularValueDecomposition_F64;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * <p>
+ * Computes the Singular value decomposition of a matrix using divide and conquer. The matrix is first transformed
+ * into bidiagonal form A=U*B*V<sup>T</sup>, then the SVD of B is computed with
+ * {@link SvdDivideConquerAlgorithm_DDRM}, and finally its singular vectors are multiplied by U and V. This is
+ * the same approach as LAPACK's DGESDD. When singular vectors are needed it's much faster than
+ * {@link SvdImplicitQrDecompose_DDRM} for large matrices since almost all the work is done in matrix
+ * multiplications. The singular vectors of B are always computed, even if U and V are not requested.
+ * </p>
+ *
+ * <p>
+ * Singular values are returned in descending order.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+@SuppressWarnings("NullAway.Init")
+public class SvdDivideConquerDecompose_DDRM implements SingularValueDecomposition_F64<DMatrixRMaj> {
+
+    protected int numRows;
+    protected int numCols;
+
+    // dimensions of transposed matrix
+    protected int numRowsT;
+    protected int numColsT;
+
+    // if true then it can use the special Bidiagonal decomposition
+    protected boolean canUseTallBidiagonal;
+
+    protected BidiagonalDecomposition_F64<DMatrixRMaj> bidiag;
+    protected SvdDivideConquerAlgorithm_DDRM alg;
+
+    double[] diag;
+    double[] off;
+
+    private DMatrixRMaj Ut = new DMatrixRMaj(1, 1);
+    private DMatrixRMaj Vt = new DMatrixRMaj(1, 1);
+
+    private double[] singularValues = new double[0];
+    private int numSingular;
+
+    // compute a compact SVD
+    protected boolean compact;
+    // What is actually computed
+    protected boolean computeU;
+    protected boolean computeV;
+
+    // What the user requested to be computed
+    // If the transpose is computed instead then what is actually computed is swapped
+    protected boolean prefComputeU;
+    protected boolean prefComputeV;
+
+    // Should it compute the transpose instead
+    protected boolean transposed;
+
+    // Either a copy of the input matrix or a copy of it transposed
+    private DMatrixRMaj A_mod = new DMatrixRMaj(1, 1);
+
+    // storage for the bidiagonal decomposition's U and V
+    private DMatrixRMaj bidiagU = new DMatrixRMaj(1, 1);
+    private DMatrixRMaj bidiagV = new DMatrixRMaj(1, 1);
+    // storage for when only the first rows in U are modified
+    private DMatrixRMaj top = new DMatrixRMaj(1, 1);
+    private DMatrixRMaj product = new DMatrixRMaj(1, 1);
+
+    /**
+     * Configures the class
+     *
+     * @param alg Algorithm used to compute the SVD of the bidiagonal matrix
+     * @param compact Compute a compact SVD
+     * @param computeU If true it will compute the U matrix
+     * @param computeV If true it will compute the V matrix
+     * @param canUseTallBidiagonal If true then it can choose to use a tall Bidiagonal decomposition to improve runtime performance.
+     */
+    public SvdDivideConquerDecompose_DDRM( SvdDivideConquerAlgorithm_DDRM alg, boolean compact,
+                                           boolean computeU, boolean computeV, boolean canUseTallBidiagonal ) {
+        this.alg = alg;
+        this.compact = compact;
+        this.prefComputeU = computeU;
+        this.prefComputeV = computeV;
+        this.canUseTallBidiagonal = canUseTallBidiagonal;
+    }
+
+    public SvdDivideConquerDecompose_DDRM( boolean compact, boolean computeU, boolean computeV,
+                                           boolean canUseTallBidiagonal ) {
+        this(new SvdDivideConquerAlgorithm_DDRM(), compact, computeU, computeV, canUseTallBidiagonal);
+    }
+
+    @Override
+    public double[] getSingularValues() {
+        return singularValues;
+    }
+
+    @Override
+    public int numberOfSingularValues() {
+        return numSingular;
+    }
+
+    @Override
+    public boolean isCompact() {
+        return compact;
+    }
+
+    @Override
+    public DMatrixRMaj getU( @Nullable DMatrixRMaj U, boolean transpose ) {
+        if (!prefComputeU)
+            throw new IllegalArgumentException("As requested U was not computed.");
+        if (transpose) {
+            if (U == null)
+                return Ut;
+            U.set(Ut);
+        } else {
+            U = UtilEjml.reshapeOrDeclare(U, Ut.numCols, Ut.numRows);
+            transpose(Ut, U);
+        }
+
+        return U;
+    }
+
+    @Override
+    public DMatrixRMaj getV( @Nullable DMatrixRMaj V, boolean transpose ) {
+        if (!prefComputeV)
+            throw new IllegalArgumentException("As requested V was not computed.");
+        if (transpose) {
+            if (V == null)
+                return Vt;
+            V.set(Vt);
+        } else {
+            V = UtilEjml.reshapeOrDeclare(V, Vt.numCols, Vt.numRows);
+            transpose(Vt, V);
+        }
+
+        return V;
+    }
+
+    @Override
+    public DMatrixRMaj getW( @Nullable DMatrixRMaj W ) {
+        int m = compact ? numSingular : numRows;
+        int n = compact ? numSingular : numCols;
+
+        if (W == null)
+            W = new DMatrixRMaj(m, n);
+        else {
+            W.reshape(m, n, false);
+            W.zero();
+        }
+
+        for (int i = 0; i < numSingular; i++) {
+            W.unsafe_set(i, i, singularValues[i]);
+        }
+
+        return W;
+    }
+
+    @Override
+    public boolean decompose( DMatrixRMaj orig ) {
+        if (!setup(orig))
+            return false;
+
+        // change the matrix to bidiagonal form
+        if (transposed) {
+            A_mod.reshape(orig.numCols, orig.numRows, false);
+            transpose(orig, A_mod);
+        } else {
+            A_mod.reshape(orig.numRows, orig.numCols, false);
+            A_mod.set(orig);
+        }
+        if (!bidiag.decompose(A_mod))
+            return false;
+
+        bidiag.getDiagonal(diag, off);
+        if (!alg.process(numColsT, diag, off))
+            return false;
+
+        numSingular = numColsT;
+        if (singularValues.length < numSingular)
+            singularValues = new double[numSingular];
+        System.arraycopy(alg.getSingularValues(), 0, singularValues, 0, numSingular);
+
+        if (computeU) {
+            bidiagU = bidiag.getU(bidiagU, true, compact);
+            multiplyTop(alg.getU(), bidiagU, Ut);
+        }
+        if (computeV) {
+            bidiagV = bidiag.getV(bidiagV, true, compact);
+            multiplyTop(alg.getV(), bidiagV, Vt);
+        }
+
+        // if transposed undo the transposition
+        if (transposed) {
+            DMatrixRMaj temp = Vt;
+            Vt = Ut;
+            Ut = temp;
+        }
+
+        return true;
+    }
+
+    /**
+     * Multiplies the transposed singular vectors of the bidiagonal matrix, Q, by the first rows in B and copies the
+     * other rows, which are not modified.
+     *
+     * output = [Q<sup>T</sup>*B(0:n,:) ; B(n:,:)]
+     */
+    private void multiplyTop( DMatrixRMaj Q, DMatrixRMaj B, DMatrixRMaj output ) {
+        final int n = Q.numRows;
+        output.reshape(B.numRows, B.numCols);
+        if (B.numRows == n) {
+            multTransA(Q, B, output);
+            return;
+        }
+        top.reshape(n, B.numCols);
+        System.arraycopy(B.data, 0, top.data, 0, n*B.numCols);
+        product.reshape(n, B.numCols);
+        multTransA(Q, top, product);
+        System.arraycopy(product.data, 0, output.data, 0, n*B.numCols);
+        System.arraycopy(B.data, n*B.numCols, output.data, n*B.numCols, (B.numRows - n)*B.numCols);
+    }
+
+    protected void multTransA( DMatrixRMaj A, DMatrixRMaj B, DMatrixRMaj C ) {
+        CommonOps_DDRM.multTransA(A, B, C);
+    }
+
+    protected void transpose( DMatrixRMaj A, DMatrixRMaj A_tran ) {
+        CommonOps_DDRM.transpose(A, A_tran);
+    }
+
+    @Override
+    public boolean inputModified() {
+        return false;
+    }
+
+    private boolean setup( DMatrixRMaj orig ) {
+        transposed = orig.numCols > orig.numRows;
+
+        // flag what should be computed and what should not be computed
+        if (transposed) {
+            computeU = prefComputeV;
+            computeV = prefComputeU;
+            numRowsT = orig.numCols;
+            numColsT = orig.numRows;
+        } else {
+            computeU = prefComputeU;
+            computeV = prefComputeV;
+            numRowsT = orig.numRows;
+            numColsT = orig.numCols;
+        }
+
+        numRows = orig.numRows;
+        numCols = orig.numCols;
+
+        if (numRows == 0 || numCols == 0)
+            return false;
+
+        if (diag == null || diag.length < numColsT) {
+            diag = new double[numColsT];
+            off = new double[numColsT - 1];
+        }
+
+        // if it is a tall matrix and U is not needed then there is faster decomposition algorithm
+        declareBidiagonalDecomposition();
+
+        return true;
+    }
+
+    protected void declareBidiagonalDecomposition() {
+        if (canUseTallBidiagonal && numRows > numCols*2 && !computeU) {
+            if (bidiag == null || !(bidiag instanceof BidiagonalDecompositionTall_DDRM)) {
+                bidiag = new BidiagonalDecompositionTall_DDRM();
+            }
+        } else if (bidiag == null || !(bidiag instanceof BidiagonalDecompositionRow_DDRM)) {
+            bidiag = new BidiagonalDecompositionRow_DDRM();
+        }
+    }
+
+    /**
+     * Returns the algorithm used to compute the SVD of the bidiagonal matrix
+     */
+    public SvdDivideConquerAlgorithm_DDRM getDivideConquer() {
+        return alg;
+    }
+
+    @Override
+    public int numRows() {
+        return numRows;
+    }
+
+    @Override
+    public int numCols() {
+        return numCols;
+    }
+}
@@ -0,0 +1,337 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.dense.row.decomposition.svd;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrix;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.ejml.dense.row.SingularOps_DDRM;
+import org.ejml.interfaces.decomposition.QRDecomposition;
+import org.ejml.interfaces.decomposition.SingularValueDecomposition_F64;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Random;
+
+/**
+ * <p>
+ * Computes the largest k singular values and vectors of a matrix using a randomized range finder. The range
+ * of A is found by multiplying it against a random Gaussian matrix with k + oversampling columns, which is then
+ * refined using power iterations that alternate between A and A<sup>T</sup>. After each multiplication the
+ * basis is orthonormalized with a QR decomposition. A is projected onto the basis and the SVD of the small
+ * projected matrix gives the truncated SVD of A:
+ * </p>
+ *
+ * <p>
+ * A &asymp; U<sub>k</sub> W<sub>k</sub> V<sub>k</sub><sup>T</sup>
+ * </p>
+ *
+ * <p>
+ * Only products with A and A<sup>T</sup> are needed, so A is never modified or copied and the cost is
+ * O(m*n*k) instead of the O(m*n*min(m,n)) of a full SVD. Power iterations improve the accuracy when the
+ * singular values decay slowly. The results are random, but the same seed will always give the same results.
+ * </p>
+ *
+ * <p>
+ * See "Finding Structure with Randomness: Probabilistic Algorithms for Constructing Approximate Matrix
+ * Decompositions" by N. Halko, P. G. Martinsson, and J. A. Tropp, SIAM Review, 2011
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public abstract class SvdRandomizedBase_F64<T extends DMatrix> {
+    // Number of singular values which are requested
+    protected int rank;
+    // Number of additional random vectors used to find the range of A
+    protected int oversampling = 10;
+    // Number of times A*A<sup>T</sup> is applied to the basis
+    protected int powerIterations = 2;
+
+    protected Random rand;
+
+    // Orthonormalizes the basis
+    protected QRDecomposition<DMatrixRMaj> qr;
+    // SVD of the projected matrix
+    protected SingularValueDecomposition_F64<DMatrixRMaj> svd;
+
+    // shape of the input matrix
+    protected int numRows, numCols;
+    // number of singular values found
+    protected int numSingular;
+
+    // The results
+    protected double[] singularValues = new double[0];
+    protected DMatrixRMaj U = new DMatrixRMaj(1, 1);
+    protected DMatrixRMaj V = new DMatrixRMaj(1, 1);
+
+    // Orthonormal basis for the range of A and A<sup>T</sup>
+    protected DMatrixRMaj Q = new DMatrixRMaj(1, 1);
+    protected DMatrixRMaj P = new DMatrixRMaj(1, 1);
+    // random matrix and output of multiplications
+    protected DMatrixRMaj Y = new DMatrixRMaj(1, 1);
+    protected DMatrixRMaj Z = new DMatrixRMaj(1, 1);
+    // singular vectors of the projected matrix
+    protected DMatrixRMaj Ub = new DMatrixRMaj(1, 1);
+    protected DMatrixRMaj Vb = new DMatrixRMaj(1, 1);
+
+    /**
+     * @param rank Number of singular values and vectors which are computed
+     * @param qr Used to orthonormalize the basis
+     * @param svd Used to compute the SVD of the projected matrix. Must compute U and V in compact form
+     * @param rand Source of the random basis
+     */
+    protected SvdRandomizedBase_F64( int rank, QRDecomposition<DMatrixRMaj> qr,
+                                     SingularValueDecomposition_F64<DMatrixRMaj> svd, Random rand ) {
+        if (rank < 1)
+            throw new IllegalArgumentException("Rank must be at least 1");
+        this.rank = rank;
+        this.qr = qr;
+        this.svd = svd;
+        this.rand = rand;
+    }
+
+    /**
+     * Computes the truncated SVD of A. If the rank is more than the smallest side of A then every singular value
+     * is found.
+     *
+     * @param A The matrix being decomposed. Not modified.
+     * @return true if successful
+     */
+    public boolean decompose( T A ) {
+        numRows = A.getNumRows();
+        numCols = A.getNumCols();
+        int minLength = Math.min(numRows, numCols);
+        numSingular = Math.min(rank, minLength);
+        int numBasis = Math.min(rank + oversampling, minLength);
+
+        // Initial estimate of the range of A
+        Y.reshape(numCols, numBasis);
+        RandomMatrices_DDRM.fillGaussian(Y, 0, 1, rand);
+        multiply(A, Y, Z);
+        if (!orthonormalize(Z, Q))
+            return false;
+
+        // Power iterations to increase the gap between the singular values which are kept and discarded
+        for (int iteration = 0; iteration < powerIterations; iteration++) {
+            multiplyTransA(A, Q, Z);
+            if (!orthonormalize(Z, P))
+                return false;
+            multiply(A, P, Z);
+            if (!orthonormalize(Z, Q))
+                return false;
+        }
+
+        // B = Q<sup>T</sup>*A is small. Its transpose B<sup>T</sup> = Ub*W*Vb<sup>T</sup> is computed since
+        // only products with A<sup>T</sup> are available
+        multiplyTransA(A, Q, Z);
+        if (!svd.decompose(Z))
+            return false;
+        svd.getU(Ub, false);
+        svd.getV(Vb, false);
+        double[] w = svd.getSingularValues();
+        SingularOps_DDRM.descendingOrder(Ub, false, w, svd.numberOfSingularValues(), Vb, false);
+
+        if (singularValues.length < numSingular)
+            singularValues = new double[numSingular];
+        System.arraycopy(w, 0, singularValues, 0, numSingular);
+
+        // A = Q*B = (Q*Vb)*W*Ub<sup>T</sup>
+        CommonOps_DDRM.extract(Vb, 0, Vb.numRows, 0, numSingular, Y);
+        multiplyDense(Q, Y, U);
+        CommonOps_DDRM.extract(Ub, 0, Ub.numRows, 0, numSingular, V);
+
+        return true;
+    }
+
+    /**
+     * Finds an orthonormal basis for the columns of Y.
+     *
+     * @param Y (Input) Matrix. Not modified.
+     * @param Q (Output) Orthonormal basis with the same shape as Y.
+     */
+    protected boolean orthonormalize( DMatrixRMaj Y, DMatrixRMaj Q ) {
+        if (!qr.decompose(qr.inputModified() ? Y.copy() : Y))
+            return false;
+        qr.getQ(Q, true);
+        return true;
+    }
+
+    /**
+     * C = A*B
+     */
+    protected abstract void multiply( T A, DMatrixRMaj B, DMatrixRMaj C );
+
+    /**
+     * C = A<sup>T</sup>*B
+     */
+    protected abstract void multiplyTransA( T A, DMatrixRMaj B, DMatrixRMaj C );
+
+    /**
+     * C = A*B where every matrix is dense
+     */
+    protected void multiplyDense( DMatrixRMaj A, DMatrixRMaj B, DMatrixRMaj C ) {
+        CommonOps_DDRM.mult(A, B, C);
+    }
+
+    /**
+     * Computes the rank k approximation of the most recently decomposed matrix: A<sub>k</sub> = U*W*V<sup>T</sup>
+     *
+     * @param output (Optional) Storage for the approximation. Modified.
+     * @return The approximation
+     */
+    public DMatrixRMaj computeLowRank( @Nullable DMatrixRMaj output ) {
+        output = UtilEjml.reshapeOrDeclare(output, numRows, numCols);
+
+        // U*W is computed by scaling the columns in U
+        DMatrixRMaj UW = Y;
+        UW.set(U);
+        for (int row = 0, index = 0; row < numRows; row++) {
+            for (int i = 0; i < numSingular; i++) {
+                UW.data[index++] *= singularValues[i];
+            }
+        }
+        CommonOps_DDRM.multTransB(UW, V, output);
+        return output;
+    }
+
+    /**
+     * Returns the singular values in descending order
+     */
+    public double[] getSingularValues() {
+        return singularValues;
+    }
+
+    /**
+     * The number of singular values found. This is the rank or the smallest side of the matrix, whichever is less.
+     */
+    public int numberOfSingularValues() {
+        return numSingular;
+    }
+
+    /**
+     * The results are always compact
+     */
+    public boolean isCompact() {
+        return true;
+    }
+
+    /**
+     * Returns the left singular vectors as an m by k matrix
+     *
+     * @param U (Optional) Storage for U. If null then the internal copy is returned.
+     * @param transposed If true then U<sup>T</sup> is returned
+     */
+    public DMatrixRMaj getU( @Nullable DMatrixRMaj U, boolean transposed ) {
+        return getVectors(this.U, U, transposed);
+    }
+
+    /**
+     * Returns the right singular vectors as an n by k matrix
+     *
+     * @param V (Optional) Storage for V. If null then the internal copy is returned.
+     * @param transposed If true then V<sup>T</sup> is returned
+     */
+    public DMatrixRMaj getV( @Nullable DMatrixRMaj V, boolean transposed ) {
+        return getVectors(this.V, V, transposed);
+    }
+
+    private static DMatrixRMaj getVectors( DMatrixRMaj found, @Nullable DMatrixRMaj output, boolean transposed ) {
+        if (transposed) {
+            output = UtilEjml.reshapeOrDeclare(output, found.numCols, found.numRows);
+            CommonOps_DDRM.transpose(found, output);
+        } else if (output == null) {
+            return found;
+        } else {
+            output.set(found);
+        }
+        return output;
+    }
+
+    /**
+     * Returns a k by k diagonal matrix containing the singular values
+     */
+    public DMatrixRMaj getW( @Nullable DMatrixRMaj W ) {
+        W = UtilEjml.reshapeOrDeclare(W, numSingular, numSingular);
+        W.zero();
+        for (int i = 0; i < numSingular; i++) {
+            W.unsafe_set(i, i, singularValues[i]);
+        }
+        return W;
+    }
+
+    public int numRows() {
+        return numRows;
+    }
+
+    public int numCols() {
+        return numCols;
+    }
+
+    public boolean inputModified() {
+        return false;
+    }
+
+    public int getRank() {
+        return rank;
+    }
+
+    public void setRank( int rank ) {
+        if (rank < 1)
+            throw new IllegalArgumentException("Rank must be at least 1");
+        this.rank = rank;
+    }
+
+    public int getOversampling() {
+        return oversampling;
+    }
+
+    /**
+     * Number of random vectors in addition to the rank which are used to find the range of A. A larger value
+     * improves the accuracy of the smaller singular values.
+     */
+    public void setOversampling( int oversampling ) {
+        if (oversampling < 0)
+            throw new IllegalArgumentException("Oversampling can't be negative");
+        this.oversampling = oversampling;
+    }
+
+    public int getPowerIterations() {
+        return powerIterations;
+    }
+
+    /**
+     * Number of power iterations. Each iteration costs two multiplications with A and increases the accuracy
+     * when the singular values decay slowly.
+     */
+    public void setPowerIterations( int powerIterations ) {
+        if (powerIterations < 0)
+            throw new IllegalArgumentException("Number of power iterations can't be negative");
+        this.powerIterations = powerIterations;
+    }
+
+    public Random getRandom() {
+        return rand;
+    }
+
+    public void setRandom( Random rand ) {
+        this.rand = rand;
+    }
+}
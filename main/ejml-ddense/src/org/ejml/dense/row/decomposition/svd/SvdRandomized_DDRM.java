@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.dense.row.decomposition.svd;
+
+import org.ejml.EjmlParameters;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.decomposition.qr.QRDecompositionHouseholderColumn_DDRM;
+import org.ejml.dense.row.mult.MatrixMatrixMultPacked_DDRM;
+import org.ejml.interfaces.decomposition.QRDecomposition;
+import org.ejml.interfaces.decomposition.SingularValueDecomposition_F64;
+
+import java.util.Random;
+
+/**
+ * <p>
+ * Randomized truncated SVD of a dense matrix. See {@link SvdRandomizedBase_F64} for details. Unlike other
+ * implementations of {@link SingularValueDecomposition_F64}, only the largest singular values are found
+ * and the results are always compact, e.g. U is m by k.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class SvdRandomized_DDRM extends SvdRandomizedBase_F64<DMatrixRMaj>
+        implements SingularValueDecomposition_F64<DMatrixRMaj> {
+
+    protected SvdRandomized_DDRM( int rank, QRDecomposition<DMatrixRMaj> qr,
+                                  SingularValueDecomposition_F64<DMatrixRMaj> svd, Random rand ) {
+        super(rank, qr, svd, rand);
+    }
+
+    /**
+     * @param rank Number of singular values and vectors which are computed
+     * @param rand Source of the random basis
+     */
+    public SvdRandomized_DDRM( int rank, Random rand ) {
+        this(rank, new QRDecompositionHouseholderColumn_DDRM(),
+                new SvdImplicitQrDecompose_DDRM(true, true, true, false), rand);
+    }
+
+    public SvdRandomized_DDRM( int rank ) {
+        this(rank, new Random(0xBEEF));
+    }
+
+    /**
+     * The basis usually has fewer columns than {@link EjmlParameters#MULT_PACKED_SWITCH}, but the packed algorithm
+     * is still much faster when A is large since it's blocked along A's rows and columns.
+     */
+    @Override
+    protected void multiply( DMatrixRMaj A, DMatrixRMaj B, DMatrixRMaj C ) {
+        if (usePacked(A)) {
+            MatrixMatrixMultPacked_DDRM.mult(A, B, C);
+        } else {
+            CommonOps_DDRM.mult(A, B, C);
+        }
+    }
+
+    @Override
+    protected void multiplyTransA( DMatrixRMaj A, DMatrixRMaj B, DMatrixRMaj C ) {
+        if (usePacked(A)) {
+            MatrixMatrixMultPacked_DDRM.multTransA(A, B, C);
+        } else {
+            CommonOps_DDRM.multTransA(A, B, C);
+        }
+    }
+
+    private static boolean usePacked( DMatrixRMaj A ) {
+        return Math.min(A.numRows, A.numCols) >= EjmlParameters.MULT_PACKED_SWITCH;
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.dense.row.decomposition.svd;
+
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_MT_DDRM;
+import org.ejml.dense.row.decomposition.qr.QRDecompositionHouseholderColumn_MT_DDRM;
+
+import java.util.Random;
+
+/**
+ * <p>Concurrent version of {@link SvdRandomized_DDRM}</p>
+ *
+ * @author Peter Abeles
+ */
+public class SvdRandomized_MT_DDRM extends SvdRandomized_DDRM {
+
+    public SvdRandomized_MT_DDRM( int rank, Random rand ) {
+        super(rank, new QRDecompositionHouseholderColumn_MT_DDRM(),
+                new SvdImplicitQrDecompose_MT_DDRM(true, true, true, false), rand);
+    }
+
+    public SvdRandomized_MT_DDRM( int rank ) {
+        this(rank, new Random(0xBEEF));
+    }
+
+    @Override
+    protected void multiply( DMatrixRMaj A, DMatrixRMaj B, DMatrixRMaj C ) {
+        CommonOps_MT_DDRM.mult(A, B, C);
+    }
+
+    @Override
+    protected void multiplyTransA( DMatrixRMaj A, DMatrixRMaj B, DMatrixRMaj C ) {
+        CommonOps_MT_DDRM.multTransA(A, B, C);
+    }
+
+    @Override
+    protected void multiplyDense( DMatrixRMaj A, DMatrixRMaj B, DMatrixRMaj C ) {
+        CommonOps_MT_DDRM.mult(A, B, C);
+    }
+}
@@ -0,0 +1,999 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.dense.row.decomposition.svd.divideconquer;
+
+import org.ejml.UtilEjml;
+import org.ejml.concurrency.GrowArray;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.decomposition.svd.implicitqr.SvdImplicitQrAlgorithm_DDRM;
+
+/**
+ * <p>
+ * Computes the singular value decomposition of an upper bidiagonal matrix using divide and conquer. The matrix is
+ * recursively split into two smaller bidiagonal matrices by removing a row, until the pieces are small enough
+ * to be solved with the {@link SvdImplicitQrAlgorithm_DDRM implicit QR algorithm}. Removing a row from an
+ * N by N+sqre bidiagonal matrix leaves an upper segment which has one more column than rows and a lower segment
+ * with sqre more columns than rows. Two solved segments are merged by finding the SVD of the matrix below,
+ * whose squared singular values are the roots of a secular equation:
+ * </p>
+ *
+ * <pre>
+ *     [ z<sub>0</sub>  z<sub>1</sub>  z<sub>2</sub>  ...  z<sub>n</sub> ]
+ * M = [ 0   d<sub>1</sub>             ]     where z = [&alpha;*(last row of V1), &beta;*(first row of V2)]
+ *     [ 0       d<sub>2</sub>         ]
+ *     [ 0          ...     ]
+ *     [ 0              d<sub>n</sub>  ]
+ * </pre>
+ *
+ * <p>
+ * Here &alpha; and &beta; are the diagonal and off diagonal elements in the removed row and d contains the
+ * singular values of the two segments. The singular vectors of the merged segment are the singular vectors of
+ * the two segments multiplied by the singular vectors of M. That matrix multiplication is where almost all the work
+ * is done, which is why it's much faster than the QR algorithm when singular vectors are needed. Only the blocks
+ * which can be non-zero are multiplied.
+ * </p>
+ *
+ * <p>
+ * Deflation uses the same tests as LAPACK's DLASD2 and the singular vectors of M are computed using the approach
+ * of Gu and Eisenstat, which ensures that they are orthogonal even when singular values are close together.
+ * Merges which have the same height in the tree are independent of each other, which is taken advantage of by
+ * the concurrent implementation.
+ * </p>
+ *
+ * <p>
+ * [1] M. Gu and S. C. Eisenstat, "A Divide-and-Conquer Algorithm for the Bidiagonal SVD" SIAM J. Matrix Anal.
+ * Appl., 1995
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class SvdDivideConquerAlgorithm_DDRM {
+    // Types of columns in a merge. Used to avoid multiplying blocks which are known to be zero
+    static final int LEFT = 0;
+    static final int RIGHT = 1;
+    static final int DENSE = 2;
+
+    // Segments this size or smaller are solved using the QR algorithm
+    protected int minimumSize = 25;
+
+    // Maximum number of iterations used to find a root of the secular equation
+    protected int maxIterations = 100;
+
+    // size of the matrix
+    protected int N;
+
+    // the bidiagonal matrix after it has been scaled
+    protected double[] diag = new double[0];
+    protected double[] off = new double[0];
+    // bidiagonal matrix is divided by this value to avoid overflow and underflow
+    protected double scale;
+
+    // Singular values. A solved segment covering rows [lo,hi) stores its singular values in ascending order
+    // from lo to hi. Once finished they are in descending order.
+    protected double[] values = new double[0];
+
+    // Left and right singular vectors, stored in the columns. A solved segment which covers rows [lo,hi) and
+    // columns [lo,hi+sqre) stores its singular vectors in the blocks along the diagonal which it covers. If
+    // sqre is one then column hi in V is a vector in the right null space.
+    protected DMatrixRMaj U = new DMatrixRMaj(1, 1);
+    protected DMatrixRMaj V = new DMatrixRMaj(1, 1);
+
+    // Segments which are solved directly. Leaf i covers rows [leafLo[i], leafHi[i]) and has leafSqre[i]
+    // more columns than rows
+    protected int numLeaves;
+    protected int[] leafLo = new int[0];
+    protected int[] leafHi = new int[0];
+    protected int[] leafSqre = new int[0];
+
+    // Merge i combines rows [mergeLo[i], mergeMid[i]) and [mergeMid[i]+1, mergeHi[i]) using row mergeMid[i].
+    // Merges are sorted by their height in the tree and merges at height h are from heightIdx[h-1] to heightIdx[h].
+    protected int numMerges;
+    protected int[] mergeLo = new int[0];
+    protected int[] mergeMid = new int[0];
+    protected int[] mergeHi = new int[0];
+    protected int[] mergeSqre = new int[0];
+    protected int numHeights;
+    protected int[] heightIdx = new int[0];
+
+    // storage for the merges before they are sorted by height
+    private int[] unsortedLo = new int[0];
+    private int[] unsortedMid = new int[0];
+    private int[] unsortedHi = new int[0];
+    private int[] unsortedSqre = new int[0];
+    private int[] unsortedHeight = new int[0];
+
+    protected GrowArray<Workspace> workspace = new GrowArray<>(Workspace::new);
+
+    /**
+     * Computes the SVD of a square upper bidiagonal matrix.
+     *
+     * @param N Number of rows and columns in the matrix.
+     * @param diag Diagonal elements. Not modified.
+     * @param off Elements above the diagonal. Not modified.
+     * @return true if successful or false if the QR algorithm failed to converge
+     */
+    public boolean process( int N, double[] diag, double[] off ) {
+        this.N = N;
+        if (values.length < N) {
+            values = new double[N];
+            this.diag = new double[N];
+            this.off = new double[N];
+            leafLo = new int[N];
+            leafHi = new int[N];
+            leafSqre = new int[N];
+            mergeLo = new int[N];
+            mergeMid = new int[N];
+            mergeHi = new int[N];
+            mergeSqre = new int[N];
+            heightIdx = new int[N + 1];
+            unsortedLo = new int[N];
+            unsortedMid = new int[N];
+            unsortedHi = new int[N];
+            unsortedSqre = new int[N];
+            unsortedHeight = new int[N];
+        }
+        System.arraycopy(diag, 0, this.diag, 0, N);
+        if (N > 1)
+            System.arraycopy(off, 0, this.off, 0, N - 1);
+        U.reshape(N, N);
+        V.reshape(N, N);
+        U.zero();
+        V.zero();
+
+        // scale the matrix to avoid overflow and underflow
+        scale = 0;
+        for (int i = 0; i < N; i++) {
+            scale = Math.max(scale, Math.abs(this.diag[i]));
+        }
+        for (int i = 0; i < N - 1; i++) {
+            scale = Math.max(scale, Math.abs(this.off[i]));
+        }
+
+        if (scale == 0) {
+            // all zeros matrix. Any orthogonal matrices will do
+            CommonOps_DDRM.setIdentity(U);
+            CommonOps_DDRM.setIdentity(V);
+            for (int i = 0; i < N; i++) {
+                values[i] = 0;
+            }
+            return true;
+        }
+
+        for (int i = 0; i < N; i++) {
+            this.diag[i] /= scale;
+        }
+        for (int i = 0; i < N - 1; i++) {
+            this.off[i] /= scale;
+        }
+
+        createTree();
+
+        if (!solveLeaves())
+            return false;
+
+        for (int height = 1; height <= numHeights; height++) {
+            mergeLevel(heightIdx[height - 1], heightIdx[height]);
+        }
+
+        for (int i = 0; i < N; i++) {
+            values[i] *= scale;
+        }
+
+        reverseOrder();
+
+        return true;
+    }
+
+    /**
+     * Recursively splits the matrix until the segments are small enough to be solved directly. The merges
+     * are sorted by their height in the tree.
+     */
+    protected void createTree() {
+        numLeaves = 0;
+        numMerges = 0;
+        numHeights = divide(0, N, 0);
+
+        // sort the merges by height
+        heightIdx[0] = 0;
+        for (int height = 1; height <= numHeights; height++) {
+            heightIdx[height] = heightIdx[height - 1];
+            for (int i = 0; i < numMerges; i++) {
+                if (unsortedHeight[i] != height)
+                    continue;
+                int index = heightIdx[height]++;
+                mergeLo[index] = unsortedLo[i];
+                mergeMid[index] = unsortedMid[i];
+                mergeHi[index] = unsortedHi[i];
+                mergeSqre[index] = unsortedSqre[i];
+            }
+        }
+    }
+
+    /**
+     * Divides the segment which covers rows [lo,hi) and columns [lo,hi+sqre). Returns its height in the tree.
+     */
+    private int divide( int lo, int hi, int sqre ) {
+        int length = hi - lo;
+        // segments with two or fewer rows can't be split into two non-empty segments
+        if (length <= Math.max(2, minimumSize)) {
+            leafLo[numLeaves] = lo;
+            leafHi[numLeaves] = hi;
+            leafSqre[numLeaves] = sqre;
+            numLeaves++;
+            return 0;
+        }
+        int mid = lo + length/2;
+
+        int height = 1 + Math.max(divide(lo, mid, 1), divide(mid + 1, hi, sqre));
+        unsortedLo[numMerges] = lo;
+        unsortedMid[numMerges] = mid;
+        unsortedHi[numMerges] = hi;
+        unsortedSqre[numMerges] = sqre;
+        unsortedHeight[numMerges] = height;
+        numMerges++;
+        return height;
+    }
+
+    /**
+     * Computes the SVD of all the leaves
+     */
+    protected boolean solveLeaves() {
+        workspace.resize(1);
+        Workspace work = workspace.get(0);
+        for (int i = 0; i < numLeaves; i++) {
+            if (!solveLeaf(i, work))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Solves for the SVD of a leaf using the QR algorithm. If the leaf has an extra column then it's first
+     * removed by chasing the element in that column up to the first row with rotations applied from the right.
+     * The singular values are sorted in ascending order.
+     */
+    protected boolean solveLeaf( int which, Workspace work ) {
+        final int lo = leafLo[which];
+        final int hi = leafHi[which];
+        final int sqre = leafSqre[which];
+        final int length = hi - lo;
+        final int cols = length + sqre;
+
+        work.resize(cols);
+        double[] d = work.d;
+        double[] e = work.z;
+        System.arraycopy(diag, lo, d, 0, length);
+        System.arraycopy(off, lo, e, 0, length - 1);
+
+        DMatrixRMaj Ut = work.Ub;
+        DMatrixRMaj Vt = work.Vb;
+        Ut.reshape(length, length);
+        Vt.reshape(cols, cols);
+        CommonOps_DDRM.setIdentity(Ut);
+        CommonOps_DDRM.setIdentity(Vt);
+
+        if (sqre == 1) {
+            double f = off[hi - 1];
+            for (int i = length - 1; i >= 0 && f != 0; i--) {
+                double r = Math.sqrt(d[i]*d[i] + f*f);
+                double c = d[i]/r;
+                double s = f/r;
+                d[i] = r;
+                if (i > 0) {
+                    f = -s*e[i - 1];
+                    e[i - 1] *= c;
+                }
+                rotateRows(Vt, i, length, c, s);
+            }
+        }
+
+        SvdImplicitQrAlgorithm_DDRM qr = work.qr;
+        qr.setMatrix(length, length, d, e);
+        qr.setFastValues(false);
+        qr.setUt(Ut);
+        qr.setVt(Vt);
+        if (!qr.process())
+            return false;
+
+        // make the singular values positive
+        for (int i = 0; i < length; i++) {
+            double value = qr.getSingularValue(i);
+            if (value < 0) {
+                d[i] = -value;
+                for (int j = i*length; j < (i + 1)*length; j++) {
+                    Ut.data[j] = -Ut.data[j];
+                }
+            } else {
+                d[i] = value;
+            }
+        }
+
+        // Sort the singular values and save the singular vectors, which are the rows of Ut and Vt
+        int[] order = work.order;
+        for (int i = 0; i < length; i++) {
+            order[i] = i;
+        }
+        insertionSort(d, order, length);
+        for (int k = 0; k < length; k++) {
+            int src = order[k];
+            values[lo + k] = d[src];
+            for (int row = 0; row < length; row++) {
+                U.data[(lo + row)*N + lo + k] = Ut.data[src*length + row];
+            }
+            for (int row = 0; row < cols; row++) {
+                V.data[(lo + row)*N + lo + k] = Vt.data[src*cols + row];
+            }
+        }
+        if (sqre == 1) {
+            for (int row = 0; row < cols; row++) {
+                V.data[(lo + row)*N + hi] = Vt.data[length*cols + row];
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Merges all the segments from idx0 to idx1, which are at the same height in the tree
+     */
+    protected void mergeLevel( int idx0, int idx1 ) {
+        workspace.resize(1);
+        Workspace work = workspace.get(0);
+        for (int i = idx0; i < idx1; i++) {
+            merge(i, work);
+        }
+    }
+
+    /**
+     * Merges two adjacent segments which have already been solved
+     */
+    protected void merge( int which, Workspace work ) {
+        final int lo = mergeLo[which];
+        final int mid = mergeMid[which];
+        final int hi = mergeHi[which];
+        final int sqre = mergeSqre[which];
+        final int length = hi - lo;
+        final int length1 = mid - lo;
+        final double alpha = diag[mid];
+        final double beta = off[mid];
+
+        work.resize(length + 1);
+        final double[] d = work.d;
+        final double[] z = work.z;
+        final int[] columns = work.columns;
+
+        // Row 'mid' of U is only non-zero in column 'mid'
+        U.data[mid*N + mid] = 1.0;
+
+        // The right null vectors of the two segments are rotated so that only one is multiplied by a non-zero
+        // element of z. The other is the right null vector of the merged segment.
+        double z0 = alpha*V.data[mid*N + mid];
+        if (sqre == 1) {
+            double z1 = beta*V.data[(mid + 1)*N + hi];
+            double tau = Math.sqrt(z0*z0 + z1*z1);
+            if (tau != 0) {
+                rotateColumns(V, mid, hi, lo, hi + 1, z0/tau, z1/tau);
+                z0 = tau;
+            }
+        }
+
+        // Index 0 is the row which was removed and corresponds to a singular value of zero
+        d[0] = 0;
+        z[0] = z0;
+        columns[0] = mid;
+        for (int i = 0; i < length1; i++) {
+            d[i + 1] = values[lo + i];
+            z[i + 1] = alpha*V.data[mid*N + lo + i];
+            columns[i + 1] = lo + i;
+        }
+        for (int i = length1 + 1; i < length; i++) {
+            d[i] = values[lo + i];
+            z[i] = beta*V.data[(mid + 1)*N + lo + i];
+            columns[i] = lo + i;
+        }
+
+        deflate(lo, hi, sqre, length1, alpha, beta, work);
+
+        int K = work.K;
+        for (int i = 0; i < K; i++) {
+            work.dk[i] = d[work.nondeflated[i]];
+            work.zk[i] = z[work.nondeflated[i]];
+        }
+        // keep the smallest singular value away from the pole at zero
+        if (K > 1 && work.dk[1] <= work.tol/2.0)
+            work.dk[1] = work.tol/2.0;
+
+        work.Ub.reshape(K, K);
+        work.Vb.reshape(K, K);
+        solveSecular(work);
+        computeVectors(work);
+        multiplyMerge(lo, hi, sqre, mid, work);
+
+        assemble(lo, length, sqre, work);
+    }
+
+    /**
+     * Sorts the singular values and finds which ones can be deflated. When two singular values are close together
+     * a Givens rotation is applied to zero one of the elements in z.
+     */
+    protected void deflate( int lo, int hi, int sqre, int length1, double alpha, double beta, Workspace work ) {
+        final int length = hi - lo;
+        final double[] d = work.d;
+        final double[] z = work.z;
+        final int[] perm = work.order;
+        final int[] columns = work.columns;
+        final int[] type = work.type;
+
+        // merge the two sorted lists of singular values
+        for (int a = 1, b = length1 + 1, k = 0; k < length - 1; k++) {
+            if (b >= length || (a <= length1 && d[a] <= d[b]))
+                perm[k] = a++;
+            else
+                perm[k] = b++;
+        }
+        for (int i = 1; i < length; i++) {
+            type[i] = i <= length1 ? LEFT : RIGHT;
+        }
+        type[0] = DENSE;
+
+        double maxD = 0;
+        for (int i = 1; i < length; i++) {
+            maxD = Math.max(maxD, d[i]);
+        }
+        final double tol = 8.0*UtilEjml.EPS*Math.max(maxD, Math.max(Math.abs(alpha), Math.abs(beta)));
+        work.tol = tol;
+
+        if (Math.abs(z[0]) <= tol)
+            z[0] = tol;
+
+        work.K = 0;
+        work.numDeflated = 0;
+        work.nondeflated[work.K++] = 0;
+
+        int prev = -1;
+        for (int k = 0; k < length - 1; k++) {
+            int j = perm[k];
+            if (Math.abs(z[j]) <= tol) {
+                work.deflated[work.numDeflated++] = j;
+                continue;
+            }
+            if (prev == -1) {
+                prev = j;
+                continue;
+            }
+
+            if (d[j] - d[prev] <= tol) {
+                // the singular values are close enough to be treated as identical. A rotation will zero z[prev]
+                double s = z[prev];
+                double c = z[j];
+                double tau = Math.sqrt(c*c + s*s);
+                c /= tau;
+                s = -s/tau;
+                z[j] = tau;
+                z[prev] = 0;
+                rotateColumns(U, columns[prev], columns[j], lo, hi, c, s);
+                rotateColumns(V, columns[prev], columns[j], lo, hi + sqre, c, s);
+                if (type[prev] != type[j])
+                    type[j] = DENSE;
+                work.deflated[work.numDeflated++] = prev;
+            } else {
+                work.nondeflated[work.K++] = prev;
+            }
+            prev = j;
+        }
+        if (prev != -1)
+            work.nondeflated[work.K++] = prev;
+    }
+
+    /**
+     * Applies a Givens rotation to two columns
+     */
+    private void rotateColumns( DMatrixRMaj Q, int colA, int colB, int row0, int row1, double c, double s ) {
+        for (int row = row0; row < row1; row++) {
+            int index = row*N;
+            double a = Q.data[index + colA];
+            double b = Q.data[index + colB];
+            Q.data[index + colA] = c*a + s*b;
+            Q.data[index + colB] = c*b - s*a;
+        }
+    }
+
+    /**
+     * Applies a Givens rotation to two rows
+     */
+    private static void rotateRows( DMatrixRMaj Q, int rowA, int rowB, double c, double s ) {
+        int indexA = rowA*Q.numCols;
+        int indexB = rowB*Q.numCols;
+        for (int i = 0; i < Q.numCols; i++) {
+            double a = Q.data[indexA + i];
+            double b = Q.data[indexB + i];
+            Q.data[indexA + i] = c*a + s*b;
+            Q.data[indexB + i] = c*b - s*a;
+        }
+    }
+
+    /**
+     * Finds all the roots of the secular equation
+     */
+    protected void solveSecular( Workspace work ) {
+        for (int j = 0; j < work.K; j++) {
+            solveRoot(j, work);
+        }
+    }
+
+    /**
+     * <p>
+     * Finds root j of the secular equation, which is the square of the j-th singular value of M:
+     * </p>
+     * f(&sigma;<sup>2</sup>) = 1 + &sum;<sub>i</sub> z<sub>i</sub><sup>2</sup>/(d<sub>i</sub><sup>2</sup> - &sigma;<sup>2</sup>) = 0
+     *
+     * <p>
+     * The root is in the interval (d<sub>j</sub><sup>2</sup>, d<sub>j+1</sub><sup>2</sup>) and is found relative
+     * to whichever end is closer. The distance to each pole is computed as
+     * (d<sub>i</sub>-d<sub>o</sub>)(d<sub>i</sub>+d<sub>o</sub>) - &tau; to avoid the cancellation that would
+     * come from squaring first. Each step approximates the function using the two nearest poles and the root is
+     * kept inside of a bracket. The distance from each pole to the root is saved in column j of Ub.
+     * </p>
+     */
+    protected void solveRoot( int j, Workspace work ) {
+        final int K = work.K;
+        final double[] dk = work.dk;
+        final double[] zk = work.zk;
+        final boolean last = j == K - 1;
+
+        // bracket the root relative to the origin
+        int origin;
+        double lower, upper;
+        if (!last) {
+            double gap = (dk[j + 1] - dk[j])*(dk[j + 1] + dk[j]);
+            double f = 1.0;
+            for (int i = 0; i < K; i++) {
+                f += zk[i]*zk[i]/((dk[i] - dk[j])*(dk[i] + dk[j]) - gap/2.0);
+            }
+            if (f >= 0) {
+                origin = j;
+                lower = 0;
+                upper = gap/2.0;
+            } else {
+                origin = j + 1;
+                lower = -gap/2.0;
+                upper = 0;
+            }
+        } else {
+            double sumZ = 0;
+            for (int i = 0; i < K; i++) {
+                sumZ += zk[i]*zk[i];
+            }
+            origin = j;
+            lower = 0;
+            upper = sumZ;
+        }
+        final double org = dk[origin];
+
+        double tau = (lower + upper)/2.0;
+        for (int iteration = 0; iteration < maxIterations; iteration++) {
+            double psi = 0, dpsi = 0;
+            for (int i = 0; i <= j; i++) {
+                double t = zk[i]/((dk[i] - org)*(dk[i] + org) - tau);
+                psi += zk[i]*t;
+                dpsi += t*t;
+            }
+            double phi = 0, dphi = 0;
+            for (int i = j + 1; i < K; i++) {
+                double t = zk[i]/((dk[i] - org)*(dk[i] + org) - tau);
+                phi += zk[i]*t;
+                dphi += t*t;
+            }
+            double f = 1.0 + psi + phi;
+
+            // see if it has converged to within the accuracy that f can be computed
+            double error = 8.0*(phi - psi) + 2.0 + 3.0*Math.abs(tau)*(dpsi + dphi);
+            if (Math.abs(f) <= UtilEjml.EPS*error)
+                break;
+
+            if (f < 0)
+                lower = tau;
+            else
+                upper = tau;
+
+            // approximate the function using the two nearest poles and find its root
+            double delta1 = (dk[j] - org)*(dk[j] + org) - tau;
+            double step;
+            if (last) {
+                double c = f - dpsi*delta1;
+                step = c > 0 ? delta1 + dpsi*delta1*delta1/c : Double.NaN;
+            } else {
+                double delta2 = (dk[j + 1] - org)*(dk[j + 1] + org) - tau;
+                step = rationalStep(f - dpsi*delta1 - dphi*delta2, dpsi*delta1*delta1, dphi*delta2*delta2,
+                        delta1, delta2);
+            }
+
+            double next = tau + step;
+            // fall back to bisection if it leaves the bracket
+            if (!(next > lower && next < upper))
+                next = (lower + upper)/2.0;
+            if (next == tau)
+                break;
+            tau = next;
+        }
+
+        // sigma = sqrt(org^2 + tau) computed without cancellation
+        work.sigma[j] = org + tau/(org + Math.sqrt(org*org + tau));
+        double[] Ud = work.Ub.data;
+        for (int i = 0; i < K; i++) {
+            Ud[i*K + j] = (dk[i] - org)*(dk[i] + org) - tau;
+        }
+    }
+
+    /**
+     * Finds the root of c + q/(delta1-x) + s/(delta2-x) which is between delta1 and delta2
+     *
+     * @return the root or NaN if it can't be computed
+     */
+    static double rationalStep( double c, double q, double s, double delta1, double delta2 ) {
+        double a = c;
+        double b = -(c*(delta1 + delta2) + q + s);
+        double e = c*delta1*delta2 + q*delta2 + s*delta1;
+
+        if (a == 0)
+            return b == 0 ? Double.NaN : -e/b;
+
+        double disc = b*b - 4.0*a*e;
+        if (disc < 0)
+            return Double.NaN;
+        double r = -0.5*(b + Math.copySign(Math.sqrt(disc), b));
+        if (r == 0)
+            return Double.NaN;
+        double x1 = r/a;
+        double x2 = e/r;
+        if (x1 > delta1 && x1 < delta2)
+            return x1;
+        if (x2 > delta1 && x2 < delta2)
+            return x2;
+        return Double.NaN;
+    }
+
+    /**
+     * Computes the left and right singular vectors of M and stores them in the columns of Ub and Vb. The vector
+     * z is recomputed from the found singular values using the Löwner formula so that the vectors are orthogonal.
+     */
+    protected void computeVectors( Workspace work ) {
+        for (int i = 0; i < work.K; i++) {
+            computeZ(i, work);
+        }
+        for (int j = 0; j < work.K; j++) {
+            computeVector(j, work);
+        }
+    }
+
+    protected void computeZ( int i, Workspace work ) {
+        final int K = work.K;
+        final double[] dk = work.dk;
+        final double[] Ud = work.Ub.data;
+
+        double w = Ud[i*K + i];
+        for (int j = 0; j < K; j++) {
+            if (j != i)
+                w *= Ud[i*K + j]/((dk[i] - dk[j])*(dk[i] + dk[j]));
+        }
+        work.zhat[i] = Math.copySign(Math.sqrt(Math.max(0, -w)), work.zk[i]);
+    }
+
+    protected void computeVector( int j, Workspace work ) {
+        final int K = work.K;
+        final double[] Ud = work.Ub.data;
+        final double[] Vd = work.Vb.data;
+        final double[] dk = work.dk;
+        final double[] zhat = work.zhat;
+
+        // v = (D^2 - sigma^2)^-1 * z and u = M*v/sigma
+        double normV = 0;
+        double normU = 1;
+        for (int i = 0; i < K; i++) {
+            double v = zhat[i]/Ud[i*K + j];
+            Vd[i*K + j] = v;
+            normV += v*v;
+        }
+        Ud[j] = -1.0;
+        for (int i = 1; i < K; i++) {
+            double u = dk[i]*Vd[i*K + j];
+            Ud[i*K + j] = u;
+            normU += u*u;
+        }
+        normV = Math.sqrt(normV);
+        normU = Math.sqrt(normU);
+        for (int i = 0; i < K; i++) {
+            Vd[i*K + j] /= normV;
+            Ud[i*K + j] /= normU;
+        }
+    }
+
+    /**
+     * Multiplies the singular vectors of the two segments by the singular vectors of M. Before they are merged, the
+     * rows of the upper segment are only non-zero in its own columns, the lower segment's rows in its own columns,
+     * and the removed row in U is only non-zero in the first column. Columns that were rotated during deflation
+     * can be non-zero in both. Only the blocks which can be non-zero are multiplied.
+     */
+    protected void multiplyMerge( int lo, int hi, int sqre, int mid, Workspace work ) {
+        final int K = work.K;
+        work.Ru.reshape(hi - lo, K);
+        work.Rv.reshape(hi - lo + sqre, K);
+
+        // Upper rows in U. Row 'mid' in U is the first row in Ub
+        multiplyBlock(U, work.Ub, lo, mid, LEFT, false, work.Ru, 0, work);
+        System.arraycopy(work.Ub.data, 0, work.Ru.data, (mid - lo)*K, K);
+        // lower rows in U
+        multiplyBlock(U, work.Ub, mid + 1, hi, RIGHT, false, work.Ru, mid + 1 - lo, work);
+
+        // The first column of V is non-zero in the upper rows and also in the lower rows if the null
+        // vectors were rotated
+        multiplyBlock(V, work.Vb, lo, mid + 1, LEFT, true, work.Rv, 0, work);
+        multiplyBlock(V, work.Vb, mid + 1, hi + sqre, RIGHT, sqre == 1, work.Rv, mid + 1 - lo, work);
+    }
+
+    /**
+     * Computes rows [row0,row1) of Q*B and writes them into R, starting at 'rowR'. Only non-deflated columns
+     * in Q which have the specified type, or are dense, are used.
+     *
+     * @param includeFirst If true the first non-deflated column is included
+     */
+    private void multiplyBlock( DMatrixRMaj Q, DMatrixRMaj B, int row0, int row1, int type, boolean includeFirst,
+                                DMatrixRMaj R, int rowR, Workspace work ) {
+        final int K = work.K;
+        final int rows = row1 - row0;
+
+        // find the columns which can be non-zero
+        int[] selected = work.selected;
+        int count = 0;
+        for (int i = 0; i < K; i++) {
+            int local = work.nondeflated[i];
+            if (i == 0 ? includeFirst : (work.type[local] == type || work.type[local] == DENSE))
+                selected[count++] = i;
+        }
+
+        if (count == 0) {
+            for (int i = rowR*K; i < (rowR + rows)*K; i++) {
+                R.data[i] = 0;
+            }
+            return;
+        }
+
+        work.Wa.reshape(rows, count);
+        work.Ba.reshape(count, K);
+        for (int row = 0; row < rows; row++) {
+            int indexQ = (row0 + row)*N;
+            int indexW = row*count;
+            for (int i = 0; i < count; i++) {
+                work.Wa.data[indexW + i] = Q.data[indexQ + work.columns[work.nondeflated[selected[i]]]];
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            System.arraycopy(B.data, selected[i]*K, work.Ba.data, i*K, K);
+        }
+        work.Pa.reshape(rows, K);
+        multiply(work.Wa, work.Ba, work.Pa);
+        System.arraycopy(work.Pa.data, 0, R.data, rowR*K, rows*K);
+    }
+
+    /**
+     * C = A*B
+     */
+    protected void multiply( DMatrixRMaj A, DMatrixRMaj B, DMatrixRMaj C ) {
+        CommonOps_DDRM.mult(A, B, C);
+    }
+
+    /**
+     * Combines the deflated and found singular values into a single sorted list and writes the results into
+     * the segment's blocks in U and V
+     */
+    private void assemble( int lo, int length, int sqre, Workspace work ) {
+        final int K = work.K;
+        final int numDeflated = work.numDeflated;
+        final int rowsV = length + sqre;
+        final double[] d = work.d;
+        final int[] deflated = work.deflated;
+        final int[] columns = work.columns;
+
+        DMatrixRMaj outU = work.outU;
+        DMatrixRMaj outV = work.outV;
+        outU.reshape(length, length);
+        outV.reshape(rowsV, length);
+        for (int a = 0, b = 0, k = 0; k < length; k++) {
+            if (b >= numDeflated || (a < K && work.sigma[a] <= d[deflated[b]])) {
+                for (int row = 0; row < length; row++) {
+                    outU.data[row*length + k] = work.Ru.data[row*K + a];
+                }
+                for (int row = 0; row < rowsV; row++) {
+                    outV.data[row*length + k] = work.Rv.data[row*K + a];
+                }
+                work.values[k] = work.sigma[a++];
+            } else {
+                int col = columns[deflated[b]];
+                for (int row = 0; row < length; row++) {
+                    outU.data[row*length + k] = U.data[(lo + row)*N + col];
+                }
+                for (int row = 0; row < rowsV; row++) {
+                    outV.data[row*length + k] = V.data[(lo + row)*N + col];
+                }
+                work.values[k] = d[deflated[b++]];
+            }
+        }
+
+        System.arraycopy(work.values, 0, values, lo, length);
+        for (int row = 0; row < length; row++) {
+            System.arraycopy(outU.data, row*length, U.data, (lo + row)*N + lo, length);
+        }
+        for (int row = 0; row < rowsV; row++) {
+            System.arraycopy(outV.data, row*length, V.data, (lo + row)*N + lo, length);
+        }
+    }
+
+    /**
+     * Changes the order of the singular values and vectors from ascending to descending
+     */
+    private void reverseOrder() {
+        for (int i = 0, j = N - 1; i < j; i++, j--) {
+            double tmp = values[i];
+            values[i] = values[j];
+            values[j] = tmp;
+        }
+        for (int row = 0; row < N; row++) {
+            int index = row*N;
+            for (int i = 0, j = N - 1; i < j; i++, j--) {
+                double tmp = U.data[index + i];
+                U.data[index + i] = U.data[index + j];
+                U.data[index + j] = tmp;
+                tmp = V.data[index + i];
+                V.data[index + i] = V.data[index + j];
+                V.data[index + j] = tmp;
+            }
+        }
+    }
+
+    /**
+     * Sorts the indexes by their value
+     */
+    private static void insertionSort( double[] values, int[] order, int length ) {
+        for (int i = 1; i < length; i++) {
+            int key = order[i];
+            int k = i - 1;
+            while (k >= 0 && values[order[k]] > values[key]) {
+                order[k + 1] = order[k];
+                k--;
+            }
+            order[k + 1] = key;
+        }
+    }
+
+    /**
+     * Returns the singular values in descending order
+     */
+    public double[] getSingularValues() {
+        return values;
+    }
+
+    /**
+     * Returns the left singular vectors. Each column is a singular vector and they are in the same order as the
+     * singular values.
+     */
+    public DMatrixRMaj getU() {
+        return U;
+    }
+
+    /**
+     * Returns the right singular vectors. Each column is a singular vector and they are in the same order as the
+     * singular values.
+     */
+    public DMatrixRMaj getV() {
+        return V;
+    }
+
+    public int getMinimumSize() {
+        return minimumSize;
+    }
+
+    /**
+     * Specifies the size at which a segment is solved directly using the QR algorithm instead of being divided.
+     */
+    public void setMinimumSize( int minimumSize ) {
+        if (minimumSize < 1)
+            throw new IllegalArgumentException("Minimum size must be at least one");
+        this.minimumSize = minimumSize;
+    }
+
+    public int getMaxIterations() {
+        return maxIterations;
+    }
+
+    /**
+     * Maximum number of iterations used to find each root of the secular equation
+     */
+    public void setMaxIterations( int maxIterations ) {
+        this.maxIterations = maxIterations;
+    }
+
+    /**
+     * Storage used to solve a leaf or merge two segments
+     */
+    protected static class Workspace {
+        // QR algorithm which is used to solve the leaves
+        final SvdImplicitQrAlgorithm_DDRM qr = new SvdImplicitQrAlgorithm_DDRM();
+
+        // singular values of the two segments and the vector z
+        double[] d = new double[0];
+        double[] z = new double[0];
+        // column in U and V which each element in d refers to
+        int[] columns = new int[0];
+        // which blocks each column can be non-zero in
+        int[] type = new int[0];
+        // tolerance used for deflation
+        double tol;
+
+        // number of singular values which are not deflated
+        int K;
+        int numDeflated;
+        int[] nondeflated = new int[0];
+        int[] deflated = new int[0];
+        int[] order = new int[0];
+        int[] selected = new int[0];
+
+        // the non-deflated singular values and elements in z
+        double[] dk = new double[0];
+        double[] zk = new double[0];
+        // singular values of M
+        double[] sigma = new double[0];
+        // z computed from the singular values
+        double[] zhat = new double[0];
+        // the merged singular values
+        double[] values = new double[0];
+
+        // Distance from each pole to each root and then the left singular vectors of M
+        final DMatrixRMaj Ub = new DMatrixRMaj(1, 1);
+        // right singular vectors of M
+        final DMatrixRMaj Vb = new DMatrixRMaj(1, 1);
+        // storage for multiplying blocks
+        final DMatrixRMaj Wa = new DMatrixRMaj(1, 1);
+        final DMatrixRMaj Ba = new DMatrixRMaj(1, 1);
+        final DMatrixRMaj Pa = new DMatrixRMaj(1, 1);
+        // singular vectors of the two segments multiplied by Ub and Vb
+        final DMatrixRMaj Ru = new DMatrixRMaj(1, 1);
+        final DMatrixRMaj Rv = new DMatrixRMaj(1, 1);
+        final DMatrixRMaj outU = new DMatrixRMaj(1, 1);
+        final DMatrixRMaj outV = new DMatrixRMaj(1, 1);
+
+        void resize( int length ) {
+            if (d.length >= length)
+                return;
+            d = new double[length];
+            z = new double[length];
+            columns = new int[length];
+            type = new int[length];
+            nondeflated = new int[length];
+            deflated = new int[length];
+            order = new int[length];
+            selected = new int[length];
+            dk = new double[length];
+            zk = new double[length];
+            sigma = new double[length];
+            zhat = new double[length];
+            values = new double[length];
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.dense.row.decomposition.svd.divideconquer;
+
+import org.ejml.concurrency.EjmlConcurrency;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_MT_DDRM;
+
+/**
+ * <p>
+ * Concurrent implementation of {@link SvdDivideConquerAlgorithm_DDRM}. All the leaves are solved at the same time.
+ * Merges at the same height in the tree are independent of each other. If there are enough of them to keep all
+ * the threads busy then each merge is processed by a single thread. Otherwise, which is always the case near
+ * the top of the tree where most of the work is done, the merges are processed one at a time and the secular
+ * equation, singular vectors, and matrix multiplications inside each merge are computed concurrently.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class SvdDivideConquerAlgorithm_MT_DDRM extends SvdDivideConquerAlgorithm_DDRM {
+    // If true then the work inside of a single merge is done concurrently
+    boolean concurrentMerge;
+
+    // set to true if the QR algorithm failed on a leaf
+    volatile boolean failed;
+
+    @Override
+    protected boolean solveLeaves() {
+        failed = false;
+        EjmlConcurrency.loopFor(0, numLeaves, 1, workspace, ( work, i ) -> {
+            if (!solveLeaf(i, work))
+                failed = true;
+        });
+        return !failed;
+    }
+
+    @Override
+    protected void mergeLevel( int idx0, int idx1 ) {
+        if (idx1 - idx0 >= EjmlConcurrency.getMaxThreads()) {
+            concurrentMerge = false;
+            EjmlConcurrency.loopFor(idx0, idx1, 1, workspace, ( work, i ) -> merge(i, work));
+        } else {
+            concurrentMerge = true;
+            super.mergeLevel(idx0, idx1);
+        }
+    }
+
+    @Override
+    protected void solveSecular( Workspace work ) {
+        if (!concurrentMerge) {
+            super.solveSecular(work);
+            return;
+        }
+        EjmlConcurrency.loopFor(0, work.K, j -> solveRoot(j, work));
+    }
+
+    @Override
+    protected void computeVectors( Workspace work ) {
+        if (!concurrentMerge) {
+            super.computeVectors(work);
+            return;
+        }
+        EjmlConcurrency.loopFor(0, work.K, i -> computeZ(i, work));
+        EjmlConcurrency.loopFor(0, work.K, j -> computeVector(j, work));
+    }
+
+    @Override
+    protected void multiply( DMatrixRMaj A, DMatrixRMaj B, DMatrixRMaj C ) {
+        if (!concurrentMerge) {
+            super.multiply(A, B, C);
+            return;
+        }
+        CommonOps_MT_DDRM.mult(A, B, C);
+    }
+}
@@ -31,13 +31,17 @@ import org.ejml.dense.row.decomposition.chol.CholeskyDecompositionInner_DDRM;
 import org.ejml.dense.row.decomposition.chol.CholeskyDecompositionLDL_DDRM;
 import org.ejml.dense.row.decomposition.chol.CholeskyDecomposition_DDRB_to_DDRM;
 import org.ejml.dense.row.decomposition.eig.SwitchingEigenDecomposition_DDRM;
+import org.ejml.dense.row.decomposition.eig.SymmetricDivideConquerDecomposition_DDRM;
 import org.ejml.dense.row.decomposition.eig.SymmetricQRAlgorithmDecomposition_DDRM;
 import org.ejml.dense.row.decomposition.eig.WatchedDoubleStepQRDecomposition_DDRM;
+import org.ejml.dense.row.decomposition.eig.symm.SymmetricDivideConquer_DDRM;
 import org.ejml.dense.row.decomposition.hessenberg.TridiagonalDecompositionHouseholder_DDRM;
 import org.ejml.dense.row.decomposition.hessenberg.TridiagonalDecomposition_DDRB_to_DDRM;
 import org.ejml.dense.row.decomposition.lu.LUDecompositionAlt_DDRM;
+import org.ejml.dense.row.decomposition.lu.LUDecomposition_DDRB_to_DDRM;
 import org.ejml.dense.row.decomposition.qr.QRColPivDecompositionHouseholderColumn_DDRM;
 import org.ejml.dense.row.decomposition.qr.QRDecompositionHouseholderColumn_DDRM;
+import org.ejml.dense.row.decomposition.svd.SvdDivideConquerDecompose_DDRM;
 import org.ejml.dense.row.decomposition.svd.SvdImplicitQrDecompose_DDRM;
 import org.ejml.interfaces.decomposition.*;
 
@@ -115,7 +119,11 @@ public class DecompositionFactory_DDRM {
      * @return LUDecomposition
      */
     public static LUDecomposition_F64<DMatrixRMaj> lu( int numRows, int numCol ) {
-        return new LUDecompositionAlt_DDRM();
+        if (Math.min(numRows, numCol) < EjmlParameters.SWITCH_BLOCK64_LU) {
+            return new LUDecompositionAlt_DDRM();
+        } else {
+            return new LUDecomposition_DDRB_to_DDRM();
+        }
     }
 
     public static LUDecomposition_F64<DMatrixRMaj> lu() {
@@ -138,6 +146,8 @@ public class DecompositionFactory_DDRM {
     public static SingularValueDecomposition_F64<DMatrixRMaj> svd( int numRows, int numCols,
                                                                    boolean needU, boolean needV, boolean compact ) {
         // Don't allow the tall decomposition by default since it *might* be less stable
+        if (needU && needV && Math.min(numRows, numCols) >= EjmlParameters.SWITCH_SVD_DIVIDE_CONQUER)
+            return new SvdDivideConquerDecompose_DDRM(compact, true, true, false);
         return new SvdImplicitQrDecompose_DDRM(compact, needU, needV, false);
     }
 
@@ -221,6 +231,8 @@ public class DecompositionFactory_DDRM {
                                                            boolean isSymmetric ) {
         if (isSymmetric) {
             TridiagonalSimilarDecomposition_F64<DMatrixRMaj> decomp = DecompositionFactory_DDRM.tridiagonal(matrixSize);
+            if (computeVectors && matrixSize >= EjmlParameters.SWITCH_EIG_DIVIDE_CONQUER)
+                return new SymmetricDivideConquerDecomposition_DDRM(decomp, new SymmetricDivideConquer_DDRM(), true);
             return new SymmetricQRAlgorithmDecomposition_DDRM(decomp, computeVectors);
         } else
             return new WatchedDoubleStepQRDecomposition_DDRM(computeVectors);
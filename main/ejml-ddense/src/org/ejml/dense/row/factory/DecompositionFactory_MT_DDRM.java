@@ -20,18 +20,29 @@ package org.ejml.dense.row.factory;
 
 import org.ejml.EjmlParameters;
 import org.ejml.UtilEjml;
+import org.ejml.concurrency.EjmlConcurrency;
 import org.ejml.data.DMatrix;
 import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.block.decomposition.chol.CholeskyTaskGraph_MT_DDRB;
+import org.ejml.dense.block.decomposition.lu.LUDecompositionTaskGraph_MT_DDRB;
+import org.ejml.dense.block.decomposition.qr.QRDecompositionTaskGraph_MT_DDRB;
 import org.ejml.dense.row.decomposition.chol.CholeskyDecompositionBlock_MT_DDRM;
+import org.ejml.dense.row.decomposition.chol.CholeskyDecomposition_DDRB_to_DDRM;
 import org.ejml.dense.row.decomposition.eig.SwitchingEigenDecomposition_DDRM;
+import org.ejml.dense.row.decomposition.eig.SymmetricDivideConquerDecomposition_DDRM;
 import org.ejml.dense.row.decomposition.eig.SymmetricQRAlgorithmDecomposition_DDRM;
 import org.ejml.dense.row.decomposition.eig.WatchedDoubleStepQRDecomposition_DDRM;
+import org.ejml.dense.row.decomposition.eig.symm.SymmetricDivideConquer_MT_DDRM;
 import org.ejml.dense.row.decomposition.eig.watched.WatchedDoubleStepQREigen_DDRM;
 import org.ejml.dense.row.decomposition.eig.watched.WatchedDoubleStepQREigen_MT_DDRM;
 import org.ejml.dense.row.decomposition.hessenberg.HessenbergSimilarDecomposition_DDRM;
 import org.ejml.dense.row.decomposition.hessenberg.HessenbergSimilarDecomposition_MT_DDRM;
 import org.ejml.dense.row.decomposition.hessenberg.TridiagonalDecompositionHouseholder_MT_DDRM;
+import org.ejml.dense.row.decomposition.lu.LUDecompositionAlt_DDRM;
+import org.ejml.dense.row.decomposition.lu.LUDecomposition_DDRB_to_DDRM;
 import org.ejml.dense.row.decomposition.qr.QRDecompositionHouseholderColumn_MT_DDRM;
+import org.ejml.dense.row.decomposition.qr.QRDecomposition_DDRB_to_DDRM;
+import org.ejml.dense.row.decomposition.svd.SvdDivideConquerDecompose_MT_DDRM;
 import org.ejml.dense.row.decomposition.svd.SvdImplicitQrDecompose_MT_DDRM;
 import org.ejml.interfaces.decomposition.*;
 
@@ -40,6 +51,19 @@ import org.ejml.interfaces.decomposition.*;
  * Contains concurrent implementations of different decompositions.
  * </p>
  *
+ * <p>
+ * When the matrix size is specified, the number of floating point operations is estimated and passed to
+ * {@link EjmlConcurrency#isConcurrent(String, double)}. If the matrix is too small to benefit from threads then
+ * the single threaded decomposition from {@link DecompositionFactory_DDRM} is returned. Functions which don't take
+ * a matrix size always return a concurrent implementation.
+ * </p>
+ *
+ * <p>
+ * Large Cholesky, LU and QR decompositions are computed with block algorithms which schedule their work using a
+ * task graph, e.g. {@link CholeskyTaskGraph_MT_DDRB}. They're used at the sizes where the single threaded factories
+ * switch to block algorithms.
+ * </p>
+ *
  * @author Peter Abeles
  */
 public class DecompositionFactory_MT_DDRM {
@@ -54,10 +78,16 @@ public class DecompositionFactory_MT_DDRM {
      * @return A new CholeskyDecomposition.
      */
     public static CholeskyDecomposition_F64<DMatrixRMaj> chol( int matrixSize, boolean lower ) {
-//        var blocks = new CholeskyOuterForm_MT_DDRB(lower);
-//        return new CholeskyDecomposition_DDRB_to_DDRM(blocks,EjmlParameters.BLOCK_WIDTH);
+        if (!EjmlConcurrency.isConcurrent("DecompositionFactory_MT_DDRM.chol", cube(matrixSize)/3.0))
+            return DecompositionFactory_DDRM.chol(matrixSize, lower);
 
-        // The DDRM version was found to be just as fast and doesn't require converting the matrix
+        // For smaller matrices the DDRM version is just as fast and doesn't require converting the matrix. With
+        // large matrices the task graph can start on the next block column before the trailing update finishes.
+        if (matrixSize >= EjmlParameters.SWITCH_BLOCK64_CHOLESKY &&
+                EjmlParameters.MEMORY == EjmlParameters.MemoryUsage.FASTER) {
+            return new CholeskyDecomposition_DDRB_to_DDRM(
+                    new CholeskyTaskGraph_MT_DDRB(lower), EjmlParameters.BLOCK_WIDTH);
+        }
         return new CholeskyDecompositionBlock_MT_DDRM(EjmlParameters.BLOCK_WIDTH_CHOL);
     }
 
@@ -68,7 +98,29 @@ public class DecompositionFactory_MT_DDRM {
      * @return A new CholeskyDecomposition.
      */
     public static CholeskyDecomposition_F64<DMatrixRMaj> chol( boolean lower ) {
-        return chol(100, lower);
+        return new CholeskyDecompositionBlock_MT_DDRM(EjmlParameters.BLOCK_WIDTH_CHOL);
+    }
+
+    /**
+     * <p>
+     * Returns a {@link LUDecomposition} that has been optimized for the specified matrix size. Small matrices
+     * don't benefit from concurrency and use the single threaded algorithm.
+     * </p>
+     *
+     * @param numRows Shape of the matrix that the code should be targeted towards. Does not need to be exact.
+     * @param numCol Shape of the matrix that the code should be targeted towards. Does not need to be exact.
+     * @return LUDecomposition
+     */
+    public static LUDecomposition_F64<DMatrixRMaj> lu( int numRows, int numCol ) {
+        if (Math.min(numRows, numCol) < EjmlParameters.SWITCH_BLOCK64_LU) {
+            return new LUDecompositionAlt_DDRM();
+        } else {
+            return new LUDecomposition_DDRB_to_DDRM(new LUDecompositionTaskGraph_MT_DDRB(), EjmlParameters.BLOCK_WIDTH);
+        }
+    }
+
+    public static LUDecomposition_F64<DMatrixRMaj> lu() {
+        return lu(EjmlParameters.SWITCH_BLOCK64_LU, EjmlParameters.SWITCH_BLOCK64_LU);
     }
 
     /**
@@ -86,7 +138,13 @@ public class DecompositionFactory_MT_DDRM {
      */
     public static SingularValueDecomposition_F64<DMatrixRMaj> svd( int numRows, int numCols,
                                                                    boolean needU, boolean needV, boolean compact ) {
+        double flops = 4.0*numRows*numCols*Math.min(numRows, numCols);
+        if (!EjmlConcurrency.isConcurrent("DecompositionFactory_MT_DDRM.svd", flops))
+            return DecompositionFactory_DDRM.svd(numRows, numCols, needU, needV, compact);
+
         // Don't allow the tall decomposition by default since it *might* be less stable
+        if (needU && needV && Math.min(numRows, numCols) >= EjmlParameters.SWITCH_SVD_DIVIDE_CONQUER)
+            return new SvdDivideConquerDecompose_MT_DDRM(compact, true, true, false);
         return new SvdImplicitQrDecompose_MT_DDRM(compact, needU, needV, false);
     }
 
@@ -99,7 +157,7 @@ public class DecompositionFactory_MT_DDRM {
      * @return SVD
      */
     public static SingularValueDecomposition_F64<DMatrixRMaj> svd( boolean needU, boolean needV, boolean compact ) {
-        return svd(100, 100, needU, needV, compact);
+        return new SvdImplicitQrDecompose_MT_DDRM(compact, needU, needV, false);
     }
 
     /**
@@ -112,6 +170,12 @@ public class DecompositionFactory_MT_DDRM {
      * @return QRDecomposition
      */
     public static QRDecomposition<DMatrixRMaj> qr( int numRows, int numCols ) {
+        double flops = 2.0*numRows*numCols*Math.min(numRows, numCols);
+        if (!EjmlConcurrency.isConcurrent("DecompositionFactory_MT_DDRM.qr", flops))
+            return DecompositionFactory_DDRM.qr(numRows, numCols);
+
+        if (numCols >= EjmlParameters.SWITCH_BLOCK64_QR && EjmlParameters.MEMORY == EjmlParameters.MemoryUsage.FASTER)
+            return new QRDecomposition_DDRB_to_DDRM(new QRDecompositionTaskGraph_MT_DDRB(), EjmlParameters.BLOCK_WIDTH);
         return new QRDecompositionHouseholderColumn_MT_DDRM();
     }
 
@@ -138,7 +202,10 @@ public class DecompositionFactory_MT_DDRM {
     }
 
     public static EigenDecomposition_F64<DMatrixRMaj> eig( boolean needVectors ) {
-        return eig(100, needVectors);
+        EigenDecomposition_F64<DMatrixRMaj> symm = eigConcurrent(100, needVectors, true);
+        EigenDecomposition_F64<DMatrixRMaj> general = eigConcurrent(100, needVectors, false);
+
+        return new SwitchingEigenDecomposition_DDRM(symm, general, UtilEjml.TEST_F64);
     }
 
     /**
@@ -154,8 +221,20 @@ public class DecompositionFactory_MT_DDRM {
      */
     public static EigenDecomposition_F64<DMatrixRMaj> eig( int matrixSize, boolean computeVectors,
                                                            boolean isSymmetric ) {
+        // reducing to tridiagonal or Hessenberg form is only part of the cost of the general case
+        double flops = isSymmetric ? 4.0*cube(matrixSize)/3.0 : 10.0*cube(matrixSize);
+        if (!EjmlConcurrency.isConcurrent("DecompositionFactory_MT_DDRM.eig", flops))
+            return DecompositionFactory_DDRM.eig(matrixSize, computeVectors, isSymmetric);
+
+        return eigConcurrent(matrixSize, computeVectors, isSymmetric);
+    }
+
+    private static EigenDecomposition_F64<DMatrixRMaj> eigConcurrent( int matrixSize, boolean computeVectors,
+                                                                      boolean isSymmetric ) {
         if (isSymmetric) {
-            TridiagonalSimilarDecomposition_F64<DMatrixRMaj> decomp = DecompositionFactory_MT_DDRM.tridiagonal(matrixSize);
+            TridiagonalSimilarDecomposition_F64<DMatrixRMaj> decomp = new TridiagonalDecompositionHouseholder_MT_DDRM();
+            if (computeVectors && matrixSize >= EjmlParameters.SWITCH_EIG_DIVIDE_CONQUER)
+                return new SymmetricDivideConquerDecomposition_DDRM(decomp, new SymmetricDivideConquer_MT_DDRM(), true);
             return new SymmetricQRAlgorithmDecomposition_DDRM(decomp, computeVectors);
         } else {
             HessenbergSimilarDecomposition_DDRM hessenberg = new HessenbergSimilarDecomposition_MT_DDRM();
@@ -166,7 +245,7 @@ public class DecompositionFactory_MT_DDRM {
 
     public static EigenDecomposition_F64<DMatrixRMaj> eig( boolean computeVectors,
                                                            boolean isSymmetric ) {
-        return eig(100, computeVectors, isSymmetric);
+        return eigConcurrent(100, computeVectors, isSymmetric);
     }
 
     /**
@@ -176,6 +255,9 @@ public class DecompositionFactory_MT_DDRM {
      * @param matrixSize Number of rows and columns that the returned decomposition is optimized for.
      */
     public static TridiagonalSimilarDecomposition_F64<DMatrixRMaj> tridiagonal( int matrixSize ) {
+        if (!EjmlConcurrency.isConcurrent("DecompositionFactory_MT_DDRM.tridiagonal", 4.0*cube(matrixSize)/3.0))
+            return DecompositionFactory_DDRM.tridiagonal(matrixSize);
+
 //        if (matrixSize >= 1800) {
 //            throw new RuntimeException("IMplement");
 ////            return new TridiagonalDecomposition_DDRB_to_DDRM();
@@ -200,4 +282,8 @@ public class DecompositionFactory_MT_DDRM {
             return decomp.decompose(M);
         }
     }
+
+    private static double cube( int n ) {
+        return (double)n*n*n;
+    }
 }
@@ -23,10 +23,12 @@ import org.ejml.data.DMatrixRMaj;
 import org.ejml.dense.row.decomposition.chol.CholeskyDecompositionCommon_DDRM;
 import org.ejml.dense.row.decomposition.chol.CholeskyDecompositionInner_DDRM;
 import org.ejml.dense.row.decomposition.lu.LUDecompositionAlt_DDRM;
+import org.ejml.dense.row.decomposition.lu.LUDecomposition_DDRB_to_DDRM;
 import org.ejml.dense.row.decomposition.qr.QRColPivDecompositionHouseholderColumn_DDRM;
 import org.ejml.dense.row.linsol.AdjustableLinearSolver_DDRM;
 import org.ejml.dense.row.linsol.chol.LinearSolverChol_DDRB;
 import org.ejml.dense.row.linsol.chol.LinearSolverChol_DDRM;
+import org.ejml.dense.row.linsol.chol.LinearSolverLDLBunchKaufman_DDRM;
 import org.ejml.dense.row.linsol.lu.LinearSolverLu_DDRM;
 import org.ejml.dense.row.linsol.qr.*;
 import org.ejml.dense.row.linsol.svd.SolvePseudoInverseSvd_DDRM;
@@ -86,7 +88,10 @@ public class LinearSolverFactory_DDRM {
      * @return A new linear solver.
      */
     public static LinearSolverDense<DMatrixRMaj> linear( int matrixSize ) {
-        return new LinearSolverLu_DDRM(new LUDecompositionAlt_DDRM());
+        if (matrixSize < EjmlParameters.SWITCH_BLOCK64_LU)
+            return new LinearSolverLu_DDRM(new LUDecompositionAlt_DDRM());
+        else
+            return new LinearSolverLu_DDRM(new LUDecomposition_DDRB_to_DDRM());
     }
 
     /**
@@ -127,6 +132,16 @@ public class LinearSolverFactory_DDRM {
         }
     }
 
+    /**
+     * Creates a solver for symmetric matrices which might be indefinite, e.g. saddle point and KKT systems.
+     * Uses a blocked LDL<sup>T</sup> decomposition with Bunch-Kaufman pivoting.
+     *
+     * @return A new solver for symmetric indefinite matrices.
+     */
+    public static LinearSolverDense<DMatrixRMaj> symmIndefinite( int matrixWidth ) {
+        return new LinearSolverLDLBunchKaufman_DDRM();
+    }
+
     /**
      * <p>
      * Linear solver which uses QR pivot decomposition. These solvers can handle singular systems
@@ -21,8 +21,14 @@ package org.ejml.dense.row.factory;
 import org.ejml.EjmlParameters;
 import org.ejml.data.DMatrixRMaj;
 import org.ejml.dense.block.linsol.chol.CholeskyOuterSolver_MT_DDRB;
+import org.ejml.dense.block.decomposition.lu.LUDecompositionTaskGraph_MT_DDRB;
 import org.ejml.dense.block.linsol.qr.QrHouseHolderSolver_MT_DDRB;
+import org.ejml.dense.row.decomposition.chol.LDLDecompositionBunchKaufman_MT_DDRM;
+import org.ejml.dense.row.decomposition.lu.LUDecompositionAlt_DDRM;
+import org.ejml.dense.row.decomposition.lu.LUDecomposition_DDRB_to_DDRM;
 import org.ejml.dense.row.linsol.chol.LinearSolverChol_DDRB;
+import org.ejml.dense.row.linsol.chol.LinearSolverLDLBunchKaufman_DDRM;
+import org.ejml.dense.row.linsol.lu.LinearSolverLu_DDRM;
 import org.ejml.dense.row.linsol.qr.LinearSolverQrBlock64_DDRM;
 import org.ejml.dense.row.linsol.qr.LinearSolverQrHouseCol_MT_DDRM;
 import org.ejml.interfaces.linsol.LinearSolverDense;
@@ -34,6 +40,13 @@ import org.ejml.interfaces.linsol.LinearSolverDense;
  */
 public class LinearSolverFactory_MT_DDRM {
 
+    /**
+     * Creates a linear solver using LU decomposition
+     */
+    public static LinearSolverDense<DMatrixRMaj> lu( int numRows ) {
+        return linear(numRows);
+    }
+
     /**
      * Creates a linear solver using Cholesky decomposition
      */
@@ -48,6 +61,19 @@ public class LinearSolverFactory_MT_DDRM {
         return leastSquares(numRows, numCols);
     }
 
+    /**
+     * Creates a solver for linear systems. The A matrix will have dimensions (m,m).
+     *
+     * @return A new linear solver.
+     */
+    public static LinearSolverDense<DMatrixRMaj> linear( int matrixSize ) {
+        if (matrixSize < EjmlParameters.SWITCH_BLOCK64_LU)
+            return new LinearSolverLu_DDRM(new LUDecompositionAlt_DDRM());
+        else
+            return new LinearSolverLu_DDRM(new LUDecomposition_DDRB_to_DDRM(
+                    new LUDecompositionTaskGraph_MT_DDRB(), EjmlParameters.BLOCK_WIDTH));
+    }
+
     /**
      * Creates a good general purpose solver for over determined systems and returns the optimal least-squares
      * solution. The A matrix will have dimensions (m,n) where m &ge; n.
@@ -75,4 +101,13 @@ public class LinearSolverFactory_MT_DDRM {
     public static LinearSolverDense<DMatrixRMaj> symmPosDef( int matrixWidth ) {
         return new LinearSolverChol_DDRB(new CholeskyOuterSolver_MT_DDRB());
     }
+
+    /**
+     * Creates a solver for symmetric matrices which might be indefinite, e.g. saddle point and KKT systems.
+     *
+     * @return A new solver for symmetric indefinite matrices.
+     */
+    public static LinearSolverDense<DMatrixRMaj> symmIndefinite( int matrixWidth ) {
+        return new LinearSolverLDLBunchKaufman_DDRM(new LDLDecompositionBunchKaufman_MT_DDRM());
+    }
 }
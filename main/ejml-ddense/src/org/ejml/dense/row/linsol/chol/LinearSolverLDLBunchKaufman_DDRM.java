@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.dense.row.linsol.chol;
+
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.decomposition.chol.LDLDecompositionBunchKaufman_DDRM;
+import org.ejml.dense.row.linsol.LinearSolverAbstract_DDRM;
+
+/**
+ * Linear solver for symmetric indefinite matrices using {@link LDLDecompositionBunchKaufman_DDRM}.
+ * The system P*A*P<sup>T</sup>*(P*x) = P*b is solved using forward substitution with L, the 1x1 and 2x2 blocks
+ * in D, and then backwards substitution with L<sup>T</sup>.
+ *
+ * @author Peter Abeles
+ */
+@SuppressWarnings("NullAway.Init")
+public class LinearSolverLDLBunchKaufman_DDRM extends LinearSolverAbstract_DDRM {
+
+    private final LDLDecompositionBunchKaufman_DDRM decomposer;
+    private int n;
+    private double[] vv = new double[0];
+    private double[] el;
+    private int[] perm;
+    private int[] pivotSize;
+
+    public LinearSolverLDLBunchKaufman_DDRM( LDLDecompositionBunchKaufman_DDRM decomposer ) {
+        this.decomposer = decomposer;
+    }
+
+    public LinearSolverLDLBunchKaufman_DDRM() {
+        this(new LDLDecompositionBunchKaufman_DDRM());
+    }
+
+    @Override
+    public boolean setA( DMatrixRMaj A ) {
+        _setA(A);
+
+        if (!decomposer.decompose(A))
+            return false;
+
+        n = A.numCols;
+        if (vv.length < n)
+            vv = new double[n];
+        el = decomposer._getLD().data;
+        perm = decomposer.getPermutation();
+        pivotSize = decomposer.getPivotSize();
+        return true;
+    }
+
+    /**
+     * Ratio of the smallest to the largest magnitude eigenvalue in D
+     */
+    @Override
+    public /**/double quality() {
+        double min = Double.MAX_VALUE;
+        double max = 0;
+        for (int k = 0; k < n; k += pivotSize[k]) {
+            double d11 = el[k*n + k];
+            if (pivotSize[k] == 1) {
+                min = Math.min(min, Math.abs(d11));
+                max = Math.max(max, Math.abs(d11));
+            } else {
+                double d21 = el[(k + 1)*n + k];
+                double d22 = el[(k + 1)*n + k + 1];
+                double mean = (d11 + d22)/2.0;
+                double r = Math.sqrt((d11 - d22)*(d11 - d22)/4.0 + d21*d21);
+                double e0 = Math.abs(mean - r);
+                double e1 = Math.abs(mean + r);
+                min = Math.min(min, Math.min(e0, e1));
+                max = Math.max(max, Math.max(e0, e1));
+            }
+        }
+        return max == 0 ? 0 : min/max;
+    }
+
+    /**
+     * <p>
+     * Using the decomposition, finds the value of 'X' in the linear equation below:<br>
+     *
+     * A*x = b<br>
+     *
+     * where A has dimension of n by n, x and b are n by m dimension.
+     * </p>
+     * <p>
+     * *Note* that 'b' and 'x' can be the same matrix instance.
+     * </p>
+     *
+     * @param B A matrix that is n by m.  Not modified.
+     * @param X An n by m matrix where the solution is writen to.  Modified.
+     */
+    @Override
+    public void solve( DMatrixRMaj B, DMatrixRMaj X ) {
+        if (B.numRows != n)
+            throw new IllegalArgumentException("Unexpected number of rows in B");
+        X.reshape(n, B.numCols);
+
+        int numCols = B.numCols;
+
+        double[] dataB = B.data;
+        double[] dataX = X.data;
+
+        for (int j = 0; j < numCols; j++) {
+            for (int i = 0; i < n; i++) vv[i] = dataB[perm[i]*numCols + j];
+            solveInternal();
+            for (int i = 0; i < n; i++) dataX[perm[i]*numCols + j] = vv[i];
+        }
+    }
+
+    /**
+     * Used internally to find the solution to a single column vector.
+     */
+    private void solveInternal() {
+        // solve L*s=b. The element below the diagonal in a 2x2 block is part of D
+        for (int i = 1; i < n; i++) {
+            int end = pivotSize[i] == 0 ? i - 1 : i;
+            double sum = vv[i];
+            int indexL = i*n;
+            for (int k = 0; k < end; k++) {
+                sum -= el[indexL + k]*vv[k];
+            }
+            vv[i] = sum;
+        }
+
+        // solve D*y=s
+        for (int k = 0; k < n; k += pivotSize[k]) {
+            if (pivotSize[k] == 1) {
+                vv[k] /= el[k*n + k];
+            } else {
+                double d11 = el[k*n + k];
+                double d21 = el[(k + 1)*n + k];
+                double d22 = el[(k + 1)*n + k + 1];
+                double det = d11*d22 - d21*d21;
+                double y0 = vv[k], y1 = vv[k + 1];
+                vv[k] = (d22*y0 - d21*y1)/det;
+                vv[k + 1] = (d11*y1 - d21*y0)/det;
+            }
+        }
+
+        // solve L^T*x=y. Row oriented so that L is traversed along its rows
+        for (int i = n - 1; i > 0; i--) {
+            int end = pivotSize[i] == 0 ? i - 1 : i;
+            double val = vv[i];
+            int indexL = i*n;
+            for (int k = 0; k < end; k++) {
+                vv[k] -= el[indexL + k]*val;
+            }
+        }
+    }
+
+    @Override
+    public boolean modifiesA() {
+        return decomposer.inputModified();
+    }
+
+    @Override
+    public boolean modifiesB() {
+        return false;
+    }
+
+    @Override
+    public LDLDecompositionBunchKaufman_DDRM getDecomposition() {
+        return decomposer;
+    }
+}
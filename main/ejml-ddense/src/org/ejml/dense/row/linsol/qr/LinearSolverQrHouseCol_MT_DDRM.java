@@ -59,8 +59,9 @@ public class LinearSolverQrHouseCol_MT_DDRM extends LinearSolverQrHouseCol_DDRM
 
         int BnumCols = B.numCols;
 
-        // solve each column one by one
-        EjmlConcurrency.loopBlocks(0, BnumCols, workArrays, ( work, idx0, idx1 ) -> {
+        // solve each column one by one. Applying Q and solving R is the work for each column
+        double flopsPerColumn = 4.0*numRows*numCols + (double)numCols*numCols;
+        EjmlConcurrency.loopBlocksCost(0, BnumCols, flopsPerColumn, workArrays, ( work, idx0, idx1 ) -> {
             work.a.reshape(numRows, 1);
             work.tmp.reshape(numRows);
 
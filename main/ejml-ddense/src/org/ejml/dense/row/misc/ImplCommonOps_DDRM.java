@@ -20,6 +20,8 @@ package org.ejml.dense.row.misc;
 
 import org.ejml.data.DMatrixD1;
 import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.mult.SimdKernels_DDRM;
+import org.ejml.dense.row.mult.SimdOps_DDRM;
 import org.jetbrains.annotations.Nullable;
 
 import static org.ejml.UtilEjml.checkSameShape;
@@ -105,6 +107,12 @@ public class ImplCommonOps_DDRM {
 
         int length = A.getNumElements();
 
+        SimdKernels_DDRM simd = SimdOps_DDRM.get(length);
+        if (simd != null) {
+            simd.elementMult(A.data, B.data, A.data, length);
+            return;
+        }
+
         for (int i = 0; i < length; i++) {
             A.times(i, B.get(i));
         }
@@ -116,6 +124,12 @@ public class ImplCommonOps_DDRM {
 
         int length = A.getNumElements();
 
+        SimdKernels_DDRM simd = SimdOps_DDRM.get(length);
+        if (simd != null) {
+            simd.elementMult(A.data, B.data, output.data, length);
+            return output;
+        }
+
         for (int i = 0; i < length; i++) {
             output.set(i, A.get(i)*B.get(i));
         }
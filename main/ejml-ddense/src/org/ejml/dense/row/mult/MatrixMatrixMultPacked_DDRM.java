@@ -0,0 +1,443 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.dense.row.mult;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DGrowArray;
+import org.ejml.data.DMatrix1Row;
+import org.ejml.dense.row.CommonOps_DDRM;
+//CONCURRENT_INLINE import org.ejml.concurrency.EjmlConcurrency;
+
+/**
+ * <p>
+ * Cache blocked matrix multiplication for large {@link DMatrix1Row} matrices. The structure follows the
+ * GotoBLAS/BLIS approach. C is computed in column panels of width {@link #BLOCK_N} and the inner dimension is
+ * processed in chunks of {@link #BLOCK_K}. For each chunk a panel of B is packed into contiguous storage, which
+ * is intended to reside in the L3 cache, and then blocks of A with {@link #BLOCK_M} rows are packed so that they
+ * fit inside the L2 cache. A small micro-kernel then computes a MR by NR tile of C while keeping the tile in
+ * registers, reading the packed data sequentially.
+ * </p>
+ *
+ * <p>
+ * Packing is also where transposes and the scaling factor are handled, so every variant shares the same
+ * micro-kernel. The packing overhead is only worthwhile for large matrices, see
+ * {@link org.ejml.EjmlParameters#MULT_PACKED_SWITCH}. If {@link SimdOps_DDRM} has kernels available then
+ * the single threaded product is computed by them instead.
+ * </p>
+ *
+ * <p>
+ * In the concurrent version the blocks of A inside a panel are processed by different threads. The panel of B
+ * is packed once and then shared.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class MatrixMatrixMultPacked_DDRM {
+    /** Number of rows in the micro-kernel's tile */
+    static final int MR = 4;
+    /** Number of columns in the micro-kernel's tile */
+    static final int NR = 4;
+
+    /** Length of the inner dimension in a packed block. A MR x BLOCK_K sliver of A should fit in the L1 cache. */
+    public static int BLOCK_K = 256;
+    /** Number of rows in a packed block of A. The block should fit in the L2 cache. */
+    public static int BLOCK_M = 96;
+    /** Number of columns in a packed panel of B. The panel should fit in the L3 cache. */
+    public static int BLOCK_N = 2048;
+
+    // Storage for the packed blocks. Each thread keeps its own so that they are only allocated once. The panel
+    // of B is the largest, up to BLOCK_K*BLOCK_N elements.
+    static final ThreadLocal<Workspace> workspace = ThreadLocal.withInitial(Workspace::new);
+
+    /**
+     * @see CommonOps_DDRM#mult(org.ejml.data.DMatrix1Row, org.ejml.data.DMatrix1Row, org.ejml.data.DMatrix1Row)
+     */
+    public static void mult( DMatrix1Row A, DMatrix1Row B, DMatrix1Row C ) {
+        mult(1.0, A, B, C);
+    }
+
+    /**
+     * @see CommonOps_DDRM#mult(double, org.ejml.data.DMatrix1Row, org.ejml.data.DMatrix1Row, org.ejml.data.DMatrix1Row)
+     */
+    public static void mult( double alpha, DMatrix1Row A, DMatrix1Row B, DMatrix1Row C ) {
+        checkInput(A, B, C);
+        UtilEjml.assertShape(A.numCols, B.numRows, "The 'A' and 'B' matrices do not have compatible dimensions");
+        C.reshape(A.numRows, B.numCols);
+        gemm(alpha, A, false, B, false, C, false);
+    }
+
+    /**
+     * @see CommonOps_DDRM#multTransA(org.ejml.data.DMatrix1Row, org.ejml.data.DMatrix1Row, org.ejml.data.DMatrix1Row)
+     */
+    public static void multTransA( DMatrix1Row A, DMatrix1Row B, DMatrix1Row C ) {
+        multTransA(1.0, A, B, C);
+    }
+
+    /**
+     * @see CommonOps_DDRM#multTransA(double, org.ejml.data.DMatrix1Row, org.ejml.data.DMatrix1Row, org.ejml.data.DMatrix1Row)
+     */
+    public static void multTransA( double alpha, DMatrix1Row A, DMatrix1Row B, DMatrix1Row C ) {
+        checkInput(A, B, C);
+        UtilEjml.assertShape(A.numRows, B.numRows, "The 'A' and 'B' matrices do not have compatible dimensions");
+        C.reshape(A.numCols, B.numCols);
+        gemm(alpha, A, true, B, false, C, false);
+    }
+
+    /**
+     * @see CommonOps_DDRM#multTransB(org.ejml.data.DMatrix1Row, org.ejml.data.DMatrix1Row, org.ejml.data.DMatrix1Row)
+     */
+    public static void multTransB( DMatrix1Row A, DMatrix1Row B, DMatrix1Row C ) {
+        multTransB(1.0, A, B, C);
+    }
+
+    /**
+     * @see CommonOps_DDRM#multTransB(double, org.ejml.data.DMatrix1Row, org.ejml.data.DMatrix1Row, org.ejml.data.DMatrix1Row)
+     */
+    public static void multTransB( double alpha, DMatrix1Row A, DMatrix1Row B, DMatrix1Row C ) {
+        checkInput(A, B, C);
+        UtilEjml.assertShape(A.numCols, B.numCols, "The 'A' and 'B' matrices do not have compatible dimensions");
+        C.reshape(A.numRows, B.numRows);
+        gemm(alpha, A, false, B, true, C, false);
+    }
+
+    /**
+     * @see CommonOps_DDRM#multTransAB(org.ejml.data.DMatrix1Row, org.ejml.data.DMatrix1Row, org.ejml.data.DMatrix1Row)
+     */
+    public static void multTransAB( DMatrix1Row A, DMatrix1Row B, DMatrix1Row C ) {
+        multTransAB(1.0, A, B, C);
+    }
+
+    /**
+     * @see CommonOps_DDRM#multTransAB(double, org.ejml.data.DMatrix1Row, org.ejml.data.DMatrix1Row, org.ejml.data.DMatrix1Row)
+     */
+    public static void multTransAB( double alpha, DMatrix1Row A, DMatrix1Row B, DMatrix1Row C ) {
+        checkInput(A, B, C);
+        UtilEjml.assertShape(A.numRows, B.numCols, "The 'A' and 'B' matrices do not have compatible dimensions");
+        C.reshape(A.numCols, B.numRows);
+        gemm(alpha, A, true, B, true, C, false);
+    }
+
+    /**
+     * @see CommonOps_DDRM#multAdd(org.ejml.data.DMatrix1Row, org.ejml.data.DMatrix1Row, org.ejml.data.DMatrix1Row)
+     */
+    public static void multAdd( DMatrix1Row A, DMatrix1Row B, DMatrix1Row C ) {
+        multAdd(1.0, A, B, C);
+    }
+
+    /**
+     * @see CommonOps_DDRM#multAdd(double, org.ejml.data.DMatrix1Row, org.ejml.data.DMatrix1Row, org.ejml.data.DMatrix1Row)
+     */
+    public static void multAdd( double alpha, DMatrix1Row A, DMatrix1Row B, DMatrix1Row C ) {
+        checkInput(A, B, C);
+        UtilEjml.assertShape(A.numCols, B.numRows, "The 'A' and 'B' matrices do not have compatible dimensions");
+        UtilEjml.assertShape(A.numRows == C.numRows && B.numCols == C.numCols, "C is not compatible with A and B");
+        gemm(alpha, A, false, B, false, C, true);
+    }
+
+    /**
+     * @see CommonOps_DDRM#multAddTransA(org.ejml.data.DMatrix1Row, org.ejml.data.DMatrix1Row, org.ejml.data.DMatrix1Row)
+     */
+    public static void multAddTransA( DMatrix1Row A, DMatrix1Row B, DMatrix1Row C ) {
+        multAddTransA(1.0, A, B, C);
+    }
+
+    /**
+     * @see CommonOps_DDRM#multAddTransA(double, org.ejml.data.DMatrix1Row, org.ejml.data.DMatrix1Row, org.ejml.data.DMatrix1Row)
+     */
+    public static void multAddTransA( double alpha, DMatrix1Row A, DMatrix1Row B, DMatrix1Row C ) {
+        checkInput(A, B, C);
+        UtilEjml.assertShape(A.numRows, B.numRows, "The 'A' and 'B' matrices do not have compatible dimensions");
+        UtilEjml.assertShape(A.numCols == C.numRows && B.numCols == C.numCols, "C is not compatible with A and B");
+        gemm(alpha, A, true, B, false, C, true);
+    }
+
+    /**
+     * @see CommonOps_DDRM#multAddTransB(org.ejml.data.DMatrix1Row, org.ejml.data.DMatrix1Row, org.ejml.data.DMatrix1Row)
+     */
+    public static void multAddTransB( DMatrix1Row A, DMatrix1Row B, DMatrix1Row C ) {
+        multAddTransB(1.0, A, B, C);
+    }
+
+    /**
+     * @see CommonOps_DDRM#multAddTransB(double, org.ejml.data.DMatrix1Row, org.ejml.data.DMatrix1Row, org.ejml.data.DMatrix1Row)
+     */
+    public static void multAddTransB( double alpha, DMatrix1Row A, DMatrix1Row B, DMatrix1Row C ) {
+        checkInput(A, B, C);
+        UtilEjml.assertShape(A.numCols, B.numCols, "The 'A' and 'B' matrices do not have compatible dimensions");
+        UtilEjml.assertShape(A.numRows == C.numRows && B.numRows == C.numCols, "C is not compatible with A and B");
+        gemm(alpha, A, false, B, true, C, true);
+    }
+
+    /**
+     * @see CommonOps_DDRM#multAddTransAB(org.ejml.data.DMatrix1Row, org.ejml.data.DMatrix1Row, org.ejml.data.DMatrix1Row)
+     */
+    public static void multAddTransAB( DMatrix1Row A, DMatrix1Row B, DMatrix1Row C ) {
+        multAddTransAB(1.0, A, B, C);
+    }
+
+    /**
+     * @see CommonOps_DDRM#multAddTransAB(double, org.ejml.data.DMatrix1Row, org.ejml.data.DMatrix1Row, org.ejml.data.DMatrix1Row)
+     */
+    public static void multAddTransAB( double alpha, DMatrix1Row A, DMatrix1Row B, DMatrix1Row C ) {
+        checkInput(A, B, C);
+        UtilEjml.assertShape(A.numRows, B.numCols, "The 'A' and 'B' matrices do not have compatible dimensions");
+        UtilEjml.assertShape(A.numCols == C.numRows && B.numRows == C.numCols, "C is not compatible with A and B");
+        gemm(alpha, A, true, B, true, C, true);
+    }
+
+    private static void checkInput( DMatrix1Row A, DMatrix1Row B, DMatrix1Row C ) {
+        UtilEjml.assertTrue(A != C && B != C, "Neither 'A' or 'B' can be the same matrix as 'C'");
+    }
+
+    /**
+     * C = alpha*op(A)*op(B) or C = C + alpha*op(A)*op(B). The shape of C must already be correct.
+     *
+     * @param transA If true then op(A) = A<sup>T</sup>
+     * @param transB If true then op(B) = B<sup>T</sup>
+     * @param add If true then the product is added to C, otherwise C is overwritten
+     */
+    static void gemm( double alpha, DMatrix1Row A, boolean transA, DMatrix1Row B, boolean transB,
+                      DMatrix1Row C, boolean add ) {
+        final int M = C.numRows;
+        final int N = C.numCols;
+        final int K = transA ? A.numRows : A.numCols;
+
+        if (M == 0 || N == 0)
+            return;
+        if (K == 0) {
+            if (!add)
+                CommonOps_DDRM.fill(C, 0);
+            return;
+        }
+
+        //CONCURRENT_OMIT_BEGIN
+        SimdKernels_DDRM simd = SimdOps_DDRM.getKernels();
+        if (simd != null) {
+            simd.gemm(alpha, A, transA, B, transB, C, add);
+            return;
+        }
+        //CONCURRENT_OMIT_END
+
+        final int kc = Math.min(BLOCK_K, K);
+        //CONCURRENT_INLINE final int threads = EjmlConcurrency.getMaxThreads();
+        //CONCURRENT_BELOW final int mc = roundUp(Math.min(BLOCK_M, (M + threads - 1)/threads), MR);
+        final int mc = roundUp(Math.min(BLOCK_M, M), MR);
+        final int nc = roundUp(Math.min(BLOCK_N, N), NR);
+
+        // Concurrently the panel of B is shared by all the threads and is not stored in the caller's workspace
+        //CONCURRENT_BELOW double[] packedB = new double[kc*nc];
+        double[] packedB = UtilEjml.adjust(workspace.get().packedB, kc*nc);
+
+        for (int jc = 0; jc < N; jc += nc) {
+            int nb = Math.min(nc, N - jc);
+            for (int pc = 0; pc < K; pc += kc) {
+                int kb = Math.min(kc, K - pc);
+                packB(B, transB, pc, kb, jc, nb, packedB);
+
+                // After the first chunk of the inner dimension the results are always added to C
+                multPanel(alpha, A, transA, pc, kb, packedB, jc, nb, mc, C, add || pc > 0);
+            }
+        }
+    }
+
+    /**
+     * Multiplies every block of rows in op(A) against a packed panel of B. Blocks of A are packed into the
+     * workspace of the thread which processes them.
+     *
+     * @param blockRows Number of rows in each block of A
+     */
+    static void multPanel( double alpha, DMatrix1Row A, boolean transA, int k0, int length, double[] packedB,
+                           int col0, int cols, int blockRows, DMatrix1Row C, boolean accumulate ) {
+        final int M = C.numRows;
+        //CONCURRENT_BELOW EjmlConcurrency.loopFor(0, M, blockRows, ic -> {
+        for (int ic = 0; ic < M; ic += blockRows) {
+            Workspace work = workspace.get();
+            int mb = Math.min(blockRows, M - ic);
+            double[] packedA = UtilEjml.adjust(work.packedA, blockRows*length);
+            packA(alpha, A, transA, ic, mb, k0, length, packedA);
+            macroKernel(packedA, packedB, mb, cols, length, C, ic, col0, accumulate, work.edge);
+        }
+        //CONCURRENT_ABOVE });
+    }
+
+    /**
+     * Copies alpha*op(A)[row0:row0+rows, k0:k0+length] into slivers which are MR rows tall. Inside a sliver
+     * the elements are stored column by column. Rows past the end of the matrix are filled with zeros.
+     */
+    static void packA( double alpha, DMatrix1Row A, boolean transA,
+                       int row0, int rows, int k0, int length, double[] packed ) {
+        final double[] data = A.data;
+        final int stride = A.numCols;
+
+        int index = 0;
+        for (int r0 = 0; r0 < rows; r0 += MR) {
+            int mr = Math.min(MR, rows - r0);
+            for (int k = 0; k < length; k++) {
+                int r = 0;
+                if (transA) {
+                    int indexA = (k0 + k)*stride + row0 + r0;
+                    for (; r < mr; r++) {
+                        packed[index + r] = alpha*data[indexA + r];
+                    }
+                } else {
+                    int indexA = (row0 + r0)*stride + k0 + k;
+                    for (; r < mr; r++, indexA += stride) {
+                        packed[index + r] = alpha*data[indexA];
+                    }
+                }
+                for (; r < MR; r++) {
+                    packed[index + r] = 0;
+                }
+                index += MR;
+            }
+        }
+    }
+
+    /**
+     * Copies op(B)[k0:k0+length, col0:col0+cols] into slivers which are NR columns wide. Inside a sliver
+     * the elements are stored row by row. Columns past the end of the matrix are filled with zeros.
+     */
+    static void packB( DMatrix1Row B, boolean transB,
+                       int k0, int length, int col0, int cols, double[] packed ) {
+        final double[] data = B.data;
+        final int stride = B.numCols;
+
+        int index = 0;
+        for (int c0 = 0; c0 < cols; c0 += NR) {
+            int nr = Math.min(NR, cols - c0);
+            for (int k = 0; k < length; k++) {
+                int c = 0;
+                if (transB) {
+                    int indexB = (col0 + c0)*stride + k0 + k;
+                    for (; c < nr; c++, indexB += stride) {
+                        packed[index + c] = data[indexB];
+                    }
+                } else {
+                    int indexB = (k0 + k)*stride + col0 + c0;
+                    for (; c < nr; c++) {
+                        packed[index + c] = data[indexB + c];
+                    }
+                }
+                for (; c < NR; c++) {
+                    packed[index + c] = 0;
+                }
+                index += NR;
+            }
+        }
+    }
+
+    /**
+     * Multiplies a packed block of A against a packed panel of B and writes the results into C
+     *
+     * @param edge Storage for tiles which extend past the edge of C. Must have MR*NR elements.
+     */
+    static void macroKernel( double[] packedA, double[] packedB, int rows, int cols, int length,
+                             DMatrix1Row C, int row0, int col0, boolean accumulate, double[] edge ) {
+        for (int jr = 0; jr < cols; jr += NR) {
+            int nr = Math.min(NR, cols - jr);
+            int offsetB = jr*length;
+            for (int ir = 0; ir < rows; ir += MR) {
+                int mr = Math.min(MR, rows - ir);
+                int offsetA = ir*length;
+
+                if (mr == MR && nr == NR) {
+                    microKernel(packedA, offsetA, packedB, offsetB, length,
+                            C.data, (row0 + ir)*C.numCols + col0 + jr, C.numCols, accumulate);
+                } else {
+                    microKernel(packedA, offsetA, packedB, offsetB, length, edge, 0, NR, false);
+                    for (int i = 0; i < mr; i++) {
+                        int indexC = (row0 + ir + i)*C.numCols + col0 + jr;
+                        for (int j = 0; j < nr; j++) {
+                            C.data[indexC + j] = accumulate ? C.data[indexC + j] + edge[i*NR + j] : edge[i*NR + j];
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes a MR x NR tile from slivers of packed A and B. Each element in the tile is a local variable so
+     * that the JIT can keep the entire tile in registers.
+     */
+    static void microKernel( double[] packedA, int offsetA, double[] packedB, int offsetB, int length,
+                             double[] output, int offsetC, int strideC, boolean accumulate ) {
+        double c00 = 0, c01 = 0, c02 = 0, c03 = 0;
+        double c10 = 0, c11 = 0, c12 = 0, c13 = 0;
+        double c20 = 0, c21 = 0, c22 = 0, c23 = 0;
+        double c30 = 0, c31 = 0, c32 = 0, c33 = 0;
+
+        int indexA = offsetA;
+        int indexB = offsetB;
+        final int end = offsetA + length*MR;
+        while (indexA < end) {
+            double a0 = packedA[indexA];
+            double a1 = packedA[indexA + 1];
+            double a2 = packedA[indexA + 2];
+            double a3 = packedA[indexA + 3];
+
+            double b0 = packedB[indexB];
+            double b1 = packedB[indexB + 1];
+            double b2 = packedB[indexB + 2];
+            double b3 = packedB[indexB + 3];
+
+            c00 += a0*b0; c01 += a0*b1; c02 += a0*b2; c03 += a0*b3;
+            c10 += a1*b0; c11 += a1*b1; c12 += a1*b2; c13 += a1*b3;
+            c20 += a2*b0; c21 += a2*b1; c22 += a2*b2; c23 += a2*b3;
+            c30 += a3*b0; c31 += a3*b1; c32 += a3*b2; c33 += a3*b3;
+
+            indexA += MR;
+            indexB += NR;
+        }
+
+        if (accumulate) {
+            int i = offsetC;
+            output[i] += c00; output[i + 1] += c01; output[i + 2] += c02; output[i + 3] += c03;
+            i += strideC;
+            output[i] += c10; output[i + 1] += c11; output[i + 2] += c12; output[i + 3] += c13;
+            i += strideC;
+            output[i] += c20; output[i + 1] += c21; output[i + 2] += c22; output[i + 3] += c23;
+            i += strideC;
+            output[i] += c30; output[i + 1] += c31; output[i + 2] += c32; output[i + 3] += c33;
+        } else {
+            int i = offsetC;
+            output[i] = c00; output[i + 1] = c01; output[i + 2] = c02; output[i + 3] = c03;
+            i += strideC;
+            output[i] = c10; output[i + 1] = c11; output[i + 2] = c12; output[i + 3] = c13;
+            i += strideC;
+            output[i] = c20; output[i + 1] = c21; output[i + 2] = c22; output[i + 3] = c23;
+            i += strideC;
+            output[i] = c30; output[i + 1] = c31; output[i + 2] = c32; output[i + 3] = c33;
+        }
+    }
+
+    private static int roundUp( int value, int multiple ) {
+        return ((value + multiple - 1)/multiple)*multiple;
+    }
+
+    /**
+     * Storage for packed blocks which is reused between calls
+     */
+    static class Workspace {
+        final DGrowArray packedA = new DGrowArray();
+        final DGrowArray packedB = new DGrowArray();
+        final double[] edge = new double[MR*NR];
+    }
+}
@@ -78,6 +78,12 @@ public class MatrixVectorMult_DDRM {
             return;
         }
 
+        SimdKernels_DDRM simd = SimdOps_DDRM.get(A.numCols);
+        if (simd != null) {
+            simd.gemv(A, B.data, 0, C.data, 0);
+            return;
+        }
+
         int indexA = 0;
         int cIndex = 0;
         double b0 = B.get(0);
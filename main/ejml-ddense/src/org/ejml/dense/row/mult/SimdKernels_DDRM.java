@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.dense.row.mult;
+
+import org.ejml.data.DMatrix1Row;
+
+/**
+ * <p>
+ * Optional hardware accelerated implementations of the dense kernels which dominate the run time of most
+ * applications. Implementations are found at runtime by {@link SimdOps_DDRM} using a {@link java.util.ServiceLoader}.
+ * This allows a module which requires a newer JDK, e.g. one built on the Vector API, to replace the
+ * scalar code without the rest of the library depending on it.
+ * </p>
+ *
+ * <p>
+ * Input validation has already been done by the caller. Arrays are row-major and C is never the same
+ * instance as A or B.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public interface SimdKernels_DDRM {
+    /**
+     * C = alpha*op(A)*op(B) or C = C + alpha*op(A)*op(B). C has already been reshaped.
+     *
+     * @param transA If true then op(A) = A<sup>T</sup>
+     * @param transB If true then op(B) = B<sup>T</sup>
+     * @param add If true then the product is added to C, otherwise C is overwritten
+     */
+    void gemm( double alpha, DMatrix1Row A, boolean transA, DMatrix1Row B, boolean transB,
+               DMatrix1Row C, boolean add );
+
+    /**
+     * c = A*b, where b has A.numCols elements and c has A.numRows elements.
+     */
+    void gemv( DMatrix1Row A, double[] b, int offsetB, double[] c, int offsetC );
+
+    /**
+     * Returns the inner product between two arrays.
+     */
+    double dot( double[] a, int offsetA, double[] b, int offsetB, int length );
+
+    /**
+     * y = y + alpha*x
+     */
+    void axpy( double alpha, double[] x, int offsetX, double[] y, int offsetY, int length );
+
+    /**
+     * c = alpha*a + beta*b. c can be the same array as a or b.
+     */
+    void add( double alpha, double[] a, double beta, double[] b, double[] c, int length );
+
+    /**
+     * c = a .* b, element-wise multiplication. c can be the same array as a or b.
+     */
+    void elementMult( double[] a, double[] b, double[] c, int length );
+}
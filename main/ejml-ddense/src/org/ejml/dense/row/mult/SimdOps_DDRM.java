@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.dense.row.mult;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Iterator;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+/**
+ * <p>
+ * Provides access to the {@link SimdKernels_DDRM} which is used to accelerate dense operations. The first
+ * implementation found on the class path is used. If none are found, or the JVM can't load it, then the
+ * scalar code is used. Loading can be disabled by setting the system property "ejml.simd" to "false".
+ * </p>
+ *
+ * <p>
+ * There is a fixed overhead when calling into the kernels, so operations on fewer than {@link #MIN_LENGTH}
+ * elements always use the scalar code.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class SimdOps_DDRM {
+    /** Operations on fewer than this many elements are not passed to the SIMD kernels */
+    public static int MIN_LENGTH = 32;
+
+    private static @Nullable SimdKernels_DDRM kernels = load();
+
+    /**
+     * Returns the kernels if they are available and the operation is large enough to benefit from them.
+     *
+     * @param length Number of elements processed by the inner loop
+     */
+    public static @Nullable SimdKernels_DDRM get( int length ) {
+        return length >= MIN_LENGTH ? kernels : null;
+    }
+
+    /**
+     * Returns the kernels or null if none are being used
+     */
+    public static @Nullable SimdKernels_DDRM getKernels() {
+        return kernels;
+    }
+
+    /**
+     * Specifies which kernels should be used. If null then the scalar code will be used.
+     */
+    public static void setKernels( @Nullable SimdKernels_DDRM kernels ) {
+        SimdOps_DDRM.kernels = kernels;
+    }
+
+    /**
+     * Searches the class path for an implementation. If one can't be instantiated then it's skipped.
+     */
+    static @Nullable SimdKernels_DDRM load() {
+        if ("false".equalsIgnoreCase(System.getProperty("ejml.simd")))
+            return null;
+
+        try {
+            Iterator<SimdKernels_DDRM> iterator = ServiceLoader.load(SimdKernels_DDRM.class).iterator();
+            while (true) {
+                try {
+                    if (!iterator.hasNext())
+                        return null;
+                    return iterator.next();
+                } catch (ServiceConfigurationError | LinkageError e) {
+                    // Most likely the JVM doesn't support the instructions or the module isn't enabled
+                }
+            }
+        } catch (ServiceConfigurationError | SecurityException e) {
+            return null;
+        }
+    }
+}
@@ -49,6 +49,10 @@ public class VectorVectorMult_DDRM {
     public static double innerProd( DMatrixD1 x, DMatrixD1 y ) {
         int m = x.getNumElements();
 
+        SimdKernels_DDRM simd = SimdOps_DDRM.get(m);
+        if (simd != null)
+            return simd.dot(x.data, 0, y.data, 0, m);
+
         double total = 0;
         for (int i = 0; i < m; i++) {
             total += x.get(i)*y.get(i);
@@ -19,6 +19,9 @@
 package org.ejml.dense.block;
 
 import org.ejml.UtilEjml;
+import org.ejml.concurrency.ConcurrencyContext;
+import org.ejml.concurrency.ConcurrencyCostModel;
+import org.ejml.concurrency.EjmlConcurrency;
 import org.ejml.data.DMatrixRBlock;
 import org.ejml.data.DMatrixRMaj;
 import org.ejml.data.DSubmatrixD1;
@@ -27,10 +30,12 @@ import org.ejml.generic.GenericMatrixOps_F64;
 import org.junit.jupiter.api.Test;
 
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class TestInnerRankUpdate_MT_DDRB {
+    static final ForkJoinPool pool = new ForkJoinPool(4);
     Random rand = new Random(234234);
 
     int N = 10;
@@ -63,7 +68,7 @@ class TestInnerRankUpdate_MT_DDRB {
         DSubmatrixD1 subB = new DSubmatrixD1(blockB, 0, origB.numRows, 0, origB.numCols);
 
         InnerRankUpdate_DDRB.rankNUpdate(N, alpha, subFound, subB);
-        InnerRankUpdate_MT_DDRB.rankNUpdate(N, alpha, subExpected, subB);
+        withThreads(() -> InnerRankUpdate_MT_DDRB.rankNUpdate(N, alpha, subExpected, subB));
 
         assertTrue(GenericMatrixOps_F64.isEquivalent(expectedA, foundA, UtilEjml.TEST_F64));
     }
@@ -90,7 +95,7 @@ class TestInnerRankUpdate_MT_DDRB {
         DSubmatrixD1 subB = new DSubmatrixD1(B, 0, B.numRows, 0, B.numCols);
 
         InnerRankUpdate_DDRB.symmRankNMinus_U(N, subExpect, subB);
-        InnerRankUpdate_MT_DDRB.symmRankNMinus_U(N, subFound, subB);
+        withThreads(() -> InnerRankUpdate_MT_DDRB.symmRankNMinus_U(N, subFound, subB));
 
         assertTrue(GenericMatrixOps_F64.isEquivalentTriangle(true, expectA, foundA, UtilEjml.TEST_F64));
     }
@@ -117,9 +122,18 @@ class TestInnerRankUpdate_MT_DDRB {
         DSubmatrixD1 subB = new DSubmatrixD1(B, 0, B.numRows, 0, B.numCols);
 
         InnerRankUpdate_DDRB.symmRankNMinus_L(N, subExpect, subB);
-        InnerRankUpdate_MT_DDRB.symmRankNMinus_L(N, subFound, subB);
+        withThreads(() -> InnerRankUpdate_MT_DDRB.symmRankNMinus_L(N, subFound, subB));
 
         assertTrue(GenericMatrixOps_F64.isEquivalentTriangle(false, expectA, foundA, UtilEjml.TEST_F64));
     }
-}
 
+    /**
+     * Runs the concurrent code with threads and a cost model which always splits the work, otherwise the small
+     * matrices used here would be processed on a single thread
+     */
+    private static void withThreads( Runnable test ) {
+        var context = new ConcurrencyContext(pool);
+        context.setCostModel(ConcurrencyCostModel.alwaysConcurrent());
+        EjmlConcurrency.runWith(context, test);
+    }
+}
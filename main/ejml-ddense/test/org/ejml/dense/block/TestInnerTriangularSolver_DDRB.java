@@ -91,6 +91,10 @@ public class TestInnerTriangularSolver_DDRB {
             if( !name.contains("solve") || name.compareTo("solve") == 0 || name.compareTo("solveBlock") == 0 )
                 continue;
 
+            // implicit diagonal is tested separately
+            if( name.compareTo("solveUnitL") == 0 )
+                continue;
+
 //            System.out.println("name = "+name);
 
             boolean solveL = name.contains("L");
@@ -111,6 +115,40 @@ public class TestInnerTriangularSolver_DDRB {
         assertEquals(5,numFound);
     }
 
+    @Test
+    public void testSolveUnitL() {
+        int offsetL = 2;
+        int offsetB = 3;
+        int strideL = 5;
+
+        // the diagonal and upper triangle should be ignored
+        DMatrixRMaj L = RandomMatrices_DDRM.rectangle(4,4,-1,1,rand);
+        DMatrixRMaj unitL = L.copy();
+        for( int i = 0; i < 4; i++ ) {
+            for( int j = i; j < 4; j++ ) {
+                unitL.set(i,j, i == j ? 1 : 0);
+            }
+        }
+
+        DMatrixRMaj B = RandomMatrices_DDRM.rectangle(4,3,rand);
+        DMatrixRMaj expected = new DMatrixRMaj(4,3);
+        CommonOps_DDRM.solve(unitL,B,expected);
+
+        // embed L inside of a larger array with a stride that's not the same as its width
+        double dataL[] = new double[offsetL + 4*strideL];
+        for( int i = 0; i < 4; i++ ) {
+            System.arraycopy(L.data,i*4,dataL,offsetL + i*strideL,4);
+        }
+        double dataB[] = offsetArray(B.data,offsetB);
+
+        InnerTriangularSolver_DDRB.solveUnitL(dataL,dataB,4,3,strideL,offsetL,offsetB);
+
+        DMatrixRMaj found = new DMatrixRMaj(4,3);
+        System.arraycopy(dataB,offsetB,found.data,0,found.data.length);
+
+        assertTrue(MatrixFeatures_DDRM.isIdentical(expected,found,UtilEjml.TEST_F64));
+    }
+
     /**
      * Checks to see if solve functions that use arrays as input work correctly.
      */
@@ -19,6 +19,9 @@
 package org.ejml.dense.block;
 
 import org.ejml.UtilEjml;
+import org.ejml.concurrency.ConcurrencyContext;
+import org.ejml.concurrency.ConcurrencyCostModel;
+import org.ejml.concurrency.EjmlConcurrency;
 import org.ejml.data.DMatrixRBlock;
 import org.ejml.data.DMatrixRMaj;
 import org.ejml.data.DSubmatrixD1;
@@ -28,10 +31,12 @@ import org.ejml.generic.GenericMatrixOps_F64;
 import org.junit.jupiter.api.Test;
 
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class TestTriangularSolver_MT_DDRB {
+	static final ForkJoinPool pool = new ForkJoinPool(4);
 	Random rand = new Random(234534);
 
 	@Test
@@ -46,7 +51,7 @@ class TestTriangularSolver_MT_DDRB {
 			DMatrixRBlock T_inv = T.createLike();
 
 			// Invert and save results into a difference matrix
-			TriangularSolver_MT_DDRB.invert(r, false, new DSubmatrixD1(T), new DSubmatrixD1(T_inv), null);
+			withThreads(() -> TriangularSolver_MT_DDRB.invert(r, false, new DSubmatrixD1(T), new DSubmatrixD1(T_inv), null));
 			DMatrixRBlock C = new DMatrixRBlock(size, size, r);
 			MatrixOps_DDRB.mult(T, T_inv, C);
 			assertTrue(GenericMatrixOps_F64.isIdentity(C, UtilEjml.TEST_F64));
@@ -106,7 +111,7 @@ class TestTriangularSolver_MT_DDRB {
 		}
 
 		// Y is overwritten with the solution
-		TriangularSolver_MT_DDRB.solve(r, upper, new DSubmatrixD1(T), new DSubmatrixD1(Y), transT);
+		withThreads(() -> TriangularSolver_MT_DDRB.solve(r, upper, new DSubmatrixD1(T), new DSubmatrixD1(Y), transT));
 
 		assertTrue(MatrixOps_DDRB.isEquals(B, Y, UtilEjml.TEST_F64_SQ));
 	}
@@ -139,7 +144,7 @@ class TestTriangularSolver_MT_DDRB {
 		int size = T.numRows;
 
 		// Y is overwritten with the solution
-		TriangularSolver_MT_DDRB.solve(r, upper, new DSubmatrixD1(T2, 0, size, 0, size), new DSubmatrixD1(Y), transT);
+		withThreads(() -> TriangularSolver_MT_DDRB.solve(r, upper, new DSubmatrixD1(T2, 0, size, 0, size), new DSubmatrixD1(Y), transT));
 
 		assertTrue(MatrixOps_DDRB.isEquals(B, Y, UtilEjml.TEST_F64_SQ),
 				"Failed upper = " + upper + " transT = " + transT + " T.length " + T.numRows + " B.cols " + B.numCols);
@@ -201,7 +206,7 @@ class TestTriangularSolver_MT_DDRB {
 //        sub_L.original.print();
 //        sub_B.original.print();
 
-		TriangularSolver_MT_DDRB.solveBlock(3, !solveL, sub_L, sub_B, transT, transB);
+		withThreads(() -> TriangularSolver_MT_DDRB.solveBlock(3, !solveL, sub_L, sub_B, transT, transB));
 
 		assertTrue(GenericMatrixOps_F64.isEquivalent(X, b_B, UtilEjml.TEST_F64));
 	}
@@ -213,5 +218,14 @@ class TestTriangularSolver_MT_DDRB {
 
 		return U;
 	}
-}
 
+	/**
+	 * Runs the concurrent code with threads and a cost model which always splits the work, otherwise the small
+	 * matrices used here would be processed on a single thread
+	 */
+	private static void withThreads( Runnable test ) {
+		var context = new ConcurrencyContext(pool);
+		context.setCostModel(ConcurrencyCostModel.alwaysConcurrent());
+		EjmlConcurrency.runWith(context, test);
+	}
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.dense.block.decomposition.lu;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRBlock;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.block.MatrixOps_DDRB;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.ejml.dense.row.decomposition.lu.LUDecompositionAlt_DDRM;
+import org.ejml.generic.GenericMatrixOps_F64;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestLUDecompositionRightLooking_DDRB {
+    Random rand = new Random(234);
+
+    // size of a block
+    int bl = 5;
+
+    /**
+     * The row swaps are the same as the row major algorithm, so the results should be identical
+     */
+    @Test
+    public void compareToAlt() {
+        int[] sizes = {1, bl - 1, bl, bl + 1, 2*bl, 2*bl + 3, 23};
+        for (int numRows : sizes) {
+            for (int numCols : sizes) {
+                compareToAlt(numRows, numCols);
+            }
+        }
+    }
+
+    private void compareToAlt( int numRows, int numCols ) {
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(numRows, numCols, -1, 1, rand);
+
+        LUDecompositionAlt_DDRM expected = new LUDecompositionAlt_DDRM();
+        assertTrue(expected.decompose(A.copy()));
+
+        DMatrixRBlock Ab = MatrixOps_DDRB.convert(A, bl);
+        LUDecompositionRightLooking_DDRB alg = new LUDecompositionRightLooking_DDRB();
+        assertTrue(alg.decompose(Ab));
+
+        DMatrixRMaj found = MatrixOps_DDRB.convert(Ab, null);
+        assertTrue(MatrixFeatures_DDRM.isIdentical(expected.getLU(), found, UtilEjml.TEST_F64));
+
+        int[] pivotExpected = expected.getRowPivotV(null);
+        int[] pivotFound = alg.getRowPivotV(null);
+        for (int i = 0; i < numRows; i++) {
+            assertEquals(pivotExpected[i], pivotFound[i]);
+        }
+
+        if (numRows == numCols) {
+            assertEquals(expected.computeDeterminant().real, alg.computeDeterminant().real, UtilEjml.TEST_F64);
+        }
+    }
+
+    /**
+     * Reconstruct the original matrix from P*L*U
+     */
+    @Test
+    public void reconstruct() {
+        for (int numRows : new int[]{bl + 2, 3*bl + 1}) {
+            for (int numCols : new int[]{bl - 2, 2*bl, 4*bl + 3}) {
+                DMatrixRMaj A = RandomMatrices_DDRM.rectangle(numRows, numCols, -1, 1, rand);
+                DMatrixRBlock Ab = MatrixOps_DDRB.convert(A, bl);
+
+                LUDecompositionRightLooking_DDRB alg = new LUDecompositionRightLooking_DDRB();
+                assertTrue(alg.decompose(Ab));
+
+                DMatrixRMaj L = MatrixOps_DDRB.convert(alg.getLower(null), null);
+                DMatrixRMaj U = MatrixOps_DDRB.convert(alg.getUpper(null), null);
+                DMatrixRMaj P = MatrixOps_DDRB.convert(alg.getRowPivot(null), null);
+
+                DMatrixRMaj LU = CommonOps_DDRM.mult(L, U, null);
+                DMatrixRMaj found = CommonOps_DDRM.multTransA(P, LU, null);
+
+                assertTrue(GenericMatrixOps_F64.isEquivalent(A, found, UtilEjml.TEST_F64));
+            }
+        }
+    }
+
+    @Test
+    public void singular() {
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(12, 12, -1, 1, rand);
+        // make the last column a copy of the first
+        for (int i = 0; i < 12; i++) {
+            A.set(i, 11, A.get(i, 0));
+        }
+
+        LUDecompositionRightLooking_DDRB alg = new LUDecompositionRightLooking_DDRB();
+        assertTrue(alg.decompose(MatrixOps_DDRB.convert(A, bl)));
+        assertTrue(alg.isSingular());
+
+        assertTrue(alg.decompose(MatrixOps_DDRB.convert(RandomMatrices_DDRM.rectangle(12, 12, -1, 1, rand), bl)));
+        assertFalse(alg.isSingular());
+    }
+}
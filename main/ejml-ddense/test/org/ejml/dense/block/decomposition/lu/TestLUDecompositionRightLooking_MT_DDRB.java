@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.dense.block.decomposition.lu;
+
+import org.ejml.UtilEjml;
+import org.ejml.concurrency.ConcurrencyContext;
+import org.ejml.concurrency.ConcurrencyCostModel;
+import org.ejml.concurrency.EjmlConcurrency;
+import org.ejml.data.DMatrixRBlock;
+import org.ejml.dense.block.MatrixOps_DDRB;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.ejml.generic.GenericMatrixOps_F64;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TestLUDecompositionRightLooking_MT_DDRB {
+	static final ForkJoinPool pool = new ForkJoinPool(4);
+	Random rand = new Random(1231);
+
+	// size of a block
+	int bl = 5;
+
+	@Test
+	void compareToSingle() {
+		for (int numRows = bl - 2; numRows <= 41; numRows += 6) {
+			for (int numCols = bl - 2; numCols <= 41; numCols += 9) {
+				DMatrixRBlock A = MatrixOps_DDRB.convert(RandomMatrices_DDRM.rectangle(numRows, numCols, -1, 1, rand), bl);
+				DMatrixRBlock B = A.copy();
+
+				var single = new LUDecompositionRightLooking_DDRB();
+				var concurrent = new LUDecompositionRightLooking_MT_DDRB();
+
+				assertTrue(single.decompose(A));
+				withThreads(() -> assertTrue(concurrent.decompose(B)));
+
+				assertTrue(GenericMatrixOps_F64.isEquivalent(A, B, UtilEjml.TEST_F64));
+				assertArrayEquals(single.getRowPivotV(null), concurrent.getRowPivotV(null));
+			}
+		}
+	}
+
+	/**
+	 * Runs the concurrent code with threads and a cost model which always splits the work, otherwise the small
+	 * matrices used here would be processed on a single thread
+	 */
+	private static void withThreads( Runnable test ) {
+		var context = new ConcurrencyContext(pool);
+		context.setCostModel(ConcurrencyCostModel.alwaysConcurrent());
+		EjmlConcurrency.runWith(context, test);
+	}
+}
@@ -19,17 +19,22 @@
 package org.ejml.dense.block.decomposition.qr;
 
 import org.ejml.UtilEjml;
+import org.ejml.concurrency.ConcurrencyContext;
+import org.ejml.concurrency.ConcurrencyCostModel;
+import org.ejml.concurrency.EjmlConcurrency;
 import org.ejml.data.DMatrixRBlock;
 import org.ejml.data.DSubmatrixD1;
 import org.ejml.dense.block.MatrixOps_DDRB;
 import org.junit.jupiter.api.Test;
 
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class TestBlockHouseHolder_MT_DDRB {
+    static final ForkJoinPool pool = new ForkJoinPool(4);
     Random rand = new Random(23423);
     int r = 3;
 
@@ -42,7 +47,7 @@ class TestBlockHouseHolder_MT_DDRB {
         BlockHouseHolder_DDRB.decomposeQR_block_col(r, new DSubmatrixD1(A), gammas);
 
         double[] gammasC = new double[A.numCols];
-        BlockHouseHolder_MT_DDRB.decomposeQR_block_col(r, new DSubmatrixD1(AA), gammasC);
+        withThreads(() -> BlockHouseHolder_MT_DDRB.decomposeQR_block_col(r, new DSubmatrixD1(AA), gammasC));
 
         for (int i = 0; i < gammas.length; i++) {
             assertEquals(gammas[i], gammasC[i]);
@@ -58,9 +63,18 @@ class TestBlockHouseHolder_MT_DDRB {
         DMatrixRBlock AA = A.copy();
 
         BlockHouseHolder_DDRB.rank1UpdateMultR_Col(r, new DSubmatrixD1(A), 1, gamma);
-        BlockHouseHolder_MT_DDRB.rank1UpdateMultR_Col(r, new DSubmatrixD1(AA), 1, gamma);
+        withThreads(() -> BlockHouseHolder_MT_DDRB.rank1UpdateMultR_Col(r, new DSubmatrixD1(AA), 1, gamma));
 
         assertTrue(MatrixOps_DDRB.isEquals(A, AA, UtilEjml.TEST_F64));
     }
-}
 
+    /**
+     * Runs the concurrent code with threads and a cost model which always splits the work, otherwise the small
+     * matrices used here would be processed on a single thread
+     */
+    private static void withThreads( Runnable test ) {
+        var context = new ConcurrencyContext(pool);
+        context.setCostModel(ConcurrencyCostModel.alwaysConcurrent());
+        EjmlConcurrency.runWith(context, test);
+    }
+}
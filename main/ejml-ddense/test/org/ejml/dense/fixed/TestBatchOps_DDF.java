@@ -0,0 +1,262 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.dense.fixed;
+
+import org.ejml.EjmlParameters;
+import org.ejml.EjmlUnitTests;
+import org.ejml.MatrixDimensionException;
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixBatch;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares every BatchOps_DDF and BatchOps_MT_DDF class against operations on individual matrices
+ *
+ * @author Peter Abeles
+ */
+public class TestBatchOps_DDF {
+    Random rand = new Random(234);
+
+    // number of matrices in each batch. Not a multiple of anything to catch problems at the end of a block
+    int count = 37;
+
+    @Test
+    public void mult() throws Exception {
+        for (int N = 2; N <= 6; N++) {
+            DMatrixBatch a = random(N, N, count);
+            DMatrixBatch b = random(N, N, count);
+            DMatrixBatch c = new DMatrixBatch(1, 1, 0);
+
+            invoke(N, false, "mult", a, b, c);
+
+            DMatrixRMaj expected = new DMatrixRMaj(N, N);
+            for (int k = 0; k < count; k++) {
+                CommonOps_DDRM.mult(extract(a, k), extract(b, k), expected);
+                EjmlUnitTests.assertEquals(expected, extract(c, k), UtilEjml.TEST_F64);
+            }
+
+            // output can be the same instance as the input
+            invoke(N, false, "mult", a, b, a);
+            for (int k = 0; k < count; k++) {
+                EjmlUnitTests.assertEquals(extract(c, k), extract(a, k), UtilEjml.TEST_F64);
+            }
+        }
+    }
+
+    @Test
+    public void invert() throws Exception {
+        for (int N = 2; N <= UtilEjml.maxInverseSize; N++) {
+            DMatrixBatch a = random(N, N, count);
+            DMatrixBatch inv = new DMatrixBatch(1, 1, 0);
+
+            assertTrue((Boolean)invoke(N, false, "invert", a, inv));
+
+            DMatrixRMaj expected = new DMatrixRMaj(N, N);
+            for (int k = 0; k < count; k++) {
+                CommonOps_DDRM.invert(extract(a, k), expected);
+                EjmlUnitTests.assertEquals(expected, extract(inv, k), UtilEjml.TEST_F64);
+            }
+
+            // a singular matrix anywhere in the batch should cause it to fail
+            for (int i = 0; i < N*N; i++) {
+                a.data[i*count + 5] = 0;
+            }
+            assertFalse((Boolean)invoke(N, false, "invert", a, inv));
+        }
+    }
+
+    @Test
+    public void det() throws Exception {
+        for (int N = 2; N <= UtilEjml.maxInverseSize; N++) {
+            DMatrixBatch a = random(N, N, count);
+
+            double[] found = (double[])invoke(N, false, "det", a, null);
+            assertEquals(count, found.length);
+            for (int k = 0; k < count; k++) {
+                assertEquals(CommonOps_DDRM.det(extract(a, k)), found[k], UtilEjml.TEST_F64);
+            }
+
+            // the provided array should be used
+            double[] storage = new double[count + 2];
+            assertSame(storage, invoke(N, false, "det", a, storage));
+            assertEquals(found[count - 1], storage[count - 1], UtilEjml.TEST_F64);
+        }
+    }
+
+    @Test
+    public void solve() throws Exception {
+        for (int N = 2; N <= UtilEjml.maxInverseSize; N++) {
+            DMatrixBatch a = random(N, N, count);
+            DMatrixBatch b = random(N, 1, count);
+            DMatrixBatch x = new DMatrixBatch(1, 1, 0);
+
+            assertTrue((Boolean)invoke(N, false, "solve", a, b, x));
+            assertTrue(x.isShape(N, 1));
+
+            DMatrixRMaj expected = new DMatrixRMaj(N, 1);
+            for (int k = 0; k < count; k++) {
+                CommonOps_DDRM.solve(extract(a, k), extract(b, k), expected);
+                EjmlUnitTests.assertEquals(expected, extract(x, k), UtilEjml.TEST_F64);
+            }
+
+            // the solution can be written into b
+            assertTrue((Boolean)invoke(N, false, "solve", a, b, b));
+            for (int k = 0; k < count; k++) {
+                EjmlUnitTests.assertEquals(extract(x, k), extract(b, k), UtilEjml.TEST_F64);
+            }
+        }
+    }
+
+    @Test
+    public void cholL() throws Exception {
+        for (int N = 2; N <= 6; N++) {
+            DMatrixBatch a = new DMatrixBatch(N, N, count);
+            for (int k = 0; k < count; k++) {
+                a.setTo(k, RandomMatrices_DDRM.symmetricPosDef(N, rand));
+            }
+            DMatrixBatch L = a.copy();
+
+            assertTrue((Boolean)invoke(N, false, "cholL", L));
+
+            DMatrixRMaj found = new DMatrixRMaj(N, N);
+            for (int k = 0; k < count; k++) {
+                DMatrixRMaj Lk = extract(L, k);
+                for (int i = 0; i < N; i++) {
+                    for (int j = i + 1; j < N; j++) {
+                        assertEquals(0.0, Lk.get(i, j));
+                    }
+                }
+                CommonOps_DDRM.multTransB(Lk, Lk, found);
+                EjmlUnitTests.assertEquals(extract(a, k), found, UtilEjml.TEST_F64);
+            }
+
+            // not positive definite
+            a.data[count - 1] = -1;
+            assertFalse((Boolean)invoke(N, false, "cholL", a));
+        }
+    }
+
+    /**
+     * The concurrent implementation should produce identical results for every operation
+     */
+    @Test
+    public void concurrent() throws Exception {
+        int originalBlock = EjmlParameters.BATCH_MT_MIN_BLOCK;
+        try {
+            // make sure the batch is split into multiple blocks
+            EjmlParameters.BATCH_MT_MIN_BLOCK = 5;
+            for (int N = 2; N <= 6; N++) {
+                DMatrixBatch a = random(N, N, count);
+                DMatrixBatch b = random(N, N, count);
+                DMatrixBatch expected = new DMatrixBatch(1, 1, 0);
+                DMatrixBatch found = new DMatrixBatch(1, 1, 0);
+
+                invoke(N, false, "mult", a, b, expected);
+                invoke(N, true, "mult", a, b, found);
+                assertBatchEquals(expected, found);
+
+                if (N <= UtilEjml.maxInverseSize) {
+                    assertTrue((Boolean)invoke(N, false, "invert", a, expected));
+                    assertTrue((Boolean)invoke(N, true, "invert", a, found));
+                    assertBatchEquals(expected, found);
+
+                    assertArrayEquals((double[])invoke(N, false, "det", a, null),
+                            (double[])invoke(N, true, "det", a, null));
+
+                    DMatrixBatch v = random(N, 1, count);
+                    assertTrue((Boolean)invoke(N, false, "solve", a, v, expected));
+                    assertTrue((Boolean)invoke(N, true, "solve", a, v, found));
+                    assertBatchEquals(expected, found);
+                }
+
+                for (int k = 0; k < count; k++) {
+                    a.setTo(k, RandomMatrices_DDRM.symmetricPosDef(N, rand));
+                }
+                expected.setTo(a);
+                found.setTo(a);
+                assertTrue((Boolean)invoke(N, false, "cholL", expected));
+                assertTrue((Boolean)invoke(N, true, "cholL", found));
+                assertBatchEquals(expected, found);
+
+                a.data[count*N*N - 1] = -1;
+                assertFalse((Boolean)invoke(N, true, "cholL", a));
+            }
+        } finally {
+            EjmlParameters.BATCH_MT_MIN_BLOCK = originalBlock;
+        }
+    }
+
+    @Test
+    public void checkShape() {
+        DMatrixBatch a = new DMatrixBatch(3, 3, 4);
+        DMatrixBatch b = new DMatrixBatch(3, 3, 5);
+        DMatrixBatch c = new DMatrixBatch(3, 3, 4);
+
+        assertThrows(MatrixDimensionException.class, () -> BatchOps_DDF4.mult(a, a, c));
+        assertThrows(MatrixDimensionException.class, () -> BatchOps_DDF3.mult(a, b, c));
+        assertThrows(MatrixDimensionException.class, () -> BatchOps_DDF3.solve(a, a, c));
+        assertThrows(MatrixDimensionException.class, () -> BatchOps_MT_DDF3.mult(a, b, c));
+    }
+
+    private Object invoke( int N, boolean concurrent, String name, Object... args ) throws Exception {
+        Class<?> type = Class.forName("org.ejml.dense.fixed.BatchOps_" + (concurrent ? "MT_" : "") + "DDF" + N);
+        for (Method m : type.getMethods()) {
+            if (m.getName().equals(name) && m.getParameterCount() == args.length) {
+                try {
+                    return m.invoke(null, args);
+                } catch (InvocationTargetException e) {
+                    throw (Exception)e.getCause();
+                }
+            }
+        }
+        throw new RuntimeException("Can't find " + name + " in " + type.getSimpleName());
+    }
+
+    private DMatrixBatch random( int numRows, int numCols, int count ) {
+        DMatrixBatch batch = new DMatrixBatch(numRows, numCols, count);
+        for (int i = 0; i < batch.getDataLength(); i++) {
+            batch.data[i] = rand.nextDouble()*2 - 1;
+        }
+        return batch;
+    }
+
+    private static DMatrixRMaj extract( DMatrixBatch batch, int index ) {
+        DMatrixRMaj m = new DMatrixRMaj(batch.numRows, batch.numCols);
+        batch.copyTo(index, m);
+        return m;
+    }
+
+    private static void assertBatchEquals( DMatrixBatch expected, DMatrixBatch found ) {
+        assertTrue(found.isShape(expected.numRows, expected.numCols));
+        assertEquals(expected.count, found.count);
+        for (int i = 0; i < expected.getDataLength(); i++) {
+            assertEquals(expected.data[i], found.data[i]);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row;
+
+import org.ejml.EjmlUnitTests;
+import org.ejml.UtilEjml;
+import org.ejml.concurrency.ConcurrencyContext;
+import org.ejml.concurrency.ConcurrencyCostModel;
+import org.ejml.concurrency.ConcurrencyMetrics;
+import org.ejml.concurrency.EjmlConcurrency;
+import org.ejml.data.DMatrixRMaj;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that each function uses the concurrent implementation when the cost model says it will help and
+ * falls back to {@link CommonOps_DDRM} when it won't. The metrics listener is used to see if work was
+ * submitted to the thread pool.
+ *
+ * @author Peter Abeles
+ */
+class TestCommonOps_MT_DDRM {
+    static final ForkJoinPool pool = new ForkJoinPool(4);
+
+    Random rand = new Random(234);
+    ConcurrencyMetrics metrics = new ConcurrencyMetrics();
+
+    DMatrixRMaj A = RandomMatrices_DDRM.rectangle(30, 30, -1, 1, rand);
+    DMatrixRMaj B = RandomMatrices_DDRM.rectangle(30, 30, -1, 1, rand);
+    DMatrixRMaj C = RandomMatrices_DDRM.rectangle(30, 30, -1, 1, rand);
+
+    @AfterEach
+    void removeListener() {
+        EjmlConcurrency.setListener(null);
+    }
+
+    @Test
+    void mult() {
+        check(CommonOps_DDRM::mult, CommonOps_MT_DDRM::mult);
+        check(( a, b, c ) -> CommonOps_DDRM.mult(1.5, a, b, c), ( a, b, c ) -> CommonOps_MT_DDRM.mult(1.5, a, b, c));
+    }
+
+    @Test
+    void multTransA() {
+        check(CommonOps_DDRM::multTransA, CommonOps_MT_DDRM::multTransA);
+        check(( a, b, c ) -> CommonOps_DDRM.multTransA(1.5, a, b, c),
+                ( a, b, c ) -> CommonOps_MT_DDRM.multTransA(1.5, a, b, c));
+    }
+
+    @Test
+    void multTransB() {
+        check(CommonOps_DDRM::multTransB, CommonOps_MT_DDRM::multTransB);
+        check(( a, b, c ) -> CommonOps_DDRM.multTransB(1.5, a, b, c),
+                ( a, b, c ) -> CommonOps_MT_DDRM.multTransB(1.5, a, b, c));
+    }
+
+    @Test
+    void multTransAB() {
+        check(CommonOps_DDRM::multTransAB, CommonOps_MT_DDRM::multTransAB);
+        check(( a, b, c ) -> CommonOps_DDRM.multTransAB(1.5, a, b, c),
+                ( a, b, c ) -> CommonOps_MT_DDRM.multTransAB(1.5, a, b, c));
+    }
+
+    @Test
+    void multAdd() {
+        check(CommonOps_DDRM::multAdd, CommonOps_MT_DDRM::multAdd);
+        check(( a, b, c ) -> CommonOps_DDRM.multAdd(1.5, a, b, c),
+                ( a, b, c ) -> CommonOps_MT_DDRM.multAdd(1.5, a, b, c));
+    }
+
+    @Test
+    void multAddTransA() {
+        check(CommonOps_DDRM::multAddTransA, CommonOps_MT_DDRM::multAddTransA);
+        check(( a, b, c ) -> CommonOps_DDRM.multAddTransA(1.5, a, b, c),
+                ( a, b, c ) -> CommonOps_MT_DDRM.multAddTransA(1.5, a, b, c));
+    }
+
+    @Test
+    void multAddTransB() {
+        check(CommonOps_DDRM::multAddTransB, CommonOps_MT_DDRM::multAddTransB);
+        check(( a, b, c ) -> CommonOps_DDRM.multAddTransB(1.5, a, b, c),
+                ( a, b, c ) -> CommonOps_MT_DDRM.multAddTransB(1.5, a, b, c));
+    }
+
+    @Test
+    void multAddTransAB() {
+        check(CommonOps_DDRM::multAddTransAB, CommonOps_MT_DDRM::multAddTransAB);
+        check(( a, b, c ) -> CommonOps_DDRM.multAddTransAB(1.5, a, b, c),
+                ( a, b, c ) -> CommonOps_MT_DDRM.multAddTransAB(1.5, a, b, c));
+    }
+
+    @Test
+    void transpose() {
+        check(( a, b, c ) -> CommonOps_DDRM.transpose(a, c), ( a, b, c ) -> CommonOps_MT_DDRM.transpose(a, c));
+
+        // in place
+        check(( a, b, c ) -> {
+            c.set(a);
+            CommonOps_DDRM.transpose(c);
+        }, ( a, b, c ) -> {
+            c.set(a);
+            CommonOps_MT_DDRM.transpose(c);
+        });
+    }
+
+    /**
+     * Computes the expected results using the single threaded function and compares it against the concurrent
+     * function with different contexts
+     */
+    private void check( Operation single, Operation concurrent ) {
+        DMatrixRMaj expected = C.copy();
+        single.process(A, B, expected);
+
+        // splitting the work is always predicted to be faster
+        var context = new ConcurrencyContext(pool);
+        context.setCostModel(ConcurrencyCostModel.alwaysConcurrent());
+        DMatrixRMaj found = process(context, concurrent);
+        assertTrue(countDispatches() > 0);
+        EjmlUnitTests.assertEquals(expected, found, UtilEjml.TEST_F64);
+
+        // only one thread is available
+        found = process(new ConcurrencyContext(pool, 1, 0), concurrent);
+        assertEquals(0, countDispatches());
+        EjmlUnitTests.assertEquals(expected, found, 0.0);
+
+        // forking is so expensive that it's never worth it
+        context = new ConcurrencyContext(pool);
+        context.getCostModel().setForkOverhead(1e12);
+        found = process(context, concurrent);
+        assertEquals(0, countDispatches());
+        EjmlUnitTests.assertEquals(expected, found, 0.0);
+        // the single threaded call is still reported
+        assertEquals(1, metrics.getOperations().size());
+        assertEquals(1, metrics.getOperations().values().iterator().next().getSerialCalls());
+    }
+
+    private DMatrixRMaj process( ConcurrencyContext context, Operation op ) {
+        DMatrixRMaj found = C.copy();
+        metrics.reset();
+        EjmlConcurrency.setListener(metrics);
+        EjmlConcurrency.runWith(context, () -> op.process(A, B, found));
+        EjmlConcurrency.setListener(null);
+        return found;
+    }
+
+    private long countDispatches() {
+        long total = 0;
+        for (ConcurrencyMetrics.OperationMetrics o : metrics.getOperations().values()) {
+            total += o.getDispatches();
+        }
+        return total;
+    }
+
+    interface Operation {
+        void process( DMatrixRMaj a, DMatrixRMaj b, DMatrixRMaj c );
+    }
+}
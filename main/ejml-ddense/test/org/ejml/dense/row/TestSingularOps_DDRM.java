@@ -21,6 +21,7 @@ package org.ejml.dense.row;
 import org.ejml.UtilEjml;
 import org.ejml.data.DGrowArray;
 import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.decomposition.svd.SvdRandomized_DDRM;
 import org.ejml.dense.row.factory.DecompositionFactory_DDRM;
 import org.ejml.equation.Equation;
 import org.ejml.interfaces.decomposition.SingularValueDecomposition_F64;
@@ -107,6 +108,19 @@ public class TestSingularOps_DDRM {
         }
     }
 
+    @Test
+    public void truncatedSvd() {
+        DMatrixRMaj A = RandomMatrices_DDRM.singular(30, 20, rand, 5, 4, 3, 2, 1);
+        DMatrixRMaj A_orig = A.copy();
+
+        SvdRandomized_DDRM svd = SingularOps_DDRM.truncatedSvd(A, 3);
+        assertTrue(MatrixFeatures_DDRM.isIdentical(A_orig, A, 0));
+        assertEquals(3, svd.numberOfSingularValues());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(5 - i, svd.getSingularValues()[i], UtilEjml.TEST_F64);
+        }
+    }
+
     @Test
     public void descendingOrder() {
         // test different shapes of input matrices
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.dense.row.decomposition.chol;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestCholeskyUpdate_DDRM {
+    Random rand = new Random(234);
+
+    /**
+     * Compare the updated decomposition against decomposing the modified matrix
+     */
+    @Test
+    public void update() {
+        for (boolean lower : new boolean[]{true, false}) {
+            for (int n : new int[]{1, 4, 25}) {
+                for (int k : new int[]{1, 3}) {
+                    DMatrixRMaj A = RandomMatrices_DDRM.symmetricPosDef(n, rand);
+                    DMatrixRMaj X = RandomMatrices_DDRM.rectangle(n, k, -1, 1, rand);
+                    DMatrixRMaj expected = decompose(plusXXt(A, X, 1.0), lower);
+
+                    CholeskyDecompositionInner_DDRM alg = new CholeskyDecompositionInner_DDRM(lower);
+                    assertTrue(alg.decompose(A.copy()));
+                    assertTrue(alg.update(X));
+                    assertTrue(MatrixFeatures_DDRM.isIdentical(expected, alg.getT(null), UtilEjml.TEST_F64));
+                }
+            }
+        }
+    }
+
+    /**
+     * Downdating should undo an update
+     */
+    @Test
+    public void downdate() {
+        for (boolean lower : new boolean[]{true, false}) {
+            for (int n : new int[]{1, 4, 25}) {
+                for (int k : new int[]{1, 3}) {
+                    DMatrixRMaj A = RandomMatrices_DDRM.symmetricPosDef(n, rand);
+                    DMatrixRMaj X = RandomMatrices_DDRM.rectangle(n, k, -1, 1, rand);
+                    DMatrixRMaj expected = decompose(A, lower);
+
+                    CholeskyDecompositionInner_DDRM alg = new CholeskyDecompositionInner_DDRM(lower);
+                    assertTrue(alg.decompose(plusXXt(A, X, 1.0)));
+                    assertTrue(alg.downdate(X));
+                    assertTrue(MatrixFeatures_DDRM.isIdentical(expected, alg.getT(null), UtilEjml.TEST_F64_SQ));
+                }
+            }
+        }
+    }
+
+    /**
+     * If the downdated matrix is not positive definite then it should fail and not modify the decomposition
+     */
+    @Test
+    public void downdate_notPositiveDefinite() {
+        for (boolean lower : new boolean[]{true, false}) {
+            DMatrixRMaj A = RandomMatrices_DDRM.symmetricPosDef(10, rand);
+            DMatrixRMaj X = RandomMatrices_DDRM.rectangle(10, 2, -1, 1, rand);
+            CommonOps_DDRM.scale(100.0, X);
+
+            CholeskyDecompositionInner_DDRM alg = new CholeskyDecompositionInner_DDRM(lower);
+            assertTrue(alg.decompose(A.copy()));
+            DMatrixRMaj before = alg.getT(null);
+            assertFalse(alg.downdate(X));
+            assertTrue(MatrixFeatures_DDRM.isIdentical(before, alg.getT(null), 0.0));
+        }
+    }
+
+    /**
+     * Works with the block decomposition too
+     */
+    @Test
+    public void blockDecomposition() {
+        DMatrixRMaj A = RandomMatrices_DDRM.symmetricPosDef(30, rand);
+        DMatrixRMaj X = RandomMatrices_DDRM.rectangle(30, 2, -1, 1, rand);
+        DMatrixRMaj expected = decompose(plusXXt(A, X, 1.0), true);
+
+        CholeskyDecompositionBlock_DDRM alg = new CholeskyDecompositionBlock_DDRM(7);
+        assertTrue(alg.decompose(A.copy()));
+        assertTrue(alg.update(X));
+        assertTrue(MatrixFeatures_DDRM.isIdentical(expected, alg.getT(null), UtilEjml.TEST_F64));
+    }
+
+    private static DMatrixRMaj plusXXt( DMatrixRMaj A, DMatrixRMaj X, double sign ) {
+        DMatrixRMaj XXt = new DMatrixRMaj(A.numRows, A.numCols);
+        CommonOps_DDRM.multTransB(X, X, XXt);
+        DMatrixRMaj out = A.copy();
+        CommonOps_DDRM.addEquals(out, sign, XXt);
+        return out;
+    }
+
+    private static DMatrixRMaj decompose( DMatrixRMaj A, boolean lower ) {
+        CholeskyDecompositionInner_DDRM alg = new CholeskyDecompositionInner_DDRM(lower);
+        assertTrue(alg.decompose(A.copy()));
+        return alg.getT(null);
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.dense.row.decomposition.chol;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestLDLDecompositionBunchKaufman_DDRM {
+    Random rand = new Random(234);
+
+    /**
+     * Random indefinite matrices which are smaller and larger than a single panel
+     */
+    @Test
+    void randomIndefinite() {
+        for (int blockWidth : new int[]{2, 3, 5, 60}) {
+            for (int n = 1; n <= 40; n += 3) {
+                DMatrixRMaj A = RandomMatrices_DDRM.symmetric(n, -1, 1, rand);
+                checkDecomposition(new LDLDecompositionBunchKaufman_DDRM(blockWidth), A);
+            }
+        }
+    }
+
+    /**
+     * Saddle point matrix with a zero block. Can't be decomposed without pivoting.
+     */
+    @Test
+    void saddlePoint() {
+        int n = 12, m = 5;
+        DMatrixRMaj H = RandomMatrices_DDRM.symmetricPosDef(n, rand);
+        DMatrixRMaj C = RandomMatrices_DDRM.rectangle(m, n, -1, 1, rand);
+
+        DMatrixRMaj A = new DMatrixRMaj(n + m, n + m);
+        CommonOps_DDRM.insert(H, A, 0, 0);
+        CommonOps_DDRM.insert(C, A, n, 0);
+        CommonOps_DDRM.insert(CommonOps_DDRM.transpose(C, null), A, 0, n);
+
+        for (int blockWidth : new int[]{3, 60}) {
+            checkDecomposition(new LDLDecompositionBunchKaufman_DDRM(blockWidth), A);
+        }
+    }
+
+    /**
+     * Zero diagonal forces a 2x2 pivot
+     */
+    @Test
+    void pivot2x2() {
+        DMatrixRMaj A = new DMatrixRMaj(3, 3, true, 0, 2, 1, 2, 0, 3, 1, 3, 0);
+        LDLDecompositionBunchKaufman_DDRM alg = new LDLDecompositionBunchKaufman_DDRM();
+        checkDecomposition(alg, A);
+        assertEquals(2, alg.getPivotSize()[0]);
+        assertEquals(0, alg.getPivotSize()[1]);
+        assertEquals(1, alg.getPivotSize()[2]);
+    }
+
+    /**
+     * Only the lower triangle should be read
+     */
+    @Test
+    void onlyLowerTriangle() {
+        DMatrixRMaj A = RandomMatrices_DDRM.symmetric(20, -1, 1, rand);
+        DMatrixRMaj B = A.copy();
+        for (int i = 0; i < 20; i++) {
+            for (int j = i + 1; j < 20; j++) {
+                B.set(i, j, rand.nextDouble());
+            }
+        }
+
+        LDLDecompositionBunchKaufman_DDRM alg = new LDLDecompositionBunchKaufman_DDRM(4);
+        assertTrue(alg.decompose(B));
+        DMatrixRMaj found = reconstruct(alg);
+        assertTrue(MatrixFeatures_DDRM.isIdentical(A, found, UtilEjml.TEST_F64));
+    }
+
+    @Test
+    void singular() {
+        LDLDecompositionBunchKaufman_DDRM alg = new LDLDecompositionBunchKaufman_DDRM(3);
+        assertFalse(alg.decompose(new DMatrixRMaj(6, 6)));
+
+        // a row and column of zeros
+        DMatrixRMaj A = RandomMatrices_DDRM.symmetric(8, -1, 1, rand);
+        for (int i = 0; i < 8; i++) {
+            A.set(i, 5, 0);
+            A.set(5, i, 0);
+        }
+        assertFalse(alg.decompose(A));
+    }
+
+    @Test
+    void computeDeterminant() {
+        for (int n : new int[]{1, 2, 5, 13}) {
+            DMatrixRMaj A = RandomMatrices_DDRM.symmetric(n, -1, 1, rand);
+            LDLDecompositionBunchKaufman_DDRM alg = new LDLDecompositionBunchKaufman_DDRM(3);
+            assertTrue(alg.decompose(A));
+            double expected = CommonOps_DDRM.det(A);
+            assertEquals(expected, alg.computeDeterminant(), Math.abs(expected)*UtilEjml.TEST_F64_SQ);
+        }
+    }
+
+    @Test
+    void inputNotModified() {
+        DMatrixRMaj A = RandomMatrices_DDRM.symmetric(10, -1, 1, rand);
+        DMatrixRMaj A_orig = A.copy();
+        LDLDecompositionBunchKaufman_DDRM alg = new LDLDecompositionBunchKaufman_DDRM(3);
+        assertTrue(alg.decompose(A));
+        assertFalse(alg.inputModified());
+        assertTrue(MatrixFeatures_DDRM.isIdentical(A_orig, A, 0));
+    }
+
+    /**
+     * Decomposing matrices with different sizes should work
+     */
+    @Test
+    void changeSize() {
+        LDLDecompositionBunchKaufman_DDRM alg = new LDLDecompositionBunchKaufman_DDRM(4);
+        checkDecomposition(alg, RandomMatrices_DDRM.symmetric(15, -1, 1, rand));
+        checkDecomposition(alg, RandomMatrices_DDRM.symmetric(6, -1, 1, rand));
+        checkDecomposition(alg, RandomMatrices_DDRM.symmetric(20, -1, 1, rand));
+    }
+
+    static void checkDecomposition( LDLDecompositionBunchKaufman_DDRM alg, DMatrixRMaj A ) {
+        assertTrue(alg.decompose(A));
+
+        DMatrixRMaj L = alg.getL(null);
+        assertTrue(MatrixFeatures_DDRM.isLowerTriangle(L, 0, 0));
+        for (int i = 0; i < A.numRows; i++) {
+            assertEquals(1.0, L.get(i, i));
+        }
+
+        DMatrixRMaj found = reconstruct(alg);
+        assertTrue(MatrixFeatures_DDRM.isIdentical(A, found, UtilEjml.TEST_F64*A.numRows));
+    }
+
+    /**
+     * Computes P<sup>T</sup>*L*D*L<sup>T</sup>*P
+     */
+    static DMatrixRMaj reconstruct( LDLDecompositionBunchKaufman_DDRM alg ) {
+        DMatrixRMaj L = alg.getL(null);
+        DMatrixRMaj D = alg.getD(null);
+        DMatrixRMaj P = alg.getP(null);
+
+        DMatrixRMaj LD = CommonOps_DDRM.mult(L, D, null);
+        DMatrixRMaj LDL = CommonOps_DDRM.multTransB(LD, L, null);
+        DMatrixRMaj tmp = CommonOps_DDRM.multTransA(P, LDL, null);
+        return CommonOps_DDRM.mult(tmp, P, null);
+    }
+}
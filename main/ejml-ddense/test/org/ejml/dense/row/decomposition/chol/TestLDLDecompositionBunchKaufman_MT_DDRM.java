@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.dense.row.decomposition.chol;
+
+import org.ejml.UtilEjml;
+import org.ejml.concurrency.EjmlConcurrency;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+class TestLDLDecompositionBunchKaufman_MT_DDRM {
+    /**
+     * Results should be identical to the single threaded version. The matrix is large enough that the panel
+     * is updated concurrently too.
+     */
+    @Test
+    void compareToSingleThread() {
+        DMatrixRMaj A = RandomMatrices_DDRM.symmetric(700, -1, 1, new Random(234));
+
+        var single = new LDLDecompositionBunchKaufman_DDRM(40);
+        assertTrue(single.decompose(A));
+
+        int originalThreads = EjmlConcurrency.getMaxThreads();
+        try {
+            for (int threads : new int[]{2, 3}) {
+                EjmlConcurrency.setMaxThreads(threads);
+                var concurrent = new LDLDecompositionBunchKaufman_MT_DDRM(40);
+                assertTrue(concurrent.decompose(A));
+
+                assertArrayEquals(single.getPermutation(), concurrent.getPermutation());
+                assertTrue(MatrixFeatures_DDRM.isIdentical(single._getLD(), concurrent._getLD(), UtilEjml.TEST_F64));
+            }
+        } finally {
+            EjmlConcurrency.setMaxThreads(originalThreads);
+        }
+    }
+
+    @Test
+    void decompose() {
+        for (int n : new int[]{1, 7, 50}) {
+            DMatrixRMaj A = RandomMatrices_DDRM.symmetric(n, -1, 1, new Random(n));
+            TestLDLDecompositionBunchKaufman_DDRM.checkDecomposition(new LDLDecompositionBunchKaufman_MT_DDRM(6), A);
+        }
+    }
+}
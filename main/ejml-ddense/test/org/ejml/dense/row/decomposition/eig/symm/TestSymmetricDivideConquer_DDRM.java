@@ -0,0 +1,228 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.dense.row.decomposition.eig.symm;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestSymmetricDivideConquer_DDRM {
+    Random rand = new Random(234);
+
+    /**
+     * Random tridiagonal matrices with different sizes of leaves
+     */
+    @Test
+    public void random() {
+        for (int minimumSize : new int[]{1, 2, 3, 25}) {
+            for (int N : new int[]{1, 2, 5, 13, 40, 77}) {
+                double[] diag = randomArray(N);
+                double[] off = randomArray(N - 1);
+                check(diag, off, minimumSize);
+            }
+        }
+    }
+
+    /**
+     * Very small off diagonal elements cause the entire update to be deflated
+     */
+    @Test
+    public void deflateAll() {
+        int N = 30;
+        double[] diag = randomArray(N);
+        double[] off = new double[N - 1];
+        for (int i = 0; i < off.length; i++) {
+            off[i] = (i%3 == 0) ? 1e-20 : rand.nextDouble();
+        }
+        check(diag, off, 2);
+
+        // diagonal matrix
+        check(diag, new double[N - 1], 2);
+    }
+
+    /**
+     * Repeated eigenvalues in the two halves are deflated using a rotation
+     */
+    @Test
+    public void repeatedEigenvalues() {
+        int N = 32;
+        double[] diag = new double[N];
+        double[] off = new double[N - 1];
+        Arrays.fill(diag, 2.0);
+        Arrays.fill(off, 1.0);
+        for (int minimumSize : new int[]{1, 4, 8}) {
+            check(diag, off, minimumSize);
+        }
+
+        // Wilkinson matrix, which has pairs of very close eigenvalues
+        N = 41;
+        diag = new double[N];
+        off = new double[N - 1];
+        for (int i = 0; i < N; i++) {
+            diag[i] = Math.abs(i - N/2);
+        }
+        Arrays.fill(off, 1.0);
+        check(diag, off, 3);
+
+        // glued identity matrices
+        diag = new double[N];
+        off = new double[N - 1];
+        Arrays.fill(diag, 1.0);
+        for (int i = 4; i < N - 1; i += 5) {
+            off[i] = 1e-9;
+        }
+        check(diag, off, 2);
+    }
+
+    /**
+     * The off diagonal elements can have either sign
+     */
+    @Test
+    public void negativeOffDiagonal() {
+        int N = 20;
+        double[] diag = randomArray(N);
+        double[] off = randomArray(N - 1);
+        for (int i = 0; i < off.length; i++) {
+            off[i] = -Math.abs(off[i]);
+        }
+        check(diag, off, 2);
+    }
+
+    @Test
+    public void largeAndSmallValues() {
+        int N = 20;
+        for (double scale : new double[]{1e-200, 1e200}) {
+            double[] diag = randomArray(N);
+            double[] off = randomArray(N - 1);
+            for (int i = 0; i < N; i++) {
+                diag[i] *= scale;
+            }
+            for (int i = 0; i < N - 1; i++) {
+                off[i] *= scale;
+            }
+            check(diag, off, 3);
+        }
+    }
+
+    @Test
+    public void allZeros() {
+        int N = 10;
+        SymmetricDivideConquer_DDRM alg = new SymmetricDivideConquer_DDRM();
+        assertTrue(alg.process(N, new double[N], new double[N - 1], null));
+        for (int i = 0; i < N; i++) {
+            assertEquals(0, alg.getEigenvalues()[i]);
+        }
+        assertTrue(MatrixFeatures_DDRM.isOrthogonal(alg.getEigenvectors(), UtilEjml.TEST_F64));
+    }
+
+    /**
+     * The eigenvectors should be multiplied by the provided matrix
+     */
+    @Test
+    public void multiplyByQ() {
+        int N = 15;
+        double[] diag = randomArray(N);
+        double[] off = randomArray(N - 1);
+        DMatrixRMaj Q = RandomMatrices_DDRM.orthogonal(N, N, rand);
+
+        SymmetricDivideConquer_DDRM alg = new SymmetricDivideConquer_DDRM();
+        alg.setMinimumSize(4);
+        assertTrue(alg.process(N, diag, off, null));
+        DMatrixRMaj expected = CommonOps_DDRM.mult(Q, alg.getEigenvectors(), null);
+
+        assertTrue(alg.process(N, diag, off, Q));
+        assertTrue(MatrixFeatures_DDRM.isIdentical(expected, alg.getEigenvectors(), UtilEjml.TEST_F64));
+    }
+
+    /**
+     * Checks the eigenvalues against the QR algorithm and that T*V = V*D with orthogonal V
+     */
+    private void check( double[] diag, double[] off, int minimumSize ) {
+        int N = diag.length;
+        double[] diagCopy = diag.clone();
+        double[] offCopy = off.clone();
+
+        SymmetricDivideConquer_DDRM alg = new SymmetricDivideConquer_DDRM();
+        alg.setMinimumSize(minimumSize);
+        assertTrue(alg.process(N, diag, off, null));
+
+        // input should not be modified
+        assertArrayEquals(diagCopy, diag);
+        assertArrayEquals(offCopy, off);
+
+        double[] found = alg.getEigenvalues();
+        DMatrixRMaj V = alg.getEigenvectors();
+
+        // compute the expected eigenvalues using the QR algorithm
+        SymmetricQrAlgorithm_DDRM qr = new SymmetricQrAlgorithm_DDRM();
+        assertTrue(qr.process(N, diag.clone(), off.clone()));
+        double[] expected = new double[N];
+        for (int i = 0; i < N; i++) {
+            expected[i] = qr.getEigenvalue(i);
+        }
+        Arrays.sort(expected);
+
+        double norm = 0;
+        for (int i = 0; i < N; i++) {
+            norm = Math.max(norm, Math.abs(expected[i]));
+        }
+        for (int i = 0; i < N; i++) {
+            assertEquals(expected[i], found[i], norm*UtilEjml.TEST_F64);
+            if (i > 0)
+                assertTrue(found[i - 1] <= found[i]);
+        }
+
+        assertEquals(N, V.numRows);
+        assertEquals(N, V.numCols);
+        assertTrue(MatrixFeatures_DDRM.isOrthogonal(V, UtilEjml.TEST_F64));
+
+        DMatrixRMaj T = new DMatrixRMaj(N, N);
+        for (int i = 0; i < N; i++) {
+            T.set(i, i, diag[i]);
+            if (i < N - 1) {
+                T.set(i, i + 1, off[i]);
+                T.set(i + 1, i, off[i]);
+            }
+        }
+        DMatrixRMaj D = CommonOps_DDRM.diag(Arrays.copyOf(found, N));
+        DMatrixRMaj TV = CommonOps_DDRM.mult(T, V, null);
+        DMatrixRMaj VD = CommonOps_DDRM.mult(V, D, null);
+        assertTrue(MatrixFeatures_DDRM.isIdentical(TV, VD, Math.max(norm, Double.MIN_NORMAL)*UtilEjml.TEST_F64));
+    }
+
+    private double[] randomArray( int length ) {
+        double[] ret = new double[Math.max(0, length)];
+        for (int i = 0; i < ret.length; i++) {
+            ret[i] = rand.nextDouble()*2 - 1;
+        }
+        return ret;
+    }
+}
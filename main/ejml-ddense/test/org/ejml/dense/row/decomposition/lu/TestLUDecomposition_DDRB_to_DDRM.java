@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.dense.row.decomposition.lu;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.block.decomposition.lu.LUDecompositionRightLooking_DDRB;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestLUDecomposition_DDRB_to_DDRM extends GeneralLuDecompositionChecks_DDRM {
+    @Override
+    public LUDecompositionBase_DDRM create( int numRows, int numCols ) {
+        // small block size so that multiple blocks are used in the tests
+        return new LUDecomposition_DDRB_to_DDRM(new LUDecompositionRightLooking_DDRB(), 3);
+    }
+
+    /**
+     * The output, including the row swaps, should be the same as the row major algorithm
+     */
+    @Test
+    public void compareToAlt() {
+        for (int numRows : new int[]{2, 7, 16}) {
+            for (int numCols : new int[]{3, 7, 13}) {
+                DMatrixRMaj A = RandomMatrices_DDRM.rectangle(numRows, numCols, -1, 1, rand);
+
+                LUDecompositionAlt_DDRM expected = new LUDecompositionAlt_DDRM();
+                LUDecompositionBase_DDRM alg = create(numRows, numCols);
+
+                assertTrue(expected.decompose(A));
+                assertTrue(alg.decompose(A));
+
+                assertTrue(MatrixFeatures_DDRM.isIdentical(expected.getLU(), alg.getLU(), UtilEjml.TEST_F64));
+                for (int i = 0; i < Math.min(numRows, numCols); i++) {
+                    assertEquals(expected.getIndx()[i], alg.getIndx()[i]);
+                }
+                assertArrayEquals(expected.getRowPivotV(null), alg.getRowPivotV(null));
+                if (numRows == numCols)
+                    assertEquals(expected.computeDeterminant().real, alg.computeDeterminant().real, UtilEjml.TEST_F64);
+            }
+        }
+    }
+}
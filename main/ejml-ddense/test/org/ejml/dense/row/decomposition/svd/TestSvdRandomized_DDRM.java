@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.dense.row.decomposition.svd;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.ejml.dense.row.SingularOps_DDRM;
+import org.ejml.data.DGrowArray;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestSvdRandomized_DDRM {
+    Random rand = new Random(234);
+
+    /**
+     * If the rank of the matrix is at most k then the decomposition is exact
+     */
+    @Test
+    public void exactLowRank() {
+        for (int[] shape : new int[][]{{60, 40}, {40, 60}}) {
+            DMatrixRMaj A = RandomMatrices_DDRM.singular(shape[0], shape[1], rand, 9, 5, 4, 2, 1, 0.5, 0.1, 0.01);
+            DMatrixRMaj A_orig = A.copy();
+
+            SvdRandomized_DDRM alg = new SvdRandomized_DDRM(8);
+            assertTrue(alg.decompose(A));
+            assertTrue(MatrixFeatures_DDRM.isIdentical(A_orig, A, 0));
+
+            checkDecomposition(alg, A, 8);
+            assertTrue(MatrixFeatures_DDRM.isIdentical(A, alg.computeLowRank(null), UtilEjml.TEST_F64));
+        }
+    }
+
+    /**
+     * Only the largest singular values are found in a matrix with a rapidly decaying spectrum
+     */
+    @Test
+    public void decayingSpectrum() {
+        double[] sv = new double[30];
+        for (int i = 0; i < sv.length; i++) {
+            sv[i] = Math.pow(0.5, i);
+        }
+        DMatrixRMaj A = RandomMatrices_DDRM.singular(100, 30, rand, sv);
+
+        SvdRandomized_DDRM alg = new SvdRandomized_DDRM(5);
+        assertTrue(alg.decompose(A));
+        checkDecomposition(alg, A, 5);
+
+        double[] found = alg.getSingularValues();
+        for (int i = 0; i < 5; i++) {
+            assertEquals(sv[i], found[i], UtilEjml.TEST_F64);
+        }
+
+        // The error of the best rank k approximation is the first discarded singular value
+        DMatrixRMaj error = CommonOps_DDRM.subtract(A, alg.computeLowRank(null), null);
+        assertEquals(sv[5], SingularOps_DDRM.singularValues(error)[0], UtilEjml.TEST_F64);
+    }
+
+    /**
+     * Power iterations improve the results when the spectrum decays slowly
+     */
+    @Test
+    public void powerIterations() {
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(80, 60, -1, 1, rand);
+        DGrowArray expected = new DGrowArray();
+        assertTrue(SingularOps_DDRM.svd(A, null, expected, null));
+
+        double previous = Double.MAX_VALUE;
+        for (int iterations : new int[]{0, 2, 8}) {
+            SvdRandomized_DDRM alg = new SvdRandomized_DDRM(4);
+            alg.setOversampling(4);
+            alg.setPowerIterations(iterations);
+            assertTrue(alg.decompose(A));
+
+            // singular values in the basis can only be less than the true values
+            double error = 0;
+            for (int i = 0; i < 4; i++) {
+                assertTrue(alg.getSingularValues()[i] <= expected.data[i] + UtilEjml.TEST_F64);
+                error += expected.data[i] - alg.getSingularValues()[i];
+            }
+            assertTrue(error < previous);
+            previous = error;
+        }
+    }
+
+    /**
+     * The requested rank is more than the smallest side of the matrix
+     */
+    @Test
+    public void rankLargerThanMatrix() {
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(20, 10, -1, 1, rand);
+
+        SvdRandomized_DDRM alg = new SvdRandomized_DDRM(50);
+        assertTrue(alg.decompose(A));
+        assertEquals(10, alg.numberOfSingularValues());
+        checkDecomposition(alg, A, 10);
+        assertTrue(MatrixFeatures_DDRM.isIdentical(A, alg.computeLowRank(null), UtilEjml.TEST_F64));
+    }
+
+    /**
+     * The same seed should produce the same results
+     */
+    @Test
+    public void repeatable() {
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(30, 25, -1, 1, rand);
+
+        SvdRandomized_DDRM algA = new SvdRandomized_DDRM(5, new Random(3));
+        SvdRandomized_DDRM algB = new SvdRandomized_DDRM(5, new Random(3));
+        assertTrue(algA.decompose(A));
+        assertTrue(algB.decompose(A));
+
+        assertArrayEquals(algA.getSingularValues(), algB.getSingularValues(), 0.0);
+        assertTrue(MatrixFeatures_DDRM.isIdentical(algA.getU(null, false), algB.getU(null, false), 0.0));
+        assertTrue(MatrixFeatures_DDRM.isIdentical(algA.getV(null, false), algB.getV(null, false), 0.0));
+    }
+
+    @Test
+    public void getters() {
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(15, 12, -1, 1, rand);
+        SvdRandomized_DDRM alg = new SvdRandomized_DDRM(4);
+        assertTrue(alg.decompose(A));
+
+        DMatrixRMaj U = alg.getU(null, false);
+        DMatrixRMaj Ut = alg.getU(new DMatrixRMaj(1, 1), true);
+        assertTrue(MatrixFeatures_DDRM.isIdentical(U, CommonOps_DDRM.transpose(Ut, null), 0));
+        DMatrixRMaj V = alg.getV(new DMatrixRMaj(1, 1), false);
+        DMatrixRMaj Vt = alg.getV(null, true);
+        assertTrue(MatrixFeatures_DDRM.isIdentical(V, CommonOps_DDRM.transpose(Vt, null), 0));
+
+        DMatrixRMaj W = alg.getW(null);
+        assertEquals(4, W.numRows);
+        assertEquals(4, W.numCols);
+        for (int i = 0; i < 4; i++) {
+            assertEquals(alg.getSingularValues()[i], W.get(i, i));
+        }
+        assertEquals(15, alg.numRows());
+        assertEquals(12, alg.numCols());
+        assertTrue(alg.isCompact());
+    }
+
+    /**
+     * Checks the shape and orthogonality of the singular vectors, that the singular values are in descending order
+     * and that A*V = U*W
+     */
+    static void checkDecomposition( SvdRandomizedBase_F64<?> alg, DMatrixRMaj A, int k ) {
+        assertEquals(k, alg.numberOfSingularValues());
+        DMatrixRMaj U = alg.getU(null, false);
+        DMatrixRMaj V = alg.getV(null, false);
+        DMatrixRMaj W = alg.getW(null);
+
+        assertEquals(A.numRows, U.numRows);
+        assertEquals(k, U.numCols);
+        assertEquals(A.numCols, V.numRows);
+        assertEquals(k, V.numCols);
+        assertTrue(MatrixFeatures_DDRM.isOrthogonal(U, UtilEjml.TEST_F64));
+        assertTrue(MatrixFeatures_DDRM.isOrthogonal(V, UtilEjml.TEST_F64));
+
+        double[] sv = alg.getSingularValues();
+        for (int i = 1; i < k; i++) {
+            assertTrue(sv[i - 1] >= sv[i]);
+        }
+
+        // A*V = U*W is only true for the basis which is found, but it's close for these test matrices
+        DMatrixRMaj AV = CommonOps_DDRM.mult(A, V, null);
+        DMatrixRMaj UW = CommonOps_DDRM.mult(U, W, null);
+        assertTrue(MatrixFeatures_DDRM.isIdentical(AV, UW, UtilEjml.TEST_F64));
+    }
+}
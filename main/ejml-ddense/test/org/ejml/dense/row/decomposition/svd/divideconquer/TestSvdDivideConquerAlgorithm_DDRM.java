@@ -0,0 +1,240 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.dense.row.decomposition.svd.divideconquer;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.ejml.dense.row.decomposition.svd.implicitqr.SvdImplicitQrAlgorithm_DDRM;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestSvdDivideConquerAlgorithm_DDRM {
+    Random rand = new Random(234);
+
+    /**
+     * Random bidiagonal matrices with different sizes of leaves
+     */
+    @Test
+    public void random() {
+        for (int minimumSize : new int[]{1, 2, 3, 25}) {
+            for (int N : new int[]{1, 2, 3, 5, 13, 40, 77}) {
+                double[] diag = randomArray(N);
+                double[] off = randomArray(N - 1);
+                check(diag, off, minimumSize);
+            }
+        }
+    }
+
+    /**
+     * Very small off diagonal elements cause most of the update to be deflated
+     */
+    @Test
+    public void deflateAll() {
+        int N = 30;
+        double[] diag = randomArray(N);
+        double[] off = new double[N - 1];
+        for (int i = 0; i < off.length; i++) {
+            off[i] = (i%3 == 0) ? 1e-20 : rand.nextDouble();
+        }
+        check(diag, off, 2);
+
+        // diagonal matrix
+        check(diag, new double[N - 1], 2);
+    }
+
+    /**
+     * Repeated singular values in the two segments are deflated using a rotation
+     */
+    @Test
+    public void repeatedSingularValues() {
+        int N = 32;
+        double[] diag = new double[N];
+        double[] off = new double[N - 1];
+        Arrays.fill(diag, 1.0);
+        for (int minimumSize : new int[]{1, 4, 8}) {
+            check(diag, off, minimumSize);
+        }
+
+        // glued identity matrices
+        N = 41;
+        diag = new double[N];
+        off = new double[N - 1];
+        Arrays.fill(diag, 1.0);
+        for (int i = 4; i < N - 1; i += 5) {
+            off[i] = 1e-9;
+        }
+        check(diag, off, 2);
+
+        Arrays.fill(off, 1.0);
+        check(diag, off, 3);
+    }
+
+    /**
+     * Zeros on the diagonal cause the matrix to be singular
+     */
+    @Test
+    public void singular() {
+        int N = 40;
+        double[] diag = randomArray(N);
+        double[] off = randomArray(N - 1);
+        for (int i = 0; i < N; i += 4) {
+            diag[i] = 0;
+        }
+        check(diag, off, 3);
+
+        // a zero in the row which is removed to split the matrix
+        diag = randomArray(N);
+        diag[N/2] = 0;
+        off[N/2] = 0;
+        check(diag, off, 5);
+    }
+
+    /**
+     * Elements can have either sign
+     */
+    @Test
+    public void negativeElements() {
+        int N = 20;
+        double[] diag = randomArray(N);
+        double[] off = randomArray(N - 1);
+        for (int i = 0; i < off.length; i++) {
+            off[i] = -Math.abs(off[i]);
+            diag[i] = -Math.abs(diag[i]);
+        }
+        check(diag, off, 2);
+    }
+
+    /**
+     * Singular values which span many orders of magnitude
+     */
+    @Test
+    public void graded() {
+        int N = 30;
+        double[] diag = new double[N];
+        double[] off = new double[N - 1];
+        for (int i = 0; i < N; i++) {
+            diag[i] = Math.pow(10, -i/2.0);
+            if (i < N - 1)
+                off[i] = Math.pow(10, -i/2.0)*0.5;
+        }
+        check(diag, off, 2);
+    }
+
+    @Test
+    public void largeAndSmallValues() {
+        int N = 20;
+        for (double scale : new double[]{1e-200, 1e200}) {
+            double[] diag = randomArray(N);
+            double[] off = randomArray(N - 1);
+            for (int i = 0; i < N; i++) {
+                diag[i] *= scale;
+            }
+            for (int i = 0; i < N - 1; i++) {
+                off[i] *= scale;
+            }
+            check(diag, off, 3);
+        }
+    }
+
+    @Test
+    public void allZeros() {
+        int N = 10;
+        SvdDivideConquerAlgorithm_DDRM alg = new SvdDivideConquerAlgorithm_DDRM();
+        assertTrue(alg.process(N, new double[N], new double[N - 1]));
+        for (int i = 0; i < N; i++) {
+            assertEquals(0, alg.getSingularValues()[i]);
+        }
+        assertTrue(MatrixFeatures_DDRM.isOrthogonal(alg.getU(), UtilEjml.TEST_F64));
+        assertTrue(MatrixFeatures_DDRM.isOrthogonal(alg.getV(), UtilEjml.TEST_F64));
+    }
+
+    /**
+     * Checks the singular values against the QR algorithm and that B = U*W*V<sup>T</sup> with orthogonal U and V
+     */
+    private void check( double[] diag, double[] off, int minimumSize ) {
+        int N = diag.length;
+        double[] diagCopy = diag.clone();
+        double[] offCopy = off.clone();
+
+        SvdDivideConquerAlgorithm_DDRM alg = new SvdDivideConquerAlgorithm_DDRM();
+        alg.setMinimumSize(minimumSize);
+        assertTrue(alg.process(N, diag, off));
+
+        // input should not be modified
+        assertArrayEquals(diagCopy, diag);
+        assertArrayEquals(offCopy, off);
+
+        double[] found = alg.getSingularValues();
+        DMatrixRMaj U = alg.getU();
+        DMatrixRMaj V = alg.getV();
+
+        // compute the expected singular values using the QR algorithm
+        SvdImplicitQrAlgorithm_DDRM qr = new SvdImplicitQrAlgorithm_DDRM(true);
+        qr.setMatrix(N, N, diag.clone(), off.clone());
+        assertTrue(qr.process());
+        double[] expected = new double[N];
+        for (int i = 0; i < N; i++) {
+            expected[i] = -Math.abs(qr.getSingularValue(i));
+        }
+        Arrays.sort(expected);
+
+        double norm = Math.abs(expected[0]);
+        for (int i = 0; i < N; i++) {
+            assertEquals(-expected[i], found[i], norm*UtilEjml.TEST_F64);
+            if (i > 0)
+                assertTrue(found[i - 1] >= found[i]);
+        }
+
+        assertEquals(N, U.numRows);
+        assertEquals(N, U.numCols);
+        assertEquals(N, V.numRows);
+        assertEquals(N, V.numCols);
+        assertTrue(MatrixFeatures_DDRM.isOrthogonal(U, UtilEjml.TEST_F64));
+        assertTrue(MatrixFeatures_DDRM.isOrthogonal(V, UtilEjml.TEST_F64));
+
+        DMatrixRMaj B = new DMatrixRMaj(N, N);
+        for (int i = 0; i < N; i++) {
+            B.set(i, i, diag[i]);
+            if (i < N - 1)
+                B.set(i, i + 1, off[i]);
+        }
+        DMatrixRMaj W = CommonOps_DDRM.diag(Arrays.copyOf(found, N));
+        DMatrixRMaj UW = CommonOps_DDRM.mult(U, W, null);
+        DMatrixRMaj UWV = CommonOps_DDRM.multTransB(UW, V, null);
+        assertTrue(MatrixFeatures_DDRM.isIdentical(B, UWV, Math.max(norm, Double.MIN_NORMAL)*UtilEjml.TEST_F64));
+    }
+
+    private double[] randomArray( int length ) {
+        double[] ret = new double[Math.max(0, length)];
+        for (int i = 0; i < ret.length; i++) {
+            ret[i] = rand.nextDouble()*2 - 1;
+        }
+        return ret;
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.dense.row.decomposition.svd.divideconquer;
+
+import org.ejml.UtilEjml;
+import org.ejml.concurrency.EjmlConcurrency;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TestSvdDivideConquerAlgorithm_MT_DDRM {
+	Random rand = new Random(234);
+
+	/**
+	 * Results should be identical to the single threaded version. Different number of threads are used so
+	 * that merges are processed both one at a time and at the same time.
+	 */
+	@Test
+	void compareToSingle() {
+		int N = 150;
+		double[] diag = new double[N];
+		double[] off = new double[N - 1];
+		for (int i = 0; i < N; i++) {
+			diag[i] = rand.nextDouble()*2 - 1;
+			if (i < N - 1)
+				off[i] = rand.nextDouble()*2 - 1;
+		}
+
+		var single = new SvdDivideConquerAlgorithm_DDRM();
+		single.setMinimumSize(10);
+		assertTrue(single.process(N, diag, off));
+
+		int originalThreads = EjmlConcurrency.getMaxThreads();
+		try {
+			for (int threads : new int[]{2, 4, 16}) {
+				EjmlConcurrency.setMaxThreads(threads);
+				var concurrent = new SvdDivideConquerAlgorithm_MT_DDRM();
+				concurrent.setMinimumSize(10);
+				assertTrue(concurrent.process(N, diag, off));
+
+				for (int i = 0; i < N; i++) {
+					assertEquals(single.getSingularValues()[i], concurrent.getSingularValues()[i], UtilEjml.TEST_F64);
+				}
+				assertTrue(MatrixFeatures_DDRM.isIdentical(single.getU(), concurrent.getU(), UtilEjml.TEST_F64));
+				assertTrue(MatrixFeatures_DDRM.isIdentical(single.getV(), concurrent.getV(), UtilEjml.TEST_F64));
+			}
+		} finally {
+			EjmlConcurrency.setMaxThreads(originalThreads);
+		}
+	}
+}
@@ -18,9 +18,14 @@
 
 package org.ejml.dense.row.factory;
 
+import org.ejml.EjmlParameters;
 import org.ejml.UtilEjml;
 import org.ejml.data.DMatrixRMaj;
 import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.ejml.dense.row.decomposition.eig.SymmetricDivideConquerDecomposition_DDRM;
+import org.ejml.dense.row.decomposition.eig.SymmetricQRAlgorithmDecomposition_DDRM;
+import org.ejml.dense.row.decomposition.svd.SvdDivideConquerDecompose_DDRM;
+import org.ejml.dense.row.decomposition.svd.SvdImplicitQrDecompose_DDRM;
 import org.ejml.interfaces.decomposition.EigenDecomposition_F64;
 import org.ejml.interfaces.decomposition.SingularValueDecomposition_F64;
 import org.junit.jupiter.api.Test;
@@ -28,6 +33,7 @@ import org.junit.jupiter.api.Test;
 import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 
 /**
@@ -76,4 +82,38 @@ public class TestDecompositionFactory_DDRM {
         assertTrue(origQuality < modQuality);
         assertTrue(origQuality < UtilEjml.TEST_F64);
     }
+
+    /**
+     * Divide and conquer should only be used for large symmetric matrices when eigenvectors are needed
+     */
+    @Test
+    public void eig_symmetric_switch() {
+        int N = EjmlParameters.SWITCH_EIG_DIVIDE_CONQUER;
+        assertSame(SymmetricQRAlgorithmDecomposition_DDRM.class, DecompositionFactory_DDRM.eig(N - 1, true, true).getClass());
+        assertSame(SymmetricQRAlgorithmDecomposition_DDRM.class, DecompositionFactory_DDRM.eig(N, false, true).getClass());
+
+        EigenDecomposition_F64<DMatrixRMaj> eig = DecompositionFactory_DDRM.eig(N, true, true);
+        assertSame(SymmetricDivideConquerDecomposition_DDRM.class, eig.getClass());
+
+        DMatrixRMaj A = RandomMatrices_DDRM.symmetric(N, -1, 1, rand);
+        assertTrue(eig.decompose(A.copy()));
+        assertTrue(DecompositionFactory_DDRM.quality(A, eig) < UtilEjml.TEST_F64);
+    }
+
+    /**
+     * Divide and conquer should only be used for large matrices when U and V are both requested
+     */
+    @Test
+    public void svd_switch() {
+        int N = EjmlParameters.SWITCH_SVD_DIVIDE_CONQUER;
+        assertSame(SvdImplicitQrDecompose_DDRM.class, DecompositionFactory_DDRM.svd(N - 1, N + 5, true, true, false).getClass());
+        assertSame(SvdImplicitQrDecompose_DDRM.class, DecompositionFactory_DDRM.svd(N, N, true, false, false).getClass());
+
+        SingularValueDecomposition_F64<DMatrixRMaj> svd = DecompositionFactory_DDRM.svd(N + 5, N, true, true, false);
+        assertSame(SvdDivideConquerDecompose_DDRM.class, svd.getClass());
+
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(N + 5, N, -1, 1, rand);
+        assertTrue(svd.decompose(A.copy()));
+        assertTrue(DecompositionFactory_DDRM.quality(A, svd) < UtilEjml.TEST_F64);
+    }
 }
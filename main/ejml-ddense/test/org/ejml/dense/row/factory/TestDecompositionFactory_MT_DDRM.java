@@ -0,0 +1,242 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.factory;
+
+import org.ejml.EjmlParameters;
+import org.ejml.EjmlUnitTests;
+import org.ejml.UtilEjml;
+import org.ejml.concurrency.ConcurrencyContext;
+import org.ejml.concurrency.ConcurrencyCostModel;
+import org.ejml.concurrency.ConcurrencyMetrics;
+import org.ejml.concurrency.EjmlConcurrency;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.block.decomposition.lu.LUDecompositionTaskGraph_MT_DDRB;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.ejml.dense.row.decomposition.chol.CholeskyDecomposition_DDRB_to_DDRM;
+import org.ejml.dense.row.decomposition.lu.LUDecomposition_DDRB_to_DDRM;
+import org.ejml.dense.row.decomposition.qr.QRDecomposition_DDRB_to_DDRM;
+import org.ejml.interfaces.decomposition.CholeskyDecomposition_F64;
+import org.ejml.interfaces.decomposition.DecompositionInterface;
+import org.ejml.interfaces.decomposition.EigenDecomposition_F64;
+import org.ejml.interfaces.decomposition.LUDecomposition_F64;
+import org.ejml.interfaces.decomposition.QRDecomposition;
+import org.ejml.interfaces.decomposition.SingularValueDecomposition_F64;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that a concurrent decomposition is returned when the cost model says it will help and that the
+ * decomposition from {@link DecompositionFactory_DDRM} is returned when it won't. The metrics listener is used
+ * to see if work was submitted to the thread pool.
+ *
+ * @author Peter Abeles
+ */
+class TestDecompositionFactory_MT_DDRM {
+    static final ForkJoinPool pool = new ForkJoinPool(4);
+
+    Random rand = new Random(234);
+    ConcurrencyMetrics metrics = new ConcurrencyMetrics();
+
+    int N = 40;
+
+    @AfterEach
+    void removeListener() {
+        EjmlConcurrency.setListener(null);
+    }
+
+    @Test
+    void chol() {
+        DMatrixRMaj A = RandomMatrices_DDRM.symmetricPosDef(N, rand);
+        check(A, () -> DecompositionFactory_MT_DDRM.chol(N, true), () -> DecompositionFactory_DDRM.chol(N, true),
+                ( expected, found, tol ) ->
+                        EjmlUnitTests.assertEquals(expected.getT(null), found.getT(null), tol));
+    }
+
+    @Test
+    void qr() {
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(N + 5, N, -1, 1, rand);
+        check(A, () -> DecompositionFactory_MT_DDRM.qr(N + 5, N), () -> DecompositionFactory_DDRM.qr(N + 5, N),
+                ( expected, found, tol ) -> {
+                    EjmlUnitTests.assertEquals(expected.getQ(null, false), found.getQ(null, false), tol);
+                    EjmlUnitTests.assertEquals(expected.getR(null, false), found.getR(null, false), tol);
+                });
+    }
+
+    @Test
+    void svd() {
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(N + 5, N, -1, 1, rand);
+        check(A, () -> DecompositionFactory_MT_DDRM.svd(N + 5, N, true, true, false),
+                () -> DecompositionFactory_DDRM.svd(N + 5, N, true, true, false),
+                ( expected, found, tol ) -> assertArrayEquals(
+                        sorted(expected.getSingularValues(), expected.numberOfSingularValues()),
+                        sorted(found.getSingularValues(), found.numberOfSingularValues()), tol));
+    }
+
+    @Test
+    void eig() {
+        DMatrixRMaj symmetric = RandomMatrices_DDRM.symmetric(N, -1, 1, rand);
+        DMatrixRMaj general = RandomMatrices_DDRM.rectangle(N, N, -1, 1, rand);
+
+        check(symmetric, () -> DecompositionFactory_MT_DDRM.eig(N, true, true),
+                () -> DecompositionFactory_DDRM.eig(N, true, true), this::compareEigenvalues);
+        check(general, () -> DecompositionFactory_MT_DDRM.eig(N, true, false),
+                () -> DecompositionFactory_DDRM.eig(N, true, false), this::compareEigenvalues);
+        check(symmetric, () -> DecompositionFactory_MT_DDRM.eig(N, false, true),
+                () -> DecompositionFactory_DDRM.eig(N, false, true), this::compareEigenvalues);
+    }
+
+    @Test
+    void tridiagonal() {
+        DMatrixRMaj A = RandomMatrices_DDRM.symmetric(N, -1, 1, rand);
+        check(A, () -> DecompositionFactory_MT_DDRM.tridiagonal(N), () -> DecompositionFactory_DDRM.tridiagonal(N),
+                ( expected, found, tol ) ->
+                        EjmlUnitTests.assertEquals(expected.getT(null), found.getT(null), tol));
+    }
+
+    /**
+     * Large matrices should be decomposed using the task graph block algorithms
+     */
+    @Test
+    void blockTaskGraph() {
+        int switchChol = EjmlParameters.SWITCH_BLOCK64_CHOLESKY;
+        int switchLU = EjmlParameters.SWITCH_BLOCK64_LU;
+        int switchQR = EjmlParameters.SWITCH_BLOCK64_QR;
+        int N = 3*EjmlParameters.BLOCK_WIDTH + 5;
+        try {
+            EjmlParameters.SWITCH_BLOCK64_CHOLESKY = N;
+            EjmlParameters.SWITCH_BLOCK64_LU = N;
+            EjmlParameters.SWITCH_BLOCK64_QR = N;
+
+            DMatrixRMaj A = RandomMatrices_DDRM.symmetricPosDef(N, rand);
+            CholeskyDecomposition_F64<DMatrixRMaj> chol =
+                    create(alwaysConcurrent(), () -> DecompositionFactory_MT_DDRM.chol(N, true));
+            assertTrue(chol instanceof CholeskyDecomposition_DDRB_to_DDRM);
+            check(A, () -> DecompositionFactory_MT_DDRM.chol(N, true), () -> DecompositionFactory_DDRM.chol(N, true),
+                    ( expected, found, tol ) ->
+                            EjmlUnitTests.assertEquals(expected.getT(null), found.getT(null), tol));
+
+            LUDecomposition_F64<DMatrixRMaj> lu = DecompositionFactory_MT_DDRM.lu(N, N);
+            assertTrue(((LUDecomposition_DDRB_to_DDRM)lu).getBlockAlgorithm() instanceof
+                    LUDecompositionTaskGraph_MT_DDRB);
+
+            A = RandomMatrices_DDRM.rectangle(N + 5, N, -1, 1, rand);
+            QRDecomposition<DMatrixRMaj> qr =
+                    create(alwaysConcurrent(), () -> DecompositionFactory_MT_DDRM.qr(N + 5, N));
+            assertTrue(qr instanceof QRDecomposition_DDRB_to_DDRM);
+            assertTrue(decompose(qr, A) > 0);
+            DMatrixRMaj found = CommonOps_DDRM.mult(qr.getQ(null, false), qr.getR(null, false), null);
+            EjmlUnitTests.assertEquals(A, found, UtilEjml.TEST_F64);
+        } finally {
+            EjmlParameters.SWITCH_BLOCK64_CHOLESKY = switchChol;
+            EjmlParameters.SWITCH_BLOCK64_LU = switchLU;
+            EjmlParameters.SWITCH_BLOCK64_QR = switchQR;
+        }
+    }
+
+    private void compareEigenvalues( EigenDecomposition_F64<DMatrixRMaj> expected,
+                                     EigenDecomposition_F64<DMatrixRMaj> found, double tol ) {
+        assertEquals(expected.getNumberOfEigenvalues(), found.getNumberOfEigenvalues());
+        int N = expected.getNumberOfEigenvalues();
+        double[] valuesE = new double[N];
+        double[] valuesF = new double[N];
+        for (int i = 0; i < N; i++) {
+            valuesE[i] = expected.getEigenvalue(i).real;
+            valuesF[i] = found.getEigenvalue(i).real;
+        }
+        assertArrayEquals(sorted(valuesE, N), sorted(valuesF, N), tol);
+    }
+
+    private static double[] sorted( double[] values, int length ) {
+        double[] copy = Arrays.copyOf(values, length);
+        Arrays.sort(copy);
+        return copy;
+    }
+
+    /**
+     * Creates decompositions with different contexts and checks which one was returned by seeing if it
+     * submits work to the thread pool. Then the results are compared against the single threaded decomposition.
+     */
+    private <D extends DecompositionInterface<DMatrixRMaj>>
+    void check( DMatrixRMaj A, Supplier<D> factory, Supplier<D> single, Compare<D> compare ) {
+        D expected = single.get();
+        assertTrue(expected.decompose(A.copy()));
+
+        // splitting the work is always predicted to be faster
+        // The class isn't always different, e.g. eigen decompositions only differ in the tridiagonal
+        // decomposition they use, so the thread pool usage is checked instead
+        D found = create(alwaysConcurrent(), factory);
+        assertTrue(decompose(found, A) > 0);
+        compare.check(expected, found, UtilEjml.TEST_F64);
+
+        // only one thread is available
+        found = create(new ConcurrencyContext(pool, 1, 0), factory);
+        assertSame(expected.getClass(), found.getClass());
+        assertEquals(0, decompose(found, A));
+        compare.check(expected, found, 0.0);
+
+        // forking is so expensive that it's never worth it
+        var context = new ConcurrencyContext(pool);
+        context.getCostModel().setForkOverhead(1e12);
+        found = create(context, factory);
+        assertSame(expected.getClass(), found.getClass());
+        assertEquals(0, decompose(found, A));
+        compare.check(expected, found, 0.0);
+    }
+
+    private static ConcurrencyContext alwaysConcurrent() {
+        var context = new ConcurrencyContext(pool);
+        context.setCostModel(ConcurrencyCostModel.alwaysConcurrent());
+        return context;
+    }
+
+    private static <D> D create( ConcurrencyContext context, Supplier<D> factory ) {
+        var output = new Object[1];
+        EjmlConcurrency.runWith(context, () -> output[0] = factory.get());
+        return (D)output[0];
+    }
+
+    /**
+     * Decomposes the matrix with a context which will always use threads if the code is concurrent and
+     * returns the number of times work was submitted to the thread pool
+     */
+    private long decompose( DecompositionInterface<DMatrixRMaj> decomp, DMatrixRMaj A ) {
+        metrics.reset();
+        EjmlConcurrency.setListener(metrics);
+        EjmlConcurrency.runWith(alwaysConcurrent(), () -> assertTrue(decomp.decompose(A.copy())));
+        EjmlConcurrency.setListener(null);
+
+        long total = 0;
+        for (ConcurrencyMetrics.OperationMetrics o : metrics.getOperations().values()) {
+            total += o.getDispatches();
+        }
+        return total;
+    }
+
+    interface Compare<D> {
+        void check( D expected, D found, double tol );
+    }
+}
@@ -18,6 +18,7 @@
 
 package org.ejml.dense.row.factory;
 
+import org.ejml.EjmlParameters;
 import org.ejml.LinearSolverSafe;
 import org.ejml.UtilEjml;
 import org.ejml.data.DMatrixRMaj;
@@ -62,6 +63,25 @@ public class TestLinearSolverFactory_DDRM {
         standardTest(A, x, y, solver);
     }
 
+    /**
+     * Force it to use the block LU decomposition
+     */
+    @Test
+    public void linear_block() {
+        int original = EjmlParameters.SWITCH_BLOCK64_LU;
+        try {
+            EjmlParameters.SWITCH_BLOCK64_LU = 10;
+            DMatrixRMaj A = RandomMatrices_DDRM.rectangle(75,75,rand);
+            DMatrixRMaj x = RandomMatrices_DDRM.rectangle(75,1,rand);
+            DMatrixRMaj y = new DMatrixRMaj(75,1);
+
+            standardTest(A, x, y, LinearSolverFactory_DDRM.linear(A.numRows));
+            standardTest(A, x, y, LinearSolverFactory_MT_DDRM.linear(A.numRows));
+        } finally {
+            EjmlParameters.SWITCH_BLOCK64_LU = original;
+        }
+    }
+
     @Test
     public void leastSquares() {
         DMatrixRMaj A = RandomMatrices_DDRM.rectangle(5,4,rand);
@@ -84,6 +104,17 @@ public class TestLinearSolverFactory_DDRM {
         standardTest(A, x, y, solver);
     }
 
+    @Test
+    public void symmIndefinite() {
+        DMatrixRMaj A = RandomMatrices_DDRM.symmetric(5, -1, 1, rand);
+        DMatrixRMaj x = RandomMatrices_DDRM.rectangle(5,1,rand);
+        DMatrixRMaj y = new DMatrixRMaj(5,1);
+
+        LinearSolverDense<DMatrixRMaj> solver = LinearSolverFactory_DDRM.symmIndefinite(A.numCols);
+
+        standardTest(A, x, y, solver);
+    }
+
     @Test
     public void adjustable() {
         DMatrixRMaj A = RandomMatrices_DDRM.rectangle(5,4,rand);
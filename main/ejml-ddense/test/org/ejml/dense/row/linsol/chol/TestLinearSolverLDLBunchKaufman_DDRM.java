@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.dense.row.linsol.chol;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.ejml.dense.row.decomposition.chol.LDLDecompositionBunchKaufman_DDRM;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestLinearSolverLDLBunchKaufman_DDRM {
+
+    Random rand = new Random(3466);
+
+    @Test
+    void solve() {
+        for (int n : new int[]{1, 2, 7, 30}) {
+            DMatrixRMaj A = RandomMatrices_DDRM.symmetric(n, -1, 1, rand);
+            DMatrixRMaj X = RandomMatrices_DDRM.rectangle(n, 3, rand);
+            DMatrixRMaj B = CommonOps_DDRM.mult(A, X, null);
+
+            LinearSolverLDLBunchKaufman_DDRM solver =
+                    new LinearSolverLDLBunchKaufman_DDRM(new LDLDecompositionBunchKaufman_DDRM(4));
+            assertTrue(solver.setA(A));
+            DMatrixRMaj found = new DMatrixRMaj(1, 1);
+            solver.solve(B, found);
+
+            assertTrue(MatrixFeatures_DDRM.isIdentical(X, found, UtilEjml.TEST_F64_SQ));
+
+            // B and X can be the same instance
+            solver.solve(B, B);
+            assertTrue(MatrixFeatures_DDRM.isIdentical(X, B, UtilEjml.TEST_F64_SQ));
+        }
+    }
+
+    @Test
+    void invert() {
+        DMatrixRMaj A = new DMatrixRMaj(3, 3, true, 0, 2, 1, 2, 0, 3, 1, 3, 0);
+        DMatrixRMaj A_inv = new DMatrixRMaj(3, 3);
+
+        LinearSolverLDLBunchKaufman_DDRM solver = new LinearSolverLDLBunchKaufman_DDRM();
+        assertTrue(solver.setA(A));
+        solver.invert(A_inv);
+
+        DMatrixRMaj expected = new DMatrixRMaj(3, 3);
+        CommonOps_DDRM.invert(A, expected);
+        assertTrue(MatrixFeatures_DDRM.isIdentical(expected, A_inv, UtilEjml.TEST_F64));
+    }
+
+    @Test
+    void quality() {
+        DMatrixRMaj A = CommonOps_DDRM.diag(4, -2, 1);
+        LinearSolverLDLBunchKaufman_DDRM solver = new LinearSolverLDLBunchKaufman_DDRM();
+        assertTrue(solver.setA(A));
+        assertEquals(0.25, solver.quality(), UtilEjml.TEST_F64);
+
+        // scaling shouldn't change the quality
+        CommonOps_DDRM.scale(10, A);
+        assertTrue(solver.setA(A));
+        assertEquals(0.25, solver.quality(), UtilEjml.TEST_F64);
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.dense.row.mult;
+
+import org.ejml.EjmlUnitTests;
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestMatrixMatrixMultPacked_DDRM {
+    Random rand = new Random(234);
+
+    @Test
+    public void checkShapesOfInput() {
+        CheckMatrixMultShape_DDRM check = new CheckMatrixMultShape_DDRM(MatrixMatrixMultPacked_DDRM.class);
+        check.checkAll();
+    }
+
+    /**
+     * Compare every function against a straight forward implementation. The block sizes are reduced
+     * so that partial blocks and micro-kernel edges are all exercised.
+     */
+    @Test
+    public void compareToSmall() throws InvocationTargetException, IllegalAccessException {
+        int blockK = MatrixMatrixMultPacked_DDRM.BLOCK_K;
+        int blockM = MatrixMatrixMultPacked_DDRM.BLOCK_M;
+        int blockN = MatrixMatrixMultPacked_DDRM.BLOCK_N;
+        try {
+            MatrixMatrixMultPacked_DDRM.BLOCK_K = 7;
+            MatrixMatrixMultPacked_DDRM.BLOCK_M = 9;
+            MatrixMatrixMultPacked_DDRM.BLOCK_N = 10;
+
+            int[][] shapes = new int[][]{{1, 1, 1}, {3, 5, 2}, {4, 4, 4}, {13, 17, 23}, {31, 9, 40}};
+            for (int[] shape : shapes) {
+                checkAllFunctions(shape[0], shape[1], shape[2]);
+            }
+        } finally {
+            MatrixMatrixMultPacked_DDRM.BLOCK_K = blockK;
+            MatrixMatrixMultPacked_DDRM.BLOCK_M = blockM;
+            MatrixMatrixMultPacked_DDRM.BLOCK_N = blockN;
+        }
+    }
+
+    /**
+     * Large enough that the default block sizes are split
+     */
+    @Test
+    public void compareToSmall_large() throws InvocationTargetException, IllegalAccessException {
+        checkAllFunctions(130, 101, 270);
+    }
+
+    @Test
+    public void checkZeroInner() {
+        DMatrixRMaj A = new DMatrixRMaj(5, 0);
+        DMatrixRMaj B = new DMatrixRMaj(0, 6);
+        DMatrixRMaj C = RandomMatrices_DDRM.rectangle(5, 6, rand);
+        DMatrixRMaj original = C.copy();
+
+        MatrixMatrixMultPacked_DDRM.multAdd(A, B, C);
+        assertTrue(MatrixFeatures_DDRM.isEquals(original, C));
+
+        MatrixMatrixMultPacked_DDRM.mult(A, B, C);
+        assertTrue(MatrixFeatures_DDRM.isZeros(C, UtilEjml.TEST_F64));
+    }
+
+    /**
+     * The packed blocks should be allocated once and then reused
+     */
+    @Test
+    public void workspaceIsReused() {
+        // the SIMD kernels have their own storage
+        if (SimdOps_DDRM.getKernels() != null)
+            return;
+
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(70, 80, rand);
+        DMatrixRMaj B = RandomMatrices_DDRM.rectangle(80, 90, rand);
+        DMatrixRMaj C = new DMatrixRMaj(1, 1);
+
+        MatrixMatrixMultPacked_DDRM.mult(A, B, C);
+        MatrixMatrixMultPacked_DDRM.Workspace work = MatrixMatrixMultPacked_DDRM.workspace.get();
+        double[] packedA = work.packedA.data;
+        double[] packedB = work.packedB.data;
+
+        // smaller products fit inside the same storage
+        DMatrixRMaj smallA = CommonOps_DDRM.extract(A, 0, 10, 0, 20);
+        DMatrixRMaj smallB = CommonOps_DDRM.extract(B, 0, 20, 0, 15);
+        MatrixMatrixMultPacked_DDRM.multTransB(A, A, C);
+        MatrixMatrixMultPacked_DDRM.mult(smallA, smallB, C);
+        assertSame(packedA, work.packedA.data);
+        assertSame(packedB, work.packedB.data);
+        EjmlUnitTests.assertEquals(CommonOps_DDRM.mult(smallA, smallB, null), C, UtilEjml.TEST_F64);
+    }
+
+    /**
+     * C = op(A)*op(B) where C is m x n and the inner dimension is k
+     */
+    private void checkAllFunctions( int m, int n, int k ) throws InvocationTargetException, IllegalAccessException {
+        double alpha = 1.5;
+        int numChecked = 0;
+
+        for (Method method : MatrixMatrixMultPacked_DDRM.class.getMethods()) {
+            String name = method.getName();
+            if (!name.startsWith("mult"))
+                continue;
+
+            boolean add = name.contains("Add");
+            boolean transA = name.contains("TransA");
+            boolean transB = name.contains("TransAB") || name.contains("TransB");
+            boolean hasAlpha = method.getParameterTypes()[0] == double.class;
+
+            DMatrixRMaj A = RandomMatrices_DDRM.rectangle(m, k, rand);
+            DMatrixRMaj B = RandomMatrices_DDRM.rectangle(k, n, rand);
+            DMatrixRMaj C = RandomMatrices_DDRM.rectangle(m, n, rand);
+
+            DMatrixRMaj expected = new DMatrixRMaj(m, n);
+            MatrixMatrixMult_DDRM.mult_small(A, B, expected);
+            if (hasAlpha)
+                CommonOps_DDRM.scale(alpha, expected);
+            if (add)
+                CommonOps_DDRM.addEquals(expected, C);
+
+            DMatrixRMaj opA = transA ? CommonOps_DDRM.transpose(A, null) : A;
+            DMatrixRMaj opB = transB ? CommonOps_DDRM.transpose(B, null) : B;
+            TestMatrixMatrixMult_DDRM.invoke(method, alpha, opA, opB, C);
+
+            EjmlUnitTests.assertEquals(expected, C, UtilEjml.TEST_F64);
+            numChecked++;
+        }
+
+        assertEquals(16, numChecked);
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.mult;
+
+import org.ejml.CheckMultiThreadAgainstSingleThread;
+import org.ejml.EjmlUnitTests;
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestMatrixMatrixMultPacked_MT_DDRM extends CheckMultiThreadAgainstSingleThread {
+    public TestMatrixMatrixMultPacked_MT_DDRM() {
+        super(MatrixMatrixMultPacked_DDRM.class, MatrixMatrixMultPacked_MT_DDRM.class, 16);
+    }
+
+    /**
+     * The number of rows isn't a multiple of the block size and several panels of B are needed
+     */
+    @Test
+    void rectangular_partialBlocks() {
+        int blockK = MatrixMatrixMultPacked_DDRM.BLOCK_K;
+        int blockN = MatrixMatrixMultPacked_DDRM.BLOCK_N;
+        try {
+            MatrixMatrixMultPacked_DDRM.BLOCK_K = 20;
+            MatrixMatrixMultPacked_DDRM.BLOCK_N = 30;
+            MatrixMatrixMultPacked_MT_DDRM.BLOCK_K = 20;
+            MatrixMatrixMultPacked_MT_DDRM.BLOCK_N = 30;
+
+            DMatrixRMaj A = RandomMatrices_DDRM.rectangle(103, 45, -1, 1, rand);
+            DMatrixRMaj B = RandomMatrices_DDRM.rectangle(45, 71, -1, 1, rand);
+            DMatrixRMaj expected = RandomMatrices_DDRM.rectangle(103, 71, -1, 1, rand);
+            DMatrixRMaj found = expected.copy();
+
+            MatrixMatrixMultPacked_DDRM.multAdd(1.5, A, B, expected);
+            MatrixMatrixMultPacked_MT_DDRM.multAdd(1.5, A, B, found);
+            EjmlUnitTests.assertEquals(expected, found, UtilEjml.TEST_F64);
+        } finally {
+            MatrixMatrixMultPacked_DDRM.BLOCK_K = blockK;
+            MatrixMatrixMultPacked_DDRM.BLOCK_N = blockN;
+            MatrixMatrixMultPacked_MT_DDRM.BLOCK_K = blockK;
+            MatrixMatrixMultPacked_MT_DDRM.BLOCK_N = blockN;
+        }
+    }
+}
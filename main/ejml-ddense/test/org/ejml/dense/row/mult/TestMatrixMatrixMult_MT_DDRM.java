@@ -19,6 +19,13 @@
 package org.ejml.dense.row.mult;
 
 import org.ejml.CheckMultiThreadAgainstSingleThread;
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * @author Peter Abeles
@@ -28,4 +35,25 @@ public class TestMatrixMatrixMult_MT_DDRM extends CheckMultiThreadAgainstSingleT
     public TestMatrixMatrixMult_MT_DDRM() {
         super(MatrixMatrixMult_DDRM.class, MatrixMatrixMult_MT_DDRM.class, 24);
     }
+
+    /**
+     * The generic check only uses square matrices. The rows in the output of multTransA are the columns in A.
+     */
+    @Test
+    void multTransA_reorder_rectangular() {
+        for (int[] shape : new int[][]{{30, 7}, {7, 30}}) {
+            DMatrixRMaj A = RandomMatrices_DDRM.rectangle(shape[0], shape[1], -1, 1, rand);
+            DMatrixRMaj B = RandomMatrices_DDRM.rectangle(shape[0], 5, -1, 1, rand);
+            DMatrixRMaj expected = new DMatrixRMaj(1, 1);
+            DMatrixRMaj found = new DMatrixRMaj(1, 1);
+
+            MatrixMatrixMult_DDRM.multTransA_reorder(A, B, expected);
+            MatrixMatrixMult_MT_DDRM.multTransA_reorder(A, B, found);
+            assertTrue(MatrixFeatures_DDRM.isIdentical(expected, found, UtilEjml.TEST_F64));
+
+            MatrixMatrixMult_DDRM.multAddTransA_reorder(1.5, A, B, expected);
+            MatrixMatrixMult_MT_DDRM.multAddTransA_reorder(1.5, A, B, found);
+            assertTrue(MatrixFeatures_DDRM.isIdentical(expected, found, UtilEjml.TEST_F64));
+        }
+    }
 }
@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.dense.row.mult;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrix1Row;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestSimdOps_DDRM {
+    Random rand = new Random(234);
+
+    @Test
+    public void get_minLength() {
+        @Nullable SimdKernels_DDRM original = SimdOps_DDRM.getKernels();
+        try {
+            CountingKernels kernels = new CountingKernels();
+            SimdOps_DDRM.setKernels(kernels);
+            assertNull(SimdOps_DDRM.get(SimdOps_DDRM.MIN_LENGTH - 1));
+            assertSame(kernels, SimdOps_DDRM.get(SimdOps_DDRM.MIN_LENGTH));
+        } finally {
+            SimdOps_DDRM.setKernels(original);
+        }
+    }
+
+    /**
+     * Operations should be sent to the kernels and produce the same results as the scalar code
+     */
+    @Test
+    public void dispatch() {
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(70, 80, rand);
+        DMatrixRMaj B = RandomMatrices_DDRM.rectangle(80, 90, rand);
+        DMatrixRMaj x = RandomMatrices_DDRM.rectangle(80, 1, rand);
+        DMatrixRMaj C = RandomMatrices_DDRM.rectangle(70, 80, rand);
+
+        @Nullable SimdKernels_DDRM original = SimdOps_DDRM.getKernels();
+        try {
+            SimdOps_DDRM.setKernels(null);
+            DMatrixRMaj expectedMult = CommonOps_DDRM.mult(A, B, null);
+            DMatrixRMaj expectedMultTransB = CommonOps_DDRM.multTransB(A, A, null);
+            DMatrixRMaj expectedGemv = CommonOps_DDRM.mult(A, x, null);
+            double expectedDot = CommonOps_DDRM.dot(x, x);
+            DMatrixRMaj expectedAdd = CommonOps_DDRM.add(0.5, A, 2.0, C, null);
+            DMatrixRMaj expectedElement = CommonOps_DDRM.elementMult(A, C, null);
+
+            CountingKernels kernels = new CountingKernels();
+            SimdOps_DDRM.setKernels(kernels);
+            assertTrue(MatrixFeatures_DDRM.isIdentical(expectedMult, CommonOps_DDRM.mult(A, B, null), UtilEjml.TEST_F64));
+            assertTrue(MatrixFeatures_DDRM.isIdentical(expectedMultTransB, CommonOps_DDRM.multTransB(A, A, null), UtilEjml.TEST_F64));
+            assertEquals(2, kernels.calls);
+            assertTrue(MatrixFeatures_DDRM.isIdentical(expectedGemv, CommonOps_DDRM.mult(A, x, null), UtilEjml.TEST_F64));
+            assertEquals(3, kernels.calls);
+            assertEquals(expectedDot, CommonOps_DDRM.dot(x, x), UtilEjml.TEST_F64);
+            assertEquals(4, kernels.calls);
+            assertTrue(MatrixFeatures_DDRM.isIdentical(expectedAdd, CommonOps_DDRM.add(0.5, A, 2.0, C, null), UtilEjml.TEST_F64));
+            assertEquals(5, kernels.calls);
+            assertTrue(MatrixFeatures_DDRM.isIdentical(expectedElement, CommonOps_DDRM.elementMult(A, C, null), UtilEjml.TEST_F64));
+            assertEquals(6, kernels.calls);
+        } finally {
+            SimdOps_DDRM.setKernels(original);
+        }
+    }
+
+    /**
+     * Scalar implementation which counts the number of times it has been called
+     */
+    private static class CountingKernels implements SimdKernels_DDRM {
+        int calls;
+
+        @Override
+        public void gemm( double alpha, DMatrix1Row A, boolean transA, DMatrix1Row B, boolean transB,
+                          DMatrix1Row C, boolean add ) {
+            calls++;
+            DMatrixRMaj opA = new DMatrixRMaj(A.numRows, A.numCols, true, A.data);
+            DMatrixRMaj opB = new DMatrixRMaj(B.numRows, B.numCols, true, B.data);
+            if (transA) opA = CommonOps_DDRM.transpose(opA, null);
+            if (transB) opB = CommonOps_DDRM.transpose(opB, null);
+            DMatrixRMaj found = new DMatrixRMaj(C.numRows, C.numCols);
+            MatrixMatrixMult_DDRM.mult_small(alpha, opA, opB, found);
+            for (int i = 0; i < found.getNumElements(); i++) {
+                C.data[i] = add ? C.data[i] + found.data[i] : found.data[i];
+            }
+        }
+
+        @Override
+        public void gemv( DMatrix1Row A, double[] b, int offsetB, double[] c, int offsetC ) {
+            calls++;
+            for (int i = 0; i < A.numRows; i++) {
+                c[offsetC + i] = innerProduct(A.data, i*A.numCols, b, offsetB, A.numCols);
+            }
+        }
+
+        @Override
+        public double dot( double[] a, int offsetA, double[] b, int offsetB, int length ) {
+            calls++;
+            return innerProduct(a, offsetA, b, offsetB, length);
+        }
+
+        private static double innerProduct( double[] a, int offsetA, double[] b, int offsetB, int length ) {
+            double total = 0;
+            for (int i = 0; i < length; i++) {
+                total += a[offsetA + i]*b[offsetB + i];
+            }
+            return total;
+        }
+
+        @Override
+        public void axpy( double alpha, double[] x, int offsetX, double[] y, int offsetY, int length ) {
+            calls++;
+            for (int i = 0; i < length; i++) {
+                y[offsetY + i] += alpha*x[offsetX + i];
+            }
+        }
+
+        @Override
+        public void add( double alpha, double[] a, double beta, double[] b, double[] c, int length ) {
+            calls++;
+            for (int i = 0; i < length; i++) {
+                c[i] = alpha*a[i] + beta*b[i];
+            }
+        }
+
+        @Override
+        public void elementMult( double[] a, double[] b, double[] c, int length ) {
+            calls++;
+            for (int i = 0; i < length; i++) {
+                c[i] = a[i]*b[i];
+            }
+        }
+    }
+}
@@ -18,14 +18,17 @@
 
 package org.ejml.sparse.csc;
 
+import org.ejml.EjmlParameters;
 import org.ejml.MatrixDimensionException;
 import org.ejml.data.DGrowArray;
 import org.ejml.data.DMatrixRMaj;
 import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.data.DVectorSparse;
 import org.ejml.data.IGrowArray;
 import org.ejml.ops.DSemiRing;
 import org.ejml.sparse.csc.misc.ImplCommonOpsWithSemiRing_DSCC;
 import org.ejml.sparse.csc.mult.ImplSparseSparseMultWithSemiRing_DSCC;
+import org.ejml.sparse.csc.mult.MatrixSparseVectorMultWithSemiRing_DSCC;
 import org.jetbrains.annotations.Nullable;
 
 import static org.ejml.UtilEjml.reshapeOrDeclare;
@@ -59,6 +62,29 @@ public class CommonOpsWithSemiRing_DSCC {
         return output;
     }
 
+    /**
+     * Performs masked matrix multiplication.  output = A*B. Only elements in the output which are allowed by
+     * the mask are computed and the full product is never stored.
+     *
+     * @param A        (Input) Matrix. Not modified.
+     * @param B        (Input) Matrix. Not modified.
+     * @param output   (Output) Storage for results.  Data length is increased if insufficient.
+     * @param semiRing Semi-Ring to define + and *
+     * @param mask     (Optional) Mask for the output. If null then the full product is computed.
+     * @param gw       (Optional) Storage for internal workspace.  Can be null.
+     * @param gx       (Optional) Storage for internal workspace.  Can be null.
+     */
+    public static DMatrixSparseCSC mult(DMatrixSparseCSC A, DMatrixSparseCSC B, @Nullable DMatrixSparseCSC output, DSemiRing semiRing,
+                                        @Nullable Mask_DSCC mask, @Nullable IGrowArray gw, @Nullable DGrowArray gx) {
+        if (A.numCols != B.numRows)
+            throw new MatrixDimensionException("Inconsistent matrix shapes. " + stringShapes(A, B));
+        output = reshapeOrDeclare(output, A, A.numRows, B.numCols);
+
+        ImplSparseSparseMultWithSemiRing_DSCC.mult(A, B, output, semiRing, mask, gw, gx);
+
+        return output;
+    }
+
     /**
      * Performs matrix multiplication.  output = A*B
      *
@@ -198,6 +224,32 @@ public class CommonOpsWithSemiRing_DSCC {
         return output;
     }
 
+    /**
+     * Performs masked matrix addition:<br>
+     * output = &alpha;A + &beta;B<br>
+     * Only elements in the output which are allowed by the mask are computed.
+     *
+     * @param alpha    scalar value multiplied against A
+     * @param A        Matrix
+     * @param beta     scalar value multiplied against B
+     * @param B        Matrix
+     * @param output   (Optional)    Output matrix.
+     * @param semiRing Semi-Ring to define + and *
+     * @param mask     (Optional) Mask for the output. If null then every element is computed.
+     * @param gw       (Optional) Storage for internal workspace.  Can be null.
+     * @param gx       (Optional) Storage for internal workspace.  Can be null.
+     */
+    public static DMatrixSparseCSC add(double alpha, DMatrixSparseCSC A, double beta, DMatrixSparseCSC B, @Nullable DMatrixSparseCSC output, DSemiRing semiRing,
+                                       @Nullable Mask_DSCC mask, @Nullable IGrowArray gw, @Nullable DGrowArray gx) {
+        if (A.numRows != B.numRows || A.numCols != B.numCols)
+            throw new MatrixDimensionException("Inconsistent matrix shapes. " + stringShapes(A, B));
+        output = reshapeOrDeclare(output, A, A.numRows, A.numCols);
+
+        ImplCommonOpsWithSemiRing_DSCC.add(alpha, A, beta, B, output, semiRing, mask, gw, gx);
+
+        return output;
+    }
+
     /**
      * Performs an element-wise multiplication.<br>
      * output[i,j] = A[i,j]*B[i,j]<br>
@@ -220,4 +272,126 @@ public class CommonOpsWithSemiRing_DSCC {
 
         return output;
     }
+
+    /**
+     * Performs a masked element-wise multiplication.<br>
+     * output[i,j] = A[i,j]*B[i,j]<br>
+     * Only elements in the output which are allowed by the mask are computed. All matrices must have the same shape.
+     *
+     * @param A        (Input) Matrix.
+     * @param B        (Input) Matrix
+     * @param output   (Output) Matrix.
+     * @param semiRing Semi-Ring to define + and *
+     * @param mask     (Optional) Mask for the output. If null then every element is computed.
+     * @param gw       (Optional) Storage for internal workspace.  Can be null.
+     * @param gx       (Optional) Storage for internal workspace.  Can be null.
+     */
+    public static DMatrixSparseCSC elementMult(DMatrixSparseCSC A, DMatrixSparseCSC B, @Nullable DMatrixSparseCSC output, DSemiRing semiRing,
+                                               @Nullable Mask_DSCC mask, @Nullable IGrowArray gw, @Nullable DGrowArray gx) {
+        if (A.numCols != B.numCols || A.numRows != B.numRows)
+            throw new MatrixDimensionException("All inputs must have the same number of rows and columns. " + stringShapes(A, B));
+        output = reshapeOrDeclare(output, A, A.numRows, A.numCols);
+
+        ImplCommonOpsWithSemiRing_DSCC.elementMult(A, B, output, semiRing, mask, gw, gx);
+
+        return output;
+    }
+
+    /**
+     * Sparse matrix-vector multiplication. output = A*x
+     *
+     * @see #mxv(DMatrixSparseCSC, DMatrixSparseCSC, DVectorSparse, DVectorSparse, DSemiRing, IGrowArray, DGrowArray)
+     */
+    public static DVectorSparse mxv(DMatrixSparseCSC A, DVectorSparse x, @Nullable DVectorSparse output, DSemiRing semiRing) {
+        return mxv(A, null, x, output, semiRing, null, null);
+    }
+
+    /**
+     * <p>Sparse matrix-vector multiplication. output = A*x</p>
+     *
+     * <p>
+     * If the vector has few non-zero elements then the columns of A it selects are pushed into the output.
+     * When the number of elements touched by pushing exceeds {@link EjmlParameters#SPARSE_VECTOR_PULL_FRACTION}
+     * of the non-zero elements in A then the output is pulled from the rows of A instead, which requires its
+     * transpose. If the transpose isn't provided then push is always used.
+     * </p>
+     *
+     * @param A        (Input) Matrix. Not modified.
+     * @param At       (Optional) Transpose of A. Enables the pull strategy. Can be null.
+     * @param x        (Input) Vector. Not modified.
+     * @param output   (Output) Storage for results. Can be null.
+     * @param semiRing Semi-Ring to define + and *
+     * @param gw       (Optional) Storage for internal workspace.  Can be null.
+     * @param gx       (Optional) Storage for internal workspace.  Can be null.
+     */
+    public static DVectorSparse mxv(DMatrixSparseCSC A, @Nullable DMatrixSparseCSC At, DVectorSparse x, @Nullable DVectorSparse output,
+                                    DSemiRing semiRing, @Nullable IGrowArray gw, @Nullable DGrowArray gx) {
+        if (A.numCols != x.size)
+            throw new MatrixDimensionException("Inconsistent matrix and vector shapes. ( " + A.numRows + "x" + A.numCols + " ) size = " + x.size);
+        if (At != null && (At.numRows != A.numCols || At.numCols != A.numRows))
+            throw new MatrixDimensionException("At is not the transpose of A. " + stringShapes(A, At));
+        output = declareVector(output, x, A.numRows);
+
+        int pushCost = MatrixSparseVectorMultWithSemiRing_DSCC.pushCost(A, x);
+        if (At != null && pushCost > EjmlParameters.SPARSE_VECTOR_PULL_FRACTION*At.nz_length) {
+            MatrixSparseVectorMultWithSemiRing_DSCC.pull(At, x, false, output, semiRing, gw);
+        } else {
+            MatrixSparseVectorMultWithSemiRing_DSCC.push(A, x, false, output, semiRing, gw, gx);
+        }
+
+        return output;
+    }
+
+    /**
+     * Sparse vector-matrix multiplication. output = x<sup>T</sup>*A
+     *
+     * @see #vxm(DVectorSparse, DMatrixSparseCSC, DMatrixSparseCSC, DVectorSparse, DSemiRing, IGrowArray, DGrowArray)
+     */
+    public static DVectorSparse vxm(DVectorSparse x, DMatrixSparseCSC A, @Nullable DVectorSparse output, DSemiRing semiRing) {
+        return vxm(x, A, null, output, semiRing, null, null);
+    }
+
+    /**
+     * <p>Sparse vector-matrix multiplication. output = x<sup>T</sup>*A</p>
+     *
+     * <p>
+     * If the vector has few non-zero elements then the rows of A it selects are pushed into the output, which
+     * requires the transpose of A. When the number of elements touched by pushing exceeds
+     * {@link EjmlParameters#SPARSE_VECTOR_PULL_FRACTION} of the non-zero elements in A, or the transpose isn't
+     * provided, then each element in the output is pulled from a column of A.
+     * </p>
+     *
+     * @param x        (Input) Vector. Not modified.
+     * @param A        (Input) Matrix. Not modified.
+     * @param At       (Optional) Transpose of A. Enables the push strategy. Can be null.
+     * @param output   (Output) Storage for results. Can be null.
+     * @param semiRing Semi-Ring to define + and *
+     * @param gw       (Optional) Storage for internal workspace.  Can be null.
+     * @param gx       (Optional) Storage for internal workspace.  Can be null.
+     */
+    public static DVectorSparse vxm(DVectorSparse x, DMatrixSparseCSC A, @Nullable DMatrixSparseCSC At, @Nullable DVectorSparse output,
+                                    DSemiRing semiRing, @Nullable IGrowArray gw, @Nullable DGrowArray gx) {
+        if (A.numRows != x.size)
+            throw new MatrixDimensionException("Inconsistent matrix and vector shapes. ( " + A.numRows + "x" + A.numCols + " ) size = " + x.size);
+        if (At != null && (At.numRows != A.numCols || At.numCols != A.numRows))
+            throw new MatrixDimensionException("At is not the transpose of A. " + stringShapes(A, At));
+        output = declareVector(output, x, A.numCols);
+
+        if (At != null && MatrixSparseVectorMultWithSemiRing_DSCC.pushCost(At, x) <= EjmlParameters.SPARSE_VECTOR_PULL_FRACTION*A.nz_length) {
+            MatrixSparseVectorMultWithSemiRing_DSCC.push(At, x, true, output, semiRing, gw, gx);
+        } else {
+            MatrixSparseVectorMultWithSemiRing_DSCC.pull(A, x, true, output, semiRing, gw);
+        }
+
+        return output;
+    }
+
+    private static DVectorSparse declareVector(@Nullable DVectorSparse output, DVectorSparse x, int size) {
+        if (output == null)
+            return new DVectorSparse(size, 0);
+        if (output == x)
+            throw new IllegalArgumentException("The output can't be the same instance as the input vector");
+        output.reshape(size);
+        return output;
+    }
 }
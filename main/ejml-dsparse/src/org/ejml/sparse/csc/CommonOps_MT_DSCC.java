@@ -20,6 +20,8 @@ package org.ejml.sparse.csc;
 
 import org.ejml.MatrixDimensionException;
 import org.ejml.concurrency.GrowArray;
+import org.ejml.data.DGrowArray;
+import org.ejml.data.DMatrixRMaj;
 import org.ejml.data.DMatrixSparseCSC;
 import org.ejml.sparse.csc.misc.ImplCommonOps_MT_DSCC;
 import org.ejml.sparse.csc.mult.ImplSparseSparseMult_MT_DSCC;
@@ -59,6 +61,129 @@ public class CommonOps_MT_DSCC {
         return outputC;
     }
 
+    /**
+     * Performs matrix multiplication.  C = A*B. Columns in A are split between threads and each thread
+     * has its own copy of C, which are summed together at the end.
+     *
+     * @param A (Input) Matrix. Not modified.
+     * @param B (Input) Dense Matrix. Not modified.
+     * @param outputC (Output) Dense Matrix. Modified.
+     * @param listWork (Optional) Storage for internal workspace.  Can be null.
+     */
+    public static DMatrixRMaj mult( DMatrixSparseCSC A, DMatrixRMaj B, @Nullable DMatrixRMaj outputC,
+                                    @Nullable GrowArray<DGrowArray> listWork ) {
+        if (A.numCols != B.numRows)
+            throw new MatrixDimensionException("Inconsistent matrix shapes. " + stringShapes(A, B));
+        outputC = reshapeOrDeclare(outputC, A.numRows, B.numCols);
+
+        ImplSparseSparseMult_MT_DSCC.mult(A, B, outputC, listWork);
+
+        return outputC;
+    }
+
+    /**
+     * <p>C = C + A*B</p>
+     */
+    public static void multAdd( DMatrixSparseCSC A, DMatrixRMaj B, DMatrixRMaj outputC,
+                                @Nullable GrowArray<DGrowArray> listWork ) {
+        if (A.numCols != B.numRows)
+            throw new MatrixDimensionException("Inconsistent matrix shapes. " + stringShapes(A, B));
+        if (A.numRows != outputC.numRows || B.numCols != outputC.numCols)
+            throw new MatrixDimensionException("Inconsistent matrix shapes. " + stringShapes(A, B, outputC));
+
+        ImplSparseSparseMult_MT_DSCC.multAdd(A, B, outputC, listWork);
+    }
+
+    /**
+     * Performs matrix multiplication.  C = A<sup>T</sup>*B
+     *
+     * @param A (Input) Matrix. Not modified.
+     * @param B (Input) Dense Matrix. Not modified.
+     * @param outputC (Output) Dense Matrix. Modified.
+     */
+    public static DMatrixRMaj multTransA( DMatrixSparseCSC A, DMatrixRMaj B, @Nullable DMatrixRMaj outputC ) {
+        if (A.numRows != B.numRows)
+            throw new MatrixDimensionException("Inconsistent matrix shapes. " + stringShapes(A, B));
+        outputC = reshapeOrDeclare(outputC, A.numCols, B.numCols);
+
+        ImplSparseSparseMult_MT_DSCC.multTransA(A, B, outputC);
+
+        return outputC;
+    }
+
+    /**
+     * <p>C = C + A<sup>T</sup>*B</p>
+     */
+    public static void multAddTransA( DMatrixSparseCSC A, DMatrixRMaj B, DMatrixRMaj outputC ) {
+        if (A.numRows != B.numRows)
+            throw new MatrixDimensionException("Inconsistent matrix shapes. " + stringShapes(A, B));
+        if (A.numCols != outputC.numRows || B.numCols != outputC.numCols)
+            throw new MatrixDimensionException("Inconsistent matrix shapes. " + stringShapes(A, B, outputC));
+
+        ImplSparseSparseMult_MT_DSCC.multAddTransA(A, B, outputC);
+    }
+
+    /**
+     * Performs matrix multiplication.  C = A*B<sup>T</sup>
+     *
+     * @param A (Input) Matrix. Not modified.
+     * @param B (Input) Dense Matrix. Not modified.
+     * @param outputC (Output) Dense Matrix. Modified.
+     * @param listWork (Optional) Storage for internal workspace.  Can be null.
+     */
+    public static DMatrixRMaj multTransB( DMatrixSparseCSC A, DMatrixRMaj B, @Nullable DMatrixRMaj outputC,
+                                         @Nullable GrowArray<DGrowArray> listWork ) {
+        if (A.numCols != B.numCols)
+            throw new MatrixDimensionException("Inconsistent matrix shapes. " + stringShapes(A, B));
+        outputC = reshapeOrDeclare(outputC, A.numRows, B.numRows);
+
+        ImplSparseSparseMult_MT_DSCC.multTransB(A, B, outputC, listWork);
+
+        return outputC;
+    }
+
+    /**
+     * <p>C = C + A*B<sup>T</sup></p>
+     */
+    public static void multAddTransB( DMatrixSparseCSC A, DMatrixRMaj B, DMatrixRMaj outputC,
+                                      @Nullable GrowArray<DGrowArray> listWork ) {
+        if (A.numCols != B.numCols)
+            throw new MatrixDimensionException("Inconsistent matrix shapes. " + stringShapes(A, B));
+        if (A.numRows != outputC.numRows || B.numRows != outputC.numCols)
+            throw new MatrixDimensionException("Inconsistent matrix shapes. " + stringShapes(A, B, outputC));
+
+        ImplSparseSparseMult_MT_DSCC.multAddTransB(A, B, outputC, listWork);
+    }
+
+    /**
+     * Performs matrix multiplication.  C = A<sup>T</sup>*B<sup>T</sup>
+     *
+     * @param A (Input) Matrix. Not modified.
+     * @param B (Input) Dense Matrix. Not modified.
+     * @param outputC (Output) Dense Matrix. Modified.
+     */
+    public static DMatrixRMaj multTransAB( DMatrixSparseCSC A, DMatrixRMaj B, @Nullable DMatrixRMaj outputC ) {
+        if (A.numRows != B.numCols)
+            throw new MatrixDimensionException("Inconsistent matrix shapes. " + stringShapes(A, B));
+        outputC = reshapeOrDeclare(outputC, A.numCols, B.numRows);
+
+        ImplSparseSparseMult_MT_DSCC.multTransAB(A, B, outputC);
+
+        return outputC;
+    }
+
+    /**
+     * <p>C = C + A<sup>T</sup>*B<sup>T</sup></p>
+     */
+    public static void multAddTransAB( DMatrixSparseCSC A, DMatrixRMaj B, DMatrixRMaj outputC ) {
+        if (A.numRows != B.numCols)
+            throw new MatrixDimensionException("Inconsistent matrix shapes. " + stringShapes(A, B));
+        if (A.numCols != outputC.numRows || B.numRows != outputC.numCols)
+            throw new MatrixDimensionException("Inconsistent matrix shapes. " + stringShapes(A, B, outputC));
+
+        ImplSparseSparseMult_MT_DSCC.multAddTransAB(A, B, outputC);
+    }
+
     /**
      * Performs matrix addition:<br>
      *
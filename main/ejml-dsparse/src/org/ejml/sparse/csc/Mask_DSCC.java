@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.sparse.csc;
+
+import org.ejml.MatrixDimensionException;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.data.IGrowArray;
+
+import static org.ejml.UtilEjml.adjust;
+
+/**
+ * <p>
+ * Specifies which elements in the output of a sparse operation are computed, as is done in GraphBLAS.
+ * An element (i,j) is allowed if the mask has an element at (i,j). If the mask is structural only the
+ * existence of the element matters, otherwise its value must also be non-zero. When the complement is
+ * used the elements which would otherwise be allowed are excluded and everything else is allowed.
+ * </p>
+ *
+ * <p>
+ * The mask is processed one column at a time. {@link #setColumn(int)} must be called before
+ * {@link #isSet(int)} is used to check rows in that column. Since it has internal state, a mask can't be
+ * shared between threads.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class Mask_DSCC {
+    /** The matrix which defines the mask */
+    public final DMatrixSparseCSC matrix;
+    /** If true only the structure of the matrix is used, otherwise elements which are zero are ignored */
+    public final boolean structural;
+    /** If true then elements which are not in the mask are allowed */
+    public final boolean complement;
+
+    // rows in the active column are marked with the current value of 'mark'
+    private final IGrowArray gw = new IGrowArray();
+    private int[] w = new int[0];
+    private int mark;
+    // number of rows which are marked in the active column
+    private int count;
+
+    public Mask_DSCC( DMatrixSparseCSC matrix, boolean structural, boolean complement ) {
+        this.matrix = matrix;
+        this.structural = structural;
+        this.complement = complement;
+    }
+
+    /**
+     * Creates a structural mask which is not complemented
+     */
+    public Mask_DSCC( DMatrixSparseCSC matrix ) {
+        this(matrix, true, false);
+    }
+
+    /**
+     * Ensures the mask has the same shape as the output and resets the internal workspace
+     */
+    public void checkShape( int numRows, int numCols ) {
+        if (matrix.numRows != numRows || matrix.numCols != numCols)
+            throw new MatrixDimensionException("Mask has the wrong shape. Expected " + numRows + "x" + numCols +
+                    " found " + matrix.numRows + "x" + matrix.numCols);
+        w = adjust(gw, numRows, numRows);
+        mark = 0;
+    }
+
+    /**
+     * Selects the column which {@link #isSet(int)} refers to
+     */
+    public void setColumn( int col ) {
+        // avoid clearing w every time by incrementing the mark
+        if (++mark == Integer.MAX_VALUE) {
+            w = adjust(gw, matrix.numRows, matrix.numRows);
+            mark = 1;
+        }
+        count = 0;
+        int idx0 = matrix.col_idx[col];
+        int idx1 = matrix.col_idx[col + 1];
+        for (int i = idx0; i < idx1; i++) {
+            if (structural || matrix.nz_values[i] != 0) {
+                w[matrix.nz_rows[i]] = mark;
+                count++;
+            }
+        }
+    }
+
+    /**
+     * Returns true if the element in the active column is allowed by the mask
+     */
+    public boolean isSet( int row ) {
+        return (w[row] == mark) != complement;
+    }
+
+    /**
+     * Returns true if no elements in the active column are allowed, in which case the column can be skipped
+     */
+    public boolean isColumnEmpty() {
+        return complement ? count == matrix.numRows : count == 0;
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.sparse.csc;
+
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.sparse.csc.decomposition.svd.SvdRandomized_DSCC;
+
+/**
+ * Operations related to singular value decomposition of sparse matrices.
+ *
+ * @author Peter Abeles
+ */
+public class SingularOps_DSCC {
+
+    /**
+     * Computes the k largest singular values and their vectors using {@link SvdRandomized_DSCC}. The singular
+     * vectors are dense. Singular values are in descending order.
+     *
+     * @param A (Input) Matrix being decomposed. Not modified.
+     * @param k Number of singular values
+     * @return The truncated SVD
+     */
+    public static SvdRandomized_DSCC truncatedSvd( DMatrixSparseCSC A, int k ) {
+        SvdRandomized_DSCC svd = new SvdRandomized_DSCC(k);
+        if (!svd.decompose(A))
+            throw new RuntimeException("SVD Failed!");
+        return svd;
+    }
+}
@@ -0,0 +1,510 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.sparse.csc.decomposition.chol;
+
+import org.ejml.data.DGrowArray;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.data.IGrowArray;
+import org.ejml.dense.block.InnerMultiplication_DDRB;
+import org.ejml.dense.block.InnerTriangularSolver_DDRB;
+import org.ejml.dense.block.decomposition.chol.InnerCholesky_DDRB;
+import org.ejml.sparse.csc.CommonOps_DSCC;
+import org.ejml.sparse.csc.misc.TriangularSolver_DSCC;
+
+import java.util.Arrays;
+
+import static org.ejml.UtilEjml.adjust;
+
+/**
+ * <p>
+ * Left looking supernodal Cholesky decomposition of a {@link DMatrixSparseCSC}. A supernode is a set of
+ * contiguous columns in L which share the same non-zero pattern below the diagonal. Each supernode is stored
+ * as a dense row-major block and is factored using the dense inner kernels from the block package, which
+ * is much faster than the scalar up looking algorithm when L contains large dense column blocks.
+ * </p>
+ *
+ * <p>
+ * The symbolic analysis of {@link CholeskyUpLooking_DSCC} is reused. Fundamental supernodes are found by looking
+ * for a column whose parent in the elimination tree is the next column and has one less non-zero element.
+ * Most of the work is often in a few wide supernodes, even when the typical supernode is narrow. The decision
+ * to use the supernodal algorithm is therefore weighted by the number of floating point operations in each
+ * fundamental supernode. If this weighted average width is less than {@link #getMinimumWeightedWidth()} then
+ * the up looking algorithm is used instead and the output is the same as for the up looking algorithm.
+ * </p>
+ *
+ * <p>
+ * Otherwise a supernode is merged into its parent when the parent starts at the next column and only a few
+ * explicit zeros are added to L, which is known as relaxed amalgamation. Merged supernodes make L a bit larger.
+ * In exchange there are fewer, larger blocks for the dense kernels. The non-zero pattern of L is the pattern of
+ * the merged supernodes.
+ * </p>
+ *
+ * <p>
+ * Memory: while the supernodal algorithm is used, a dense copy of every supernode is kept in addition to L. This
+ * roughly doubles the memory needed to store the decomposition.
+ * </p>
+ *
+ * <p>See chapter 9 in "Direct Methods for Sparse Linear Systems" by Timothy A. Davis</p>
+ *
+ * @author Peter Abeles
+ */
+public class CholeskySupernodal_DSCC extends CholeskyUpLooking_DSCC {
+    // number of supernodes
+    int numSupernodes;
+    // index of the first column in each supernode. length = numSupernodes+1
+    int[] first = new int[1];
+    // which supernode each column belongs to
+    int[] columnToNode = new int[1];
+    // index of the start of each supernode's dense block. length = numSupernodes+1
+    int[] blockIdx = new int[1];
+    // size of the largest supernode block
+    int largestBlock;
+    // Descendants which modify each supernode. The descendants of J are in updateNode from updateIdx[J] to
+    // updateIdx[J+1]. updateRow is the index of the first row in the descendant which is inside of J.
+    int[] updateIdx = new int[1];
+    int[] updateNode = new int[0];
+    int[] updateRow = new int[0];
+
+    // If the flop weighted average width of the fundamental supernodes is less than this then the up looking
+    // algorithm is used. Around this width the two algorithms took about the same time on 2D and 3D Laplacians
+    double minimumWeightedWidth = 64.0;
+    // If true then supernodes are merged with their parent when few zeros are added
+    boolean relaxSupernodes = true;
+    // true if the most recent symbolic decomposition selected the supernodal algorithm
+    boolean supernodal;
+
+    // transpose of the input matrix. Used to access rows of the upper triangle
+    DMatrixSparseCSC At = new DMatrixSparseCSC(1, 1, 0);
+
+    // Dense storage for all the supernodes. This duplicates the values in L, which are copied out of it
+    DGrowArray gblocks = new DGrowArray();
+    // storage for the update from a descendant
+    DGrowArray gupdate = new DGrowArray();
+
+    // workspace
+    IGrowArray gmap = new IGrowArray();
+    IGrowArray gsymb = new IGrowArray();
+    IGrowArray gstack = new IGrowArray();
+
+    @Override
+    public void performSymbolic( DMatrixSparseCSC A ) {
+        super.performSymbolic(A);
+
+        int N = A.numCols;
+
+        // Row pattern in L is computed now since the location of each supernode needs to be known
+        int[] c = adjust(gsymb, N);
+        int[] s = adjust(gstack, N);
+        System.arraycopy(L.col_idx, 0, c, 0, N);
+        for (int k = 0; k < N; k++) {
+            int top = TriangularSolver_DSCC.searchNzRowsElim(A, k, parent, s, c);
+            for (; top < N; top++) {
+                L.nz_rows[c[s[top]]++] = k;
+            }
+            L.nz_rows[c[k]++] = k;
+        }
+
+        findSupernodes(N);
+    }
+
+    /**
+     * Finds the fundamental supernodes and decides if the supernodal algorithm should be used. If so the
+     * supernodes are relaxed and the location of each supernode's dense block is found.
+     */
+    void findSupernodes( int N ) {
+        if (first.length < N + 1) {
+            first = new int[N + 1];
+            columnToNode = new int[N];
+            blockIdx = new int[N + 1];
+        }
+
+        numSupernodes = 0;
+        for (int j = 0; j < N; j++) {
+            if (j == 0 || parent[j - 1] != j || counts[j - 1] != counts[j] + 1) {
+                first[numSupernodes++] = j;
+            }
+        }
+        first[numSupernodes] = N;
+
+        supernodal = weightedWidth() >= minimumWeightedWidth;
+        if (!supernodal)
+            return;
+
+        if (relaxSupernodes) {
+            // The pattern of supernode J is the columns before pattern[J] plus the rows in column pattern[J]
+            int[] pattern = adjust(gstack, N);
+            int numFundamental = numSupernodes;
+            relaxSupernodes(pattern);
+            if (numSupernodes != numFundamental)
+                applyRelaxedPattern(pattern);
+        }
+
+        for (int J = 0; J < numSupernodes; J++) {
+            for (int j = first[J]; j < first[J + 1]; j++) {
+                columnToNode[j] = J;
+            }
+        }
+
+        largestBlock = 0;
+        blockIdx[0] = 0;
+        for (int J = 0; J < numSupernodes; J++) {
+            int width = first[J + 1] - first[J];
+            int size = counts[first[J]]*width;
+            blockIdx[J + 1] = blockIdx[J] + size;
+            largestBlock = Math.max(largestBlock, size);
+        }
+
+        findDescendants();
+    }
+
+    /**
+     * Relaxed amalgamation. Each supernode is merged with the supernode after it if that is its parent in the
+     * elimination tree and the merged supernode doesn't have too many explicit zeros. Since the parent's
+     * pattern contains the child's pattern below the child's columns, the merged pattern is the child's columns
+     * followed by the parent's pattern.
+     *
+     * @param pattern (Output) For each merged supernode, the column its pattern below the leading columns is
+     * taken from
+     */
+    void relaxSupernodes( int[] pattern ) {
+        if (numSupernodes == 0)
+            return;
+
+        int merged = 0;
+        int col0 = first[0];
+        pattern[0] = col0;
+        double nonzeros = countNonZeros(0);
+
+        for (int J = 1; J < numSupernodes; J++) {
+            int col = first[J];
+            double nonzerosJ = countNonZeros(J);
+
+            if (parent[col - 1] == col) {
+                int width = first[J + 1] - col0;
+                int height = col - col0 + counts[col];
+                double entries = (double)width*height - width*(width - 1)/2.0;
+                double fraction = (entries - nonzeros - nonzerosJ)/entries;
+                if (isRelaxedMerge(width, fraction)) {
+                    pattern[merged] = col;
+                    nonzeros += nonzerosJ;
+                    continue;
+                }
+            }
+
+            first[merged++] = col0;
+            col0 = col;
+            pattern[merged] = col;
+            nonzeros = nonzerosJ;
+        }
+        first[merged++] = col0;
+        first[merged] = first[numSupernodes];
+        numSupernodes = merged;
+    }
+
+    /**
+     * Returns true if a merged supernode with the specified number of columns and fraction of explicit zeros
+     * should be kept. Narrow supernodes can have more zeros since the overhead of processing them dominates.
+     * Similar to CHOLMOD's rules but with fewer zeros allowed in narrow supernodes, since the dense kernels
+     * used here are not as fast as an optimized BLAS.
+     */
+    static boolean isRelaxedMerge( int width, double fractionZeros ) {
+        return (width <= 4 && fractionZeros < 0.5) ||
+                (width <= 16 && fractionZeros < 0.2) ||
+                (width <= 48 && fractionZeros < 0.1) ||
+                fractionZeros < 0.05;
+    }
+
+    /**
+     * Number of non-zero elements in L inside of fundamental supernode J
+     */
+    private double countNonZeros( int J ) {
+        double total = 0;
+        for (int j = first[J]; j < first[J + 1]; j++) {
+            total += counts[j];
+        }
+        return total;
+    }
+
+    /**
+     * Average width of the supernodes weighted by the number of floating point operations needed to factor
+     * each one. Factoring column j requires about counts[j]<sup>2</sup> operations.
+     */
+    double weightedWidth() {
+        double total = 0;
+        double weighted = 0;
+        for (int J = 0; J < numSupernodes; J++) {
+            int width = first[J + 1] - first[J];
+            int height = counts[first[J]];
+            double flops = 0;
+            for (int i = 0; i < width; i++) {
+                flops += (double)(height - i)*(height - i);
+            }
+            total += flops;
+            weighted += flops*width;
+        }
+        return total == 0 ? 0 : weighted/total;
+    }
+
+    /**
+     * Changes the non-zero pattern of L so that every column in a supernode has the supernode's pattern
+     */
+    private void applyRelaxedPattern( int[] pattern ) {
+        // Find the new pattern before modifying L, since it's computed from the fundamental pattern
+        int total = 0;
+        for (int J = 0; J < numSupernodes; J++) {
+            int width = first[J + 1] - first[J];
+            int height = pattern[J] - first[J] + counts[pattern[J]];
+            total += width*height - width*(width - 1)/2;
+        }
+        int[] rows = adjust(gsymb, total);
+        int index = 0;
+        for (int J = 0; J < numSupernodes; J++) {
+            int col = pattern[J];
+            int idx1 = L.col_idx[col + 1];
+            for (int k = first[J]; k < first[J + 1]; k++) {
+                for (int row = k; row < col; row++) {
+                    rows[index++] = row;
+                }
+                int idx0 = L.col_idx[col] + Math.max(0, k - col);
+                System.arraycopy(L.nz_rows, idx0, rows, index, idx1 - idx0);
+                index += idx1 - idx0;
+            }
+        }
+
+        // The columns in front of the pattern's column now have its rows plus every column in between
+        for (int J = 0; J < numSupernodes; J++) {
+            int col = pattern[J];
+            for (int k = first[J]; k < col; k++) {
+                counts[k] = col - k + counts[col];
+            }
+        }
+        L.histogramToStructure(counts);
+        System.arraycopy(rows, 0, L.nz_rows, 0, total);
+    }
+
+    /**
+     * For each supernode J, finds every supernode K which modifies it and the first row in K that's inside
+     * of J's columns. A descendant's rows are sorted, so all the rows in the same supernode are adjacent.
+     */
+    void findDescendants() {
+        int[] histogram = adjust(gsymb, numSupernodes + 1, numSupernodes + 1);
+        int total = 0;
+        for (int pass = 0; pass < 2; pass++) {
+            for (int K = 0; K < numSupernodes; K++) {
+                int widthK = first[K + 1] - first[K];
+                int rowsK = L.col_idx[first[K]];
+                int heightK = L.col_idx[first[K] + 1] - rowsK;
+
+                int p = widthK;
+                while (p < heightK) {
+                    int J = columnToNode[L.nz_rows[rowsK + p]];
+                    if (pass == 0) {
+                        histogram[J]++;
+                    } else {
+                        int index = histogram[J]++;
+                        updateNode[index] = K;
+                        updateRow[index] = p;
+                    }
+                    // skip to the first row which is not in J
+                    while (p < heightK && L.nz_rows[rowsK + p] < first[J + 1]) {
+                        p++;
+                    }
+                }
+            }
+
+            if (pass == 0) {
+                // convert the histogram into the start of each list
+                if (updateIdx.length < numSupernodes + 1)
+                    updateIdx = new int[numSupernodes + 1];
+                total = 0;
+                for (int J = 0; J < numSupernodes; J++) {
+                    int count = histogram[J];
+                    updateIdx[J] = histogram[J] = total;
+                    total += count;
+                }
+                updateIdx[numSupernodes] = total;
+                if (updateNode.length < total) {
+                    updateNode = new int[total];
+                    updateRow = new int[total];
+                }
+            }
+        }
+    }
+
+    @Override
+    protected boolean performDecomposition( DMatrixSparseCSC A ) {
+        int N = A.numCols;
+        if (!supernodal)
+            return super.performDecomposition(A);
+
+        CommonOps_DSCC.transpose(A, At, gw);
+
+        double[] blocks = adjust(gblocks, blockIdx[numSupernodes]);
+        double[] update = adjust(gupdate, largestBlock);
+        int[] map = adjust(gmap, N);
+
+        for (int J = 0; J < numSupernodes; J++) {
+            if (!factorSupernode(J, blocks, update, map))
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Computes the values in supernode J and copies them into L. All the descendants of J must have already
+     * been processed.
+     *
+     * @param J Which supernode
+     * @param blocks Dense storage for all the supernodes
+     * @param update Workspace for descendant updates. Must have a length of at least largestBlock
+     * @param map Workspace. Must have a length of at least N
+     * @return true if the supernode is positive definite
+     */
+    protected boolean factorSupernode( int J, double[] blocks, double[] update, int[] map ) {
+        int col0 = first[J];
+        int col1 = first[J + 1];
+        int width = col1 - col0;
+        int idxRows = L.col_idx[col0];
+        int height = L.col_idx[col0 + 1] - idxRows;
+        int idxBlock = blockIdx[J];
+
+        // Location of each row inside of this supernode
+        for (int i = 0; i < height; i++) {
+            map[L.nz_rows[idxRows + i]] = i;
+        }
+
+        // Copy the lower triangular portion of A into the supernode. Only the upper triangle in A is
+        // used, so the transpose is used to access it
+        Arrays.fill(blocks, idxBlock, idxBlock + height*width, 0);
+        for (int col = col0; col < col1; col++) {
+            int offset = idxBlock + col - col0;
+            int idx0 = At.col_idx[col];
+            int idx1 = At.col_idx[col + 1];
+            for (int p = idx0; p < idx1; p++) {
+                int row = At.nz_rows[p];
+                if (row >= col) {
+                    blocks[offset + map[row]*width] = At.nz_values[p];
+                }
+            }
+        }
+
+        // Subtract the contribution from all descendants which modify this supernode
+        for (int i = updateIdx[J]; i < updateIdx[J + 1]; i++) {
+            updateFromDescendant(updateNode[i], updateRow[i], J, blocks, update, map);
+        }
+
+        // Factor the diagonal block then solve for the elements below it
+        if (!InnerCholesky_DDRB.lower(blocks, idxBlock, width)) {
+            return false;
+        }
+        if (height > width) {
+            InnerTriangularSolver_DDRB.solveLTransB(blocks, blocks, width, height - width,
+                    width, idxBlock, idxBlock + width*width);
+        }
+
+        // Copy the results into L
+        for (int col = col0; col < col1; col++) {
+            int offset = col - col0;
+            int idxL = L.col_idx[col];
+            for (int i = offset; i < height; i++) {
+                L.nz_values[idxL++] = blocks[idxBlock + i*width + offset];
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Subtracts L<sub>K</sub>*L<sub>K</sub><sup>T</sup> from supernode J using the rows in descendant K
+     * which are inside of J's columns.
+     *
+     * @param p0 Index of the first row in K which is inside of J's columns
+     */
+    private void updateFromDescendant( int K, int p0, int J, double[] blocks, double[] update, int[] map ) {
+        int col0 = first[J];
+        int col1 = first[J + 1];
+        int width = col1 - col0;
+        int idxBlock = blockIdx[J];
+
+        int widthK = first[K + 1] - first[K];
+        int rowsK = L.col_idx[first[K]];
+        int heightK = L.col_idx[first[K] + 1] - rowsK;
+        int idxBlockK = blockIdx[K];
+
+        // Rows in K from p0 to p1 are inside of J's columns. All rows after p0 are inside of J's rows
+        int p1 = p0;
+        while (p1 < heightK && L.nz_rows[rowsK + p1] < col1) {
+            p1++;
+        }
+        int numRows = heightK - p0;
+        int numCols = p1 - p0;
+
+        int indexK = idxBlockK + p0*widthK;
+        InnerMultiplication_DDRB.blockMultSetTransB(blocks, blocks, update,
+                indexK, indexK, 0, numRows, widthK, numCols);
+
+        // Scatter the update into J
+        for (int i = 0; i < numRows; i++) {
+            int indexJ = idxBlock + map[L.nz_rows[rowsK + p0 + i]]*width - col0;
+            int indexU = i*numCols;
+            for (int j = 0; j < numCols; j++) {
+                blocks[indexJ + L.nz_rows[rowsK + p0 + j]] -= update[indexU + j];
+            }
+        }
+    }
+
+    /**
+     * Returns the number of supernodes found in the most recent symbolic decomposition
+     */
+    public int getNumSupernodes() {
+        return numSupernodes;
+    }
+
+    /**
+     * Returns true if the most recent symbolic decomposition selected the supernodal algorithm
+     */
+    public boolean isSupernodal() {
+        return supernodal;
+    }
+
+    public double getMinimumWeightedWidth() {
+        return minimumWeightedWidth;
+    }
+
+    /**
+     * If the average number of columns in a fundamental supernode, weighted by the number of floating point
+     * operations needed to factor it, is less than this value then the up looking algorithm is used instead. Set to zero
+     * to always use the supernodal algorithm. Takes effect at the next symbolic decomposition.
+     */
+    public void setMinimumWeightedWidth( double minimumWeightedWidth ) {
+        this.minimumWeightedWidth = minimumWeightedWidth;
+    }
+
+    public boolean isRelaxSupernodes() {
+        return relaxSupernodes;
+    }
+
+    /**
+     * If true then supernodes are merged with their parent when only a few explicit zeros are added to L.
+     * Takes effect at the next symbolic decomposition.
+     */
+    public void setRelaxSupernodes( boolean relaxSupernodes ) {
+        this.relaxSupernodes = relaxSupernodes;
+    }
+}
@@ -0,0 +1,290 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.sparse.csc.decomposition.chol;
+
+import org.ejml.concurrency.ConcurrencyOperation;
+import org.ejml.concurrency.EjmlConcurrency;
+import org.ejml.concurrency.GrowArray;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.sparse.csc.CommonOps_DSCC;
+import org.ejml.sparse.csc.mult.Workspace_MT_DSCC;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+import static org.ejml.UtilEjml.adjust;
+
+/**
+ * <p>
+ * Concurrent implementation of {@link CholeskySupernodal_DSCC}. Supernodes in independent subtrees of the
+ * elimination tree do not modify each other and can be factored at the same time.
+ * </p>
+ *
+ * <p>
+ * The elimination tree is split from the roots down until there are enough subtrees that the work can be
+ * evenly distributed between threads. The subtrees are then packed into one bin per thread, with the most
+ * expensive subtrees assigned first. Each bin is processed by a single thread. The supernodes above the
+ * subtrees are processed level by level, where every supernode in a level only depends on lower levels.
+ * The work in a subtree is estimated using the sum of the squared column counts in L.
+ * </p>
+ *
+ * <p>
+ * The same as the single threaded version, the up looking algorithm is used if the supernodes are narrow. When
+ * the cost model predicts that the decomposition is too small to benefit from concurrency, or only one thread
+ * is available, the single threaded supernodal algorithm is used instead.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class CholeskySupernodal_MT_DSCC extends CholeskySupernodal_DSCC {
+    // parent of each supernode in the elimination tree. -1 if it's a root
+    int[] nodeParent = new int[1];
+    // estimated cost of the subtree rooted at each supernode
+    double[] cost = new double[1];
+    // which bin a supernode belongs to or -1 if it's above the subtrees
+    int[] owner = new int[1];
+
+    // Supernodes inside of each bin are stored from binIdx[i] to binIdx[i+1] in ascending order
+    int numBins;
+    int[] binIdx = new int[1];
+    int[] binNodes = new int[1];
+
+    // Supernodes above the subtrees are stored from levelIdx[i] to levelIdx[i+1] in levelNodes
+    int numLevels;
+    int[] levelIdx = new int[1];
+    int[] levelNodes = new int[1];
+
+    // Estimated number of floating point operations in the numerical decomposition
+    double flops;
+
+    // Number of threads the schedule was computed for. -1 if it needs to be recomputed
+    int scheduledThreads = -1;
+
+    // set to true if a supernode isn't positive definite
+    volatile boolean failed;
+
+    GrowArray<Workspace_MT_DSCC> workspace = new GrowArray<>(Workspace_MT_DSCC::new);
+
+    @Override
+    public void performSymbolic( DMatrixSparseCSC A ) {
+        super.performSymbolic(A);
+        scheduledThreads = -1;
+
+        flops = 0;
+        for (int J = 0; J < numSupernodes; J++) {
+            int height = counts[first[J]];
+            for (int i = 0; i < first[J + 1] - first[J]; i++) {
+                flops += (double)(height - i)*(height - i);
+            }
+        }
+    }
+
+    @Override
+    protected boolean performDecomposition( DMatrixSparseCSC A ) {
+        if (!supernodal)
+            return super.performDecomposition(A);
+
+        try (ConcurrencyOperation op = EjmlConcurrency.operation("CholeskySupernodal_MT_DSCC.decompose", flops)) {
+            if (!op.isConcurrent())
+                return super.performDecomposition(A);
+            return performConcurrent(A);
+        }
+    }
+
+    /**
+     * Factors independent subtrees at the same time and then the levels above them
+     */
+    private boolean performConcurrent( DMatrixSparseCSC A ) {
+        final int N = A.numCols;
+
+        int numThreads = EjmlConcurrency.getMaxThreads();
+        if (numThreads != scheduledThreads)
+            createSchedule(numThreads);
+
+        CommonOps_DSCC.transpose(A, At, gw);
+
+        final double[] blocks = adjust(gblocks, blockIdx[numSupernodes]);
+        failed = false;
+
+        // Factor all the independent subtrees
+        EjmlConcurrency.loopFor(0, numBins, 1, workspace, ( work, bin ) -> {
+            double[] update = adjust(work.gx, largestBlock);
+            int[] map = adjust(work.gw, N);
+            for (int i = binIdx[bin]; i < binIdx[bin + 1] && !failed; i++) {
+                if (!factorSupernode(binNodes[i], blocks, update, map)) {
+                    failed = true;
+                }
+            }
+        });
+
+        // Factor everything above the subtrees
+        for (int level = 0; level < numLevels && !failed; level++) {
+            final int idx0 = levelIdx[level];
+            int length = levelIdx[level + 1] - idx0;
+
+            if (length == 1) {
+                workspace.resize(1);
+                Workspace_MT_DSCC work = workspace.get(0);
+                if (!factorSupernode(levelNodes[idx0], blocks, adjust(work.gx, largestBlock), adjust(work.gw, N))) {
+                    failed = true;
+                }
+            } else {
+                EjmlConcurrency.loopFor(0, length, 1, workspace, ( work, i ) -> {
+                    if (!factorSupernode(levelNodes[idx0 + i], blocks, adjust(work.gx, largestBlock), adjust(work.gw, N))) {
+                        failed = true;
+                    }
+                });
+            }
+        }
+
+        return !failed;
+    }
+
+    /**
+     * Splits the supernodal elimination tree into subtrees which can be processed independently and the
+     * levels above the subtrees.
+     *
+     * @param numThreads Number of threads the work is split between
+     */
+    void createSchedule( int numThreads ) {
+        scheduledThreads = numThreads;
+        final int ns = numSupernodes;
+
+        if (nodeParent.length < ns) {
+            nodeParent = new int[ns];
+            cost = new double[ns];
+            owner = new int[ns];
+            binNodes = new int[ns];
+            levelNodes = new int[ns];
+        }
+
+        // Construct the supernodal elimination tree and the cost of each subtree. Children always have
+        // a lower index than their parent
+        int[] childHead = adjust(gsymb, ns);
+        int[] childNext = adjust(gstack, ns);
+        Arrays.fill(childHead, 0, ns, -1);
+        for (int J = 0; J < ns; J++) {
+            int last = first[J + 1] - 1;
+            nodeParent[J] = parent[last] == -1 ? -1 : columnToNode[parent[last]];
+            if (nodeParent[J] != -1) {
+                childNext[J] = childHead[nodeParent[J]];
+                childHead[nodeParent[J]] = J;
+            }
+        }
+        Arrays.fill(cost, 0, ns, 0);
+        for (int J = 0; J < ns; J++) {
+            int height = counts[first[J]];
+            int width = first[J + 1] - first[J];
+            for (int i = 0; i < width; i++) {
+                cost[J] += (double)(height - i)*(height - i);
+            }
+            if (nodeParent[J] != -1)
+                cost[nodeParent[J]] += cost[J];
+        }
+
+        // Split the largest subtree until it's no more than its share of the work
+        PriorityQueue<Integer> queue = new PriorityQueue<>(( a, b ) -> Double.compare(cost[b], cost[a]));
+        double queueCost = 0;
+        for (int J = 0; J < ns; J++) {
+            owner[J] = -2;
+            if (nodeParent[J] == -1) {
+                queue.add(J);
+                queueCost += cost[J];
+            }
+        }
+        while (!queue.isEmpty()) {
+            int J = queue.peek();
+            if (queue.size() >= numThreads && cost[J]*numThreads <= queueCost)
+                break;
+            if (childHead[J] == -1)
+                break;
+            queue.poll();
+            queueCost -= cost[J];
+            owner[J] = -1;
+            for (int child = childHead[J]; child != -1; child = childNext[child]) {
+                queue.add(child);
+                queueCost += cost[child];
+            }
+        }
+
+        // Assign the subtrees to bins, most expensive first and to the bin with the least work
+        numBins = Math.min(numThreads, queue.size());
+        double[] binCost = new double[numBins];
+        while (!queue.isEmpty()) {
+            int J = queue.poll();
+            int best = 0;
+            for (int bin = 1; bin < numBins; bin++) {
+                if (binCost[bin] < binCost[best])
+                    best = bin;
+            }
+            binCost[best] += cost[J];
+            owner[J] = best;
+        }
+        // Descendants belong to the same bin as their subtree root
+        for (int J = ns - 1; J >= 0; J--) {
+            if (owner[J] == -2)
+                owner[J] = owner[nodeParent[J]];
+        }
+
+        // Sort supernodes into each bin. Ascending order ensures descendants are processed first
+        if (binIdx.length < numBins + 1)
+            binIdx = new int[numBins + 1];
+        Arrays.fill(binIdx, 0, numBins + 1, 0);
+        for (int J = 0; J < ns; J++) {
+            if (owner[J] >= 0)
+                binIdx[owner[J] + 1]++;
+        }
+        for (int bin = 0; bin < numBins; bin++) {
+            binIdx[bin + 1] += binIdx[bin];
+        }
+        int[] location = adjust(gsymb, numBins);
+        System.arraycopy(binIdx, 0, location, 0, numBins);
+        for (int J = 0; J < ns; J++) {
+            if (owner[J] >= 0)
+                binNodes[location[owner[J]]++] = J;
+        }
+
+        // Find the level of each supernode above the subtrees. A parent is always above its children
+        int[] level = adjust(gstack, ns, ns);
+        numLevels = 0;
+        for (int J = 0; J < ns; J++) {
+            if (owner[J] != -1)
+                continue;
+            numLevels = Math.max(numLevels, level[J] + 1);
+            if (nodeParent[J] != -1)
+                level[nodeParent[J]] = Math.max(level[nodeParent[J]], level[J] + 1);
+        }
+        if (levelIdx.length < numLevels + 1)
+            levelIdx = new int[numLevels + 1];
+        Arrays.fill(levelIdx, 0, numLevels + 1, 0);
+        for (int J = 0; J < ns; J++) {
+            if (owner[J] == -1)
+                levelIdx[level[J] + 1]++;
+        }
+        for (int i = 0; i < numLevels; i++) {
+            levelIdx[i + 1] += levelIdx[i];
+        }
+        location = adjust(gsymb, numLevels);
+        System.arraycopy(levelIdx, 0, location, 0, numLevels);
+        for (int J = 0; J < ns; J++) {
+            if (owner[J] == -1)
+                levelNodes[location[level[J]]++] = J;
+        }
+    }
+}
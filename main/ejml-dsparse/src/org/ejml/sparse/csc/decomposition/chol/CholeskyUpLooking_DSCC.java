@@ -52,6 +52,9 @@ public class CholeskyUpLooking_DSCC implements
     int[] counts = new int[1];
     ColumnCounts_DSCC columnCounter = new ColumnCounts_DSCC(false);
 
+    // used to modify the decomposition after a low rank change
+    @Nullable CholeskyUpdate_DSCC updater;
+
     // true if it has successfully decomposed a matrix
     private boolean decomposed = false;
     // if true then the structure is locked and won't be computed again
@@ -93,7 +96,7 @@ public class CholeskyUpLooking_DSCC implements
         }
     }
 
-    private boolean performDecomposition( DMatrixSparseCSC A ) {
+    protected boolean performDecomposition( DMatrixSparseCSC A ) {
         int[] c = adjust(gw, N);
         int[] s = adjust(gs, N);
         double[] x = adjust(gx, N);
@@ -173,6 +176,35 @@ public class CholeskyUpLooking_DSCC implements
         return new Complex_F64(value*value, 0);
     }
 
+    /**
+     * Modifies L so that it's the decomposition of A + X*X<sup>T</sup>, where A is the previously decomposed
+     * matrix. See {@link CholeskyUpdate_DSCC} for restrictions on the non-zero pattern of X.
+     *
+     * @param X An n by k matrix. Not modified.
+     * @return true if successful
+     */
+    public boolean update( DMatrixSparseCSC X ) {
+        return getUpdater().update(L, X);
+    }
+
+    /**
+     * Modifies L so that it's the decomposition of A - X*X<sup>T</sup>, where A is the previously decomposed
+     * matrix. See {@link CholeskyUpdate_DSCC} for restrictions on the non-zero pattern of X.
+     *
+     * @param X An n by k matrix. Not modified.
+     * @return true if successful or false if the modified matrix is not positive definite. L is not modified
+     * if false is returned.
+     */
+    public boolean downdate( DMatrixSparseCSC X ) {
+        return getUpdater().downdate(L, X);
+    }
+
+    private CholeskyUpdate_DSCC getUpdater() {
+        if (updater == null)
+            updater = new CholeskyUpdate_DSCC();
+        return updater;
+    }
+
     public DGrowArray getGx() {
         return gx;
     }
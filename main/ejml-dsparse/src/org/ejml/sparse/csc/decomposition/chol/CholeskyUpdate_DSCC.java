@@ -0,0 +1,258 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.sparse.csc.decomposition.chol;
+
+import org.ejml.data.DGrowArray;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.data.IGrowArray;
+import org.ejml.dense.row.decomposition.chol.CholeskyDecompositionInner_DDRM;
+
+import java.util.Arrays;
+
+import static org.ejml.UtilEjml.adjust;
+
+/**
+ * <p>
+ * Updates the sparse lower triangular matrix L in a Cholesky decomposition, A = L*L<sup>T</sup>, after a low
+ * rank change to A. The decomposition of A + X*X<sup>T</sup> (update) or A - X*X<sup>T</sup> (downdate) is
+ * computed, where X is an n by k sparse matrix. Each column x in X is applied as a rank-1 modification.
+ * </p>
+ *
+ * <p>
+ * If f is the first non-zero row in x, then only the columns of L on the path from f to the root of the
+ * elimination tree are modified. The parent of column j in the elimination tree is the first non-zero row below
+ * the diagonal in L(:,j), so the tree is found directly from L. The non-zero pattern of L is not changed, which
+ * requires that the pattern of x is a subset of the pattern of L(:,f). For example, this is true when x is
+ * a row in J and A = J<sup>T</sup>J.
+ * </p>
+ *
+ * <p>
+ * The rows in each column of L must be sorted with the diagonal element first, which is the output of
+ * {@link CholeskyUpLooking_DSCC}. A downdate can fail if the modified matrix is not positive definite. This is
+ * checked before L is modified.
+ * </p>
+ *
+ * <p>See page 63 in "Direct Methods for Sparse Linear Systems" by Timothy A. Davis</p>
+ *
+ * @author Peter Abeles
+ */
+public class CholeskyUpdate_DSCC {
+    // dense work vector. All zeros between calls
+    DGrowArray gw = new DGrowArray();
+
+    // Solutions to L*p = x. Column j is stored from pIdx[j] to pIdx[j+1] in pRows and pValues
+    IGrowArray gpIdx = new IGrowArray();
+    IGrowArray gpRows = new IGrowArray();
+    DGrowArray gpValues = new DGrowArray();
+
+    // Used to check if a downdate is possible
+    DMatrixRMaj S = new DMatrixRMaj(1, 1);
+    CholeskyDecompositionInner_DDRM chol = new CholeskyDecompositionInner_DDRM(true);
+
+    /**
+     * Changes L into the decomposition of A + X*X<sup>T</sup>
+     *
+     * @param L Lower triangular matrix from the decomposition of A. Modified.
+     * @param X An n by k matrix. Not modified.
+     * @return true if successful
+     */
+    public boolean update( DMatrixSparseCSC L, DMatrixSparseCSC X ) {
+        checkInput(L, X);
+        for (int col = 0; col < X.numCols; col++) {
+            if (!modify(L, X, col, 1.0))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Changes L into the decomposition of A - X*X<sup>T</sup>. If the modified matrix is not positive
+     * definite then false is returned and L is not modified.
+     *
+     * @param L Lower triangular matrix from the decomposition of A. Modified.
+     * @param X An n by k matrix. Not modified.
+     * @return true if successful or false if A - X*X<sup>T</sup> is not positive definite
+     */
+    public boolean downdate( DMatrixSparseCSC L, DMatrixSparseCSC X ) {
+        checkInput(L, X);
+        if (!isDowndatePositiveDefinite(L, X))
+            return false;
+        for (int col = 0; col < X.numCols; col++) {
+            if (!modify(L, X, col, -1.0))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Makes sure the inputs are compatible and the pattern of every column in X is contained in L
+     */
+    private static void checkInput( DMatrixSparseCSC L, DMatrixSparseCSC X ) {
+        if (L.numRows != L.numCols)
+            throw new IllegalArgumentException("L must be square");
+        if (X.numRows != L.numRows)
+            throw new IllegalArgumentException("X must have the same number of rows as L");
+
+        for (int col = 0; col < X.numCols; col++) {
+            int idx0 = X.col_idx[col];
+            int idx1 = X.col_idx[col + 1];
+            if (idx0 == idx1)
+                continue;
+            int f = firstRow(X, col);
+            int rows0 = L.col_idx[f];
+            int rows1 = L.col_idx[f + 1];
+            for (int p = idx0; p < idx1; p++) {
+                if (Arrays.binarySearch(L.nz_rows, rows0, rows1, X.nz_rows[p]) < 0)
+                    throw new IllegalArgumentException("Non-zero pattern of X(:," + col + ") is not contained in L(:," + f + ")");
+            }
+        }
+    }
+
+    private static int firstRow( DMatrixSparseCSC X, int col ) {
+        int f = Integer.MAX_VALUE;
+        for (int p = X.col_idx[col]; p < X.col_idx[col + 1]; p++) {
+            f = Math.min(f, X.nz_rows[p]);
+        }
+        return f;
+    }
+
+    /**
+     * Returns the parent of column j in the elimination tree or -1 if it's a root
+     */
+    private static int parent( DMatrixSparseCSC L, int j ) {
+        int p = L.col_idx[j] + 1;
+        return p < L.col_idx[j + 1] ? L.nz_rows[p] : -1;
+    }
+
+    /**
+     * A - X*X<sup>T</sup> = L*(I - P*P<sup>T</sup>)*L<sup>T</sup> where P = L<sup>-1</sup>X, so
+     * the downdated matrix is positive definite if I - P<sup>T</sup>P is positive definite. The non-zero
+     * pattern of each column in P is the path from its first row to the root, which is in ascending order.
+     */
+    boolean isDowndatePositiveDefinite( DMatrixSparseCSC L, DMatrixSparseCSC X ) {
+        final int N = L.numCols;
+        final int k = X.numCols;
+        final double[] w = adjust(gw, N);
+        final int[] pIdx = adjust(gpIdx, k + 1);
+
+        // Solve L*p = x for each column
+        int length = 0;
+        pIdx[0] = 0;
+        for (int col = 0; col < k; col++) {
+            int idx0 = X.col_idx[col];
+            int idx1 = X.col_idx[col + 1];
+            if (idx0 < idx1) {
+                for (int p = idx0; p < idx1; p++) {
+                    w[X.nz_rows[p]] = X.nz_values[p];
+                }
+                for (int j = firstRow(X, col); j != -1; j = parent(L, j)) {
+                    int p = L.col_idx[j];
+                    double alpha = w[j]/L.nz_values[p];
+                    w[j] = 0;
+                    for (p++; p < L.col_idx[j + 1]; p++) {
+                        w[L.nz_rows[p]] -= alpha*L.nz_values[p];
+                    }
+                    if (length >= gpRows.data.length || length >= gpValues.data.length) {
+                        int amount = Math.max(16, length);
+                        gpRows.growInternal(amount);
+                        gpValues.growInternal(amount);
+                    }
+                    gpRows.data[length] = j;
+                    gpValues.data[length++] = alpha;
+                }
+            }
+            pIdx[col + 1] = length;
+        }
+
+        // S = I - P'*P
+        S.reshape(k, k);
+        final int[] rows = gpRows.data;
+        final double[] values = gpValues.data;
+        for (int a = 0; a < k; a++) {
+            for (int b = a; b < k; b++) {
+                double dot = 0;
+                int pa = pIdx[a], pb = pIdx[b];
+                while (pa < pIdx[a + 1] && pb < pIdx[b + 1]) {
+                    if (rows[pa] < rows[pb]) {
+                        pa++;
+                    } else if (rows[pa] > rows[pb]) {
+                        pb++;
+                    } else {
+                        dot += values[pa++]*values[pb++];
+                    }
+                }
+                double v = (a == b ? 1.0 : 0.0) - dot;
+                S.data[a*k + b] = v;
+                S.data[b*k + a] = v;
+            }
+        }
+        return chol.decompose(S);
+    }
+
+    /**
+     * Applies a rank-1 modification using column 'col' in X
+     *
+     * @param sign +1 for an update and -1 for a downdate
+     */
+    private boolean modify( DMatrixSparseCSC L, DMatrixSparseCSC X, int col, double sign ) {
+        int idx0 = X.col_idx[col];
+        int idx1 = X.col_idx[col + 1];
+        if (idx0 == idx1)
+            return true;
+
+        final double[] w = adjust(gw, L.numCols);
+        for (int p = idx0; p < idx1; p++) {
+            w[X.nz_rows[p]] = X.nz_values[p];
+        }
+
+        final int f = firstRow(X, col);
+        final double[] Lx = L.nz_values;
+        boolean success = true;
+        double beta = 1.0;
+        for (int j = f; j != -1; j = parent(L, j)) {
+            int p = L.col_idx[j];
+            double alpha = w[j]/Lx[p];
+            double beta2 = beta*beta + sign*alpha*alpha;
+            if (beta2 <= 0.0) {
+                success = false;
+                break;
+            }
+            beta2 = Math.sqrt(beta2);
+            double delta = sign > 0 ? beta/beta2 : beta2/beta;
+            double gamma = sign*alpha/(beta2*beta);
+            Lx[p] = delta*Lx[p] + (sign > 0 ? gamma*w[j] : 0.0);
+            beta = beta2;
+
+            for (p++; p < L.col_idx[j + 1]; p++) {
+                double w1 = w[L.nz_rows[p]];
+                double w2 = w1 - alpha*Lx[p];
+                w[L.nz_rows[p]] = w2;
+                Lx[p] = delta*Lx[p] + gamma*(sign > 0 ? w1 : w2);
+            }
+        }
+
+        // Every element which was modified is on the path
+        for (int j = f; j != -1; j = parent(L, j)) {
+            w[j] = 0;
+        }
+        return success;
+    }
+}
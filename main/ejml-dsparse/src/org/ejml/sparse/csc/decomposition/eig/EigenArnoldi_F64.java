@@ -0,0 +1,237 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.sparse.csc.decomposition.eig;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.Complex_F64;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.NormOps_DDRM;
+import org.ejml.dense.row.factory.DecompositionFactory_DDRM;
+import org.ejml.interfaces.decomposition.EigenDecomposition_F64;
+
+/**
+ * <p>
+ * Implicitly restarted Arnoldi algorithm for computing a few extremal eigenpairs of a large real general
+ * matrix or operator. Eigenvalues can be complex and come in conjugate pairs. Following the convention used
+ * by {@link EigenDecomposition_F64}, eigenvectors are only returned for real eigenvalues.
+ * </p>
+ *
+ * <p>
+ * The eigenvalues of the projected Hessenberg matrix H are found with a dense eigenvalue decomposition and
+ * the eigenvectors of H are found with inverse iteration in complex arithmetic.
+ * </p>
+ *
+ * @author Peter Abeles
+ * @see EigenKrylovBase_F64
+ */
+public class EigenArnoldi_F64 extends EigenKrylovBase_F64 {
+    EigenDecomposition_F64<DMatrixRMaj> eig = DecompositionFactory_DDRM.eig(false, false);
+    DMatrixRMaj Hcopy = new DMatrixRMaj(1, 1);
+
+    // LU decomposition of H - theta*I in complex arithmetic
+    double[] luReal = new double[0];
+    double[] luImag = new double[0];
+    int[] pivots = new int[0];
+
+    /**
+     * @param numEigen Number of eigenvalues which are computed
+     * @param target Which eigenvalues are wanted
+     */
+    public EigenArnoldi_F64( int numEigen, Target target ) {
+        super(numEigen);
+        this.target = target;
+    }
+
+    /**
+     * Finds the largest eigenvalues by magnitude
+     *
+     * @param numEigen Number of eigenvalues which are computed
+     */
+    public EigenArnoldi_F64( int numEigen ) {
+        this(numEigen, Target.LARGEST_MAGNITUDE);
+    }
+
+    @Override
+    protected void computeRitzValues() {
+        Hcopy.set(H);
+        if (!eig.decompose(Hcopy))
+            throw new RuntimeException("Eigen decomposition of the Hessenberg matrix failed");
+
+        for (int i = 0; i < m; i++) {
+            Complex_F64 c = eig.getEigenvalue(i);
+            ritzReal[i] = c.real;
+            ritzImag[i] = c.imaginary;
+        }
+
+        // Make conjugate pairs exact so that they are never split when sorted or used as shifts
+        for (int i = 0; i < m; i++) {
+            if (ritzImag[i] <= 0.0)
+                continue;
+            int best = -1;
+            double bestError = Double.MAX_VALUE;
+            for (int j = 0; j < m; j++) {
+                if (ritzImag[j] >= 0.0)
+                    continue;
+                double error = Math.abs(ritzReal[i] - ritzReal[j]) + Math.abs(ritzImag[i] + ritzImag[j]);
+                if (error < bestError) {
+                    bestError = error;
+                    best = j;
+                }
+            }
+            if (best == -1)
+                continue;
+            double re = (ritzReal[i] + ritzReal[best])/2.0;
+            double im = (ritzImag[i] - ritzImag[best])/2.0;
+            ritzReal[i] = ritzReal[best] = re;
+            ritzImag[i] = im;
+            ritzImag[best] = -im;
+        }
+    }
+
+    @Override
+    protected void computeRitzVector( int index, double[] yReal, double[] yImag ) {
+        double re = ritzReal[index];
+        double im = ritzImag[index];
+
+        if (luReal.length < m*m) {
+            luReal = new double[m*m];
+            luImag = new double[m*m];
+            pivots = new int[m];
+        }
+
+        // perturbation for pivots which are exactly zero
+        double tiny = UtilEjml.EPS*Math.max(NormOps_DDRM.normF(H), UtilEjml.EPS);
+        decomposeShifted(re, im, tiny);
+
+        for (int i = 0; i < m; i++) {
+            yReal[i] = 1.0;
+            yImag[i] = 0.0;
+        }
+        // Two iterations are enough since the shift is an eigenvalue to working precision
+        for (int iteration = 0; iteration < 2; iteration++) {
+            solve(yReal, yImag);
+            double norm = 0;
+            for (int i = 0; i < m; i++) {
+                norm = Math.max(norm, (double)Math.hypot(yReal[i], yImag[i]));
+            }
+            double total = 0;
+            for (int i = 0; i < m; i++) {
+                yReal[i] /= norm;
+                yImag[i] /= norm;
+                total += yReal[i]*yReal[i] + yImag[i]*yImag[i];
+            }
+            total = Math.sqrt(total);
+            for (int i = 0; i < m; i++) {
+                yReal[i] /= total;
+                yImag[i] /= total;
+            }
+        }
+    }
+
+    /**
+     * LU decomposition with partial pivoting of H - (re + i*im)*I
+     */
+    private void decomposeShifted( double re, double im, double tiny ) {
+        final double[] ar = luReal, ai = luImag;
+        for (int i = 0; i < m*m; i++) {
+            ar[i] = H.data[i];
+            ai[i] = 0;
+        }
+        for (int i = 0; i < m; i++) {
+            ar[i*m + i] -= re;
+            ai[i*m + i] -= im;
+        }
+
+        for (int k = 0; k < m; k++) {
+            // H is Hessenberg so only the row below can be a pivot
+            int pivot = k;
+            if (k + 1 < m && Math.hypot(ar[(k + 1)*m + k], ai[(k + 1)*m + k]) > Math.hypot(ar[k*m + k], ai[k*m + k]))
+                pivot = k + 1;
+            pivots[k] = pivot;
+            if (pivot != k) {
+                for (int j = 0; j < m; j++) {
+                    double t = ar[k*m + j];
+                    ar[k*m + j] = ar[pivot*m + j];
+                    ar[pivot*m + j] = t;
+                    t = ai[k*m + j];
+                    ai[k*m + j] = ai[pivot*m + j];
+                    ai[pivot*m + j] = t;
+                }
+            }
+            double pr = ar[k*m + k], pi = ai[k*m + k];
+            if (Math.hypot(pr, pi) < tiny) {
+                ar[k*m + k] = pr = tiny;
+                ai[k*m + k] = pi = 0;
+            }
+            if (k + 1 == m)
+                break;
+
+            // l = a(k+1,k)/pivot
+            int row = (k + 1)*m;
+            double den = pr*pr + pi*pi;
+            double lr = (ar[row + k]*pr + ai[row + k]*pi)/den;
+            double li = (ai[row + k]*pr - ar[row + k]*pi)/den;
+            ar[row + k] = lr;
+            ai[row + k] = li;
+            for (int j = k + 1; j < m; j++) {
+                double ur = ar[k*m + j], ui = ai[k*m + j];
+                ar[row + j] -= lr*ur - li*ui;
+                ai[row + j] -= lr*ui + li*ur;
+            }
+        }
+    }
+
+    /**
+     * Solves the linear system using the decomposition. The solution overwrites the input.
+     */
+    private void solve( double[] br, double[] bi ) {
+        final double[] ar = luReal, ai = luImag;
+
+        // forward substitution. L has a single sub-diagonal
+        for (int k = 0; k + 1 < m; k++) {
+            int pivot = pivots[k];
+            if (pivot != k) {
+                double t = br[k];
+                br[k] = br[pivot];
+                br[pivot] = t;
+                t = bi[k];
+                bi[k] = bi[pivot];
+                bi[pivot] = t;
+            }
+            double lr = ar[(k + 1)*m + k], li = ai[(k + 1)*m + k];
+            br[k + 1] -= lr*br[k] - li*bi[k];
+            bi[k + 1] -= lr*bi[k] + li*br[k];
+        }
+
+        // backwards substitution
+        for (int i = m - 1; i >= 0; i--) {
+            double sr = br[i], si = bi[i];
+            for (int j = i + 1; j < m; j++) {
+                double ur = ar[i*m + j], ui = ai[i*m + j];
+                sr -= ur*br[j] - ui*bi[j];
+                si -= ur*bi[j] + ui*br[j];
+            }
+            double pr = ar[i*m + i], pi = ai[i*m + i];
+            double den = pr*pr + pi*pi;
+            br[i] = (sr*pr + si*pi)/den;
+            bi[i] = (si*pr - sr*pi)/den;
+        }
+    }
+}
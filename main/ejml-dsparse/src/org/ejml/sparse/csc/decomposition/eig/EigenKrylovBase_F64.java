@@ -0,0 +1,633 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.sparse.csc.decomposition.eig;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.Complex_F64;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * <p>
+ * Base class for implicitly restarted Krylov subspace eigenvalue algorithms. A few extremal eigenpairs of a large
+ * operator are found using only matrix-vector products. The operator is projected onto an orthonormal Krylov
+ * basis V of size m, A*V = V*H + f*e<sub>m</sub><sup>T</sup>, where H is an m by m upper Hessenberg matrix. The
+ * eigenvalues of H (Ritz values) approximate the eigenvalues of A. When the wanted Ritz values have not converged,
+ * the unwanted Ritz values are used as exact shifts in shifted QR steps on H, which filters the unwanted directions
+ * out of the basis while keeping a Krylov factorization of size k. The basis is then expanded back to size m.
+ * </p>
+ *
+ * <p>
+ * The basis is always fully re-orthogonalized using classical Gram-Schmidt applied twice. The estimated error
+ * of a Ritz pair (&theta;,y) is |f|*|e<sub>m</sub><sup>T</sup>y|, which is the norm of the residual
+ * A*x - &theta;*x for the Ritz vector x = V*y. A Ritz pair has converged when its error is less than
+ * tol*|&theta;|.
+ * </p>
+ *
+ * <p>
+ * Shift-invert mode finds the eigenvalues closest to a shift &sigma; by applying the algorithm to
+ * (A - &sigma;I)<sup>-1</sup>, see {@link ShiftInvertOperator_DSCC}.
+ * </p>
+ *
+ * <p>
+ * [1] R. B. Lehoucq, D. C. Sorensen, C. Yang, "ARPACK Users' Guide", SIAM, 1998
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public abstract class EigenKrylovBase_F64 {
+    /**
+     * Which eigenvalues are wanted
+     */
+    public enum Target {
+        /** Largest absolute value */
+        LARGEST_MAGNITUDE,
+        /** Largest real component. Largest algebraic value for symmetric matrices. */
+        LARGEST_REAL,
+        /** Smallest real component. Smallest algebraic value for symmetric matrices. */
+        SMALLEST_REAL
+    }
+
+    // Number of wanted eigenvalues
+    protected int numEigen;
+    // Number of basis vectors. If zero then it's selected automatically
+    protected int basisSize = 0;
+    protected int maxRestarts = 300;
+    protected double tolerance = 1e-10;
+    protected Target target = Target.LARGEST_MAGNITUDE;
+    protected Random rand = new Random(0xBEEF);
+
+    // Number of rows and columns in the operator
+    protected int N;
+    // Number of basis vectors being used
+    protected int m;
+    // The basis is stored in the rows. Row m is the normalized residual
+    protected DMatrixRMaj V = new DMatrixRMaj(1, 1);
+    // Projection of the operator onto the basis
+    protected DMatrixRMaj H = new DMatrixRMaj(1, 1);
+    // norm of the residual
+    protected double residualNorm;
+
+    // Ritz values and their order. Wanted values are first
+    protected double[] ritzReal = new double[0];
+    protected double[] ritzImag = new double[0];
+    protected Integer[] order = new Integer[0];
+    // Work space for a Ritz vector
+    protected double[] yReal = new double[0];
+    protected double[] yImag = new double[0];
+
+    // Results
+    protected int numConverged;
+    protected int restarts;
+    protected Complex_F64[] values = new Complex_F64[0];
+    protected @Nullable DMatrixRMaj[] vectors = new DMatrixRMaj[0];
+
+    // Used to apply shifts to H
+    protected DMatrixRMaj Q = new DMatrixRMaj(1, 1);
+    protected DMatrixRMaj Qshift = new DMatrixRMaj(1, 1);
+    protected DMatrixRMaj M = new DMatrixRMaj(1, 1);
+    protected DMatrixRMaj work = new DMatrixRMaj(1, 1);
+    protected DMatrixRMaj Vnew = new DMatrixRMaj(1, 1);
+    protected double[] v = new double[0];
+    protected double[] w = new double[0];
+    protected double[] h = new double[0];
+
+    /**
+     * @param numEigen Number of eigenvalues which are computed
+     */
+    protected EigenKrylovBase_F64( int numEigen ) {
+        setNumEigen(numEigen);
+    }
+
+    /**
+     * Computes the wanted eigenpairs of a sparse matrix
+     *
+     * @param A Square matrix. Not modified.
+     * @return true if all the eigenvalues converged
+     */
+    public boolean process( DMatrixSparseCSC A ) {
+        return process(new MatrixOperator_DSCC(A));
+    }
+
+    /**
+     * Computes the eigenpairs of a sparse matrix which are closest to &sigma; using shift-invert mode.
+     * The wanted target is ignored.
+     *
+     * @param A Square matrix. Not modified.
+     * @param sigma The shift
+     * @return true if all the eigenvalues converged
+     */
+    public boolean process( DMatrixSparseCSC A, double sigma ) {
+        return process(new ShiftInvertOperator_DSCC(A, sigma));
+    }
+
+    /**
+     * Computes the wanted eigenpairs of the operator. If the operator is a {@link ShiftInvertOperator_DSCC} then
+     * the eigenvalues closest to &sigma; are found and converted back into eigenvalues of A.
+     *
+     * @param op The operator
+     * @return true if all the eigenvalues converged
+     */
+    public boolean process( LinearOperator_F64 op ) {
+        N = op.getSize();
+        if (numEigen > N)
+            throw new IllegalArgumentException("More eigenvalues requested than the size of the matrix");
+        Target target = op instanceof ShiftInvertOperator_DSCC ? Target.LARGEST_MAGNITUDE : this.target;
+
+        m = Math.min(N, basisSize > 0 ? Math.max(basisSize, numEigen + 1) : Math.max(2*numEigen + 1, 20));
+        declareWork();
+
+        // Initial vector is random
+        for (int i = 0; i < N; i++) {
+            w[i] = (double)rand.nextGaussian();
+        }
+        orthogonalize(0);
+        normalizeInto(0);
+
+        int start = 0;
+        numConverged = 0;
+        for (restarts = 0; ; restarts++) {
+            expand(op, start);
+
+            computeRitzValues();
+            sortRitz(target);
+
+            numConverged = 0;
+            for (int i = 0; i < numEigen; i++) {
+                int idx = order[i];
+                double thresh = tolerance*Math.max(Math.pow(UtilEjml.EPS, 2.0/3.0),
+                        (double)Math.hypot(ritzReal[idx], ritzImag[idx]));
+                computeRitzVector(idx, yReal, yImag);
+                double error = residualNorm*(double)Math.hypot(yReal[m - 1], yImag[m - 1]);
+                if (error <= thresh)
+                    numConverged++;
+            }
+            if (numConverged >= numEigen || restarts >= maxRestarts || m == N)
+                break;
+
+            // Keep a few extra vectors to speed up convergence, but never split a complex conjugate pair
+            int keep = numEigen + Math.min(numConverged, (m - numEigen)/2);
+            keep = Math.min(keep, m - 1);
+            if (isSplitPair(keep)) {
+                keep = keep + 1 < m ? keep + 1 : keep - 1;
+            }
+            if (keep <= 0)
+                break;
+
+            restart(keep);
+            start = keep;
+        }
+
+        extractResults(op);
+        return numConverged >= numEigen;
+    }
+
+    private void declareWork() {
+        V.reshape(m + 1, N);
+        H.reshape(m, m);
+        H.zero();
+        Q.reshape(m, m);
+        if (w.length < N) {
+            v = new double[N];
+            w = new double[N];
+        }
+        if (h.length < m + 1)
+            h = new double[m + 1];
+        if (ritzReal.length < m) {
+            ritzReal = new double[m];
+            ritzImag = new double[m];
+            order = new Integer[m];
+            yReal = new double[m];
+            yImag = new double[m];
+        }
+    }
+
+    /**
+     * Expands the Krylov factorization from size 'start' to size m. Row 'start' in V must already contain
+     * a normalized vector which is orthogonal to the previous rows.
+     */
+    protected void expand( LinearOperator_F64 op, int start ) {
+        for (int j = start; j < m; j++) {
+            System.arraycopy(V.data, j*N, v, 0, N);
+            op.multiply(v, w);
+
+            double normAv = norm(w);
+            orthogonalize(j + 1);
+            for (int i = 0; i <= j; i++) {
+                H.data[i*m + j] = h[i];
+            }
+            double beta = norm(w);
+
+            // Breakdown. The basis spans an invariant subspace so a new direction is selected at random
+            if (beta <= UtilEjml.EPS*normAv || beta == 0.0) {
+                beta = 0.0;
+                if (j + 1 < N) {
+                    for (int i = 0; i < N; i++) {
+                        w[i] = (double)rand.nextGaussian();
+                    }
+                    orthogonalize(j + 1);
+                    normalizeInto(j + 1);
+                } else {
+                    Arrays.fill(V.data, (j + 1)*N, (j + 2)*N, 0);
+                }
+            } else {
+                double[] d = V.data;
+                int index = (j + 1)*N;
+                for (int i = 0; i < N; i++) {
+                    d[index + i] = w[i]/beta;
+                }
+            }
+
+            if (j + 1 < m)
+                H.data[(j + 1)*m + j] = beta;
+            else
+                residualNorm = beta;
+        }
+    }
+
+    /**
+     * Removes the components of 'w' along the first 'rows' basis vectors using classical Gram-Schmidt applied
+     * twice. The coefficients are stored in 'h'
+     */
+    protected void orthogonalize( int rows ) {
+        final double[] d = V.data;
+        Arrays.fill(h, 0, rows, 0);
+        for (int pass = 0; pass < 2; pass++) {
+            for (int i = 0; i < rows; i++) {
+                int index = i*N;
+                double dot = 0;
+                for (int k = 0; k < N; k++) {
+                    dot += d[index + k]*w[k];
+                }
+                h[i] += dot;
+                for (int k = 0; k < N; k++) {
+                    w[k] -= dot*d[index + k];
+                }
+            }
+        }
+    }
+
+    private void normalizeInto( int row ) {
+        double norm = norm(w);
+        int index = row*N;
+        for (int i = 0; i < N; i++) {
+            V.data[index + i] = w[i]/norm;
+        }
+    }
+
+    private double norm( double[] v ) {
+        double scale = 0;
+        for (int i = 0; i < N; i++) {
+            scale = Math.max(scale, Math.abs(v[i]));
+        }
+        if (scale == 0)
+            return 0;
+        double total = 0;
+        for (int i = 0; i < N; i++) {
+            double a = v[i]/scale;
+            total += a*a;
+        }
+        return scale*Math.sqrt(total);
+    }
+
+    /**
+     * Sorts the Ritz values so that the wanted values are first. Conjugate pairs are next to each other with
+     * the positive imaginary component first.
+     */
+    protected void sortRitz( Target target ) {
+        for (int i = 0; i < m; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, 0, m, ( a, b ) -> {
+            int result;
+            switch (target) {
+                case LARGEST_MAGNITUDE:
+                    result = Double.compare((double)Math.hypot(ritzReal[b], ritzImag[b]), (double)Math.hypot(ritzReal[a], ritzImag[a]));
+                    break;
+                case LARGEST_REAL:
+                    result = Double.compare(ritzReal[b], ritzReal[a]);
+                    break;
+                case SMALLEST_REAL:
+                    result = Double.compare(ritzReal[a], ritzReal[b]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown target " + target);
+            }
+            if (result != 0)
+                return result;
+            return Double.compare(ritzImag[b], ritzImag[a]);
+        });
+    }
+
+    /**
+     * Returns true if the Ritz values at 'keep-1' and 'keep' are a complex conjugate pair
+     */
+    private boolean isSplitPair( int keep ) {
+        if (keep <= 0 || keep >= m)
+            return false;
+        int a = order[keep - 1];
+        int b = order[keep];
+        return ritzImag[a] != 0.0 && ritzImag[a] == -ritzImag[b] && ritzReal[a] == ritzReal[b];
+    }
+
+    /**
+     * Applies the unwanted Ritz values as shifts and compresses the factorization to size 'keep'
+     */
+    protected void restart( int keep ) {
+        CommonOps_DDRM.setIdentity(Q);
+
+        for (int i = keep; i < m; i++) {
+            int idx = order[i];
+            double re = ritzReal[idx];
+            double im = ritzImag[idx];
+
+            M.reshape(m, m);
+            int subdiagonals;
+            if (im == 0.0) {
+                subdiagonals = 1;
+                // M = H - mu*I
+                M.set(H);
+                for (int j = 0; j < m; j++) {
+                    M.data[j*m + j] -= re;
+                }
+            } else {
+                // Real double shift. M = H*H - 2*re*H + |mu|^2*I
+                subdiagonals = 2;
+                CommonOps_DDRM.mult(H, H, M);
+                CommonOps_DDRM.addEquals(M, -2.0*re, H);
+                double mag2 = re*re + im*im;
+                for (int j = 0; j < m; j++) {
+                    M.data[j*m + j] += mag2;
+                }
+                // skip over the conjugate
+                if (i + 1 < m && ritzImag[order[i + 1]] == -im)
+                    i++;
+            }
+
+            givensQ(M, subdiagonals, Qshift);
+
+            // H = Qs'*H*Qs
+            CommonOps_DDRM.multTransA(Qshift, H, work);
+            CommonOps_DDRM.mult(work, Qshift, H);
+            // Remove numerical noise below the sub-diagonal
+            for (int row = 2; row < m; row++) {
+                Arrays.fill(H.data, row*m, row*m + row - 1, 0);
+            }
+            CommonOps_DDRM.mult(Q, Qshift, work);
+            Q.set(work);
+        }
+
+        // The residual of the compressed factorization
+        double hk = H.data[keep*m + keep - 1];
+        double qk = residualNorm*Q.data[(m - 1)*m + keep - 1];
+
+        // Vnew = Q(:,0:keep+1)'*V(0:m)
+        Vnew.reshape(keep + 1, N);
+        Vnew.zero();
+        for (int i = 0; i < m; i++) {
+            int indexV = i*N;
+            for (int j = 0; j <= keep; j++) {
+                double q = Q.data[i*m + j];
+                if (q == 0)
+                    continue;
+                int indexN = j*N;
+                for (int k = 0; k < N; k++) {
+                    Vnew.data[indexN + k] += q*V.data[indexV + k];
+                }
+            }
+        }
+        // f = V*Q(:,keep)*H(keep,keep-1) + f_m*Q(m-1,keep-1)
+        int indexF = keep*N;
+        int indexR = m*N;
+        for (int k = 0; k < N; k++) {
+            w[k] = hk*Vnew.data[indexF + k] + qk*V.data[indexR + k];
+        }
+        System.arraycopy(Vnew.data, 0, V.data, 0, keep*N);
+
+        // Remove what has been discarded from H
+        for (int row = 0; row < m; row++) {
+            int col0 = row < keep ? keep : 0;
+            Arrays.fill(H.data, row*m + col0, row*m + m, 0);
+        }
+
+        orthogonalize(keep);
+        double beta = norm(w);
+        if (beta == 0.0) {
+            for (int i = 0; i < N; i++) {
+                w[i] = (double)rand.nextGaussian();
+            }
+            orthogonalize(keep);
+        }
+        normalizeInto(keep);
+        H.data[keep*m + keep - 1] = beta;
+    }
+
+    /**
+     * Computes Q in the QR decomposition of M using Givens rotations. M is upper triangular with the specified
+     * number of sub-diagonals.
+     *
+     * @param M (Input) Matrix being decomposed. Modified.
+     * @param subdiagonals Number of non-zero sub-diagonals in M
+     * @param Q (Output) Orthogonal matrix
+     */
+    static void givensQ( DMatrixRMaj M, int subdiagonals, DMatrixRMaj Q ) {
+        final int m = M.numCols;
+        final double[] a = M.data;
+        Q.reshape(m, m);
+        CommonOps_DDRM.setIdentity(Q);
+
+        for (int j = 0; j < m; j++) {
+            for (int i = Math.min(j + subdiagonals, m - 1); i > j; i--) {
+                double x = a[(i - 1)*m + j];
+                double y = a[i*m + j];
+                if (y == 0.0)
+                    continue;
+                double r = (double)Math.hypot(x, y);
+                double c = x/r;
+                double s = y/r;
+
+                // rotate rows i-1 and i in M
+                for (int col = j; col < m; col++) {
+                    double u = a[(i - 1)*m + col];
+                    double v = a[i*m + col];
+                    a[(i - 1)*m + col] = c*u + s*v;
+                    a[i*m + col] = -s*u + c*v;
+                }
+                // Q = Q*G'
+                for (int row = 0; row < m; row++) {
+                    double u = Q.data[row*m + i - 1];
+                    double v = Q.data[row*m + i];
+                    Q.data[row*m + i - 1] = c*u + s*v;
+                    Q.data[row*m + i] = -s*u + c*v;
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes the eigenvectors for the wanted eigenvalues
+     */
+    private void extractResults( LinearOperator_F64 op ) {
+        boolean shiftInvert = op instanceof ShiftInvertOperator_DSCC;
+        double sigma = shiftInvert ? ((ShiftInvertOperator_DSCC)op).getSigma() : 0.0;
+
+        if (values.length < numEigen) {
+            values = new Complex_F64[numEigen];
+            vectors = new DMatrixRMaj[numEigen];
+        }
+
+        for (int i = 0; i < numEigen; i++) {
+            int idx = order[i];
+            double re = ritzReal[idx];
+            double im = ritzImag[idx];
+            if (shiftInvert) {
+                // lambda = sigma + 1/theta. Inverting flips the sign of the imaginary component, so the conjugate
+                // is returned instead to keep the positive imaginary component first in a pair
+                double mag2 = re*re + im*im;
+                re = sigma + re/mag2;
+                im = im/mag2;
+            }
+            values[i] = new Complex_F64(re, im);
+
+            if (ritzImag[idx] != 0.0) {
+                vectors[i] = null;
+                continue;
+            }
+
+            computeRitzVector(idx, yReal, yImag);
+            DMatrixRMaj x = new DMatrixRMaj(N, 1);
+            for (int j = 0; j < m; j++) {
+                double y = yReal[j];
+                int index = j*N;
+                for (int k = 0; k < N; k++) {
+                    x.data[k] += y*V.data[index + k];
+                }
+            }
+            double n = norm(x.data);
+            if (n != 0.0)
+                CommonOps_DDRM.divide(x, n);
+            vectors[i] = x;
+        }
+    }
+
+    /**
+     * Computes the eigenvalues of H and saves them in ritzReal and ritzImag
+     */
+    protected abstract void computeRitzValues();
+
+    /**
+     * Computes the normalized eigenvector of H for the specified Ritz value
+     *
+     * @param index Index of the Ritz value in ritzReal and ritzImag
+     * @param yReal (Output) real component of the vector
+     * @param yImag (Output) imaginary component of the vector
+     */
+    protected abstract void computeRitzVector( int index, double[] yReal, double[] yImag );
+
+    /**
+     * Returns the number of eigenvalues which converged
+     */
+    public int getNumConverged() {
+        return numConverged;
+    }
+
+    /**
+     * Number of times the algorithm was restarted in the last call to process
+     */
+    public int getRestarts() {
+        return restarts;
+    }
+
+    /**
+     * Returns one of the computed eigenvalues. Eigenvalues are sorted by the target, with the best first.
+     */
+    public Complex_F64 getEigenvalue( int index ) {
+        return values[index];
+    }
+
+    /**
+     * Returns the eigenvector for the specified eigenvalue as a unit column vector. If the eigenvalue is complex
+     * then null is returned.
+     */
+    public @Nullable DMatrixRMaj getEigenVector( int index ) {
+        return vectors[index];
+    }
+
+    public int getNumEigen() {
+        return numEigen;
+    }
+
+    public void setNumEigen( int numEigen ) {
+        if (numEigen <= 0)
+            throw new IllegalArgumentException("Must request at least one eigenvalue");
+        this.numEigen = numEigen;
+    }
+
+    public int getBasisSize() {
+        return basisSize;
+    }
+
+    /**
+     * Number of vectors in the Krylov basis. Must be more than the number of eigenvalues. If zero then
+     * max(2*k+1,20) is used. A larger basis requires fewer restarts but more memory.
+     */
+    public void setBasisSize( int basisSize ) {
+        this.basisSize = basisSize;
+    }
+
+    public int getMaxRestarts() {
+        return maxRestarts;
+    }
+
+    public void setMaxRestarts( int maxRestarts ) {
+        this.maxRestarts = maxRestarts;
+    }
+
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    /**
+     * Relative tolerance for a Ritz pair to be considered converged
+     */
+    public void setTolerance( double tolerance ) {
+        this.tolerance = tolerance;
+    }
+
+    public Target getTarget() {
+        return target;
+    }
+
+    public void setTarget( Target target ) {
+        this.target = target;
+    }
+
+    /**
+     * Random number generator used to select the initial vector
+     */
+    public void setRandom( Random rand ) {
+        this.rand = rand;
+    }
+}
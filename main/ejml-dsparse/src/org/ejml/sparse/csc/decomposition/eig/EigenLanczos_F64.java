@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.sparse.csc.decomposition.eig;
+
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.factory.DecompositionFactory_DDRM;
+import org.ejml.interfaces.decomposition.EigenDecomposition_F64;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Implicitly restarted Lanczos algorithm for computing a few extremal eigenpairs of a large real symmetric
+ * matrix or operator. The projected matrix H is symmetric tridiagonal and its eigenvalues are always real.
+ * All the returned eigenvalues are real and all eigenvectors are computed.
+ * </p>
+ *
+ * <p>
+ * The operator must be symmetric. For example, the eigenvalues closest to zero of a graph Laplacian can
+ * be found using {@link Target#SMALLEST_REAL} or shift-invert mode with a small negative &sigma;.
+ * </p>
+ *
+ * @author Peter Abeles
+ * @see EigenKrylovBase_F64
+ */
+public class EigenLanczos_F64 extends EigenKrylovBase_F64 {
+    EigenDecomposition_F64<DMatrixRMaj> eig = DecompositionFactory_DDRM.eig(true, true);
+    DMatrixRMaj Hs = new DMatrixRMaj(1, 1);
+
+    /**
+     * @param numEigen Number of eigenvalues which are computed
+     * @param target Which eigenvalues are wanted
+     */
+    public EigenLanczos_F64( int numEigen, Target target ) {
+        super(numEigen);
+        this.target = target;
+    }
+
+    /**
+     * Finds the largest eigenvalues by magnitude
+     *
+     * @param numEigen Number of eigenvalues which are computed
+     */
+    public EigenLanczos_F64( int numEigen ) {
+        this(numEigen, Target.LARGEST_MAGNITUDE);
+    }
+
+    @Override
+    protected void computeRitzValues() {
+        // Round off errors make H slightly asymmetric
+        Hs.reshape(m, m);
+        CommonOps_DDRM.transpose(H, Hs);
+        CommonOps_DDRM.add(0.5, H, 0.5, Hs, Hs);
+
+        if (!eig.decompose(Hs))
+            throw new RuntimeException("Eigen decomposition of the tridiagonal matrix failed");
+
+        for (int i = 0; i < m; i++) {
+            ritzReal[i] = eig.getEigenvalue(i).real;
+            ritzImag[i] = 0.0;
+        }
+    }
+
+    @Override
+    protected void computeRitzVector( int index, double[] yReal, double[] yImag ) {
+        DMatrixRMaj y = eig.getEigenVector(index);
+        if (y == null)
+            throw new RuntimeException("Eigen vector is missing");
+        System.arraycopy(y.data, 0, yReal, 0, m);
+        Arrays.fill(yImag, 0, m, 0.0);
+    }
+
+    /**
+     * Returns the real component of an eigenvalue. The imaginary component is always zero
+     */
+    public double getEigenvalueReal( int index ) {
+        return values[index].real;
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.sparse.csc.decomposition.eig;
+
+/**
+ * A square linear operator M which can only be accessed through matrix-vector products, y = M*x. Iterative
+ * eigenvalue algorithms only need these products, which allows M to be a sparse matrix, a transform of a matrix,
+ * or something which is never explicitly constructed.
+ *
+ * @author Peter Abeles
+ */
+public interface LinearOperator_F64 {
+    /**
+     * Number of rows and columns in M
+     */
+    int getSize();
+
+    /**
+     * Computes y = M*x
+     *
+     * @param x (Input) Vector with {@link #getSize()} elements. Not modified.
+     * @param y (Output) Vector with {@link #getSize()} elements. Can't be the same array as x.
+     */
+    void multiply( double[] x, double[] y );
+}
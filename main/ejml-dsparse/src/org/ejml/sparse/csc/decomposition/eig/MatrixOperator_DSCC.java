@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.sparse.csc.decomposition.eig;
+
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.sparse.csc.mult.MatrixVectorMult_DSCC;
+
+/**
+ * {@link LinearOperator_F64} for a square sparse matrix, y = A*x.
+ *
+ * @author Peter Abeles
+ */
+public class MatrixOperator_DSCC implements LinearOperator_F64 {
+    DMatrixSparseCSC A;
+
+    /**
+     * @param A Square matrix. Reference is saved and not modified.
+     */
+    public MatrixOperator_DSCC( DMatrixSparseCSC A ) {
+        if (A.numRows != A.numCols)
+            throw new IllegalArgumentException("A must be a square matrix");
+        this.A = A;
+    }
+
+    @Override
+    public int getSize() {
+        return A.numCols;
+    }
+
+    @Override
+    public void multiply( double[] x, double[] y ) {
+        MatrixVectorMult_DSCC.mult(A, x, 0, y, 0);
+    }
+
+    public DMatrixSparseCSC getMatrix() {
+        return A;
+    }
+}
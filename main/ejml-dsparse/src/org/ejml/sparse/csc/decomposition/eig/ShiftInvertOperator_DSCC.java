@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.sparse.csc.decomposition.eig;
+
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.interfaces.linsol.LinearSolverSparse;
+import org.ejml.sparse.FillReducing;
+import org.ejml.sparse.csc.CommonOps_DSCC;
+import org.ejml.sparse.csc.factory.LinearSolverFactory_DSCC;
+
+/**
+ * <p>
+ * Shift-invert transform of a square sparse matrix, y = (A - &sigma;I)<sup>-1</sup>x. If &lambda; is an eigenvalue
+ * of A then &theta; = 1/(&lambda; - &sigma;) is an eigenvalue of the operator with the same eigenvector. The
+ * eigenvalues of A which are closest to &sigma; become the largest in magnitude, which is where iterative
+ * eigenvalue algorithms converge quickly.
+ * </p>
+ *
+ * <p>
+ * A - &sigma;I is decomposed once when the operator is created. Each product is then a solve using the
+ * decomposition.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class ShiftInvertOperator_DSCC implements LinearOperator_F64 {
+    final double sigma;
+    final int N;
+    final LinearSolverSparse<DMatrixSparseCSC, DMatrixRMaj> solver;
+
+    // vectors wrapped as matrices for the solver
+    final DMatrixRMaj B;
+    final DMatrixRMaj X;
+
+    /**
+     * Decomposes A - &sigma;I using a sparse LU decomposition with a COLAMD fill reducing permutation
+     *
+     * @param A Square matrix. Not modified.
+     * @param sigma The shift
+     */
+    public ShiftInvertOperator_DSCC( DMatrixSparseCSC A, double sigma ) {
+        this(A, sigma, LinearSolverFactory_DSCC.lu(FillReducing.COLAMD));
+    }
+
+    /**
+     * @param A Square matrix. Not modified.
+     * @param sigma The shift
+     * @param solver Solver used to decompose A - &sigma;I. Cholesky can be used if the shifted matrix is
+     * known to be positive definite.
+     */
+    public ShiftInvertOperator_DSCC( DMatrixSparseCSC A, double sigma,
+                                     LinearSolverSparse<DMatrixSparseCSC, DMatrixRMaj> solver ) {
+        if (A.numRows != A.numCols)
+            throw new IllegalArgumentException("A must be a square matrix");
+        this.sigma = sigma;
+        this.N = A.numCols;
+        this.solver = solver;
+        this.B = new DMatrixRMaj(N, 1);
+        this.X = new DMatrixRMaj(N, 1);
+
+        DMatrixSparseCSC shifted = A;
+        if (sigma != 0.0) {
+            DMatrixSparseCSC I = CommonOps_DSCC.identity(N);
+            shifted = CommonOps_DSCC.add(1.0, A, -sigma, I, null, null, null);
+        }
+        if (!solver.setA(shifted))
+            throw new IllegalArgumentException("Failed to decompose A - sigma*I. Sigma might be an eigenvalue.");
+    }
+
+    @Override
+    public int getSize() {
+        return N;
+    }
+
+    @Override
+    public void multiply( double[] x, double[] y ) {
+        System.arraycopy(x, 0, B.data, 0, N);
+        solver.solve(B, X);
+        System.arraycopy(X.data, 0, y, 0, N);
+    }
+
+    /**
+     * Converts an eigenvalue of the operator back into an eigenvalue of A, &lambda; = &sigma; + 1/&theta;
+     */
+    public double getSigma() {
+        return sigma;
+    }
+}
@@ -93,7 +93,6 @@ public class LuUpLooking_DSCC
     private boolean performLU( DMatrixSparseCSC A ) {
         int m = A.numRows;
         int n = A.numCols;
-        int[] q = applyReduce.getArrayP();
 
         int[] w = UtilEjml.adjust(gw, m*2, m);
 
@@ -109,8 +108,7 @@ public class LuUpLooking_DSCC
             if (U.nz_length + n > U.nz_values.length)
                 U.growMaxLength(2*U.nz_values.length + n, true);
 
-            int col = q != null ? q[k] : k;
-            int top = TriangularSolver_DSCC.solveColB(L, true, A, col, x, pinv, gxi, w);
+            int top = TriangularSolver_DSCC.solveColB(L, true, A, k, x, pinv, gxi, w);
             int[] xi = gxi.data;
 
             //--------- Find the Next Pivot. That will be the row with the largest value
@@ -181,6 +179,13 @@ public class LuUpLooking_DSCC
         // see dense algorithm. There is probably a faster way to compute the sign while decomposing
         // the matrix.
         double value = permutationSign(pinv, U.numCols, gw.data);
+        // The fill reducing permutation is included in the decomposition, P*A*Q
+        int[] p = applyReduce.getArrayP();
+        int[] q = applyReduce.getArrayQ();
+        if (p != null)
+            value *= permutationSign(p, U.numCols, gw.data);
+        if (q != null)
+            value *= permutationSign(q, U.numCols, gw.data);
         for (int i = 0; i < U.numCols; i++) {
             value *= U.nz_values[U.col_idx[i + 1] - 1];
         }
@@ -258,11 +263,18 @@ public class LuUpLooking_DSCC
         return ret;
     }
 
-    public int[] getReducePermutation() {
-        int[] ret = applyReduce.getArrayP();
-        if (ret == null)
-            throw new RuntimeException("Check to see if there is any fill reduce ordering to apply first");
-        return ret;
+    /**
+     * Returns the column permutation used to reduce fill in. Null if the columns were not permuted.
+     */
+    public @Nullable int[] getReducePermutation() {
+        return applyReduce.getArrayQ();
+    }
+
+    /**
+     * Returns the inverse of the row permutation used to reduce fill in. Null if the rows were not permuted.
+     */
+    public @Nullable int[] getReduceRowPinv() {
+        return applyReduce.getArrayPinv();
     }
 
     @Override
@@ -98,7 +98,6 @@ public class QrLeftLookingDecomposition_DSCC implements
 
     private void performDecomposition( DMatrixSparseCSC A ) {
         int[] w = gwork.data;
-        int[] permCol = applyReduce.getArrayQ();
         int[] parent = structure.getParent();
         int[] leftmost = structure.getLeftMost();
         // permutation that was done to ensure all rows have non-zero elements
@@ -120,10 +119,8 @@ public class QrLeftLookingDecomposition_DSCC implements
             w[k] = k;
             V.nz_rows[V.nz_length++] = k;                       // Add V(k,k) to V's pattern
             int top = n;
-            int col = permCol != null ? permCol[k] : k;
-
-            int idx0 = A.col_idx[col];
-            int idx1 = A.col_idx[col + 1];
+            int idx0 = A.col_idx[k];
+            int idx1 = A.col_idx[k + 1];
 
             for (int p = idx0; p < idx1; p++) {
                 int i = leftmost[A.nz_rows[p]];
@@ -272,11 +269,18 @@ public class QrLeftLookingDecomposition_DSCC implements
         return beta[index];
     }
 
-    public int[] getFillPermutation() {
-        int[] ret = applyReduce.getArrayP();
-        if (ret == null)
-            throw new RuntimeException("No permutation. Should have called isFillPermuted()");
-        return ret;
+    /**
+     * Returns the column permutation used to reduce fill in. Null if the columns were not permuted.
+     */
+    public @Nullable int[] getFillPermutation() {
+        return applyReduce.getArrayQ();
+    }
+
+    /**
+     * Returns the inverse of the row permutation used to reduce fill in. Null if the rows were not permuted.
+     */
+    public @Nullable int[] getFillRowPinv() {
+        return applyReduce.getArrayPinv();
     }
 
     public boolean isFillPermutated() {
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.sparse.csc.decomposition.svd;
+
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.dense.row.decomposition.qr.QRDecompositionHouseholderColumn_DDRM;
+import org.ejml.dense.row.decomposition.svd.SvdImplicitQrDecompose_DDRM;
+import org.ejml.dense.row.decomposition.svd.SvdRandomizedBase_F64;
+import org.ejml.interfaces.decomposition.QRDecomposition;
+import org.ejml.interfaces.decomposition.SingularValueDecomposition_F64;
+import org.ejml.sparse.csc.CommonOps_DSCC;
+
+import java.util.Random;
+
+/**
+ * <p>
+ * Randomized truncated SVD of a sparse matrix. See {@link SvdRandomizedBase_F64} for details. The sparse
+ * matrix is only used in products with dense matrices and the singular vectors are dense.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class SvdRandomized_DSCC extends SvdRandomizedBase_F64<DMatrixSparseCSC> {
+
+    protected SvdRandomized_DSCC( int rank, QRDecomposition<DMatrixRMaj> qr,
+                                  SingularValueDecomposition_F64<DMatrixRMaj> svd, Random rand ) {
+        super(rank, qr, svd, rand);
+    }
+
+    /**
+     * @param rank Number of singular values and vectors which are computed
+     * @param rand Source of the random basis
+     */
+    public SvdRandomized_DSCC( int rank, Random rand ) {
+        this(rank, new QRDecompositionHouseholderColumn_DDRM(),
+                new SvdImplicitQrDecompose_DDRM(true, true, true, false), rand);
+    }
+
+    public SvdRandomized_DSCC( int rank ) {
+        this(rank, new Random(0xBEEF));
+    }
+
+    @Override
+    protected void multiply( DMatrixSparseCSC A, DMatrixRMaj B, DMatrixRMaj C ) {
+        CommonOps_DSCC.mult(A, B, C);
+    }
+
+    @Override
+    protected void multiplyTransA( DMatrixSparseCSC A, DMatrixRMaj B, DMatrixRMaj C ) {
+        CommonOps_DSCC.multTransA(A, B, C);
+    }
+}
@@ -24,7 +24,7 @@ import org.ejml.interfaces.decomposition.LUSparseDecomposition_F64;
 import org.ejml.interfaces.decomposition.QRSparseDecomposition;
 import org.ejml.sparse.ComputePermutation;
 import org.ejml.sparse.FillReducing;
-import org.ejml.sparse.csc.decomposition.chol.CholeskyUpLooking_DSCC;
+import org.ejml.sparse.csc.decomposition.chol.CholeskySupernodal_DSCC;
 import org.ejml.sparse.csc.decomposition.lu.LuUpLooking_DSCC;
 import org.ejml.sparse.csc.decomposition.qr.QrLeftLookingDecomposition_DSCC;
 
@@ -35,7 +35,7 @@ import org.ejml.sparse.csc.decomposition.qr.QrLeftLookingDecomposition_DSCC;
  */
 public class DecompositionFactory_DSCC {
     public static CholeskySparseDecomposition_F64 cholesky() {
-        return new CholeskyUpLooking_DSCC();
+        return new CholeskySupernodal_DSCC();
     }
 
     public static QRSparseDecomposition<DMatrixSparseCSC> qr(FillReducing permutation) {
@@ -27,8 +27,10 @@ import org.ejml.sparse.csc.decomposition.chol.CholeskyUpLooking_DSCC;
 import org.ejml.sparse.csc.decomposition.lu.LuUpLooking_DSCC;
 import org.ejml.sparse.csc.decomposition.qr.QrLeftLookingDecomposition_DSCC;
 import org.ejml.sparse.csc.linsol.chol.LinearSolverCholesky_DSCC;
+import org.ejml.sparse.csc.linsol.iterative.*;
 import org.ejml.sparse.csc.linsol.lu.LinearSolverLu_DSCC;
 import org.ejml.sparse.csc.linsol.qr.LinearSolverQrLeftLooking_DSCC;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * Factory for sparse linear solvers
@@ -53,4 +55,32 @@ public class LinearSolverFactory_DSCC {
         LuUpLooking_DSCC lu = new LuUpLooking_DSCC(cp);
         return new LinearSolverLu_DSCC(lu);
     }
+
+    /**
+     * Iterative Conjugate Gradient solver. A must be symmetric positive definite.
+     *
+     * @param preconditioner (Optional) preconditioner. If null then none is used.
+     */
+    public static LinearSolverIterative_DSCC conjugateGradient( @Nullable Preconditioner_F64<DMatrixSparseCSC> preconditioner ) {
+        return new LinearSolverIterative_DSCC(new ConjugateGradient_F64<>(preconditioner));
+    }
+
+    /**
+     * Iterative BiCGSTAB solver for general square matrices.
+     *
+     * @param preconditioner (Optional) preconditioner. If null then none is used.
+     */
+    public static LinearSolverIterative_DSCC bicgstab( @Nullable Preconditioner_F64<DMatrixSparseCSC> preconditioner ) {
+        return new LinearSolverIterative_DSCC(new BiConjugateGradientStab_F64<>(preconditioner));
+    }
+
+    /**
+     * Iterative restarted GMRES solver for general square matrices.
+     *
+     * @param restart Number of iterations before it restarts. Try 30.
+     * @param preconditioner (Optional) preconditioner. If null then none is used.
+     */
+    public static LinearSolverIterative_DSCC gmres( int restart, @Nullable Preconditioner_F64<DMatrixSparseCSC> preconditioner ) {
+        return new LinearSolverIterative_DSCC(new GeneralizedMinimalResidual_F64<>(restart, preconditioner));
+    }
 }
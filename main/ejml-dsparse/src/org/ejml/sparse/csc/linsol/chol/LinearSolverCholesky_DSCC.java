@@ -49,6 +49,7 @@ public class LinearSolverCholesky_DSCC implements LinearSolverSparse<DMatrixSpar
     IGrowArray gw = new IGrowArray();
 
     DMatrixSparseCSC tmp = new DMatrixSparseCSC(1, 1, 1);
+    DMatrixSparseCSC Bp = new DMatrixSparseCSC(1, 1, 1);
 
     // Number of rows in A
     int AnumCols;
@@ -80,9 +81,18 @@ public class LinearSolverCholesky_DSCC implements LinearSolverSparse<DMatrixSpar
 
         tmp.reshape(L.numRows, B.numCols, 1);
         int[] Pinv = reduce.getArrayPinv();
-
-        TriangularSolver_DSCC.solve(L, true, B, tmp, Pinv, gx, gw, gw1);
-        TriangularSolver_DSCC.solveTran(L, true, tmp, X, null, gx, gw, gw1);
+        int[] P = reduce.getArrayP();
+
+        if (Pinv != null && P != null) {
+            // L*L' = P*A*P' so solve for P*x using P*b then undo the permutation
+            CommonOps_DSCC.permuteRowInv(Pinv, B, Bp);
+            TriangularSolver_DSCC.solve(L, true, Bp, tmp, null, gx, gw, gw1);
+            TriangularSolver_DSCC.solveTran(L, true, tmp, Bp, null, gx, gw, gw1);
+            CommonOps_DSCC.permuteRowInv(P, Bp, X);
+        } else {
+            TriangularSolver_DSCC.solve(L, true, B, tmp, null, gx, gw, gw1);
+            TriangularSolver_DSCC.solveTran(L, true, tmp, X, null, gx, gw, gw1);
+        }
     }
 
     @Override
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.sparse.csc.linsol.iterative;
+
+import org.ejml.data.DGrowArray;
+import org.ejml.data.DMatrix;
+import org.jetbrains.annotations.Nullable;
+
+import static org.ejml.UtilEjml.adjust;
+
+/**
+ * <p>
+ * Biconjugate Gradient Stabilized (BiCGSTAB) method for solving A*x=b, where A is a general non-singular
+ * matrix. Right preconditioning is used, so the residual being minimized is that of the original system.
+ * If the method breaks down then it will stop and return false.
+ * </p>
+ *
+ * <p>See Algorithm 7.7 in "Iterative Methods for Sparse Linear Systems" 2nd ed., by Yousef Saad</p>
+ *
+ * @author Peter Abeles
+ */
+public class BiConjugateGradientStab_F64<T extends DMatrix> extends IterativeSolver_F64<T> {
+
+    // workspace
+    DGrowArray gr = new DGrowArray();
+    DGrowArray grhat = new DGrowArray();
+    DGrowArray gp = new DGrowArray();
+    DGrowArray gphat = new DGrowArray();
+    DGrowArray gv = new DGrowArray();
+    DGrowArray gs = new DGrowArray();
+    DGrowArray gshat = new DGrowArray();
+    DGrowArray gt = new DGrowArray();
+
+    public BiConjugateGradientStab_F64( @Nullable Preconditioner_F64<T> preconditioner ) {
+        super(preconditioner);
+    }
+
+    public BiConjugateGradientStab_F64() {
+        this(null);
+    }
+
+    @Override
+    protected boolean process( double[] b, double[] x, int N, double threshold ) {
+        double[] r = adjust(gr, N);
+        double[] rhat = adjust(grhat, N);
+        double[] p = adjust(gp, N);
+        double[] phat = adjust(gphat, N);
+        double[] v = adjust(gv, N);
+        double[] s = adjust(gs, N);
+        double[] shat = adjust(gshat, N);
+        double[] t = adjust(gt, N);
+
+        residual(b, x, r, N);
+        double normR = norm(r, N);
+        addResidual(normR);
+        if (normR <= threshold)
+            return true;
+
+        System.arraycopy(r, 0, rhat, 0, N);
+        System.arraycopy(r, 0, p, 0, N);
+        double rho = dot(rhat, r, N);
+
+        while (iterations < maxIterations) {
+            iterations++;
+
+            precondition(p, phat, N);
+            multiply(phat, v);
+            double rhatv = dot(rhat, v, N);
+            if (rhatv == 0.0)
+                return false;
+            double alpha = rho/rhatv;
+
+            for (int i = 0; i < N; i++) {
+                s[i] = r[i] - alpha*v[i];
+            }
+            double normS = norm(s, N);
+            if (normS <= threshold) {
+                addScaled(alpha, phat, x, N);
+                addResidual(normS);
+                return true;
+            }
+
+            precondition(s, shat, N);
+            multiply(shat, t);
+            double tt = dot(t, t, N);
+            if (tt == 0.0)
+                return false;
+            double omega = dot(t, s, N)/tt;
+
+            for (int i = 0; i < N; i++) {
+                x[i] += alpha*phat[i] + omega*shat[i];
+                r[i] = s[i] - omega*t[i];
+            }
+
+            normR = norm(r, N);
+            addResidual(normR);
+            if (normR <= threshold)
+                return true;
+            if (omega == 0.0)
+                return false;
+
+            double rhoNext = dot(rhat, r, N);
+            if (rhoNext == 0.0)
+                return false;
+            double beta = (rhoNext/rho)*(alpha/omega);
+            rho = rhoNext;
+
+            for (int i = 0; i < N; i++) {
+                p[i] = r[i] + beta*(p[i] - omega*v[i]);
+            }
+        }
+        return false;
+    }
+}
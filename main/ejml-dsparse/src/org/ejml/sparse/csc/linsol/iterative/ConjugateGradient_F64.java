@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.sparse.csc.linsol.iterative;
+
+import org.ejml.data.DGrowArray;
+import org.ejml.data.DMatrix;
+import org.jetbrains.annotations.Nullable;
+
+import static org.ejml.UtilEjml.adjust;
+
+/**
+ * <p>
+ * Preconditioned Conjugate Gradient (CG) method for solving A*x=b. A must be symmetric positive definite
+ * and if there is a preconditioner it must also be symmetric positive definite.
+ * </p>
+ *
+ * <p>See Algorithm 9.1 in "Iterative Methods for Sparse Linear Systems" 2nd ed., by Yousef Saad</p>
+ *
+ * @author Peter Abeles
+ */
+public class ConjugateGradient_F64<T extends DMatrix> extends IterativeSolver_F64<T> {
+
+    // workspace
+    DGrowArray gr = new DGrowArray();
+    DGrowArray gz = new DGrowArray();
+    DGrowArray gp = new DGrowArray();
+    DGrowArray gq = new DGrowArray();
+
+    public ConjugateGradient_F64( @Nullable Preconditioner_F64<T> preconditioner ) {
+        super(preconditioner);
+    }
+
+    public ConjugateGradient_F64() {
+        this(null);
+    }
+
+    @Override
+    protected boolean process( double[] b, double[] x, int N, double threshold ) {
+        double[] r = adjust(gr, N);
+        double[] z = adjust(gz, N);
+        double[] p = adjust(gp, N);
+        double[] q = adjust(gq, N);
+
+        residual(b, x, r, N);
+        double normR = norm(r, N);
+        addResidual(normR);
+        if (normR <= threshold)
+            return true;
+
+        precondition(r, z, N);
+        System.arraycopy(z, 0, p, 0, N);
+        double rz = dot(r, z, N);
+
+        while (iterations < maxIterations) {
+            iterations++;
+
+            multiply(p, q);
+            double pq = dot(p, q, N);
+            if (pq <= 0.0) {
+                // A isn't positive definite
+                return false;
+            }
+            double alpha = rz/pq;
+
+            addScaled(alpha, p, x, N);
+            addScaled(-alpha, q, r, N);
+
+            normR = norm(r, N);
+            addResidual(normR);
+            if (normR <= threshold)
+                return true;
+
+            precondition(r, z, N);
+            double rzNext = dot(r, z, N);
+            double beta = rzNext/rz;
+            rz = rzNext;
+
+            for (int i = 0; i < N; i++) {
+                p[i] = z[i] + beta*p[i];
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.sparse.csc.linsol.iterative;
+
+import org.ejml.data.DGrowArray;
+import org.ejml.data.DMatrix;
+import org.jetbrains.annotations.Nullable;
+
+import static org.ejml.UtilEjml.adjust;
+
+/**
+ * <p>
+ * Restarted Generalized Minimal Residual method, GMRES(m), for solving A*x=b, where A is a general non-singular
+ * matrix. A Krylov subspace is built using Arnoldi's method with modified Gram-Schmidt and the least-squares
+ * problem is solved incrementally using Givens rotations. After m iterations the subspace is discarded and the
+ * method is restarted from the current solution. Right preconditioning is used, so the residual being
+ * minimized is that of the original system.
+ * </p>
+ *
+ * <p>See Algorithms 6.10 and 9.5 in "Iterative Methods for Sparse Linear Systems" 2nd ed., by Yousef Saad</p>
+ *
+ * @author Peter Abeles
+ */
+public class GeneralizedMinimalResidual_F64<T extends DMatrix> extends IterativeSolver_F64<T> {
+    // Number of iterations before it restarts
+    int restart;
+
+    // Orthonormal basis of the Krylov subspace. (restart+1) vectors each with N elements
+    DGrowArray gV = new DGrowArray();
+    // Upper Hessenberg matrix. Row-major (restart+1) by restart
+    DGrowArray gH = new DGrowArray();
+    // Givens rotations
+    DGrowArray gcs = new DGrowArray();
+    DGrowArray gsn = new DGrowArray();
+    // right hand side of the least-squares problem
+    DGrowArray gg = new DGrowArray();
+    DGrowArray gy = new DGrowArray();
+
+    // workspace
+    DGrowArray gr = new DGrowArray();
+    DGrowArray gw = new DGrowArray();
+    DGrowArray gz = new DGrowArray();
+
+    /**
+     * @param restart Number of iterations before it restarts, i.e. the maximum size of the Krylov subspace.
+     * @param preconditioner (Optional) preconditioner
+     */
+    public GeneralizedMinimalResidual_F64( int restart, @Nullable Preconditioner_F64<T> preconditioner ) {
+        super(preconditioner);
+        setRestart(restart);
+    }
+
+    public GeneralizedMinimalResidual_F64( int restart ) {
+        this(restart, null);
+    }
+
+    public GeneralizedMinimalResidual_F64() {
+        this(30);
+    }
+
+    @Override
+    protected boolean process( double[] b, double[] x, int N, double threshold ) {
+        final int m = Math.min(restart, N);
+        double[] V = adjust(gV, (m + 1)*N);
+        double[] H = adjust(gH, (m + 1)*m);
+        double[] cs = adjust(gcs, m);
+        double[] sn = adjust(gsn, m);
+        double[] g = adjust(gg, m + 1);
+        double[] y = adjust(gy, m);
+        double[] r = adjust(gr, N);
+        double[] w = adjust(gw, N);
+        double[] z = adjust(gz, N);
+
+        residual(b, x, r, N);
+        double beta = norm(r, N);
+        addResidual(beta);
+
+        while (true) {
+            if (beta <= threshold)
+                return true;
+            if (iterations >= maxIterations)
+                return false;
+
+            // First basis vector is the normalized residual
+            for (int i = 0; i < N; i++) {
+                V[i] = r[i]/beta;
+            }
+            g[0] = beta;
+            for (int i = 1; i <= m; i++) {
+                g[i] = 0;
+            }
+
+            // Number of basis vectors in the solution
+            int k = 0;
+            while (k < m && iterations < maxIterations) {
+                iterations++;
+                int j = k++;
+
+                // w = A*inv(M)*v_j
+                System.arraycopy(V, j*N, r, 0, N);
+                precondition(r, z, N);
+                multiply(z, w);
+
+                // Arnoldi with modified Gram-Schmidt
+                for (int i = 0; i <= j; i++) {
+                    double h = 0;
+                    int idx = i*N;
+                    for (int l = 0; l < N; l++) {
+                        h += w[l]*V[idx + l];
+                    }
+                    for (int l = 0; l < N; l++) {
+                        w[l] -= h*V[idx + l];
+                    }
+                    H[i*m + j] = h;
+                }
+                double normW = norm(w, N);
+                H[(j + 1)*m + j] = normW;
+                if (normW != 0.0) {
+                    int idx = (j + 1)*N;
+                    for (int l = 0; l < N; l++) {
+                        V[idx + l] = w[l]/normW;
+                    }
+                }
+
+                // Apply previous rotations to the new column
+                for (int i = 0; i < j; i++) {
+                    double a = H[i*m + j];
+                    double c = H[(i + 1)*m + j];
+                    H[i*m + j] = cs[i]*a + sn[i]*c;
+                    H[(i + 1)*m + j] = -sn[i]*a + cs[i]*c;
+                }
+
+                // Compute a new rotation which will zero the sub-diagonal element
+                double a = H[j*m + j];
+                double c = H[(j + 1)*m + j];
+                double hyp = Math.sqrt(a*a + c*c);
+                if (hyp == 0.0) {
+                    cs[j] = 1;
+                    sn[j] = 0;
+                } else {
+                    cs[j] = a/hyp;
+                    sn[j] = c/hyp;
+                }
+                H[j*m + j] = hyp;
+                H[(j + 1)*m + j] = 0;
+                g[j + 1] = -sn[j]*g[j];
+                g[j] = cs[j]*g[j];
+
+                double residual = Math.abs(g[j + 1]);
+                addResidual(residual);
+                // If the norm is zero then the solution lies in the current subspace
+                if (residual <= threshold || normW == 0.0)
+                    break;
+            }
+
+            // Solve the upper triangular system H*y = g
+            for (int i = k - 1; i >= 0; i--) {
+                double sum = g[i];
+                for (int l = i + 1; l < k; l++) {
+                    sum -= H[i*m + l]*y[l];
+                }
+                double d = H[i*m + i];
+                if (d == 0.0)
+                    return false;
+                y[i] = sum/d;
+            }
+
+            // x = x + inv(M)*V*y
+            for (int l = 0; l < N; l++) {
+                r[l] = 0;
+            }
+            for (int i = 0; i < k; i++) {
+                addScaled(y[i], V, r, N, i*N);
+            }
+            precondition(r, z, N);
+            addScaled(1.0, z, x, N);
+
+            // Compute the true residual. This avoids issues with round off errors accumulating
+            residual(b, x, r, N);
+            beta = norm(r, N);
+        }
+    }
+
+    /**
+     * y = y + alpha*x[offset:offset+N]
+     */
+    private static void addScaled( double alpha, double[] x, double[] y, int N, int offset ) {
+        for (int i = 0; i < N; i++) {
+            y[i] += alpha*x[offset + i];
+        }
+    }
+
+    public int getRestart() {
+        return restart;
+    }
+
+    public void setRestart( int restart ) {
+        if (restart <= 0)
+            throw new IllegalArgumentException("restart must be a positive number");
+        this.restart = restart;
+    }
+}
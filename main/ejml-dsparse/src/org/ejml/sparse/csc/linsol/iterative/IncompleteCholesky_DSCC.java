@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.sparse.csc.linsol.iterative;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.data.IGrowArray;
+import org.ejml.sparse.csc.misc.TriangularSolver_DSCC;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Incomplete Cholesky preconditioner with zero fill in, IC(0), for symmetric positive definite matrices. L is
+ * computed using the Cholesky algorithm, but only elements which are non-zero in the lower triangle of A are
+ * kept. Only the lower triangle of A is read and every diagonal element must be present.
+ * </p>
+ *
+ * <p>
+ * IC(0) can break down, i.e. encounter a non-positive pivot, even when A is positive definite. If that happens
+ * then the decomposition is attempted again on A + &alpha;*diag(A), where &alpha; starts at {@link #getInitialShift()}
+ * and is doubled each time it fails. The shift which was used is returned by {@link #getShift()}.
+ * </p>
+ *
+ * <p>See chapter 10 in "Iterative Methods for Sparse Linear Systems" by Yousef Saad</p>
+ *
+ * @author Peter Abeles
+ */
+public class IncompleteCholesky_DSCC implements Preconditioner_F64<DMatrixSparseCSC> {
+    // the lower triangular factor. Diagonal element is the first element in each column
+    DMatrixSparseCSC L = new DMatrixSparseCSC(1, 1, 0);
+
+    // smallest shift which is tried after a breakdown
+    double initialShift = 1e-3;
+    // number of times it will try a larger shift before giving up
+    int maxShiftAttempts = 20;
+    // shift which was added to the diagonal in the most recent decomposition
+    double shift;
+
+    // workspace
+    IGrowArray gmark = new IGrowArray();
+    IGrowArray gloc = new IGrowArray();
+
+    @Override
+    public boolean setA( DMatrixSparseCSC A ) {
+        if (A.numRows != A.numCols)
+            throw new IllegalArgumentException("A must be square");
+
+        if (!extractLower(A))
+            return false;
+
+        double[] diag = new double[A.numCols];
+        for (int j = 0; j < A.numCols; j++) {
+            diag[j] = L.nz_values[L.col_idx[j]];
+        }
+        double[] original = Arrays.copyOf(L.nz_values, L.nz_length);
+
+        shift = 0;
+        for (int attempt = 0; attempt <= maxShiftAttempts; attempt++) {
+            if (attempt > 0) {
+                shift = attempt == 1 ? initialShift : shift*2;
+                System.arraycopy(original, 0, L.nz_values, 0, L.nz_length);
+                for (int j = 0; j < A.numCols; j++) {
+                    L.nz_values[L.col_idx[j]] += shift*Math.abs(diag[j]);
+                }
+            }
+            if (decompose())
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Copies the lower triangle of A into L with the rows in each column sorted
+     *
+     * @return false if a diagonal element is missing
+     */
+    boolean extractLower( DMatrixSparseCSC A ) {
+        final int N = A.numCols;
+        L.reshape(N, N, 0);
+
+        int count = 0;
+        for (int j = 0; j < N; j++) {
+            for (int p = A.col_idx[j]; p < A.col_idx[j + 1]; p++) {
+                if (A.nz_rows[p] >= j)
+                    count++;
+            }
+        }
+        L.growMaxLength(count, false);
+
+        for (int j = 0; j < N; j++) {
+            for (int p = A.col_idx[j]; p < A.col_idx[j + 1]; p++) {
+                if (A.nz_rows[p] >= j) {
+                    L.nz_rows[L.nz_length] = A.nz_rows[p];
+                    L.nz_values[L.nz_length++] = A.nz_values[p];
+                }
+            }
+            L.col_idx[j + 1] = L.nz_length;
+        }
+        L.indicesSorted = false;
+        L.sortIndices(null);
+
+        for (int j = 0; j < N; j++) {
+            int idx = L.col_idx[j];
+            if (idx == L.col_idx[j + 1] || L.nz_rows[idx] != j)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Right looking incomplete Cholesky. Updates to elements which are not in the pattern of L are discarded.
+     *
+     * @return true if every pivot was positive
+     */
+    boolean decompose() {
+        final int N = L.numCols;
+        // mark[i] == p+1 if row i is in the column being updated by element p and loc[i] is its location
+        int[] mark = UtilEjml.adjust(gmark, N, N);
+        int[] loc = UtilEjml.adjust(gloc, N);
+
+        for (int k = 0; k < N; k++) {
+            int idx0 = L.col_idx[k];
+            int idx1 = L.col_idx[k + 1];
+
+            double d = L.nz_values[idx0];
+            if (d <= 0.0 || UtilEjml.isUncountable(d))
+                return false;
+            d = Math.sqrt(d);
+            L.nz_values[idx0] = d;
+            for (int p = idx0 + 1; p < idx1; p++) {
+                L.nz_values[p] /= d;
+            }
+
+            // L(i,j) -= L(i,k)*L(j,k) for i >= j > k where (i,j) is in the pattern
+            for (int p = idx0 + 1; p < idx1; p++) {
+                int j = L.nz_rows[p];
+                double ljk = L.nz_values[p];
+
+                for (int q = L.col_idx[j]; q < L.col_idx[j + 1]; q++) {
+                    mark[L.nz_rows[q]] = p + 1;
+                    loc[L.nz_rows[q]] = q;
+                }
+                for (int q = p; q < idx1; q++) {
+                    int i = L.nz_rows[q];
+                    if (mark[i] == p + 1)
+                        L.nz_values[loc[i]] -= L.nz_values[q]*ljk;
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void solve( double[] r, double[] z ) {
+        System.arraycopy(r, 0, z, 0, L.numCols);
+        TriangularSolver_DSCC.solveL(L, z);
+        TriangularSolver_DSCC.solveTranL(L, z);
+    }
+
+    /**
+     * Returns the lower triangular factor
+     */
+    public DMatrixSparseCSC getL() {
+        return L;
+    }
+
+    /**
+     * Shift relative to the diagonal which was added to A to avoid a breakdown. 0 if no shift was needed.
+     */
+    public double getShift() {
+        return shift;
+    }
+
+    public double getInitialShift() {
+        return initialShift;
+    }
+
+    public void setInitialShift( double initialShift ) {
+        this.initialShift = initialShift;
+    }
+
+    public int getMaxShiftAttempts() {
+        return maxShiftAttempts;
+    }
+
+    public void setMaxShiftAttempts( int maxShiftAttempts ) {
+        this.maxShiftAttempts = maxShiftAttempts;
+    }
+}
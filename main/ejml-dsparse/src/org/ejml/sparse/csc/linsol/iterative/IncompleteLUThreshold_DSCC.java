@@ -0,0 +1,242 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.sparse.csc.linsol.iterative;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DGrowArray;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.data.IGrowArray;
+import org.ejml.sparse.csc.misc.TriangularSolver_DSCC;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Incomplete LU preconditioner with threshold dropping, ILUT(&tau;,p). Each column is computed with a sparse
+ * triangular solve against the columns of L which have already been found, the same as in
+ * {@link org.ejml.sparse.csc.decomposition.lu.LuUpLooking_DSCC} but without pivoting. Afterwards, elements
+ * whose magnitude is less than &tau; times the norm of the column in A are dropped and only the p largest
+ * off diagonal elements are kept in each column of L and U. The diagonal is always kept. This bounds the number
+ * of non-zero elements in L and U, including the unit diagonal in L, to at most N*(2*p+2).
+ * </p>
+ *
+ * <p>
+ * If a pivot is zero then it's replaced with &tau; times the norm of the column in A. If that's also zero then
+ * the decomposition fails.
+ * </p>
+ *
+ * <p>See chapter 10 in "Iterative Methods for Sparse Linear Systems" by Yousef Saad</p>
+ *
+ * @author Peter Abeles
+ */
+public class IncompleteLUThreshold_DSCC implements Preconditioner_F64<DMatrixSparseCSC> {
+    DMatrixSparseCSC L = new DMatrixSparseCSC(1, 1, 0);
+    DMatrixSparseCSC U = new DMatrixSparseCSC(1, 1, 0);
+
+    // relative tolerance for dropping elements
+    double dropTolerance;
+    // maximum number of off diagonal elements in each column of L and U
+    int maxFill;
+
+    // Maps a row to the column in L it was eliminated in or -1 if it hasn't been yet
+    int[] pinv = new int[0];
+
+    // workspace
+    DGrowArray gx = new DGrowArray();
+    IGrowArray gw = new IGrowArray();
+    IGrowArray gxi = new IGrowArray();
+    IGrowArray gkeepL = new IGrowArray();
+    IGrowArray gkeepU = new IGrowArray();
+
+    /**
+     * @param dropTolerance Elements less than this times the norm of the column in A are dropped. Try 1e-3.
+     * @param maxFill Maximum number of off diagonal elements in each column of L and U. Try 10.
+     */
+    public IncompleteLUThreshold_DSCC( double dropTolerance, int maxFill ) {
+        if (dropTolerance < 0)
+            throw new IllegalArgumentException("dropTolerance must be non-negative");
+        if (maxFill < 0)
+            throw new IllegalArgumentException("maxFill must be non-negative");
+        this.dropTolerance = dropTolerance;
+        this.maxFill = maxFill;
+    }
+
+    public IncompleteLUThreshold_DSCC() {
+        this(1e-3, 10);
+    }
+
+    @Override
+    public boolean setA( DMatrixSparseCSC A ) {
+        if (A.numRows != A.numCols)
+            throw new IllegalArgumentException("A must be square");
+
+        final int N = A.numCols;
+        int maxColumn = Math.min(N - 1, maxFill);
+        L.reshape(N, N, Math.min(A.nz_length + N, N*(maxColumn + 1)));
+        U.reshape(N, N, Math.min(A.nz_length + N, N*(maxColumn + 1)));
+
+        if (pinv.length != N)
+            pinv = new int[N];
+        Arrays.fill(pinv, -1);
+
+        double[] x = UtilEjml.adjust(gx, N);
+        int[] w = UtilEjml.adjust(gw, N*2, N);
+        int[] keepL = UtilEjml.adjust(gkeepL, N);
+        int[] keepU = UtilEjml.adjust(gkeepU, N);
+
+        for (int j = 0; j < N; j++) {
+            L.col_idx[j] = L.nz_length;
+            U.col_idx[j] = U.nz_length;
+            if (L.nz_length + maxColumn + 1 > L.nz_values.length)
+                L.growMaxLength(2*L.nz_values.length + maxColumn + 1, true);
+            if (U.nz_length + maxColumn + 1 > U.nz_values.length)
+                U.growMaxLength(2*U.nz_values.length + maxColumn + 1, true);
+
+            double norm = 0;
+            for (int p = A.col_idx[j]; p < A.col_idx[j + 1]; p++) {
+                norm += A.nz_values[p]*A.nz_values[p];
+            }
+            double tol = dropTolerance*Math.sqrt(norm);
+
+            // Column j in L and U is the solution to L*x = A(:,j)
+            int top = TriangularSolver_DSCC.solveColB(L, true, A, j, x, pinv, gxi, w);
+            int[] xi = gxi.data;
+
+            // Apply the first dropping rule
+            double pivot = 0;
+            int numL = 0, numU = 0;
+            for (int p = top; p < N; p++) {
+                int i = xi[p];
+                if (i == j) {
+                    pivot = x[i];
+                } else if (Math.abs(x[i]) >= tol) {
+                    if (i < j)
+                        keepU[numU++] = i;
+                    else
+                        keepL[numL++] = i;
+                }
+            }
+            if (pivot == 0.0)
+                pivot = tol;
+            if (pivot == 0.0 || UtilEjml.isUncountable(pivot))
+                return false;
+
+            // Apply the second dropping rule
+            numU = selectLargest(keepU, numU, maxFill, x);
+            numL = selectLargest(keepL, numL, maxFill, x);
+            Arrays.sort(keepU, 0, numU);
+            Arrays.sort(keepL, 0, numL);
+
+            // Diagonal is the last element in U and the first in L
+            for (int k = 0; k < numU; k++) {
+                U.nz_rows[U.nz_length] = keepU[k];
+                U.nz_values[U.nz_length++] = x[keepU[k]];
+            }
+            U.nz_rows[U.nz_length] = j;
+            U.nz_values[U.nz_length++] = pivot;
+
+            L.nz_rows[L.nz_length] = j;
+            L.nz_values[L.nz_length++] = 1;
+            for (int k = 0; k < numL; k++) {
+                L.nz_rows[L.nz_length] = keepL[k];
+                L.nz_values[L.nz_length++] = x[keepL[k]]/pivot;
+            }
+            pinv[j] = j;
+        }
+        L.col_idx[N] = L.nz_length;
+        U.col_idx[N] = U.nz_length;
+        L.indicesSorted = true;
+        U.indicesSorted = true;
+
+        return true;
+    }
+
+    /**
+     * Rearranges the indexes so that the 'limit' elements in x with the largest magnitude are at the start
+     *
+     * @return Number of indexes which were kept
+     */
+    static int selectLargest( int[] indexes, int length, int limit, double[] x ) {
+        if (length <= limit)
+            return length;
+
+        // quick select
+        int lower = 0;
+        int upper = length - 1;
+        while (lower < upper) {
+            double pivot = Math.abs(x[indexes[(lower + upper) >>> 1]]);
+            int i = lower, j = upper;
+            while (i <= j) {
+                while (Math.abs(x[indexes[i]]) > pivot) i++;
+                while (Math.abs(x[indexes[j]]) < pivot) j--;
+                if (i <= j) {
+                    int tmp = indexes[i];
+                    indexes[i++] = indexes[j];
+                    indexes[j--] = tmp;
+                }
+            }
+            if (limit - 1 <= j) {
+                upper = j;
+            } else if (limit - 1 >= i) {
+                lower = i;
+            } else {
+                break;
+            }
+        }
+        return limit;
+    }
+
+    @Override
+    public void solve( double[] r, double[] z ) {
+        System.arraycopy(r, 0, z, 0, L.numCols);
+        TriangularSolver_DSCC.solveL(L, z);
+        TriangularSolver_DSCC.solveU(U, z);
+    }
+
+    /**
+     * Returns the unit lower triangular factor
+     */
+    public DMatrixSparseCSC getL() {
+        return L;
+    }
+
+    /**
+     * Returns the upper triangular factor
+     */
+    public DMatrixSparseCSC getU() {
+        return U;
+    }
+
+    public double getDropTolerance() {
+        return dropTolerance;
+    }
+
+    public void setDropTolerance( double dropTolerance ) {
+        this.dropTolerance = dropTolerance;
+    }
+
+    public int getMaxFill() {
+        return maxFill;
+    }
+
+    public void setMaxFill( int maxFill ) {
+        this.maxFill = maxFill;
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.sparse.csc.linsol.iterative;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DGrowArray;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.data.IGrowArray;
+import org.ejml.sparse.csc.misc.TriangularSolver_DSCC;
+
+/**
+ * <p>
+ * Incomplete LU preconditioner with zero fill in, ILU(0). L and U are computed using Gaussian elimination
+ * without pivoting, but only elements which are non-zero in A are kept. L is unit lower triangular and the
+ * combined pattern of L and U is the same as the pattern of A. Every diagonal element in A must be present
+ * and none of the pivots can be zero.
+ * </p>
+ *
+ * <p>
+ * L and U are computed one column at a time using a left looking algorithm and are stored the same way as in
+ * {@link org.ejml.sparse.csc.decomposition.lu.LuUpLooking_DSCC}, i.e. the diagonal element is the first element
+ * in each column of L and the last element in each column of U.
+ * </p>
+ *
+ * <p>See chapter 10 in "Iterative Methods for Sparse Linear Systems" by Yousef Saad</p>
+ *
+ * @author Peter Abeles
+ */
+public class IncompleteLU_DSCC implements Preconditioner_F64<DMatrixSparseCSC> {
+    DMatrixSparseCSC L = new DMatrixSparseCSC(1, 1, 0);
+    DMatrixSparseCSC U = new DMatrixSparseCSC(1, 1, 0);
+
+    // copy of A with sorted row indices
+    DMatrixSparseCSC Asorted = new DMatrixSparseCSC(1, 1, 0);
+
+    // workspace
+    DGrowArray gx = new DGrowArray();
+    IGrowArray gmark = new IGrowArray();
+
+    @Override
+    public boolean setA( DMatrixSparseCSC A ) {
+        if (A.numRows != A.numCols)
+            throw new IllegalArgumentException("A must be square");
+
+        if (!A.indicesSorted) {
+            Asorted.set(A);
+            Asorted.sortIndices(null);
+            A = Asorted;
+        }
+
+        final int N = A.numCols;
+        int countL = 0, countU = 0;
+        for (int j = 0; j < N; j++) {
+            for (int p = A.col_idx[j]; p < A.col_idx[j + 1]; p++) {
+                int i = A.nz_rows[p];
+                if (i >= j) countL++;
+                if (i <= j) countU++;
+            }
+        }
+        L.reshape(N, N, countL);
+        U.reshape(N, N, countU);
+
+        double[] x = UtilEjml.adjust(gx, N);
+        // mark[i] == j+1 if row i is in column j of A
+        int[] mark = UtilEjml.adjust(gmark, N, N);
+
+        for (int j = 0; j < N; j++) {
+            int idx0 = A.col_idx[j];
+            int idx1 = A.col_idx[j + 1];
+
+            // scatter the column of A
+            for (int p = idx0; p < idx1; p++) {
+                int i = A.nz_rows[p];
+                x[i] = A.nz_values[p];
+                mark[i] = j + 1;
+            }
+            if (mark[j] != j + 1)
+                return false;
+
+            // Solve L*x = A(:,j) for the upper rows while ignoring all fill in. Rows are in ascending order
+            // so x[k] has its final value when it's reached
+            for (int p = idx0; p < idx1; p++) {
+                int k = A.nz_rows[p];
+                if (k >= j)
+                    break;
+                double ukj = x[k];
+                U.nz_rows[U.nz_length] = k;
+                U.nz_values[U.nz_length++] = ukj;
+
+                for (int q = L.col_idx[k] + 1; q < L.col_idx[k + 1]; q++) {
+                    int i = L.nz_rows[q];
+                    if (mark[i] == j + 1)
+                        x[i] -= L.nz_values[q]*ukj;
+                }
+            }
+
+            double pivot = x[j];
+            if (pivot == 0.0 || UtilEjml.isUncountable(pivot))
+                return false;
+            U.nz_rows[U.nz_length] = j;
+            U.nz_values[U.nz_length++] = pivot;
+            U.col_idx[j + 1] = U.nz_length;
+
+            L.nz_rows[L.nz_length] = j;
+            L.nz_values[L.nz_length++] = 1;
+            for (int p = idx0; p < idx1; p++) {
+                int i = A.nz_rows[p];
+                if (i > j) {
+                    L.nz_rows[L.nz_length] = i;
+                    L.nz_values[L.nz_length++] = x[i]/pivot;
+                }
+            }
+            L.col_idx[j + 1] = L.nz_length;
+        }
+        L.indicesSorted = true;
+        U.indicesSorted = true;
+
+        return true;
+    }
+
+    @Override
+    public void solve( double[] r, double[] z ) {
+        System.arraycopy(r, 0, z, 0, L.numCols);
+        TriangularSolver_DSCC.solveL(L, z);
+        TriangularSolver_DSCC.solveU(U, z);
+    }
+
+    /**
+     * Returns the unit lower triangular factor
+     */
+    public DMatrixSparseCSC getL() {
+        return L;
+    }
+
+    /**
+     * Returns the upper triangular factor
+     */
+    public DMatrixSparseCSC getU() {
+        return U;
+    }
+}
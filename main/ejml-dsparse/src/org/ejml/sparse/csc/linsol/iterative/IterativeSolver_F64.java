@@ -0,0 +1,295 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.sparse.csc.linsol.iterative;
+
+import org.ejml.data.DGrowArray;
+import org.ejml.data.DMatrix;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.sparse.csc.mult.MatrixVectorMult_DSCC;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+import static org.ejml.UtilEjml.adjust;
+
+/**
+ * <p>
+ * Base class for iterative solvers of the linear system A*x = b. Instead of decomposing A the solution is
+ * found using only matrix-vector products with A, which is much less expensive in time and memory for large
+ * well conditioned sparse systems. The solver stops when the norm of the residual is less than or equal to
+ * tolerance*|b| or the maximum number of iterations has been exceeded.
+ * </p>
+ *
+ * <p>
+ * A can be a {@link DMatrixSparseCSC} or a {@link DMatrixRMaj}. An optional preconditioner can be specified
+ * which will reduce the number of iterations.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public abstract class IterativeSolver_F64<T extends DMatrix> {
+    // Solution has converged when |b - A*x| &le; tolerance*|b|
+    protected double tolerance = 1e-10;
+    // Maximum number of iterations
+    protected int maxIterations = 1000;
+
+    // Optional preconditioner
+    protected @Nullable Preconditioner_F64<T> preconditioner;
+
+    // The matrix in the linear system
+    protected @Nullable T A;
+
+    // Norm of the residual at the start and after every iteration
+    protected final DGrowArray residualHistory = new DGrowArray();
+    // Number of iterations in the most recent call to solve
+    protected int iterations;
+    // true if the most recent call to solve converged
+    protected boolean converged;
+
+    // workspace for solving matrices
+    protected final DGrowArray gb = new DGrowArray();
+    protected final DGrowArray gx = new DGrowArray();
+
+    protected IterativeSolver_F64( @Nullable Preconditioner_F64<T> preconditioner ) {
+        this.preconditioner = preconditioner;
+    }
+
+    /**
+     * Specifies the matrix A and computes the preconditioner, if there is one
+     *
+     * @param A Square matrix. Reference is saved and not modified.
+     * @return true if the preconditioner could be computed
+     */
+    public boolean setA( T A ) {
+        if (A.getNumRows() != A.getNumCols())
+            throw new IllegalArgumentException("A must be a square matrix");
+        if (!(A instanceof DMatrixSparseCSC || A instanceof DMatrixRMaj))
+            throw new IllegalArgumentException("Unsupported matrix type " + A.getClass().getSimpleName());
+        this.A = A;
+        if (preconditioner == null)
+            return true;
+        return preconditioner.setA(A);
+    }
+
+    /**
+     * Solves A*x = b
+     *
+     * @param b (Input) Vector with N elements. Not modified.
+     * @param x (Input) Initial estimate of the solution. (Output) The solution. Must have N elements.
+     * @return true if it converged
+     */
+    public boolean solve( double[] b, double[] x ) {
+        if (A == null)
+            throw new IllegalArgumentException("Must call setA() first");
+
+        iterations = 0;
+        converged = false;
+        residualHistory.reset();
+
+        int N = A.getNumRows();
+        if (b.length < N || x.length < N)
+            throw new IllegalArgumentException("b and x must have at least " + N + " elements");
+
+        double normB = norm(b, N);
+        if (normB == 0.0) {
+            // the solution is trivial
+            Arrays.fill(x, 0, N, 0);
+            addResidual(0.0);
+            converged = true;
+            return true;
+        }
+
+        converged = process(b, x, N, tolerance*normB);
+        return converged;
+    }
+
+    /**
+     * Solves A*X = B for each column in B independently. The residual history and number of iterations
+     * will be for the last column.
+     *
+     * @param B (Input) Matrix with N rows. Not modified.
+     * @param X (Output) Solution. Reshaped to match B.
+     * @param initialGuess If true then X contains the initial estimate. If X isn't the correct shape then
+     * zero is used as the initial estimate.
+     * @return true if the solution for every column converged
+     */
+    @SuppressWarnings("NullAway") // A is checked in solve()
+    public boolean solve( DMatrixRMaj B, DMatrixRMaj X, boolean initialGuess ) {
+        if (A == null)
+            throw new IllegalArgumentException("Must call setA() first");
+        int N = A.getNumRows();
+        if (B.numRows != N)
+            throw new IllegalArgumentException("Unexpected number of rows in B. " + B.numRows + " vs " + N);
+
+        boolean useX = initialGuess && X.numRows == N && X.numCols == B.numCols;
+        X.reshape(N, B.numCols);
+
+        double[] b = adjust(gb, N);
+        double[] x = adjust(gx, N);
+
+        boolean success = true;
+        for (int col = 0; col < B.numCols; col++) {
+            for (int i = 0, index = col; i < N; i++, index += B.numCols) {
+                b[i] = B.data[index];
+                x[i] = useX ? X.data[index] : 0.0;
+            }
+
+            success &= solve(b, x);
+
+            for (int i = 0, index = col; i < N; i++, index += X.numCols) {
+                X.data[index] = x[i];
+            }
+        }
+        return success;
+    }
+
+    /**
+     * Implementation specific solver
+     *
+     * @param b (Input) Vector
+     * @param x (Input) Initial estimate. (Output) solution.
+     * @param N Number of elements in the vectors
+     * @param threshold Converged when the norm of the residual is less than or equal to this value
+     * @return true if it converged
+     */
+    protected abstract boolean process( double[] b, double[] x, int N, double threshold );
+
+    /**
+     * y = A*x
+     */
+    @SuppressWarnings("NullAway") // A is checked in solve()
+    protected void multiply( double[] x, double[] y ) {
+        if (A instanceof DMatrixSparseCSC) {
+            MatrixVectorMult_DSCC.mult((DMatrixSparseCSC)A, x, 0, y, 0);
+        } else {
+            DMatrixRMaj M = (DMatrixRMaj)A;
+            int index = 0;
+            for (int row = 0; row < M.numRows; row++) {
+                double sum = 0;
+                for (int col = 0; col < M.numCols; col++) {
+                    sum += M.data[index++]*x[col];
+                }
+                y[row] = sum;
+            }
+        }
+    }
+
+    /**
+     * r = b - A*x
+     */
+    protected void residual( double[] b, double[] x, double[] r, int N ) {
+        multiply(x, r);
+        for (int i = 0; i < N; i++) {
+            r[i] = b[i] - r[i];
+        }
+    }
+
+    /**
+     * Solves M*z = r. If there is no preconditioner then z = r.
+     */
+    protected void precondition( double[] r, double[] z, int N ) {
+        if (preconditioner == null) {
+            System.arraycopy(r, 0, z, 0, N);
+        } else {
+            preconditioner.solve(r, z);
+        }
+    }
+
+    protected void addResidual( double value ) {
+        int length = residualHistory.length;
+        if (residualHistory.data.length <= length)
+            residualHistory.growInternal(Math.max(10, length));
+        residualHistory.length = length + 1;
+        residualHistory.data[length] = value;
+    }
+
+    protected static double dot( double[] a, double[] b, int N ) {
+        double total = 0;
+        for (int i = 0; i < N; i++) {
+            total += a[i]*b[i];
+        }
+        return total;
+    }
+
+    protected static double norm( double[] a, int N ) {
+        return Math.sqrt(dot(a, a, N));
+    }
+
+    /**
+     * y = y + alpha*x
+     */
+    protected static void addScaled( double alpha, double[] x, double[] y, int N ) {
+        for (int i = 0; i < N; i++) {
+            y[i] += alpha*x[i];
+        }
+    }
+
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    /**
+     * Relative tolerance for convergence. The solver has converged when |b - A*x| &le; tolerance*|b|
+     */
+    public void setTolerance( double tolerance ) {
+        this.tolerance = tolerance;
+    }
+
+    public int getMaxIterations() {
+        return maxIterations;
+    }
+
+    public void setMaxIterations( int maxIterations ) {
+        this.maxIterations = maxIterations;
+    }
+
+    public @Nullable Preconditioner_F64<T> getPreconditioner() {
+        return preconditioner;
+    }
+
+    /**
+     * Changes the preconditioner. Call {@link #setA} afterwards so that it can be computed.
+     */
+    public void setPreconditioner( @Nullable Preconditioner_F64<T> preconditioner ) {
+        this.preconditioner = preconditioner;
+    }
+
+    /**
+     * Norm of the residual before the first iteration and after each iteration in the most recent call to
+     * {@link #solve}.
+     */
+    public DGrowArray getResidualHistory() {
+        return residualHistory;
+    }
+
+    /**
+     * Number of iterations in the most recent call to {@link #solve}
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * True if the most recent call to {@link #solve} converged
+     */
+    public boolean isConverged() {
+        return converged;
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.sparse.csc.linsol.iterative;
+
+import org.ejml.data.DGrowArray;
+import org.ejml.data.DMatrix;
+
+/**
+ * Jacobi preconditioner, i.e. M = diag(A). Very cheap to compute and apply and is effective for diagonally
+ * dominant matrices.
+ *
+ * @author Peter Abeles
+ */
+public class JacobiPreconditioner_F64<T extends DMatrix> implements Preconditioner_F64<T> {
+    // inverse of the diagonal elements in A
+    DGrowArray invDiag = new DGrowArray();
+
+    @Override
+    public boolean setA( T A ) {
+        int N = Math.min(A.getNumRows(), A.getNumCols());
+        invDiag.reshape(N);
+        for (int i = 0; i < N; i++) {
+            double value = A.get(i, i);
+            if (value == 0.0)
+                return false;
+            invDiag.data[i] = 1.0/value;
+        }
+        return true;
+    }
+
+    @Override
+    public void solve( double[] r, double[] z ) {
+        final int N = invDiag.length;
+        for (int i = 0; i < N; i++) {
+            z[i] = r[i]*invDiag.data[i];
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.sparse.csc.linsol.iterative;
+
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.interfaces.decomposition.DecompositionInterface;
+import org.ejml.interfaces.linsol.LinearSolverDense;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Wrapper around {@link IterativeSolver_F64} which allows it to be used as a {@link LinearSolverDense}.
+ * Each column in B is solved independently. Check {@link IterativeSolver_F64#isConverged()} to see if the
+ * last column converged. There is no decomposition, so {@link #quality()} throws an exception and
+ * {@link #getDecomposition()} returns null.
+ *
+ * <p>
+ * LinearSolverFactory_DDRM is in a module which can't see the iterative solvers, so this is created directly.
+ * Iterative solvers only pay off for dense matrices which are large and well conditioned.
+ * </p>
+ *
+ * <pre>
+ * LinearSolverIterative_DDRM solver = new LinearSolverIterative_DDRM(new ConjugateGradient_F64&lt;&gt;());
+ * solver.getSolver().setTolerance(1e-10);
+ * solver.setA(A);
+ * solver.solve(B, X);
+ * </pre>
+ *
+ * @author Peter Abeles
+ */
+public class LinearSolverIterative_DDRM implements LinearSolverDense<DMatrixRMaj> {
+    IterativeSolver_F64<DMatrixRMaj> solver;
+
+    // If true then the values in X are used as the initial estimate
+    boolean initialGuess = false;
+
+    public LinearSolverIterative_DDRM( IterativeSolver_F64<DMatrixRMaj> solver ) {
+        this.solver = solver;
+    }
+
+    @Override
+    public boolean setA( DMatrixRMaj A ) {
+        return solver.setA(A);
+    }
+
+    /**
+     * Iterative solvers don't compute a decomposition which the quality can be found from.
+     *
+     * @throws IllegalArgumentException Always
+     */
+    @Override
+    public /**/double quality() {
+        throw new IllegalArgumentException("Not supported by iterative solvers");
+    }
+
+    @Override
+    public void solve( DMatrixRMaj B, DMatrixRMaj X ) {
+        solver.solve(B, X, initialGuess);
+    }
+
+    @Override
+    public void invert( DMatrixRMaj A_inv ) {
+        DMatrixRMaj A = solver.A;
+        if (A == null)
+            throw new IllegalArgumentException("Must call setA() first");
+        solver.solve(CommonOps_DDRM.identity(A.numRows), A_inv, false);
+    }
+
+    @Override
+    public boolean modifiesA() {
+        return false;
+    }
+
+    @Override
+    public boolean modifiesB() {
+        return false;
+    }
+
+    /**
+     * Iterative solvers don't decompose the matrix, so there is no decomposition to return
+     *
+     * @return Always null
+     */
+    @Override
+    public @Nullable DecompositionInterface<DMatrixRMaj> getDecomposition() {
+        return null;
+    }
+
+    public IterativeSolver_F64<DMatrixRMaj> getSolver() {
+        return solver;
+    }
+
+    public boolean isInitialGuess() {
+        return initialGuess;
+    }
+
+    /**
+     * If true then the input value of X is used as the initial estimate of the solution
+     */
+    public void setInitialGuess( boolean initialGuess ) {
+        this.initialGuess = initialGuess;
+    }
+}
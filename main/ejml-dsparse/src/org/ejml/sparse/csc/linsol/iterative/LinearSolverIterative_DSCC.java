@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.sparse.csc.linsol.iterative;
+
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.interfaces.decomposition.DecompositionInterface;
+import org.ejml.interfaces.linsol.LinearSolverSparse;
+import org.ejml.ops.ConvertDMatrixStruct;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Wrapper around {@link IterativeSolver_F64} which allows it to be used as a {@link LinearSolverSparse}.
+ * Each column in B is solved independently. Check {@link IterativeSolver_F64#isConverged()} to see if the
+ * last column converged. There is no decomposition, so {@link #quality()} throws an exception and
+ * {@link #getDecomposition()} returns null.
+ *
+ * @author Peter Abeles
+ */
+public class LinearSolverIterative_DSCC implements LinearSolverSparse<DMatrixSparseCSC, DMatrixRMaj> {
+    IterativeSolver_F64<DMatrixSparseCSC> solver;
+
+    // If true then the values in X are used as the initial estimate
+    boolean initialGuess = false;
+
+    // there is no structure to lock, but the flag is kept for consistency
+    boolean locked = false;
+
+    // workspace for sparse solve
+    DMatrixRMaj denseB = new DMatrixRMaj(1, 1);
+    DMatrixRMaj denseX = new DMatrixRMaj(1, 1);
+
+    public LinearSolverIterative_DSCC( IterativeSolver_F64<DMatrixSparseCSC> solver ) {
+        this.solver = solver;
+    }
+
+    @Override
+    public boolean setA( DMatrixSparseCSC A ) {
+        return solver.setA(A);
+    }
+
+    /**
+     * Iterative solvers don't compute a decomposition which the quality can be found from.
+     *
+     * @throws IllegalArgumentException Always
+     */
+    @Override
+    public /**/double quality() {
+        throw new IllegalArgumentException("Not supported by iterative solvers");
+    }
+
+    @Override
+    public void solve( DMatrixRMaj B, DMatrixRMaj X ) {
+        solver.solve(B, X, initialGuess);
+    }
+
+    @Override
+    public void solveSparse( DMatrixSparseCSC B, DMatrixSparseCSC X ) {
+        ConvertDMatrixStruct.convert(B, denseB);
+        if (initialGuess)
+            ConvertDMatrixStruct.convert(X, denseX);
+        solver.solve(denseB, denseX, initialGuess);
+        ConvertDMatrixStruct.convert(denseX, X, 0.0);
+    }
+
+    @Override
+    public void setStructureLocked( boolean locked ) {
+        this.locked = locked;
+    }
+
+    @Override
+    public boolean isStructureLocked() {
+        return locked;
+    }
+
+    @Override
+    public boolean modifiesA() {
+        return false;
+    }
+
+    @Override
+    public boolean modifiesB() {
+        return false;
+    }
+
+    /**
+     * Iterative solvers don't decompose the matrix, so there is no decomposition to return
+     *
+     * @return Always null
+     */
+    @Override
+    public @Nullable DecompositionInterface<DMatrixSparseCSC> getDecomposition() {
+        return null;
+    }
+
+    public IterativeSolver_F64<DMatrixSparseCSC> getSolver() {
+        return solver;
+    }
+
+    public boolean isInitialGuess() {
+        return initialGuess;
+    }
+
+    /**
+     * If true then the input value of X is used as the initial estimate of the solution
+     */
+    public void setInitialGuess( boolean initialGuess ) {
+        this.initialGuess = initialGuess;
+    }
+}
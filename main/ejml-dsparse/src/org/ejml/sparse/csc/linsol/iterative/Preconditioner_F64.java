@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.sparse.csc.linsol.iterative;
+
+import org.ejml.data.DMatrix;
+
+/**
+ * Preconditioner M for an iterative solver, where M is an approximation of A which is much easier to invert.
+ * Solving M*x = b is a relatively inexpensive operation.
+ *
+ * @author Peter Abeles
+ */
+public interface Preconditioner_F64<T extends DMatrix> {
+    /**
+     * Computes the preconditioner from the matrix A.
+     *
+     * @param A (Input) Matrix in the linear system. Not modified.
+     * @return true if successful or false if it failed.
+     */
+    boolean setA( T A );
+
+    /**
+     * Solves M*z = r for z
+     *
+     * @param r (Input) Vector. Not modified.
+     * @param z (Output) Solution. Can't be the same array as r.
+     */
+    void solve( double[] r, double[] z );
+}
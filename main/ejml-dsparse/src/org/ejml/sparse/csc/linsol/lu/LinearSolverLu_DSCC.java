@@ -41,8 +41,10 @@ public class LinearSolverLu_DSCC implements LinearSolverSparse<DMatrixSparseCSC,
 
     private final DGrowArray gx = new DGrowArray();
     private final DGrowArray gb = new DGrowArray();
+    private final DGrowArray gbp = new DGrowArray();
 
     DMatrixSparseCSC Bp = new DMatrixSparseCSC(1, 1, 1);
+    DMatrixSparseCSC Xp = new DMatrixSparseCSC(1, 1, 1);
     DMatrixSparseCSC tmp = new DMatrixSparseCSC(1, 1, 1);
 
     // Number of rows in A
@@ -73,6 +75,12 @@ public class LinearSolverLu_DSCC implements LinearSolverSparse<DMatrixSparseCSC,
         // these are row pivots
         Bp.reshape(B.numRows, B.numCols, B.nz_length);
         int[] Pinv = decomposition.getPinv();
+        int[] fillPinv = decomposition.getReduceRowPinv();
+        int[] q = decomposition.getReducePermutation();
+        if (fillPinv != null) {
+            CommonOps_DSCC.permuteRowInv(fillPinv, B, Xp);
+            B = Xp;
+        }
         CommonOps_DSCC.permute(Pinv, B, null, Bp);
 
         IGrowArray gw = decomposition.getGw();
@@ -81,7 +89,14 @@ public class LinearSolverLu_DSCC implements LinearSolverSparse<DMatrixSparseCSC,
         tmp.reshape(L.numRows, B.numCols, 1);
 
         TriangularSolver_DSCC.solve(L, true, Bp, tmp, null, gx, gw, gw1);
-        TriangularSolver_DSCC.solve(U, false, tmp, X, null, gx, gw, gw1);
+        if (q != null) {
+            // undo the column permutation. x(q) = y
+            Xp.reshape(X.numRows, X.numCols, 1);
+            TriangularSolver_DSCC.solve(U, false, tmp, Xp, null, gx, gw, gw1);
+            CommonOps_DSCC.permuteRowInv(q, Xp, X);
+        } else {
+            TriangularSolver_DSCC.solve(U, false, tmp, X, null, gx, gw, gw1);
+        }
     }
 
     @Override
@@ -102,24 +117,30 @@ public class LinearSolverLu_DSCC implements LinearSolverSparse<DMatrixSparseCSC,
         int[] pinv = decomposition.getPinv();
         double[] x = adjust(gx, X.numRows);
         double[] b = adjust(gb, B.numRows);
+        double[] bp = adjust(gbp, B.numRows);
 
         DMatrixSparseCSC L = decomposition.getL();
         DMatrixSparseCSC U = decomposition.getU();
 
-        final boolean reduceFill = decomposition.isReduceFill();
-        final int[] q = reduceFill ? decomposition.getReducePermutation() : null;
+        final int[] fillPinv = decomposition.getReduceRowPinv();
+        final int[] q = decomposition.getReducePermutation();
 
         // process each column in X and B individually
         for (int colX = 0; colX < X.numCols; colX++) {
             int index = colX;
             for (int i = 0; i < B.numRows; i++, index += X.numCols) b[i] = B.data[index];
 
-            CommonOps_DSCC.permuteInv(pinv, b, x, X.numRows);
+            if (fillPinv != null) {
+                CommonOps_DSCC.permuteInv(fillPinv, b, bp, X.numRows);
+                CommonOps_DSCC.permuteInv(pinv, bp, x, X.numRows);
+            } else {
+                CommonOps_DSCC.permuteInv(pinv, b, x, X.numRows);
+            }
             TriangularSolver_DSCC.solveL(L, x);
             TriangularSolver_DSCC.solveU(U, x);
             double[] d;
-            if (reduceFill) {
-                CommonOps_DSCC.permute(q, x, b, X.numRows);
+            if (q != null) {
+                CommonOps_DSCC.permuteInv(q, x, b, X.numRows);
                 d = b;
             } else {
                 d = x;
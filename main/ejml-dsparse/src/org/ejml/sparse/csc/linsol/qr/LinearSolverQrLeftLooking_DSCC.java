@@ -78,6 +78,15 @@ public class LinearSolverQrLeftLooking_DSCC implements LinearSolverSparse<DMatri
         DMatrixSparseCSC B_tmp = B.createLike();
         DMatrixSparseCSC swap;
 
+        // Apply fill reducing row permutation to B
+        int[] fillPinv = qr.getFillRowPinv();
+        if (fillPinv != null) {
+            CommonOps_DSCC.permuteRowInv(fillPinv, B, B_tmp);
+            swap = B_tmp;
+            B_tmp = B;
+            B = swap;
+        }
+
         // Apply permutation to B
         int[] pinv = qr.getStructure().getPinv();
         CommonOps_DSCC.permuteRowInv(pinv, B, B_tmp);
@@ -96,7 +105,15 @@ public class LinearSolverQrLeftLooking_DSCC implements LinearSolverSparse<DMatri
 
         // Solve for X
         DMatrixSparseCSC R = qr.getR();
-        TriangularSolver_DSCC.solve(R, false, B, X, null, gx, gw, gw1);
+        int[] q = qr.getFillPermutation();
+        if (q != null) {
+            // undo the column permutation. x(q) = y
+            B_tmp.reshape(X.numRows, X.numCols, 1);
+            TriangularSolver_DSCC.solve(R, false, B, B_tmp, null, gx, gw, gw1);
+            CommonOps_DSCC.permuteRowInv(q, B_tmp, X);
+        } else {
+            TriangularSolver_DSCC.solve(R, false, B, X, null, gx, gw, gw1);
+        }
     }
 
     @Override
@@ -118,12 +135,20 @@ public class LinearSolverQrLeftLooking_DSCC implements LinearSolverSparse<DMatri
         double[] x = adjust(gx, AnumCols);
 
         int[] pinv = qr.getStructure().getPinv();
+        int[] fillPinv = qr.getFillRowPinv();
+        int[] q = qr.getFillPermutation();
 
         // process each column in X and B individually
         for (int colX = 0; colX < B.numCols; colX++) {
             int index = colX;
             for (int i = 0; i < B.numRows; i++, index += X.numCols) b[i] = B.data[index];
 
+            // apply fill reducing row permutation
+            if (fillPinv != null) {
+                CommonOps_DSCC.permuteInv(fillPinv, b, bp, AnumRows);
+                System.arraycopy(bp, 0, b, 0, AnumRows);
+            }
+
             // apply row pivots
             CommonOps_DSCC.permuteInv(pinv, b, bp, AnumRows);
 
@@ -136,8 +161,8 @@ public class LinearSolverQrLeftLooking_DSCC implements LinearSolverSparse<DMatri
 
             // undo the permutation
             double[] out;
-            if (qr.isFillPermutated()) {
-                CommonOps_DSCC.permute(qr.getFillPermutation(), bp, x, X.numRows);
+            if (q != null) {
+                CommonOps_DSCC.permuteInv(q, bp, x, X.numRows);
                 out = x;
             } else {
                 out = bp;
@@ -39,6 +39,9 @@ public class ApplyFillReductionPermutation_DSCC {
     DMatrixSparseCSC Aperm = new DMatrixSparseCSC(1, 1, 0);
     int[] pinv = new int[1]; // inverse row pivots
 
+    // Permutations applied to the rows and columns by the last call to apply(). null if not permuted
+    @Nullable int[] rowPerm, colPerm;
+
     IGrowArray gw = new IGrowArray();
 
     boolean symmetric;
@@ -53,6 +56,9 @@ public class ApplyFillReductionPermutation_DSCC {
      * Computes and applies the fill reduction permutation. Either A is returned (unmodified) or the permutated
      * version of A.
      *
+     * <p>If symmetric then P*A*P' is computed using the row permutation, or the column permutation if there is no
+     * row permutation. Otherwise the rows and columns are permuted independently and either can be omitted.</p>
+     *
      * @param A Input matrix. unmodified.
      * @return A permuted matrix. Might be A or a different matrix.
      */
@@ -62,31 +68,51 @@ public class ApplyFillReductionPermutation_DSCC {
         fillReduce.process(A);
 
         IGrowArray gp = fillReduce.getRow();
-        if (gp == null)
-            throw new RuntimeException("No row permutation matrix");
+        IGrowArray gq = fillReduce.getColumn();
+
+        if (symmetric) {
+            if (gp == null)
+                gp = gq;
+            if (gp == null)
+                throw new RuntimeException("No row or column permutation matrix");
+            gq = gp;
+        }
+
+        rowPerm = gp == null ? null : gp.data;
+        colPerm = gq == null ? null : gq.data;
+
+        if (gp != null) {
+            if (pinv.length != gp.length)
+                pinv = new int[gp.length];
+            CommonOps_DSCC.permutationInverse(gp.data, pinv, gp.length);
+        }
 
-        if (pinv.length < gp.length)
-            pinv = new int[gp.length];
-        CommonOps_DSCC.permutationInverse(gp.data, pinv, gp.length);
         if (symmetric)
             CommonOps_DSCC.permuteSymmetric(A, pinv, Aperm, gw);
         else
-            CommonOps_DSCC.permuteRowInv(pinv, A, Aperm);
+            CommonOps_DSCC.permute(gp == null ? null : pinv, A, colPerm, Aperm);
         return Aperm;
     }
 
+    /**
+     * Inverse of the row permutation. Null if the rows were not permuted.
+     */
     public @Nullable int[] getArrayPinv() {
-        return fillReduce == null ? null : pinv;
+        return rowPerm == null ? null : pinv;
     }
 
-    @SuppressWarnings("NullAway")
+    /**
+     * Row permutation. Null if the rows were not permuted.
+     */
     public @Nullable int[] getArrayP() {
-        return fillReduce == null ? null : fillReduce.getRow().data;
+        return rowPerm;
     }
 
-    @SuppressWarnings("NullAway")
+    /**
+     * Column permutation. Null if the columns were not permuted.
+     */
     public @Nullable int[] getArrayQ() {
-        return fillReduce == null ? null : fillReduce.getColumn().data;
+        return colPerm;
     }
 
     public IGrowArray getGw() {
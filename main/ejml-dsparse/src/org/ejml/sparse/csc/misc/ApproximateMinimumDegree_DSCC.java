@@ -0,0 +1,610 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.sparse.csc.misc;
+
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.data.IGrowArray;
+import org.ejml.sparse.ComputePermutation;
+import org.ejml.sparse.csc.CommonOps_DSCC;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Approximate Minimum Degree (AMD) fill reducing ordering. The ordering is computed from the non-zero pattern only.
+ * Two graphs can be ordered:
+ * </p>
+ * <ul>
+ *     <li>symmetric: The graph of A+A<sup>T</sup>. Intended for Cholesky. The same permutation is returned
+ *     for the rows and columns.</li>
+ *     <li>column: The graph of A<sup>T</sup>A with dense rows of A ignored. Intended for LU and QR. Only a column
+ *     permutation is returned. Also used by symmetric if A is not square, in which case the row permutation
+ *     is the identity.</li>
+ * </ul>
+ *
+ * <p>
+ * Nodes are eliminated from a quotient graph in order of their approximate external degree. Element absorption,
+ * aggressive absorption, mass elimination and supernode detection are used to reduce the cost. The assembly tree
+ * is then post ordered. Dense nodes are removed from the graph and ordered last.
+ * </p>
+ *
+ * <p>See cs_amd() on page 101 of "Direct Methods for Sparse Linear Systems" by Timothy A. Davis</p>
+ *
+ * @author Peter Abeles
+ */
+public class ApproximateMinimumDegree_DSCC extends ComputePermutation<DMatrixSparseCSC> {
+
+    // if true the ordering of A+A' is computed
+    private final boolean symmetric;
+
+    // Graph which is being ordered. Doubles as storage for the quotient graph and has extra space for elbow room
+    private int[] Cp = new int[0];
+    private final IGrowArray gCi = new IGrowArray();
+    private int cnz;
+
+    // Transpose of A. Only needed for the column ordering
+    private final DMatrixSparseCSC At = new DMatrixSparseCSC(1, 1, 0);
+    private final IGrowArray gw = new IGrowArray();
+
+    // work space. See cs_amd() for a description
+    private int[] len = new int[0];
+    private int[] nv = new int[0];
+    private int[] next = new int[0];
+    private int[] head = new int[0];
+    private int[] elen = new int[0];
+    private int[] degree = new int[0];
+    private int[] w = new int[0];
+    private int[] hhead = new int[0];
+    private int[] last = new int[0];
+
+    // The ordering. Includes an extra node at the end which is a place holder for dense nodes
+    private int[] post = new int[0];
+
+    /**
+     * Configures the ordering
+     *
+     * @param symmetric true to order A+A<sup>T</sup> and false to order A<sup>T</sup>A
+     */
+    public ApproximateMinimumDegree_DSCC( boolean symmetric ) {
+        super(symmetric, true);
+        this.symmetric = symmetric;
+    }
+
+    @SuppressWarnings("NullAway") // the constructor ensures pcol is never null and prow is not null if symmetric
+    @Override
+    public void process( DMatrixSparseCSC A ) {
+        int n = A.numCols;
+
+        // find dense threshold
+        int dense = Math.max(16, (int)(10*Math.sqrt(n)));
+        dense = Math.min(n - 2, dense);
+
+        if (symmetric && A.numRows == n)
+            constructSymmetric(A);
+        else
+            constructColumn(A, dense);
+
+        order(n, dense);
+
+        pcol.reshape(n);
+        System.arraycopy(post, 0, pcol.data, 0, n);
+
+        if (symmetric) {
+            if (A.numRows == n) {
+                prow.reshape(n);
+                System.arraycopy(pcol.data, 0, prow.data, 0, n);
+            } else {
+                // the rows of a rectangular matrix are left in their original order
+                prow.reshape(A.numRows);
+                for (int i = 0; i < A.numRows; i++) {
+                    prow.data[i] = i;
+                }
+            }
+        }
+    }
+
+    /**
+     * Constructs the graph of A+A<sup>T</sup> without the diagonal elements
+     */
+    void constructSymmetric( DMatrixSparseCSC A ) {
+        int n = A.numCols;
+        declareGraph(n);
+
+        // count the number of edges in each column, duplicates included
+        Arrays.fill(Cp, 0, n + 1, 0);
+        for (int j = 0; j < n; j++) {
+            int idx1 = A.col_idx[j + 1];
+            for (int p = A.col_idx[j]; p < idx1; p++) {
+                int i = A.nz_rows[p];
+                if (i == j)
+                    continue;
+                Cp[i]++;
+                Cp[j]++;
+            }
+        }
+        int total = cumulativeSum(n);
+        int[] Ci = allocateGraphElements(n, total);
+
+        // add the edges
+        int[] work = w;
+        System.arraycopy(Cp, 0, work, 0, n);
+        for (int j = 0; j < n; j++) {
+            int idx1 = A.col_idx[j + 1];
+            for (int p = A.col_idx[j]; p < idx1; p++) {
+                int i = A.nz_rows[p];
+                if (i == j)
+                    continue;
+                Ci[work[i]++] = j;
+                Ci[work[j]++] = i;
+            }
+        }
+
+        // remove duplicate edges, which will be present if A has a symmetric structure
+        // mark marks which nodes have already been added to the current column
+        int[] mark = next;
+        Arrays.fill(mark, 0, n, -1);
+        cnz = 0;
+        for (int j = 0; j < n; j++) {
+            int idx0 = Cp[j];
+            int idx1 = work[j];
+            Cp[j] = cnz;
+            for (int p = idx0; p < idx1; p++) {
+                int i = Ci[p];
+                if (mark[i] != j) {
+                    mark[i] = j;
+                    Ci[cnz++] = i;
+                }
+            }
+        }
+        Cp[n] = cnz;
+    }
+
+    /**
+     * Constructs the graph of A<sup>T</sup>A without the diagonal elements. Dense rows in A are ignored.
+     */
+    void constructColumn( DMatrixSparseCSC A, int dense ) {
+        int n = A.numCols;
+        declareGraph(n);
+
+        At.reshape(A.numCols, A.numRows, A.nz_length);
+        CommonOps_DSCC.transpose(A, At, gw);
+
+        // marks which nodes have already been added to the current column
+        int[] mark = next;
+
+        // First pass counts the number of elements in each column
+        Arrays.fill(mark, 0, n, -1);
+        for (int j = 0; j < n; j++) {
+            Cp[j] = columnOfAtA(A, j, dense, mark, null, 0);
+        }
+        int total = cumulativeSum(n);
+        int[] Ci = allocateGraphElements(n, total);
+
+        // Second pass fills in the graph
+        Arrays.fill(mark, 0, n, -1);
+        for (int j = 0; j < n; j++) {
+            columnOfAtA(A, j, dense, mark, Ci, Cp[j]);
+        }
+        cnz = total;
+    }
+
+    /**
+     * Finds all the non-zero elements in a column of A<sup>T</sup>A
+     *
+     * @param Ci If not null the row indexes are written here
+     * @return number of non-zero elements
+     */
+    private int columnOfAtA( DMatrixSparseCSC A, int j, int dense, int[] mark, @Nullable int[] Ci, int offset ) {
+        int count = 0;
+        int idx1 = A.col_idx[j + 1];
+        for (int p = A.col_idx[j]; p < idx1; p++) {
+            int row = A.nz_rows[p];
+            int idxT0 = At.col_idx[row];
+            int idxT1 = At.col_idx[row + 1];
+            if (idxT1 - idxT0 > dense)
+                continue;
+            for (int q = idxT0; q < idxT1; q++) {
+                int i = At.nz_rows[q];
+                if (i == j || mark[i] == j)
+                    continue;
+                mark[i] = j;
+                if (Ci != null)
+                    Ci[offset + count] = i;
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Converts the counts in Cp into the index of the first element in each column.
+     *
+     * @return total number of elements
+     */
+    private int cumulativeSum( int n ) {
+        int total = 0;
+        for (int j = 0; j < n; j++) {
+            int count = Cp[j];
+            Cp[j] = total;
+            total += count;
+        }
+        Cp[n] = total;
+        return total;
+    }
+
+    private void declareGraph( int n ) {
+        if (Cp.length < n + 1) {
+            Cp = new int[n + 1];
+            len = new int[n + 1];
+            nv = new int[n + 1];
+            next = new int[n + 1];
+            head = new int[n + 1];
+            elen = new int[n + 1];
+            degree = new int[n + 1];
+            w = new int[n + 1];
+            hhead = new int[n + 1];
+            last = new int[n + 1];
+            post = new int[n + 1];
+        }
+    }
+
+    /**
+     * Ensures the graph has enough space for all the edges and elbow room for the quotient graph
+     */
+    private int[] allocateGraphElements( int n, int total ) {
+        int nzmax = total + total/5 + 2*n;
+        gCi.reshape(nzmax);
+        return gCi.data;
+    }
+
+    private static int flip( int i ) {
+        return -i - 2;
+    }
+
+    /**
+     * Clears w if needed
+     */
+    private static int clearW( int mark, int lemax, int[] w, int n ) {
+        if (mark < 2 || (mark + lemax < 0)) {
+            for (int k = 0; k < n; k++)
+                if (w[k] != 0)
+                    w[k] = 1;
+            mark = 2;
+        }
+        return mark; // at this point, w[0..n-1] < mark holds
+    }
+
+    /**
+     * Computes the ordering from the graph stored in Cp and Ci
+     *
+     * @param n Number of nodes
+     * @param dense Nodes with a degree more than this are considered dense
+     */
+    void order( int n, int dense ) {
+        int[] Ci = gCi.data;
+        int nzmax = gCi.length;
+        int lemax = 0, mindeg = 0, nel = 0;
+
+        //--------------- Initialize quotient graph
+        for (int k = 0; k < n; k++)
+            len[k] = Cp[k + 1] - Cp[k];
+        len[n] = 0;
+        for (int i = 0; i <= n; i++) {
+            head[i] = -1;          // degree list i is empty
+            last[i] = -1;
+            next[i] = -1;
+            hhead[i] = -1;         // hash list i is empty
+            nv[i] = 1;             // node i is just one node
+            w[i] = 1;              // node i is alive
+            elen[i] = 0;           // Ek of node i is empty
+            degree[i] = len[i];    // degree of node i
+        }
+        int mark = clearW(0, 0, w, n);
+        elen[n] = -2;              // n is a dead element
+        Cp[n] = -1;                // n is a root of assembly tree
+        w[n] = 0;                  // n is a dead element
+
+        //--------------- Initialize degree lists
+        for (int i = 0; i < n; i++) {
+            int d = degree[i];
+            if (d == 0) {          // node i is empty
+                elen[i] = -2;      // element i is dead
+                nel++;
+                Cp[i] = -1;        // i is a root of assembly tree
+                w[i] = 0;
+            } else if (d > dense) {// node i is dense
+                nv[i] = 0;         // absorb i into element n
+                elen[i] = -1;      // node i is dead
+                nel++;
+                Cp[i] = flip(n);
+                nv[n]++;
+            } else {
+                if (head[d] != -1)
+                    last[head[d]] = i;
+                next[i] = head[d]; // put node i in degree list d
+                head[d] = i;
+            }
+        }
+
+        while (nel < n) {
+            //--------------- Select node of minimum approximate degree
+            int k = -1;
+            for (; mindeg < n && (k = head[mindeg]) == -1; mindeg++) {}
+            if (next[k] != -1)
+                last[next[k]] = -1;
+            head[mindeg] = next[k];  // remove k from degree list
+            int elenk = elen[k];     // elenk = |Ek|
+            int nvk = nv[k];         // # of nodes k represents
+            nel += nvk;              // nv[k] nodes of A eliminated
+
+            //--------------- Garbage collection
+            if (elenk > 0 && cnz + mindeg >= nzmax) {
+                for (int j = 0; j < n; j++) {
+                    int p;
+                    if ((p = Cp[j]) >= 0) {  // j is a live node or element
+                        Cp[j] = Ci[p];       // save first entry of object
+                        Ci[p] = flip(j);     // first entry is now flip(j)
+                    }
+                }
+                int q = 0;
+                for (int p = 0; p < cnz; ) { // scan all of memory
+                    int j;
+                    if ((j = flip(Ci[p++])) >= 0) { // found object j
+                        Ci[q] = Cp[j];       // restore first entry of object
+                        Cp[j] = q++;         // new pointer to object j
+                        for (int k3 = 0; k3 < len[j] - 1; k3++)
+                            Ci[q++] = Ci[p++];
+                    }
+                }
+                cnz = q;                     // Ci[cnz...nzmax-1] now free
+            }
+
+            //--------------- Construct new element
+            int dk = 0;
+            nv[k] = -nvk;                    // flag k as in Lk
+            int p = Cp[k];
+            int pk1 = (elenk == 0) ? p : cnz;// do in place if elen[k] == 0
+            int pk2 = pk1;
+            for (int k1 = 1; k1 <= elenk + 1; k1++) {
+                int e, pj, ln;
+                if (k1 > elenk) {
+                    e = k;                   // search the nodes in k
+                    pj = p;                  // list of nodes starts at Ci[pj]
+                    ln = len[k] - elenk;     // length of list of nodes in k
+                } else {
+                    e = Ci[p++];             // search the nodes in e
+                    pj = Cp[e];
+                    ln = len[e];             // length of list of nodes in e
+                }
+                for (int k2 = 1; k2 <= ln; k2++) {
+                    int i = Ci[pj++];
+                    int nvi;
+                    if ((nvi = nv[i]) <= 0)
+                        continue;            // node i dead, or seen
+                    dk += nvi;               // degree[Lk] += size of node i
+                    nv[i] = -nvi;            // negate nv[i] to denote i in Lk
+                    Ci[pk2++] = i;           // place i in Lk
+                    if (next[i] != -1)
+                        last[next[i]] = last[i];
+                    if (last[i] != -1) {     // remove i from degree list
+                        next[last[i]] = next[i];
+                    } else {
+                        head[degree[i]] = next[i];
+                    }
+                }
+                if (e != k) {
+                    Cp[e] = flip(k);         // absorb e into k
+                    w[e] = 0;                // e is now a dead element
+                }
+            }
+            if (elenk != 0)
+                cnz = pk2;                   // Ci[cnz...nzmax] is free
+            degree[k] = dk;                  // external degree of k - |Lk\i|
+            Cp[k] = pk1;                     // element k is in Ci[pk1..pk2-1]
+            len[k] = pk2 - pk1;
+            elen[k] = -2;                    // k is now an element
+
+            //--------------- Find set differences
+            mark = clearW(mark, lemax, w, n);
+            for (int pk = pk1; pk < pk2; pk++) { // scan 1: find |Le\Lk|
+                int i = Ci[pk];
+                int eln;
+                if ((eln = elen[i]) <= 0)
+                    continue;                // skip if elen[i] empty
+                int nvi = -nv[i];            // nv[i] was negated
+                int wnvi = mark - nvi;
+                for (p = Cp[i]; p <= Cp[i] + eln - 1; p++) { // scan Ei
+                    int e = Ci[p];
+                    if (w[e] >= mark) {
+                        w[e] -= nvi;         // decrement |Le\Lk|
+                    } else if (w[e] != 0) {  // ensure e is a live element
+                        w[e] = degree[e] + wnvi; // 1st time e seen in scan 1
+                    }
+                }
+            }
+
+            //--------------- Degree update
+            for (int pk = pk1; pk < pk2; pk++) { // scan2: degree update
+                int i = Ci[pk];              // consider node i in Lk
+                int p1 = Cp[i];
+                int p2 = p1 + elen[i] - 1;
+                int pn = p1;
+                long h = 0;
+                int d = 0;
+                for (p = p1; p <= p2; p++) { // scan Ei
+                    int e = Ci[p];
+                    if (w[e] != 0) {         // e is an unabsorbed element
+                        int dext = w[e] - mark; // dext = |Le\Lk|
+                        if (dext > 0) {
+                            d += dext;       // sum up the set differences
+                            Ci[pn++] = e;    // keep e in Ei
+                            h += e;          // compute the hash of node i
+                        } else {
+                            Cp[e] = flip(k); // aggressive absorb. e->k
+                            w[e] = 0;        // e is a dead element
+                        }
+                    }
+                }
+                elen[i] = pn - p1 + 1;       // elen[i] = |Ei|
+                int p3 = pn;
+                int p4 = p1 + len[i];
+                for (p = p2 + 1; p < p4; p++) { // prune edges in Ai
+                    int j = Ci[p];
+                    int nvj;
+                    if ((nvj = nv[j]) <= 0)
+                        continue;            // node j dead or in Lk
+                    d += nvj;                // degree(i) += |j|
+                    Ci[pn++] = j;            // place j in node list of i
+                    h += j;                  // compute hash for node i
+                }
+                if (d == 0) {                // check for mass elimination
+                    Cp[i] = flip(k);         // absorb i into k
+                    int nvi = -nv[i];
+                    dk -= nvi;               // |Lk| -= |i|
+                    nvk += nvi;              // |k| += nv[i]
+                    nel += nvi;
+                    nv[i] = 0;
+                    elen[i] = -1;            // node i is dead
+                } else {
+                    degree[i] = Math.min(degree[i], d); // update degree(i)
+                    Ci[pn] = Ci[p3];         // move first node to end
+                    Ci[p3] = Ci[p1];         // move 1st el. to end of Ei
+                    Ci[p1] = k;              // add k as 1st element in of Ei
+                    len[i] = pn - p1 + 1;    // new len of adj. list of node i
+                    int hash = (int)(Math.abs(h)%n); // finalize hash of i
+                    next[i] = hhead[hash];   // place i in hash bucket
+                    hhead[hash] = i;
+                    last[i] = hash;          // save hash of i in last[i]
+                }
+            }
+            degree[k] = dk;                  // finalize |Lk|
+            lemax = Math.max(lemax, dk);
+            mark = clearW(mark + lemax, lemax, w, n);
+
+            //--------------- Supernode detection
+            for (int pk = pk1; pk < pk2; pk++) {
+                int i = Ci[pk];
+                if (nv[i] >= 0)
+                    continue;                // skip if i is dead
+                int hash = last[i];          // scan hash bucket of node i
+                i = hhead[hash];
+                hhead[hash] = -1;            // hash bucket will be empty
+                for (; i != -1 && next[i] != -1; i = next[i], mark++) {
+                    int ln = len[i];
+                    int eln = elen[i];
+                    for (p = Cp[i] + 1; p <= Cp[i] + ln - 1; p++)
+                        w[Ci[p]] = mark;
+                    int jlast = i;
+                    for (int j = next[i]; j != -1; ) { // compare i with all j
+                        boolean ok = (len[j] == ln) && (elen[j] == eln);
+                        for (p = Cp[j] + 1; ok && p <= Cp[j] + ln - 1; p++) {
+                            if (w[Ci[p]] != mark)
+                                ok = false;  // compare i and j
+                        }
+                        if (ok) {            // i and j are identical
+                            Cp[j] = flip(i); // absorb j into i
+                            nv[i] += nv[j];
+                            nv[j] = 0;
+                            elen[j] = -1;    // node j is dead
+                            j = next[j];     // delete j from hash bucket
+                            next[jlast] = j;
+                        } else {
+                            jlast = j;       // j and i are different
+                            j = next[j];
+                        }
+                    }
+                }
+            }
+
+            //--------------- Finalize new element
+            p = pk1;
+            for (int pk = pk1; pk < pk2; pk++) { // finalize Lk
+                int i = Ci[pk];
+                int nvi;
+                if ((nvi = -nv[i]) <= 0)
+                    continue;                // skip if i is dead
+                nv[i] = nvi;                 // restore nv[i]
+                int d = degree[i] + dk - nvi;// compute external degree(i)
+                d = Math.min(d, n - nel - nvi);
+                if (head[d] != -1)
+                    last[head[d]] = i;
+                next[i] = head[d];           // put i back in degree list
+                last[i] = -1;
+                head[d] = i;
+                mindeg = Math.min(mindeg, d);// find new minimum degree
+                degree[i] = d;
+                Ci[p++] = i;                 // place i in Lk
+            }
+            nv[k] = nvk;                     // # nodes absorbed into k
+            if ((len[k] = p - pk1) == 0) {   // length of adj list of element k
+                Cp[k] = -1;                  // k is a root of the tree
+                w[k] = 0;                    // k is now a dead element
+            }
+            if (elenk != 0)
+                cnz = p;                     // free unused space in Lk
+        }
+
+        //--------------- Postordering
+        for (int i = 0; i < n; i++)
+            Cp[i] = flip(Cp[i]);             // fix assembly tree
+        for (int j = 0; j <= n; j++)
+            head[j] = -1;
+        for (int j = n; j >= 0; j--) {       // place unordered nodes in lists
+            if (nv[j] > 0)
+                continue;                    // skip if j is an element
+            next[j] = head[Cp[j]];           // place j in list of its parent
+            head[Cp[j]] = j;
+        }
+        for (int e = n; e >= 0; e--) {       // place elements in lists
+            if (nv[e] <= 0)
+                continue;                    // skip unless e is an element
+            if (Cp[e] != -1) {
+                next[e] = head[Cp[e]];       // place e in list of its parent
+                head[Cp[e]] = e;
+            }
+        }
+        for (int k = 0, i = 0; i <= n; i++) { // postorder the assembly tree
+            if (Cp[i] == -1)
+                k = depthFirstSearch(i, k, post);
+        }
+    }
+
+    /**
+     * Depth first search and postorder of a tree rooted at node j. See cs_tdfs()
+     */
+    private int depthFirstSearch( int j, int k, int[] post ) {
+        // w is no longer needed and can be used for the stack
+        int[] stack = w;
+        int top = 0;
+        stack[0] = j;                        // place j on the stack
+        while (top >= 0) {                   // while (stack is not empty)
+            int p = stack[top];              // p = top of stack
+            int i = head[p];                 // i = youngest child of p
+            if (i == -1) {
+                top--;                       // p has no unordered children left
+                post[k++] = p;               // node p is the kth postordered node
+            } else {
+                head[p] = next[i];           // remove i from children of p
+                stack[++top] = i;            // start dfs on child i
+            }
+        }
+        return k;
+    }
+}
@@ -22,6 +22,7 @@ import org.ejml.data.DGrowArray;
 import org.ejml.data.DMatrixSparseCSC;
 import org.ejml.data.IGrowArray;
 import org.ejml.ops.DSemiRing;
+import org.ejml.sparse.csc.Mask_DSCC;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.Arrays;
@@ -47,8 +48,28 @@ public class ImplCommonOpsWithSemiRing_DSCC {
      */
     public static void add( double alpha, DMatrixSparseCSC A, double beta, DMatrixSparseCSC B, DMatrixSparseCSC C, DSemiRing semiRing,
                             @Nullable IGrowArray gw, @Nullable DGrowArray gx ) {
+        add(alpha, A, beta, B, C, semiRing, null, gw, gx);
+    }
+
+    /**
+     * Performs masked matrix addition:<br>
+     * C = A + B<br>
+     * Only elements which are allowed by the mask are added to C.
+     *
+     * @param A Matrix
+     * @param B Matrix
+     * @param C Output matrix.
+     * @param semiRing Semi-Ring to define + and *
+     * @param mask (Optional) Mask which specifies which elements in C are computed. If null then all are.
+     * @param gw (Optional) Storage for internal workspace.  Can be null.
+     * @param gx (Optional) Storage for internal workspace.  Can be null.
+     */
+    public static void add( double alpha, DMatrixSparseCSC A, double beta, DMatrixSparseCSC B, DMatrixSparseCSC C, DSemiRing semiRing,
+                            @Nullable Mask_DSCC mask, @Nullable IGrowArray gw, @Nullable DGrowArray gx ) {
         double[] x = adjust(gx, A.numRows);
         int[] w = adjust(gw, A.numRows, A.numRows);
+        if (mask != null)
+            mask.checkShape(A.numRows, A.numCols);
 
         C.indicesSorted = false;
         C.nz_length = 0;
@@ -56,8 +77,14 @@ public class ImplCommonOpsWithSemiRing_DSCC {
         for (int col = 0; col < A.numCols; col++) {
             C.col_idx[col] = C.nz_length;
 
-            multAddColA(A, col, alpha, C, col + 1, semiRing, x, w);
-            multAddColA(B, col, beta, C, col + 1, semiRing, x, w);
+            if (mask != null) {
+                mask.setColumn(col);
+                if (mask.isColumnEmpty())
+                    continue;
+            }
+
+            multAddColA(A, col, alpha, C, col + 1, semiRing, mask, x, w);
+            multAddColA(B, col, beta, C, col + 1, semiRing, mask, x, w);
 
             // take the values in the dense vector 'x' and put them into 'C'
             int idxC0 = C.col_idx[col];
@@ -130,9 +157,29 @@ public class ImplCommonOpsWithSemiRing_DSCC {
      */
     public static void elementMult( DMatrixSparseCSC A, DMatrixSparseCSC B, DMatrixSparseCSC C, DSemiRing semiRing,
                                     @Nullable IGrowArray gw, @Nullable DGrowArray gx ) {
+        elementMult(A, B, C, semiRing, null, gw, gx);
+    }
+
+    /**
+     * Performs masked element-wise multiplication:<br>
+     * C_ij = A_ij * B_ij<br>
+     * Only elements which are allowed by the mask are computed.
+     *
+     * @param A (Input) Matrix
+     * @param B (Input) Matrix
+     * @param C (Output) Matrix.
+     * @param semiRing Semi-Ring to define + and *
+     * @param mask (Optional) Mask which specifies which elements in C are computed. If null then all are.
+     * @param gw (Optional) Storage for internal workspace.  Can be null.
+     * @param gx (Optional) Storage for internal workspace.  Can be null.
+     */
+    public static void elementMult( DMatrixSparseCSC A, DMatrixSparseCSC B, DMatrixSparseCSC C, DSemiRing semiRing,
+                                    @Nullable Mask_DSCC mask, @Nullable IGrowArray gw, @Nullable DGrowArray gx ) {
         double[] x = adjust(gx, A.numRows);
         int[] w = adjust(gw, A.numRows);
         Arrays.fill(w, 0, A.numRows, -1); // fill with -1. This will be a value less than column
+        if (mask != null)
+            mask.checkShape(A.numRows, A.numCols);
 
         C.growMaxLength(Math.min(A.nz_length, B.nz_length), false);
         C.indicesSorted = false; // Hmm I think if B is storted then C will be sorted...
@@ -154,6 +201,12 @@ public class ImplCommonOpsWithSemiRing_DSCC {
             // update the structure of C
             C.col_idx[col] = C.nz_length;
 
+            if (mask != null) {
+                mask.setColumn(col);
+                if (mask.isColumnEmpty())
+                    continue;
+            }
+
             // mark the rows that appear in A and save their value
             for (int i = idxA0; i < idxA1; i++) {
                 int row = A.nz_rows[i];
@@ -164,7 +217,7 @@ public class ImplCommonOpsWithSemiRing_DSCC {
             // If a row appears in A and B, multiply and set as an element in C
             for (int i = idxB0; i < idxB1; i++) {
                 int row = B.nz_rows[i];
-                if (w[row] == col) {
+                if (w[row] == col && (mask == null || mask.isSet(row))) {
                     C.nz_values[C.nz_length] = semiRing.mult.func.apply(x[row], B.nz_values[i]);
                     C.nz_rows[C.nz_length++] = row;
                 }
@@ -23,6 +23,7 @@ import org.ejml.data.DMatrixRMaj;
 import org.ejml.data.DMatrixSparseCSC;
 import org.ejml.data.IGrowArray;
 import org.ejml.ops.DSemiRing;
+import org.ejml.sparse.csc.Mask_DSCC;
 import org.jetbrains.annotations.Nullable;
 
 import static org.ejml.UtilEjml.adjust;
@@ -43,8 +44,27 @@ public class ImplSparseSparseMultWithSemiRing_DSCC {
      */
     public static void mult(DMatrixSparseCSC A, DMatrixSparseCSC B, DMatrixSparseCSC C, DSemiRing semiRing,
                             @Nullable IGrowArray gw, @Nullable DGrowArray gx) {
+        mult(A, B, C, semiRing, null, gw, gx);
+    }
+
+    /**
+     * Performs masked matrix multiplication.  C = A*B. Only elements in C which are allowed by the mask are
+     * computed. Columns of C which are empty in the mask are skipped entirely, while rows are filtered as A's
+     * columns are scattered into C. The unmasked product is never stored.
+     *
+     * @param A  Matrix
+     * @param B  Matrix
+     * @param C  Storage for results.  Data length is increased if increased if insufficient.
+     * @param mask (Optional) Mask which specifies which elements in C are computed. If null then all are.
+     * @param gw (Optional) Storage for internal workspace.  Can be null.
+     * @param gx (Optional) Storage for internal workspace.  Can be null.
+     */
+    public static void mult(DMatrixSparseCSC A, DMatrixSparseCSC B, DMatrixSparseCSC C, DSemiRing semiRing,
+                            @Nullable Mask_DSCC mask, @Nullable IGrowArray gw, @Nullable DGrowArray gx) {
         double[] x = adjust(gx, A.numRows);
         int[] w = adjust(gw, A.numRows, A.numRows);
+        if (mask != null)
+            mask.checkShape(A.numRows, B.numCols);
 
         C.growMaxLength(A.nz_length + B.nz_length, false);
         C.indicesSorted = false;
@@ -61,12 +81,20 @@ public class ImplSparseSparseMultWithSemiRing_DSCC {
                 continue;
             }
 
+            if (mask != null) {
+                mask.setColumn(colB);
+                if (mask.isColumnEmpty()) {
+                    idx0 = idx1;
+                    continue;
+                }
+            }
+
             // C(:,j) = sum_k A(:,k)*B(k,j)
             for (int bi = idx0; bi < idx1; bi++) {
                 int rowB = B.nz_rows[bi];
                 double valB = B.nz_values[bi];  // B(k,j)  k=rowB j=colB
 
-                multAddColA(A, rowB, valB, C, colB + 1, semiRing, x, w);
+                multAddColA(A, rowB, valB, C, colB + 1, semiRing, mask, x, w);
             }
 
             // take the values in the dense vector 'x' and put them into 'C'
@@ -92,11 +120,26 @@ public class ImplSparseSparseMultWithSemiRing_DSCC {
                                    DMatrixSparseCSC C, int mark,
                                    DSemiRing semiRing,
                                    double x[], int w[]) {
+        multAddColA(A, colA, alpha, C, mark, semiRing, null, x, w);
+    }
+
+    /**
+     * Performs the operation x = x + A(:,i)*alpha, skipping rows which are not allowed by the mask.
+     * {@link Mask_DSCC#setColumn(int)} must have already been called for the column in C.
+     */
+    public static void multAddColA(DMatrixSparseCSC A, int colA,
+                                   double alpha,
+                                   DMatrixSparseCSC C, int mark,
+                                   DSemiRing semiRing,
+                                   @Nullable Mask_DSCC mask,
+                                   double x[], int w[]) {
         int idxA0 = A.col_idx[colA];
         int idxA1 = A.col_idx[colA + 1];
 
         for (int j = idxA0; j < idxA1; j++) {
             int row = A.nz_rows[j];
+            if (mask != null && !mask.isSet(row))
+                continue;
 
             if (w[row] < mark) {
                 if (C.nz_length >= C.nz_rows.length) {
@@ -134,7 +177,8 @@ public class ImplSparseSparseMultWithSemiRing_DSCC {
 
 //                for (int j = 0; j < B.numCols; j++) {
                 while (indexB < end) {
-                    C.data[indexC++] = semiRing.add.func.apply(C.data[indexC++], semiRing.mult.func.apply(valueA, B.data[indexB++]));
+                    C.data[indexC] = semiRing.add.func.apply(C.data[indexC], semiRing.mult.func.apply(valueA, B.data[indexB++]));
+                    indexC++;
                 }
             }
         }
@@ -180,7 +224,7 @@ public class ImplSparseSparseMultWithSemiRing_DSCC {
     }
 
     public static void multTransB(DMatrixSparseCSC A, DMatrixRMaj B, DMatrixRMaj C, DSemiRing semiRing) {
-        C.zero();
+        C.fill(semiRing.add.id);
         multAddTransB(A, B, C, semiRing);
     }
 
@@ -206,7 +250,7 @@ public class ImplSparseSparseMultWithSemiRing_DSCC {
     }
 
     public static void multTransAB(DMatrixSparseCSC A, DMatrixRMaj B, DMatrixRMaj C, DSemiRing semiRing) {
-        C.zero();
+        C.fill(semiRing.add.id);
         multAddTransAB(A, B, C, semiRing);
     }
 
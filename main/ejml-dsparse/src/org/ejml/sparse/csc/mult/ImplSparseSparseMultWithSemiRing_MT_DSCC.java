@@ -0,0 +1,308 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.sparse.csc.mult;
+
+import org.ejml.concurrency.EjmlConcurrency;
+import org.ejml.concurrency.GrowArray;
+import org.ejml.data.DGrowArray;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.ops.DSemiRing;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+import static org.ejml.UtilEjml.adjust;
+import static org.ejml.sparse.csc.mult.ImplSparseSparseMultWithSemiRing_DSCC.multAddColA;
+import static org.ejml.sparse.csc.mult.ImplSparseSparseMult_MT_DSCC.stitchMatrix;
+
+/**
+ * Concurrent implementation of {@link ImplSparseSparseMultWithSemiRing_DSCC}.
+ *
+ * @author Peter Abeles
+ */
+public class ImplSparseSparseMultWithSemiRing_MT_DSCC {
+    /**
+     * Performs matrix multiplication.  C = A*B. Columns in B are split into blocks and each block computes the
+     * same columns in C independently. The results are then stitched together.
+     *
+     * @param A Matrix
+     * @param B Matrix
+     * @param C Storage for results.  Data length is increased if increased if insufficient.
+     * @param semiRing Semi-Ring to define + and *
+     * @param listWork (Optional) Storage for internal workspace.  Can be null.
+     */
+    public static void mult(DMatrixSparseCSC A, DMatrixSparseCSC B, DMatrixSparseCSC C, DSemiRing semiRing,
+                            @Nullable GrowArray<Workspace_MT_DSCC> listWork) {
+        if (listWork == null)
+            listWork = new GrowArray<>(Workspace_MT_DSCC::new);
+
+        // Break the problem up into blocks of columns and process them independently
+        EjmlConcurrency.loopBlocks(0, B.numCols, listWork, (workspace, bj0, bj1) -> {
+            DMatrixSparseCSC workC = workspace.mat;
+            workC.reshape(A.numRows, bj1 - bj0, bj1 - bj0);
+            workC.col_idx[0] = 0;
+
+            double[] x = adjust(workspace.gx, A.numRows);
+            int[] w = adjust(workspace.gw, A.numRows, A.numRows);
+
+            // C(i,j) = sum_k A(i,k) * B(k,j)
+            for (int bj = bj0; bj < bj1; bj++) {
+                int colC = bj - bj0;
+                int idx0 = B.col_idx[bj];
+                int idx1 = B.col_idx[bj + 1];
+                workC.col_idx[colC + 1] = workC.nz_length;
+
+                if (idx0 == idx1) {
+                    continue;
+                }
+
+                // C(:,j) = sum_k A(:,k)*B(k,j)
+                for (int bi = idx0; bi < idx1; bi++) {
+                    int rowB = B.nz_rows[bi];
+                    double valB = B.nz_values[bi];  // B(k,j)  k=rowB j=colB
+
+                    multAddColA(A, rowB, valB, workC, colC + 1, semiRing, x, w);
+                }
+
+                // take the values in the dense vector 'x' and put them into 'C'
+                int idxC0 = workC.col_idx[colC];
+                int idxC1 = workC.col_idx[colC + 1];
+
+                for (int i = idxC0; i < idxC1; i++) {
+                    workC.nz_values[i] = x[workC.nz_rows[i]];
+                }
+            }
+        });
+
+        // Stitch the output back together
+        stitchMatrix(C, A.numRows, B.numCols, listWork);
+    }
+
+    /**
+     * C = A*B. Columns in A are split into blocks and each block has its own dense copy of C, which are
+     * combined using the semi-ring's addition.
+     *
+     * @param listWork (Optional) Storage for internal workspace.  Can be null.
+     */
+    public static void mult(DMatrixSparseCSC A, DMatrixRMaj B, DMatrixRMaj C, DSemiRing semiRing,
+                            @Nullable GrowArray<DGrowArray> listWork) {
+        multAdd(A, B, C, semiRing, false, listWork);
+    }
+
+    /**
+     * C = C + A*B
+     *
+     * @param listWork (Optional) Storage for internal workspace.  Can be null.
+     */
+    public static void multAdd(DMatrixSparseCSC A, DMatrixRMaj B, DMatrixRMaj C, DSemiRing semiRing,
+                               @Nullable GrowArray<DGrowArray> listWork) {
+        multAdd(A, B, C, semiRing, true, listWork);
+    }
+
+    private static void multAdd(DMatrixSparseCSC A, DMatrixRMaj B, DMatrixRMaj C, DSemiRing semiRing, boolean add,
+                                @Nullable GrowArray<DGrowArray> listWork) {
+        if (listWork == null)
+            listWork = new GrowArray<>(DGrowArray::new);
+        listWork.reset();
+
+        final int length = C.getNumElements();
+
+        // C(i,j) = sum_k A(i,k) * B(k,j)
+        EjmlConcurrency.loopBlocks(0, A.numCols, listWork, (work, k0, k1) -> {
+            double[] sums = adjust(work, length);
+            Arrays.fill(sums, 0, length, semiRing.add.id);
+
+            for (int k = k0; k < k1; k++) {
+                int idx0 = A.col_idx[k];
+                int idx1 = A.col_idx[k + 1];
+
+                for (int indexA = idx0; indexA < idx1; indexA++) {
+                    double valueA = A.nz_values[indexA];
+
+                    int indexB = k * B.numCols;
+                    int indexC = A.nz_rows[indexA] * C.numCols;
+                    int end = indexB + B.numCols;
+
+                    while (indexB < end) {
+                        sums[indexC] = semiRing.add.func.apply(sums[indexC], semiRing.mult.func.apply(valueA, B.data[indexB++]));
+                        indexC++;
+                    }
+                }
+            }
+        });
+
+        reduce(listWork, C.data, length, semiRing, add);
+    }
+
+    /**
+     * C = A<sup>T</sup>*B. Each column in A is a row in C, so the columns in A are split into blocks and
+     * no reduction is needed.
+     */
+    public static void multTransA(DMatrixSparseCSC A, DMatrixRMaj B, DMatrixRMaj C, DSemiRing semiRing) {
+        multAddTransA(A, B, C, semiRing, false);
+    }
+
+    /**
+     * C = C + A<sup>T</sup>*B
+     */
+    public static void multAddTransA(DMatrixSparseCSC A, DMatrixRMaj B, DMatrixRMaj C, DSemiRing semiRing) {
+        multAddTransA(A, B, C, semiRing, true);
+    }
+
+    private static void multAddTransA(DMatrixSparseCSC A, DMatrixRMaj B, DMatrixRMaj C, DSemiRing semiRing,
+                                      boolean add) {
+        // C(i,:) = sum_k A(k,i) * B(k,:)
+        EjmlConcurrency.loopBlocks(0, A.numCols, (i0, i1) -> {
+            for (int i = i0; i < i1; i++) {
+                int indexC0 = i * C.numCols;
+                int indexC1 = indexC0 + C.numCols;
+                if (!add)
+                    Arrays.fill(C.data, indexC0, indexC1, semiRing.add.id);
+
+                int idx0 = A.col_idx[i];
+                int idx1 = A.col_idx[i + 1];
+                for (int indexA = idx0; indexA < idx1; indexA++) {
+                    double valueA = A.nz_values[indexA];
+                    int indexB = A.nz_rows[indexA] * B.numCols;
+
+                    for (int indexC = indexC0; indexC < indexC1; indexC++) {
+                        C.data[indexC] = semiRing.add.func.apply(C.data[indexC], semiRing.mult.func.apply(valueA, B.data[indexB++]));
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * C = A*B<sup>T</sup>. Same approach as
+     * {@link #mult(DMatrixSparseCSC, DMatrixRMaj, DMatrixRMaj, DSemiRing, GrowArray)}.
+     *
+     * @param listWork (Optional) Storage for internal workspace.  Can be null.
+     */
+    public static void multTransB(DMatrixSparseCSC A, DMatrixRMaj B, DMatrixRMaj C, DSemiRing semiRing,
+                                  @Nullable GrowArray<DGrowArray> listWork) {
+        multAddTransB(A, B, C, semiRing, false, listWork);
+    }
+
+    /**
+     * C = C + A*B<sup>T</sup>
+     *
+     * @param listWork (Optional) Storage for internal workspace.  Can be null.
+     */
+    public static void multAddTransB(DMatrixSparseCSC A, DMatrixRMaj B, DMatrixRMaj C, DSemiRing semiRing,
+                                     @Nullable GrowArray<DGrowArray> listWork) {
+        multAddTransB(A, B, C, semiRing, true, listWork);
+    }
+
+    private static void multAddTransB(DMatrixSparseCSC A, DMatrixRMaj B, DMatrixRMaj C, DSemiRing semiRing,
+                                      boolean add, @Nullable GrowArray<DGrowArray> listWork) {
+        if (listWork == null)
+            listWork = new GrowArray<>(DGrowArray::new);
+        listWork.reset();
+
+        final int length = C.getNumElements();
+
+        // C(i,j) = sum_k A(i,k) * B(j,k)
+        EjmlConcurrency.loopBlocks(0, A.numCols, listWork, (work, k0, k1) -> {
+            double[] sums = adjust(work, length);
+            Arrays.fill(sums, 0, length, semiRing.add.id);
+
+            for (int k = k0; k < k1; k++) {
+                int idx0 = A.col_idx[k];
+                int idx1 = A.col_idx[k + 1];
+
+                for (int indexA = idx0; indexA < idx1; indexA++) {
+                    double valueA = A.nz_values[indexA];
+                    int indexC = A.nz_rows[indexA] * C.numCols;
+
+                    for (int j = 0; j < B.numRows; j++, indexC++) {
+                        sums[indexC] = semiRing.add.func.apply(sums[indexC], semiRing.mult.func.apply(valueA, B.data[j * B.numCols + k]));
+                    }
+                }
+            }
+        });
+
+        reduce(listWork, C.data, length, semiRing, add);
+    }
+
+    /**
+     * C = A<sup>T</sup>*B<sup>T</sup>. Each column in A is a row in C and no reduction is needed.
+     */
+    public static void multTransAB(DMatrixSparseCSC A, DMatrixRMaj B, DMatrixRMaj C, DSemiRing semiRing) {
+        multAddTransAB(A, B, C, semiRing, false);
+    }
+
+    /**
+     * C = C + A<sup>T</sup>*B<sup>T</sup>
+     */
+    public static void multAddTransAB(DMatrixSparseCSC A, DMatrixRMaj B, DMatrixRMaj C, DSemiRing semiRing) {
+        multAddTransAB(A, B, C, semiRing, true);
+    }
+
+    private static void multAddTransAB(DMatrixSparseCSC A, DMatrixRMaj B, DMatrixRMaj C, DSemiRing semiRing,
+                                       boolean add) {
+        // C(i,j) = sum_k A(k,i) * B(j,k)
+        EjmlConcurrency.loopBlocks(0, A.numCols, (i0, i1) -> {
+            for (int i = i0; i < i1; i++) {
+                int indexC0 = i * C.numCols;
+                if (!add)
+                    Arrays.fill(C.data, indexC0, indexC0 + C.numCols, semiRing.add.id);
+
+                int idx0 = A.col_idx[i];
+                int idx1 = A.col_idx[i + 1];
+                for (int indexA = idx0; indexA < idx1; indexA++) {
+                    double valueA = A.nz_values[indexA];
+                    int k = A.nz_rows[indexA];
+
+                    for (int j = 0; j < B.numRows; j++) {
+                        C.data[indexC0 + j] = semiRing.add.func.apply(C.data[indexC0 + j], semiRing.mult.func.apply(valueA, B.data[j * B.numCols + k]));
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Combines the partial results from each block using the semi-ring's addition and writes them into output.
+     *
+     * @param add If true the results are added to output, otherwise output is overwritten
+     */
+    static void reduce(GrowArray<DGrowArray> listWork, double[] output, int length, DSemiRing semiRing,
+                       boolean add) {
+        final int numBlocks = listWork.size();
+        if (numBlocks == 0) {
+            if (!add)
+                Arrays.fill(output, 0, length, semiRing.add.id);
+            return;
+        }
+
+        EjmlConcurrency.loopBlocks(0, length, (i0, i1) -> {
+            if (!add)
+                System.arraycopy(listWork.get(0).data, i0, output, i0, i1 - i0);
+            for (int block = add ? 0 : 1; block < numBlocks; block++) {
+                double[] sums = listWork.get(block).data;
+                for (int i = i0; i < i1; i++) {
+                    output[i] = semiRing.add.func.apply(output[i], sums[i]);
+                }
+            }
+        });
+    }
+}
@@ -21,9 +21,13 @@ package org.ejml.sparse.csc.mult;
 import org.ejml.UtilEjml;
 import org.ejml.concurrency.EjmlConcurrency;
 import org.ejml.concurrency.GrowArray;
+import org.ejml.data.DGrowArray;
+import org.ejml.data.DMatrixRMaj;
 import org.ejml.data.DMatrixSparseCSC;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Arrays;
+
 import static org.ejml.UtilEjml.adjust;
 import static org.ejml.sparse.csc.mult.ImplSparseSparseMult_DSCC.multAddColA;
 
@@ -91,6 +95,217 @@ public class ImplSparseSparseMult_MT_DSCC {
         stitchMatrix(C, A.numRows, B.numCols, listWork);
     }
 
+    /**
+     * C = A*B. The columns in A are split into blocks. Each block scatters its contribution into its own dense
+     * copy of C, which are then summed together. Extra storage is about the size of C for each thread.
+     *
+     * @param listWork (Optional) Storage for internal workspace.  Can be null.
+     */
+    public static void mult( DMatrixSparseCSC A, DMatrixRMaj B, DMatrixRMaj C,
+                             @Nullable GrowArray<DGrowArray> listWork ) {
+        multAdd(A, B, C, false, listWork);
+    }
+
+    /**
+     * C = C + A*B
+     *
+     * @param listWork (Optional) Storage for internal workspace.  Can be null.
+     */
+    public static void multAdd( DMatrixSparseCSC A, DMatrixRMaj B, DMatrixRMaj C,
+                                @Nullable GrowArray<DGrowArray> listWork ) {
+        multAdd(A, B, C, true, listWork);
+    }
+
+    private static void multAdd( DMatrixSparseCSC A, DMatrixRMaj B, DMatrixRMaj C, boolean add,
+                                 @Nullable GrowArray<DGrowArray> listWork ) {
+        if (listWork == null)
+            listWork = new GrowArray<>(DGrowArray::new);
+        listWork.reset();
+
+        final int length = C.getNumElements();
+
+        // C(i,j) = sum_k A(i,k) * B(k,j)
+        EjmlConcurrency.loopBlocks(0, A.numCols, listWork, ( work, k0, k1 ) -> {
+            double[] sums = adjust(work, length);
+            Arrays.fill(sums, 0, length, 0);
+
+            for (int k = k0; k < k1; k++) {
+                int idx0 = A.col_idx[k];
+                int idx1 = A.col_idx[k + 1];
+
+                for (int indexA = idx0; indexA < idx1; indexA++) {
+                    double valueA = A.nz_values[indexA];
+
+                    int indexB = k*B.numCols;
+                    int indexC = A.nz_rows[indexA]*C.numCols;
+                    int end = indexB + B.numCols;
+
+                    while (indexB < end) {
+                        sums[indexC++] += valueA*B.data[indexB++];
+                    }
+                }
+            }
+        });
+
+        reduceSum(listWork, C.data, 0, length, add);
+    }
+
+    /**
+     * C = A<sup>T</sup>*B. Each column in A is a row in C, so the columns in A are split into blocks and
+     * no reduction is needed.
+     */
+    public static void multTransA( DMatrixSparseCSC A, DMatrixRMaj B, DMatrixRMaj C ) {
+        multAddTransA(A, B, C, false);
+    }
+
+    /**
+     * C = C + A<sup>T</sup>*B
+     */
+    public static void multAddTransA( DMatrixSparseCSC A, DMatrixRMaj B, DMatrixRMaj C ) {
+        multAddTransA(A, B, C, true);
+    }
+
+    private static void multAddTransA( DMatrixSparseCSC A, DMatrixRMaj B, DMatrixRMaj C, boolean add ) {
+        // C(i,:) = sum_k A(k,i) * B(k,:)
+        EjmlConcurrency.loopBlocks(0, A.numCols, ( i0, i1 ) -> {
+            for (int i = i0; i < i1; i++) {
+                int indexC0 = i*C.numCols;
+                int indexC1 = indexC0 + C.numCols;
+                if (!add)
+                    Arrays.fill(C.data, indexC0, indexC1, 0);
+
+                int idx0 = A.col_idx[i];
+                int idx1 = A.col_idx[i + 1];
+                for (int indexA = idx0; indexA < idx1; indexA++) {
+                    double valueA = A.nz_values[indexA];
+                    int indexB = A.nz_rows[indexA]*B.numCols;
+
+                    for (int indexC = indexC0; indexC < indexC1; indexC++) {
+                        C.data[indexC] += valueA*B.data[indexB++];
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * C = A*B<sup>T</sup>. Same approach as {@link #mult(DMatrixSparseCSC, DMatrixRMaj, DMatrixRMaj, GrowArray)}.
+     *
+     * @param listWork (Optional) Storage for internal workspace.  Can be null.
+     */
+    public static void multTransB( DMatrixSparseCSC A, DMatrixRMaj B, DMatrixRMaj C,
+                                   @Nullable GrowArray<DGrowArray> listWork ) {
+        multAddTransB(A, B, C, false, listWork);
+    }
+
+    /**
+     * C = C + A*B<sup>T</sup>
+     *
+     * @param listWork (Optional) Storage for internal workspace.  Can be null.
+     */
+    public static void multAddTransB( DMatrixSparseCSC A, DMatrixRMaj B, DMatrixRMaj C,
+                                      @Nullable GrowArray<DGrowArray> listWork ) {
+        multAddTransB(A, B, C, true, listWork);
+    }
+
+    private static void multAddTransB( DMatrixSparseCSC A, DMatrixRMaj B, DMatrixRMaj C, boolean add,
+                                       @Nullable GrowArray<DGrowArray> listWork ) {
+        if (listWork == null)
+            listWork = new GrowArray<>(DGrowArray::new);
+        listWork.reset();
+
+        final int length = C.getNumElements();
+
+        // C(i,j) = sum_k A(i,k) * B(j,k)
+        EjmlConcurrency.loopBlocks(0, A.numCols, listWork, ( work, k0, k1 ) -> {
+            double[] sums = adjust(work, length);
+            Arrays.fill(sums, 0, length, 0);
+
+            for (int k = k0; k < k1; k++) {
+                int idx0 = A.col_idx[k];
+                int idx1 = A.col_idx[k + 1];
+
+                for (int indexA = idx0; indexA < idx1; indexA++) {
+                    double valueA = A.nz_values[indexA];
+                    int indexC = A.nz_rows[indexA]*C.numCols;
+
+                    for (int j = 0; j < B.numRows; j++) {
+                        sums[indexC++] += valueA*B.data[j*B.numCols + k];
+                    }
+                }
+            }
+        });
+
+        reduceSum(listWork, C.data, 0, length, add);
+    }
+
+    /**
+     * C = A<sup>T</sup>*B<sup>T</sup>. Each column in A is a row in C and no reduction is needed.
+     */
+    public static void multTransAB( DMatrixSparseCSC A, DMatrixRMaj B, DMatrixRMaj C ) {
+        multAddTransAB(A, B, C, false);
+    }
+
+    /**
+     * C = C + A<sup>T</sup>*B<sup>T</sup>
+     */
+    public static void multAddTransAB( DMatrixSparseCSC A, DMatrixRMaj B, DMatrixRMaj C ) {
+        multAddTransAB(A, B, C, true);
+    }
+
+    private static void multAddTransAB( DMatrixSparseCSC A, DMatrixRMaj B, DMatrixRMaj C, boolean add ) {
+        // C(i,j) = sum_k A(k,i) * B(j,k)
+        EjmlConcurrency.loopBlocks(0, A.numCols, ( i0, i1 ) -> {
+            for (int i = i0; i < i1; i++) {
+                int indexC0 = i*C.numCols;
+                if (!add)
+                    Arrays.fill(C.data, indexC0, indexC0 + C.numCols, 0);
+
+                int idx0 = A.col_idx[i];
+                int idx1 = A.col_idx[i + 1];
+                for (int indexA = idx0; indexA < idx1; indexA++) {
+                    double valueA = A.nz_values[indexA];
+                    int k = A.nz_rows[indexA];
+
+                    for (int j = 0; j < B.numRows; j++) {
+                        C.data[indexC0 + j] += valueA*B.data[j*B.numCols + k];
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Sums the partial results computed by each block and writes them into the output array.
+     * The sum is itself split between threads.
+     *
+     * @param listWork Partial results from each block. Must have a length of at least 'length'
+     * @param output Where the results are written to
+     * @param offset First index in output
+     * @param length Number of elements in the output
+     * @param add If true the sum is added to the output, otherwise the output is overwritten
+     */
+    static void reduceSum( GrowArray<DGrowArray> listWork, double[] output, int offset, int length,
+                           boolean add ) {
+        final int numBlocks = listWork.size();
+        if (numBlocks == 0) {
+            if (!add)
+                Arrays.fill(output, offset, offset + length, 0);
+            return;
+        }
+
+        EjmlConcurrency.loopBlocks(0, length, ( i0, i1 ) -> {
+            if (!add)
+                System.arraycopy(listWork.get(0).data, i0, output, offset + i0, i1 - i0);
+            for (int block = add ? 0 : 1; block < numBlocks; block++) {
+                double[] sums = listWork.get(block).data;
+                for (int i = i0; i < i1; i++) {
+                    output[offset + i] += sums[i];
+                }
+            }
+        });
+    }
+
     /**
      * Compines results from independent blocks into a single matrix
      */
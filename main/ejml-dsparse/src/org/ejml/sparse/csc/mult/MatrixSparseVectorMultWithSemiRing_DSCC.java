@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.sparse.csc.mult;
+
+import org.ejml.data.DGrowArray;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.data.DVectorSparse;
+import org.ejml.data.IGrowArray;
+import org.ejml.ops.DSemiRing;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+import static org.ejml.UtilEjml.adjust;
+
+/**
+ * <p>
+ * Multiplication between a {@link DMatrixSparseCSC} and a {@link DVectorSparse} using a semiring. There are
+ * two strategies:
+ * </p>
+ * <ul>
+ *     <li>push: Each non-zero element in the vector scatters a column of the matrix into the output. Only
+ *     touches the columns selected by the vector but the output needs to be sorted.</li>
+ *     <li>pull: Each column in the matrix is combined with the vector using a dot product. Touches every
+ *     element in the matrix but the output is created in order.</li>
+ * </ul>
+ * <p>
+ * Both strategies compute out[j] = &sum;<sub>i</sub> x[i] &otimes; M[i,j] for every column j in M. Workspace
+ * arrays are used as sparse sets, where an entry is only valid if it points back to the index which wrote it,
+ * so they never need to be cleared and the cost of a call does not depend on the vector's size.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class MatrixSparseVectorMultWithSemiRing_DSCC {
+    /**
+     * Estimated cost of the push strategy, which is the number of non-zero elements in the columns of M selected
+     * by the vector.
+     *
+     * @param M (Input) Matrix that is pushed. Each column is scattered into the output.
+     * @param x (Input) Vector
+     */
+    public static int pushCost( DMatrixSparseCSC M, DVectorSparse x ) {
+        int total = 0;
+        for (int i = 0; i < x.nz_length; i++) {
+            int col = x.nz_indices[i];
+            total += M.col_idx[col + 1] - M.col_idx[col];
+        }
+        return total;
+    }
+
+    /**
+     * output[i] = &sum;<sub>j</sub> M[i,j] &otimes; x[j] computed by scattering the columns of M which
+     * are selected by the non-zero elements in x.
+     *
+     * @param M (Input) Matrix with M.numCols == x.size
+     * @param x (Input) Vector
+     * @param vectorFirst If true then the vector is the left operand in the semiring multiplication
+     * @param output (Output) Vector with a size of M.numRows. Modified.
+     * @param semiRing Semi-Ring to define + and *
+     * @param gw (Optional) Storage for internal workspace. Can be null.
+     * @param gx (Optional) Storage for internal workspace. Can be null.
+     */
+    public static void push( DMatrixSparseCSC M, DVectorSparse x, boolean vectorFirst,
+                             DVectorSparse output, DSemiRing semiRing,
+                             @Nullable IGrowArray gw, @Nullable DGrowArray gx ) {
+        // location of each row in output.nz_indices
+        int[] w = adjust(gw, M.numRows);
+        double[] values = adjust(gx, M.numRows);
+
+        output.zero();
+        for (int i = 0; i < x.nz_length; i++) {
+            int col = x.nz_indices[i];
+            double valueX = x.nz_values[i];
+
+            int idx0 = M.col_idx[col];
+            int idx1 = M.col_idx[col + 1];
+            for (int p = idx0; p < idx1; p++) {
+                int row = M.nz_rows[p];
+                double v = vectorFirst ?
+                        semiRing.mult.func.apply(valueX, M.nz_values[p]) :
+                        semiRing.mult.func.apply(M.nz_values[p], valueX);
+
+                int location = w[row];
+                if (location >= 0 && location < output.nz_length && output.nz_indices[location] == row) {
+                    values[row] = semiRing.add.func.apply(values[row], v);
+                } else {
+                    w[row] = output.nz_length;
+                    values[row] = v;
+                    output.append(row, 0);
+                }
+            }
+        }
+
+        // the rows were added in the order they were encountered
+        Arrays.sort(output.nz_indices, 0, output.nz_length);
+        for (int i = 0; i < output.nz_length; i++) {
+            output.nz_values[i] = values[output.nz_indices[i]];
+        }
+    }
+
+    /**
+     * output[j] = &sum;<sub>i</sub> x[i] &otimes; M[i,j] computed by taking the dot product between
+     * x and every column in M. Only columns which share a non-zero element with x are added to the output.
+     *
+     * @param M (Input) Matrix with M.numRows == x.size
+     * @param x (Input) Vector
+     * @param vectorFirst If true then the vector is the left operand in the semiring multiplication
+     * @param output (Output) Vector with a size of M.numCols. Modified.
+     * @param semiRing Semi-Ring to define + and *
+     * @param gw (Optional) Storage for internal workspace. Can be null.
+     */
+    public static void pull( DMatrixSparseCSC M, DVectorSparse x, boolean vectorFirst,
+                             DVectorSparse output, DSemiRing semiRing,
+                             @Nullable IGrowArray gw ) {
+        // location of each element in x.nz_indices
+        int[] w = adjust(gw, M.numRows);
+        for (int i = 0; i < x.nz_length; i++) {
+            w[x.nz_indices[i]] = i;
+        }
+
+        output.zero();
+        if (x.nz_length == 0)
+            return;
+
+        for (int col = 0; col < M.numCols; col++) {
+            int idx0 = M.col_idx[col];
+            int idx1 = M.col_idx[col + 1];
+
+            boolean found = false;
+            double sum = semiRing.add.id;
+            for (int p = idx0; p < idx1; p++) {
+                int row = M.nz_rows[p];
+                int location = w[row];
+                if (location < 0 || location >= x.nz_length || x.nz_indices[location] != row)
+                    continue;
+
+                double v = vectorFirst ?
+                        semiRing.mult.func.apply(x.nz_values[location], M.nz_values[p]) :
+                        semiRing.mult.func.apply(M.nz_values[p], x.nz_values[location]);
+                sum = semiRing.add.func.apply(sum, v);
+                found = true;
+            }
+            if (found)
+                output.append(col, sum);
+        }
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.sparse.csc.mult;
+
+import org.ejml.concurrency.EjmlConcurrency;
+import org.ejml.concurrency.GrowArray;
+import org.ejml.data.DGrowArray;
+import org.ejml.data.DMatrixSparseCSC;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+import static org.ejml.UtilEjml.adjust;
+
+/**
+ * Concurrent implementation of {@link MatrixVectorMult_DSCC}. The columns in the matrix are split into blocks.
+ * When the output depends on more than one column, each block writes into its own {@link DGrowArray} and the
+ * partial results are summed at the end.
+ *
+ * @author Peter Abeles
+ */
+public class MatrixVectorMult_MT_DSCC {
+    /**
+     * c = A*b
+     *
+     * @param A (Input) Matrix
+     * @param b (Input) vector
+     * @param offsetB (Input) first index in vector b
+     * @param c (Output) vector
+     * @param offsetC (Output) first index in vector c
+     * @param listWork (Optional) Storage for internal workspace.  Can be null.
+     */
+    public static void mult( DMatrixSparseCSC A,
+                             double[] b, int offsetB,
+                             double[] c, int offsetC,
+                             @Nullable GrowArray<DGrowArray> listWork ) {
+        multAdd(A, b, offsetB, c, offsetC, false, listWork);
+    }
+
+    /**
+     * c = c + A*b
+     *
+     * @param A (Input) Matrix
+     * @param b (Input) vector
+     * @param offsetB (Input) first index in vector b
+     * @param c (Output) vector
+     * @param offsetC (Output) first index in vector c
+     * @param listWork (Optional) Storage for internal workspace.  Can be null.
+     */
+    public static void multAdd( DMatrixSparseCSC A,
+                                double[] b, int offsetB,
+                                double[] c, int offsetC,
+                                @Nullable GrowArray<DGrowArray> listWork ) {
+        multAdd(A, b, offsetB, c, offsetC, true, listWork);
+    }
+
+    private static void multAdd( DMatrixSparseCSC A,
+                                 double[] b, int offsetB,
+                                 double[] c, int offsetC, boolean add,
+                                 @Nullable GrowArray<DGrowArray> listWork ) {
+        if (b.length - offsetB < A.numCols)
+            throw new IllegalArgumentException("Length of 'b' isn't long enough");
+        if (c.length - offsetC < A.numRows)
+            throw new IllegalArgumentException("Length of 'c' isn't long enough");
+
+        if (listWork == null)
+            listWork = new GrowArray<>(DGrowArray::new);
+        listWork.reset();
+
+        EjmlConcurrency.loopBlocksCost(0, A.numCols, flopsPerColumn(A), listWork, ( work, k0, k1 ) -> {
+            double[] sums = adjust(work, A.numRows);
+            Arrays.fill(sums, 0, A.numRows, 0);
+
+            for (int k = k0; k < k1; k++) {
+                int idx0 = A.col_idx[k];
+                int idx1 = A.col_idx[k + 1];
+
+                double valueB = b[offsetB + k];
+                for (int indexA = idx0; indexA < idx1; indexA++) {
+                    sums[A.nz_rows[indexA]] += A.nz_values[indexA]*valueB;
+                }
+            }
+        });
+
+        ImplSparseSparseMult_MT_DSCC.reduceSum(listWork, c, offsetC, A.numRows, add);
+    }
+
+    /**
+     * c = a<sup>T</sup>*B. Each element in c only depends on one column in B so no reduction is needed.
+     *
+     * @param a (Input) vector
+     * @param offsetA Input) first index in vector a
+     * @param B (Input) Matrix
+     * @param c (Output) vector
+     * @param offsetC (Output) first index in vector c
+     */
+    public static void mult( double[] a, int offsetA,
+                             DMatrixSparseCSC B,
+                             double[] c, int offsetC ) {
+        if (a.length - offsetA < B.numRows)
+            throw new IllegalArgumentException("Length of 'a' isn't long enough");
+        if (c.length - offsetC < B.numCols)
+            throw new IllegalArgumentException("Length of 'c' isn't long enough");
+
+        EjmlConcurrency.loopBlocksCost(0, B.numCols, flopsPerColumn(B), ( k0, k1 ) -> {
+            for (int k = k0; k < k1; k++) {
+                int idx0 = B.col_idx[k];
+                int idx1 = B.col_idx[k + 1];
+
+                double sum = 0;
+                for (int indexB = idx0; indexB < idx1; indexB++) {
+                    sum += a[offsetA + B.nz_rows[indexB]]*B.nz_values[indexB];
+                }
+                c[offsetC + k] = sum;
+            }
+        });
+    }
+
+    /**
+     * scalar = A<sup>T</sup>*B*C
+     *
+     * @param a (Input) vector
+     * @param offsetA Input) first index in vector a
+     * @param B (Input) Matrix
+     * @param c (Output) vector
+     * @param offsetC (Output) first index in vector c
+     * @param listWork (Optional) Storage for internal workspace.  Can be null.
+     */
+    public static double innerProduct( double[] a, int offsetA,
+                                       DMatrixSparseCSC B,
+                                       double[] c, int offsetC,
+                                       @Nullable GrowArray<DGrowArray> listWork ) {
+        if (a.length - offsetA < B.numRows)
+            throw new IllegalArgumentException("Length of 'a' isn't long enough");
+        if (c.length - offsetC < B.numCols)
+            throw new IllegalArgumentException("Length of 'c' isn't long enough");
+
+        if (listWork == null)
+            listWork = new GrowArray<>(DGrowArray::new);
+        listWork.reset();
+
+        EjmlConcurrency.loopBlocksCost(0, B.numCols, flopsPerColumn(B), listWork, ( work, k0, k1 ) -> {
+            double output = 0;
+            for (int k = k0; k < k1; k++) {
+                int idx0 = B.col_idx[k];
+                int idx1 = B.col_idx[k + 1];
+
+                double sum = 0;
+                for (int indexB = idx0; indexB < idx1; indexB++) {
+                    sum += a[offsetA + B.nz_rows[indexB]]*B.nz_values[indexB];
+                }
+                output += sum*c[offsetC + k];
+            }
+            adjust(work, 1)[0] = output;
+        });
+
+        double output = 0;
+        for (int i = 0; i < listWork.size(); i++) {
+            output += listWork.get(i).data[0];
+        }
+        return output;
+    }
+
+    /**
+     * Average number of floating point operations needed to process a column
+     */
+    private static double flopsPerColumn( DMatrixSparseCSC A ) {
+        return 2.0*A.nz_length/Math.max(1, A.numCols);
+    }
+}
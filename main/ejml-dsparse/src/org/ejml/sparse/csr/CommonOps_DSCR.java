@@ -0,0 +1,252 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.sparse.csr;
+
+import org.ejml.MatrixDimensionException;
+import org.ejml.data.DGrowArray;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixSparseCSR;
+import org.ejml.data.IGrowArray;
+import org.ejml.sparse.csr.misc.ImplCommonOps_DSCR;
+import org.ejml.sparse.csr.mult.ImplSparseSparseMult_DSCR;
+import org.jetbrains.annotations.Nullable;
+
+import static org.ejml.UtilEjml.reshapeOrDeclare;
+import static org.ejml.UtilEjml.stringShapes;
+
+/**
+ * Common operations on {@link DMatrixSparseCSR}. Use {@link org.ejml.ops.ConvertDMatrixStruct} to convert to and
+ * from {@link org.ejml.data.DMatrixSparseCSC}.
+ *
+ * @author Peter Abeles
+ */
+public class CommonOps_DSCR {
+
+    /**
+     * Checks to see if column indices are sorted into ascending order.  O(N)
+     *
+     * @return true if sorted and false if not
+     */
+    public static boolean checkIndicesSorted( DMatrixSparseCSR A ) {
+        for (int j = 0; j < A.numRows; j++) {
+            int idx0 = A.row_idx[j];
+            int idx1 = A.row_idx[j + 1];
+
+            if (idx0 != idx1 && A.nz_cols[idx0] >= A.numCols)
+                return false;
+
+            for (int i = idx0 + 1; i < idx1; i++) {
+                int col = A.nz_cols[i];
+                if (A.nz_cols[i - 1] >= col)
+                    return false;
+                if (col >= A.numCols)
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks for the following problems:
+     * <ul>
+     *     <li>Column indexes are out of bounds</li>
+     *     <li>Row start indexes are not increasing</li>
+     *     <li>Duplicate elements in a row</li>
+     *     <li>Indices are sorted if the flag says they are</li>
+     * </ul>
+     *
+     * @return true if valid and false if not
+     */
+    public static boolean checkStructure( DMatrixSparseCSR A ) {
+        if (A.row_idx.length < A.numRows + 1)
+            return false;
+        if (A.row_idx[A.numRows] != A.nz_length)
+            return false;
+        if (A.nz_cols.length < A.nz_length)
+            return false;
+        if (A.nz_values.length < A.nz_length)
+            return false;
+        if (A.row_idx[0] != 0)
+            return false;
+        if (A.indicesSorted && !checkIndicesSorted(A))
+            return false;
+
+        for (int i = 0; i < A.numRows; i++) {
+            int idx0 = A.row_idx[i];
+            int idx1 = A.row_idx[i + 1];
+            if (idx0 > idx1)
+                return false;
+            for (int j = idx0; j < idx1; j++) {
+                int col = A.nz_cols[j];
+                if (col < 0 || col >= A.numCols)
+                    return false;
+                for (int k = j + 1; k < idx1; k++) {
+                    if (A.nz_cols[k] == col)
+                        return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Perform matrix transpose
+     *
+     * @param A Input matrix.  Not modified
+     * @param A_t Storage for transpose of 'a'.  Must be correct shape.  data length might be adjusted.
+     * @param gw (Optional) Storage for internal workspace.  Can be null.
+     * @return The transposed matrix
+     */
+    public static DMatrixSparseCSR transpose( DMatrixSparseCSR A, @Nullable DMatrixSparseCSR A_t, @Nullable IGrowArray gw ) {
+        A_t = reshapeOrDeclare(A_t, A.numCols, A.numRows, A.nz_length);
+        ImplCommonOps_DSCR.transpose(A, A_t, gw);
+        return A_t;
+    }
+
+    public static DMatrixSparseCSR mult( DMatrixSparseCSR A, DMatrixSparseCSR B,
+                                         @Nullable DMatrixSparseCSR outputC ) {
+        return mult(A, B, outputC, null, null);
+    }
+
+    /**
+     * Performs matrix multiplication.  C = A*B
+     *
+     * @param A (Input) Matrix. Not modified.
+     * @param B (Input) Matrix. Not modified.
+     * @param outputC (Output) Storage for results.  Data length is increased if insufficient.
+     * @param gw (Optional) Storage for internal workspace.  Can be null.
+     * @param gx (Optional) Storage for internal workspace.  Can be null.
+     */
+    public static DMatrixSparseCSR mult( DMatrixSparseCSR A, DMatrixSparseCSR B,
+                                         @Nullable DMatrixSparseCSR outputC,
+                                         @Nullable IGrowArray gw, @Nullable DGrowArray gx ) {
+        if (A.numCols != B.numRows)
+            throw new MatrixDimensionException("Inconsistent matrix shapes. " + stringShapes(A, B));
+        outputC = reshapeOrDeclare(outputC, A, A.numRows, B.numCols);
+
+        ImplSparseSparseMult_DSCR.mult(A, B, outputC, gw, gx);
+
+        return outputC;
+    }
+
+    /**
+     * Performs matrix multiplication.  C = A*B
+     *
+     * @param A Matrix
+     * @param B Dense Matrix
+     * @param outputC Dense Matrix
+     */
+    public static DMatrixRMaj mult( DMatrixSparseCSR A, DMatrixRMaj B, @Nullable DMatrixRMaj outputC ) {
+        if (A.numCols != B.numRows)
+            throw new MatrixDimensionException("Inconsistent matrix shapes. " + stringShapes(A, B));
+        outputC = reshapeOrDeclare(outputC, A.numRows, B.numCols);
+
+        ImplSparseSparseMult_DSCR.mult(A, B, outputC);
+
+        return outputC;
+    }
+
+    /**
+     * <p>C = C + A*B</p>
+     */
+    public static void multAdd( DMatrixSparseCSR A, DMatrixRMaj B, DMatrixRMaj outputC ) {
+        if (A.numCols != B.numRows)
+            throw new MatrixDimensionException("Inconsistent matrix shapes. " + stringShapes(A, B));
+        if (A.numRows != outputC.numRows || B.numCols != outputC.numCols)
+            throw new MatrixDimensionException("Inconsistent matrix shapes. " + stringShapes(A, B, outputC));
+
+        ImplSparseSparseMult_DSCR.multAdd(A, B, outputC);
+    }
+
+    /**
+     * Performs matrix multiplication.  C = A<sup>T</sup>*B
+     *
+     * @param A Matrix
+     * @param B Dense Matrix
+     * @param outputC Dense Matrix
+     */
+    public static DMatrixRMaj multTransA( DMatrixSparseCSR A, DMatrixRMaj B, @Nullable DMatrixRMaj outputC ) {
+        if (A.numRows != B.numRows)
+            throw new MatrixDimensionException("Inconsistent matrix shapes. " + stringShapes(A, B));
+        outputC = reshapeOrDeclare(outputC, A.numCols, B.numCols);
+
+        ImplSparseSparseMult_DSCR.multTransA(A, B, outputC);
+
+        return outputC;
+    }
+
+    /**
+     * <p>C = C + A<sup>T</sup>*B</p>
+     */
+    public static void multAddTransA( DMatrixSparseCSR A, DMatrixRMaj B, DMatrixRMaj outputC ) {
+        if (A.numRows != B.numRows)
+            throw new MatrixDimensionException("Inconsistent matrix shapes. " + stringShapes(A, B));
+        if (A.numCols != outputC.numRows || B.numCols != outputC.numCols)
+            throw new MatrixDimensionException("Inconsistent matrix shapes. " + stringShapes(A, B, outputC));
+
+        ImplSparseSparseMult_DSCR.multAddTransA(A, B, outputC);
+    }
+
+    /**
+     * Performs matrix addition:<br>
+     * C = &alpha;A + &beta;B
+     *
+     * @param alpha scalar value multiplied against A
+     * @param A Matrix
+     * @param beta scalar value multiplied against B
+     * @param B Matrix
+     * @param outputC Output matrix.
+     * @param gw (Optional) Storage for internal workspace.  Can be null.
+     * @param gx (Optional) Storage for internal workspace.  Can be null.
+     */
+    public static DMatrixSparseCSR add( double alpha, DMatrixSparseCSR A, double beta, DMatrixSparseCSR B,
+                                        @Nullable DMatrixSparseCSR outputC,
+                                        @Nullable IGrowArray gw, @Nullable DGrowArray gx ) {
+        if (A.numRows != B.numRows || A.numCols != B.numCols)
+            throw new MatrixDimensionException("Inconsistent matrix shapes. " + stringShapes(A, B));
+        outputC = reshapeOrDeclare(outputC, A, A.numRows, A.numCols);
+
+        ImplCommonOps_DSCR.add(alpha, A, beta, B, outputC, gw, gx);
+
+        return outputC;
+    }
+
+    /**
+     * Performs an element-wise multiplication.<br>
+     * output[i,j] = A[i,j]*B[i,j]<br>
+     * All matrices must have the same shape.
+     *
+     * @param A (Input) Matrix.
+     * @param B (Input) Matrix
+     * @param output (Output) Matrix. data array is grown to min(A.nz_length,B.nz_length), resulting a in a large speed boost.
+     * @param gw (Optional) Storage for internal workspace.  Can be null.
+     * @param gx (Optional) Storage for internal workspace.  Can be null.
+     */
+    public static DMatrixSparseCSR elementMult( DMatrixSparseCSR A, DMatrixSparseCSR B, @Nullable DMatrixSparseCSR output,
+                                                @Nullable IGrowArray gw, @Nullable DGrowArray gx ) {
+        if (A.numCols != B.numCols || A.numRows != B.numRows)
+            throw new MatrixDimensionException("All inputs must have the same number of rows and columns. " + stringShapes(A, B));
+        output = reshapeOrDeclare(output, A, A.numRows, A.numCols);
+
+        ImplCommonOps_DSCR.elementMult(A, B, output, gw, gx);
+
+        return output;
+    }
+}
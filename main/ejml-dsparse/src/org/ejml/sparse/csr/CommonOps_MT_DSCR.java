@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.sparse.csr;
+
+import org.ejml.MatrixDimensionException;
+import org.ejml.concurrency.EjmlConcurrency;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixSparseCSR;
+import org.ejml.sparse.csr.mult.ImplSparseSparseMult_DSCR;
+import org.jetbrains.annotations.Nullable;
+
+import static org.ejml.UtilEjml.reshapeOrDeclare;
+import static org.ejml.UtilEjml.stringShapes;
+
+/**
+ * Concurrent implementations of functions found in {@link CommonOps_DSCR}. Work is split by rows, so each thread
+ * writes to its own rows in the output and no per-thread storage is needed.
+ *
+ * @author Peter Abeles
+ */
+public class CommonOps_MT_DSCR {
+    /**
+     * Performs matrix multiplication.  C = A*B
+     *
+     * @param A Matrix
+     * @param B Dense Matrix
+     * @param outputC Dense Matrix
+     */
+    public static DMatrixRMaj mult( DMatrixSparseCSR A, DMatrixRMaj B, @Nullable DMatrixRMaj outputC ) {
+        if (A.numCols != B.numRows)
+            throw new MatrixDimensionException("Inconsistent matrix shapes. " + stringShapes(A, B));
+        final DMatrixRMaj C = reshapeOrDeclare(outputC, A.numRows, B.numCols);
+
+        EjmlConcurrency.loopBlocks(0, A.numRows, ( row0, row1 ) ->
+                ImplSparseSparseMult_DSCR.mult(A, B, C, row0, row1));
+
+        return C;
+    }
+
+    /**
+     * <p>C = C + A*B</p>
+     */
+    public static void multAdd( DMatrixSparseCSR A, DMatrixRMaj B, DMatrixRMaj outputC ) {
+        if (A.numCols != B.numRows)
+            throw new MatrixDimensionException("Inconsistent matrix shapes. " + stringShapes(A, B));
+        if (A.numRows != outputC.numRows || B.numCols != outputC.numCols)
+            throw new MatrixDimensionException("Inconsistent matrix shapes. " + stringShapes(A, B, outputC));
+
+        EjmlConcurrency.loopBlocks(0, A.numRows, ( row0, row1 ) ->
+                ImplSparseSparseMult_DSCR.multAdd(A, B, outputC, row0, row1));
+    }
+}
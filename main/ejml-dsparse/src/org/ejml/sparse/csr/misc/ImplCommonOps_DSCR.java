@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.sparse.csr.misc;
+
+import org.ejml.data.DGrowArray;
+import org.ejml.data.DMatrixSparseCSR;
+import org.ejml.data.IGrowArray;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+import static org.ejml.UtilEjml.adjust;
+import static org.ejml.sparse.csr.mult.ImplSparseSparseMult_DSCR.multAddRowB;
+
+/**
+ * Implementation class.  Not recommended for direct use.  Instead use {@link org.ejml.sparse.csr.CommonOps_DSCR}
+ * instead.
+ *
+ * @author Peter Abeles
+ */
+public class ImplCommonOps_DSCR {
+
+    /**
+     * Performs a matrix transpose.
+     *
+     * @param A Original matrix.  Not modified.
+     * @param C Storage for transposed 'A'.  Reshaped.
+     * @param gw (Optional) Storage for internal workspace.  Can be null.
+     */
+    public static void transpose( DMatrixSparseCSR A, DMatrixSparseCSR C, @Nullable IGrowArray gw ) {
+        int[] work = adjust(gw, A.numCols, A.numCols);
+        C.reshape(A.numCols, A.numRows, A.nz_length);
+
+        // compute the histogram for each column in 'a'
+        for (int j = 0; j < A.nz_length; j++) {
+            work[A.nz_cols[j]]++;
+        }
+
+        // construct row_idx in the transposed matrix
+        C.histogramToStructure(work);
+        System.arraycopy(C.row_idx, 0, work, 0, C.numRows);
+
+        // fill in the column indexes
+        for (int row = 0; row < A.numRows; row++) {
+            final int idx0 = A.row_idx[row];
+            final int idx1 = A.row_idx[row + 1];
+            for (int i = idx0; i < idx1; i++) {
+                int index = work[A.nz_cols[i]]++;
+                C.nz_cols[index] = row;
+                C.nz_values[index] = A.nz_values[i];
+            }
+        }
+        C.indicesSorted = true;
+    }
+
+    /**
+     * Performs matrix addition:<br>
+     * C = &alpha;A + &beta;B
+     *
+     * @param alpha scalar value multiplied against A
+     * @param A Matrix
+     * @param beta scalar value multiplied against B
+     * @param B Matrix
+     * @param C Output matrix.
+     * @param gw (Optional) Storage for internal workspace.  Can be null.
+     * @param gx (Optional) Storage for internal workspace.  Can be null.
+     */
+    public static void add( double alpha, DMatrixSparseCSR A, double beta, DMatrixSparseCSR B, DMatrixSparseCSR C,
+                            @Nullable IGrowArray gw, @Nullable DGrowArray gx ) {
+        double[] x = adjust(gx, A.numCols);
+        int[] w = adjust(gw, A.numCols, A.numCols);
+
+        C.indicesSorted = false;
+        C.nz_length = 0;
+
+        for (int row = 0; row < A.numRows; row++) {
+            C.row_idx[row + 1] = C.nz_length;
+
+            multAddRowB(A, row, alpha, C, row + 1, x, w);
+            multAddRowB(B, row, beta, C, row + 1, x, w);
+
+            // take the values in the dense vector 'x' and put them into 'C'
+            int idxC0 = C.row_idx[row];
+            int idxC1 = C.row_idx[row + 1];
+
+            for (int i = idxC0; i < idxC1; i++) {
+                C.nz_values[i] = x[C.nz_cols[i]];
+            }
+        }
+    }
+
+    /**
+     * Performs element-wise multiplication:<br>
+     * C_ij = A_ij * B_ij
+     *
+     * @param A (Input) Matrix
+     * @param B (Input) Matrix
+     * @param C (Output) Matrix.
+     * @param gw (Optional) Storage for internal workspace.  Can be null.
+     * @param gx (Optional) Storage for internal workspace.  Can be null.
+     */
+    public static void elementMult( DMatrixSparseCSR A, DMatrixSparseCSR B, DMatrixSparseCSR C,
+                                    @Nullable IGrowArray gw, @Nullable DGrowArray gx ) {
+        double[] x = adjust(gx, A.numCols);
+        int[] w = adjust(gw, A.numCols);
+        Arrays.fill(w, 0, A.numCols, -1); // fill with -1. This will be a value less than row
+
+        C.growMaxLength(Math.min(A.nz_length, B.nz_length), false);
+        C.indicesSorted = B.indicesSorted;
+        C.nz_length = 0;
+
+        for (int row = 0; row < A.numRows; row++) {
+            int idxA0 = A.row_idx[row];
+            int idxA1 = A.row_idx[row + 1];
+            int idxB0 = B.row_idx[row];
+            int idxB1 = B.row_idx[row + 1];
+
+            // compute the maximum number of elements that there can be in this row
+            int maxInRow = Math.min(idxA1 - idxA0, idxB1 - idxB0);
+
+            // make sure there are enough non-zero elements in C
+            if (C.nz_length + maxInRow > C.nz_values.length)
+                C.growMaxLength(C.nz_values.length + maxInRow, true);
+
+            // update the structure of C
+            C.row_idx[row] = C.nz_length;
+
+            // mark the columns that appear in A and save their value
+            for (int i = idxA0; i < idxA1; i++) {
+                int col = A.nz_cols[i];
+                w[col] = row;
+                x[col] = A.nz_values[i];
+            }
+
+            // If a column appears in A and B, multiply and set as an element in C
+            for (int i = idxB0; i < idxB1; i++) {
+                int col = B.nz_cols[i];
+                if (w[col] == row) {
+                    C.nz_values[C.nz_length] = x[col]*B.nz_values[i];
+                    C.nz_cols[C.nz_length++] = col;
+                }
+            }
+        }
+        C.row_idx[C.numRows] = C.nz_length;
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.sparse.csr.mult;
+
+import org.ejml.data.DGrowArray;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixSparseCSR;
+import org.ejml.data.IGrowArray;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+import static org.ejml.UtilEjml.adjust;
+
+/**
+ * Matrix multiplication for {@link DMatrixSparseCSR}. Each row in the output is computed from a single row in A.
+ *
+ * @author Peter Abeles
+ */
+public class ImplSparseSparseMult_DSCR {
+
+    /**
+     * Performs matrix multiplication.  C = A*B
+     *
+     * @param A Matrix
+     * @param B Matrix
+     * @param C Storage for results.  Data length is increased if increased if insufficient.
+     * @param gw (Optional) Storage for internal workspace.  Can be null.
+     * @param gx (Optional) Storage for internal workspace.  Can be null.
+     */
+    public static void mult( DMatrixSparseCSR A, DMatrixSparseCSR B, DMatrixSparseCSR C,
+                             @Nullable IGrowArray gw, @Nullable DGrowArray gx ) {
+        double[] x = adjust(gx, B.numCols);
+        int[] w = adjust(gw, B.numCols, B.numCols);
+
+        C.growMaxLength(A.nz_length + B.nz_length, false);
+        C.indicesSorted = false;
+        C.nz_length = 0;
+
+        // C(i,:) = sum_k A(i,k)*B(k,:)
+        for (int rowA = 0; rowA < A.numRows; rowA++) {
+            int idx0 = A.row_idx[rowA];
+            int idx1 = A.row_idx[rowA + 1];
+            C.row_idx[rowA + 1] = C.nz_length;
+
+            for (int ai = idx0; ai < idx1; ai++) {
+                multAddRowB(B, A.nz_cols[ai], A.nz_values[ai], C, rowA + 1, x, w);
+            }
+
+            // take the values in the dense vector 'x' and put them into 'C'
+            int idxC0 = C.row_idx[rowA];
+            int idxC1 = C.row_idx[rowA + 1];
+
+            for (int i = idxC0; i < idxC1; i++) {
+                C.nz_values[i] = x[C.nz_cols[i]];
+            }
+        }
+    }
+
+    /**
+     * Performs the operation x = x + B(i,:)*alpha and adds new columns to the last row in C
+     */
+    public static void multAddRowB( DMatrixSparseCSR B, int rowB,
+                                    double alpha,
+                                    DMatrixSparseCSR C, int mark,
+                                    double[] x, int[] w ) {
+        int idxB0 = B.row_idx[rowB];
+        int idxB1 = B.row_idx[rowB + 1];
+
+        for (int j = idxB0; j < idxB1; j++) {
+            int col = B.nz_cols[j];
+
+            if (w[col] < mark) {
+                if (C.nz_length >= C.nz_cols.length) {
+                    C.growMaxLength(C.nz_length*2 + 1, true);
+                }
+
+                w[col] = mark;
+                C.nz_cols[C.nz_length] = col;
+                C.row_idx[mark] = ++C.nz_length;
+                x[col] = B.nz_values[j]*alpha;
+            } else {
+                x[col] += B.nz_values[j]*alpha;
+            }
+        }
+    }
+
+    /**
+     * C = A*B, where B and C are dense.
+     */
+    public static void mult( DMatrixSparseCSR A, DMatrixRMaj B, DMatrixRMaj C ) {
+        mult(A, B, C, 0, A.numRows);
+    }
+
+    /**
+     * C = A*B, where B and C are dense. Only rows row0 to row1 in C are computed.
+     */
+    public static void mult( DMatrixSparseCSR A, DMatrixRMaj B, DMatrixRMaj C, int row0, int row1 ) {
+        final int cols = B.numCols;
+        Arrays.fill(C.data, row0*cols, row1*cols, 0);
+        multAdd(A, B, C, row0, row1);
+    }
+
+    /**
+     * C = C + A*B, where B and C are dense.
+     */
+    public static void multAdd( DMatrixSparseCSR A, DMatrixRMaj B, DMatrixRMaj C ) {
+        multAdd(A, B, C, 0, A.numRows);
+    }
+
+    /**
+     * C = C + A*B, where B and C are dense. Only rows row0 to row1 in C are modified.
+     */
+    public static void multAdd( DMatrixSparseCSR A, DMatrixRMaj B, DMatrixRMaj C, int row0, int row1 ) {
+        final int cols = B.numCols;
+
+        // C(i,:) += sum_k A(i,k)*B(k,:)
+        for (int row = row0; row < row1; row++) {
+            int idx0 = A.row_idx[row];
+            int idx1 = A.row_idx[row + 1];
+            int indexC = row*cols;
+
+            for (int ai = idx0; ai < idx1; ai++) {
+                double valA = A.nz_values[ai];
+                int indexB = A.nz_cols[ai]*cols;
+                for (int j = 0; j < cols; j++) {
+                    C.data[indexC + j] += valA*B.data[indexB + j];
+                }
+            }
+        }
+    }
+
+    /**
+     * C = A<sup>T</sup>*B, where B and C are dense.
+     */
+    public static void multTransA( DMatrixSparseCSR A, DMatrixRMaj B, DMatrixRMaj C ) {
+        C.zero();
+        multAddTransA(A, B, C);
+    }
+
+    /**
+     * C = C + A<sup>T</sup>*B, where B and C are dense.
+     */
+    public static void multAddTransA( DMatrixSparseCSR A, DMatrixRMaj B, DMatrixRMaj C ) {
+        final int cols = B.numCols;
+
+        // C(k,:) += A(i,k)*B(i,:)
+        for (int row = 0; row < A.numRows; row++) {
+            int idx0 = A.row_idx[row];
+            int idx1 = A.row_idx[row + 1];
+            int indexB = row*cols;
+
+            for (int ai = idx0; ai < idx1; ai++) {
+                double valA = A.nz_values[ai];
+                int indexC = A.nz_cols[ai]*cols;
+                for (int j = 0; j < cols; j++) {
+                    C.data[indexC + j] += valA*B.data[indexB + j];
+                }
+            }
+        }
+    }
+}
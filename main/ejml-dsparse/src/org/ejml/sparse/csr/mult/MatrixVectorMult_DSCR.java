@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.sparse.csr.mult;
+
+import org.ejml.data.DMatrixSparseCSR;
+
+import java.util.Arrays;
+
+/**
+ * Matrix-vector multiplication for {@link DMatrixSparseCSR}. Each element in A*b only depends on a single row
+ * in A and is computed with a dot product, no scattering is required.
+ *
+ * @author Peter Abeles
+ */
+public class MatrixVectorMult_DSCR {
+    /**
+     * c = A*b
+     *
+     * @param A (Input) Matrix
+     * @param b (Input) vector
+     * @param offsetB (Input) first index in vector b
+     * @param c (Output) vector
+     * @param offsetC (Output) first index in vector c
+     */
+    public static void mult( DMatrixSparseCSR A,
+                             double[] b, int offsetB,
+                             double[] c, int offsetC ) {
+        checkLengths(A, b, offsetB, c, offsetC);
+        mult(A, b, offsetB, c, offsetC, 0, A.numRows);
+    }
+
+    /**
+     * c = A*b for rows row0 to row1 in A.
+     */
+    public static void mult( DMatrixSparseCSR A,
+                             double[] b, int offsetB,
+                             double[] c, int offsetC,
+                             int row0, int row1 ) {
+        for (int row = row0; row < row1; row++) {
+            int idx0 = A.row_idx[row];
+            int idx1 = A.row_idx[row + 1];
+
+            double sum = 0;
+            for (int indexA = idx0; indexA < idx1; indexA++) {
+                sum += A.nz_values[indexA]*b[offsetB + A.nz_cols[indexA]];
+            }
+            c[offsetC + row] = sum;
+        }
+    }
+
+    /**
+     * c = c + A*b
+     *
+     * @param A (Input) Matrix
+     * @param b (Input) vector
+     * @param offsetB (Input) first index in vector b
+     * @param c (Output) vector
+     * @param offsetC (Output) first index in vector c
+     */
+    public static void multAdd( DMatrixSparseCSR A,
+                                double[] b, int offsetB,
+                                double[] c, int offsetC ) {
+        checkLengths(A, b, offsetB, c, offsetC);
+        multAdd(A, b, offsetB, c, offsetC, 0, A.numRows);
+    }
+
+    /**
+     * c = c + A*b for rows row0 to row1 in A.
+     */
+    public static void multAdd( DMatrixSparseCSR A,
+                                double[] b, int offsetB,
+                                double[] c, int offsetC,
+                                int row0, int row1 ) {
+        for (int row = row0; row < row1; row++) {
+            int idx0 = A.row_idx[row];
+            int idx1 = A.row_idx[row + 1];
+
+            double sum = 0;
+            for (int indexA = idx0; indexA < idx1; indexA++) {
+                sum += A.nz_values[indexA]*b[offsetB + A.nz_cols[indexA]];
+            }
+            c[offsetC + row] += sum;
+        }
+    }
+
+    /**
+     * c = a<sup>T</sup>*B
+     *
+     * @param a (Input) vector
+     * @param offsetA Input) first index in vector a
+     * @param B (Input) Matrix
+     * @param c (Output) vector
+     * @param offsetC (Output) first index in vector c
+     */
+    public static void mult( double[] a, int offsetA,
+                             DMatrixSparseCSR B,
+                             double[] c, int offsetC ) {
+        if (a.length - offsetA < B.numRows)
+            throw new IllegalArgumentException("Length of 'a' isn't long enough");
+        if (c.length - offsetC < B.numCols)
+            throw new IllegalArgumentException("Length of 'c' isn't long enough");
+
+        Arrays.fill(c, offsetC, offsetC + B.numCols, 0);
+        for (int k = 0; k < B.numRows; k++) {
+            int idx0 = B.row_idx[k];
+            int idx1 = B.row_idx[k + 1];
+
+            double valA = a[offsetA + k];
+            for (int indexB = idx0; indexB < idx1; indexB++) {
+                c[offsetC + B.nz_cols[indexB]] += valA*B.nz_values[indexB];
+            }
+        }
+    }
+
+    /**
+     * scalar = A<sup>T</sup>*B*C
+     *
+     * @param a (Input) vector
+     * @param offsetA Input) first index in vector a
+     * @param B (Input) Matrix
+     * @param c (Output) vector
+     * @param offsetC (Output) first index in vector c
+     */
+    public static double innerProduct( double[] a, int offsetA,
+                                       DMatrixSparseCSR B,
+                                       double[] c, int offsetC ) {
+        if (a.length - offsetA < B.numRows)
+            throw new IllegalArgumentException("Length of 'a' isn't long enough");
+        if (c.length - offsetC < B.numCols)
+            throw new IllegalArgumentException("Length of 'c' isn't long enough");
+
+        double output = 0;
+
+        for (int k = 0; k < B.numRows; k++) {
+            int idx0 = B.row_idx[k];
+            int idx1 = B.row_idx[k + 1];
+
+            double sum = 0;
+            for (int indexB = idx0; indexB < idx1; indexB++) {
+                sum += B.nz_values[indexB]*c[offsetC + B.nz_cols[indexB]];
+            }
+            output += a[offsetA + k]*sum;
+        }
+
+        return output;
+    }
+
+    static void checkLengths( DMatrixSparseCSR A, double[] b, int offsetB, double[] c, int offsetC ) {
+        if (b.length - offsetB < A.numCols)
+            throw new IllegalArgumentException("Length of 'b' isn't long enough");
+        if (c.length - offsetC < A.numRows)
+            throw new IllegalArgumentException("Length of 'c' isn't long enough");
+    }
+}
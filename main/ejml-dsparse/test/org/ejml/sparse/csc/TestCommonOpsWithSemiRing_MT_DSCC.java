@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.sparse.csc;
+
+import org.ejml.EjmlUnitTests;
+import org.ejml.MatrixDimensionException;
+import org.ejml.UtilEjml;
+import org.ejml.concurrency.EjmlConcurrency;
+import org.ejml.data.DMatrix;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.ejml.ops.DSemiRing;
+import org.ejml.ops.DSemiRings;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares results against the single threaded implementations in {@link CommonOpsWithSemiRing_DSCC}
+ *
+ * @author Peter Abeles
+ */
+class TestCommonOpsWithSemiRing_MT_DSCC {
+    private final Random rand = new Random(234);
+
+    private final DSemiRing[] semiRings = new DSemiRing[]{
+            DSemiRings.PLUS_TIMES, DSemiRings.MIN_PLUS, DSemiRings.MAX_MIN, DSemiRings.OR_AND};
+
+    @Test
+    void mult_s_s() {
+        withThreads(() -> {
+            for (DSemiRing semiRing : semiRings) {
+                for (int trial = 0; trial < 10; trial++) {
+                    DMatrixSparseCSC A = adjustDomain(RandomMatrices_DSCC.rectangle(12, 10, 30, rand), semiRing);
+                    DMatrixSparseCSC B = adjustDomain(RandomMatrices_DSCC.rectangle(10, 15, 40, rand), semiRing);
+
+                    DMatrixSparseCSC expected = CommonOpsWithSemiRing_DSCC.mult(A, B, null, semiRing);
+                    DMatrixSparseCSC found = CommonOpsWithSemiRing_MT_DSCC.mult(A, B, null, semiRing);
+                    assertTrue(CommonOps_DSCC.checkStructure(found));
+                    assertTrue(MatrixFeatures_DSCC.isEqualsSort(expected, found, UtilEjml.TEST_F64));
+                }
+            }
+        });
+    }
+
+    @Test
+    void add() {
+        withThreads(() -> {
+            for (DSemiRing semiRing : semiRings) {
+                DMatrixSparseCSC A = adjustDomain(RandomMatrices_DSCC.rectangle(12, 10, 30, rand), semiRing);
+                DMatrixSparseCSC B = adjustDomain(RandomMatrices_DSCC.rectangle(12, 10, 40, rand), semiRing);
+
+                DMatrixSparseCSC expected = CommonOpsWithSemiRing_DSCC.add(1.5, A, 0.5, B, null, semiRing, null, null);
+                DMatrixSparseCSC found = CommonOpsWithSemiRing_MT_DSCC.add(1.5, A, 0.5, B, null, semiRing, null);
+                assertTrue(CommonOps_DSCC.checkStructure(found));
+                assertTrue(MatrixFeatures_DSCC.isEqualsSort(expected, found, UtilEjml.TEST_F64));
+            }
+        });
+    }
+
+    @Test
+    void elementMult() {
+        withThreads(() -> {
+            for (DSemiRing semiRing : semiRings) {
+                DMatrixSparseCSC A = adjustDomain(RandomMatrices_DSCC.rectangle(12, 10, 60, rand), semiRing);
+                DMatrixSparseCSC B = adjustDomain(RandomMatrices_DSCC.rectangle(12, 10, 50, rand), semiRing);
+
+                DMatrixSparseCSC expected = CommonOpsWithSemiRing_DSCC.elementMult(A, B, null, semiRing, null, null);
+                DMatrixSparseCSC found = CommonOpsWithSemiRing_MT_DSCC.elementMult(A, B, null, semiRing, null);
+                assertTrue(CommonOps_DSCC.checkStructure(found));
+                assertTrue(MatrixFeatures_DSCC.isEqualsSort(expected, found, UtilEjml.TEST_F64));
+            }
+        });
+    }
+
+    @Test
+    void mult_s_d() {
+        withThreads(() -> {
+            for (DSemiRing semiRing : semiRings) {
+                DMatrixSparseCSC A = adjustDomain(RandomMatrices_DSCC.rectangle(12, 10, 30, rand), semiRing);
+                DMatrixRMaj B = adjustDomain(RandomMatrices_DDRM.rectangle(10, 5, rand), semiRing);
+                DMatrixRMaj C = adjustDomain(RandomMatrices_DDRM.rectangle(12, 5, rand), semiRing);
+
+                EjmlUnitTests.assertEquals(CommonOpsWithSemiRing_DSCC.mult(A, B, null, semiRing),
+                        CommonOpsWithSemiRing_MT_DSCC.mult(A, B, null, semiRing, null), UtilEjml.TEST_F64);
+
+                DMatrixRMaj expected = C.copy();
+                CommonOpsWithSemiRing_DSCC.multAdd(A, B, expected, semiRing);
+                CommonOpsWithSemiRing_MT_DSCC.multAdd(A, B, C, semiRing, null);
+                EjmlUnitTests.assertEquals(expected, C, UtilEjml.TEST_F64);
+
+                // B is transposed
+                DMatrixRMaj Bt = adjustDomain(RandomMatrices_DDRM.rectangle(5, 10, rand), semiRing);
+                EjmlUnitTests.assertEquals(CommonOpsWithSemiRing_DSCC.multTransB(A, Bt, null, semiRing),
+                        CommonOpsWithSemiRing_MT_DSCC.multTransB(A, Bt, null, semiRing, null), UtilEjml.TEST_F64);
+
+                expected.set(C);
+                CommonOpsWithSemiRing_DSCC.multAddTransB(A, Bt, expected, semiRing);
+                CommonOpsWithSemiRing_MT_DSCC.multAddTransB(A, Bt, C, semiRing, null);
+                EjmlUnitTests.assertEquals(expected, C, UtilEjml.TEST_F64);
+            }
+        });
+    }
+
+    @Test
+    void multTransA_s_d() {
+        withThreads(() -> {
+            for (DSemiRing semiRing : semiRings) {
+                DMatrixSparseCSC A = adjustDomain(RandomMatrices_DSCC.rectangle(12, 10, 30, rand), semiRing);
+                DMatrixRMaj B = adjustDomain(RandomMatrices_DDRM.rectangle(12, 5, rand), semiRing);
+                DMatrixRMaj C = adjustDomain(RandomMatrices_DDRM.rectangle(10, 5, rand), semiRing);
+
+                EjmlUnitTests.assertEquals(CommonOpsWithSemiRing_DSCC.multTransA(A, B, null, semiRing),
+                        CommonOpsWithSemiRing_MT_DSCC.multTransA(A, B, null, semiRing), UtilEjml.TEST_F64);
+
+                DMatrixRMaj expected = C.copy();
+                CommonOpsWithSemiRing_DSCC.multAddTransA(A, B, expected, semiRing);
+                CommonOpsWithSemiRing_MT_DSCC.multAddTransA(A, B, C, semiRing);
+                EjmlUnitTests.assertEquals(expected, C, UtilEjml.TEST_F64);
+
+                // both are transposed
+                DMatrixRMaj Bt = adjustDomain(RandomMatrices_DDRM.rectangle(5, 12, rand), semiRing);
+                EjmlUnitTests.assertEquals(CommonOpsWithSemiRing_DSCC.multTransAB(A, Bt, null, semiRing),
+                        CommonOpsWithSemiRing_MT_DSCC.multTransAB(A, Bt, null, semiRing), UtilEjml.TEST_F64);
+
+                expected.set(C);
+                CommonOpsWithSemiRing_DSCC.multAddTransAB(A, Bt, expected, semiRing);
+                CommonOpsWithSemiRing_MT_DSCC.multAddTransAB(A, Bt, C, semiRing);
+                EjmlUnitTests.assertEquals(expected, C, UtilEjml.TEST_F64);
+            }
+        });
+    }
+
+    @Test
+    void badShapes() {
+        DSemiRing semiRing = DSemiRings.MIN_PLUS;
+        assertThrows(MatrixDimensionException.class, () -> CommonOpsWithSemiRing_MT_DSCC.mult(
+                new DMatrixSparseCSC(3, 4), new DMatrixSparseCSC(3, 4), null, semiRing));
+        assertThrows(MatrixDimensionException.class, () -> CommonOpsWithSemiRing_MT_DSCC.mult(
+                new DMatrixSparseCSC(3, 4), new DMatrixRMaj(3, 4), null, semiRing, null));
+        assertThrows(MatrixDimensionException.class, () -> CommonOpsWithSemiRing_MT_DSCC.add(
+                1, new DMatrixSparseCSC(3, 4), 1, new DMatrixSparseCSC(4, 4), null, semiRing, null));
+        assertThrows(MatrixDimensionException.class, () -> CommonOpsWithSemiRing_MT_DSCC.elementMult(
+                new DMatrixSparseCSC(3, 4), new DMatrixSparseCSC(3, 5), null, semiRing, null));
+    }
+
+    /**
+     * OR_AND is only defined for boolean values
+     */
+    private static <T extends DMatrix> T adjustDomain( T M, DSemiRing semiRing ) {
+        if (semiRing != DSemiRings.OR_AND)
+            return M;
+        double[] data = M instanceof DMatrixSparseCSC ? ((DMatrixSparseCSC)M).nz_values : ((DMatrixRMaj)M).data;
+        for (int i = 0; i < data.length; i++) {
+            data[i] = data[i] > 0.5 ? 1 : 0;
+        }
+        return M;
+    }
+
+    /**
+     * Use more than one thread so that results from different blocks are combined
+     */
+    private static void withThreads( Runnable test ) {
+        int originalThreads = EjmlConcurrency.getMaxThreads();
+        try {
+            EjmlConcurrency.setMaxThreads(3);
+            test.run();
+        } finally {
+            EjmlConcurrency.setMaxThreads(originalThreads);
+        }
+    }
+}
@@ -18,8 +18,12 @@
 
 package org.ejml.sparse.csc;
 
+import org.ejml.EjmlUnitTests;
 import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
 import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.ejml.sparse.csc.mult.CheckMatrixMultShape_DSCC;
 import org.junit.jupiter.api.Test;
 
 import java.util.Random;
@@ -34,6 +38,34 @@ class TestCommonOps_MT_DSCC {
 
     private final Random rand = new Random(234);
 
+    @Test
+    public void checkInputShape() {
+        CheckMatrixMultShape_DSCC checkShape = new CheckMatrixMultShape_DSCC(CommonOps_MT_DSCC.class);
+        checkShape.checkAll();
+    }
+
+    /**
+     * Sanity check the sparse-dense functions against the single threaded versions
+     */
+    @Test
+    public void mult_s_d() {
+        DMatrixSparseCSC A = RandomMatrices_DSCC.rectangle(20, 15, 60, rand);
+        DMatrixRMaj B = RandomMatrices_DDRM.rectangle(15, 64, rand);
+        DMatrixRMaj C = RandomMatrices_DDRM.rectangle(20, 64, rand);
+
+        EjmlUnitTests.assertEquals(CommonOps_DSCC.mult(A, B, null),
+                CommonOps_MT_DSCC.mult(A, B, null, null), UtilEjml.TEST_F64);
+
+        DMatrixRMaj expected = C.copy();
+        CommonOps_DSCC.multAdd(A, B, expected);
+        CommonOps_MT_DSCC.multAdd(A, B, C, null);
+        EjmlUnitTests.assertEquals(expected, C, UtilEjml.TEST_F64);
+
+        DMatrixRMaj Bt = RandomMatrices_DDRM.rectangle(20, 64, rand);
+        EjmlUnitTests.assertEquals(CommonOps_DSCC.multTransA(A, Bt, null),
+                CommonOps_MT_DSCC.multTransA(A, Bt, null), UtilEjml.TEST_F64);
+    }
+
     @Test
     public void mult_s_s_shapes() {
         // multiple trials to test more sparse structures
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.sparse.csc;
+
+import org.ejml.data.DMatrixSparseCSC;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+class TestMask_DSCC {
+    @Test
+    void isSet() {
+        DMatrixSparseCSC M = new DMatrixSparseCSC(3, 2, 3);
+        M.set(0, 0, 1);
+        M.set(2, 0, 0);
+        M.set(1, 1, 2);
+
+        check(new Mask_DSCC(M, true, false), new boolean[][]{{true, false}, {false, true}, {true, false}});
+        check(new Mask_DSCC(M, false, false), new boolean[][]{{true, false}, {false, true}, {false, false}});
+        check(new Mask_DSCC(M, true, true), new boolean[][]{{false, true}, {true, false}, {false, true}});
+        check(new Mask_DSCC(M, false, true), new boolean[][]{{false, true}, {true, false}, {true, true}});
+    }
+
+    private void check( Mask_DSCC mask, boolean[][] expected ) {
+        mask.checkShape(3, 2);
+        for (int col = 0; col < 2; col++) {
+            mask.setColumn(col);
+            for (int row = 0; row < 3; row++) {
+                assertEquals(expected[row][col], mask.isSet(row));
+            }
+        }
+    }
+
+    @Test
+    void isColumnEmpty() {
+        DMatrixSparseCSC M = new DMatrixSparseCSC(2, 3, 3);
+        M.set(0, 1, 1);
+        M.set(0, 2, 1);
+        M.set(1, 2, 1);
+
+        Mask_DSCC mask = new Mask_DSCC(M);
+        mask.checkShape(2, 3);
+        mask.setColumn(0);
+        assertTrue(mask.isColumnEmpty());
+        mask.setColumn(1);
+        assertFalse(mask.isColumnEmpty());
+
+        mask = new Mask_DSCC(M, true, true);
+        mask.checkShape(2, 3);
+        mask.setColumn(0);
+        assertFalse(mask.isColumnEmpty());
+        mask.setColumn(2);
+        assertTrue(mask.isColumnEmpty());
+    }
+}
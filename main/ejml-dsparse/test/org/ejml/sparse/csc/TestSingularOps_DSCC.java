@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.sparse.csc;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.dense.row.SingularOps_DDRM;
+import org.ejml.ops.ConvertDMatrixStruct;
+import org.ejml.sparse.csc.decomposition.svd.SvdRandomized_DSCC;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestSingularOps_DSCC {
+    Random rand = new Random(234);
+
+    @Test
+    public void truncatedSvd() {
+        DMatrixSparseCSC A = RandomMatrices_DSCC.rectangle(30, 20, 150, -1, 1, rand);
+        double[] expected = SingularOps_DDRM.singularValues(ConvertDMatrixStruct.convert(A, (DMatrixRMaj)null));
+
+        // request every singular value so that the results are exact
+        SvdRandomized_DSCC svd = SingularOps_DSCC.truncatedSvd(A, 20);
+        assertEquals(20, svd.numberOfSingularValues());
+        for (int i = 0; i < 20; i++) {
+            assertEquals(expected[i], svd.getSingularValues()[i], UtilEjml.TEST_F64);
+        }
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.sparse.csc.decomposition.chol;
+
+import org.ejml.EjmlUnitTests;
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.data.DMatrixSparseTriplet;
+import org.ejml.interfaces.decomposition.CholeskySparseDecomposition_F64;
+import org.ejml.ops.ConvertDMatrixStruct;
+import org.ejml.sparse.FillReducing;
+import org.ejml.sparse.csc.CommonOps_DSCC;
+import org.ejml.sparse.csc.RandomMatrices_DSCC;
+import org.ejml.sparse.csc.factory.FillReductionFactory_DSCC;
+import org.ejml.sparse.csc.misc.ApplyFillReductionPermutation_DSCC;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestCholeskySupernodal_DSCC extends GenericCholeskyTests_DSCC {
+
+    public TestCholeskySupernodal_DSCC() {
+        canR = false;
+    }
+
+    @Override
+    public CholeskySparseDecomposition_F64<DMatrixSparseCSC> create( boolean lower ) {
+        // force it to always use the supernodal algorithm
+        CholeskySupernodal_DSCC alg = new CholeskySupernodal_DSCC();
+        alg.setMinimumWeightedWidth(0);
+        return alg;
+    }
+
+    /**
+     * Matrix with large supernodes. Compare against the up looking algorithm.
+     */
+    @Test
+    public void compareToUpLooking_grid() {
+        for (FillReducing type : new FillReducing[]{FillReducing.NONE, FillReducing.AMD}) {
+            DMatrixSparseCSC A = gridStiffness(8, 3);
+            ApplyFillReductionPermutation_DSCC reduce =
+                    new ApplyFillReductionPermutation_DSCC(FillReductionFactory_DSCC.create(type), true);
+            DMatrixSparseCSC Ap = reduce.apply(A);
+
+            CholeskySupernodal_DSCC alg = new CholeskySupernodal_DSCC();
+            alg.setMinimumWeightedWidth(0);
+            CholeskyUpLooking_DSCC expected = new CholeskyUpLooking_DSCC();
+
+            assertTrue(alg.decompose(Ap));
+            assertTrue(expected.decompose(Ap));
+
+            // every node has 3 degrees of freedom so the supernodes have at least 3 columns
+            assertTrue(alg.getNumSupernodes()*3 <= A.numCols);
+            assertTrue(CommonOps_DSCC.checkStructure(alg.getL()));
+            EjmlUnitTests.assertEquals(expected.getL(), alg.getL(), UtilEjml.TEST_F64);
+            assertEquals(expected.computeDeterminant().real, alg.computeDeterminant().real,
+                    Math.abs(expected.computeDeterminant().real)*UtilEjml.TEST_F64);
+        }
+    }
+
+    /**
+     * Decompose multiple matrices with the same structure while the structure is locked
+     */
+    @Test
+    public void lockedStructure() {
+        CholeskySupernodal_DSCC alg = new CholeskySupernodal_DSCC();
+        alg.setMinimumWeightedWidth(0);
+        alg.setStructureLocked(true);
+
+        DMatrixSparseCSC A = gridStiffness(5, 2);
+        for (int trial = 0; trial < 3; trial++) {
+            // change the values but not the structure
+            for (int i = 0; i < A.numCols; i++) {
+                A.set(i, i, A.get(i, i) + rand.nextDouble());
+            }
+
+            assertTrue(alg.decompose(A));
+            DMatrixSparseCSC L = alg.getL();
+            DMatrixSparseCSC Lt = CommonOps_DSCC.transpose(L, null, null);
+            DMatrixSparseCSC found = CommonOps_DSCC.mult(L, Lt, null);
+            EjmlUnitTests.assertEquals(A, found, UtilEjml.TEST_F64);
+        }
+    }
+
+    /**
+     * Always falls back to the up looking algorithm and should produce the same results
+     */
+    @Test
+    public void fallBackToUpLooking() {
+        CholeskySupernodal_DSCC alg = new CholeskySupernodal_DSCC();
+        alg.setMinimumWeightedWidth(Double.MAX_VALUE);
+        CholeskyUpLooking_DSCC expected = new CholeskyUpLooking_DSCC();
+
+        DMatrixSparseCSC A = RandomMatrices_DSCC.symmetricPosDef(20, 0.2, rand);
+        assertTrue(alg.decompose(A));
+        assertTrue(expected.decompose(A));
+        EjmlUnitTests.assertEquals(expected.getL(), alg.getL(), UtilEjml.TEST_F64);
+    }
+
+    /**
+     * Without a fill reducing permutation the fundamental supernodes of a grid are one column wide. Relaxed
+     * supernodes should be much wider and still produce the same decomposition.
+     */
+    @Test
+    public void relaxedSupernodes() {
+        DMatrixSparseCSC A = gridStiffness(12, 1);
+
+        CholeskySupernodal_DSCC fundamental = new CholeskySupernodal_DSCC();
+        fundamental.setMinimumWeightedWidth(0);
+        fundamental.setRelaxSupernodes(false);
+        CholeskySupernodal_DSCC relaxed = new CholeskySupernodal_DSCC();
+        relaxed.setMinimumWeightedWidth(0);
+        CholeskyUpLooking_DSCC expected = new CholeskyUpLooking_DSCC();
+
+        assertTrue(fundamental.decompose(A));
+        assertTrue(relaxed.decompose(A));
+        assertTrue(expected.decompose(A));
+
+        assertTrue(relaxed.getNumSupernodes()*4 < fundamental.getNumSupernodes());
+        // explicit zeros are added to L
+        assertTrue(relaxed.getL().nz_length > expected.getL().nz_length);
+        assertTrue(CommonOps_DSCC.checkStructure(relaxed.getL()));
+        EjmlUnitTests.assertEquals(expected.getL(), relaxed.getL(), UtilEjml.TEST_F64);
+        EjmlUnitTests.assertEquals(expected.getL(), fundamental.getL(), UtilEjml.TEST_F64);
+    }
+
+    /**
+     * Most supernodes are a single column but almost all the work is inside of one wide supernode
+     */
+    @Test
+    public void weightedWidth_wideSupernode() {
+        int numSingle = 150;
+        int numDense = 100;
+        DMatrixSparseCSC A = new DMatrixSparseCSC(numSingle + numDense, numSingle + numDense);
+        for (int i = 0; i < numSingle; i++) {
+            A.set(i, i, 2.0);
+        }
+        // diagonally dominant dense block
+        for (int i = numSingle; i < A.numCols; i++) {
+            A.set(i, i, numDense);
+            for (int j = numSingle; j < i; j++) {
+                double value = rand.nextDouble();
+                A.set(i, j, value);
+                A.set(j, i, value);
+            }
+        }
+
+        CholeskySupernodal_DSCC alg = new CholeskySupernodal_DSCC();
+        CholeskyUpLooking_DSCC expected = new CholeskyUpLooking_DSCC();
+        assertTrue(alg.decompose(A));
+        assertTrue(expected.decompose(A));
+
+        // The average width is less than 2
+        assertTrue(alg.getNumSupernodes()*2 > A.numCols);
+        assertTrue(alg.isSupernodal());
+        EjmlUnitTests.assertEquals(expected.getL(), alg.getL(), UtilEjml.TEST_F64);
+    }
+
+    /**
+     * The supernodes in a tridiagonal matrix are narrow, even after relaxing them, so the up looking algorithm
+     * should be selected and L should have the same structure.
+     */
+    @Test
+    public void weightedWidth_narrowSupernodes() {
+        int N = 200;
+        DMatrixSparseCSC A = new DMatrixSparseCSC(N, N);
+        for (int i = 0; i < N; i++) {
+            A.set(i, i, 3.0);
+            if (i > 0) {
+                A.set(i, i - 1, -1.0);
+                A.set(i - 1, i, -1.0);
+            }
+        }
+
+        CholeskySupernodal_DSCC alg = new CholeskySupernodal_DSCC();
+        CholeskyUpLooking_DSCC expected = new CholeskyUpLooking_DSCC();
+        assertTrue(alg.decompose(A));
+        assertTrue(expected.decompose(A));
+
+        assertFalse(alg.isSupernodal());
+        assertEquals(expected.getL().nz_length, alg.getL().nz_length);
+        EjmlUnitTests.assertEquals(expected.getL(), alg.getL(), UtilEjml.TEST_F64);
+    }
+
+    /**
+     * Creates a positive definite matrix with the same structure as a stiffness matrix on a 2D grid
+     * with 'dof' degrees of freedom at each node.
+     */
+    static DMatrixSparseCSC gridStiffness( int N, int dof ) {
+        int n = N*N*dof;
+        DMatrixSparseTriplet T = new DMatrixSparseTriplet(n, n, 9*dof*dof*N*N);
+        for (int y = 0; y < N; y++) {
+            for (int x = 0; x < N; x++) {
+                int node = y*N + x;
+                for (int dy = -1; dy <= 1; dy++) {
+                    for (int dx = -1; dx <= 1; dx++) {
+                        int xx = x + dx, yy = y + dy;
+                        if (xx < 0 || yy < 0 || xx >= N || yy >= N)
+                            continue;
+                        int other = yy*N + xx;
+                        for (int i = 0; i < dof; i++) {
+                            for (int j = 0; j < dof; j++) {
+                                double value = node == other ? (i == j ? 40 : 0.5) : -0.5;
+                                T.addItem(node*dof + i, other*dof + j, value);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return ConvertDMatrixStruct.convert(T, (DMatrixSparseCSC)null);
+    }
+}
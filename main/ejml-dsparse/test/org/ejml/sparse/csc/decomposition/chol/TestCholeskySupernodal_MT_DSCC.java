@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.sparse.csc.decomposition.chol;
+
+import org.ejml.EjmlUnitTests;
+import org.ejml.UtilEjml;
+import org.ejml.concurrency.ConcurrencyContext;
+import org.ejml.concurrency.ConcurrencyCostModel;
+import org.ejml.concurrency.EjmlConcurrency;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.interfaces.decomposition.CholeskySparseDecomposition_F64;
+import org.ejml.sparse.FillReducing;
+import org.ejml.sparse.csc.RandomMatrices_DSCC;
+import org.ejml.sparse.csc.factory.FillReductionFactory_DSCC;
+import org.ejml.sparse.csc.misc.ApplyFillReductionPermutation_DSCC;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestCholeskySupernodal_MT_DSCC extends GenericCholeskyTests_DSCC {
+
+    public TestCholeskySupernodal_MT_DSCC() {
+        canR = false;
+    }
+
+    @Override
+    public CholeskySparseDecomposition_F64<DMatrixSparseCSC> create( boolean lower ) {
+        return new CholeskySupernodal_MT_DSCC();
+    }
+
+    /**
+     * Results should be identical to the single threaded version for different number of threads
+     */
+    @Test
+    public void compareToSingleThread() {
+        DMatrixSparseCSC Ap = createGrid();
+
+        CholeskySupernodal_DSCC expected = new CholeskySupernodal_DSCC();
+        expected.setMinimumWeightedWidth(0);
+        assertTrue(expected.decompose(Ap));
+
+        for (int threads : new int[]{2, 3, 8}) {
+            var context = new ConcurrencyContext(threads);
+            context.setCostModel(ConcurrencyCostModel.alwaysConcurrent());
+            CholeskySupernodal_MT_DSCC alg = new CholeskySupernodal_MT_DSCC();
+            alg.setMinimumWeightedWidth(0);
+            EjmlConcurrency.runWith(context, () -> assertTrue(alg.decompose(Ap)));
+            assertEquals(threads, alg.scheduledThreads);
+            EjmlUnitTests.assertEquals(expected.getL(), alg.getL(), UtilEjml.TEST_F64);
+            context.getPool().shutdown();
+        }
+    }
+
+    /**
+     * The single threaded algorithm should be used if there is one thread or concurrency isn't predicted to help
+     */
+    @Test
+    public void singleThreadFallBack() {
+        DMatrixSparseCSC Ap = createGrid();
+
+        CholeskySupernodal_DSCC expected = new CholeskySupernodal_DSCC();
+        expected.setMinimumWeightedWidth(0);
+        assertTrue(expected.decompose(Ap));
+
+        var expensive = new ConcurrencyContext(4);
+        expensive.getCostModel().setForkOverhead(1e12);
+        var single = new ConcurrencyContext(new ForkJoinPool(4), 1, 0);
+        single.setCostModel(ConcurrencyCostModel.alwaysConcurrent());
+
+        for (ConcurrencyContext context : new ConcurrencyContext[]{expensive, single}) {
+            CholeskySupernodal_MT_DSCC alg = new CholeskySupernodal_MT_DSCC();
+            alg.setMinimumWeightedWidth(0);
+            EjmlConcurrency.runWith(context, () -> assertTrue(alg.decompose(Ap)));
+            assertTrue(alg.isSupernodal());
+            // a schedule is only needed by the concurrent algorithm
+            assertEquals(-1, alg.scheduledThreads);
+            EjmlUnitTests.assertEquals(expected.getL(), alg.getL(), UtilEjml.TEST_F64);
+            context.getPool().shutdown();
+        }
+    }
+
+    /**
+     * Narrow supernodes should use the up looking algorithm, even if concurrency is predicted to help
+     */
+    @Test
+    public void narrowSupernodes() {
+        DMatrixSparseCSC A = RandomMatrices_DSCC.symmetricPosDef(100, 0.05, rand);
+
+        var context = new ConcurrencyContext(4);
+        context.setCostModel(ConcurrencyCostModel.alwaysConcurrent());
+        CholeskySupernodal_MT_DSCC alg = new CholeskySupernodal_MT_DSCC();
+        alg.setMinimumWeightedWidth(Double.MAX_VALUE);
+        EjmlConcurrency.runWith(context, () -> assertTrue(alg.decompose(A)));
+        context.getPool().shutdown();
+
+        CholeskyUpLooking_DSCC expected = new CholeskyUpLooking_DSCC();
+        assertTrue(expected.decompose(A));
+        assertFalse(alg.isSupernodal());
+        assertEquals(-1, alg.scheduledThreads);
+        assertEquals(expected.getL().nz_length, alg.getL().nz_length);
+        EjmlUnitTests.assertEquals(expected.getL(), alg.getL(), UtilEjml.TEST_F64);
+    }
+
+    private static DMatrixSparseCSC createGrid() {
+        DMatrixSparseCSC A = TestCholeskySupernodal_DSCC.gridStiffness(12, 3);
+        ApplyFillReductionPermutation_DSCC reduce =
+                new ApplyFillReductionPermutation_DSCC(FillReductionFactory_DSCC.create(FillReducing.AMD), true);
+        return reduce.apply(A);
+    }
+
+    /**
+     * Every supernode must be processed exactly once and after all of its descendants
+     */
+    @Test
+    public void createSchedule() {
+        DMatrixSparseCSC A = TestCholeskySupernodal_DSCC.gridStiffness(10, 2);
+        ApplyFillReductionPermutation_DSCC reduce =
+                new ApplyFillReductionPermutation_DSCC(FillReductionFactory_DSCC.create(FillReducing.AMD), true);
+        DMatrixSparseCSC Ap = reduce.apply(A);
+
+        CholeskySupernodal_MT_DSCC alg = new CholeskySupernodal_MT_DSCC();
+        alg.setMinimumWeightedWidth(0);
+        alg.performSymbolic(Ap);
+
+        for (int threads : new int[]{1, 2, 4, 16}) {
+            alg.createSchedule(threads);
+            assertTrue(alg.numBins <= threads);
+
+            // The step at which each supernode is processed. Subtrees are step 0.
+            int[] step = new int[alg.numSupernodes];
+            int[] bin = new int[alg.numSupernodes];
+            Arrays.fill(step, -1);
+            for (int b = 0; b < alg.numBins; b++) {
+                for (int i = alg.binIdx[b]; i < alg.binIdx[b + 1]; i++) {
+                    int J = alg.binNodes[i];
+                    assertEquals(-1, step[J]);
+                    step[J] = 0;
+                    bin[J] = b;
+                    if (i > alg.binIdx[b])
+                        assertTrue(alg.binNodes[i - 1] < J);
+                }
+            }
+            for (int level = 0; level < alg.numLevels; level++) {
+                for (int i = alg.levelIdx[level]; i < alg.levelIdx[level + 1]; i++) {
+                    int J = alg.levelNodes[i];
+                    assertEquals(-1, step[J]);
+                    step[J] = level + 1;
+                }
+            }
+
+            for (int J = 0; J < alg.numSupernodes; J++) {
+                assertTrue(step[J] >= 0);
+                int p = alg.nodeParent[J];
+                if (p == -1)
+                    continue;
+                if (step[p] == 0) {
+                    // inside the same subtree
+                    assertEquals(0, step[J]);
+                    assertEquals(bin[J], bin[p]);
+                } else {
+                    assertTrue(step[J] < step[p]);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.sparse.csc.decomposition.chol;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.data.DMatrixSparseTriplet;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.ejml.ops.ConvertDMatrixStruct;
+import org.ejml.sparse.csc.MatrixFeatures_DSCC;
+import org.ejml.sparse.csc.RandomMatrices_DSCC;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestCholeskyUpdate_DSCC {
+    Random rand = new Random(234);
+
+    /**
+     * Update then downdate with random vectors that have the same pattern as a column in L
+     */
+    @Test
+    public void updateDowndate() {
+        for (int k : new int[]{1, 3}) {
+            DMatrixSparseCSC A = RandomMatrices_DSCC.symmetricPosDef(40, 0.9, rand);
+            CholeskyUpLooking_DSCC alg = new CholeskyUpLooking_DSCC();
+            assertTrue(alg.decompose(A));
+
+            DMatrixSparseCSC X = createX(alg.getL(), k);
+            DMatrixRMaj denseA = ConvertDMatrixStruct.convert(A, (DMatrixRMaj)null);
+            DMatrixRMaj denseX = ConvertDMatrixStruct.convert(X, (DMatrixRMaj)null);
+            DMatrixRMaj expected = denseA.copy();
+            CommonOps_DDRM.multAddTransB(denseX, denseX, expected);
+
+            int nz = alg.getL().nz_length;
+            assertTrue(alg.update(X));
+            assertEquals(nz, alg.getL().nz_length);
+            assertTrue(MatrixFeatures_DDRM.isIdentical(expected, multLLt(alg.getL()), UtilEjml.TEST_F64));
+
+            assertTrue(alg.downdate(X));
+            assertTrue(MatrixFeatures_DDRM.isIdentical(denseA, multLLt(alg.getL()), UtilEjml.TEST_F64_SQ));
+        }
+    }
+
+    /**
+     * Compare against the dense decomposition of the updated matrix
+     */
+    @Test
+    public void compareToDecomposition() {
+        DMatrixSparseCSC A = RandomMatrices_DSCC.symmetricPosDef(30, 0.8, rand);
+        CholeskyUpLooking_DSCC alg = new CholeskyUpLooking_DSCC();
+        assertTrue(alg.decompose(A));
+        DMatrixSparseCSC X = createX(alg.getL(), 2);
+
+        DMatrixRMaj modified = ConvertDMatrixStruct.convert(A, (DMatrixRMaj)null);
+        DMatrixRMaj denseX = ConvertDMatrixStruct.convert(X, (DMatrixRMaj)null);
+        CommonOps_DDRM.multAddTransB(denseX, denseX, modified);
+        CholeskyUpLooking_DSCC expected = new CholeskyUpLooking_DSCC();
+        assertTrue(expected.decompose(ConvertDMatrixStruct.convert(modified, (DMatrixSparseCSC)null, 0.0)));
+
+        assertTrue(new CholeskyUpdate_DSCC().update(alg.getL(), X));
+        DMatrixRMaj found = ConvertDMatrixStruct.convert(alg.getL(), (DMatrixRMaj)null);
+        DMatrixRMaj L = ConvertDMatrixStruct.convert(expected.getL(), (DMatrixRMaj)null);
+        assertTrue(MatrixFeatures_DDRM.isIdentical(L, found, UtilEjml.TEST_F64));
+    }
+
+    @Test
+    public void downdate_notPositiveDefinite() {
+        DMatrixSparseCSC A = RandomMatrices_DSCC.symmetricPosDef(30, 0.8, rand);
+        CholeskyUpLooking_DSCC alg = new CholeskyUpLooking_DSCC();
+        assertTrue(alg.decompose(A));
+
+        DMatrixSparseCSC X = createX(alg.getL(), 2);
+        for (int i = 0; i < X.nz_length; i++) {
+            X.nz_values[i] *= 100;
+        }
+        DMatrixSparseCSC before = alg.getL().copy();
+        assertFalse(alg.downdate(X));
+        assertTrue(MatrixFeatures_DSCC.isEqualsSort(before, alg.getL(), 0.0));
+    }
+
+    /**
+     * The pattern of X must be contained in the pattern of L
+     */
+    @Test
+    public void patternNotContained() {
+        int N = 5;
+        DMatrixSparseTriplet T = new DMatrixSparseTriplet(N, N, N);
+        for (int i = 0; i < N; i++) {
+            T.addItem(i, i, 2.0);
+        }
+        DMatrixSparseCSC A = ConvertDMatrixStruct.convert(T, (DMatrixSparseCSC)null);
+        CholeskyUpLooking_DSCC alg = new CholeskyUpLooking_DSCC();
+        assertTrue(alg.decompose(A));
+
+        DMatrixSparseCSC X = new DMatrixSparseCSC(N, 1, 2);
+        X.set(1, 0, 1.0);
+        X.set(3, 0, 1.0);
+        assertThrows(IllegalArgumentException.class, () -> alg.update(X));
+    }
+
+    /**
+     * Creates an N by k matrix where each column has the same pattern as a random column in L
+     */
+    private DMatrixSparseCSC createX( DMatrixSparseCSC L, int k ) {
+        DMatrixSparseCSC X = new DMatrixSparseCSC(L.numRows, k, 0);
+        for (int col = 0; col < k; col++) {
+            int f = rand.nextInt(L.numCols/2);
+            for (int p = L.col_idx[f]; p < L.col_idx[f + 1]; p++) {
+                X.set(L.nz_rows[p], col, rand.nextDouble() - 0.5);
+            }
+        }
+        return X;
+    }
+
+    private static DMatrixRMaj multLLt( DMatrixSparseCSC L ) {
+        DMatrixRMaj dense = ConvertDMatrixStruct.convert(L, (DMatrixRMaj)null);
+        DMatrixRMaj out = new DMatrixRMaj(L.numRows, L.numRows);
+        CommonOps_DDRM.multTransB(dense, dense, out);
+        return out;
+    }
+}
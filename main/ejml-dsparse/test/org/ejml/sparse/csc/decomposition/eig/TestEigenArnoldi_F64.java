@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.sparse.csc.decomposition.eig;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.Complex_F64;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.data.DMatrixSparseTriplet;
+import org.ejml.dense.row.factory.DecompositionFactory_DDRM;
+import org.ejml.interfaces.decomposition.EigenDecomposition_F64;
+import org.ejml.ops.ConvertDMatrixStruct;
+import org.ejml.sparse.csc.RandomMatrices_DSCC;
+import org.ejml.sparse.csc.decomposition.eig.EigenKrylovBase_F64.Target;
+import org.ejml.sparse.csc.mult.MatrixVectorMult_DSCC;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestEigenArnoldi_F64 {
+    Random rand = new Random(234);
+
+    /**
+     * Compare the eigenvalues against a dense decomposition for each target
+     */
+    @Test
+    public void compareToDense() {
+        DMatrixSparseCSC A = RandomMatrices_DSCC.rectangle(100, 100, 700, -1, 1, rand);
+        Complex_F64[] expected = denseEigenvalues(A);
+
+        for (Target target : Target.values()) {
+            EigenArnoldi_F64 alg = new EigenArnoldi_F64(5, target);
+            assertTrue(alg.process(A), target.name());
+
+            Complex_F64[] sorted = sortByTarget(expected, target, 0.0);
+            checkResults(A, alg, sorted, 5);
+        }
+    }
+
+    /**
+     * Eigenvalues closest to the shift are found
+     */
+    @Test
+    public void shiftInvert() {
+        DMatrixSparseCSC A = RandomMatrices_DSCC.rectangle(80, 80, 600, -1, 1, rand);
+        RandomMatrices_DSCC.ensureNotSingular(A, rand);
+        Complex_F64[] expected = denseEigenvalues(A);
+        double sigma = 0.2;
+
+        EigenArnoldi_F64 alg = new EigenArnoldi_F64(4);
+        assertTrue(alg.process(A, sigma));
+
+        Complex_F64[] sorted = sortByTarget(expected, null, sigma);
+        checkResults(A, alg, sorted, 4);
+    }
+
+    /**
+     * Block diagonal matrix with known complex conjugate pairs. A rotation block with radius r has eigenvalues
+     * r*exp(+-i*theta)
+     */
+    @Test
+    public void complexPairs() {
+        int blocks = 60;
+        DMatrixSparseTriplet T = new DMatrixSparseTriplet(2*blocks, 2*blocks, 4*blocks);
+        for (int b = 0; b < blocks; b++) {
+            double r = 1.0 + b*0.05;
+            double theta = 0.3 + b*0.01;
+            T.addItem(2*b, 2*b, r*Math.cos(theta));
+            T.addItem(2*b, 2*b + 1, -r*Math.sin(theta));
+            T.addItem(2*b + 1, 2*b, r*Math.sin(theta));
+            T.addItem(2*b + 1, 2*b + 1, r*Math.cos(theta));
+        }
+        DMatrixSparseCSC A = ConvertDMatrixStruct.convert(T, (DMatrixSparseCSC)null);
+
+        EigenArnoldi_F64 alg = new EigenArnoldi_F64(4);
+        assertTrue(alg.process(A));
+        for (int i = 0; i < 4; i++) {
+            int b = blocks - 1 - i/2;
+            double r = 1.0 + b*0.05;
+            double theta = 0.3 + b*0.01;
+            Complex_F64 found = alg.getEigenvalue(i);
+            assertEquals(r*Math.cos(theta), found.real, UtilEjml.TEST_F64_SQ);
+            assertEquals((i%2 == 0 ? 1 : -1)*r*Math.sin(theta), found.imaginary, UtilEjml.TEST_F64_SQ);
+            assertNull(alg.getEigenVector(i));
+        }
+    }
+
+    /**
+     * A symmetric matrix should produce the same results as Lanczos
+     */
+    @Test
+    public void compareToLanczos() {
+        DMatrixSparseCSC A = RandomMatrices_DSCC.symmetric(90, 500, -1, 1, rand);
+
+        EigenArnoldi_F64 arnoldi = new EigenArnoldi_F64(3, Target.LARGEST_REAL);
+        EigenLanczos_F64 lanczos = new EigenLanczos_F64(3, Target.LARGEST_REAL);
+        assertTrue(arnoldi.process(A));
+        assertTrue(lanczos.process(A));
+        for (int i = 0; i < 3; i++) {
+            assertEquals(lanczos.getEigenvalueReal(i), arnoldi.getEigenvalue(i).real, UtilEjml.TEST_F64_SQ);
+            assertEquals(0.0, arnoldi.getEigenvalue(i).imaginary, UtilEjml.TEST_F64_SQ);
+        }
+    }
+
+    private void checkResults( DMatrixSparseCSC A, EigenArnoldi_F64 alg, Complex_F64[] expected, int k ) {
+        for (int i = 0; i < k; i++) {
+            Complex_F64 found = alg.getEigenvalue(i);
+            assertEquals(expected[i].real, found.real, UtilEjml.TEST_F64_SQ);
+            // round off can change the order of a conjugate pair in the expected values
+            assertEquals(Math.abs(expected[i].imaginary), Math.abs(found.imaginary), UtilEjml.TEST_F64_SQ);
+            // the conjugate with a positive imaginary component is always first
+            if (found.imaginary < 0.0)
+                assertEquals(-found.imaginary, alg.getEigenvalue(i - 1).imaginary);
+
+            DMatrixRMaj x = alg.getEigenVector(i);
+            if (found.imaginary == 0.0) {
+                checkEigenVector(A, found.real, x);
+            } else {
+                assertNull(x);
+            }
+        }
+    }
+
+    static void checkEigenVector( DMatrixSparseCSC A, double value, DMatrixRMaj x ) {
+        assertNotNull(x);
+        DMatrixRMaj Ax = new DMatrixRMaj(x.numRows, 1);
+        MatrixVectorMult_DSCC.mult(A, x.data, 0, Ax.data, 0);
+
+        double error = 0;
+        for (int i = 0; i < x.numRows; i++) {
+            double r = Ax.data[i] - value*x.data[i];
+            error += r*r;
+        }
+        assertEquals(0.0, Math.sqrt(error), UtilEjml.TEST_F64_SQ);
+    }
+
+    static Complex_F64[] denseEigenvalues( DMatrixSparseCSC A ) {
+        DMatrixRMaj dense = ConvertDMatrixStruct.convert(A, (DMatrixRMaj)null);
+        EigenDecomposition_F64<DMatrixRMaj> eig = DecompositionFactory_DDRM.eig(false, false);
+        assertTrue(eig.decompose(dense));
+        Complex_F64[] values = new Complex_F64[A.numCols];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = new Complex_F64(eig.getEigenvalue(i).real, eig.getEigenvalue(i).imaginary);
+        }
+        return values;
+    }
+
+    /**
+     * Sorts the values by the target. If the target is null then they are sorted by distance from sigma.
+     * Conjugate pairs are sorted with the positive imaginary component first.
+     */
+    static Complex_F64[] sortByTarget( Complex_F64[] values, Target target, double sigma ) {
+        Complex_F64[] sorted = values.clone();
+        Comparator<Complex_F64> primary;
+        if (target == null) {
+            primary = Comparator.comparingDouble(a -> Math.hypot(a.real - sigma, a.imaginary));
+        } else {
+            switch (target) {
+                case LARGEST_MAGNITUDE:
+                    primary = Comparator.comparingDouble(a -> -a.getMagnitude());
+                    break;
+                case LARGEST_REAL:
+                    primary = Comparator.comparingDouble(a -> -a.real);
+                    break;
+                default:
+                    primary = Comparator.comparingDouble(a -> a.real);
+                    break;
+            }
+        }
+        Arrays.sort(sorted, primary.thenComparingDouble(a -> -a.imaginary));
+        return sorted;
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.sparse.csc.decomposition.eig;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.data.DMatrixSparseTriplet;
+import org.ejml.dense.row.factory.DecompositionFactory_DDRM;
+import org.ejml.interfaces.decomposition.EigenDecomposition_F64;
+import org.ejml.ops.ConvertDMatrixStruct;
+import org.ejml.sparse.csc.RandomMatrices_DSCC;
+import org.ejml.sparse.csc.decomposition.eig.EigenKrylovBase_F64.Target;
+import org.ejml.sparse.csc.mult.MatrixVectorMult_DSCC;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestEigenLanczos_F64 {
+    Random rand = new Random(234);
+
+    /**
+     * Compare the eigenvalues against a dense decomposition for each target
+     */
+    @Test
+    public void compareToDense() {
+        DMatrixSparseCSC A = RandomMatrices_DSCC.symmetric(120, 800, -1, 1, rand);
+        double[] expected = denseEigenvalues(A);
+
+        for (Target target : Target.values()) {
+            EigenLanczos_F64 alg = new EigenLanczos_F64(4, target);
+            assertTrue(alg.process(A));
+            assertEquals(4, alg.getNumConverged());
+
+            double[] sorted = sortByTarget(expected, target, 0.0);
+            for (int i = 0; i < 4; i++) {
+                assertEquals(sorted[i], alg.getEigenvalueReal(i), UtilEjml.TEST_F64_SQ);
+                assertEquals(0.0, alg.getEigenvalue(i).imaginary);
+                checkEigenVector(A, alg.getEigenvalueReal(i), alg.getEigenVector(i));
+            }
+        }
+    }
+
+    /**
+     * Eigenvalues closest to the shift are found
+     */
+    @Test
+    public void shiftInvert() {
+        DMatrixSparseCSC A = RandomMatrices_DSCC.symmetric(100, 600, -1, 1, rand);
+        double[] expected = denseEigenvalues(A);
+        double sigma = 0.1;
+
+        EigenLanczos_F64 alg = new EigenLanczos_F64(3);
+        assertTrue(alg.process(A, sigma));
+
+        double[] sorted = sortByTarget(expected, null, sigma);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(sorted[i], alg.getEigenvalueReal(i), UtilEjml.TEST_F64_SQ);
+            checkEigenVector(A, alg.getEigenvalueReal(i), alg.getEigenVector(i));
+        }
+    }
+
+    /**
+     * The smallest eigenvalues of a path graph's Laplacian are known analytically and are close together,
+     * which requires several restarts
+     */
+    @Test
+    public void laplacianPath() {
+        int N = 200;
+        DMatrixSparseTriplet T = new DMatrixSparseTriplet(N, N, 3*N);
+        for (int i = 0; i < N; i++) {
+            T.addItem(i, i, i == 0 || i == N - 1 ? 1 : 2);
+            if (i > 0) {
+                T.addItem(i, i - 1, -1);
+                T.addItem(i - 1, i, -1);
+            }
+        }
+        DMatrixSparseCSC L = ConvertDMatrixStruct.convert(T, (DMatrixSparseCSC)null);
+
+        EigenLanczos_F64 alg = new EigenLanczos_F64(3, Target.LARGEST_REAL);
+        assertTrue(alg.process(L));
+        assertTrue(alg.getRestarts() > 0);
+        for (int i = 0; i < 3; i++) {
+            double expected = 2.0 - 2.0*Math.cos(Math.PI*(N - 1 - i)/N);
+            assertEquals(expected, alg.getEigenvalueReal(i), UtilEjml.TEST_F64_SQ);
+        }
+
+        // Shift invert will find the smallest eigenvalues, including the one which is zero
+        alg = new EigenLanczos_F64(3);
+        assertTrue(alg.process(L, -0.01));
+        for (int i = 0; i < 3; i++) {
+            double expected = 2.0 - 2.0*Math.cos(Math.PI*i/N);
+            assertEquals(expected, alg.getEigenvalueReal(i), UtilEjml.TEST_F64_SQ);
+            checkEigenVector(L, expected, alg.getEigenVector(i));
+        }
+    }
+
+    /**
+     * User supplied operator which is never explicitly constructed
+     */
+    @Test
+    public void customOperator() {
+        int N = 300;
+        LinearOperator_F64 op = new LinearOperator_F64() {
+            @Override public int getSize() {return N;}
+
+            @Override public void multiply( double[] x, double[] y ) {
+                for (int i = 0; i < N; i++) {
+                    y[i] = (i + 1)*x[i];
+                }
+            }
+        };
+
+        EigenLanczos_F64 alg = new EigenLanczos_F64(2);
+        assertTrue(alg.process(op));
+        assertEquals(N, alg.getEigenvalueReal(0), UtilEjml.TEST_F64_SQ*N);
+        assertEquals(N - 1, alg.getEigenvalueReal(1), UtilEjml.TEST_F64_SQ*N);
+        DMatrixRMaj x = alg.getEigenVector(0);
+        assertNotNull(x);
+        assertEquals(1.0, Math.abs(x.get(N - 1)), UtilEjml.TEST_F64_SQ);
+    }
+
+    /**
+     * The matrix is smaller than the basis. The exact solution is found without a restart.
+     */
+    @Test
+    public void smallMatrix() {
+        DMatrixSparseCSC A = RandomMatrices_DSCC.symmetric(6, 20, -1, 1, rand);
+        double[] expected = sortByTarget(denseEigenvalues(A), Target.LARGEST_MAGNITUDE, 0.0);
+
+        EigenLanczos_F64 alg = new EigenLanczos_F64(6);
+        assertTrue(alg.process(A));
+        assertEquals(0, alg.getRestarts());
+        for (int i = 0; i < 6; i++) {
+            assertEquals(expected[i], alg.getEigenvalueReal(i), UtilEjml.TEST_F64);
+            checkEigenVector(A, expected[i], alg.getEigenVector(i));
+        }
+    }
+
+    @Test
+    public void tooManyEigenvalues() {
+        DMatrixSparseCSC A = RandomMatrices_DSCC.symmetric(6, 20, -1, 1, rand);
+        assertThrows(IllegalArgumentException.class, () -> new EigenLanczos_F64(7).process(A));
+    }
+
+    static void checkEigenVector( DMatrixSparseCSC A, double value, DMatrixRMaj x ) {
+        assertNotNull(x);
+        DMatrixRMaj Ax = new DMatrixRMaj(x.numRows, 1);
+        MatrixVectorMult_DSCC.mult(A, x.data, 0, Ax.data, 0);
+
+        double error = 0, norm = 0;
+        for (int i = 0; i < x.numRows; i++) {
+            double r = Ax.data[i] - value*x.data[i];
+            error += r*r;
+            norm += x.data[i]*x.data[i];
+        }
+        assertEquals(1.0, norm, UtilEjml.TEST_F64);
+        assertEquals(0.0, Math.sqrt(error), UtilEjml.TEST_F64_SQ);
+    }
+
+    static double[] denseEigenvalues( DMatrixSparseCSC A ) {
+        DMatrixRMaj dense = ConvertDMatrixStruct.convert(A, (DMatrixRMaj)null);
+        EigenDecomposition_F64<DMatrixRMaj> eig = DecompositionFactory_DDRM.eig(false, true);
+        assertTrue(eig.decompose(dense));
+        double[] values = new double[A.numCols];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = eig.getEigenvalue(i).real;
+        }
+        return values;
+    }
+
+    /**
+     * Sorts the values by the target. If the target is null then they are sorted by distance from sigma
+     */
+    static double[] sortByTarget( double[] values, Target target, double sigma ) {
+        Double[] sorted = new Double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            sorted[i] = values[i];
+        }
+        if (target == null) {
+            Arrays.sort(sorted, ( a, b ) -> Double.compare(Math.abs(a - sigma), Math.abs(b - sigma)));
+        } else {
+            switch (target) {
+                case LARGEST_MAGNITUDE:
+                    Arrays.sort(sorted, ( a, b ) -> Double.compare(Math.abs(b), Math.abs(a)));
+                    break;
+                case LARGEST_REAL:
+                    Arrays.sort(sorted, ( a, b ) -> Double.compare(b, a));
+                    break;
+                case SMALLEST_REAL:
+                    Arrays.sort(sorted, Double::compare);
+                    break;
+            }
+        }
+        double[] output = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            output[i] = sorted[i];
+        }
+        return output;
+    }
+}
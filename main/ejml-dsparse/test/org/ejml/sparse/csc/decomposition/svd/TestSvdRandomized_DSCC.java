@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.sparse.csc.decomposition.svd;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.ejml.dense.row.decomposition.svd.SvdRandomized_DDRM;
+import org.ejml.ops.ConvertDMatrixStruct;
+import org.ejml.sparse.csc.MatrixFeatures_DSCC;
+import org.ejml.sparse.csc.RandomMatrices_DSCC;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestSvdRandomized_DSCC {
+    Random rand = new Random(234);
+
+    /**
+     * Given the same seed the sparse and dense implementations should produce the same results
+     */
+    @Test
+    public void compareToDense() {
+        for (int[] shape : new int[][]{{80, 50}, {50, 80}}) {
+            DMatrixSparseCSC A = RandomMatrices_DSCC.rectangle(shape[0], shape[1], 600, -1, 1, rand);
+            DMatrixRMaj denseA = ConvertDMatrixStruct.convert(A, (DMatrixRMaj)null);
+
+            SvdRandomized_DSCC alg = new SvdRandomized_DSCC(6, new Random(2));
+            SvdRandomized_DDRM expected = new SvdRandomized_DDRM(6, new Random(2));
+            assertTrue(alg.decompose(A));
+            assertTrue(expected.decompose(denseA));
+
+            assertEquals(6, alg.numberOfSingularValues());
+            for (int i = 0; i < 6; i++) {
+                assertEquals(expected.getSingularValues()[i], alg.getSingularValues()[i], UtilEjml.TEST_F64);
+            }
+            assertTrue(MatrixFeatures_DDRM.isIdentical(
+                    expected.computeLowRank(null), alg.computeLowRank(null), UtilEjml.TEST_F64));
+        }
+    }
+
+    /**
+     * When every singular value is requested the input matrix should be reconstructed
+     */
+    @Test
+    public void fullRank() {
+        DMatrixSparseCSC A = RandomMatrices_DSCC.rectangle(40, 20, 200, -1, 1, rand);
+        DMatrixSparseCSC A_orig = A.copy();
+        DMatrixRMaj denseA = ConvertDMatrixStruct.convert(A, (DMatrixRMaj)null);
+
+        SvdRandomized_DSCC alg = new SvdRandomized_DSCC(20);
+        assertTrue(alg.decompose(A));
+        assertTrue(MatrixFeatures_DDRM.isIdentical(denseA, alg.computeLowRank(null), UtilEjml.TEST_F64));
+        assertTrue(MatrixFeatures_DDRM.isOrthogonal(alg.getU(null, false), UtilEjml.TEST_F64));
+        assertTrue(MatrixFeatures_DDRM.isOrthogonal(alg.getV(null, false), UtilEjml.TEST_F64));
+
+        // input should not be modified
+        assertTrue(MatrixFeatures_DSCC.isEquals(A_orig, A));
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.sparse.csc.decomposition.svd;
+
+import org.ejml.UtilEjml;
+import org.ejml.concurrency.EjmlConcurrency;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.ejml.sparse.csc.RandomMatrices_DSCC;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TestSvdRandomized_MT_DSCC {
+	Random rand = new Random(234);
+
+	/**
+	 * With the same seed the results should be the same as the single threaded version
+	 */
+	@Test
+	void compareToSingle() {
+		DMatrixSparseCSC A = RandomMatrices_DSCC.rectangle(300, 150, 3000, -1, 1, rand);
+
+		var single = new SvdRandomized_DSCC(8, new Random(2));
+		assertTrue(single.decompose(A));
+		DMatrixRMaj expected = single.computeLowRank(null);
+
+		int originalThreads = EjmlConcurrency.getMaxThreads();
+		try {
+			for (int threads : new int[]{2, 4}) {
+				EjmlConcurrency.setMaxThreads(threads);
+				var concurrent = new SvdRandomized_MT_DSCC(8, new Random(2));
+				assertTrue(concurrent.decompose(A));
+
+				for (int i = 0; i < 8; i++) {
+					assertEquals(single.getSingularValues()[i], concurrent.getSingularValues()[i], UtilEjml.TEST_F64);
+				}
+				assertTrue(MatrixFeatures_DDRM.isIdentical(expected, concurrent.computeLowRank(null), UtilEjml.TEST_F64));
+			}
+		} finally {
+			EjmlConcurrency.setMaxThreads(originalThreads);
+		}
+	}
+}
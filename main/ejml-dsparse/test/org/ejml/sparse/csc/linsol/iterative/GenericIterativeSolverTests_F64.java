@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.sparse.csc.linsol.iterative;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrix;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.ejml.ops.ConvertDMatrixStruct;
+import org.ejml.sparse.csc.CommonOps_DSCC;
+import org.ejml.sparse.csc.RandomMatrices_DSCC;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public abstract class GenericIterativeSolverTests_F64 {
+    protected Random rand = new Random(234);
+
+    // if true then it can only handle symmetric positive definite matrices
+    protected boolean onlySymmetric = false;
+
+    public abstract <T extends DMatrix> IterativeSolver_F64<T> create( @Nullable Preconditioner_F64<T> preconditioner );
+
+    /**
+     * Creates a random well conditioned sparse matrix
+     */
+    public DMatrixSparseCSC createSparse( int N ) {
+        DMatrixSparseCSC A = RandomMatrices_DSCC.rectangle(N, N, N*3, -1, 1, rand);
+        if (onlySymmetric) {
+            DMatrixSparseCSC At = CommonOps_DSCC.transpose(A, null, null);
+            A = CommonOps_DSCC.mult(A, At, null);
+        }
+        // make it diagonally dominant so that it's well conditioned
+        for (int i = 0; i < N; i++) {
+            A.set(i, i, A.get(i, i) + N*0.5 + 1);
+        }
+        return A;
+    }
+
+    @Test
+    public void solve_sparse() {
+        for (int N : new int[]{1, 2, 10, 50}) {
+            DMatrixSparseCSC A = createSparse(N);
+            check(A, create(null));
+            check(A, create(new JacobiPreconditioner_F64<>()));
+        }
+    }
+
+    @Test
+    public void solve_dense() {
+        for (int N : new int[]{1, 2, 10, 50}) {
+            DMatrixRMaj A = ConvertDMatrixStruct.convert(createSparse(N), (DMatrixRMaj)null);
+            check(A, create(null));
+            check(A, create(new JacobiPreconditioner_F64<>()));
+        }
+    }
+
+    private <T extends DMatrix> void check( T A, IterativeSolver_F64<T> alg ) {
+        int N = A.getNumRows();
+        DMatrixRMaj x = RandomMatrices_DDRM.rectangle(N, 1, rand);
+        DMatrixRMaj b = new DMatrixRMaj(N, 1);
+        multiply(A, x, b);
+
+        alg.setTolerance(1e-12);
+        assertTrue(alg.setA(A));
+
+        DMatrixRMaj found = new DMatrixRMaj(N, 1);
+        assertTrue(alg.solve(b.data, found.data));
+        assertTrue(alg.isConverged());
+
+        double tol = Math.sqrt(UtilEjml.EPS);
+        for (int i = 0; i < N; i++) {
+            assertEquals(x.data[i], found.data[i], tol);
+        }
+
+        // sanity check the residual history
+        assertEquals(alg.getIterations() + 1, alg.getResidualHistory().length);
+        double last = alg.getResidualHistory().data[alg.getIterations()];
+        assertTrue(last <= 1e-12*CommonOps_DDRM.elementMaxAbs(b)*Math.sqrt(N) + UtilEjml.EPS);
+    }
+
+    /**
+     * If b is zero then the solution is zero
+     */
+    @Test
+    public void zeroB() {
+        DMatrixSparseCSC A = createSparse(10);
+        IterativeSolver_F64<DMatrixSparseCSC> alg = create(null);
+        assertTrue(alg.setA(A));
+
+        double[] x = new double[10];
+        for (int i = 0; i < 10; i++) {
+            x[i] = i + 1;
+        }
+        assertTrue(alg.solve(new double[10], x));
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0.0, x[i]);
+        }
+    }
+
+    /**
+     * Give it the solution as the initial estimate. No iterations should be needed.
+     */
+    @Test
+    public void initialEstimateIsSolution() {
+        DMatrixSparseCSC A = createSparse(20);
+        DMatrixRMaj x = RandomMatrices_DDRM.rectangle(20, 1, rand);
+        DMatrixRMaj b = new DMatrixRMaj(20, 1);
+        CommonOps_DSCC.mult(A, x, b);
+
+        IterativeSolver_F64<DMatrixSparseCSC> alg = create(null);
+        alg.setTolerance(1e-8);
+        assertTrue(alg.setA(A));
+        DMatrixRMaj found = x.copy();
+        assertTrue(alg.solve(b.data, found.data));
+        assertEquals(0, alg.getIterations());
+        assertEquals(1, alg.getResidualHistory().length);
+    }
+
+    /**
+     * Stops after the maximum number of iterations
+     */
+    @Test
+    public void maxIterations() {
+        DMatrixSparseCSC A = createSparse(50);
+        DMatrixRMaj b = RandomMatrices_DDRM.rectangle(50, 1, rand);
+
+        IterativeSolver_F64<DMatrixSparseCSC> alg = create(null);
+        alg.setTolerance(0.0);
+        alg.setMaxIterations(3);
+        assertTrue(alg.setA(A));
+        assertFalse(alg.solve(b.data, new double[50]));
+        assertFalse(alg.isConverged());
+        assertEquals(3, alg.getIterations());
+    }
+
+    /**
+     * A must be square
+     */
+    @Test
+    public void notSquare() {
+        IterativeSolver_F64<DMatrixSparseCSC> alg = create(null);
+        assertThrows(IllegalArgumentException.class, () -> alg.setA(new DMatrixSparseCSC(5, 4)));
+    }
+
+    /**
+     * Solve for multiple columns at once
+     */
+    @Test
+    public void solveMatrix() {
+        DMatrixSparseCSC A = createSparse(20);
+        DMatrixRMaj X = RandomMatrices_DDRM.rectangle(20, 3, rand);
+        DMatrixRMaj B = new DMatrixRMaj(20, 3);
+        CommonOps_DSCC.mult(A, X, B);
+
+        IterativeSolver_F64<DMatrixSparseCSC> alg = create(null);
+        alg.setTolerance(1e-12);
+        assertTrue(alg.setA(A));
+
+        DMatrixRMaj found = new DMatrixRMaj(1, 1);
+        assertTrue(alg.solve(B, found, false));
+        assertTrue(MatrixFeatures_DDRM.isIdentical(X, found, Math.sqrt(UtilEjml.EPS)));
+
+        // initial guess is the solution
+        assertTrue(alg.solve(B, found, true));
+        assertEquals(0, alg.getIterations());
+    }
+
+    static <T extends DMatrix> void multiply( T A, DMatrixRMaj x, DMatrixRMaj b ) {
+        if (A instanceof DMatrixSparseCSC) {
+            CommonOps_DSCC.mult((DMatrixSparseCSC)A, x, b);
+        } else {
+            CommonOps_DDRM.mult((DMatrixRMaj)A, x, b);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.sparse.csc.linsol.iterative;
+
+import org.ejml.data.DMatrix;
+import org.jetbrains.annotations.Nullable;
+
+public class TestConjugateGradient_F64 extends GenericIterativeSolverTests_F64 {
+
+    public TestConjugateGradient_F64() {
+        onlySymmetric = true;
+    }
+
+    @Override
+    public <T extends DMatrix> IterativeSolver_F64<T> create( @Nullable Preconditioner_F64<T> preconditioner ) {
+        return new ConjugateGradient_F64<>(preconditioner);
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.sparse.csc.linsol.iterative;
+
+import org.ejml.data.DMatrix;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.ejml.sparse.csc.CommonOps_DSCC;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestGeneralizedMinimalResidual_F64 extends GenericIterativeSolverTests_F64 {
+
+    @Override
+    public <T extends DMatrix> IterativeSolver_F64<T> create( @Nullable Preconditioner_F64<T> preconditioner ) {
+        return new GeneralizedMinimalResidual_F64<>(30, preconditioner);
+    }
+
+    /**
+     * The restart is much smaller than the size of the matrix, forcing it to restart multiple times
+     */
+    @Test
+    public void smallRestart() {
+        DMatrixSparseCSC A = createSparse(60);
+        DMatrixRMaj x = RandomMatrices_DDRM.rectangle(60, 1, rand);
+        DMatrixRMaj b = new DMatrixRMaj(60, 1);
+        CommonOps_DSCC.mult(A, x, b);
+
+        GeneralizedMinimalResidual_F64<DMatrixSparseCSC> alg = new GeneralizedMinimalResidual_F64<>(4);
+        alg.setTolerance(1e-12);
+        assertTrue(alg.setA(A));
+
+        double[] found = new double[60];
+        assertTrue(alg.solve(b.data, found));
+        assertTrue(alg.getIterations() > 4);
+        for (int i = 0; i < 60; i++) {
+            assertEquals(x.data[i], found[i], 1e-8);
+        }
+    }
+}
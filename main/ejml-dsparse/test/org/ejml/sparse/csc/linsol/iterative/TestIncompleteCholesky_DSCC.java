@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.sparse.csc.linsol.iterative;
+
+import org.ejml.EjmlUnitTests;
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.data.DMatrixSparseTriplet;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.ejml.ops.ConvertDMatrixStruct;
+import org.ejml.sparse.csc.CommonOps_DSCC;
+import org.ejml.sparse.csc.decomposition.chol.CholeskyUpLooking_DSCC;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestIncompleteCholesky_DSCC {
+    private Random rand = new Random(234);
+
+    /**
+     * There is no fill in when decomposing a tridiagonal matrix so it should be the same as Cholesky
+     */
+    @Test
+    public void tridiagonal_exact() {
+        DMatrixSparseCSC A = new DMatrixSparseCSC(20, 20, 3*20);
+        for (int i = 0; i < 20; i++) {
+            A.set(i, i, 4 + rand.nextDouble());
+            if (i > 0) {
+                double v = rand.nextDouble() - 0.5;
+                A.set(i, i - 1, v);
+                A.set(i - 1, i, v);
+            }
+        }
+
+        IncompleteCholesky_DSCC alg = new IncompleteCholesky_DSCC();
+        assertTrue(alg.setA(A));
+        assertEquals(0.0, alg.getShift());
+
+        CholeskyUpLooking_DSCC chol = new CholeskyUpLooking_DSCC();
+        assertTrue(chol.decompose(A));
+        EjmlUnitTests.assertEquals(chol.getL(), alg.getL(), UtilEjml.TEST_F64);
+    }
+
+    /**
+     * The pattern of L is the lower triangle of A and L*L' is equal to A for every element in that pattern
+     */
+    @Test
+    public void matchesOnPattern() {
+        DMatrixSparseCSC A = laplacian(8);
+
+        IncompleteCholesky_DSCC alg = new IncompleteCholesky_DSCC();
+        assertTrue(alg.setA(A));
+        DMatrixSparseCSC L = alg.getL();
+        assertTrue(CommonOps_DSCC.checkStructure(L));
+
+        DMatrixSparseCSC Lt = CommonOps_DSCC.transpose(L, null, null);
+        DMatrixSparseCSC LLt = CommonOps_DSCC.mult(L, Lt, null);
+
+        int count = 0;
+        for (int j = 0; j < A.numCols; j++) {
+            for (int p = A.col_idx[j]; p < A.col_idx[j + 1]; p++) {
+                int i = A.nz_rows[p];
+                if (i < j)
+                    continue;
+                count++;
+                assertTrue(L.isAssigned(i, j));
+                assertEquals(A.nz_values[p], LLt.get(i, j), UtilEjml.TEST_F64);
+            }
+        }
+        assertEquals(count, L.nz_length);
+    }
+
+    /**
+     * The preconditioner should reduce the number of iterations needed by CG
+     */
+    @Test
+    public void fewerIterations() {
+        DMatrixSparseCSC A = laplacian(20);
+        int N = A.numCols;
+        DMatrixRMaj b = RandomMatrices_DDRM.rectangle(N, 1, rand);
+
+        ConjugateGradient_F64<DMatrixSparseCSC> plain = new ConjugateGradient_F64<>();
+        ConjugateGradient_F64<DMatrixSparseCSC> precond = new ConjugateGradient_F64<>(new IncompleteCholesky_DSCC());
+
+        double[] x0 = new double[N];
+        double[] x1 = new double[N];
+        assertTrue(plain.setA(A));
+        assertTrue(precond.setA(A));
+        assertTrue(plain.solve(b.data, x0));
+        assertTrue(precond.solve(b.data, x1));
+
+        assertTrue(precond.getIterations()*2 < plain.getIterations(),
+                precond.getIterations() + " " + plain.getIterations());
+        for (int i = 0; i < N; i++) {
+            assertEquals(x0[i], x1[i], 1e-6);
+        }
+    }
+
+    /**
+     * The matrix isn't positive definite so it should only succeed after a shift is added
+     */
+    @Test
+    public void breakdownShift() {
+        DMatrixSparseCSC A = new DMatrixSparseCSC(2, 2, 4);
+        A.set(0, 0, 1);
+        A.set(1, 1, 1);
+        A.set(0, 1, 2);
+        A.set(1, 0, 2);
+
+        IncompleteCholesky_DSCC alg = new IncompleteCholesky_DSCC();
+        alg.setMaxShiftAttempts(0);
+        assertFalse(alg.setA(A));
+
+        alg.setMaxShiftAttempts(20);
+        assertTrue(alg.setA(A));
+        // (1+shift)^2 must be more than 4
+        assertTrue(alg.getShift() > 1.0);
+        assertTrue(alg.getShift() <= 2.0 + UtilEjml.TEST_F64);
+    }
+
+    /**
+     * Fail if an element on the diagonal is missing
+     */
+    @Test
+    public void missingDiagonal() {
+        DMatrixSparseCSC A = laplacian(3);
+        A.remove(4, 4);
+        assertFalse(new IncompleteCholesky_DSCC().setA(A));
+    }
+
+    /**
+     * Unsorted rows are handled
+     */
+    @Test
+    public void unsortedInput() {
+        DMatrixSparseCSC A = laplacian(5);
+        IncompleteCholesky_DSCC expected = new IncompleteCholesky_DSCC();
+        assertTrue(expected.setA(A));
+
+        DMatrixSparseCSC B = A.copy();
+        for (int j = 0; j < B.numCols; j++) {
+            int idx0 = B.col_idx[j];
+            int idx1 = B.col_idx[j + 1] - 1;
+            for (; idx0 < idx1; idx0++, idx1--) {
+                int r = B.nz_rows[idx0];
+                double v = B.nz_values[idx0];
+                B.nz_rows[idx0] = B.nz_rows[idx1];
+                B.nz_values[idx0] = B.nz_values[idx1];
+                B.nz_rows[idx1] = r;
+                B.nz_values[idx1] = v;
+            }
+        }
+        B.indicesSorted = false;
+
+        IncompleteCholesky_DSCC alg = new IncompleteCholesky_DSCC();
+        assertTrue(alg.setA(B));
+        EjmlUnitTests.assertEquals(expected.getL(), alg.getL(), UtilEjml.TEST_F64);
+    }
+
+    /**
+     * 5-point Laplacian on a NxN grid
+     */
+    static DMatrixSparseCSC laplacian( int N ) {
+        int n = N*N;
+        DMatrixSparseTriplet T = new DMatrixSparseTriplet(n, n, 5*n);
+        for (int y = 0; y < N; y++) {
+            for (int x = 0; x < N; x++) {
+                int i = y*N + x;
+                T.addItem(i, i, 4);
+                if (x > 0) T.addItem(i, i - 1, -1);
+                if (x + 1 < N) T.addItem(i, i + 1, -1);
+                if (y > 0) T.addItem(i, i - N, -1);
+                if (y + 1 < N) T.addItem(i, i + N, -1);
+            }
+        }
+        return ConvertDMatrixStruct.convert(T, (DMatrixSparseCSC)null);
+    }
+}
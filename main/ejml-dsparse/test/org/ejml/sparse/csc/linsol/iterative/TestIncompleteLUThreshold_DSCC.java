@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.sparse.csc.linsol.iterative;
+
+import org.ejml.EjmlUnitTests;
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.sparse.csc.CommonOps_DSCC;
+import org.ejml.sparse.csc.RandomMatrices_DSCC;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestIncompleteLUThreshold_DSCC {
+    private Random rand = new Random(234);
+
+    /**
+     * Nothing is dropped so it should be a complete LU decomposition
+     */
+    @Test
+    public void noDropping_exact() {
+        for (int N : new int[]{1, 2, 10, 30}) {
+            DMatrixSparseCSC A = RandomMatrices_DSCC.rectangle(N, N, N*3, -1, 1, rand);
+            for (int i = 0; i < N; i++) {
+                A.set(i, i, N + rand.nextDouble());
+            }
+
+            IncompleteLUThreshold_DSCC alg = new IncompleteLUThreshold_DSCC(0.0, N);
+            assertTrue(alg.setA(A));
+            assertTrue(CommonOps_DSCC.checkStructure(alg.getL()));
+            assertTrue(CommonOps_DSCC.checkStructure(alg.getU()));
+            DMatrixSparseCSC LU = CommonOps_DSCC.mult(alg.getL(), alg.getU(), null);
+            EjmlUnitTests.assertEquals(A, LU, UtilEjml.TEST_F64);
+        }
+    }
+
+    /**
+     * The number of elements in each column can't be more than the limit
+     */
+    @Test
+    public void boundedFill() {
+        DMatrixSparseCSC A = TestIncompleteLU_DSCC.convectionDiffusion(15, 0.5);
+        int N = A.numCols;
+
+        for (int p : new int[]{0, 1, 3, 8}) {
+            IncompleteLUThreshold_DSCC alg = new IncompleteLUThreshold_DSCC(0.0, p);
+            assertTrue(alg.setA(A));
+            DMatrixSparseCSC L = alg.getL();
+            DMatrixSparseCSC U = alg.getU();
+            assertTrue(L.nz_length + U.nz_length <= N*(2*p + 2));
+            for (int j = 0; j < N; j++) {
+                assertTrue(L.col_idx[j + 1] - L.col_idx[j] <= p + 1);
+                assertTrue(U.col_idx[j + 1] - U.col_idx[j] <= p + 1);
+                assertEquals(j, L.nz_rows[L.col_idx[j]]);
+                assertEquals(j, U.nz_rows[U.col_idx[j + 1] - 1]);
+            }
+        }
+    }
+
+    /**
+     * A larger drop tolerance should result in fewer elements
+     */
+    @Test
+    public void dropTolerance() {
+        DMatrixSparseCSC A = TestIncompleteLU_DSCC.convectionDiffusion(15, 0.5);
+
+        IncompleteLUThreshold_DSCC alg = new IncompleteLUThreshold_DSCC(0.0, A.numCols);
+        assertTrue(alg.setA(A));
+        int nzAll = alg.getL().nz_length + alg.getU().nz_length;
+
+        alg.setDropTolerance(0.01);
+        assertTrue(alg.setA(A));
+        int nzDrop = alg.getL().nz_length + alg.getU().nz_length;
+        assertTrue(nzDrop*2 < nzAll, nzDrop + " " + nzAll);
+    }
+
+    @Test
+    public void fewerIterations() {
+        DMatrixSparseCSC A = TestIncompleteLU_DSCC.convectionDiffusion(20, 0.8);
+        TestIncompleteLU_DSCC.checkFewerIterations(A, new IncompleteLUThreshold_DSCC(), rand);
+    }
+
+    @Test
+    public void selectLargest() {
+        double[] x = new double[50];
+        int[] indexes = new int[50];
+        for (int trial = 0; trial < 20; trial++) {
+            for (int i = 0; i < x.length; i++) {
+                // include duplicate values
+                x[i] = rand.nextInt(20) - 10;
+                indexes[i] = i;
+            }
+            int limit = rand.nextInt(55);
+            int found = IncompleteLUThreshold_DSCC.selectLargest(indexes, x.length, limit, x);
+            assertEquals(Math.min(limit, x.length), found);
+
+            double[] sorted = new double[x.length];
+            for (int i = 0; i < x.length; i++) {
+                sorted[i] = -Math.abs(x[i]);
+            }
+            Arrays.sort(sorted);
+            double[] selected = new double[found];
+            for (int i = 0; i < found; i++) {
+                selected[i] = -Math.abs(x[indexes[i]]);
+            }
+            Arrays.sort(selected);
+            for (int i = 0; i < found; i++) {
+                assertEquals(sorted[i], selected[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.sparse.csc.linsol.iterative;
+
+import org.ejml.EjmlUnitTests;
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.data.DMatrixSparseTriplet;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.ejml.ops.ConvertDMatrixStruct;
+import org.ejml.sparse.csc.CommonOps_DSCC;
+import org.ejml.sparse.csc.RandomMatrices_DSCC;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestIncompleteLU_DSCC {
+    private Random rand = new Random(234);
+
+    /**
+     * L*U should be equal to A for every element in A's pattern and the pattern of L and U combined
+     * should be the same as A
+     */
+    @Test
+    public void matchesOnPattern() {
+        DMatrixSparseCSC A = RandomMatrices_DSCC.rectangle(40, 40, 200, -1, 1, rand);
+        for (int i = 0; i < 40; i++) {
+            A.set(i, i, 10 + rand.nextDouble());
+        }
+
+        IncompleteLU_DSCC alg = new IncompleteLU_DSCC();
+        assertTrue(alg.setA(A));
+        DMatrixSparseCSC L = alg.getL();
+        DMatrixSparseCSC U = alg.getU();
+        assertTrue(CommonOps_DSCC.checkStructure(L));
+        assertTrue(CommonOps_DSCC.checkStructure(U));
+        assertEquals(A.nz_length + 40, L.nz_length + U.nz_length);
+
+        DMatrixSparseCSC LU = CommonOps_DSCC.mult(L, U, null);
+        for (int j = 0; j < A.numCols; j++) {
+            assertEquals(1.0, L.get(j, j));
+            for (int p = A.col_idx[j]; p < A.col_idx[j + 1]; p++) {
+                int i = A.nz_rows[p];
+                assertTrue(i >= j ? L.isAssigned(i, j) : U.isAssigned(i, j));
+                assertEquals(A.nz_values[p], LU.get(i, j), UtilEjml.TEST_F64);
+            }
+        }
+    }
+
+    /**
+     * There is no fill in with a tridiagonal matrix so L*U = A
+     */
+    @Test
+    public void tridiagonal_exact() {
+        DMatrixSparseCSC A = new DMatrixSparseCSC(20, 20, 3*20);
+        for (int i = 0; i < 20; i++) {
+            A.set(i, i, 4 + rand.nextDouble());
+            if (i > 0) {
+                A.set(i, i - 1, rand.nextDouble() - 0.5);
+                A.set(i - 1, i, rand.nextDouble() - 0.5);
+            }
+        }
+
+        IncompleteLU_DSCC alg = new IncompleteLU_DSCC();
+        assertTrue(alg.setA(A));
+        DMatrixSparseCSC LU = CommonOps_DSCC.mult(alg.getL(), alg.getU(), null);
+        EjmlUnitTests.assertEquals(A, LU, UtilEjml.TEST_F64);
+
+        // it's exact so the solution should be exact too
+        DMatrixRMaj x = RandomMatrices_DDRM.rectangle(20, 1, rand);
+        DMatrixRMaj b = new DMatrixRMaj(20, 1);
+        CommonOps_DSCC.mult(A, x, b);
+        double[] found = new double[20];
+        alg.solve(b.data, found);
+        for (int i = 0; i < 20; i++) {
+            assertEquals(x.data[i], found[i], UtilEjml.TEST_F64);
+        }
+    }
+
+    /**
+     * The preconditioner should reduce the number of iterations needed by GMRES and BiCGSTAB
+     */
+    @Test
+    public void fewerIterations() {
+        DMatrixSparseCSC A = convectionDiffusion(20, 0.8);
+        checkFewerIterations(A, new IncompleteLU_DSCC(), rand);
+    }
+
+    /**
+     * A zero pivot or missing diagonal element should cause it to fail
+     */
+    @Test
+    public void zeroPivot() {
+        DMatrixSparseCSC A = new DMatrixSparseCSC(2, 2, 4);
+        A.set(0, 1, 1);
+        A.set(1, 0, 1);
+        A.set(1, 1, 1);
+        assertFalse(new IncompleteLU_DSCC().setA(A));
+
+        A.set(0, 0, 0);
+        assertFalse(new IncompleteLU_DSCC().setA(A));
+    }
+
+    static void checkFewerIterations( DMatrixSparseCSC A, Preconditioner_F64<DMatrixSparseCSC> M, Random rand ) {
+        int N = A.numCols;
+        DMatrixRMaj b = RandomMatrices_DDRM.rectangle(N, 1, rand);
+
+        for (int algorithm = 0; algorithm < 2; algorithm++) {
+            IterativeSolver_F64<DMatrixSparseCSC> plain, precond;
+            if (algorithm == 0) {
+                plain = new GeneralizedMinimalResidual_F64<>(30);
+                precond = new GeneralizedMinimalResidual_F64<>(30, M);
+            } else {
+                plain = new BiConjugateGradientStab_F64<>();
+                precond = new BiConjugateGradientStab_F64<>(M);
+            }
+
+            double[] x0 = new double[N];
+            double[] x1 = new double[N];
+            assertTrue(plain.setA(A));
+            assertTrue(precond.setA(A));
+            assertTrue(plain.solve(b.data, x0));
+            assertTrue(precond.solve(b.data, x1));
+
+            assertTrue(precond.getIterations()*2 < plain.getIterations(),
+                    precond.getIterations() + " " + plain.getIterations());
+            for (int i = 0; i < N; i++) {
+                assertEquals(x0[i], x1[i], 1e-6);
+            }
+        }
+    }
+
+    /**
+     * Upwind discretization of a 2D convection diffusion problem on a NxN grid. Not symmetric.
+     *
+     * @param beta Strength of the convection relative to the diffusion
+     */
+    static DMatrixSparseCSC convectionDiffusion( int N, double beta ) {
+        int n = N*N;
+        DMatrixSparseTriplet T = new DMatrixSparseTriplet(n, n, 5*n);
+        for (int y = 0; y < N; y++) {
+            for (int x = 0; x < N; x++) {
+                int i = y*N + x;
+                T.addItem(i, i, 4 + 2*beta);
+                if (x > 0) T.addItem(i, i - 1, -1 - beta);
+                if (x + 1 < N) T.addItem(i, i + 1, -1);
+                if (y > 0) T.addItem(i, i - N, -1 - beta);
+                if (y + 1 < N) T.addItem(i, i + N, -1);
+            }
+        }
+        return ConvertDMatrixStruct.convert(T, (DMatrixSparseCSC)null);
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.sparse.csc.linsol.iterative;
+
+import org.ejml.EjmlUnitTests;
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestLinearSolverIterative_DDRM {
+    Random rand = new Random(234);
+
+    /**
+     * Creates a well conditioned symmetric positive definite matrix
+     */
+    private DMatrixRMaj createA( int N ) {
+        DMatrixRMaj A = RandomMatrices_DDRM.symmetricPosDef(N, rand);
+        for (int i = 0; i < N; i++) {
+            A.add(i, i, N);
+        }
+        return A;
+    }
+
+    private LinearSolverIterative_DDRM createSolver() {
+        LinearSolverIterative_DDRM solver = new LinearSolverIterative_DDRM(new ConjugateGradient_F64<>());
+        solver.getSolver().setTolerance(1e-13);
+        return solver;
+    }
+
+    /**
+     * Every column in B should be solved for
+     */
+    @Test
+    public void solve() {
+        for (int N : new int[]{1, 5, 30}) {
+            DMatrixRMaj A = createA(N);
+            DMatrixRMaj X = RandomMatrices_DDRM.rectangle(N, 3, rand);
+            DMatrixRMaj B = CommonOps_DDRM.mult(A, X, null);
+            DMatrixRMaj A_orig = A.copy();
+            DMatrixRMaj B_orig = B.copy();
+
+            LinearSolverIterative_DDRM solver = createSolver();
+            assertTrue(solver.setA(A));
+            DMatrixRMaj found = new DMatrixRMaj(1, 1);
+            solver.solve(B, found);
+            assertTrue(solver.getSolver().isConverged());
+
+            EjmlUnitTests.assertEquals(X, found, UtilEjml.TEST_F64_SQ);
+            // the inputs are not modified
+            assertFalse(solver.modifiesA());
+            assertFalse(solver.modifiesB());
+            EjmlUnitTests.assertEquals(A_orig, A, 0.0);
+            EjmlUnitTests.assertEquals(B_orig, B, 0.0);
+        }
+    }
+
+    /**
+     * If the solution is given as the initial guess then no iterations are needed
+     */
+    @Test
+    public void initialGuess() {
+        DMatrixRMaj A = createA(20);
+        DMatrixRMaj X = RandomMatrices_DDRM.rectangle(20, 1, rand);
+        DMatrixRMaj B = CommonOps_DDRM.mult(A, X, null);
+
+        LinearSolverIterative_DDRM solver = createSolver();
+        solver.getSolver().setTolerance(1e-8);
+        solver.setInitialGuess(true);
+        assertTrue(solver.setA(A));
+        DMatrixRMaj found = X.copy();
+        solver.solve(B, found);
+        assertEquals(0, solver.getSolver().getIterations());
+        EjmlUnitTests.assertEquals(X, found, 0.0);
+    }
+
+    @Test
+    public void invert() {
+        DMatrixRMaj A = createA(15);
+        LinearSolverIterative_DDRM solver = createSolver();
+        assertTrue(solver.setA(A));
+
+        DMatrixRMaj found = new DMatrixRMaj(1, 1);
+        solver.invert(found);
+        EjmlUnitTests.assertEquals(CommonOps_DDRM.identity(15), CommonOps_DDRM.mult(A, found, null),
+                UtilEjml.TEST_F64_SQ);
+    }
+
+    /**
+     * There's no decomposition for the quality to be computed from
+     */
+    @Test
+    public void notSupported() {
+        LinearSolverIterative_DDRM solver = createSolver();
+        assertThrows(IllegalArgumentException.class, solver::quality);
+        assertNull(solver.getDecomposition());
+        // setA() must be called before it can invert
+        assertThrows(IllegalArgumentException.class, () -> solver.invert(new DMatrixRMaj(1, 1)));
+    }
+}
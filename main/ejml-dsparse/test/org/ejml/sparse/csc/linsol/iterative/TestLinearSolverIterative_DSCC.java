@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.sparse.csc.linsol.iterative;
+
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.interfaces.linsol.LinearSolverSparse;
+import org.ejml.sparse.FillReducing;
+import org.ejml.sparse.csc.RandomMatrices_DSCC;
+import org.ejml.sparse.csc.linsol.GenericLinearSolverSparseTests_DSCC;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TestLinearSolverIterative_DSCC extends GenericLinearSolverSparseTests_DSCC {
+
+    public TestLinearSolverIterative_DSCC() {
+        equalityTolerance = 1e-8;
+        canHandleTall = false;
+        canHandleWide = false;
+        permutationTests = new FillReducing[]{FillReducing.NONE};
+    }
+
+    @Override
+    public LinearSolverSparse<DMatrixSparseCSC, DMatrixRMaj> createSolver( FillReducing permutation ) {
+        LinearSolverIterative_DSCC solver = new LinearSolverIterative_DSCC(new GeneralizedMinimalResidual_F64<>(30));
+        solver.getSolver().setTolerance(1e-13);
+        return solver;
+    }
+
+    @Override
+    public DMatrixSparseCSC createA( int N ) {
+        DMatrixSparseCSC A = RandomMatrices_DSCC.rectangle(N, N, N*N/4, -1, 1, rand);
+        for (int i = 0; i < N; i++) {
+            A.set(i, i, A.get(i, i) + N);
+        }
+        return A;
+    }
+
+    /**
+     * There's no decomposition for the quality to be computed from
+     */
+    @Test
+    public void notSupported() {
+        LinearSolverIterative_DSCC solver = new LinearSolverIterative_DSCC(new ConjugateGradient_F64<>());
+        assertThrows(IllegalArgumentException.class, solver::quality);
+        assertNull(solver.getDecomposition());
+    }
+}
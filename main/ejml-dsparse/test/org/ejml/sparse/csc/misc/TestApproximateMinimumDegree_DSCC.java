@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.sparse.csc.misc;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.data.DMatrixSparseTriplet;
+import org.ejml.data.IGrowArray;
+import org.ejml.ops.ConvertDMatrixStruct;
+import org.ejml.sparse.FillReducing;
+import org.ejml.sparse.csc.CommonOps_DSCC;
+import org.ejml.sparse.csc.RandomMatrices_DSCC;
+import org.ejml.sparse.csc.decomposition.chol.CholeskyUpLooking_DSCC;
+import org.ejml.sparse.csc.decomposition.lu.LuUpLooking_DSCC;
+import org.ejml.sparse.csc.factory.DecompositionFactory_DSCC;
+import org.ejml.sparse.csc.factory.FillReductionFactory_DSCC;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+
+import java.util.Objects;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestApproximateMinimumDegree_DSCC {
+    private Random rand = new Random(234);
+
+    /**
+     * Make sure a valid permutation is always returned
+     */
+    @Test
+    public void validPermutation() {
+        for (boolean symmetric : new boolean[]{true, false}) {
+            ApproximateMinimumDegree_DSCC alg = new ApproximateMinimumDegree_DSCC(symmetric);
+
+            for (int n : new int[]{0, 1, 2, 5, 20, 100}) {
+                for (int trial = 0; trial < 5; trial++) {
+                    DMatrixSparseCSC A = RandomMatrices_DSCC.rectangle(n, n, n*3, rand);
+                    alg.process(A);
+
+                    checkPermutation(alg.getColumn(), n);
+                    if (symmetric) {
+                        checkPermutation(alg.getRow(), n);
+                        assertArrayEquals(Objects.requireNonNull(alg.getColumn()).data, Objects.requireNonNull(alg.getRow()).data);
+                    } else {
+                        assertNull(alg.getRow());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Rectangular matrices are ordered using the columns
+     */
+    @Test
+    public void validPermutation_rectangular() {
+        for (boolean symmetric : new boolean[]{true, false}) {
+            ApproximateMinimumDegree_DSCC alg = new ApproximateMinimumDegree_DSCC(symmetric);
+
+            DMatrixSparseCSC A = RandomMatrices_DSCC.rectangle(30, 12, 60, rand);
+            alg.process(A);
+            checkPermutation(alg.getColumn(), 12);
+            if (symmetric) checkPermutation(alg.getRow(), 30);
+
+            A = RandomMatrices_DSCC.rectangle(12, 30, 60, rand);
+            alg.process(A);
+            checkPermutation(alg.getColumn(), 30);
+            if (symmetric) checkPermutation(alg.getRow(), 12);
+        }
+    }
+
+    /**
+     * A matrix with a dense row and column should be handled and the dense node ordered last
+     */
+    @Test
+    public void denseNode() {
+        int n = 100;
+        DMatrixSparseTriplet T = new DMatrixSparseTriplet(n, n, 4*n);
+        for (int i = 0; i < n; i++) {
+            T.addItem(i, i, 4);
+            T.addItem(0, i, 1);
+            T.addItem(i, 0, 1);
+        }
+        DMatrixSparseCSC A = ConvertDMatrixStruct.convert(T, (DMatrixSparseCSC)null);
+
+        ApproximateMinimumDegree_DSCC alg = new ApproximateMinimumDegree_DSCC(true);
+        alg.process(A);
+        checkPermutation(alg.getRow(), n);
+        assertEquals(0, Objects.requireNonNull(alg.getRow()).data[n - 1]);
+    }
+
+    /**
+     * The ordering should significantly reduce fill in when compared against a randomly ordered grid
+     */
+    @Test
+    public void reducesFill_symmetric() {
+        DMatrixSparseCSC A = shuffledGrid(20);
+
+        int nzNone = choleskyFill(A, FillReducing.NONE);
+        int nzAmd = choleskyFill(A, FillReducing.AMD);
+        assertTrue(nzAmd*2 < nzNone, nzAmd + " " + nzNone);
+    }
+
+    @Test
+    public void reducesFill_column() {
+        DMatrixSparseCSC A = shuffledGrid(20);
+
+        int nzNone = luFill(A, FillReducing.NONE);
+        int nzColAmd = luFill(A, FillReducing.COLAMD);
+        assertTrue(nzColAmd*2 < nzNone, nzColAmd + " " + nzNone);
+    }
+
+    private int choleskyFill( DMatrixSparseCSC A, FillReducing type ) {
+        ApplyFillReductionPermutation_DSCC reduce =
+                new ApplyFillReductionPermutation_DSCC(FillReductionFactory_DSCC.create(type), true);
+        CholeskyUpLooking_DSCC chol = (CholeskyUpLooking_DSCC)DecompositionFactory_DSCC.cholesky();
+        assertTrue(chol.decompose(reduce.apply(A)));
+        return chol.getL().nz_length;
+    }
+
+    private int luFill( DMatrixSparseCSC A, FillReducing type ) {
+        LuUpLooking_DSCC lu = (LuUpLooking_DSCC)DecompositionFactory_DSCC.lu(type);
+        assertTrue(lu.decompose(A));
+        return lu.getL().nz_length + lu.getU().nz_length;
+    }
+
+    /**
+     * Creates the 5-point Laplacian on a NxN grid and randomly shuffles the nodes
+     */
+    private DMatrixSparseCSC shuffledGrid( int N ) {
+        int n = N*N;
+        DMatrixSparseTriplet T = new DMatrixSparseTriplet(n, n, 5*n);
+        for (int y = 0; y < N; y++) {
+            for (int x = 0; x < N; x++) {
+                int i = y*N + x;
+                T.addItem(i, i, 4.5);
+                if (x > 0) T.addItem(i, i - 1, -1);
+                if (x + 1 < N) T.addItem(i, i + 1, -1);
+                if (y > 0) T.addItem(i, i - N, -1);
+                if (y + 1 < N) T.addItem(i, i + N, -1);
+            }
+        }
+        DMatrixSparseCSC A = ConvertDMatrixStruct.convert(T, (DMatrixSparseCSC)null);
+
+        int[] perm = new int[n];
+        for (int i = 0; i < n; i++) {
+            perm[i] = i;
+        }
+        UtilEjml.shuffle(perm, n, 0, n, rand);
+        DMatrixSparseCSC B = new DMatrixSparseCSC(n, n, 0);
+        CommonOps_DSCC.permuteSymmetric(A, perm, B, null);
+        // get rid of the upper triangular only structure
+        DMatrixSparseCSC Bt = CommonOps_DSCC.transpose(B, null, null);
+        DMatrixSparseCSC C = new DMatrixSparseCSC(n, n, 0);
+        CommonOps_DSCC.add(1, B, 1, Bt, C, null, null);
+        for (int i = 0; i < n; i++) {
+            C.set(i, i, 4.5);
+        }
+        return C;
+    }
+
+    private static void checkPermutation( @Nullable IGrowArray perm, int n ) {
+        assertNotNull(perm);
+        assertEquals(n, perm.length);
+        boolean[] found = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            int v = perm.data[i];
+            assertTrue(v >= 0 && v < n);
+            assertFalse(found[v]);
+            found[v] = true;
+        }
+    }
+}
@@ -18,8 +18,14 @@
 
 package org.ejml.sparse.csc.mult;
 
+import org.ejml.EjmlUnitTests;
 import org.ejml.UtilEjml;
+import org.ejml.concurrency.EjmlConcurrency;
+import org.ejml.concurrency.GrowArray;
+import org.ejml.data.DGrowArray;
+import org.ejml.data.DMatrixRMaj;
 import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.dense.row.RandomMatrices_DDRM;
 import org.ejml.sparse.csc.CommonOps_DSCC;
 import org.ejml.sparse.csc.MatrixFeatures_DSCC;
 import org.ejml.sparse.csc.RandomMatrices_DSCC;
@@ -61,4 +67,87 @@ class TestImplSparseSparseMult_MT_DSCC {
 
         assertTrue(MatrixFeatures_DSCC.isEqualsSort(expected, found, UtilEjml.TEST_F64));
     }
-}
\ No newline at end of file
+
+    /**
+     * Compare the dense variants against the single threaded implementation. Several threads are used to ensure
+     * the results from multiple blocks are combined.
+     */
+    @Test
+    public void mult_s_d() {
+        int originalThreads = EjmlConcurrency.getMaxThreads();
+        try {
+            GrowArray<DGrowArray> work = new GrowArray<>(DGrowArray::new);
+            for (int threads : new int[]{1, 3, 8}) {
+                EjmlConcurrency.setMaxThreads(threads);
+                for (int colsA : new int[]{1, 7, 30}) {
+                    mult_s_d(20, colsA, 6, work);
+                    mult_s_d(1, colsA, 64, work);
+                }
+            }
+        } finally {
+            EjmlConcurrency.setMaxThreads(originalThreads);
+        }
+    }
+
+    private void mult_s_d( int rowsA, int colsA, int colsB, GrowArray<DGrowArray> work ) {
+        int nz_a = RandomMatrices_DSCC.nonzero(rowsA, colsA, 0.05, 0.7, rand);
+        DMatrixSparseCSC a = RandomMatrices_DSCC.rectangle(rowsA, colsA, nz_a, -1, 1, rand);
+
+        DMatrixRMaj b = RandomMatrices_DDRM.rectangle(colsA, colsB, -1, 1, rand);
+        DMatrixRMaj c = RandomMatrices_DDRM.rectangle(rowsA, colsB, -1, 1, rand);
+        DMatrixRMaj expected = c.copy();
+        DMatrixRMaj found = c.copy();
+        ImplSparseSparseMult_DSCC.mult(a, b, expected);
+        ImplSparseSparseMult_MT_DSCC.mult(a, b, found, work);
+        EjmlUnitTests.assertEquals(expected, found, UtilEjml.TEST_F64);
+
+        expected.set(c);
+        found.set(c);
+        ImplSparseSparseMult_DSCC.multAdd(a, b, expected);
+        ImplSparseSparseMult_MT_DSCC.multAdd(a, b, found, null);
+        EjmlUnitTests.assertEquals(expected, found, UtilEjml.TEST_F64);
+
+        // B is transposed
+        DMatrixRMaj bt = RandomMatrices_DDRM.rectangle(colsB, colsA, -1, 1, rand);
+        expected.set(c);
+        found.set(c);
+        ImplSparseSparseMult_DSCC.multTransB(a, bt, expected);
+        ImplSparseSparseMult_MT_DSCC.multTransB(a, bt, found, work);
+        EjmlUnitTests.assertEquals(expected, found, UtilEjml.TEST_F64);
+
+        expected.set(c);
+        found.set(c);
+        ImplSparseSparseMult_DSCC.multAddTransB(a, bt, expected);
+        ImplSparseSparseMult_MT_DSCC.multAddTransB(a, bt, found, work);
+        EjmlUnitTests.assertEquals(expected, found, UtilEjml.TEST_F64);
+
+        // A is transposed
+        DMatrixRMaj b2 = RandomMatrices_DDRM.rectangle(rowsA, colsB, -1, 1, rand);
+        DMatrixRMaj c2 = RandomMatrices_DDRM.rectangle(colsA, colsB, -1, 1, rand);
+        expected = c2.copy();
+        found = c2.copy();
+        ImplSparseSparseMult_DSCC.multTransA(a, b2, expected);
+        ImplSparseSparseMult_MT_DSCC.multTransA(a, b2, found);
+        EjmlUnitTests.assertEquals(expected, found, UtilEjml.TEST_F64);
+
+        expected.set(c2);
+        found.set(c2);
+        ImplSparseSparseMult_DSCC.multAddTransA(a, b2, expected);
+        ImplSparseSparseMult_MT_DSCC.multAddTransA(a, b2, found);
+        EjmlUnitTests.assertEquals(expected, found, UtilEjml.TEST_F64);
+
+        // both are transposed
+        DMatrixRMaj b2t = RandomMatrices_DDRM.rectangle(colsB, rowsA, -1, 1, rand);
+        expected.set(c2);
+        found.set(c2);
+        ImplSparseSparseMult_DSCC.multTransAB(a, b2t, expected);
+        ImplSparseSparseMult_MT_DSCC.multTransAB(a, b2t, found);
+        EjmlUnitTests.assertEquals(expected, found, UtilEjml.TEST_F64);
+
+        expected.set(c2);
+        found.set(c2);
+        ImplSparseSparseMult_DSCC.multAddTransAB(a, b2t, expected);
+        ImplSparseSparseMult_MT_DSCC.multAddTransAB(a, b2t, found);
+        EjmlUnitTests.assertEquals(expected, found, UtilEjml.TEST_F64);
+    }
+}
@@ -19,13 +19,19 @@
 package org.ejml.sparse.csc.mult;
 
 import org.ejml.EjmlUnitTests;
+import org.ejml.MatrixDimensionException;
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
 import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.dense.row.RandomMatrices_DDRM;
 import org.ejml.ops.DSemiRing;
 import org.ejml.ops.DSemiRings;
 import org.ejml.sparse.csc.CommonOpsWithSemiRing_DSCC;
 import org.ejml.sparse.csc.CommonOps_DSCC;
+import org.ejml.sparse.csc.Mask_DSCC;
 import org.ejml.sparse.csc.RandomMatrices_DSCC;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
@@ -33,7 +39,7 @@ import org.junit.jupiter.params.provider.MethodSource;
 import java.util.Random;
 import java.util.stream.Stream;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 
 @SuppressWarnings({"UnusedMethod"})
 public class TestMatrixMatrixMultWithSemiRing_DSCC {
@@ -95,6 +101,115 @@ public class TestMatrixMatrixMultWithSemiRing_DSCC {
         EjmlUnitTests.assertEquals(expected, found);
     }
 
+    /**
+     * With PLUS_TIMES the sparse-dense functions should produce the same results as CommonOps_DSCC
+     */
+    @Test
+    void mult_s_d_plusTimes() {
+        Random rand = new Random(234);
+        DSemiRing semiRing = DSemiRings.PLUS_TIMES;
+        DMatrixSparseCSC A = RandomMatrices_DSCC.rectangle(6, 5, 15, rand);
+        DMatrixRMaj B = RandomMatrices_DDRM.rectangle(5, 4, rand);
+        DMatrixRMaj Bt = RandomMatrices_DDRM.rectangle(4, 5, rand);
+        DMatrixRMaj C = RandomMatrices_DDRM.rectangle(6, 4, rand);
+
+        EjmlUnitTests.assertEquals(CommonOps_DSCC.multTransB(A, Bt, null),
+                CommonOpsWithSemiRing_DSCC.multTransB(A, Bt, null, semiRing), UtilEjml.TEST_F64);
+
+        DMatrixRMaj expected = C.copy();
+        DMatrixRMaj found = C.copy();
+        CommonOps_DSCC.multAdd(A, B, expected);
+        CommonOpsWithSemiRing_DSCC.multAdd(A, B, found, semiRing);
+        EjmlUnitTests.assertEquals(expected, found, UtilEjml.TEST_F64);
+
+        DMatrixRMaj B2t = RandomMatrices_DDRM.rectangle(4, 6, rand);
+        EjmlUnitTests.assertEquals(CommonOps_DSCC.multTransAB(A, B2t, null),
+                CommonOpsWithSemiRing_DSCC.multTransAB(A, B2t, null, semiRing), UtilEjml.TEST_F64);
+    }
+
+    /**
+     * The output needs to be initialized to the additive identity and not zero
+     */
+    @Test
+    void multTransB_minPlus() {
+        DMatrixSparseCSC A = new DMatrixSparseCSC(2, 2, 2);
+        A.set(0, 0, 2);
+        A.set(1, 1, 3);
+        DMatrixRMaj B = new DMatrixRMaj(new double[][]{{1, 5}, {4, 1}});
+
+        DMatrixRMaj found = CommonOpsWithSemiRing_DSCC.multTransB(A, B, null, DSemiRings.MIN_PLUS);
+        assertEquals(3, found.get(0, 0));
+        assertEquals(6, found.get(0, 1));
+        assertEquals(8, found.get(1, 0));
+        assertEquals(4, found.get(1, 1));
+    }
+
+    /**
+     * Compare masked operations against computing the full result and then removing elements
+     */
+    @Test
+    void masked() {
+        Random rand = new Random(234);
+        DSemiRing semiRing = DSemiRings.MIN_PLUS;
+
+        for (int trial = 0; trial < 10; trial++) {
+            DMatrixSparseCSC A = RandomMatrices_DSCC.rectangle(12, 10, 40, rand);
+            DMatrixSparseCSC B = RandomMatrices_DSCC.rectangle(10, 8, 30, rand);
+            DMatrixSparseCSC A2 = RandomMatrices_DSCC.rectangle(12, 8, 40, rand);
+            DMatrixSparseCSC B2 = RandomMatrices_DSCC.rectangle(12, 8, 40, rand);
+            DMatrixSparseCSC M = RandomMatrices_DSCC.rectangle(12, 8, 30, rand);
+            // a few elements are explicitly zero so that structural and value masks are different
+            for (int i = 0; i < M.nz_length; i += 3) {
+                M.nz_values[i] = 0;
+            }
+
+            for (boolean structural : new boolean[]{true, false}) {
+                for (boolean complement : new boolean[]{true, false}) {
+                    Mask_DSCC mask = new Mask_DSCC(M, structural, complement);
+
+                    DMatrixSparseCSC full = CommonOpsWithSemiRing_DSCC.mult(A, B, null, semiRing);
+                    DMatrixSparseCSC found = CommonOpsWithSemiRing_DSCC.mult(A, B, null, semiRing, mask, null, null);
+                    checkMasked(full, found, mask);
+
+                    full = CommonOpsWithSemiRing_DSCC.add(1, A2, 1, B2, null, semiRing, null, null);
+                    found = CommonOpsWithSemiRing_DSCC.add(1, A2, 1, B2, null, semiRing, mask, null, null);
+                    checkMasked(full, found, mask);
+
+                    full = CommonOpsWithSemiRing_DSCC.elementMult(A2, B2, null, semiRing, null, null);
+                    found = CommonOpsWithSemiRing_DSCC.elementMult(A2, B2, null, semiRing, mask, null, null);
+                    checkMasked(full, found, mask);
+                }
+            }
+        }
+    }
+
+    @Test
+    void masked_badShape() {
+        DMatrixSparseCSC A = new DMatrixSparseCSC(4, 3);
+        DMatrixSparseCSC B = new DMatrixSparseCSC(3, 5);
+        Mask_DSCC mask = new Mask_DSCC(new DMatrixSparseCSC(4, 4));
+        assertThrows(MatrixDimensionException.class, () ->
+                CommonOpsWithSemiRing_DSCC.mult(A, B, null, DSemiRings.PLUS_TIMES, mask, null, null));
+    }
+
+    private static void checkMasked( DMatrixSparseCSC full, DMatrixSparseCSC found, Mask_DSCC mask ) {
+        assertTrue(CommonOps_DSCC.checkStructure(found));
+        int expectedCount = 0;
+        for (int col = 0; col < full.numCols; col++) {
+            for (int row = 0; row < full.numRows; row++) {
+                double v = mask.matrix.get(row, col);
+                boolean allowed = (mask.matrix.isAssigned(row, col) && (mask.structural || v != 0)) != mask.complement;
+                if (allowed && full.isAssigned(row, col)) {
+                    expectedCount++;
+                    assertEquals(full.get(row, col), found.get(row, col), UtilEjml.TEST_F64);
+                } else {
+                    assertFalse(found.isAssigned(row, col));
+                }
+            }
+        }
+        assertEquals(expectedCount, found.nz_length);
+    }
+
     private static Stream<Arguments> sparseVectorMatrixMultSources() {
         return Stream.of(
                 // expected entries for (0, 0) and (0, 2)
@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.sparse.csc.mult;
+
+import org.ejml.EjmlParameters;
+import org.ejml.MatrixDimensionException;
+import org.ejml.UtilEjml;
+import org.ejml.data.DGrowArray;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.data.DVectorSparse;
+import org.ejml.data.IGrowArray;
+import org.ejml.ops.DSemiRing;
+import org.ejml.ops.DSemiRings;
+import org.ejml.sparse.csc.CommonOpsWithSemiRing_DSCC;
+import org.ejml.sparse.csc.CommonOps_DSCC;
+import org.ejml.sparse.csc.RandomMatrices_DSCC;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestMatrixSparseVectorMultWithSemiRing_DSCC {
+    private final Random rand = new Random(234);
+
+    // FIRST and SECOND are included to make sure the operands are in the correct order
+    private final DSemiRing[] semiRings = new DSemiRing[]{DSemiRings.PLUS_TIMES, DSemiRings.MIN_PLUS,
+            DSemiRings.MIN_FIRST, DSemiRings.MIN_SECOND};
+
+    @Test
+    void push() {
+        IGrowArray gw = new IGrowArray();
+        DGrowArray gx = new DGrowArray();
+        for (DSemiRing semiRing : semiRings) {
+            for (int nz : new int[]{0, 1, 3, 15}) {
+                DMatrixSparseCSC A = RandomMatrices_DSCC.rectangle(20, 15, 60, rand);
+                DVectorSparse x = randomVector(15, nz);
+
+                // the workspace is reused with stale values to make sure it doesn't need to be cleared
+                DVectorSparse found = new DVectorSparse(20, 0);
+                MatrixSparseVectorMultWithSemiRing_DSCC.push(A, x, false, found, semiRing, gw, gx);
+                assertVectorEquals(expectedMxV(A, x, semiRing), found);
+
+                DMatrixSparseCSC At = CommonOps_DSCC.transpose(A, null, null);
+                found = new DVectorSparse(15, 0);
+                DVectorSparse y = randomVector(20, nz);
+                MatrixSparseVectorMultWithSemiRing_DSCC.push(At, y, true, found, semiRing, gw, gx);
+                assertVectorEquals(expectedVxM(y, A, semiRing), found);
+            }
+        }
+    }
+
+    @Test
+    void pull() {
+        IGrowArray gw = new IGrowArray();
+        for (DSemiRing semiRing : semiRings) {
+            for (int nz : new int[]{0, 1, 3, 20}) {
+                DMatrixSparseCSC A = RandomMatrices_DSCC.rectangle(20, 15, 60, rand);
+                DVectorSparse x = randomVector(20, nz);
+
+                DVectorSparse found = new DVectorSparse(15, 0);
+                MatrixSparseVectorMultWithSemiRing_DSCC.pull(A, x, true, found, semiRing, gw);
+                assertVectorEquals(expectedVxM(x, A, semiRing), found);
+
+                DMatrixSparseCSC At = CommonOps_DSCC.transpose(A, null, null);
+                DVectorSparse y = randomVector(15, nz);
+                found = new DVectorSparse(20, 0);
+                MatrixSparseVectorMultWithSemiRing_DSCC.pull(At, y, false, found, semiRing, gw);
+                assertVectorEquals(expectedMxV(A, y, semiRing), found);
+            }
+        }
+    }
+
+    @Test
+    void pushCost() {
+        DMatrixSparseCSC A = RandomMatrices_DSCC.rectangle(20, 15, 60, rand);
+        DVectorSparse x = new DVectorSparse(15, 0);
+        x.set(2, 1);
+        x.set(9, 1);
+        int expected = (A.col_idx[3] - A.col_idx[2]) + (A.col_idx[10] - A.col_idx[9]);
+        assertEquals(expected, MatrixSparseVectorMultWithSemiRing_DSCC.pushCost(A, x));
+    }
+
+    /**
+     * Both strategies should be selected depending on the density of the vector and produce the same results
+     */
+    @Test
+    void mxv_vxm() {
+        DMatrixSparseCSC A = RandomMatrices_DSCC.rectangle(30, 25, 200, rand);
+        DMatrixSparseCSC At = CommonOps_DSCC.transpose(A, null, null);
+
+        for (DSemiRing semiRing : semiRings) {
+            for (int nz : new int[]{0, 1, 20}) {
+                DVectorSparse x = randomVector(25, nz);
+                DVectorSparse expected = expectedMxV(A, x, semiRing);
+                assertVectorEquals(expected, CommonOpsWithSemiRing_DSCC.mxv(A, x, null, semiRing));
+                assertVectorEquals(expected, CommonOpsWithSemiRing_DSCC.mxv(A, At, x, null, semiRing, null, null));
+
+                DVectorSparse y = randomVector(30, nz);
+                expected = expectedVxM(y, A, semiRing);
+                assertVectorEquals(expected, CommonOpsWithSemiRing_DSCC.vxm(y, A, null, semiRing));
+                assertVectorEquals(expected, CommonOpsWithSemiRing_DSCC.vxm(y, A, At, null, semiRing, null, null));
+            }
+        }
+    }
+
+    @Test
+    void mxv_vxm_badShape() {
+        DMatrixSparseCSC A = RandomMatrices_DSCC.rectangle(30, 25, 200, rand);
+        DSemiRing semiRing = DSemiRings.PLUS_TIMES;
+
+        assertThrows(MatrixDimensionException.class,
+                () -> CommonOpsWithSemiRing_DSCC.mxv(A, new DVectorSparse(30), null, semiRing));
+        assertThrows(MatrixDimensionException.class,
+                () -> CommonOpsWithSemiRing_DSCC.vxm(new DVectorSparse(25), A, null, semiRing));
+        assertThrows(MatrixDimensionException.class,
+                () -> CommonOpsWithSemiRing_DSCC.mxv(A, A, new DVectorSparse(25), null, semiRing, null, null));
+
+        DVectorSparse x = new DVectorSparse(25);
+        assertThrows(IllegalArgumentException.class,
+                () -> CommonOpsWithSemiRing_DSCC.mxv(A, x, x, semiRing));
+    }
+
+    /**
+     * Makes sure the threshold actually changes which strategy is used
+     */
+    @Test
+    void mxv_threshold() {
+        DMatrixSparseCSC A = RandomMatrices_DSCC.rectangle(30, 25, 200, rand);
+        DVectorSparse x = randomVector(25, 10);
+        DSemiRing semiRing = DSemiRings.PLUS_TIMES;
+        DVectorSparse expected = expectedMxV(A, x, semiRing);
+
+        double original = EjmlParameters.SPARSE_VECTOR_PULL_FRACTION;
+        try {
+            // An inconsistent transpose is only used by pull
+            DMatrixSparseCSC fake = new DMatrixSparseCSC(25, 30, 0);
+            fake.set(24, 0, 1.0);
+
+            EjmlParameters.SPARSE_VECTOR_PULL_FRACTION = Double.MAX_VALUE;
+            assertVectorEquals(expected, CommonOpsWithSemiRing_DSCC.mxv(A, fake, x, null, semiRing, null, null));
+
+            EjmlParameters.SPARSE_VECTOR_PULL_FRACTION = 0.0;
+            assertTrue(CommonOpsWithSemiRing_DSCC.mxv(A, fake, x, null, semiRing, null, null).nz_length <= 1);
+        } finally {
+            EjmlParameters.SPARSE_VECTOR_PULL_FRACTION = original;
+        }
+    }
+
+    private DVectorSparse randomVector( int size, int nz ) {
+        DVectorSparse v = new DVectorSparse(size, 0);
+        while (v.nz_length < Math.min(size, nz)) {
+            v.set(rand.nextInt(size), rand.nextDouble() + 0.1);
+        }
+        return v;
+    }
+
+    /**
+     * Brute force computation of A*x, where only the structural non-zero elements contribute
+     */
+    private static DVectorSparse expectedMxV( DMatrixSparseCSC A, DVectorSparse x, DSemiRing semiRing ) {
+        DVectorSparse output = new DVectorSparse(A.numRows, 0);
+        for (int row = 0; row < A.numRows; row++) {
+            boolean found = false;
+            double sum = semiRing.add.id;
+            for (int col = 0; col < A.numCols; col++) {
+                if (!A.isAssigned(row, col) || !x.isAssigned(col))
+                    continue;
+                sum = semiRing.add.func.apply(sum, semiRing.mult.func.apply(A.get(row, col), x.get(col)));
+                found = true;
+            }
+            if (found)
+                output.append(row, sum);
+        }
+        return output;
+    }
+
+    /**
+     * Brute force computation of x<sup>T</sup>*A
+     */
+    private static DVectorSparse expectedVxM( DVectorSparse x, DMatrixSparseCSC A, DSemiRing semiRing ) {
+        DVectorSparse output = new DVectorSparse(A.numCols, 0);
+        for (int col = 0; col < A.numCols; col++) {
+            boolean found = false;
+            double sum = semiRing.add.id;
+            for (int row = 0; row < A.numRows; row++) {
+                if (!A.isAssigned(row, col) || !x.isAssigned(row))
+                    continue;
+                sum = semiRing.add.func.apply(sum, semiRing.mult.func.apply(x.get(row), A.get(row, col)));
+                found = true;
+            }
+            if (found)
+                output.append(col, sum);
+        }
+        return output;
+    }
+
+    private static void assertVectorEquals( DVectorSparse expected, DVectorSparse found ) {
+        assertTrue(found.checkStructure());
+        assertEquals(expected.size, found.size);
+        assertEquals(expected.nz_length, found.nz_length);
+        for (int i = 0; i < expected.nz_length; i++) {
+            assertEquals(expected.nz_indices[i], found.nz_indices[i]);
+            assertEquals(expected.nz_values[i], found.nz_values[i], UtilEjml.TEST_F64);
+        }
+    }
+}
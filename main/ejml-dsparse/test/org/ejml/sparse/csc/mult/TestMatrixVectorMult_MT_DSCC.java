@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.sparse.csc.mult;
+
+import org.ejml.UtilEjml;
+import org.ejml.concurrency.ConcurrencyContext;
+import org.ejml.concurrency.ConcurrencyCostModel;
+import org.ejml.concurrency.EjmlConcurrency;
+import org.ejml.concurrency.GrowArray;
+import org.ejml.data.DGrowArray;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.sparse.csc.RandomMatrices_DSCC;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Results are compared against {@link MatrixVectorMult_DSCC}
+ *
+ * @author Peter Abeles
+ */
+class TestMatrixVectorMult_MT_DSCC {
+    Random rand = new Random(234);
+
+    @Test
+    void mult_A_v() {
+        withThreads(() -> {
+            GrowArray<DGrowArray> work = new GrowArray<>(DGrowArray::new);
+            for (int cols : new int[]{0, 1, 4, 25}) {
+                DMatrixSparseCSC A = RandomMatrices_DSCC.rectangle(12, cols, cols*4, rand);
+                double[] v = randomArray(cols + 2);
+
+                double[] expected = randomArray(14);
+                double[] found = expected.clone();
+
+                MatrixVectorMult_DSCC.mult(A, v, 2, expected, 1);
+                MatrixVectorMult_MT_DSCC.mult(A, v, 2, found, 1, work);
+                assertArrayEquals(expected, found);
+            }
+        });
+    }
+
+    @Test
+    void multAdd_A_v() {
+        withThreads(() -> {
+            for (int cols : new int[]{0, 1, 4, 25}) {
+                DMatrixSparseCSC A = RandomMatrices_DSCC.rectangle(12, cols, cols*4, rand);
+                double[] v = randomArray(cols + 2);
+
+                double[] expected = randomArray(14);
+                double[] found = expected.clone();
+
+                MatrixVectorMult_DSCC.multAdd(A, v, 2, expected, 1);
+                MatrixVectorMult_MT_DSCC.multAdd(A, v, 2, found, 1, null);
+                assertArrayEquals(expected, found);
+            }
+        });
+    }
+
+    @Test
+    void mult_v_A() {
+        withThreads(() -> {
+            DMatrixSparseCSC A = RandomMatrices_DSCC.rectangle(12, 25, 60, rand);
+            double[] v = randomArray(13);
+
+            double[] expected = new double[27];
+            double[] found = new double[27];
+
+            MatrixVectorMult_DSCC.mult(v, 1, A, expected, 2);
+            MatrixVectorMult_MT_DSCC.mult(v, 1, A, found, 2);
+            assertArrayEquals(expected, found);
+        });
+    }
+
+    @Test
+    void innerProduct() {
+        withThreads(() -> {
+            DMatrixSparseCSC A = RandomMatrices_DSCC.rectangle(12, 25, 60, rand);
+            double[] v = randomArray(13);
+            double[] w = randomArray(27);
+
+            double expected = MatrixVectorMult_DSCC.innerProduct(v, 1, A, w, 2);
+            double found = MatrixVectorMult_MT_DSCC.innerProduct(v, 1, A, w, 2, null);
+            assertEquals(expected, found, UtilEjml.TEST_F64);
+        });
+    }
+
+    /**
+     * Use more than one thread so that partial results from different blocks are combined. The cost model
+     * would run these small matrices in a single thread, so it's told there's no overhead.
+     */
+    private static void withThreads( Runnable test ) {
+        var context = new ConcurrencyContext(new ForkJoinPool(3));
+        context.setCostModel(ConcurrencyCostModel.alwaysConcurrent());
+        EjmlConcurrency.runWith(context, test);
+    }
+
+    private double[] randomArray( int length ) {
+        double[] a = new double[length];
+        for (int i = 0; i < length; i++) {
+            a[i] = rand.nextDouble() - 0.5;
+        }
+        return a;
+    }
+
+    private static void assertArrayEquals( double[] expected, double[] found ) {
+        assertEquals(expected.length, found.length);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], found[i], UtilEjml.TEST_F64);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.sparse.csr;
+
+import org.ejml.EjmlUnitTests;
+import org.ejml.MatrixDimensionException;
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.data.DMatrixSparseCSR;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.ejml.ops.ConvertDMatrixStruct;
+import org.ejml.sparse.csc.CommonOps_DSCC;
+import org.ejml.sparse.csc.RandomMatrices_DSCC;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Results are compared against the equivalent operations in {@link CommonOps_DSCC}
+ *
+ * @author Peter Abeles
+ */
+public class TestCommonOps_DSCR {
+    private final Random rand = new Random(234);
+
+    @Test
+    void checkStructure() {
+        DMatrixSparseCSR A = random(5, 6, 12);
+        assertTrue(CommonOps_DSCR.checkStructure(A));
+
+        // duplicate element
+        A.nz_cols[1] = A.nz_cols[0];
+        A.indicesSorted = false;
+        if (A.row_idx[1] > 1)
+            assertFalse(CommonOps_DSCR.checkStructure(A));
+
+        // out of bounds
+        A = random(5, 6, 12);
+        A.nz_cols[3] = 6;
+        assertFalse(CommonOps_DSCR.checkStructure(A));
+    }
+
+    @Test
+    void transpose() {
+        for (int trial = 0; trial < 10; trial++) {
+            DMatrixSparseCSC A = RandomMatrices_DSCC.rectangle(8, 5, 15, -1, 1, rand);
+            DMatrixSparseCSR found = CommonOps_DSCR.transpose(toCSR(A), null, null);
+            assertTrue(CommonOps_DSCR.checkStructure(found));
+            EjmlUnitTests.assertEquals(CommonOps_DSCC.transpose(A, null, null), found, UtilEjml.TEST_F64);
+        }
+    }
+
+    @Test
+    void mult_sparse() {
+        for (int trial = 0; trial < 10; trial++) {
+            DMatrixSparseCSC A = RandomMatrices_DSCC.rectangle(7, 5, 15, -1, 1, rand);
+            DMatrixSparseCSC B = RandomMatrices_DSCC.rectangle(5, 9, 20, -1, 1, rand);
+
+            DMatrixSparseCSC expected = CommonOps_DSCC.mult(A, B, null);
+            DMatrixSparseCSR found = CommonOps_DSCR.mult(toCSR(A), toCSR(B), null);
+            assertTrue(CommonOps_DSCR.checkStructure(found));
+            EjmlUnitTests.assertEquals(expected, found, UtilEjml.TEST_F64);
+
+            // see if it handles an output with data in it
+            CommonOps_DSCR.mult(toCSR(A), toCSR(B), found);
+            assertTrue(CommonOps_DSCR.checkStructure(found));
+            EjmlUnitTests.assertEquals(expected, found, UtilEjml.TEST_F64);
+        }
+
+        assertThrows(MatrixDimensionException.class, () ->
+                CommonOps_DSCR.mult(random(4, 5, 4), random(4, 5, 4), null));
+    }
+
+    @Test
+    void mult_dense() {
+        DMatrixSparseCSC A = RandomMatrices_DSCC.rectangle(7, 5, 15, -1, 1, rand);
+        DMatrixRMaj B = RandomMatrices_DDRM.rectangle(5, 4, rand);
+
+        DMatrixRMaj expected = CommonOps_DSCC.mult(A, B, null);
+        DMatrixRMaj found = RandomMatrices_DDRM.rectangle(7, 4, rand);
+        CommonOps_DSCR.mult(toCSR(A), B, found);
+        EjmlUnitTests.assertEquals(expected, found, UtilEjml.TEST_F64);
+
+        // add
+        DMatrixRMaj C = RandomMatrices_DDRM.rectangle(7, 4, rand);
+        DMatrixRMaj expectedAdd = C.copy();
+        CommonOps_DSCC.multAdd(A, B, expectedAdd);
+        CommonOps_DSCR.multAdd(toCSR(A), B, C);
+        EjmlUnitTests.assertEquals(expectedAdd, C, UtilEjml.TEST_F64);
+
+        assertThrows(MatrixDimensionException.class, () ->
+                CommonOps_DSCR.mult(toCSR(A), new DMatrixRMaj(4, 2), null));
+    }
+
+    @Test
+    void multTransA_dense() {
+        DMatrixSparseCSC A = RandomMatrices_DSCC.rectangle(7, 5, 15, -1, 1, rand);
+        DMatrixRMaj B = RandomMatrices_DDRM.rectangle(7, 4, rand);
+
+        DMatrixRMaj expected = CommonOps_DSCC.multTransA(A, B, null);
+        DMatrixRMaj found = RandomMatrices_DDRM.rectangle(5, 4, rand);
+        CommonOps_DSCR.multTransA(toCSR(A), B, found);
+        EjmlUnitTests.assertEquals(expected, found, UtilEjml.TEST_F64);
+
+        DMatrixRMaj C = RandomMatrices_DDRM.rectangle(5, 4, rand);
+        DMatrixRMaj expectedAdd = C.copy();
+        CommonOps_DSCC.multAddTransA(A, B, expectedAdd);
+        CommonOps_DSCR.multAddTransA(toCSR(A), B, C);
+        EjmlUnitTests.assertEquals(expectedAdd, C, UtilEjml.TEST_F64);
+    }
+
+    @Test
+    void add() {
+        for (int trial = 0; trial < 10; trial++) {
+            DMatrixSparseCSC A = RandomMatrices_DSCC.rectangle(6, 8, 15, -1, 1, rand);
+            DMatrixSparseCSC B = RandomMatrices_DSCC.rectangle(6, 8, 20, -1, 1, rand);
+
+            DMatrixSparseCSC expected = CommonOps_DSCC.add(1.5, A, -0.5, B, null, null, null);
+            DMatrixSparseCSR found = CommonOps_DSCR.add(1.5, toCSR(A), -0.5, toCSR(B), null, null, null);
+            assertTrue(CommonOps_DSCR.checkStructure(found));
+            EjmlUnitTests.assertEquals(expected, found, UtilEjml.TEST_F64);
+        }
+    }
+
+    @Test
+    void elementMult() {
+        for (int trial = 0; trial < 10; trial++) {
+            DMatrixSparseCSC A = RandomMatrices_DSCC.rectangle(6, 8, 25, -1, 1, rand);
+            DMatrixSparseCSC B = RandomMatrices_DSCC.rectangle(6, 8, 25, -1, 1, rand);
+
+            DMatrixSparseCSC expected = CommonOps_DSCC.elementMult(A, B, null, null, null);
+            DMatrixSparseCSR found = CommonOps_DSCR.elementMult(toCSR(A), toCSR(B), null, null, null);
+            assertTrue(CommonOps_DSCR.checkStructure(found));
+            assertEquals(expected.nz_length, found.nz_length);
+            EjmlUnitTests.assertEquals(expected, found, UtilEjml.TEST_F64);
+        }
+    }
+
+    private DMatrixSparseCSR random( int rows, int cols, int nz ) {
+        return toCSR(RandomMatrices_DSCC.rectangle(rows, cols, nz, -1, 1, rand));
+    }
+
+    static DMatrixSparseCSR toCSR( DMatrixSparseCSC A ) {
+        return ConvertDMatrixStruct.convert(A, (DMatrixSparseCSR)null);
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.sparse.csr;
+
+import org.ejml.EjmlUnitTests;
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixSparseCSR;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.ejml.sparse.csc.RandomMatrices_DSCC;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestCommonOps_MT_DSCR {
+    private final Random rand = new Random(234);
+
+    @Test
+    void mult_dense() {
+        for (int rows : new int[]{1, 10, 200}) {
+            DMatrixSparseCSR A = TestCommonOps_DSCR.toCSR(RandomMatrices_DSCC.rectangle(rows, 30, rows*5, -1, 1, rand));
+            DMatrixRMaj B = RandomMatrices_DDRM.rectangle(30, 6, rand);
+
+            DMatrixRMaj expected = CommonOps_DSCR.mult(A, B, null);
+            DMatrixRMaj found = RandomMatrices_DDRM.rectangle(rows, 6, rand);
+            CommonOps_MT_DSCR.mult(A, B, found);
+            EjmlUnitTests.assertEquals(expected, found, UtilEjml.TEST_F64);
+        }
+    }
+
+    @Test
+    void multAdd_dense() {
+        for (int rows : new int[]{1, 10, 200}) {
+            DMatrixSparseCSR A = TestCommonOps_DSCR.toCSR(RandomMatrices_DSCC.rectangle(rows, 30, rows*5, -1, 1, rand));
+            DMatrixRMaj B = RandomMatrices_DDRM.rectangle(30, 6, rand);
+            DMatrixRMaj C = RandomMatrices_DDRM.rectangle(rows, 6, rand);
+
+            DMatrixRMaj expected = C.copy();
+            CommonOps_DSCR.multAdd(A, B, expected);
+            CommonOps_MT_DSCR.multAdd(A, B, C);
+            EjmlUnitTests.assertEquals(expected, C, UtilEjml.TEST_F64);
+        }
+    }
+}
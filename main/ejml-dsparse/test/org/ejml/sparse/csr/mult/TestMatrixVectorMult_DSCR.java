@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.sparse.csr.mult;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.data.DMatrixSparseCSR;
+import org.ejml.ops.ConvertDMatrixStruct;
+import org.ejml.sparse.csc.RandomMatrices_DSCC;
+import org.ejml.sparse.csc.mult.MatrixVectorMult_DSCC;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Results are compared against {@link MatrixVectorMult_DSCC}
+ *
+ * @author Peter Abeles
+ */
+public class TestMatrixVectorMult_DSCR {
+    Random rand = new Random(234);
+
+    @Test
+    public void mult_A_v() {
+        DMatrixSparseCSC A = RandomMatrices_DSCC.rectangle(6, 4, 14, rand);
+        DMatrixSparseCSR B = ConvertDMatrixStruct.convert(A, (DMatrixSparseCSR)null);
+
+        double[] v = new double[]{0, 1, 2, 3, 4, 5, 6, 7};
+        double[] expected = new double[7];
+        double[] found = new double[7];
+
+        MatrixVectorMult_DSCC.mult(A, v, 2, expected, 1);
+        MatrixVectorMult_DSCR.mult(B, v, 2, found, 1);
+        assertArrayEquals(expected, found);
+
+        found = new double[7];
+        MatrixVectorMult_MT_DSCR.mult(B, v, 2, found, 1);
+        assertArrayEquals(expected, found);
+    }
+
+    @Test
+    public void multAdd_A_v() {
+        DMatrixSparseCSC A = RandomMatrices_DSCC.rectangle(6, 4, 14, rand);
+        DMatrixSparseCSR B = ConvertDMatrixStruct.convert(A, (DMatrixSparseCSR)null);
+
+        double[] v = new double[]{0, 1, 2, 3, 4, 5, 6, 7};
+        double[] expected = new double[]{0, 1, 3, 2, 1, 4, 5};
+        double[] found = expected.clone();
+        double[] foundMT = expected.clone();
+
+        MatrixVectorMult_DSCC.multAdd(A, v, 2, expected, 1);
+        MatrixVectorMult_DSCR.multAdd(B, v, 2, found, 1);
+        MatrixVectorMult_MT_DSCR.multAdd(B, v, 2, foundMT, 1);
+        assertArrayEquals(expected, found);
+        assertArrayEquals(expected, foundMT);
+    }
+
+    @Test
+    public void mult_v_A() {
+        DMatrixSparseCSC A = RandomMatrices_DSCC.rectangle(6, 4, 14, rand);
+        DMatrixSparseCSR B = ConvertDMatrixStruct.convert(A, (DMatrixSparseCSR)null);
+
+        double[] v = new double[]{0, 1, 2, 3, 4, 5, 6, 7};
+        double[] expected = new double[5];
+        double[] found = new double[5];
+
+        MatrixVectorMult_DSCC.mult(v, 1, A, expected, 1);
+        MatrixVectorMult_DSCR.mult(v, 1, B, found, 1);
+        assertArrayEquals(expected, found);
+    }
+
+    @Test
+    public void innerProduct() {
+        DMatrixSparseCSC A = RandomMatrices_DSCC.rectangle(6, 4, 14, rand);
+        DMatrixSparseCSR B = ConvertDMatrixStruct.convert(A, (DMatrixSparseCSR)null);
+
+        double[] v = new double[]{0, 1, 2, 3, 4, 5, 6, 7};
+        double[] w = new double[]{2, 0, 1, 9, 3, 1, 6, 7};
+
+        double expected = MatrixVectorMult_DSCC.innerProduct(v, 1, A, w, 2);
+        double found = MatrixVectorMult_DSCR.innerProduct(v, 1, B, w, 2);
+        assertEquals(expected, found, UtilEjml.TEST_F64);
+    }
+
+    private static void assertArrayEquals( double[] expected, double[] found ) {
+        assertEquals(expected.length, found.length);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], found[i], UtilEjml.TEST_F64);
+        }
+    }
+}
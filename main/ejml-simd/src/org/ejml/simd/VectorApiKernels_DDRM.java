@@ -0,0 +1,284 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.simd;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+import org.ejml.data.DMatrix1Row;
+import org.ejml.dense.row.mult.SimdKernels_DDRM;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Implementation of {@link SimdKernels_DDRM} using the Vector API in jdk.incubator.vector. The preferred species
+ * is used, so the full width of the hardware's vector registers is used, e.g. 8 doubles with AVX-512.
+ * </p>
+ *
+ * <p>
+ * Matrix multiplication is cache blocked along the inner dimension and the columns of B. Inside a block,
+ * four rows of C and two vectors of columns are kept in registers while the rows of A are broadcast and
+ * multiplied against rows of B using fused multiply-add.
+ * </p>
+ *
+ * <p>
+ * The JVM must be started with "--add-modules jdk.incubator.vector" for this class to be loaded.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class VectorApiKernels_DDRM implements SimdKernels_DDRM {
+    static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    static final int VL = SPECIES.length();
+
+    /** Length of the inner dimension in a block */
+    public static int BLOCK_K = 256;
+    /** Number of columns of B in a block. BLOCK_K x BLOCK_N elements of B should fit in the L2 cache. */
+    public static int BLOCK_N = 128;
+
+    @Override
+    public void gemm( double alpha, DMatrix1Row A, boolean transA, DMatrix1Row B, boolean transB,
+                      DMatrix1Row C, boolean add ) {
+        final int M = C.numRows;
+        final int N = C.numCols;
+        final int K = transA ? A.numRows : A.numCols;
+
+        if (!add)
+            Arrays.fill(C.data, 0, M*N, 0);
+        if (M == 0 || N == 0 || K == 0)
+            return;
+
+        // Rows of op(B) need to be contiguous
+        double[] b = B.data;
+        if (transB) {
+            b = new double[K*N];
+            for (int j = 0; j < N; j++) {
+                int indexB = j*B.numCols;
+                for (int k = 0; k < K; k++) {
+                    b[k*N + j] = B.data[indexB + k];
+                }
+            }
+        }
+
+        double[] packedA = new double[4*Math.min(BLOCK_K, K)];
+
+        for (int k0 = 0; k0 < K; k0 += BLOCK_K) {
+            int k1 = Math.min(K, k0 + BLOCK_K);
+            for (int j0 = 0; j0 < N; j0 += BLOCK_N) {
+                int j1 = Math.min(N, j0 + BLOCK_N);
+                int i = 0;
+                for (; i + 4 <= M; i += 4) {
+                    packRows(alpha, A, transA, i, 4, k0, k1, packedA);
+                    kernelRows4(packedA, b, N, k0, k1, C.data, i, j0, j1);
+                }
+                for (; i < M; i++) {
+                    packRows(alpha, A, transA, i, 1, k0, k1, packedA);
+                    kernelRows1(packedA, b, N, k0, k1, C.data, i, j0, j1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Copies alpha*op(A)[row0:row0+rows, k0:k1] into packed, ordered by the inner dimension first
+     */
+    static void packRows( double alpha, DMatrix1Row A, boolean transA, int row0, int rows, int k0, int k1,
+                          double[] packed ) {
+        final int stride = A.numCols;
+        int index = 0;
+        for (int k = k0; k < k1; k++) {
+            for (int r = 0; r < rows; r++) {
+                packed[index++] = alpha*(transA ? A.data[k*stride + row0 + r] : A.data[(row0 + r)*stride + k]);
+            }
+        }
+    }
+
+    /**
+     * Adds the product of four packed rows of A and B[k0:k1, j0:j1] to C
+     */
+    static void kernelRows4( double[] a, double[] b, int N, int k0, int k1,
+                             double[] c, int row0, int j0, int j1 ) {
+        final int c0 = row0*N, c1 = c0 + N, c2 = c1 + N, c3 = c2 + N;
+
+        int j = j0;
+        for (; j + 2*VL <= j1; j += 2*VL) {
+            DoubleVector s00 = DoubleVector.fromArray(SPECIES, c, c0 + j);
+            DoubleVector s01 = DoubleVector.fromArray(SPECIES, c, c0 + j + VL);
+            DoubleVector s10 = DoubleVector.fromArray(SPECIES, c, c1 + j);
+            DoubleVector s11 = DoubleVector.fromArray(SPECIES, c, c1 + j + VL);
+            DoubleVector s20 = DoubleVector.fromArray(SPECIES, c, c2 + j);
+            DoubleVector s21 = DoubleVector.fromArray(SPECIES, c, c2 + j + VL);
+            DoubleVector s30 = DoubleVector.fromArray(SPECIES, c, c3 + j);
+            DoubleVector s31 = DoubleVector.fromArray(SPECIES, c, c3 + j + VL);
+
+            int indexA = 0;
+            for (int k = k0; k < k1; k++, indexA += 4) {
+                DoubleVector b0 = DoubleVector.fromArray(SPECIES, b, k*N + j);
+                DoubleVector b1 = DoubleVector.fromArray(SPECIES, b, k*N + j + VL);
+
+                DoubleVector a0 = DoubleVector.broadcast(SPECIES, a[indexA]);
+                s00 = b0.fma(a0, s00);
+                s01 = b1.fma(a0, s01);
+                DoubleVector a1 = DoubleVector.broadcast(SPECIES, a[indexA + 1]);
+                s10 = b0.fma(a1, s10);
+                s11 = b1.fma(a1, s11);
+                DoubleVector a2 = DoubleVector.broadcast(SPECIES, a[indexA + 2]);
+                s20 = b0.fma(a2, s20);
+                s21 = b1.fma(a2, s21);
+                DoubleVector a3 = DoubleVector.broadcast(SPECIES, a[indexA + 3]);
+                s30 = b0.fma(a3, s30);
+                s31 = b1.fma(a3, s31);
+            }
+
+            s00.intoArray(c, c0 + j);
+            s01.intoArray(c, c0 + j + VL);
+            s10.intoArray(c, c1 + j);
+            s11.intoArray(c, c1 + j + VL);
+            s20.intoArray(c, c2 + j);
+            s21.intoArray(c, c2 + j + VL);
+            s30.intoArray(c, c3 + j);
+            s31.intoArray(c, c3 + j + VL);
+        }
+
+        for (; j + VL <= j1; j += VL) {
+            DoubleVector s0 = DoubleVector.fromArray(SPECIES, c, c0 + j);
+            DoubleVector s1 = DoubleVector.fromArray(SPECIES, c, c1 + j);
+            DoubleVector s2 = DoubleVector.fromArray(SPECIES, c, c2 + j);
+            DoubleVector s3 = DoubleVector.fromArray(SPECIES, c, c3 + j);
+
+            int indexA = 0;
+            for (int k = k0; k < k1; k++, indexA += 4) {
+                DoubleVector b0 = DoubleVector.fromArray(SPECIES, b, k*N + j);
+                s0 = b0.fma(DoubleVector.broadcast(SPECIES, a[indexA]), s0);
+                s1 = b0.fma(DoubleVector.broadcast(SPECIES, a[indexA + 1]), s1);
+                s2 = b0.fma(DoubleVector.broadcast(SPECIES, a[indexA + 2]), s2);
+                s3 = b0.fma(DoubleVector.broadcast(SPECIES, a[indexA + 3]), s3);
+            }
+
+            s0.intoArray(c, c0 + j);
+            s1.intoArray(c, c1 + j);
+            s2.intoArray(c, c2 + j);
+            s3.intoArray(c, c3 + j);
+        }
+
+        for (; j < j1; j++) {
+            double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+            int indexA = 0;
+            for (int k = k0; k < k1; k++, indexA += 4) {
+                double valB = b[k*N + j];
+                s0 += a[indexA]*valB;
+                s1 += a[indexA + 1]*valB;
+                s2 += a[indexA + 2]*valB;
+                s3 += a[indexA + 3]*valB;
+            }
+            c[c0 + j] += s0;
+            c[c1 + j] += s1;
+            c[c2 + j] += s2;
+            c[c3 + j] += s3;
+        }
+    }
+
+    /**
+     * Adds the product of a single packed row of A and B[k0:k1, j0:j1] to C
+     */
+    static void kernelRows1( double[] a, double[] b, int N, int k0, int k1,
+                             double[] c, int row, int j0, int j1 ) {
+        final int indexC = row*N;
+        for (int k = k0; k < k1; k++) {
+            axpyImpl(a[k - k0], b, k*N + j0, c, indexC + j0, j1 - j0);
+        }
+    }
+
+    @Override
+    public void gemv( DMatrix1Row A, double[] b, int offsetB, double[] c, int offsetC ) {
+        final int numCols = A.numCols;
+        for (int i = 0; i < A.numRows; i++) {
+            c[offsetC + i] = dot(A.data, i*numCols, b, offsetB, numCols);
+        }
+    }
+
+    @Override
+    public double dot( double[] a, int offsetA, double[] b, int offsetB, int length ) {
+        DoubleVector sum0 = DoubleVector.zero(SPECIES);
+        DoubleVector sum1 = DoubleVector.zero(SPECIES);
+
+        // two accumulators hide the latency of the fused multiply-add
+        int i = 0;
+        for (; i + 2*VL <= length; i += 2*VL) {
+            sum0 = DoubleVector.fromArray(SPECIES, a, offsetA + i).fma(
+                    DoubleVector.fromArray(SPECIES, b, offsetB + i), sum0);
+            sum1 = DoubleVector.fromArray(SPECIES, a, offsetA + i + VL).fma(
+                    DoubleVector.fromArray(SPECIES, b, offsetB + i + VL), sum1);
+        }
+        for (; i + VL <= length; i += VL) {
+            sum0 = DoubleVector.fromArray(SPECIES, a, offsetA + i).fma(
+                    DoubleVector.fromArray(SPECIES, b, offsetB + i), sum0);
+        }
+
+        double total = sum0.add(sum1).reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            total += a[offsetA + i]*b[offsetB + i];
+        }
+        return total;
+    }
+
+    @Override
+    public void axpy( double alpha, double[] x, int offsetX, double[] y, int offsetY, int length ) {
+        axpyImpl(alpha, x, offsetX, y, offsetY, length);
+    }
+
+    static void axpyImpl( double alpha, double[] x, int offsetX, double[] y, int offsetY, int length ) {
+        DoubleVector va = DoubleVector.broadcast(SPECIES, alpha);
+        int i = 0;
+        for (; i + VL <= length; i += VL) {
+            DoubleVector vy = DoubleVector.fromArray(SPECIES, y, offsetY + i);
+            DoubleVector.fromArray(SPECIES, x, offsetX + i).fma(va, vy).intoArray(y, offsetY + i);
+        }
+        for (; i < length; i++) {
+            y[offsetY + i] += alpha*x[offsetX + i];
+        }
+    }
+
+    @Override
+    public void add( double alpha, double[] a, double beta, double[] b, double[] c, int length ) {
+        DoubleVector va = DoubleVector.broadcast(SPECIES, alpha);
+        DoubleVector vb = DoubleVector.broadcast(SPECIES, beta);
+        int i = 0;
+        for (; i + VL <= length; i += VL) {
+            DoubleVector x = DoubleVector.fromArray(SPECIES, a, i).mul(va);
+            DoubleVector.fromArray(SPECIES, b, i).fma(vb, x).intoArray(c, i);
+        }
+        for (; i < length; i++) {
+            c[i] = alpha*a[i] + beta*b[i];
+        }
+    }
+
+    @Override
+    public void elementMult( double[] a, double[] b, double[] c, int length ) {
+        int i = 0;
+        for (; i + VL <= length; i += VL) {
+            DoubleVector.fromArray(SPECIES, a, i).mul(DoubleVector.fromArray(SPECIES, b, i)).intoArray(c, i);
+        }
+        for (; i < length; i++) {
+            c[i] = a[i]*b[i];
+        }
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2009-2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.simd;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.ejml.dense.row.mult.MatrixMatrixMult_DDRM;
+import org.ejml.dense.row.mult.SimdOps_DDRM;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.ejml.EjmlUnitTests.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestVectorApiKernels_DDRM {
+    Random rand = new Random(234);
+    VectorApiKernels_DDRM alg = new VectorApiKernels_DDRM();
+
+    // lengths which exercise the unrolled loop, single vectors and scalar tails
+    int[] lengths = new int[]{0, 1, 3, VectorApiKernels_DDRM.VL, 2*VectorApiKernels_DDRM.VL + 1, 101};
+
+    /**
+     * The kernels should be found automatically when this module is on the class path
+     */
+    @Test
+    public void loadedByServiceLoader() {
+        assertTrue(SimdOps_DDRM.getKernels() instanceof VectorApiKernels_DDRM);
+    }
+
+    @Test
+    public void gemm() {
+        int blockK = VectorApiKernels_DDRM.BLOCK_K;
+        int blockN = VectorApiKernels_DDRM.BLOCK_N;
+        try {
+            // small blocks so that partial blocks are exercised
+            VectorApiKernels_DDRM.BLOCK_K = 7;
+            VectorApiKernels_DDRM.BLOCK_N = 2*VectorApiKernels_DDRM.VL + 3;
+
+            for (int[] shape : new int[][]{{1, 1, 1}, {5, 3, 2}, {9, 37, 20}, {31, 50, 17}}) {
+                for (boolean transA : new boolean[]{false, true}) {
+                    for (boolean transB : new boolean[]{false, true}) {
+                        for (boolean add : new boolean[]{false, true}) {
+                            checkGemm(shape[0], shape[1], shape[2], transA, transB, add);
+                        }
+                    }
+                }
+            }
+        } finally {
+            VectorApiKernels_DDRM.BLOCK_K = blockK;
+            VectorApiKernels_DDRM.BLOCK_N = blockN;
+        }
+    }
+
+    private void checkGemm( int m, int n, int k, boolean transA, boolean transB, boolean add ) {
+        double alpha = 1.5;
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(m, k, rand);
+        DMatrixRMaj B = RandomMatrices_DDRM.rectangle(k, n, rand);
+        DMatrixRMaj C = RandomMatrices_DDRM.rectangle(m, n, rand);
+
+        DMatrixRMaj expected = new DMatrixRMaj(m, n);
+        MatrixMatrixMult_DDRM.mult_small(alpha, A, B, expected);
+        if (add)
+            CommonOps_DDRM.addEquals(expected, C);
+
+        DMatrixRMaj opA = transA ? CommonOps_DDRM.transpose(A, null) : A;
+        DMatrixRMaj opB = transB ? CommonOps_DDRM.transpose(B, null) : B;
+        alg.gemm(alpha, opA, transA, opB, transB, C, add);
+
+        assertEquals(expected, C, UtilEjml.TEST_F64);
+    }
+
+    @Test
+    public void gemv() {
+        for (int length : lengths) {
+            DMatrixRMaj A = RandomMatrices_DDRM.rectangle(7, length, rand);
+            DMatrixRMaj b = RandomMatrices_DDRM.rectangle(length, 1, rand);
+            DMatrixRMaj expected = new DMatrixRMaj(7, 1);
+            MatrixMatrixMult_DDRM.mult_small(A, b, expected);
+
+            double[] c = new double[9];
+            alg.gemv(A, b.data, 0, c, 2);
+            for (int i = 0; i < 7; i++) {
+                assertEquals(expected.data[i], c[i + 2], UtilEjml.TEST_F64);
+            }
+        }
+    }
+
+    @Test
+    public void dot() {
+        for (int length : lengths) {
+            double[] a = randomArray(length + 2);
+            double[] b = randomArray(length + 1);
+
+            double expected = 0;
+            for (int i = 0; i < length; i++) {
+                expected += a[i + 2]*b[i + 1];
+            }
+            assertEquals(expected, alg.dot(a, 2, b, 1, length), UtilEjml.TEST_F64);
+        }
+    }
+
+    @Test
+    public void axpy() {
+        for (int length : lengths) {
+            double[] x = randomArray(length + 1);
+            double[] y = randomArray(length + 3);
+            double[] expected = y.clone();
+            for (int i = 0; i < length; i++) {
+                expected[i + 3] += 0.7*x[i + 1];
+            }
+            alg.axpy(0.7, x, 1, y, 3, length);
+            assertArrayEquals(expected, y, UtilEjml.TEST_F64);
+        }
+    }
+
+    @Test
+    public void add() {
+        for (int length : lengths) {
+            double[] a = randomArray(length);
+            double[] b = randomArray(length);
+            double[] expected = new double[length];
+            for (int i = 0; i < length; i++) {
+                expected[i] = 0.5*a[i] - 2.0*b[i];
+            }
+            // output is the same as an input
+            alg.add(0.5, a, -2.0, b, b, length);
+            assertArrayEquals(expected, b, UtilEjml.TEST_F64);
+        }
+    }
+
+    @Test
+    public void elementMult() {
+        for (int length : lengths) {
+            double[] a = randomArray(length);
+            double[] b = randomArray(length);
+            double[] expected = new double[length];
+            for (int i = 0; i < length; i++) {
+                expected[i] = a[i]*b[i];
+            }
+            double[] c = new double[length];
+            alg.elementMult(a, b, c, length);
+            assertArrayEquals(expected, c, UtilEjml.TEST_F64);
+        }
+    }
+
+    private double[] randomArray( int length ) {
+        double[] array = new double[length];
+        for (int i = 0; i < length; i++) {
+            array[i] = rand.nextDouble() - 0.5;
+        }
+        return array;
+    }
+}